@@ -215,6 +215,7 @@ def twister2_client_lib_communication_files():
         "//twister2/comms/src/java:comms-java",
         "@org_yaml_snakeyaml//jar",
         "@com_esotericsoftware_kryo//jar",
+        "@com_github_luben_zstd_jni//jar",
         "@com_google_guava_guava//jar",
         "@org_apache_commons_commons_lang3//jar",
         "@org_apache_commons_commons_collections4//jar",
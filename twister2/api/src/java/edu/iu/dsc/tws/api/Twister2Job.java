@@ -287,6 +287,7 @@ public final class Twister2Job {
   public static final class Twister2JobBuilder {
     private Twister2Job twister2Job;
     private int computeIndexCounter = 0;
+    private List<String> kryoClasses = new ArrayList<>();
 
     private Twister2JobBuilder() {
       this.twister2Job = new Twister2Job();
@@ -425,10 +426,39 @@ public final class Twister2Job {
       return this;
     }
 
+    /**
+     * Register classes with the kryo serializer used by the workers. Only an integer id is
+     * written for a registered class instead of its name, which reduces the size of the
+     * serialized objects and the time to serialize them.
+     *
+     * @param classes the classes to register
+     */
+    public Twister2JobBuilder registerKryoClasses(Class<?>... classes) {
+      for (Class<?> c : classes) {
+        kryoClasses.add(c.getName());
+      }
+      return this;
+    }
+
+    @SuppressWarnings("unchecked")
     public Twister2Job build() {
       if (twister2Job.config == null) {
         twister2Job.config = new JobConfig();
       }
+
+      if (!kryoClasses.isEmpty()) {
+        List<String> classes = new ArrayList<>();
+        Object configured = twister2Job.config.get(KryoSerializer.KRYO_REGISTERED_CLASSES);
+        if (configured instanceof List) {
+          classes.addAll((List<String>) configured);
+        }
+        for (String c : kryoClasses) {
+          if (!classes.contains(c)) {
+            classes.add(c);
+          }
+        }
+        twister2Job.config.put(KryoSerializer.KRYO_REGISTERED_CLASSES, classes);
+      }
       return twister2Job;
     }
 
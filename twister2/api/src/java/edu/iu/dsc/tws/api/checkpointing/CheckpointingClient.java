@@ -44,4 +44,13 @@ public interface CheckpointingClient {
   Checkpoint.FamilyInitializeResponse initFamily(
       int containerIndex, int containersCount,
       String family, Set<Integer> members) throws BlockingSendException;
+
+  /**
+   * Inform the store when all the components of the family commit a version, the store of a
+   * family may be registered from several tasks
+   *
+   * @param family the family
+   * @param stateStore the store holding the snapshots of the family in this worker
+   */
+  void registerStateStore(String family, StateStore stateStore);
 }
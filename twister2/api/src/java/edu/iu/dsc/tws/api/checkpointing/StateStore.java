@@ -63,4 +63,16 @@ public interface StateStore {
    * @throws IOException if an error occurs
    */
   boolean contains(String key) throws IOException;
+
+  /**
+   * Inform the store that all the components of a family have persisted the given version, so
+   * the data only needed to restore older versions can be removed. This is called in the
+   * worker that wrote the data, for the stores registered with
+   * {@link CheckpointingClient#registerStateStore(String, StateStore)}. Stores may ignore this.
+   * @param family the family
+   * @param version the committed version
+   * @throws IOException if an error occurs
+   */
+  default void onVersionCommitted(String family, long version) throws IOException {
+  }
 }
@@ -42,6 +42,17 @@ public class CommunicationContext extends Context {
   public static final String ALLTOALL_ALGO_SIMPLE = "simple";
   public static final String ALLTOALL_ALGO_RING = "ring";
 
+  /**
+   * The algorithm used by allreduce. The tree algorithm reduces to a single task and broadcasts
+   * the result, the ring algorithm does a reduce-scatter followed by an allgather over chunks
+   * of primitive arrays, each as a single all-to-all step rather than passing the chunks
+   * between neighbours. The ring algorithm requires an element wise reduce function.
+   */
+  public static final String ALLREDUCE_ALGO_KEY =
+      "twister2.network.allreduce.algorithm";
+  public static final String ALLREDUCE_ALGO_TREE = "tree";
+  public static final String ALLREDUCE_ALGO_RING = "ring";
+
   public static final String BUFFER_SIZE = "twister2.network.buffer.size";
 
   public static final String SEND_BUFFERS_COUNT = "twister2.network.sendBuffer.count";
@@ -49,6 +60,18 @@ public class CommunicationContext extends Context {
   public static final String SEND_PENDING_MAX = "twister2.network.send.pending.max";
   public static final String CHANNEL_PENDING_SIZE
       = "twister2.network.channel.pending.size";
+
+  /**
+   * The shared memory channel sends to the workers on the same node through memory mapped
+   * ring buffers in this directory, and uses the remote channel class for the other workers.
+   * Every ordered pair of workers on a node uses a separate ring of the given size.
+   */
+  public static final String SHM_CHANNEL_DIRECTORY = "twister2.network.shm.directory";
+  public static final String SHM_CHANNEL_RING_SIZE = "twister2.network.shm.ring.size";
+  public static final String SHM_CHANNEL_REMOTE_CLASS = "twister2.network.shm.remote.class";
+  public static final String SHM_CHANNEL_REMOTE_CLASS_DEFAULT =
+      "edu.iu.dsc.tws.comms.tcp.TWSTCPChannel";
+
   public static final String MESSAGE_GROUP_LOW_WATERMARK =
       "twister2.network.message.group.low_water_mark";
   public static final String MESSAGE_GROUP_HIGH_WATERMARK =
@@ -65,6 +88,16 @@ public class CommunicationContext extends Context {
       "twister2.network.shuffle.file.bytes.max";
   public static final String SHUFFLE_PARALLEL_IO =
       "twister2.network.shuffle.parallel.io";
+
+  /**
+   * The sorted merger used by the sorted keyed operations. The default merger keeps the records
+   * as tuples, the loser tree merger sorts the runs in parallel and merges them with a loser tree
+   * over the memory mapped files.
+   */
+  public static final String SHUFFLE_SORTED_MERGER =
+      "twister2.network.shuffle.sorted.merger";
+  public static final String SHUFFLE_SORTED_MERGER_DEFAULT = "default";
+  public static final String SHUFFLE_SORTED_MERGER_LOSER_TREE = "losertree";
   public static final String RING_GROUPING_WORKER_PER_GROUPS =
       "twister2.network.partition.ring.group.workers";
 
@@ -129,6 +162,10 @@ public class CommunicationContext extends Context {
     return getStringPropertyValue(cfg, ALLTOALL_ALGO_KEY, ALLTOALL_ALGO_RING);
   }
 
+  public static String allReduceAlgorithm(Config cfg) {
+    return getStringPropertyValue(cfg, ALLREDUCE_ALGO_KEY, ALLREDUCE_ALGO_TREE);
+  }
+
   public static int bufferSize(Config cfg) {
     return getIntPropertyValue(cfg, BUFFER_SIZE, 2048000);
   }
@@ -149,6 +186,19 @@ public class CommunicationContext extends Context {
     return getIntPropertyValue(cfg, CHANNEL_PENDING_SIZE, 1024);
   }
 
+  public static String shmChannelDirectory(Config cfg) {
+    return getStringPropertyValue(cfg, SHM_CHANNEL_DIRECTORY, "/dev/shm");
+  }
+
+  public static int shmChannelRingSize(Config cfg) {
+    return getIntPropertyValue(cfg, SHM_CHANNEL_RING_SIZE, 4 * 1024 * 1024);
+  }
+
+  public static String shmChannelRemoteClass(Config cfg) {
+    return getStringPropertyValue(cfg, SHM_CHANNEL_REMOTE_CLASS,
+        SHM_CHANNEL_REMOTE_CLASS_DEFAULT);
+  }
+
   public static int getNetworkPartitionMessageGroupLowWaterMark(Config cfg) {
     return getIntPropertyValue(cfg, MESSAGE_GROUP_LOW_WATERMARK, 8);
   }
@@ -177,6 +227,10 @@ public class CommunicationContext extends Context {
     return getIntPropertyValue(cfg, SHUFFLE_PARALLEL_IO, 1);
   }
 
+  public static String getShuffleSortedMerger(Config cfg) {
+    return getStringPropertyValue(cfg, SHUFFLE_SORTED_MERGER, SHUFFLE_SORTED_MERGER_DEFAULT);
+  }
+
   public static int getRingWorkersPerGroup(Config cfg) {
     return getIntPropertyValue(cfg, RING_GROUPING_WORKER_PER_GROUPS, 128);
   }
@@ -0,0 +1,24 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.api.comms.channel;
+
+/**
+ * Gets notified after a channel completes sends or receives. The executors use this to wake
+ * up the threads that are waiting for messages.
+ */
+public interface ChannelCompletionListener {
+  /**
+   * Called by the thread progressing the channel after one or more sends or receives are
+   * completed. This should return quickly.
+   */
+  void onCompletion();
+}
@@ -0,0 +1,55 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.api.comms.channel;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Keeps the completion listeners of a channel. The channel marks each completed send or
+ * receive and notifies the listeners once at the end of a progress call.
+ */
+public class ChannelCompletionNotifier {
+  private final List<ChannelCompletionListener> listeners = new CopyOnWriteArrayList<>();
+
+  /**
+   * Weather a send or receive is completed since the last notification
+   */
+  private boolean completed;
+
+  public void addListener(ChannelCompletionListener listener) {
+    listeners.add(listener);
+  }
+
+  public void removeListener(ChannelCompletionListener listener) {
+    listeners.remove(listener);
+  }
+
+  /**
+   * Mark a completed send or receive
+   */
+  public void completed() {
+    completed = true;
+  }
+
+  /**
+   * Notify the listeners if there are completions since the last notification
+   */
+  public void notifyListeners() {
+    if (completed) {
+      completed = false;
+      for (ChannelCompletionListener listener : listeners) {
+        listener.onCompletion();
+      }
+    }
+  }
+}
@@ -118,6 +118,22 @@ public interface TWSChannel {
    */
   void releaseBuffers(int wId, int e);
 
+  /**
+   * Add a listener to be notified when the sends or receives complete
+   *
+   * @param listener the listener
+   */
+  default void addCompletionListener(ChannelCompletionListener listener) {
+  }
+
+  /**
+   * Remove a completion listener
+   *
+   * @param listener the listener
+   */
+  default void removeCompletionListener(ChannelCompletionListener listener) {
+  }
+
   /**
    * re-initialize the channel with restarted workers
    * @param restartedWorkers
@@ -72,17 +72,12 @@ public class DataBuffer {
                                  byte[] value,
                                  int startIndex,
                                  int byteLength) {
-    int bytesRead = 0;
-    int currentBufferLocation = bufferLocation;
-    for (int i = startIndex; i < byteLength; i++) {
-      int remaining = size - currentBufferLocation;
-      if (remaining >= 1) {
-        value[i] = byteBuffer.get(currentBufferLocation);
-        bytesRead += 1;
-        currentBufferLocation += 1;
-      } else {
-        break;
-      }
+    int bytesRead = Math.max(0, Math.min(size - bufferLocation, byteLength - startIndex));
+    if (bytesRead > 0) {
+      // read through a duplicate, so that the position of the buffer is not changed
+      ByteBuffer view = byteBuffer.duplicate();
+      view.position(bufferLocation);
+      view.get(value, startIndex, bytesRead);
     }
     return bytesRead;
   }
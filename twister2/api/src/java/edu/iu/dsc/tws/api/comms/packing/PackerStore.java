@@ -12,6 +12,7 @@
 package edu.iu.dsc.tws.api.comms.packing;
 
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.HashMap;
 
 /**
@@ -40,4 +41,20 @@ public abstract class PackerStore extends HashMap<String, Object> {
    * Retrieve the stored serialized message
    */
   public abstract byte[] retrieve();
+
+  /**
+   * Stores the serialized data temporarily, only the first length bytes of the data are valid.
+   * This allows packers to store a reused buffer without copying it to an array of the exact size.
+   */
+  public void store(byte[] data, int length) {
+    store(data.length == length ? data : Arrays.copyOf(data, length));
+  }
+
+  /**
+   * Retrieve the length of the stored serialized message
+   */
+  public int retrieveLength() {
+    byte[] data = retrieve();
+    return data == null ? 0 : data.length;
+  }
 }
@@ -40,10 +40,9 @@ public final class ObjectPacker implements DataPacker<Object, byte[]> {
   @Override
   public int determineLength(Object data, PackerStore store) {
     if (store.retrieve() == null) {
-      byte[] serialize = serializer.get().serialize(data);
-      store.store(serialize);
+      serialize(data, store);
     }
-    return store.retrieve().length;
+    return store.retrieveLength();
   }
 
   @Override
@@ -52,11 +51,25 @@ public final class ObjectPacker implements DataPacker<Object, byte[]> {
                                 ByteBuffer targetBuffer) {
     byte[] datBytes = packerStore.retrieve();
     if (datBytes == null) { // could be due to fixed schema
-      datBytes = serializer.get().serialize(data);
       // storing since this will be useful for next iteration
-      packerStore.store(datBytes);
+      datBytes = serialize(data, packerStore);
     }
-    targetBuffer.put(datBytes, alreadyCopied, Math.min(leftToCopy, spaceLeft));
+    int copyLength = Math.min(leftToCopy, spaceLeft);
+    targetBuffer.put(datBytes, alreadyCopied, copyLength);
+    // the whole object is copied, we can reuse the buffer for the next object
+    if (alreadyCopied + copyLength == packerStore.retrieveLength()) {
+      serializer.get().releaseBuffer(datBytes);
+    }
+  }
+
+  /**
+   * Serialize the object to a pooled buffer and keep it in the store until it is copied
+   */
+  private byte[] serialize(Object data, PackerStore store) {
+    KryoSerializer kryoSerializer = serializer.get();
+    byte[] buffer = kryoSerializer.serializeToPooledBuffer(data);
+    store.store(buffer, kryoSerializer.getSerializedLength());
+    return buffer;
   }
 
   @SuppressWarnings("unchecked")
@@ -65,13 +78,23 @@ public final class ObjectPacker implements DataPacker<Object, byte[]> {
                                 int currentBufferLocation, DataBuffer dataBuffer) {
     int totalObjectLength = objectBuilder.getTotalSize();
     int startIndex = objectBuilder.getCompletedSize();
+    // the whole object is in this buffer, read it without copying
+    if (startIndex == 0 && dataBuffer.getSize() - currentBufferLocation >= totalObjectLength) {
+      objectBuilder.setFinalObject(serializer.get().deserialize(dataBuffer.getByteBuffer(),
+          currentBufferLocation, totalObjectLength));
+      return totalObjectLength;
+    }
+    // the object spans several buffers, the parts are copied to a pooled buffer that can be
+    // longer than the object
     byte[] objectVal = (byte[]) objectBuilder.getPartialDataHolder();
     int value = dataBuffer.copyPartToByteArray(currentBufferLocation, objectVal,
         startIndex, totalObjectLength);
     // at the end we switch to the actual object
     int totalBytesRead = startIndex + value;
     if (totalBytesRead == totalObjectLength) {
-      Object kryoValue = serializer.get().deserialize(objectVal);
+      KryoSerializer kryoSerializer = serializer.get();
+      Object kryoValue = kryoSerializer.deserialize(objectVal, 0, totalObjectLength);
+      kryoSerializer.releaseBuffer(objectVal);
       objectBuilder.setFinalObject(kryoValue);
     }
     return value;
@@ -84,21 +107,32 @@ public final class ObjectPacker implements DataPacker<Object, byte[]> {
 
   @Override
   public ByteBuffer packToByteBuffer(ByteBuffer byteBuffer, Object data) {
-    return byteBuffer.put(this.packToByteArray(data));
+    KryoSerializer kryoSerializer = serializer.get();
+    byte[] buffer = kryoSerializer.serializeToPooledBuffer(data);
+    byteBuffer.put(buffer, 0, kryoSerializer.getSerializedLength());
+    kryoSerializer.releaseBuffer(buffer);
+    return byteBuffer;
   }
 
   @Override
   public ByteBuffer packToByteBuffer(ByteBuffer byteBuffer, int offset, Object data) {
-    byte[] packedData = this.packToByteArray(data);
-    for (int i = 0; i < packedData.length; i++) {
-      byteBuffer.put(offset + i, packedData[i]);
-    }
+    KryoSerializer kryoSerializer = serializer.get();
+    byte[] buffer = kryoSerializer.serializeToPooledBuffer(data);
+    // write through a duplicate, so that the position of the buffer is not changed
+    ByteBuffer view = byteBuffer.duplicate();
+    view.position(offset);
+    view.put(buffer, 0, kryoSerializer.getSerializedLength());
+    kryoSerializer.releaseBuffer(buffer);
     return byteBuffer;
   }
 
+  /**
+   * The returned buffer is taken from the pool of the serializer and can be longer than the
+   * given length
+   */
   @Override
   public byte[] wrapperForByteLength(int byteLength) {
-    return new byte[byteLength];
+    return serializer.get().acquireBuffer(byteLength);
   }
 
   @Override
@@ -108,19 +142,14 @@ public final class ObjectPacker implements DataPacker<Object, byte[]> {
 
   @Override
   public Object unpackFromBuffer(ByteBuffer byteBuffer, int bufferOffset, int byteLength) {
-    byte[] bytes = new byte[byteLength];
-    // intentionally not using byteBuffer.get(byte[]). The contract of this method is not to update
-    // buffer position
-    for (int i = 0; i < byteLength; i++) {
-      bytes[i] = byteBuffer.get(bufferOffset + i);
-    }
-    return this.serializer.get().deserialize(bytes);
+    return this.serializer.get().deserialize(byteBuffer, bufferOffset, byteLength);
   }
 
   @Override
   public Object unpackFromBuffer(ByteBuffer byteBuffer, int byteLength) {
-    byte[] bytes = new byte[byteLength];
-    byteBuffer.get(bytes, 0, byteLength);
-    return serializer.get().deserialize(bytes);
+    int position = byteBuffer.position();
+    Object object = serializer.get().deserialize(byteBuffer, position, byteLength);
+    byteBuffer.position(position + byteLength);
+    return object;
   }
 }
@@ -31,6 +31,11 @@ public class ExecutionPlan {
 
   private Map<Integer, INodeInstance> nodes = new HashMap<>();
 
+  /**
+   * All the task instances, including the ones fused in to a single instance
+   */
+  private Map<Integer, INodeInstance> allNodes = new HashMap<>();
+
   private Map<String, Map<Integer, INodeInstance>> nodesByName = new HashMap<>();
 
   private List<IParallelOperation> parallelOperations = new ArrayList<>();
@@ -53,6 +58,7 @@ public class ExecutionPlan {
    */
   public void addNodes(String name, int taskId, INodeInstance node) {
     nodes.put(taskId, node);
+    allNodes.put(taskId, node);
     Map<Integer, INodeInstance> instances;
     if (!nodesByName.containsKey(name)) {
       instances = new HashMap<>();
@@ -63,10 +69,39 @@ public class ExecutionPlan {
     instances.put(taskId, node);
   }
 
+  /**
+   * The instances to be executed, a set of fused instances appear as a single instance
+   *
+   * @return the instances to execute
+   */
   public Map<Integer, INodeInstance> getNodes() {
     return nodes;
   }
 
+  /**
+   * All the task instances of this plan, including the ones fused in to another instance
+   *
+   * @return the task instances
+   */
+  public Map<Integer, INodeInstance> getAllNodes() {
+    return allNodes;
+  }
+
+  /**
+   * Replace a set of instances with a single instance that executes all of them. The instances
+   * are still available through {@link #getAllNodes()} and {@link #getNodes(String)}.
+   *
+   * @param taskId the global task id to use for the fused instance
+   * @param fused the fused instance
+   * @param members the global task ids of the fused instances
+   */
+  public void fuseNodes(int taskId, INodeInstance fused, List<Integer> members) {
+    for (int member : members) {
+      nodes.remove(member);
+    }
+    nodes.put(taskId, fused);
+  }
+
   public void addOps(IParallelOperation op) {
     parallelOperations.add(op);
   }
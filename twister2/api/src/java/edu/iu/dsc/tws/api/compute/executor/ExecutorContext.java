@@ -27,12 +27,31 @@ public class ExecutorContext extends Context {
       = "edu.iu.dsc.tws.executor.threading.BatchSharingExecutor";
   public static final String BATCH_EXECUTOR_SHARING
       = "edu.iu.dsc.tws.executor.threading.BatchSharingExecutor2";
+  public static final String BATCH_EXECUTOR_WORK_STEALING
+      = "edu.iu.dsc.tws.executor.threading.BatchWorkStealingExecutor";
+
+  /**
+   * Maximum time an idle executor thread parks before checking the tasks again
+   */
+  public static final String IDLE_PARK_MAX_NANOS = "twister2.exector.idle.park.max.nanos";
 
   public static final String STREAM_EXECUTOR_ALL_SHARING =
       "edu.iu.dsc.tws.executor.threading.StreamingAllSharingExecutor";
   public static final String STREAM_EXECUTOR_DEDICATED_COMM =
       "edu.iu.dsc.tws.executor.threading.StreamingSharingExecutor";
+  public static final String STREAM_EXECUTOR_WORK_STEALING =
+      "edu.iu.dsc.tws.executor.threading.StreamingWorkStealingExecutor";
+
+  /**
+   * Maximum number of times a streaming instance is executed in a single turn
+   */
+  public static final String STREAM_MAX_BATCH = "twister2.exector.stream.max.batch";
+
 
+  /**
+   * Fuse the batch tasks connected by pipe and direct edges in to a single instance
+   */
+  public static final String FUSE_OPERATORS = "twister2.exector.fuse.operators";
 
   public static final String TWISTER2_RUNTIME_OBJECT = "_twister2.runtime_";
 
@@ -48,6 +67,18 @@ public class ExecutorContext extends Context {
     return cfg.getIntegerValue(INSTANCE_QUEUE_HIGH_WATERMARK, 128);
   }
 
+  public static long idleParkMaxNanos(Config cfg) {
+    return cfg.getLongValue(IDLE_PARK_MAX_NANOS, 1000000L);
+  }
+
+  public static int streamMaxBatch(Config cfg) {
+    return cfg.getIntegerValue(STREAM_MAX_BATCH, 64);
+  }
+
+  public static boolean fuseOperators(Config cfg) {
+    return cfg.getBooleanValue(FUSE_OPERATORS, false);
+  }
+
   public static String getBatchExecutor(Config cfg) {
     return cfg.getStringValue(BATCH_EXECUTOR, BATCH_EXECUTOR_SHARING);
   }
@@ -31,6 +31,17 @@ public interface INodeInstance {
    */
   boolean execute();
 
+  /**
+   * Check weather the last call to {@link #execute()} did no work and the instance is waiting
+   * for messages. Executors can park their threads when all the instances are idle. Instances
+   * that cannot tell this are never idle.
+   *
+   * @return true if the instance is idle
+   */
+  default boolean isIdle() {
+    return false;
+  }
+
   /**
    * Prepare for an execution
    *
@@ -0,0 +1,193 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.api.compute.schedule;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measurements of the executions of the task graphs, used by the task schedulers to place the
+ * instances when a graph is scheduled again.
+ * <p>
+ * The executors record the number of messages sent through each edge and the time each task
+ * instance spends executing, only for the graphs marked with {@link #record(String)} by a
+ * scheduler that uses them. These are the local measurements of a worker. Before scheduling,
+ * the local measurements of all the workers are combined and set as the global measurements, so
+ * that every worker computes the same schedule from the same values.
+ */
+public final class ExecutionStatistics {
+  private static final String EDGE_PREFIX = "e:";
+
+  private static final String BUSY_TIME_PREFIX = "t:";
+
+  /**
+   * The local measurements, graph name to measurement key to value
+   */
+  private static final Map<String, Map<String, LongAdder>> LOCAL = new ConcurrentHashMap<>();
+
+  /**
+   * The combined measurements of all the workers
+   */
+  private static final Map<String, Map<String, Long>> GLOBAL = new ConcurrentHashMap<>();
+
+  /**
+   * The graphs whose executions are measured
+   */
+  private static final Set<String> RECORDED = ConcurrentHashMap.newKeySet();
+
+  private ExecutionStatistics() {
+  }
+
+  /**
+   * Graphs without a name are kept under an empty name
+   */
+  private static String name(String graph) {
+    return graph == null ? "" : graph;
+  }
+
+  private static LongAdder counter(String graph, String key) {
+    return LOCAL.computeIfAbsent(name(graph), g -> new ConcurrentHashMap<>())
+        .computeIfAbsent(key, k -> new LongAdder());
+  }
+
+  private static String busyTimeKey(String task, int index) {
+    return BUSY_TIME_PREFIX + task + ":" + index;
+  }
+
+  /**
+   * Measure the executions of a graph, this should be called before the instances of the graph
+   * are created
+   *
+   * @param graph graph name
+   */
+  public static void record(String graph) {
+    RECORDED.add(name(graph));
+  }
+
+  /**
+   * Weather the executions of a graph are measured, the executors should not look up the
+   * counters or read the clock otherwise
+   *
+   * @param graph graph name
+   * @return true if the graph is measured
+   */
+  public static boolean isRecorded(String graph) {
+    return RECORDED.contains(name(graph));
+  }
+
+  /**
+   * The counter for the messages sent through an edge of a graph. The counter should be looked
+   * up once and incremented for each message.
+   *
+   * @param graph graph name
+   * @param edge edge name
+   * @return the counter
+   */
+  public static LongAdder sentMessagesCounter(String graph, String edge) {
+    return counter(graph, EDGE_PREFIX + edge);
+  }
+
+  /**
+   * The counter for the nano seconds a task instance spends executing
+   *
+   * @param graph graph name
+   * @param task task name
+   * @param index task index
+   * @return the counter
+   */
+  public static LongAdder busyTimeCounter(String graph, String task, int index) {
+    return counter(graph, busyTimeKey(task, index));
+  }
+
+  /**
+   * Take the local measurements of a graph and reset them
+   *
+   * @param graph graph name
+   * @return measurement key to value
+   */
+  public static Map<String, Long> takeLocal(String graph) {
+    Map<String, LongAdder> counters = LOCAL.get(name(graph));
+    Map<String, Long> values = new HashMap<>();
+    if (counters != null) {
+      for (Map.Entry<String, LongAdder> e : counters.entrySet()) {
+        long value = e.getValue().sumThenReset();
+        if (value != 0) {
+          values.put(e.getKey(), value);
+        }
+      }
+    }
+    return values;
+  }
+
+  /**
+   * Set the combined measurements of all the workers for a graph
+   *
+   * @param graph graph name
+   * @param values measurement key to value, the sum of the local values of the workers
+   */
+  public static void setGlobal(String graph, Map<String, Long> values) {
+    if (values.isEmpty()) {
+      return;
+    }
+    GLOBAL.put(name(graph), Collections.unmodifiableMap(new HashMap<>(values)));
+  }
+
+  /**
+   * Weather there are global measurements for the graph
+   *
+   * @param graph graph name
+   * @return true if the graph was measured
+   */
+  public static boolean hasGlobal(String graph) {
+    return GLOBAL.containsKey(name(graph));
+  }
+
+  /**
+   * Number of messages sent through an edge in the measured executions
+   *
+   * @param graph graph name
+   * @param edge edge name
+   * @return number of messages, 0 if not measured
+   */
+  public static long getSentMessages(String graph, String edge) {
+    return GLOBAL.getOrDefault(name(graph), Collections.emptyMap())
+        .getOrDefault(EDGE_PREFIX + edge, 0L);
+  }
+
+  /**
+   * Nano seconds spent executing by a task instance in the measured executions
+   *
+   * @param graph graph name
+   * @param task task name
+   * @param index task index
+   * @return the time, 0 if not measured
+   */
+  public static long getBusyTime(String graph, String task, int index) {
+    return GLOBAL.getOrDefault(name(graph), Collections.emptyMap())
+        .getOrDefault(busyTimeKey(task, index), 0L);
+  }
+
+  /**
+   * Remove all the measurements of a graph
+   *
+   * @param graph graph name
+   */
+  public static void clear(String graph) {
+    LOCAL.remove(name(graph));
+    GLOBAL.remove(name(graph));
+    RECORDED.remove(name(graph));
+  }
+}
@@ -88,6 +88,8 @@ public class Context {
 
   public static final String TWISTER2_LATENCY = "latency";
 
+  public static final String TWISTER2_WORKER_HOST = "host";
+
   public static final String TWISTER2_MAX_TASK_INSTANCES_PER_WORKER
       = "twister2.max.task.instances.per.worker";
 
@@ -29,6 +29,8 @@ import edu.iu.dsc.tws.api.config.SchedulerContext;
 import edu.iu.dsc.tws.api.exceptions.TimeoutException;
 import edu.iu.dsc.tws.api.faulttolerance.JobProgress;
 import edu.iu.dsc.tws.api.util.CommonThreadPool;
+import edu.iu.dsc.tws.api.util.KryoSerializer;
+import edu.iu.dsc.tws.api.util.SpillIOService;
 import edu.iu.dsc.tws.proto.jobmaster.JobMasterAPI;
 import edu.iu.dsc.tws.proto.system.job.JobAPI;
 
@@ -114,6 +116,12 @@ public final class WorkerEnvironment {
     //initialize common thread pool
     CommonThreadPool.init(config);
 
+    //initialize the writers for the data spilled to disk
+    SpillIOService.init(config);
+
+    // register the job classes with kryo before any data is serialized
+    KryoSerializer.registerClasses(config);
+
     //wait for the workers to join
     try {
       this.workerList = workerController.getAllWorkers();
@@ -184,6 +192,7 @@ public final class WorkerEnvironment {
   public void close() {
     this.communicator.close();
     CommonThreadPool.close();
+    SpillIOService.close();
     this.workerEnv = null;
   }
 
@@ -0,0 +1,32 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.api.tset.fn;
+
+/**
+ * Record collector that will be passed on to a {@link MultiOutputComputeFunc}. Writes each
+ * record only to the edges of the given output.
+ */
+public interface MultiOutputCollector {
+
+  /**
+   * Collects the record for an output
+   *
+   * @param output index of the output
+   * @param record data record
+   */
+  void collect(int output, Object record);
+
+  /**
+   * Closes the collector
+   */
+  void close();
+}
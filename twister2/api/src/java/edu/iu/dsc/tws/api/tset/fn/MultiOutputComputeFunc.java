@@ -0,0 +1,24 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.api.tset.fn;
+
+/**
+ * Computes outputs for several outgoing edges in a single pass over the input. Every record is
+ * passed to a {@link MultiOutputCollector} together with the index of the output it belongs to,
+ * and it is only written to the edges created for that output.
+ *
+ * @param <I> input type
+ */
+public interface MultiOutputComputeFunc<I> extends TFunction<I, Object> {
+
+  void compute(I input, MultiOutputCollector output);
+}
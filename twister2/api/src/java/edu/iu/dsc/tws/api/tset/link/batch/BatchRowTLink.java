@@ -19,8 +19,11 @@ import edu.iu.dsc.tws.api.tset.fn.ComputeCollectorFunc;
 import edu.iu.dsc.tws.api.tset.fn.FlatMapFunc;
 import edu.iu.dsc.tws.api.tset.fn.MapFunc;
 import edu.iu.dsc.tws.api.tset.fn.SinkFunc;
+import edu.iu.dsc.tws.api.tset.sets.StorableTBase;
 import edu.iu.dsc.tws.api.tset.sets.batch.BatchRowTSet;
 import edu.iu.dsc.tws.common.table.Row;
+import edu.iu.dsc.tws.common.table.ops.Aggregation;
+import edu.iu.dsc.tws.common.table.ops.TableFilter;
 
 /**
  * Table based communication links.
@@ -37,4 +40,42 @@ public interface BatchRowTLink extends TBase {
   void forEach(ApplyFunc<Row> applyFunction);
 
   BatchRowTSet lazyForEach(ApplyFunc<Row> applyFunction);
+
+  /**
+   * Filter the rows column wise, without creating row objects
+   *
+   * @param filter the filter
+   * @return the filtered TSet
+   */
+  BatchRowTSet filter(TableFilter filter);
+
+  /**
+   * Select a subset of the columns
+   *
+   * @param columns the column indexes in the output order
+   * @return the projected TSet
+   */
+  BatchRowTSet project(int... columns);
+
+  /**
+   * Group the rows by a key column and aggregate each group. The groups of each partition are
+   * aggregated separately, the rows should be partitioned by the key before this to get a
+   * global aggregation.
+   *
+   * @param keyColumn the key column
+   * @param aggregations the aggregations
+   * @return a TSet with the key column followed by a column for each aggregation
+   */
+  BatchRowTSet aggregate(int keyColumn, Aggregation... aggregations);
+
+  /**
+   * Inner hash join with a cached or persisted row TSet. The build side is fully loaded by
+   * every instance, so it should be small enough to fit in the memory of each worker.
+   *
+   * @param build the build side
+   * @param probeKey the key column of this TSet
+   * @param buildKey the key column of the build side
+   * @return a TSet with the columns of this TSet followed by the columns of the build side
+   */
+  BatchRowTSet hashJoin(StorableTBase<Row> build, int probeKey, int buildKey);
 }
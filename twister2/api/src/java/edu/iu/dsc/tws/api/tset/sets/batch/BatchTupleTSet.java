@@ -149,6 +149,27 @@ public interface BatchTupleTSet<K, V> extends TupleTSet<K, V>,
    */
   BatchTLink<Iterator<Tuple<K, V>>, Tuple<K, V>> keyedReduce(ReduceFunc<V> reduceFn);
 
+  /**
+   * Reduces data by key for {@link BatchTupleTSet}s, the keys are sent to the targets given by
+   * the partition function
+   *
+   * @param reduceFn the reduce function
+   * @param partitionFn partition function to partition data based on key
+   * @return Keyed Reduce TLink
+   */
+  BatchTLink<Iterator<Tuple<K, V>>, Tuple<K, V>> keyedReduce(ReduceFunc<V> reduceFn,
+                                                             PartitionFunc<K> partitionFn);
+
+  /**
+   * Reduces data by key for {@link BatchTupleTSet}s with skewed keys. The data is first reduced
+   * with a partitioner that splits the frequent keys over multiple targets, then the partial
+   * results are reduced again by key. The reduce function should be associative.
+   *
+   * @param reduceFn the reduce function
+   * @return Keyed Reduce TLink of the final reduction
+   */
+  BatchTLink<Iterator<Tuple<K, V>>, Tuple<K, V>> skewAwareKeyedReduce(ReduceFunc<V> reduceFn);
+
   /**
    * Joins with another {@link BatchTupleTSet}. Note that this TSet will be considered the left
    * TSet
@@ -0,0 +1,51 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.api.util;
+
+/**
+ * Compresses the blocks of data written to the local disk. The codecs are registered in
+ * {@link BlockCodecs} and each compressed block records the id of the codec used.
+ */
+public interface BlockCodec {
+  /**
+   * Id of the codec written to each block
+   */
+  byte getId();
+
+  /**
+   * Name of the codec used in the configurations
+   */
+  String getName();
+
+  /**
+   * Maximum length of a compressed block
+   *
+   * @param length length of the block
+   * @return the maximum compressed length
+   */
+  int maxCompressedLength(int length);
+
+  /**
+   * Compress a block
+   *
+   * @return the length of the compressed block
+   */
+  int compress(byte[] src, int srcOffset, int length, byte[] dst, int dstOffset);
+
+  /**
+   * Decompress a block
+   *
+   * @param originalLength length of the block before compressing
+   */
+  void decompress(byte[] src, int srcOffset, int length, byte[] dst, int dstOffset,
+                  int originalLength);
+}
@@ -0,0 +1,214 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.api.util;
+
+import com.github.luben.zstd.Zstd;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+
+import edu.iu.dsc.tws.api.config.Config;
+
+/**
+ * The block codecs used for the data written to the local disk.
+ * <p>
+ * The codec is selected with {@link #COMPRESSION_CODEC} for the job, and can be changed for a
+ * kind of data by appending the kind to the key, for example
+ * "twister2.disk.compression.codec.shuffle". As the configurations of an operation include
+ * the properties of the operation, the codec can also be set for a single operation.
+ */
+public final class BlockCodecs {
+  public static final String COMPRESSION_CODEC = "twister2.disk.compression.codec";
+
+  /**
+   * Data written by the shuffle operations
+   */
+  public static final String SHUFFLE = "shuffle";
+
+  /**
+   * Data persisted by the partitions
+   */
+  public static final String PERSIST = "persist";
+
+  /**
+   * Checkpoint data
+   */
+  public static final String CHECKPOINT = "checkpoint";
+
+  public static final BlockCodec NONE = new NoneCodec();
+  public static final BlockCodec LZ4 = new LZ4Codec();
+  public static final BlockCodec ZSTD = new ZstdCodec();
+
+  private static final BlockCodec[] CODECS = {NONE, LZ4, ZSTD};
+
+  private BlockCodecs() {
+  }
+
+  /**
+   * Get the codec by its name
+   *
+   * @param name name of the codec
+   * @return the codec
+   */
+  public static BlockCodec get(String name) {
+    for (BlockCodec codec : CODECS) {
+      if (codec.getName().equalsIgnoreCase(name)) {
+        return codec;
+      }
+    }
+    throw new IllegalArgumentException("Un-known compression codec: " + name);
+  }
+
+  /**
+   * Get the codec by the id written to the blocks
+   *
+   * @param id id of the codec
+   * @return the codec
+   */
+  public static BlockCodec get(byte id) {
+    for (BlockCodec codec : CODECS) {
+      if (codec.getId() == id) {
+        return codec;
+      }
+    }
+    throw new IllegalArgumentException("Un-known compression codec id: " + id);
+  }
+
+  /**
+   * Get the codec configured for a kind of data
+   *
+   * @param config configuration
+   * @param kind the kind of data, {@link #SHUFFLE}, {@link #PERSIST} or {@link #CHECKPOINT}
+   * @return the codec, {@link #NONE} if compression is not configured
+   */
+  public static BlockCodec fromConfig(Config config, String kind) {
+    String name = config.getStringValue(COMPRESSION_CODEC + "." + kind);
+    if (name == null) {
+      name = config.getStringValue(COMPRESSION_CODEC, NONE.getName());
+    }
+    return get(name);
+  }
+
+  private static final class NoneCodec implements BlockCodec {
+    @Override
+    public byte getId() {
+      return 0;
+    }
+
+    @Override
+    public String getName() {
+      return "none";
+    }
+
+    @Override
+    public int maxCompressedLength(int length) {
+      return length;
+    }
+
+    @Override
+    public int compress(byte[] src, int srcOffset, int length, byte[] dst, int dstOffset) {
+      System.arraycopy(src, srcOffset, dst, dstOffset, length);
+      return length;
+    }
+
+    @Override
+    public void decompress(byte[] src, int srcOffset, int length, byte[] dst, int dstOffset,
+                           int originalLength) {
+      System.arraycopy(src, srcOffset, dst, dstOffset, originalLength);
+    }
+  }
+
+  private static final class LZ4Codec implements BlockCodec {
+    private volatile LZ4Compressor compressor;
+    private volatile LZ4FastDecompressor decompressor;
+
+    @Override
+    public byte getId() {
+      return 1;
+    }
+
+    @Override
+    public String getName() {
+      return "lz4";
+    }
+
+    private LZ4Compressor compressor() {
+      if (compressor == null) {
+        compressor = LZ4Factory.fastestInstance().fastCompressor();
+      }
+      return compressor;
+    }
+
+    @Override
+    public int maxCompressedLength(int length) {
+      return compressor().maxCompressedLength(length);
+    }
+
+    @Override
+    public int compress(byte[] src, int srcOffset, int length, byte[] dst, int dstOffset) {
+      return compressor().compress(src, srcOffset, length, dst, dstOffset,
+          dst.length - dstOffset);
+    }
+
+    @Override
+    public void decompress(byte[] src, int srcOffset, int length, byte[] dst, int dstOffset,
+                           int originalLength) {
+      if (decompressor == null) {
+        decompressor = LZ4Factory.fastestInstance().fastDecompressor();
+      }
+      decompressor.decompress(src, srcOffset, dst, dstOffset, originalLength);
+    }
+  }
+
+  private static final class ZstdCodec implements BlockCodec {
+    /**
+     * A low level favours the speed, the disk bandwidth is what we try to save
+     */
+    private static final int LEVEL = 1;
+
+    @Override
+    public byte getId() {
+      return 2;
+    }
+
+    @Override
+    public String getName() {
+      return "zstd";
+    }
+
+    @Override
+    public int maxCompressedLength(int length) {
+      return (int) Zstd.compressBound(length);
+    }
+
+    @Override
+    public int compress(byte[] src, int srcOffset, int length, byte[] dst, int dstOffset) {
+      long size = Zstd.compressByteArray(dst, dstOffset, dst.length - dstOffset,
+          src, srcOffset, length, LEVEL);
+      if (Zstd.isError(size)) {
+        throw new RuntimeException("Failed to compress: " + Zstd.getErrorName(size));
+      }
+      return (int) size;
+    }
+
+    @Override
+    public void decompress(byte[] src, int srcOffset, int length, byte[] dst, int dstOffset,
+                           int originalLength) {
+      long size = Zstd.decompressByteArray(dst, dstOffset, originalLength,
+          src, srcOffset, length);
+      if (Zstd.isError(size) || size != originalLength) {
+        throw new RuntimeException("Failed to decompress: " + Zstd.getErrorName(size));
+      }
+    }
+  }
+}
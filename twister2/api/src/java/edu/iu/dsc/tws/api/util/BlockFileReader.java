@@ -0,0 +1,204 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.api.util;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+
+/**
+ * Reads a block compressed file one block at a time. The positions are given as the offsets
+ * of the original bytes, so that a reader can remember a position and seek back to it later.
+ */
+public final class BlockFileReader {
+  private RandomAccessFile raf;
+
+  private FileChannel channel;
+
+  /**
+   * Start of each block in the file, and the offset of its first original byte
+   */
+  private LongArrayList fileOffsets = new LongArrayList();
+
+  private LongArrayList originalOffsets = new LongArrayList();
+
+  /**
+   * Index of the current block
+   */
+  private int blockIndex = -1;
+
+  private ByteBuffer header = ByteBuffer.allocate(BlockFormat.HEADER_BYTES);
+
+  private byte[] compressed = new byte[0];
+
+  private byte[] block = new byte[0];
+
+  private ByteBuffer current = ByteBuffer.allocate(0);
+
+  private BlockFileReader(String fileName) throws IOException {
+    this.raf = new RandomAccessFile(fileName, "r");
+    this.channel = raf.getChannel();
+    fileOffsets.add(BlockFormat.MAGIC_BYTES);
+    originalOffsets.add(0);
+  }
+
+  /**
+   * Open a file written with a codec other than {@link BlockCodecs#NONE}
+   *
+   * @param fileName name of the file
+   * @return the reader
+   * @throws IOException if the file can not be opened or it is not block compressed
+   */
+  public static BlockFileReader open(String fileName) throws IOException {
+    BlockFileReader reader = new BlockFileReader(fileName);
+    try {
+      ByteBuffer magic = ByteBuffer.allocate(BlockFormat.MAGIC_BYTES);
+      while (magic.hasRemaining() && reader.channel.read(magic, magic.position()) >= 0) {
+        // read until the magic is complete or the file ends
+      }
+      magic.flip();
+      BlockFormat.checkMagic(magic);
+    } catch (IOException e) {
+      reader.close();
+      throw new IOException("Failed to open the block compressed file " + fileName, e);
+    }
+    return reader;
+  }
+
+  /**
+   * The original bytes of the current block, the position of the buffer is the read position
+   */
+  public ByteBuffer buffer() {
+    return current;
+  }
+
+  /**
+   * Weather there are more bytes to read, moves to the next block if the current block is read
+   */
+  public boolean hasRemaining() throws IOException {
+    while (!current.hasRemaining()) {
+      if (!nextBlock()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Read the next block
+   *
+   * @return false if there are no more blocks
+   */
+  public boolean nextBlock() throws IOException {
+    return readBlock(blockIndex + 1);
+  }
+
+  /**
+   * The offset of the next original byte to read
+   */
+  public long position() {
+    if (blockIndex < 0) {
+      return 0;
+    }
+    return originalOffsets.getLong(blockIndex) + current.position();
+  }
+
+  /**
+   * Move to an offset of the original bytes, returned earlier by {@link #position()}
+   *
+   * @param position the offset
+   */
+  public void seek(long position) throws IOException {
+    int index = 0;
+    while (true) {
+      if (!indexBlock(index)) {
+        if (originalOffsets.getLong(index) == position) {
+          blockIndex = index - 1;
+          current = ByteBuffer.allocate(0);
+          return;
+        }
+        throw new EOFException("Position is outside the file: " + position);
+      }
+      if (originalOffsets.getLong(index + 1) > position) {
+        break;
+      }
+      index++;
+    }
+    readBlock(index);
+    current.position((int) (position - originalOffsets.getLong(index)));
+  }
+
+  /**
+   * Make sure the header of the block at the given index is read
+   *
+   * @return false if there is no such block
+   */
+  private boolean indexBlock(int index) throws IOException {
+    while (fileOffsets.size() <= index + 1) {
+      int last = fileOffsets.size() - 1;
+      long start = fileOffsets.getLong(last);
+      if (start >= channel.size()) {
+        return false;
+      }
+      readHeader(start);
+      fileOffsets.add(start + BlockFormat.HEADER_BYTES + BlockFormat.compressedLength(header));
+      originalOffsets.add(originalOffsets.getLong(last) + BlockFormat.originalLength(header));
+    }
+    return true;
+  }
+
+  private void readHeader(long start) throws IOException {
+    header.clear();
+    while (header.hasRemaining()) {
+      if (channel.read(header, start + header.position()) < 0) {
+        throw new EOFException("Truncated block header");
+      }
+    }
+    header.flip();
+  }
+
+  private boolean readBlock(int index) throws IOException {
+    if (!indexBlock(index)) {
+      return false;
+    }
+    long start = fileOffsets.getLong(index);
+    readHeader(start);
+    int compressedLength = BlockFormat.compressedLength(header);
+    int originalLength = BlockFormat.originalLength(header);
+    if (compressed.length < compressedLength) {
+      compressed = new byte[compressedLength];
+    }
+    if (block.length < originalLength) {
+      block = new byte[originalLength];
+    }
+    ByteBuffer data = ByteBuffer.wrap(compressed, 0, compressedLength);
+    long dataStart = start + BlockFormat.HEADER_BYTES;
+    while (data.hasRemaining()) {
+      if (channel.read(data, dataStart + data.position()) < 0) {
+        throw new EOFException("Truncated block");
+      }
+    }
+    int length = BlockFormat.readBlock(header, compressed, 0, block);
+    current = ByteBuffer.wrap(block, 0, length).slice();
+    blockIndex = index;
+    return true;
+  }
+
+  public void close() throws IOException {
+    channel.close();
+    raf.close();
+  }
+}
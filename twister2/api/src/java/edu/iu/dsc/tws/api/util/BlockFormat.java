@@ -0,0 +1,198 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.api.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+
+/**
+ * Layout of the block compressed files. A file starts with {@link #MAGIC} followed by the
+ * blocks, each block has a header with the codec id, the original length, the compressed
+ * length and the CRC32 checksum of the original bytes.
+ * <p>
+ * The writers end the blocks only at the record boundaries, so a record can be read from a
+ * single block.
+ * <p>
+ * The readers do not guess the format from the bytes, as uncompressed data can start with the
+ * same bytes as {@link #MAGIC}. A reader reads the blocks only if the writer was configured with
+ * a codec other than {@link BlockCodecs#NONE}, and the magic is only verified.
+ */
+public final class BlockFormat {
+  /**
+   * "T2BLK" followed by the version of the format
+   */
+  public static final long MAGIC = 0x5432424C4B000001L;
+
+  public static final int MAGIC_BYTES = Long.BYTES;
+
+  public static final int HEADER_BYTES = 1 + 3 * Integer.BYTES;
+
+  private BlockFormat() {
+  }
+
+  /**
+   * Maximum length of a block including the header
+   */
+  public static int maxBlockLength(BlockCodec codec, int length) {
+    return HEADER_BYTES + Math.max(codec.maxCompressedLength(length), length);
+  }
+
+  /**
+   * Compress the bytes to a block. If the codec doesn't reduce the size the bytes are stored
+   * without compressing.
+   *
+   * @param codec the codec
+   * @param src the bytes
+   * @param offset offset of the bytes
+   * @param length length of the bytes
+   * @param dst the array to write the block, should have {@link #maxBlockLength} bytes
+   * @return length of the block including the header
+   */
+  public static int writeBlock(BlockCodec codec, byte[] src, int offset, int length,
+                               byte[] dst) {
+    BlockCodec blockCodec = codec;
+    int compressed = codec.compress(src, offset, length, dst, HEADER_BYTES);
+    if (compressed >= length) {
+      blockCodec = BlockCodecs.NONE;
+      compressed = BlockCodecs.NONE.compress(src, offset, length, dst, HEADER_BYTES);
+    }
+
+    CRC32 crc = new CRC32();
+    crc.update(src, offset, length);
+
+    ByteBuffer header = ByteBuffer.wrap(dst, 0, HEADER_BYTES);
+    header.put(blockCodec.getId());
+    header.putInt(length);
+    header.putInt(compressed);
+    header.putInt((int) crc.getValue());
+    return HEADER_BYTES + compressed;
+  }
+
+  /**
+   * Decompress a block and verify the checksum
+   *
+   * @param header the header of the block, positioned at the start of the header
+   * @param src the compressed bytes
+   * @param offset offset of the compressed bytes
+   * @param dst the array to write the original bytes
+   * @return length of the original bytes
+   */
+  public static int readBlock(ByteBuffer header, byte[] src, int offset, byte[] dst) {
+    BlockCodec codec = BlockCodecs.get(header.get());
+    int length = header.getInt();
+    int compressed = header.getInt();
+    int checksum = header.getInt();
+    codec.decompress(src, offset, compressed, dst, 0, length);
+
+    CRC32 crc = new CRC32();
+    crc.update(dst, 0, length);
+    if ((int) crc.getValue() != checksum) {
+      throw new RuntimeException("Checksum mismatch in the block compressed with "
+          + codec.getName());
+    }
+    return length;
+  }
+
+  /**
+   * Length of the block after decompressing
+   */
+  public static int originalLength(ByteBuffer header) {
+    return header.getInt(header.position() + 1);
+  }
+
+  /**
+   * Length of the compressed bytes of the block, without the header
+   */
+  public static int compressedLength(ByteBuffer header) {
+    return header.getInt(header.position() + 1 + Integer.BYTES);
+  }
+
+  /**
+   * Compress an array to blocks, the result starts with {@link #MAGIC}
+   *
+   * @param codec the codec
+   * @param data the bytes
+   * @param blockSize maximum number of original bytes in a block
+   * @return the compressed bytes
+   */
+  public static byte[] compress(BlockCodec codec, byte[] data, int blockSize) {
+    int blocks = Math.max(1, (data.length + blockSize - 1) / blockSize);
+    byte[] block = new byte[maxBlockLength(codec, Math.min(blockSize, data.length))];
+    ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2 + blocks
+        * HEADER_BYTES + MAGIC_BYTES);
+    out.write(ByteBuffer.allocate(MAGIC_BYTES).putLong(MAGIC).array(), 0, MAGIC_BYTES);
+    for (int offset = 0; offset < data.length; offset += blockSize) {
+      int length = writeBlock(codec, data, offset, Math.min(blockSize, data.length - offset),
+          block);
+      out.write(block, 0, length);
+    }
+    return out.toByteArray();
+  }
+
+  /**
+   * Check the magic at the start of block compressed data
+   *
+   * @param magic the first bytes of the data
+   * @throws IOException if the data is not block compressed
+   */
+  public static void checkMagic(ByteBuffer magic) throws IOException {
+    if (magic.remaining() < MAGIC_BYTES || magic.getLong(magic.position()) != MAGIC) {
+      throw new IOException("The data is not block compressed");
+    }
+  }
+
+  /**
+   * Decompress a block compressed array
+   *
+   * @param data the bytes compressed with {@link #compress(BlockCodec, byte[], int)}
+   * @return the original bytes
+   * @throws IOException if the data is not block compressed or it is truncated
+   */
+  public static byte[] decompress(byte[] data) throws IOException {
+    checkMagic(ByteBuffer.wrap(data));
+    ByteBuffer buffer = ByteBuffer.wrap(data);
+    buffer.position(MAGIC_BYTES);
+    int total = 0;
+    while (buffer.hasRemaining()) {
+      if (buffer.remaining() < HEADER_BYTES) {
+        throw new EOFException("Truncated block compressed data");
+      }
+      total += originalLength(buffer);
+      long next = (long) buffer.position() + HEADER_BYTES + compressedLength(buffer);
+      if (next > data.length) {
+        throw new EOFException("Truncated block compressed data");
+      }
+      buffer.position((int) next);
+    }
+
+    byte[] original = new byte[total];
+    byte[] block = new byte[0];
+    int written = 0;
+    buffer.position(MAGIC_BYTES);
+    while (buffer.hasRemaining()) {
+      int length = originalLength(buffer);
+      int compressedLength = compressedLength(buffer);
+      if (block.length < length) {
+        block = new byte[length];
+      }
+      int dataStart = buffer.position() + HEADER_BYTES;
+      readBlock(buffer.duplicate(), data, dataStart, block);
+      System.arraycopy(block, 0, original, written, length);
+      written += length;
+      buffer.position(dataStart + compressedLength);
+    }
+    return original;
+  }
+}
@@ -0,0 +1,131 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.api.util;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads a block compressed stream, a block is decompressed only when the bytes in it are read.
+ */
+public final class BlockInputStream extends InputStream {
+  private DataInputStream in;
+
+  private byte[] header = new byte[BlockFormat.HEADER_BYTES];
+
+  private byte[] compressed = new byte[0];
+
+  private byte[] block = new byte[0];
+
+  private int position;
+
+  private int limit;
+
+  private boolean eof;
+
+  private BlockInputStream(InputStream in) {
+    this.in = new DataInputStream(in);
+  }
+
+  /**
+   * Open a stream written with the given codec. The bytes of a stream written with
+   * {@link BlockCodecs#NONE} are returned as they are.
+   *
+   * @param in the stream
+   * @param codec the codec the stream was written with
+   * @return the stream to read the original bytes
+   * @throws IOException if the stream should be block compressed but it is not
+   */
+  public static InputStream open(InputStream in, BlockCodec codec) throws IOException {
+    if (codec == BlockCodecs.NONE) {
+      return in;
+    }
+    BufferedInputStream bufferedIn = new BufferedInputStream(in);
+    byte[] magic = new byte[BlockFormat.MAGIC_BYTES];
+    int read = 0;
+    while (read < magic.length) {
+      int r = bufferedIn.read(magic, read, magic.length - read);
+      if (r < 0) {
+        break;
+      }
+      read += r;
+    }
+    BlockFormat.checkMagic(ByteBuffer.wrap(magic, 0, read));
+    return new BlockInputStream(bufferedIn);
+  }
+
+  private boolean nextBlock() throws IOException {
+    if (eof) {
+      return false;
+    }
+    int first = in.read();
+    if (first < 0) {
+      eof = true;
+      return false;
+    }
+    header[0] = (byte) first;
+    in.readFully(header, 1, header.length - 1);
+
+    ByteBuffer headerBuffer = ByteBuffer.wrap(header);
+    int compressedLength = BlockFormat.compressedLength(headerBuffer);
+    int originalLength = BlockFormat.originalLength(headerBuffer);
+    if (compressed.length < compressedLength) {
+      compressed = new byte[compressedLength];
+    }
+    if (block.length < originalLength) {
+      block = new byte[originalLength];
+    }
+    in.readFully(compressed, 0, compressedLength);
+    limit = BlockFormat.readBlock(headerBuffer, compressed, 0, block);
+    position = 0;
+    return true;
+  }
+
+  @Override
+  public int read() throws IOException {
+    while (position == limit) {
+      if (!nextBlock()) {
+        return -1;
+      }
+    }
+    return block[position++] & 0xff;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+    while (position == limit) {
+      if (!nextBlock()) {
+        return -1;
+      }
+    }
+    int copy = Math.min(len, limit - position);
+    System.arraycopy(block, position, b, off, copy);
+    position += copy;
+    return copy;
+  }
+
+  @Override
+  public int available() {
+    return limit - position;
+  }
+
+  @Override
+  public void close() throws IOException {
+    in.close();
+  }
+}
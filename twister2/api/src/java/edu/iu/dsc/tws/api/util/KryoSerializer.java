@@ -12,16 +12,72 @@
 package edu.iu.dsc.tws.api.util;
 
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.logging.Logger;
 
 import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.ByteBufferInput;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
 
+import edu.iu.dsc.tws.api.config.Config;
+
 /**
- * Kryo serializer for serializing objects
+ * Kryo serializer for serializing objects.
+ * <p>
+ * The classes registered through {@link #KRYO_REGISTERED_CLASSES} are registered with every
+ * serializer when it is first used, so that only an integer id is written instead of the class
+ * name. All the workers of a job register the same classes in the same order, so the ids match
+ * across the workers. Once a serializer is used with registered classes they can not be
+ * changed, as it would write different ids than the serializers used after the change. A
+ * serializer used before any class is registered, for example to read the job configuration
+ * when the worker starts, registers the classes when they are registered later.
+ * <p>
+ * A serializer is not thread safe, a separate instance should be used per thread.
  */
 public class KryoSerializer {
+  private static final Logger LOG = Logger.getLogger(KryoSerializer.class.getName());
+
+  /**
+   * List of class names to register with kryo
+   */
+  public static final String KRYO_REGISTERED_CLASSES = "twister2.serializer.kryo.classes";
+
+  /**
+   * Kryo uses the ids below this for the primitive types, we start the user ids from here
+   */
+  private static final int REGISTRATION_ID_BASE = 100;
+
+  /**
+   * Maximum number of buffers to keep in the pool
+   */
+  private static final int MAX_POOLED_BUFFERS = 16;
+
+  /**
+   * Buffers larger than this will not be pooled
+   */
+  private static final int MAX_POOLED_BUFFER_SIZE = 4 * 1024 * 1024;
+
+  private static final int INITIAL_BUFFER_SIZE = 2000;
+
+  private static final int MAX_BUFFER_SIZE = 2000000000;
+
+  /**
+   * The classes to register with each kryo instance
+   */
+  private static volatile List<Class<?>> registeredClasses = Collections.emptyList();
+
+  /**
+   * Weather a serializer has registered a non empty list of classes, after which they can not
+   * be changed
+   */
+  private static boolean classesInUse;
+
   /**
    * Kryo object
    */
@@ -35,12 +91,101 @@ public class KryoSerializer {
    */
   private Input kryoIn;
 
+  /**
+   * Kryo output writing to the pooled buffers
+   */
+  private Output pooledOut;
+
+  /**
+   * Kryo input for reading directly from byte buffers
+   */
+  private ByteBufferInput byteBufferIn;
+
+  /**
+   * Buffers that can be reused by {@link #serializeToPooledBuffer(Object)}
+   */
+  private ArrayDeque<byte[]> bufferPool = new ArrayDeque<>();
+
+  /**
+   * The classes registered with the kryo object, null before the first use
+   */
+  private List<Class<?>> registeredWith;
+
   public KryoSerializer() {
     kryo = new Kryo();
     kryo.setReferences(false);
     kryo.setRegistrationRequired(false);
-    kryoOut = new Output(2000, 2000000000);
+    kryoOut = new Output(INITIAL_BUFFER_SIZE, MAX_BUFFER_SIZE);
     kryoIn = new Input(1);
+    pooledOut = new Output(INITIAL_BUFFER_SIZE, MAX_BUFFER_SIZE);
+    byteBufferIn = new ByteBufferInput();
+  }
+
+  /**
+   * Load the classes listed in the configuration to be registered with the serializers. This
+   * should be called when the worker starts, before any data is serialized.
+   *
+   * @param config configuration
+   * @throws IllegalStateException if a serializer is already using different classes
+   */
+  public static synchronized void registerClasses(Config config) {
+    List<String> classNames = config.getStringList(KRYO_REGISTERED_CLASSES);
+    if (classNames == null || classNames.isEmpty()) {
+      return;
+    }
+
+    ClassLoader loader = Thread.currentThread().getContextClassLoader();
+    List<Class<?>> classes = new ArrayList<>();
+    for (String name : classNames) {
+      try {
+        classes.add(Class.forName(name, false, loader));
+      } catch (ClassNotFoundException e) {
+        throw new RuntimeException("Failed to load the class to register with kryo: " + name, e);
+      }
+    }
+    if (classes.equals(registeredClasses)) {
+      return;
+    }
+    if (classesInUse) {
+      throw new IllegalStateException("Kryo classes must be registered before any data is "
+          + "serialized, a serializer is already using the ids of " + registeredClasses);
+    }
+    registeredClasses = Collections.unmodifiableList(classes);
+    LOG.fine("Registered " + classes.size() + " classes with kryo");
+  }
+
+  /**
+   * Get the classes to register and prevent them from changing if there are any
+   */
+  private static synchronized List<Class<?>> useClasses() {
+    if (!registeredClasses.isEmpty()) {
+      classesInUse = true;
+    }
+    return registeredClasses;
+  }
+
+  /**
+   * Forget the registered classes, only to be used by the tests
+   */
+  static synchronized void resetClasses() {
+    registeredClasses = Collections.emptyList();
+    classesInUse = false;
+  }
+
+  /**
+   * Register the classes with kryo before the first use, or when they are registered after
+   * this serializer was used without any
+   */
+  private Kryo kryo() {
+    if (registeredWith == null
+        || (registeredWith.isEmpty() && !registeredClasses.isEmpty())) {
+      List<Class<?>> classes = useClasses();
+      for (int i = 0; i < classes.size(); i++) {
+        kryo.register(classes.get(i), REGISTRATION_ID_BASE + i);
+      }
+      registeredWith = classes;
+    }
+    return kryo;
   }
 
   public void init(Map<String, Object> config) {
@@ -48,17 +193,112 @@ public class KryoSerializer {
 
   public byte[] serialize(Object object) {
     kryoOut.clear();
-    kryo.writeClassAndObject(kryoOut, object);
+    kryo().writeClassAndObject(kryoOut, object);
     return kryoOut.toBytes();
   }
 
+  /**
+   * Serialize the object to a buffer taken from the pool of this serializer, without copying
+   * it to a new array. Only the first {@link #getSerializedLength()} bytes of the returned
+   * buffer are valid. The buffer can be given back with {@link #releaseBuffer(byte[])} once
+   * the bytes are consumed.
+   *
+   * @param object the object
+   * @return the buffer containing the serialized object
+   */
+  public byte[] serializeToPooledBuffer(Object object) {
+    byte[] buffer = bufferPool.poll();
+    if (buffer == null) {
+      buffer = new byte[INITIAL_BUFFER_SIZE];
+    }
+    pooledOut.setBuffer(buffer, MAX_BUFFER_SIZE);
+    kryo().writeClassAndObject(pooledOut, object);
+    return pooledOut.getBuffer();
+  }
+
+  /**
+   * The number of bytes written by the last {@link #serializeToPooledBuffer(Object)}
+   *
+   * @return number of bytes
+   */
+  public int getSerializedLength() {
+    return pooledOut.position();
+  }
+
+  /**
+   * Return a buffer created by {@link #serializeToPooledBuffer(Object)} to the pool
+   *
+   * @param buffer the buffer
+   */
+  public void releaseBuffer(byte[] buffer) {
+    if (bufferPool.size() < MAX_POOLED_BUFFERS && buffer.length <= MAX_POOLED_BUFFER_SIZE) {
+      bufferPool.offer(buffer);
+    }
+  }
+
+  /**
+   * Get a buffer of at least the given length from the pool, it should be returned with
+   * {@link #releaseBuffer(byte[])} after use
+   *
+   * @param length the minimum length
+   * @return the buffer
+   */
+  public byte[] acquireBuffer(int length) {
+    byte[] buffer = bufferPool.poll();
+    if (buffer != null) {
+      if (buffer.length >= length) {
+        return buffer;
+      }
+      bufferPool.offer(buffer);
+    }
+    return new byte[Math.max(length, INITIAL_BUFFER_SIZE)];
+  }
+
   public Object deserialize(byte[] input) {
     kryoIn.setBuffer(input);
-    return kryo.readClassAndObject(kryoIn);
+    return kryo().readClassAndObject(kryoIn);
+  }
+
+  /**
+   * Deserialize an object from a part of a byte array
+   *
+   * @param input the bytes
+   * @param offset the position of the serialized object
+   * @param length the length of the serialized object
+   * @return the object
+   */
+  public Object deserialize(byte[] input, int offset, int length) {
+    kryoIn.setBuffer(input, offset, length);
+    return kryo().readClassAndObject(kryoIn);
+  }
+
+  /**
+   * Deserialize an object directly from a byte buffer. The position of the buffer is not
+   * changed. Kryo temporarily modifies the buffer while reading strings, so the bytes of a
+   * read only buffer are copied first.
+   *
+   * @param buffer the buffer
+   * @param offset the position of the serialized object
+   * @param length the length of the serialized object
+   * @return the object
+   */
+  public Object deserialize(ByteBuffer buffer, int offset, int length) {
+    if (buffer.isReadOnly()) {
+      byte[] bytes = new byte[length];
+      ByteBuffer view = buffer.duplicate();
+      view.position(offset);
+      view.get(bytes);
+      return deserialize(bytes);
+    }
+    ByteBuffer view = buffer.duplicate();
+    view.limit(offset + length);
+    view.position(offset);
+    byteBufferIn.setBuffer(view);
+    return kryo().readClassAndObject(byteBufferIn);
   }
 
   public Object deserialize(InputStream inputStream) {
     Input input = new Input(inputStream);
-    return kryo.readClassAndObject(input);
+    return kryo().readClassAndObject(input);
   }
 }
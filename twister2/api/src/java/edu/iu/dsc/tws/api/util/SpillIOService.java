@@ -0,0 +1,409 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.api.util;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import edu.iu.dsc.tws.api.config.Config;
+
+/**
+ * Writes the data spilled to the disk in the background. The data is copied to direct buffers
+ * taken from a bounded pool and the buffers are written by a set of writer threads, so that the
+ * producer can continue while the earlier data goes to the disk. Each {@link SpillWriter} uses
+ * two buffers, when both of them are waiting for the disk the producer is blocked.
+ * <p>
+ * The pool never holds more than the configured number of buffers. The writers compressing the
+ * data use heap buffers, which are counted against the same limit. When all of them are
+ * checked out, a writer that already has a buffer waits for its own write and reuses the
+ * buffer, and a new writer waits until a buffer is released. So a thread should not keep more
+ * writers open than the number of buffers.
+ * <p>
+ * Closing the service waits for the writers that are already closed to finish their writes.
+ */
+public final class SpillIOService {
+  private static final Logger LOG = Logger.getLogger(SpillIOService.class.getName());
+
+  public static final String SPILL_THREADS = "twister2.spill.io.threads";
+  public static final String SPILL_BUFFER_SIZE = "twister2.spill.io.buffer.bytes";
+  public static final String SPILL_MAX_BUFFERS = "twister2.spill.io.buffers.max";
+
+  private static final int DEFAULT_THREADS = 2;
+  private static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+  private static final int DEFAULT_MAX_BUFFERS = 16;
+
+  /**
+   * Maximum time to wait for the pending writes when closing
+   */
+  private static final long CLOSE_TIMEOUT_SECONDS = 60;
+
+  private static final SpillMetrics NO_METRICS = (name, bytes, writeNanos, blockedNanos) -> {
+  };
+
+  private static volatile SpillIOService spillIOService;
+
+  private static volatile SpillMetrics metrics = NO_METRICS;
+
+  private ExecutorService executorService;
+
+  /**
+   * Runs the writes in the executor service, or on the calling thread after it is shutdown
+   */
+  private Executor executor;
+
+  private int bufferSize;
+
+  /**
+   * Free direct buffers
+   */
+  private ConcurrentLinkedQueue<ByteBuffer> bufferPool = new ConcurrentLinkedQueue<>();
+
+  /**
+   * Free heap buffers
+   */
+  private ConcurrentLinkedQueue<ByteBuffer> heapBufferPool = new ConcurrentLinkedQueue<>();
+
+  /**
+   * Number of buffers that are not checked out, allocated or not
+   */
+  private Semaphore availableBuffers;
+
+  private AtomicLong totalBytes = new AtomicLong(0);
+
+  private AtomicLong totalWriteNanos = new AtomicLong(0);
+
+  private AtomicLong totalBlockedNanos = new AtomicLong(0);
+
+  /**
+   * The arrays to compress the blocks, one for each thread writing
+   */
+  private ThreadLocal<byte[]> blockBuffers = ThreadLocal.withInitial(() -> new byte[0]);
+
+  /**
+   * Number of writers that are closed but still writing
+   */
+  private int closingWriters;
+
+  private SpillIOService(int threads, int bufferSize, int maxBuffers) {
+    this.bufferSize = bufferSize;
+    this.availableBuffers = new Semaphore(Math.max(1, maxBuffers));
+    if (threads > 0) {
+      this.executorService = new ThreadPoolExecutor(threads, threads, 0,
+          TimeUnit.SECONDS, new LinkedBlockingQueue<>(), new SpillThreadFactory());
+      this.executor = r -> {
+        try {
+          executorService.execute(r);
+        } catch (RejectedExecutionException e) {
+          // the service is closed, a writer still in use writes on the calling thread
+          r.run();
+        }
+      };
+    } else {
+      this.executor = Runnable::run;
+    }
+  }
+
+  public static synchronized void init(Config config) {
+    if (spillIOService == null) {
+      int threads = config.getIntegerValue(SPILL_THREADS, DEFAULT_THREADS);
+      spillIOService = new SpillIOService(threads,
+          config.getIntegerValue(SPILL_BUFFER_SIZE, DEFAULT_BUFFER_SIZE),
+          config.getIntegerValue(SPILL_MAX_BUFFERS, DEFAULT_MAX_BUFFERS));
+      LOG.fine("Initialized spill io service with " + threads + " threads.");
+    } else {
+      LOG.warning("Spill io service has already initialized.");
+    }
+  }
+
+  static SpillIOService getService() {
+    if (spillIOService == null) {
+      synchronized (SpillIOService.class) {
+        if (spillIOService == null) {
+          spillIOService = new SpillIOService(DEFAULT_THREADS, DEFAULT_BUFFER_SIZE,
+              DEFAULT_MAX_BUFFERS);
+        }
+      }
+    }
+    return spillIOService;
+  }
+
+  /**
+   * Set the hook to receive the spill statistics
+   *
+   * @param spillMetrics the metrics hook, null to remove the current hook
+   */
+  public static void setMetrics(SpillMetrics spillMetrics) {
+    metrics = spillMetrics == null ? NO_METRICS : spillMetrics;
+  }
+
+  /**
+   * Open a writer to a file, the parent directories are created if they don't exist
+   *
+   * @param fileName the file name
+   * @return the writer
+   */
+  public static SpillWriter open(String fileName) {
+    return open(fileName, BlockCodecs.NONE);
+  }
+
+  /**
+   * Open a writer to a file, the bytes are compressed to blocks with the given codec unless
+   * the codec is {@link BlockCodecs#NONE}
+   *
+   * @param fileName the file name
+   * @param codec the codec
+   * @return the writer
+   */
+  public static SpillWriter open(String fileName, BlockCodec codec) {
+    try {
+      Path path = Paths.get(fileName);
+      if (path.getParent() != null) {
+        Files.createDirectories(path.getParent());
+      }
+      RandomAccessFile file = new RandomAccessFile(fileName, "rw");
+      file.setLength(0);
+      return open(file.getChannel(), fileName, codec);
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to open the file to spill: " + fileName, e);
+    }
+  }
+
+  /**
+   * Open a writer to a channel, the channel is closed when the writer is closed
+   *
+   * @param channel the channel
+   * @param name name of the spill used for the metrics
+   * @return the writer
+   */
+  public static SpillWriter open(WritableByteChannel channel, String name) {
+    return open(channel, name, BlockCodecs.NONE);
+  }
+
+  /**
+   * Open a writer to a channel that compress the bytes to blocks with the given codec
+   *
+   * @param channel the channel
+   * @param name name of the spill used for the metrics
+   * @param codec the codec
+   * @return the writer
+   */
+  public static SpillWriter open(WritableByteChannel channel, String name, BlockCodec codec) {
+    return new SpillWriter(getService(), channel, name, codec);
+  }
+
+  /**
+   * Total number of bytes spilled
+   */
+  public static long getTotalBytes() {
+    return getService().totalBytes.get();
+  }
+
+  /**
+   * Total time spent on writing the spilled bytes
+   */
+  public static long getTotalWriteNanos() {
+    return getService().totalWriteNanos.get();
+  }
+
+  /**
+   * Total time the producers were blocked waiting for the disk
+   */
+  public static long getTotalBlockedNanos() {
+    return getService().totalBlockedNanos.get();
+  }
+
+  /**
+   * Close the service after the writers that are already closed finish writing
+   */
+  public static void close() {
+    SpillIOService service;
+    synchronized (SpillIOService.class) {
+      service = spillIOService;
+      spillIOService = null;
+    }
+    if (service != null) {
+      service.shutdown();
+    }
+  }
+
+  private void shutdown() {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(CLOSE_TIMEOUT_SECONDS);
+    try {
+      // the last write of a writer is submitted after its previous write, so the writers
+      // are drained before stopping the threads
+      synchronized (this) {
+        long remaining = deadline - System.nanoTime();
+        while (closingWriters > 0 && remaining > 0) {
+          TimeUnit.NANOSECONDS.timedWait(this, remaining);
+          remaining = deadline - System.nanoTime();
+        }
+        if (closingWriters > 0) {
+          LOG.warning("Closing the spill io service with " + closingWriters
+              + " writers still writing");
+        }
+      }
+      if (executorService != null) {
+        executorService.shutdown();
+        if (!executorService.awaitTermination(Math.max(0, deadline - System.nanoTime()),
+            TimeUnit.NANOSECONDS)) {
+          LOG.warning("Spill io threads did not finish the writes in "
+              + CLOSE_TIMEOUT_SECONDS + " seconds");
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      if (executorService != null) {
+        executorService.shutdown();
+      }
+    }
+  }
+
+  synchronized void writerClosing() {
+    closingWriters++;
+  }
+
+  synchronized void writerClosed() {
+    closingWriters--;
+    notifyAll();
+  }
+
+  Executor getExecutor() {
+    return executor;
+  }
+
+  int getBufferSize() {
+    return bufferSize;
+  }
+
+  /**
+   * Take a buffer from the pool, waiting until one is released if all of them are in use
+   */
+  ByteBuffer acquireBuffer() {
+    return acquireBuffer(true);
+  }
+
+  /**
+   * Take a heap buffer from the pool, waiting until one is released if all of them are in use
+   */
+  ByteBuffer acquireHeapBuffer() {
+    return acquireBuffer(false);
+  }
+
+  private ByteBuffer acquireBuffer(boolean direct) {
+    try {
+      availableBuffers.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while waiting for a spill buffer", e);
+    }
+    return takeBuffer(direct);
+  }
+
+  /**
+   * Take a buffer from the pool without waiting
+   *
+   * @return the buffer or null if all the buffers are in use
+   */
+  ByteBuffer tryAcquireBuffer() {
+    return tryAcquireBuffer(true);
+  }
+
+  /**
+   * Take a heap buffer from the pool without waiting
+   *
+   * @return the buffer or null if all the buffers are in use
+   */
+  ByteBuffer tryAcquireHeapBuffer() {
+    return tryAcquireBuffer(false);
+  }
+
+  private ByteBuffer tryAcquireBuffer(boolean direct) {
+    if (!availableBuffers.tryAcquire()) {
+      return null;
+    }
+    return takeBuffer(direct);
+  }
+
+  private ByteBuffer takeBuffer(boolean direct) {
+    ByteBuffer buffer = direct ? bufferPool.poll() : heapBufferPool.poll();
+    if (buffer == null) {
+      return direct ? ByteBuffer.allocateDirect(bufferSize) : ByteBuffer.allocate(bufferSize);
+    }
+    buffer.clear();
+    return buffer;
+  }
+
+  /**
+   * Return a buffer to the pool, a buffer grown beyond the buffer size is dropped but its
+   * place in the pool is released
+   */
+  void releaseBuffer(ByteBuffer buffer) {
+    if (buffer.capacity() == bufferSize) {
+      if (buffer.isDirect()) {
+        bufferPool.offer(buffer);
+      } else {
+        heapBufferPool.offer(buffer);
+      }
+    }
+    availableBuffers.release();
+  }
+
+  /**
+   * Get the array of the calling thread to compress a block
+   *
+   * @param length the minimum length
+   * @return the array
+   */
+  byte[] getBlockBuffer(int length) {
+    byte[] block = blockBuffers.get();
+    if (block.length < length) {
+      block = new byte[length];
+      blockBuffers.set(block);
+    }
+    return block;
+  }
+
+  void spilled(String name, long bytes, long writeNanos, long blockedNanos) {
+    totalBytes.addAndGet(bytes);
+    totalWriteNanos.addAndGet(writeNanos);
+    totalBlockedNanos.addAndGet(blockedNanos);
+    metrics.spilled(name, bytes, writeNanos, blockedNanos);
+  }
+
+  private static final class SpillThreadFactory implements ThreadFactory {
+    private final AtomicInteger threadCount = new AtomicInteger(0);
+
+    @Override
+    public Thread newThread(Runnable r) {
+      Thread t = new Thread(r, "twister2-spill-io-" + threadCount.getAndIncrement());
+      t.setDaemon(true);
+      return t;
+    }
+  }
+}
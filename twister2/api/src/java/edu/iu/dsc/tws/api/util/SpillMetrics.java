@@ -0,0 +1,27 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.api.util;
+
+/**
+ * Hook to receive statistics about the data spilled to disk through {@link SpillIOService}
+ */
+public interface SpillMetrics {
+  /**
+   * Called from a writer thread after a spill is completely written and closed
+   *
+   * @param name name of the spill, usually the file name
+   * @param bytes number of bytes written
+   * @param writeNanos time spent on writing to the disk
+   * @param blockedNanos time the producer was blocked waiting for the disk
+   */
+  void spilled(String name, long bytes, long writeNanos, long blockedNanos);
+}
@@ -0,0 +1,352 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.api.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes a stream of bytes to a channel in the background. The bytes are copied to a direct
+ * buffer and the buffer is handed over to a writer thread once it is full, while the next
+ * buffer is filled. If the previous buffer is not yet written, the producer waits for it. When
+ * the pool of the {@link SpillIOService} has no buffer left, the writer uses a single buffer
+ * and waits for each write.
+ * <p>
+ * A writer should be used by a single thread. {@link #closeAsync()} returns after the last
+ * buffer is handed over and {@link #await()} waits until all the bytes are on the channel.
+ * <p>
+ * If a {@link BlockCodec} other than {@link BlockCodecs#NONE} is given, heap buffers of the same
+ * pool are used, compressed in the writer thread and written in the {@link BlockFormat}. The
+ * producer marks the end of each record with {@link #markRecord()}, and only the complete
+ * records are handed over so that a block never splits a record.
+ */
+public final class SpillWriter {
+  private SpillIOService service;
+
+  private WritableByteChannel channel;
+
+  private String name;
+
+  private BlockCodec codec;
+
+  /**
+   * Weather the bytes are written as compressed blocks
+   */
+  private boolean compressed;
+
+  /**
+   * End of the last complete record in the current buffer
+   */
+  private int recordEnd;
+
+  /**
+   * The buffer being filled
+   */
+  private ByteBuffer current;
+
+  /**
+   * The buffer handed over to the writer thread, this buffer is reused once it is written
+   */
+  private ByteBuffer pending;
+
+  /**
+   * Completes when the pending buffer is written
+   */
+  private CompletableFuture<Void> pendingWrite = CompletableFuture.completedFuture(null);
+
+  /**
+   * Completes when the writer is closed
+   */
+  private CompletableFuture<Void> completion;
+
+  private long bytes;
+
+  private long blockedNanos;
+
+  private AtomicLong writeNanos = new AtomicLong(0);
+
+  SpillWriter(SpillIOService service, WritableByteChannel channel, String name,
+              BlockCodec codec) {
+    this.service = service;
+    this.channel = channel;
+    this.name = name;
+    this.codec = codec;
+    this.compressed = codec != BlockCodecs.NONE;
+    long start = System.nanoTime();
+    this.current = compressed ? service.acquireHeapBuffer() : service.acquireBuffer();
+    this.blockedNanos += System.nanoTime() - start;
+    if (compressed) {
+      ByteBuffer magic = ByteBuffer.allocate(BlockFormat.MAGIC_BYTES);
+      magic.putLong(BlockFormat.MAGIC);
+      magic.flip();
+      this.pendingWrite = CompletableFuture.runAsync(() -> write(magic), service.getExecutor());
+    }
+  }
+
+  public void putInt(int value) {
+    ensureSpace(Integer.BYTES);
+    current.putInt(value);
+    bytes += Integer.BYTES;
+  }
+
+  public void putLong(long value) {
+    ensureSpace(Long.BYTES);
+    current.putLong(value);
+    bytes += Long.BYTES;
+  }
+
+  public void put(byte[] data) {
+    put(data, 0, data.length);
+  }
+
+  public void put(byte[] data, int offset, int length) {
+    checkOpen();
+    int written = 0;
+    while (written < length) {
+      if (!current.hasRemaining()) {
+        handOver();
+      }
+      int copy = Math.min(current.remaining(), length - written);
+      current.put(data, offset + written, copy);
+      written += copy;
+    }
+    bytes += length;
+  }
+
+  /**
+   * Mark the end of a record, a compressed block ends only at a record end. Records larger
+   * than the buffer grow the buffer.
+   */
+  public void markRecord() {
+    recordEnd = current.position();
+  }
+
+  /**
+   * Number of bytes written to this writer so far
+   */
+  public long getBytes() {
+    return bytes;
+  }
+
+  private void ensureSpace(int size) {
+    checkOpen();
+    while (current.remaining() < size) {
+      handOver();
+    }
+  }
+
+  private void checkOpen() {
+    if (completion != null) {
+      throw new IllegalStateException("Spill writer is already closed: " + name);
+    }
+  }
+
+  /**
+   * Hand over the current buffer to a writer thread and start filling the next one
+   */
+  private void handOver() {
+    if (compressed) {
+      handOverRecords();
+      return;
+    }
+    waitForPending();
+    ByteBuffer next = pending != null ? pending : service.tryAcquireBuffer();
+
+    ByteBuffer toWrite = current;
+    toWrite.flip();
+    pendingWrite = CompletableFuture.runAsync(() -> write(toWrite), service.getExecutor());
+    if (next == null) {
+      // all the buffers of the pool are in use, write this one before filling it again
+      waitForPending();
+      toWrite.clear();
+      return;
+    }
+    next.clear();
+    pending = toWrite;
+    current = next;
+  }
+
+  /**
+   * Hand over the complete records of the current buffer to be compressed, and move the
+   * partial record to the next buffer
+   */
+  private void handOverRecords() {
+    if (recordEnd == 0) {
+      // a single record doesn't fit to the buffer
+      ByteBuffer larger = ByteBuffer.allocate(current.capacity() * 2);
+      current.flip();
+      larger.put(current);
+      current = larger;
+      return;
+    }
+
+    waitForPending();
+    ByteBuffer next = pending != null ? pending : service.tryAcquireHeapBuffer();
+
+    ByteBuffer toWrite = current;
+    toWrite.flip();
+    ByteBuffer partial = toWrite.duplicate();
+    partial.position(recordEnd);
+    toWrite.limit(recordEnd);
+
+    pendingWrite = CompletableFuture.runAsync(() -> writeBlock(toWrite),
+        service.getExecutor());
+    recordEnd = 0;
+    if (next == null) {
+      // all the buffers of the pool are in use, compress this one before filling it again
+      waitForPending();
+      toWrite.limit(partial.limit());
+      toWrite.position(partial.position());
+      toWrite.compact();
+      return;
+    }
+    if (next.capacity() < partial.remaining()) {
+      // the buffer grew for a large record, the larger one takes the place of this buffer
+      next = ByteBuffer.allocate(toWrite.capacity());
+    }
+    next.clear();
+    next.put(partial);
+    pending = toWrite;
+    current = next;
+  }
+
+  private void writeBlock(ByteBuffer buffer) {
+    int length = buffer.remaining();
+    if (length == 0) {
+      return;
+    }
+    byte[] blockBuffer = service.getBlockBuffer(BlockFormat.maxBlockLength(codec, length));
+    int blockLength = BlockFormat.writeBlock(codec, buffer.array(),
+        buffer.arrayOffset() + buffer.position(), length, blockBuffer);
+    write(ByteBuffer.wrap(blockBuffer, 0, blockLength));
+  }
+
+  private void waitForPending() {
+    if (pendingWrite.isDone()) {
+      rethrowFailure(pendingWrite);
+      return;
+    }
+    long start = System.nanoTime();
+    rethrowFailure(pendingWrite);
+    blockedNanos += System.nanoTime() - start;
+  }
+
+  private void rethrowFailure(CompletableFuture<Void> future) {
+    try {
+      future.join();
+    } catch (CompletionException e) {
+      close(e.getCause());
+      throw new RuntimeException("Failed to spill the data: " + name, e.getCause());
+    }
+  }
+
+  private void write(ByteBuffer buffer) {
+    long start = System.nanoTime();
+    try {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    } catch (IOException e) {
+      throw new CompletionException(e);
+    } finally {
+      writeNanos.addAndGet(System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * Hand over the remaining bytes and close the channel after writing them, without waiting
+   * for the disk.
+   */
+  public void closeAsync() {
+    if (completion != null) {
+      return;
+    }
+    ByteBuffer last = current;
+    ByteBuffer other = pending;
+    last.flip();
+    current = null;
+    pending = null;
+    Runnable lastWrite = compressed ? () -> writeBlock(last) : () -> write(last);
+    service.writerClosing();
+    completion = pendingWrite.thenRunAsync(lastWrite, service.getExecutor())
+        .whenComplete((v, t) -> {
+          try {
+            service.releaseBuffer(last);
+            if (other != null) {
+              service.releaseBuffer(other);
+            }
+            try {
+              channel.close();
+            } catch (IOException e) {
+              if (t == null) {
+                throw new CompletionException(e);
+              }
+            }
+            if (t == null) {
+              service.spilled(name, bytes, writeNanos.get(), blockedNanos);
+            }
+          } finally {
+            service.writerClosed();
+          }
+        });
+  }
+
+  /**
+   * Close the writer and wait until all the bytes are written
+   *
+   * @return number of bytes written
+   */
+  public long await() {
+    closeAsync();
+    try {
+      completion.join();
+    } catch (CompletionException e) {
+      throw new RuntimeException("Failed to spill the data: " + name, e.getCause());
+    }
+    return bytes;
+  }
+
+  /**
+   * Weather all the bytes are written after closing
+   */
+  public boolean isDone() {
+    return completion != null && completion.isDone();
+  }
+
+  /**
+   * Close after a failed write, no write is running when this is called so the buffers are
+   * returned to the pool
+   */
+  private void close(Throwable cause) {
+    if (completion == null) {
+      completion = new CompletableFuture<>();
+      completion.completeExceptionally(cause);
+      if (current != null) {
+        service.releaseBuffer(current);
+      }
+      if (pending != null) {
+        service.releaseBuffer(pending);
+      }
+      current = null;
+      pending = null;
+      try {
+        channel.close();
+      } catch (IOException e) {
+        // we are already failing
+      }
+    }
+  }
+}
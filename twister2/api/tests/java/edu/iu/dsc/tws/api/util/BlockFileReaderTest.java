@@ -0,0 +1,149 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.api.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class BlockFileReaderTest {
+  private static final BlockCodec[] CODECS = {BlockCodecs.NONE, BlockCodecs.LZ4,
+      BlockCodecs.ZSTD};
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private String write(byte[] bytes) throws IOException {
+    File file = folder.newFile();
+    Files.write(file.toPath(), bytes);
+    return file.getPath();
+  }
+
+  private static byte[] readAll(BlockFileReader reader, int length) throws IOException {
+    byte[] read = new byte[length];
+    int offset = 0;
+    while (reader.hasRemaining()) {
+      ByteBuffer buffer = reader.buffer();
+      int copy = buffer.remaining();
+      buffer.get(read, offset, copy);
+      offset += copy;
+    }
+    Assert.assertEquals(length, offset);
+    return read;
+  }
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    byte[] data = BlockFormatTest.testData(10000);
+    for (BlockCodec codec : CODECS) {
+      BlockFileReader reader = BlockFileReader.open(
+          write(BlockFormat.compress(codec, data, 64 * 1024)));
+      Assert.assertArrayEquals(codec.getName(), data, readAll(reader, data.length));
+      Assert.assertEquals(data.length, reader.position());
+      reader.close();
+    }
+  }
+
+  @Test
+  public void testMultipleBlocks() throws IOException {
+    byte[] data = BlockFormatTest.testData(10000);
+    for (BlockCodec codec : CODECS) {
+      BlockFileReader reader = BlockFileReader.open(
+          write(BlockFormat.compress(codec, data, 300)));
+      Assert.assertArrayEquals(codec.getName(), data, readAll(reader, data.length));
+      reader.close();
+    }
+  }
+
+  @Test
+  public void testSeek() throws IOException {
+    byte[] data = BlockFormatTest.testData(10000);
+    for (BlockCodec codec : CODECS) {
+      BlockFileReader reader = BlockFileReader.open(
+          write(BlockFormat.compress(codec, data, 300)));
+      // forward across blocks, back to an earlier block, and to a block boundary
+      for (int position : new int[]{4321, 17, 600, 9999}) {
+        reader.seek(position);
+        Assert.assertEquals(position, reader.position());
+        Assert.assertTrue(reader.hasRemaining());
+        Assert.assertEquals(data[position], reader.buffer().get());
+        Assert.assertEquals(position + 1, reader.position());
+      }
+      reader.seek(data.length);
+      Assert.assertFalse(reader.hasRemaining());
+      reader.close();
+    }
+  }
+
+  @Test
+  public void testResumeFromPosition() throws IOException {
+    byte[] data = BlockFormatTest.testData(5000);
+    String file = write(BlockFormat.compress(BlockCodecs.LZ4, data, 512));
+    BlockFileReader reader = BlockFileReader.open(file);
+    reader.seek(700);
+    reader.buffer().get(new byte[100]);
+    long position = reader.position();
+    reader.close();
+
+    // a reader released and opened again continues from the position
+    reader = BlockFileReader.open(file);
+    reader.seek(position);
+    byte[] rest = readAll(reader, data.length - 800);
+    for (int i = 0; i < rest.length; i++) {
+      Assert.assertEquals(data[800 + i], rest[i]);
+    }
+    reader.close();
+  }
+
+  @Test
+  public void testEmpty() throws IOException {
+    for (BlockCodec codec : CODECS) {
+      BlockFileReader reader = BlockFileReader.open(
+          write(BlockFormat.compress(codec, new byte[0], 1024)));
+      Assert.assertFalse(reader.hasRemaining());
+      Assert.assertEquals(0, reader.position());
+      reader.close();
+    }
+  }
+
+  @Test
+  public void testChecksumMismatch() throws IOException {
+    byte[] data = BlockFormatTest.testData(1000);
+    byte[] compressed = BlockFormat.compress(BlockCodecs.ZSTD, data, 2000);
+    BlockFormatTest.corruptChecksum(compressed, BlockFormat.MAGIC_BYTES);
+    BlockFileReader reader = BlockFileReader.open(write(compressed));
+    try {
+      reader.hasRemaining();
+      Assert.fail("The corrupted block should not be read");
+    } catch (RuntimeException e) {
+      Assert.assertTrue(e.getMessage().startsWith("Checksum mismatch"));
+    } finally {
+      reader.close();
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testMissingMagic() throws IOException {
+    BlockFileReader.open(write(BlockFormatTest.testData(100)));
+  }
+
+  @Test(expected = IOException.class)
+  public void testShortFile() throws IOException {
+    BlockFileReader.open(write(new byte[3]));
+  }
+}
@@ -0,0 +1,129 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.api.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BlockFormatTest {
+  private static final BlockCodec[] CODECS = {BlockCodecs.NONE, BlockCodecs.LZ4,
+      BlockCodecs.ZSTD};
+
+  /**
+   * Bytes that compress well followed by random bytes that do not
+   */
+  static byte[] testData(int length) {
+    byte[] data = new byte[length];
+    Random random = new Random(length);
+    for (int i = 0; i < length; i++) {
+      data[i] = i < length / 2 ? (byte) ('a' + i % 7) : (byte) random.nextInt();
+    }
+    return data;
+  }
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    byte[] data = testData(10000);
+    for (BlockCodec codec : CODECS) {
+      byte[] compressed = BlockFormat.compress(codec, data, 64 * 1024);
+      Assert.assertArrayEquals(codec.getName(), data, BlockFormat.decompress(compressed));
+    }
+  }
+
+  @Test
+  public void testMultipleBlocks() throws IOException {
+    byte[] data = testData(10000);
+    for (BlockCodec codec : CODECS) {
+      byte[] compressed = BlockFormat.compress(codec, data, 777);
+      Assert.assertArrayEquals(codec.getName(), data, BlockFormat.decompress(compressed));
+    }
+  }
+
+  @Test
+  public void testCompressedBlocksAreSmaller() {
+    byte[] data = new byte[10000];
+    Arrays.fill(data, (byte) 'x');
+    Assert.assertEquals(BlockFormat.MAGIC_BYTES + BlockFormat.HEADER_BYTES + data.length,
+        BlockFormat.compress(BlockCodecs.NONE, data, data.length).length);
+    Assert.assertTrue(BlockFormat.compress(BlockCodecs.LZ4, data, data.length).length < 1000);
+    Assert.assertTrue(BlockFormat.compress(BlockCodecs.ZSTD, data, data.length).length < 1000);
+  }
+
+  @Test
+  public void testIncompressibleBlockIsStored() {
+    byte[] data = new byte[1000];
+    new Random(1).nextBytes(data);
+    for (BlockCodec codec : CODECS) {
+      byte[] compressed = BlockFormat.compress(codec, data, data.length);
+      Assert.assertEquals(BlockCodecs.NONE.getId(), compressed[BlockFormat.MAGIC_BYTES]);
+      Assert.assertEquals(BlockFormat.MAGIC_BYTES + BlockFormat.HEADER_BYTES + data.length,
+          compressed.length);
+    }
+  }
+
+  @Test
+  public void testEmpty() throws IOException {
+    for (BlockCodec codec : CODECS) {
+      byte[] compressed = BlockFormat.compress(codec, new byte[0], 1024);
+      Assert.assertEquals(BlockFormat.MAGIC_BYTES, compressed.length);
+      Assert.assertEquals(0, BlockFormat.decompress(compressed).length);
+    }
+  }
+
+  @Test
+  public void testChecksumMismatch() throws IOException {
+    byte[] data = testData(5000);
+    for (BlockCodec codec : CODECS) {
+      byte[] compressed = BlockFormat.compress(codec, data, 1024);
+      corruptChecksum(compressed, BlockFormat.MAGIC_BYTES);
+      try {
+        BlockFormat.decompress(compressed);
+        Assert.fail("The corrupted block of " + codec.getName() + " should not be read");
+      } catch (RuntimeException e) {
+        Assert.assertTrue(e.getMessage().startsWith("Checksum mismatch"));
+      }
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testMissingMagic() throws IOException {
+    BlockFormat.decompress(testData(100));
+  }
+
+  @Test(expected = IOException.class)
+  public void testTruncated() throws IOException {
+    byte[] compressed = BlockFormat.compress(BlockCodecs.LZ4, testData(5000), 1024);
+    BlockFormat.decompress(Arrays.copyOf(compressed, compressed.length - 1));
+  }
+
+  @Test
+  public void testCodecIds() {
+    for (BlockCodec codec : CODECS) {
+      Assert.assertSame(codec, BlockCodecs.get(codec.getId()));
+      Assert.assertSame(codec, BlockCodecs.get(codec.getName().toUpperCase()));
+    }
+  }
+
+  /**
+   * Change the checksum of the block that starts at the offset
+   */
+  static void corruptChecksum(byte[] blocks, int offset) {
+    ByteBuffer header = ByteBuffer.wrap(blocks, offset, BlockFormat.HEADER_BYTES);
+    int crcAt = offset + 1 + 2 * Integer.BYTES;
+    header.putInt(crcAt, header.getInt(crcAt) ^ 1);
+  }
+}
@@ -0,0 +1,132 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.api.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BlockInputStreamTest {
+  private static final BlockCodec[] CODECS = {BlockCodecs.NONE, BlockCodecs.LZ4,
+      BlockCodecs.ZSTD};
+
+  /**
+   * The bytes a writer with the codec writes, an uncompressed writer writes the bytes as they are
+   */
+  private static byte[] write(BlockCodec codec, byte[] data, int blockSize) {
+    return codec == BlockCodecs.NONE ? data : BlockFormat.compress(codec, data, blockSize);
+  }
+
+  private static byte[] readAll(InputStream in) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] chunk = new byte[123];
+    int read;
+    while ((read = in.read(chunk, 0, chunk.length)) >= 0) {
+      out.write(chunk, 0, read);
+    }
+    in.close();
+    return out.toByteArray();
+  }
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    byte[] data = BlockFormatTest.testData(10000);
+    for (BlockCodec codec : CODECS) {
+      InputStream in = BlockInputStream.open(new ByteArrayInputStream(
+          write(codec, data, 64 * 1024)), codec);
+      Assert.assertArrayEquals(codec.getName(), data, readAll(in));
+    }
+  }
+
+  @Test
+  public void testMultipleBlocks() throws IOException {
+    byte[] data = BlockFormatTest.testData(10000);
+    for (BlockCodec codec : CODECS) {
+      InputStream in = BlockInputStream.open(new ByteArrayInputStream(
+          write(codec, data, 100)), codec);
+      Assert.assertArrayEquals(codec.getName(), data, readAll(in));
+    }
+  }
+
+  @Test
+  public void testReadAcrossBlocks() throws IOException {
+    byte[] data = BlockFormatTest.testData(1000);
+    DataInputStream in = new DataInputStream(BlockInputStream.open(new ByteArrayInputStream(
+        BlockFormat.compress(BlockCodecs.LZ4, data, 10)), BlockCodecs.LZ4));
+    byte[] read = new byte[data.length];
+    in.readFully(read);
+    Assert.assertArrayEquals(data, read);
+    Assert.assertEquals(-1, in.read());
+  }
+
+  @Test
+  public void testSingleBytes() throws IOException {
+    byte[] data = BlockFormatTest.testData(500);
+    InputStream in = BlockInputStream.open(new ByteArrayInputStream(
+        BlockFormat.compress(BlockCodecs.ZSTD, data, 64)), BlockCodecs.ZSTD);
+    for (int i = 0; i < data.length; i++) {
+      Assert.assertEquals(data[i] & 0xff, in.read());
+    }
+    Assert.assertEquals(-1, in.read());
+  }
+
+  @Test
+  public void testEmpty() throws IOException {
+    for (BlockCodec codec : CODECS) {
+      InputStream in = BlockInputStream.open(new ByteArrayInputStream(
+          write(codec, new byte[0], 1024)), codec);
+      Assert.assertEquals(-1, in.read());
+    }
+  }
+
+  @Test
+  public void testUncompressed() throws IOException {
+    // the bytes of an uncompressed stream are not checked, even if they start with the magic
+    byte[] data = BlockFormat.compress(BlockCodecs.LZ4, BlockFormatTest.testData(1000), 100);
+    Assert.assertArrayEquals(data, readAll(BlockInputStream.open(
+        new ByteArrayInputStream(data), BlockCodecs.NONE)));
+  }
+
+  @Test
+  public void testChecksumMismatch() throws IOException {
+    byte[] compressed = BlockFormat.compress(BlockCodecs.LZ4, BlockFormatTest.testData(1000),
+        2000);
+    BlockFormatTest.corruptChecksum(compressed, BlockFormat.MAGIC_BYTES);
+    InputStream in = BlockInputStream.open(new ByteArrayInputStream(compressed),
+        BlockCodecs.LZ4);
+    try {
+      in.read();
+      Assert.fail("The corrupted block should not be read");
+    } catch (RuntimeException e) {
+      Assert.assertTrue(e.getMessage().startsWith("Checksum mismatch"));
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testMissingMagic() throws IOException {
+    BlockInputStream.open(new ByteArrayInputStream(BlockFormatTest.testData(100)),
+        BlockCodecs.LZ4);
+  }
+
+  @Test(expected = IOException.class)
+  public void testTruncated() throws IOException {
+    byte[] compressed = BlockFormat.compress(BlockCodecs.LZ4, BlockFormatTest.testData(1000),
+        2000);
+    readAll(BlockInputStream.open(new ByteArrayInputStream(compressed, 0,
+        compressed.length - 5), BlockCodecs.LZ4));
+  }
+}
@@ -0,0 +1,160 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.api.util;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.iu.dsc.tws.api.config.Config;
+
+public class KryoSerializerTest {
+
+  public static class Point {
+    private int x;
+
+    private int y;
+
+    public Point() {
+    }
+
+    Point(int x, int y) {
+      this.x = x;
+      this.y = y;
+    }
+  }
+
+  private static Config config(Class<?>... classes) {
+    String[] names = new String[classes.length];
+    for (int i = 0; i < classes.length; i++) {
+      names[i] = classes[i].getName();
+    }
+    return Config.newBuilder()
+        .put(KryoSerializer.KRYO_REGISTERED_CLASSES, Arrays.asList(names))
+        .build();
+  }
+
+  @Before
+  public void setUp() {
+    KryoSerializer.resetClasses();
+  }
+
+  @After
+  public void tearDown() {
+    KryoSerializer.resetClasses();
+  }
+
+  @Test
+  public void testSerializerCreatedBeforeRegistration() {
+    int unregistered = new KryoSerializer().serialize(new Point(1, 2)).length;
+    KryoSerializer.resetClasses();
+
+    // serializers created before the classes are registered use the ids as well
+    KryoSerializer writer = new KryoSerializer();
+    KryoSerializer reader = new KryoSerializer();
+    KryoSerializer.registerClasses(config(String.class, Point.class));
+
+    byte[] bytes = writer.serialize(new Point(3, 4));
+    Assert.assertTrue(bytes.length < unregistered);
+    Point point = (Point) reader.deserialize(bytes);
+    Assert.assertEquals(3, point.x);
+    Assert.assertEquals(4, point.y);
+
+    byte[] pooled = writer.serializeToPooledBuffer(new Point(5, 6));
+    point = (Point) new KryoSerializer().deserialize(ByteBuffer.wrap(pooled), 0,
+        writer.getSerializedLength());
+    Assert.assertEquals(5, point.x);
+    Assert.assertEquals(6, point.y);
+  }
+
+  @Test
+  public void testRegistrationAfterUseFails() {
+    KryoSerializer.registerClasses(config(Point.class));
+    new KryoSerializer().serialize(new Point(1, 2));
+
+    // the same classes can be registered again, for example by another worker in the process
+    KryoSerializer.registerClasses(config(Point.class));
+    try {
+      KryoSerializer.registerClasses(config(String.class, Point.class));
+      Assert.fail("Changing the classes after a serializer is used should fail");
+    } catch (IllegalStateException e) {
+      Assert.assertTrue(e.getMessage().contains(Point.class.getName()));
+    }
+
+    // the ids are unchanged
+    Point point = (Point) new KryoSerializer().deserialize(
+        new KryoSerializer().serialize(new Point(7, 8)));
+    Assert.assertEquals(7, point.x);
+  }
+
+  @Test
+  public void testRegistrationAfterUseWithoutClasses() {
+    int unregistered = new KryoSerializer().serialize(new Point(1, 2)).length;
+
+    // the worker reads the job configuration before the classes are registered
+    KryoSerializer serializer = new KryoSerializer();
+    Assert.assertEquals("config", serializer.deserialize(
+        new KryoSerializer().serialize("config")));
+    KryoSerializer.registerClasses(config(String.class, Point.class));
+
+    byte[] bytes = serializer.serialize(new Point(3, 4));
+    Assert.assertTrue(bytes.length < unregistered);
+    Point point = (Point) new KryoSerializer().deserialize(bytes);
+    Assert.assertEquals(3, point.x);
+    Assert.assertEquals(4, point.y);
+    point = (Point) serializer.deserialize(new KryoSerializer().serialize(new Point(5, 6)));
+    Assert.assertEquals(5, point.x);
+    Assert.assertEquals(6, point.y);
+
+    // now the classes are in use
+    try {
+      KryoSerializer.registerClasses(config(Point.class));
+      Assert.fail("Changing the classes after a serializer is used should fail");
+    } catch (IllegalStateException e) {
+      Assert.assertTrue(e.getMessage().contains(Point.class.getName()));
+    }
+  }
+
+  @Test
+  public void testPooledBufferReuse() {
+    KryoSerializer serializer = new KryoSerializer();
+    byte[] bytes = serializer.serialize(new int[]{1, 2, 3});
+
+    byte[] buffer = serializer.acquireBuffer(bytes.length);
+    Assert.assertTrue(buffer.length >= bytes.length);
+    System.arraycopy(bytes, 0, buffer, 0, bytes.length);
+    Assert.assertArrayEquals(new int[]{1, 2, 3},
+        (int[]) serializer.deserialize(buffer, 0, bytes.length));
+    serializer.releaseBuffer(buffer);
+
+    // the released buffer is reused for a shorter object, but not for a longer one
+    Assert.assertSame(buffer, serializer.acquireBuffer(bytes.length - 1));
+    serializer.releaseBuffer(buffer);
+    byte[] longer = serializer.acquireBuffer(buffer.length + 1);
+    Assert.assertNotSame(buffer, longer);
+    Assert.assertEquals(buffer.length + 1, longer.length);
+    Assert.assertSame(buffer, serializer.acquireBuffer(1));
+  }
+
+  @Test
+  public void testRegistrationBeforeUse() {
+    new KryoSerializer();
+    KryoSerializer.registerClasses(config(Point.class));
+    KryoSerializer.registerClasses(config(String.class, Point.class));
+    Assert.assertEquals("value", new KryoSerializer().deserialize(
+        new KryoSerializer().serialize("value")));
+  }
+}
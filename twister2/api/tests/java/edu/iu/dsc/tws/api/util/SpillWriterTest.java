@@ -0,0 +1,287 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.api.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import edu.iu.dsc.tws.api.config.Config;
+
+public class SpillWriterTest {
+  private static final int BUFFER_SIZE = 64;
+
+  /**
+   * Collects the written bytes, the writes wait for the gate and fail if requested
+   */
+  private static class TestChannel implements WritableByteChannel {
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    private final CountDownLatch gate;
+
+    private final boolean fail;
+
+    private volatile boolean open = true;
+
+    TestChannel(CountDownLatch gate, boolean fail) {
+      this.gate = gate;
+      this.fail = fail;
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+      try {
+        gate.await();
+      } catch (InterruptedException e) {
+        throw new IOException(e);
+      }
+      if (fail) {
+        throw new IOException("Disk failed");
+      }
+      int length = src.remaining();
+      byte[] bytes = new byte[length];
+      src.get(bytes);
+      synchronized (out) {
+        out.write(bytes, 0, length);
+      }
+      return length;
+    }
+
+    @Override
+    public boolean isOpen() {
+      return open;
+    }
+
+    @Override
+    public void close() {
+      open = false;
+    }
+
+    byte[] bytes() {
+      synchronized (out) {
+        return out.toByteArray();
+      }
+    }
+  }
+
+  private static SpillIOService init(int threads, int maxBuffers) {
+    SpillIOService.close();
+    SpillIOService.init(Config.newBuilder()
+        .put(SpillIOService.SPILL_THREADS, threads)
+        .put(SpillIOService.SPILL_BUFFER_SIZE, BUFFER_SIZE)
+        .put(SpillIOService.SPILL_MAX_BUFFERS, maxBuffers)
+        .build());
+    return SpillIOService.getService();
+  }
+
+  private static byte[] data(int length) {
+    byte[] data = new byte[length];
+    for (int i = 0; i < length; i++) {
+      data[i] = (byte) (i * 31);
+    }
+    return data;
+  }
+
+  @After
+  public void tearDown() {
+    SpillIOService.close();
+  }
+
+  @Test
+  public void testAsyncClose() {
+    init(1, 4);
+    CountDownLatch gate = new CountDownLatch(1);
+    TestChannel channel = new TestChannel(gate, false);
+    SpillWriter writer = SpillIOService.open(channel, "async");
+    byte[] data = data(BUFFER_SIZE + 36);
+    writer.put(data);
+
+    // the first buffer is waiting for the disk, closing does not wait for it
+    writer.closeAsync();
+    Assert.assertFalse(writer.isDone());
+    Assert.assertTrue(channel.isOpen());
+
+    gate.countDown();
+    Assert.assertEquals(data.length, writer.await());
+    Assert.assertTrue(writer.isDone());
+    Assert.assertFalse(channel.isOpen());
+    Assert.assertArrayEquals(data, channel.bytes());
+  }
+
+  @Test
+  public void testWriteFailure() {
+    SpillIOService service = init(1, 2);
+    TestChannel channel = new TestChannel(new CountDownLatch(0), true);
+    SpillWriter writer = SpillIOService.open(channel, "failing");
+    try {
+      // the failure of the first buffer is seen when the second one is handed over
+      writer.put(data(3 * BUFFER_SIZE));
+      Assert.fail("The failed write should be reported");
+    } catch (RuntimeException e) {
+      Assert.assertTrue(e.getCause() instanceof IOException);
+    }
+    Assert.assertFalse(channel.isOpen());
+
+    try {
+      writer.putInt(1);
+      Assert.fail("The writer should be closed");
+    } catch (IllegalStateException e) {
+      // expected
+    }
+    try {
+      writer.await();
+      Assert.fail("The failed write should be reported");
+    } catch (RuntimeException e) {
+      Assert.assertTrue(e.getCause() instanceof IOException);
+    }
+
+    // both buffers are back in the pool
+    Assert.assertNotNull(service.tryAcquireBuffer());
+    Assert.assertNotNull(service.tryAcquireBuffer());
+  }
+
+  @Test
+  public void testFailureOnClose() {
+    init(1, 2);
+    TestChannel channel = new TestChannel(new CountDownLatch(0), true);
+    SpillWriter writer = SpillIOService.open(channel, "failing");
+    writer.putLong(1);
+    writer.closeAsync();
+    try {
+      writer.await();
+      Assert.fail("The failed write should be reported");
+    } catch (RuntimeException e) {
+      Assert.assertTrue(e.getCause() instanceof IOException);
+    }
+  }
+
+  @Test
+  public void testBufferReuse() {
+    SpillIOService service = init(1, 2);
+    ByteBuffer buffer = service.acquireBuffer();
+    buffer.putInt(5);
+    service.releaseBuffer(buffer);
+    ByteBuffer reused = service.acquireBuffer();
+    Assert.assertSame(buffer, reused);
+    Assert.assertEquals(0, reused.position());
+    service.releaseBuffer(reused);
+
+    for (int i = 0; i < 10; i++) {
+      TestChannel channel = new TestChannel(new CountDownLatch(0), false);
+      SpillWriter writer = SpillIOService.open(channel, "reuse");
+      byte[] data = data(10 * BUFFER_SIZE + i);
+      writer.put(data);
+      writer.await();
+      Assert.assertArrayEquals(data, channel.bytes());
+    }
+    // the writers returned their buffers
+    Assert.assertNotNull(service.tryAcquireBuffer());
+    Assert.assertNotNull(service.tryAcquireBuffer());
+    Assert.assertNull(service.tryAcquireBuffer());
+  }
+
+  @Test
+  public void testPoolIsHardCap() throws Exception {
+    SpillIOService service = init(1, 1);
+    ByteBuffer taken = service.acquireBuffer();
+    Assert.assertNull(service.tryAcquireBuffer());
+
+    CompletableFuture<ByteBuffer> waiting = CompletableFuture.supplyAsync(
+        service::acquireBuffer);
+    Thread.sleep(100);
+    Assert.assertFalse(waiting.isDone());
+
+    service.releaseBuffer(taken);
+    Assert.assertSame(taken, waiting.get(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testSingleBufferWhenPoolIsEmpty() {
+    SpillIOService service = init(2, 1);
+    TestChannel channel = new TestChannel(new CountDownLatch(0), false);
+    SpillWriter writer = SpillIOService.open(channel, "single");
+    byte[] data = data(20 * BUFFER_SIZE + 7);
+    writer.put(data);
+    writer.putInt(7);
+    Assert.assertEquals(data.length + Integer.BYTES, writer.await());
+
+    byte[] written = channel.bytes();
+    Assert.assertEquals(data.length + Integer.BYTES, written.length);
+    for (int i = 0; i < data.length; i++) {
+      Assert.assertEquals(data[i], written[i]);
+    }
+    Assert.assertEquals(7, ByteBuffer.wrap(written, data.length, Integer.BYTES).getInt());
+    Assert.assertNotNull(service.tryAcquireBuffer());
+  }
+
+  @Test
+  public void testCloseWaitsForWrites() throws Exception {
+    init(1, 4);
+    CountDownLatch gate = new CountDownLatch(1);
+    TestChannel channel = new TestChannel(gate, false);
+    SpillWriter writer = SpillIOService.open(channel, "closing");
+    byte[] data = data(BUFFER_SIZE + 5);
+    writer.put(data);
+    writer.closeAsync();
+
+    CompletableFuture<Void> closing = CompletableFuture.runAsync(SpillIOService::close);
+    Thread.sleep(100);
+    Assert.assertFalse(closing.isDone());
+
+    gate.countDown();
+    closing.get(10, TimeUnit.SECONDS);
+    Assert.assertTrue(writer.isDone());
+    Assert.assertEquals(data.length, writer.await());
+    Assert.assertFalse(channel.isOpen());
+    Assert.assertArrayEquals(data, channel.bytes());
+  }
+
+  @Test
+  public void testCompressedBuffersFromPool() throws IOException {
+    SpillIOService service = init(1, 2);
+    TestChannel channel = new TestChannel(new CountDownLatch(0), false);
+    SpillWriter writer = SpillIOService.open(channel, "compressed", BlockCodecs.LZ4);
+    ByteBuffer taken = service.tryAcquireBuffer();
+    Assert.assertNotNull(taken);
+    Assert.assertNull(service.tryAcquireBuffer());
+
+    // the writer has a single buffer, so it compresses each block before filling it again
+    ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    for (int i = 0; i < 100; i++) {
+      byte[] record = data(7 + i % 13);
+      writer.putInt(record.length);
+      writer.put(record);
+      writer.markRecord();
+      expected.write(ByteBuffer.allocate(Integer.BYTES).putInt(record.length).array());
+      expected.write(record);
+    }
+    writer.await();
+    service.releaseBuffer(taken);
+
+    byte[] read = new byte[expected.size()];
+    new DataInputStream(BlockInputStream.open(new ByteArrayInputStream(channel.bytes()),
+        BlockCodecs.LZ4)).readFully(read);
+    Assert.assertArrayEquals(expected.toByteArray(), read);
+    Assert.assertNotNull(service.tryAcquireBuffer());
+    Assert.assertNotNull(service.tryAcquireBuffer());
+  }
+}
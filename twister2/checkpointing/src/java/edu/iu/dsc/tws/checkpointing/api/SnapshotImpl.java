@@ -14,8 +14,10 @@ package edu.iu.dsc.tws.checkpointing.api;
 
 import java.nio.ByteBuffer;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
 import edu.iu.dsc.tws.api.checkpointing.Snapshot;
 import edu.iu.dsc.tws.api.comms.packing.DataPacker;
@@ -33,6 +35,11 @@ public class SnapshotImpl implements Snapshot {
   private Map<String, Object> values = new HashMap<>();
   private Map<String, DataPacker> packers = new HashMap<>();
 
+  /**
+   * Keys set after the last {@link #packChanged(boolean)}
+   */
+  private Set<String> changedKeys = new HashSet<>();
+
   private String prefix;
 
   public SnapshotImpl() {
@@ -62,6 +69,7 @@ public class SnapshotImpl implements Snapshot {
   @Override
   public void setValue(String key, Object value) {
     this.values.put(key, value);
+    this.changedKeys.add(key);
 /*
     this.values.put(appendPrefix(key), value);
 */
@@ -92,25 +100,61 @@ public class SnapshotImpl implements Snapshot {
   }
 
   public byte[] pack() {
+    return pack(packValues(), this.version);
+  }
+
+  /**
+   * Pack only the given values as a delta on top of a previous version
+   *
+   * @param packedValues the packed values created by {@link #packChanged(boolean)}
+   * @param version the version of the delta
+   * @param baseVersion the version this delta is applied on
+   * @return the packed delta
+   */
+  public static byte[] packDelta(Map<String, byte[]> packedValues, long version,
+                                 long baseVersion) {
+    return pack(packedValues, version, baseVersion);
+  }
+
+  /**
+   * Pack the values of this snapshot with their packers
+   *
+   * @return packed value for each key
+   */
+  public Map<String, byte[]> packValues() {
     Map<String, byte[]> packedValues = new HashMap<>();
+    for (Map.Entry<String, Object> e : values.entrySet()) {
+      DataPacker packer = packers.getOrDefault(e.getKey(), ObjectPacker.getInstance());
+      packedValues.put(e.getKey(), packer.packToByteArray(e.getValue()));
+    }
+    return packedValues;
+  }
+
+  /**
+   * Pack the values after the given header
+   *
+   * @param packedValues packed value for each key
+   * @param header the longs written before the values
+   * @return packed bytes
+   */
+  public static byte[] pack(Map<String, byte[]> packedValues, long... header) {
     Map<String, byte[]> packedKeys = new HashMap<>();
     int totalLength = 0;
-    for (String key : values.keySet()) {
-      DataPacker packer = packers.getOrDefault(key, ObjectPacker.getInstance());
-      byte[] dataBytes = packer.packToByteArray(values.get(key));
-      byte[] keyBytes = StringPacker.getInstance().packToByteArray(key);
-      packedValues.put(key, dataBytes);
-      packedKeys.put(key, keyBytes);
-      totalLength += dataBytes.length + keyBytes.length + (2 * Integer.BYTES);
+    for (Map.Entry<String, byte[]> e : packedValues.entrySet()) {
+      byte[] keyBytes = StringPacker.getInstance().packToByteArray(e.getKey());
+      packedKeys.put(e.getKey(), keyBytes);
+      totalLength += e.getValue().length + keyBytes.length + (2 * Integer.BYTES);
     }
-    ByteBuffer byteBuffer = ByteBuffer.allocate(totalLength + Long.BYTES);
-    byteBuffer.putLong(this.version);
-    for (String key : values.keySet()) {
-      byte[] keyBytes = packedKeys.get(key);
+    ByteBuffer byteBuffer = ByteBuffer.allocate(totalLength + header.length * Long.BYTES);
+    for (long h : header) {
+      byteBuffer.putLong(h);
+    }
+    for (Map.Entry<String, byte[]> e : packedValues.entrySet()) {
+      byte[] keyBytes = packedKeys.get(e.getKey());
       byteBuffer.putInt(keyBytes.length);
       byteBuffer.put(keyBytes);
 
-      byte[] dataBytes = packedValues.get(key);
+      byte[] dataBytes = e.getValue();
       byteBuffer.putInt(dataBytes.length);
       byteBuffer.put(dataBytes);
     }
@@ -120,7 +164,34 @@ public class SnapshotImpl implements Snapshot {
   public void unpack(byte[] bytes) {
     ByteBuffer wrapped = ByteBuffer.wrap(bytes);
     this.setVersion(wrapped.getLong());
-    while (wrapped.position() < bytes.length) {
+    unpackValues(wrapped);
+  }
+
+  /**
+   * Apply a delta created by {@link #packDelta(Map, long, long)} on top of the current values
+   *
+   * @param bytes the packed delta
+   */
+  public void unpackDelta(byte[] bytes) {
+    ByteBuffer wrapped = ByteBuffer.wrap(bytes);
+    this.setVersion(wrapped.getLong());
+    // skip the base version
+    wrapped.getLong();
+    unpackValues(wrapped);
+  }
+
+  /**
+   * Read the version a delta is based on
+   *
+   * @param bytes the packed delta
+   * @return the base version
+   */
+  public static long getDeltaBaseVersion(byte[] bytes) {
+    return ByteBuffer.wrap(bytes).getLong(Long.BYTES);
+  }
+
+  private void unpackValues(ByteBuffer wrapped) {
+    while (wrapped.hasRemaining()) {
       int keyLength = wrapped.getInt();
       byte[] keyBytes = new byte[keyLength];
       wrapped.get(keyBytes);
@@ -136,6 +207,29 @@ public class SnapshotImpl implements Snapshot {
     }
   }
 
+  /**
+   * Pack the current values on the calling thread, so that the packed values can be written
+   * by a different thread while the task keeps modifying its values in place.
+   *
+   * @param all pack all the values if true, otherwise only the values set after the
+   * last call
+   * @return packed value for each key
+   */
+  public Map<String, byte[]> packChanged(boolean all) {
+    Map<String, byte[]> packedValues;
+    if (all) {
+      packedValues = packValues();
+    } else {
+      packedValues = new HashMap<>();
+      for (String key : changedKeys) {
+        DataPacker packer = packers.getOrDefault(key, ObjectPacker.getInstance());
+        packedValues.put(key, packer.packToByteArray(this.values.get(key)));
+      }
+    }
+    this.changedKeys.clear();
+    return packedValues;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
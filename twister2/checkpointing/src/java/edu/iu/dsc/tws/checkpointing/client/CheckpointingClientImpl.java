@@ -23,14 +23,18 @@
 //  limitations under the License.
 package edu.iu.dsc.tws.checkpointing.client;
 
+import java.io.IOException;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import com.google.protobuf.Message;
 
 import edu.iu.dsc.tws.api.checkpointing.CheckpointingClient;
+import edu.iu.dsc.tws.api.checkpointing.StateStore;
 import edu.iu.dsc.tws.api.comms.structs.Tuple;
 import edu.iu.dsc.tws.api.exceptions.JobFaultyException;
 import edu.iu.dsc.tws.api.exceptions.net.BlockingSendException;
@@ -52,6 +56,11 @@ public final class CheckpointingClientImpl implements MessageHandler, Checkpoint
   private Map<RequestID, Message> blockingResponse = new ConcurrentHashMap<>();
   private Map<RequestID, MessageHandler> asyncHandlers = new ConcurrentHashMap<>();
 
+  /**
+   * The stores of each family in this worker, informed when a version is committed
+   */
+  private Map<String, Set<StateStore>> familyStores = new ConcurrentHashMap<>();
+
   public CheckpointingClientImpl(RRClient rrClient, long waitTime) {
     this.rrClient = rrClient;
     this.waitTime = waitTime;
@@ -69,6 +78,8 @@ public final class CheckpointingClientImpl implements MessageHandler, Checkpoint
     this.rrClient.registerMessage(Checkpoint.FamilyInitialize.newBuilder());
     this.rrClient.registerResponseHandler(
         Checkpoint.FamilyInitializeResponse.newBuilder(), this);
+
+    this.rrClient.registerResponseHandler(Checkpoint.VersionCommitted.newBuilder(), this);
   }
 
   @Override
@@ -123,9 +134,31 @@ public final class CheckpointingClientImpl implements MessageHandler, Checkpoint
     this.asyncHandlers.put(requestID, messageHandler);
   }
 
+  @Override
+  public void registerStateStore(String family, StateStore stateStore) {
+    this.familyStores.computeIfAbsent(family, f -> new CopyOnWriteArraySet<>()).add(stateStore);
+  }
+
+  private void handleVersionCommitted(Checkpoint.VersionCommitted committed) {
+    Set<StateStore> stores = this.familyStores.get(committed.getFamily());
+    if (stores == null) {
+      return;
+    }
+    for (StateStore store : stores) {
+      try {
+        store.onVersionCommitted(committed.getFamily(), committed.getVersion());
+      } catch (IOException e) {
+        LOG.log(Level.WARNING, "Failed to discard the snapshots of " + committed.getFamily()
+            + " older than " + committed.getVersion(), e);
+      }
+    }
+  }
+
   @Override
   public void onMessage(RequestID id, int workerId, Message message) {
-    if (this.asyncHandlers.containsKey(id)) {
+    if (message instanceof Checkpoint.VersionCommitted) {
+      this.handleVersionCommitted((Checkpoint.VersionCommitted) message);
+    } else if (this.asyncHandlers.containsKey(id)) {
       this.asyncHandlers.remove(id).onMessage(id, workerId, message);
     } else {
       this.blockingResponse.put(id, message);
@@ -141,6 +141,8 @@ public class CheckpointManager implements MessageHandler, JobFaultListener {
         if (familyInitHandler != null) {
           familyInitHandler.setFamilyVersion(minVersion);
         }
+        // the workers can remove the snapshots they only need for older versions
+        this.broadcastCommit(versionUpdateMsg.getFamily(), minVersion);
       } catch (IOException e) {
         LOG.severe(() -> "Failed to persist the version of " + versionUpdateMsg.getFamily());
       }
@@ -155,6 +157,19 @@ public class CheckpointManager implements MessageHandler, JobFaultListener {
     );
   }
 
+  private void broadcastCommit(String family, long version) {
+    Checkpoint.VersionCommitted committed = Checkpoint.VersionCommitted.newBuilder()
+        .setFamily(family)
+        .setVersion(version)
+        .build();
+    for (Integer workerId : this.rrServer.getConnectedWorkers()) {
+      if (!this.rrServer.sendMessage(committed, workerId)) {
+        LOG.warning("Failed to inform worker " + workerId + " about version " + version
+            + " of " + family);
+      }
+    }
+  }
+
   @Override
   public void onMessage(RequestID id, int workerId, Message message) {
     if (message instanceof Checkpoint.ComponentDiscovery) {
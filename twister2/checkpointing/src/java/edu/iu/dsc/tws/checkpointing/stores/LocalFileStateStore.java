@@ -72,19 +72,34 @@ import java.util.logging.Logger;
 import edu.iu.dsc.tws.api.checkpointing.StateStore;
 import edu.iu.dsc.tws.api.config.Config;
 import edu.iu.dsc.tws.api.config.FileSystemContext;
+import edu.iu.dsc.tws.api.util.BlockCodec;
+import edu.iu.dsc.tws.api.util.BlockCodecs;
+import edu.iu.dsc.tws.api.util.BlockFormat;
 
 public class LocalFileStateStore implements StateStore {
 
   private static final Logger LOG = Logger.getLogger(LocalFileStateStore.class.getName());
 
+  /**
+   * Maximum number of bytes of a snapshot compressed to a block
+   */
+  private static final int BLOCK_SIZE = 1024 * 1024;
+
   private File rootFolder;
 
+  /**
+   * The codec to compress the snapshots, a restored job must use the codec the snapshots
+   * were written with
+   */
+  private BlockCodec codec = BlockCodecs.NONE;
+
   @Override
   public void init(Config config, String... path) {
     String finalPath =
         String.join(File.separator, FileSystemContext.persistentStorageRoot(config),
             String.join(File.separator, path));
     this.rootFolder = new File(finalPath);
+    this.codec = BlockCodecs.fromConfig(config, BlockCodecs.CHECKPOINT);
     LOG.info("Snapshot Store path : " + this.rootFolder.getAbsolutePath());
     if (!this.rootFolder.exists()) {
       boolean mkdirs = this.rootFolder.mkdirs();
@@ -102,8 +117,11 @@ public class LocalFileStateStore implements StateStore {
   @Override
   public void put(String key, byte[] data) throws IOException {
     FileChannel fileChannel = this.getChannelForKey(key,
-        StandardOpenOption.CREATE, StandardOpenOption.WRITE);
-    fileChannel.write(ByteBuffer.wrap(data));
+        StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING);
+    byte[] bytes = codec == BlockCodecs.NONE ? data
+        : BlockFormat.compress(codec, data, BLOCK_SIZE);
+    fileChannel.write(ByteBuffer.wrap(bytes));
     fileChannel.close();
   }
 
@@ -114,7 +132,9 @@ public class LocalFileStateStore implements StateStore {
       int size = (int) fileChannel.size(); // assume < 2GB
       ByteBuffer allocate = ByteBuffer.allocate(size);
       fileChannel.read(allocate);
-      return allocate.array();
+      fileChannel.close();
+      return codec == BlockCodecs.NONE ? allocate.array()
+          : BlockFormat.decompress(allocate.array());
     } catch (NoSuchFileException nex) {
       return null;
     }
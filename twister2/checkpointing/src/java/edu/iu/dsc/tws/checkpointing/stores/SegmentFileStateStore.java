@@ -0,0 +1,120 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.checkpointing.stores;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.logging.Logger;
+
+import edu.iu.dsc.tws.api.checkpointing.StateStore;
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.api.config.FileSystemContext;
+import edu.iu.dsc.tws.api.util.BlockCodec;
+import edu.iu.dsc.tws.api.util.BlockCodecs;
+import edu.iu.dsc.tws.api.util.BlockFormat;
+import edu.iu.dsc.tws.checkpointing.util.CheckpointingContext;
+
+/**
+ * A local file store that appends the data to shared segment files instead of writing a file
+ * per key. The first element of the path selects the directory of the segments, normally the
+ * family, and the rest of the path is used as a prefix of the keys, normally the task. So the
+ * snapshots of all the tasks of a family in this worker go to the same segments.
+ * <p>
+ * The data is read from the memory mapped segments, {@link #getBuffer(String)} gives the data
+ * without copying it. When all the components of a family commit a version, the worker deletes
+ * the sealed segments of its log that only hold snapshots older than the last full snapshot of
+ * that version.
+ */
+public class SegmentFileStateStore implements StateStore {
+
+  private static final Logger LOG = Logger.getLogger(SegmentFileStateStore.class.getName());
+
+  /**
+   * Maximum number of bytes of a snapshot compressed to a block
+   */
+  private static final int BLOCK_SIZE = 1024 * 1024;
+
+  private File rootFolder;
+
+  private String keyPrefix;
+
+  private long segmentSize;
+
+  private SegmentLog log;
+
+  /**
+   * The codec to compress the snapshots, a restored job must use the codec the snapshots
+   * were written with
+   */
+  private BlockCodec codec = BlockCodecs.NONE;
+
+  @Override
+  public void init(Config config, String... path) {
+    this.rootFolder = new File(FileSystemContext.persistentStorageRoot(config));
+    this.segmentSize = CheckpointingContext.getStoreSegmentSize(config);
+    this.codec = BlockCodecs.fromConfig(config, BlockCodecs.CHECKPOINT);
+    this.keyPrefix = String.join("/", Arrays.copyOfRange(path, 1, path.length));
+    File directory = new File(rootFolder, path[0]);
+    LOG.info("Snapshot Store path : " + directory.getAbsolutePath());
+    if (!directory.exists() && !directory.mkdirs() && !directory.exists()) {
+      throw new RuntimeException("Couldn't create directories "
+          + "for segment file state store.");
+    }
+    try {
+      this.log = SegmentLog.get(directory, segmentSize);
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to read the segments in " + directory, e);
+    }
+  }
+
+  @Override
+  public void put(String key, byte[] data) throws IOException {
+    byte[] bytes = codec == BlockCodecs.NONE ? data
+        : BlockFormat.compress(codec, data, BLOCK_SIZE);
+    log.append(SegmentLog.toRecordKey(keyPrefix, key), bytes);
+  }
+
+  @Override
+  public byte[] get(String key) throws IOException {
+    ByteBuffer buffer = getBuffer(key);
+    if (buffer == null) {
+      return null;
+    }
+    byte[] bytes = new byte[buffer.remaining()];
+    buffer.get(bytes);
+    return codec == BlockCodecs.NONE ? bytes : BlockFormat.decompress(bytes);
+  }
+
+  /**
+   * Get the stored bytes of a key without copying them, the bytes are compressed if a codec
+   * is configured
+   *
+   * @param key key
+   * @return a read only buffer backed by the mapped segment or null if the key is not found
+   * @throws IOException if mapping the segment fails
+   */
+  public ByteBuffer getBuffer(String key) throws IOException {
+    return log.read(SegmentLog.toRecordKey(keyPrefix, key));
+  }
+
+  @Override
+  public boolean contains(String key) {
+    return log.contains(SegmentLog.toRecordKey(keyPrefix, key));
+  }
+
+  @Override
+  public void onVersionCommitted(String family, long version) throws IOException {
+    log.discardOlderThan(version);
+  }
+}
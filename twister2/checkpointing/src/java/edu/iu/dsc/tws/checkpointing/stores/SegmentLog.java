@@ -0,0 +1,387 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.checkpointing.stores;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+import edu.iu.dsc.tws.checkpointing.util.CheckpointUtils;
+
+/**
+ * An append only log of key value records in a directory, shared by all the stores of this
+ * process using the same directory.
+ * <p>
+ * Records are appended to a segment file owned by this process. When the segment is full it is
+ * sealed by renaming it and a new segment is started. A record is the key length, data length,
+ * a sequence number and a checksum followed by the key and the data. The sequence numbers
+ * decide which record of a key is the latest when the segments are scanned, a record with an
+ * invalid checksum ends the scan of a segment.
+ * <p>
+ * The location of the latest record of each key is kept in memory. The index is built by
+ * scanning the segments when the log is opened, only the headers are read. Segments are
+ * memory mapped when a record is read, so the data is only loaded when it is accessed.
+ */
+final class SegmentLog {
+  private static final Logger LOG = Logger.getLogger(SegmentLog.class.getName());
+
+  private static final String OPEN_SUFFIX = ".open";
+
+  private static final String SEALED_SUFFIX = ".seg";
+
+  private static final int RECORD_HEADER_SIZE = 2 * Integer.BYTES + Long.BYTES + Integer.BYTES;
+
+  private static final char KEY_SEPARATOR = '/';
+
+  /**
+   * The logs opened in this process, by directory
+   */
+  private static final Map<String, SegmentLog> LOGS = new HashMap<>();
+
+  private static boolean shutdownHookAdded;
+
+  /**
+   * Location of a record
+   */
+  private static final class Location {
+    private final String segment;
+    private final int dataOffset;
+    private final int length;
+    private final long sequence;
+
+    private Location(String segment, int dataOffset, int length, long sequence) {
+      this.segment = segment;
+      this.dataOffset = dataOffset;
+      this.length = length;
+      this.sequence = sequence;
+    }
+  }
+
+  private final File directory;
+
+  private final long segmentSize;
+
+  /**
+   * Prefix of the segments written by this process
+   */
+  private final String writerId = UUID.randomUUID().toString();
+
+  /**
+   * The latest record of each key
+   */
+  private final Map<String, Location> index = new HashMap<>();
+
+  /**
+   * The mapped segments
+   */
+  private final Map<String, MappedByteBuffer> mappedSegments = new HashMap<>();
+
+  /**
+   * The segment we are appending to, null if no segment is open
+   */
+  private FileChannel activeChannel;
+
+  private String activeSegment;
+
+  private long activePosition;
+
+  private int segmentCount;
+
+  private long lastSequence;
+
+  /**
+   * The largest committed version the segments were discarded for
+   */
+  private long discardedVersion = -1;
+
+  private SegmentLog(File directory, long segmentSize) throws IOException {
+    this.directory = directory;
+    this.segmentSize = segmentSize;
+    for (File segment : listSegments()) {
+      scan(segment, (key, location) -> {
+        Location current = index.get(key);
+        if (current == null || current.sequence < location.sequence) {
+          index.put(key, location);
+        }
+        lastSequence = Math.max(lastSequence, location.sequence);
+      });
+    }
+    LOG.fine(() -> "Opened segment log " + directory + " with " + index.size() + " keys");
+  }
+
+  /**
+   * Get the log of a directory, the directory should exist
+   *
+   * @param directory the directory
+   * @param segmentSize the size after which a segment is sealed
+   * @return the log
+   * @throws IOException if scanning the existing segments fails
+   */
+  static synchronized SegmentLog get(File directory, long segmentSize) throws IOException {
+    String path = directory.getAbsolutePath();
+    SegmentLog log = LOGS.get(path);
+    if (log == null) {
+      if (!shutdownHookAdded) {
+        // seal the open segments so that they can be removed after this process exits
+        Runtime.getRuntime().addShutdownHook(new Thread(SegmentLog::closeAll));
+        shutdownHookAdded = true;
+      }
+      log = new SegmentLog(directory, segmentSize);
+      LOGS.put(path, log);
+    }
+    return log;
+  }
+
+  static String toRecordKey(String prefix, String key) {
+    return prefix + KEY_SEPARATOR + key;
+  }
+
+  synchronized void append(String key, byte[] data) throws IOException {
+    byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+    int recordSize = RECORD_HEADER_SIZE + keyBytes.length + data.length;
+    if (activeChannel != null && activePosition > 0
+        && activePosition + recordSize > segmentSize) {
+      seal();
+    }
+    if (activeChannel == null) {
+      activeSegment = writerId + "-" + segmentCount++ + OPEN_SUFFIX;
+      activeChannel = FileChannel.open(new File(directory, activeSegment).toPath(),
+          StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+      activePosition = 0;
+    }
+
+    CRC32 crc = new CRC32();
+    crc.update(keyBytes);
+    crc.update(data);
+    long sequence = Math.max(lastSequence + 1, System.currentTimeMillis());
+    ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+    header.putInt(keyBytes.length).putInt(data.length).putLong(sequence)
+        .putInt((int) crc.getValue());
+    header.flip();
+    ByteBuffer[] record = {header, ByteBuffer.wrap(keyBytes), ByteBuffer.wrap(data)};
+    long position = activePosition;
+    while (record[2].hasRemaining()) {
+      position += activeChannel.write(record);
+    }
+
+    lastSequence = sequence;
+    index.put(key, new Location(activeSegment,
+        (int) (activePosition + RECORD_HEADER_SIZE + keyBytes.length), data.length, sequence));
+    activePosition = position;
+  }
+
+  /**
+   * Get the data of a key, the buffer is a read only view of the mapped segment
+   *
+   * @param key the key
+   * @return the data or null if the key is not found
+   * @throws IOException if mapping the segment fails
+   */
+  synchronized ByteBuffer read(String key) throws IOException {
+    Location location = index.get(key);
+    if (location == null) {
+      return null;
+    }
+    MappedByteBuffer mapped = mappedSegments.get(location.segment);
+    if (mapped == null || mapped.capacity() < location.dataOffset + location.length) {
+      mapped = map(location.segment);
+      mappedSegments.put(location.segment, mapped);
+    }
+    ByteBuffer view = mapped.asReadOnlyBuffer();
+    view.limit(location.dataOffset + location.length);
+    view.position(location.dataOffset);
+    return view.slice();
+  }
+
+  synchronized boolean contains(String key) {
+    return index.containsKey(key);
+  }
+
+  /**
+   * Delete the sealed segments that are only needed to restore versions older than the
+   * committed version. For each prefix the last full snapshot at or before the committed
+   * version and everything after it are kept. Records with keys that are not snapshot
+   * versions are always kept. The stores of all the tasks sharing this log are informed of
+   * the same commit, so a version that is not newer than the last one is ignored.
+   *
+   * @param committedVersion the committed version
+   * @throws IOException if reading the segments fails
+   */
+  synchronized void discardOlderThan(long committedVersion) throws IOException {
+    if (committedVersion <= discardedVersion) {
+      return;
+    }
+    discardedVersion = committedVersion;
+    // the segments can be written by other processes, so we scan them again
+    Map<String, List<String>> keysOfSegments = new HashMap<>();
+    Map<String, Long> keepFrom = new HashMap<>();
+    for (File segment : listSegments()) {
+      List<String> keys = new ArrayList<>();
+      scan(segment, (key, location) -> {
+        keys.add(key);
+        String suffix = key.substring(key.lastIndexOf(KEY_SEPARATOR) + 1);
+        long version = CheckpointUtils.getVersionOfKey(suffix);
+        if (version >= 0 && version <= committedVersion && !CheckpointUtils.isDeltaKey(suffix)) {
+          keepFrom.merge(prefixOf(key), version, Math::max);
+        }
+      });
+      if (segment.getName().endsWith(SEALED_SUFFIX)) {
+        keysOfSegments.put(segment.getName(), keys);
+      }
+    }
+
+    for (Map.Entry<String, List<String>> e : keysOfSegments.entrySet()) {
+      boolean obsolete = true;
+      for (String key : e.getValue()) {
+        String suffix = key.substring(key.lastIndexOf(KEY_SEPARATOR) + 1);
+        long version = CheckpointUtils.getVersionOfKey(suffix);
+        if (version < 0 || version >= keepFrom.getOrDefault(prefixOf(key), Long.MIN_VALUE)) {
+          obsolete = false;
+          break;
+        }
+      }
+      if (obsolete) {
+        delete(e.getKey());
+      }
+    }
+  }
+
+  private void delete(String segment) throws IOException {
+    mappedSegments.remove(segment);
+    index.values().removeIf(location -> location.segment.equals(segment));
+    Files.deleteIfExists(new File(directory, segment).toPath());
+    LOG.fine(() -> "Deleted segment " + segment + " of " + directory);
+  }
+
+  private static String prefixOf(String key) {
+    return key.substring(0, key.lastIndexOf(KEY_SEPARATOR));
+  }
+
+  private void seal() throws IOException {
+    activeChannel.close();
+    activeChannel = null;
+    String sealed = activeSegment.substring(0, activeSegment.length() - OPEN_SUFFIX.length())
+        + SEALED_SUFFIX;
+    Files.move(new File(directory, activeSegment).toPath(),
+        new File(directory, sealed).toPath(), StandardCopyOption.ATOMIC_MOVE);
+    mappedSegments.remove(activeSegment);
+    for (Map.Entry<String, Location> e : index.entrySet()) {
+      Location l = e.getValue();
+      if (l.segment.equals(activeSegment)) {
+        e.setValue(new Location(sealed, l.dataOffset, l.length, l.sequence));
+      }
+    }
+  }
+
+  private MappedByteBuffer map(String segment) throws IOException {
+    try (FileChannel channel = FileChannel.open(new File(directory, segment).toPath(),
+        StandardOpenOption.READ)) {
+      return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+  }
+
+  private List<File> listSegments() {
+    List<File> segments = new ArrayList<>();
+    File[] files = directory.listFiles();
+    if (files != null) {
+      for (File f : files) {
+        if (f.getName().endsWith(SEALED_SUFFIX) || f.getName().endsWith(OPEN_SUFFIX)) {
+          segments.add(f);
+        }
+      }
+    }
+    return segments;
+  }
+
+  /**
+   * Read the records of a segment, a partially written record ends the scan
+   */
+  private void scan(File segment, BiConsumer<String, Location> consumer) throws IOException {
+    String name = segment.getName();
+    MappedByteBuffer mapped;
+    try {
+      mapped = map(name);
+    } catch (NoSuchFileException e) {
+      // the segment is sealed or deleted by another process
+      return;
+    }
+    int position = 0;
+    while (mapped.capacity() - position >= RECORD_HEADER_SIZE) {
+      int keyLength = mapped.getInt(position);
+      int dataLength = mapped.getInt(position + Integer.BYTES);
+      long sequence = mapped.getLong(position + 2 * Integer.BYTES);
+      int checksum = mapped.getInt(position + 2 * Integer.BYTES + Long.BYTES);
+      int keyOffset = position + RECORD_HEADER_SIZE;
+      if (keyLength < 0 || dataLength < 0
+          || (long) keyOffset + keyLength + dataLength > mapped.capacity()) {
+        break;
+      }
+
+      byte[] keyBytes = new byte[keyLength];
+      ByteBuffer view = mapped.duplicate();
+      view.position(keyOffset);
+      view.get(keyBytes);
+      view.limit(keyOffset + keyLength + dataLength);
+      CRC32 crc = new CRC32();
+      crc.update(keyBytes);
+      crc.update(view);
+      if ((int) crc.getValue() != checksum) {
+        LOG.warning("Invalid record in segment " + segment + " at " + position);
+        break;
+      }
+
+      consumer.accept(new String(keyBytes, StandardCharsets.UTF_8),
+          new Location(name, keyOffset + keyLength, dataLength, sequence));
+      position = keyOffset + keyLength + dataLength;
+    }
+  }
+
+  /**
+   * Close the log, the segment being written is sealed
+   *
+   * @throws IOException if sealing fails
+   */
+  synchronized void close() throws IOException {
+    if (activeChannel != null) {
+      seal();
+    }
+    mappedSegments.clear();
+  }
+
+  private static synchronized void closeAll() {
+    for (Iterator<SegmentLog> it = LOGS.values().iterator(); it.hasNext();) {
+      SegmentLog log = it.next();
+      try {
+        log.close();
+      } catch (IOException e) {
+        LOG.warning("Failed to close the segment log " + log.directory);
+      }
+      it.remove();
+    }
+  }
+}
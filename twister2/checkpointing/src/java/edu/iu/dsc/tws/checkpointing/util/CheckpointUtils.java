@@ -12,6 +12,7 @@
 package edu.iu.dsc.tws.checkpointing.util;
 
 import java.io.IOException;
+import java.util.Map;
 
 import edu.iu.dsc.tws.api.checkpointing.CheckpointingClient;
 import edu.iu.dsc.tws.api.checkpointing.StateStore;
@@ -23,6 +24,7 @@ public final class CheckpointUtils {
 
   private static final String JOB_CONFIG_STATE_PREFIX = "JOB_CONFIG_";
   private static final String JOB_META_STATE_PREFIX = "JOB_META_";
+  private static final String DELTA_STATE_PREFIX = "DELTA_";
 
   private CheckpointUtils() {
   }
@@ -46,6 +48,35 @@ public final class CheckpointUtils {
     stateStore.put(Long.toString(snapshot.getVersion()), snapshot.pack());
   }
 
+  /**
+   * Save the snapshot with values that are already packed
+   *
+   * @param stateStore the store
+   * @param version the version of the snapshot
+   * @param packedValues all the packed values of the snapshot
+   * @throws IOException if writing to the store fails
+   */
+  public static void saveState(StateStore stateStore, long version,
+                               Map<String, byte[]> packedValues) throws IOException {
+    stateStore.put(Long.toString(version), SnapshotImpl.pack(packedValues, version));
+  }
+
+  /**
+   * Save only the given values of the snapshot, on top of a previously saved version
+   *
+   * @param stateStore the store
+   * @param version the version of the snapshot
+   * @param packedValues the packed values that changed after the base version
+   * @param baseVersion the previous version
+   * @throws IOException if writing to the store fails
+   */
+  public static void saveDelta(StateStore stateStore, long version,
+                               Map<String, byte[]> packedValues,
+                               long baseVersion) throws IOException {
+    stateStore.put(getDeltaKey(version),
+        SnapshotImpl.packDelta(packedValues, version, baseVersion));
+  }
+
   public static void restoreSnapshot(StateStore stateStore,
                                      Long version,
                                      SnapshotImpl snapshot) throws IOException {
@@ -53,10 +84,18 @@ public final class CheckpointUtils {
       return;
     }
     byte[] stateBytes = stateStore.get(version.toString());
-    if (stateBytes == null) {
+    if (stateBytes != null) {
+      snapshot.unpack(stateBytes);
+      return;
+    }
+
+    // the version is saved as a delta, restore the version it is based on first
+    byte[] deltaBytes = stateStore.get(getDeltaKey(version));
+    if (deltaBytes == null) {
       throw new RuntimeException("Couldn't find version " + version + " in store");
     }
-    snapshot.unpack(stateBytes);
+    restoreSnapshot(stateStore, SnapshotImpl.getDeltaBaseVersion(deltaBytes), snapshot);
+    snapshot.unpackDelta(deltaBytes);
   }
 
   public static StateStore getStateStore(Config config) {
@@ -76,6 +115,39 @@ public final class CheckpointUtils {
     }
   }
 
+  private static String getDeltaKey(long version) {
+    return DELTA_STATE_PREFIX + version;
+  }
+
+  /**
+   * Check weather a key of a task store holds a delta snapshot
+   *
+   * @param key the key
+   * @return true if the key is a delta
+   */
+  public static boolean isDeltaKey(String key) {
+    return key.startsWith(DELTA_STATE_PREFIX);
+  }
+
+  /**
+   * Get the snapshot version saved with a key of a task store
+   *
+   * @param key the key
+   * @return the version or -1 if the key is not a snapshot
+   */
+  public static long getVersionOfKey(String key) {
+    String version = isDeltaKey(key) ? key.substring(DELTA_STATE_PREFIX.length()) : key;
+    if (version.isEmpty()) {
+      return -1;
+    }
+    for (int i = 0; i < version.length(); i++) {
+      if (!Character.isDigit(version.charAt(i))) {
+        return -1;
+      }
+    }
+    return Long.parseLong(version);
+  }
+
   private static String getJobConfigKey(String jobId) {
     return JOB_CONFIG_STATE_PREFIX + jobId;
   }
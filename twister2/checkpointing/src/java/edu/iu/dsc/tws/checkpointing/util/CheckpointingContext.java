@@ -16,6 +16,7 @@ import edu.iu.dsc.tws.api.config.FileSystemContext;
 import edu.iu.dsc.tws.api.exceptions.Twister2RuntimeException;
 import edu.iu.dsc.tws.checkpointing.stores.HDFSFileStateStore;
 import edu.iu.dsc.tws.checkpointing.stores.LocalFileStateStore;
+import edu.iu.dsc.tws.checkpointing.stores.SegmentFileStateStore;
 
 public final class CheckpointingContext {
 
@@ -31,6 +32,14 @@ public final class CheckpointingContext {
 
   public static final String CHECKPOINTING_RESTORE_JOB = "twister2.checkpointing.restore.job";
 
+  public static final String CHECKPOINTING_STORE_SEGMENT_SIZE
+      = "twister2.checkpointing.store.segment.size";
+
+  public static final String CHECKPOINTING_ASYNC = "twister2.checkpointing.async";
+
+  public static final String CHECKPOINTING_COMPACTION_INTERVAL
+      = "twister2.checkpointing.compaction.interval";
+
   private CheckpointingContext() {
   }
 
@@ -40,6 +49,11 @@ public final class CheckpointingContext {
   }
 
   public static String getCheckpointingStoreClass(Config config) {
+    String storeClass = config.getStringValue(CHECKPOINTING_STORE_CLASS);
+    if (storeClass != null) {
+      return storeClass;
+    }
+
     String type = FileSystemContext.persistentStorageType(config);
 
     switch (type) {
@@ -65,13 +79,35 @@ public final class CheckpointingContext {
     return config.getLongValue(CHECKPOINTING_SOURCE_FREQUNCY, 1000);
   }
 
+  /**
+   * Size after which a segment of the {@link SegmentFileStateStore} is sealed
+   */
+  public static long getStoreSegmentSize(Config config) {
+    return config.getLongValue(CHECKPOINTING_STORE_SEGMENT_SIZE, 64L * 1024 * 1024);
+  }
+
+  /**
+   * Weather the task snapshots are written to the store by a background thread
+   */
+  public static boolean isAsyncCheckpointing(Config config) {
+    return config.getBooleanValue(CHECKPOINTING_ASYNC, true);
+  }
+
+  /**
+   * Number of delta snapshots written between two full snapshots of a task
+   */
+  public static int getCompactionInterval(Config config) {
+    return config.getIntegerValue(CHECKPOINTING_COMPACTION_INTERVAL, 10);
+  }
+
   public static long getRequestTimeout(Config config) {
     return 1000L * config.getIntegerValue(REQUEST_TIMEOUT, REQUEST_TIMEOUT_DEFAULT);
   }
 
   //todo: can checkpointing data be saved to nfs even above parameter is LocalFileStateStore
   public static boolean isNfsUsed(Config config) {
-    return "edu.iu.dsc.tws.checkpointing.stores.LocalFileStateStore"
-        .equals(getCheckpointingStoreClass(config));
+    String storeClass = getCheckpointingStoreClass(config);
+    return "edu.iu.dsc.tws.checkpointing.stores.LocalFileStateStore".equals(storeClass)
+        || SegmentFileStateStore.class.getCanonicalName().equals(storeClass);
   }
 }
@@ -0,0 +1,210 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.checkpointing.util;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import edu.iu.dsc.tws.api.checkpointing.StateStore;
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.checkpointing.api.SnapshotImpl;
+
+/**
+ * Writes the snapshots of a task to the state store.
+ * <p>
+ * The task thread packs the values set to the snapshot after the previous version, so the task
+ * can modify its values in place as soon as the write returns. Comparing them with the written
+ * values and writing them to the store is done by a background thread shared by the tasks of the
+ * worker if asynchronous checkpointing is enabled, otherwise on the calling thread. The snapshots
+ * of a task are written in the order they are taken.
+ * <p>
+ * Only the keys whose packed value changed after the previous version are written, as a delta
+ * on top of that version. After every {@link CheckpointingContext#getCompactionInterval(Config)}
+ * deltas a full snapshot is written, so restoring a version reads a bounded number of deltas.
+ * A full snapshot is built from the previously written values, so only the first snapshot after
+ * the task starts packs all the values on the task thread.
+ */
+public class SnapshotWriter {
+  private static final Logger LOG = Logger.getLogger(SnapshotWriter.class.getName());
+
+  /**
+   * Maximum number of snapshots of a task waiting to be written
+   */
+  private static final int MAX_PENDING_SNAPSHOTS = 2;
+
+  /**
+   * The thread writing the snapshots of all the tasks in this worker
+   */
+  private static ExecutorService uploader;
+
+  /**
+   * The store
+   */
+  private StateStore stateStore;
+
+  /**
+   * Weather we write in the background
+   */
+  private boolean async;
+
+  /**
+   * Number of deltas between two full snapshots
+   */
+  private int compactionInterval;
+
+  /**
+   * The last version given to write, -1 if nothing is written yet
+   */
+  private long lastVersion = -1;
+
+  /**
+   * Number of deltas written after the last full snapshot
+   */
+  private int deltas;
+
+  /**
+   * The last written packed value of each key, only accessed by the writing thread
+   */
+  private Map<String, byte[]> writtenValues = new HashMap<>();
+
+  /**
+   * Versions that are written to the store
+   */
+  private Queue<Long> persistedVersions = new ConcurrentLinkedQueue<>();
+
+  /**
+   * Number of snapshots given to write but not yet written
+   */
+  private AtomicInteger pending = new AtomicInteger();
+
+  /**
+   * The error occurred while writing in the background
+   */
+  private volatile IOException error;
+
+  public SnapshotWriter(Config config, StateStore stateStore) {
+    this.stateStore = stateStore;
+    this.async = CheckpointingContext.isAsyncCheckpointing(config);
+    this.compactionInterval = CheckpointingContext.getCompactionInterval(config);
+  }
+
+  private static synchronized ExecutorService getUploader() {
+    if (uploader == null) {
+      uploader = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "twister2-snapshot-writer");
+        t.setDaemon(true);
+        return t;
+      });
+    }
+    return uploader;
+  }
+
+  /**
+   * Weather a new snapshot can be given to write
+   *
+   * @return false if too many snapshots are waiting to be written
+   */
+  public boolean canWrite() {
+    return pending.get() < MAX_PENDING_SNAPSHOTS;
+  }
+
+  /**
+   * Weather there are snapshots waiting to be written or persisted versions to be polled
+   *
+   * @return true if there are pending snapshots
+   */
+  public boolean isPending() {
+    return pending.get() > 0 || !persistedVersions.isEmpty();
+  }
+
+  /**
+   * Pack the changed values of the snapshot and write them
+   *
+   * @param snapshot the snapshot with the version set
+   * @throws IOException if the store fails when writing synchronously
+   */
+  public void write(SnapshotImpl snapshot) throws IOException {
+    boolean full = lastVersion < 0 || deltas >= compactionInterval;
+    // the values are packed here, the task may modify them after this returns
+    Map<String, byte[]> packedValues = snapshot.packChanged(lastVersion < 0);
+    long version = snapshot.getVersion();
+    long baseVersion = lastVersion;
+    lastVersion = version;
+    deltas = full ? 0 : deltas + 1;
+
+    pending.incrementAndGet();
+    if (async) {
+      getUploader().execute(() -> {
+        try {
+          persist(version, packedValues, full, baseVersion);
+        } catch (IOException e) {
+          error = e;
+        } catch (RuntimeException e) {
+          error = new IOException("Failed to write snapshot " + version, e);
+        } finally {
+          // a failed snapshot is not pending anymore, its error is thrown when polling
+          pending.decrementAndGet();
+        }
+      });
+    } else {
+      try {
+        persist(version, packedValues, full, baseVersion);
+      } finally {
+        pending.decrementAndGet();
+      }
+    }
+  }
+
+  /**
+   * Get a version that is written to the store
+   *
+   * @return the version or -1 if no new version is written
+   * @throws IOException if writing a snapshot in the background failed
+   */
+  public long pollPersisted() throws IOException {
+    if (error != null) {
+      throw error;
+    }
+    Long version = persistedVersions.poll();
+    return version == null ? -1 : version;
+  }
+
+  private void persist(long version, Map<String, byte[]> packedValues, boolean full,
+                       long baseVersion) throws IOException {
+    Iterator<Map.Entry<String, byte[]>> it = packedValues.entrySet().iterator();
+    while (it.hasNext()) {
+      Map.Entry<String, byte[]> e = it.next();
+      byte[] previous = writtenValues.put(e.getKey(), e.getValue());
+      if (previous != null && Arrays.equals(previous, e.getValue())) {
+        it.remove();
+      }
+    }
+
+    if (full) {
+      CheckpointUtils.saveState(stateStore, version, writtenValues);
+    } else {
+      CheckpointUtils.saveDelta(stateStore, version, packedValues, baseVersion);
+      LOG.fine(() -> "Wrote " + packedValues.size() + " changed keys of version "
+          + version + " on top of " + baseVersion);
+    }
+    persistedVersions.offer(version);
+  }
+}
@@ -114,6 +114,8 @@ public final class CheckpointingWorkerEnv {
       StateStore localCheckpointStore = CheckpointUtils.getStateStore(config);
       // one snapshot store for worker. Each node may have snapshots of multiple  workers
       localCheckpointStore.init(config, WORKER_CHECKPOINT_DIR, Integer.toString(workerId));
+      workerController.getCheckpointingClient().registerStateStore(WORKER_CHECKPOINT_FAMILY,
+          localCheckpointStore);
 
       Set<Integer> workerIDs = Collections.emptySet();
       if (workerId == 0) {
@@ -0,0 +1,202 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.checkpointing.stores;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SegmentLogTest {
+  private static final int HEADER_SIZE = 2 * Integer.BYTES + Long.BYTES + Integer.BYTES;
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private static byte[] data(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static String read(SegmentLog log, String key) throws IOException {
+    ByteBuffer buffer = log.read(key);
+    if (buffer == null) {
+      return null;
+    }
+    byte[] bytes = new byte[buffer.remaining()];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static File[] segments(File directory, String suffix) {
+    return directory.listFiles((dir, name) -> name.endsWith(suffix));
+  }
+
+  /**
+   * Copy the segments to a new directory, logs are shared by directory in a process so the
+   * copy is scanned again when it is opened
+   */
+  private File copy(File directory) throws IOException {
+    File copy = folder.newFolder();
+    for (File f : directory.listFiles()) {
+      Files.copy(f.toPath(), new File(copy, f.getName()).toPath(),
+          StandardCopyOption.REPLACE_EXISTING);
+    }
+    return copy;
+  }
+
+  private SegmentLog reopen(File directory) throws IOException {
+    return SegmentLog.get(copy(directory), 1024);
+  }
+
+  @Test
+  public void testAppendAndRead() throws IOException {
+    SegmentLog log = SegmentLog.get(folder.newFolder(), 1024);
+    log.append("t/1", data("one"));
+    log.append("t/2", data("two"));
+    log.append("t/1", data("three"));
+
+    Assert.assertEquals("three", read(log, "t/1"));
+    Assert.assertEquals("two", read(log, "t/2"));
+    Assert.assertNull(read(log, "t/3"));
+    Assert.assertTrue(log.contains("t/2"));
+    Assert.assertFalse(log.contains("t/3"));
+    Assert.assertTrue(log.read("t/2").isReadOnly());
+  }
+
+  @Test
+  public void testSealWhenFull() throws IOException {
+    File directory = folder.newFolder();
+    SegmentLog log = SegmentLog.get(directory, 64);
+    for (int i = 0; i < 10; i++) {
+      log.append("t/" + i, data("value-" + i));
+    }
+    Assert.assertEquals(1, segments(directory, ".open").length);
+    Assert.assertTrue(segments(directory, ".seg").length >= 4);
+    for (int i = 0; i < 10; i++) {
+      Assert.assertEquals("value-" + i, read(log, "t/" + i));
+    }
+
+    log.close();
+    Assert.assertEquals(0, segments(directory, ".open").length);
+    Assert.assertEquals("value-9", read(log, "t/9"));
+  }
+
+  @Test
+  public void testRecoverFromHeaders() throws IOException {
+    File directory = folder.newFolder();
+    SegmentLog log = SegmentLog.get(directory, 64);
+    for (int i = 0; i < 6; i++) {
+      log.append("t/" + (i % 3), data("value-" + i));
+    }
+    log.append("t/4", data("last"));
+
+    File recoveredDirectory = copy(directory);
+    SegmentLog recovered = SegmentLog.get(recoveredDirectory, 64);
+    Assert.assertEquals("value-3", read(recovered, "t/0"));
+    Assert.assertEquals("value-4", read(recovered, "t/1"));
+    Assert.assertEquals("value-5", read(recovered, "t/2"));
+    Assert.assertEquals("last", read(recovered, "t/4"));
+
+    // a record appended after recovery is newer than the recovered ones
+    recovered.append("t/0", data("new"));
+    Assert.assertEquals("new", read(reopen(recoveredDirectory), "t/0"));
+  }
+
+  @Test
+  public void testPartialRecordEndsTheScan() throws IOException {
+    File directory = folder.newFolder();
+    SegmentLog log = SegmentLog.get(directory, 1024);
+    log.append("t/1", data("one"));
+    log.append("t/2", data("two"));
+
+    File open = segments(directory, ".open")[0];
+    try (RandomAccessFile file = new RandomAccessFile(open, "rw")) {
+      // cut the second record in the middle of its data
+      file.setLength(file.length() - 2);
+    }
+    SegmentLog recovered = reopen(directory);
+    Assert.assertEquals("one", read(recovered, "t/1"));
+    Assert.assertNull(read(recovered, "t/2"));
+  }
+
+  @Test
+  public void testInvalidChecksumEndsTheScan() throws IOException {
+    File directory = folder.newFolder();
+    SegmentLog log = SegmentLog.get(directory, 1024);
+    log.append("t/1", data("one"));
+    log.append("t/2", data("two"));
+    log.append("t/3", data("three"));
+
+    File open = segments(directory, ".open")[0];
+    long secondData = HEADER_SIZE + "t/1".length() + "one".length() + HEADER_SIZE
+        + "t/2".length();
+    try (RandomAccessFile file = new RandomAccessFile(open, "rw")) {
+      file.seek(secondData);
+      file.write('X');
+    }
+    SegmentLog recovered = reopen(directory);
+    Assert.assertEquals("one", read(recovered, "t/1"));
+    Assert.assertNull(read(recovered, "t/2"));
+    Assert.assertNull(read(recovered, "t/3"));
+  }
+
+  @Test
+  public void testDiscardOlderThanCommittedVersion() throws IOException {
+    File directory = folder.newFolder();
+    // one record in each segment
+    SegmentLog log = SegmentLog.get(directory, 16);
+    log.append("t/JOB_CONFIG", data("config"));
+    log.append("t/1", data("full-1"));
+    log.append("t/DELTA_2", data("delta-2"));
+    log.append("t/3", data("full-3"));
+    log.append("t/DELTA_4", data("delta-4"));
+    log.append("t/DELTA_5", data("delta-5"));
+    log.append("u/DELTA_2", data("other-task"));
+    log.close();
+    Assert.assertEquals(7, segments(directory, ".seg").length);
+
+    // version 4 is restored from 3 and the delta of 4
+    log.discardOlderThan(4);
+    Assert.assertEquals(5, segments(directory, ".seg").length);
+    Assert.assertNull(read(log, "t/1"));
+    Assert.assertNull(read(log, "t/DELTA_2"));
+    Assert.assertEquals("config", read(log, "t/JOB_CONFIG"));
+    Assert.assertEquals("full-3", read(log, "t/3"));
+    Assert.assertEquals("delta-4", read(log, "t/DELTA_4"));
+    Assert.assertEquals("delta-5", read(log, "t/DELTA_5"));
+    // a task without a full snapshot keeps its deltas
+    Assert.assertEquals("other-task", read(log, "u/DELTA_2"));
+
+    // an older commit does not discard anything
+    log.discardOlderThan(3);
+    Assert.assertEquals(5, segments(directory, ".seg").length);
+  }
+
+  @Test
+  public void testOpenSegmentIsNotDiscarded() throws IOException {
+    File directory = folder.newFolder();
+    SegmentLog log = SegmentLog.get(directory, 1024);
+    log.append("t/1", data("full-1"));
+    log.append("t/2", data("full-2"));
+    log.discardOlderThan(2);
+    Assert.assertEquals("full-1", read(log, "t/1"));
+    Assert.assertEquals(1, segments(directory, ".open").length);
+  }
+}
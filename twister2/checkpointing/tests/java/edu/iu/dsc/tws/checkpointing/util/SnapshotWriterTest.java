@@ -0,0 +1,314 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.checkpointing.util;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import edu.iu.dsc.tws.api.checkpointing.StateStore;
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.checkpointing.api.SnapshotImpl;
+
+public class SnapshotWriterTest {
+
+  /**
+   * Keeps the snapshots in memory and fails the writes when asked to
+   */
+  private static class MemoryStore implements StateStore {
+    private final Map<String, byte[]> values = new TreeMap<>();
+
+    private volatile boolean failing;
+
+    @Override
+    public void init(Config config, String... path) {
+    }
+
+    @Override
+    public synchronized void put(String key, byte[] data) throws IOException {
+      if (failing) {
+        throw new IOException("Failed to write " + key);
+      }
+      values.put(key, data);
+    }
+
+    @Override
+    public synchronized byte[] get(String key) {
+      return values.get(key);
+    }
+
+    @Override
+    public synchronized boolean contains(String key) {
+      return values.containsKey(key);
+    }
+
+    private synchronized List<String> keys() {
+      return new ArrayList<>(values.keySet());
+    }
+  }
+
+  private static Config config(boolean async, int compactionInterval) {
+    return Config.newBuilder()
+        .put(CheckpointingContext.CHECKPOINTING_ASYNC, async)
+        .put(CheckpointingContext.CHECKPOINTING_COMPACTION_INTERVAL, compactionInterval)
+        .build();
+  }
+
+  private static void write(SnapshotWriter writer, SnapshotImpl snapshot, long version,
+                            Object... keyValues) throws IOException {
+    for (int i = 0; i < keyValues.length; i += 2) {
+      snapshot.setValue((String) keyValues[i], keyValues[i + 1]);
+    }
+    snapshot.setVersion(version);
+    writer.write(snapshot);
+  }
+
+  private static Map<String, Object> restore(StateStore store, long version,
+                                             String... keys) throws IOException {
+    SnapshotImpl restored = new SnapshotImpl();
+    CheckpointUtils.restoreSnapshot(store, version, restored);
+    Assert.assertEquals(version, restored.getVersion());
+    Map<String, Object> values = new HashMap<>();
+    for (String key : keys) {
+      if (restored.checkpointAvailable(key)) {
+        values.put(key, restored.get(key));
+      }
+    }
+    return values;
+  }
+
+  private static Map<String, Object> map(Object... keyValues) {
+    Map<String, Object> map = new HashMap<>();
+    for (int i = 0; i < keyValues.length; i += 2) {
+      map.put((String) keyValues[i], keyValues[i + 1]);
+    }
+    return map;
+  }
+
+  @Test
+  public void testDeltaHoldsOnlyChangedKeys() throws IOException {
+    MemoryStore store = new MemoryStore();
+    SnapshotWriter writer = new SnapshotWriter(config(false, 10), store);
+    SnapshotImpl snapshot = new SnapshotImpl();
+
+    write(writer, snapshot, 1, "a", 1, "b", "one", "c", 1L);
+    Assert.assertEquals(1, writer.pollPersisted());
+    Assert.assertTrue(store.contains("1"));
+
+    // b is set again to an equal value, c is not set
+    write(writer, snapshot, 2, "a", 2, "b", "one");
+    Assert.assertEquals(2, writer.pollPersisted());
+    Assert.assertFalse(store.contains("2"));
+    byte[] delta = store.get("DELTA_2");
+    Assert.assertNotNull(delta);
+    Assert.assertEquals(1, SnapshotImpl.getDeltaBaseVersion(delta));
+
+    SnapshotImpl unpacked = new SnapshotImpl();
+    unpacked.unpackDelta(delta);
+    Assert.assertEquals(2, unpacked.getVersion());
+    Assert.assertEquals(2, unpacked.get("a"));
+    Assert.assertFalse(unpacked.checkpointAvailable("b"));
+    Assert.assertFalse(unpacked.checkpointAvailable("c"));
+    Assert.assertFalse(writer.isPending());
+  }
+
+  @Test
+  public void testRestoreAlongDeltaChain() throws IOException {
+    MemoryStore store = new MemoryStore();
+    SnapshotWriter writer = new SnapshotWriter(config(false, 10), store);
+    SnapshotImpl snapshot = new SnapshotImpl();
+
+    write(writer, snapshot, 1, "a", 1, "b", 10);
+    write(writer, snapshot, 2, "a", 2);
+    write(writer, snapshot, 3, "c", 30);
+    write(writer, snapshot, 4, "b", 11, "a", 2);
+    write(writer, snapshot, 5);
+    Assert.assertEquals(1, store.keys().stream().filter(k -> !k.startsWith("DELTA_")).count());
+
+    Assert.assertEquals(map("a", 1, "b", 10), restore(store, 1, "a", "b", "c"));
+    Assert.assertEquals(map("a", 2, "b", 10), restore(store, 2, "a", "b", "c"));
+    Assert.assertEquals(map("a", 2, "b", 10, "c", 30), restore(store, 3, "a", "b", "c"));
+    Assert.assertEquals(map("a", 2, "b", 11, "c", 30), restore(store, 4, "a", "b", "c"));
+    Assert.assertEquals(map("a", 2, "b", 11, "c", 30), restore(store, 5, "a", "b", "c"));
+  }
+
+  @Test
+  public void testCompaction() throws IOException {
+    MemoryStore store = new MemoryStore();
+    SnapshotWriter writer = new SnapshotWriter(config(false, 2), store);
+    SnapshotImpl snapshot = new SnapshotImpl();
+    for (int version = 1; version <= 7; version++) {
+      write(writer, snapshot, version, "v" + version, version);
+    }
+
+    // a full snapshot after every two deltas
+    List<String> expected = new ArrayList<>();
+    for (int version = 1; version <= 7; version++) {
+      expected.add((version % 3 == 1 ? "" : "DELTA_") + version);
+    }
+    List<String> keys = store.keys();
+    keys.sort(String.CASE_INSENSITIVE_ORDER);
+    expected.sort(String.CASE_INSENSITIVE_ORDER);
+    Assert.assertEquals(expected, keys);
+
+    // the full snapshot holds all the values, so the older versions are not needed
+    for (int version = 1; version <= 3; version++) {
+      store.values.remove((version == 1 ? "" : "DELTA_") + version);
+    }
+    Assert.assertEquals(map("v1", 1, "v2", 2, "v3", 3, "v4", 4, "v5", 5, "v6", 6),
+        restore(store, 6, "v1", "v2", "v3", "v4", "v5", "v6", "v7"));
+  }
+
+  @Test
+  public void testNewWriterStartsWithFullSnapshot() throws IOException {
+    MemoryStore store = new MemoryStore();
+    SnapshotImpl snapshot = new SnapshotImpl();
+    write(new SnapshotWriter(config(false, 10), store), snapshot, 1, "a", 1);
+    write(new SnapshotWriter(config(false, 10), store), snapshot, 2, "b", 2);
+    Assert.assertTrue(store.contains("2"));
+    Assert.assertEquals(map("a", 1, "b", 2), restore(store, 2, "a", "b"));
+  }
+
+  private static void waitForWrites(SnapshotWriter writer) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 10000;
+    while (writer.isPending() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(5);
+    }
+  }
+
+  @Test
+  public void testAsyncWritesInOrder() throws Exception {
+    MemoryStore store = new MemoryStore();
+    SnapshotWriter writer = new SnapshotWriter(config(true, 1), store);
+    SnapshotImpl snapshot = new SnapshotImpl();
+
+    List<Long> persisted = new ArrayList<>();
+    for (int version = 1; version <= 6; version++) {
+      while (!writer.canWrite()) {
+        Thread.sleep(1);
+      }
+      write(writer, snapshot, version, "k", version);
+      long done = writer.pollPersisted();
+      if (done >= 0) {
+        persisted.add(done);
+      }
+    }
+    long deadline = System.currentTimeMillis() + 10000;
+    while (persisted.size() < 6 && System.currentTimeMillis() < deadline) {
+      long done = writer.pollPersisted();
+      if (done >= 0) {
+        persisted.add(done);
+      }
+    }
+    waitForWrites(writer);
+    Assert.assertEquals(Arrays.asList(1L, 2L, 3L, 4L, 5L, 6L), persisted);
+    Assert.assertEquals(map("k", 6), restore(store, 6, "k"));
+  }
+
+  /**
+   * Blocks the writes until released
+   */
+  private static class BlockingStore extends MemoryStore {
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @Override
+    public void put(String key, byte[] data) throws IOException {
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        throw new IOException("Interrupted while writing " + key, e);
+      }
+      super.put(key, data);
+    }
+  }
+
+  @Test
+  public void testAsyncByDefault() {
+    Assert.assertTrue(CheckpointingContext.isAsyncCheckpointing(Config.newBuilder().build()));
+  }
+
+  @Test
+  public void testModifyInPlaceAfterAsyncWrite() throws Exception {
+    BlockingStore store = new BlockingStore();
+    SnapshotWriter writer = new SnapshotWriter(config(true, 1), store);
+    SnapshotImpl snapshot = new SnapshotImpl();
+
+    HashMap<Integer, Long> offsets = new HashMap<>();
+    offsets.put(0, 10L);
+    write(writer, snapshot, 1, "offsets", offsets, "count", 1);
+    // the task keeps updating its state while the snapshots are still being written
+    offsets.put(0, 20L);
+    offsets.put(1, 5L);
+    write(writer, snapshot, 2, "offsets", offsets);
+    offsets.put(0, 30L);
+    write(writer, snapshot, 3, "offsets", offsets);
+    offsets.put(0, 40L);
+
+    store.release.countDown();
+    waitForWrites(writer);
+    Map<Integer, Long> first = new HashMap<>();
+    first.put(0, 10L);
+    Assert.assertEquals(map("offsets", first, "count", 1),
+        restore(store, 1, "offsets", "count"));
+    Map<Integer, Long> second = new HashMap<>();
+    second.put(0, 20L);
+    second.put(1, 5L);
+    Assert.assertEquals(map("offsets", second, "count", 1),
+        restore(store, 2, "offsets", "count"));
+    // the third version is a full snapshot built from the previously written values
+    Assert.assertTrue(store.contains("3"));
+    second.put(0, 30L);
+    Assert.assertEquals(map("offsets", second, "count", 1),
+        restore(store, 3, "offsets", "count"));
+  }
+
+  @Test
+  public void testAsyncFailureIsNotPending() throws Exception {
+    MemoryStore store = new MemoryStore();
+    store.failing = true;
+    SnapshotWriter writer = new SnapshotWriter(config(true, 10), store);
+    SnapshotImpl snapshot = new SnapshotImpl();
+    write(writer, snapshot, 1, "a", 1);
+    write(writer, snapshot, 2, "a", 2);
+
+    waitForWrites(writer);
+    Assert.assertFalse(writer.isPending());
+    Assert.assertTrue(writer.canWrite());
+    try {
+      writer.pollPersisted();
+      Assert.fail("The failure of the write should be reported");
+    } catch (IOException e) {
+      Assert.assertTrue(e.getMessage(), e.getMessage().startsWith("Failed to write"));
+    }
+  }
+
+  @Test
+  public void testSyncFailureIsNotPending() {
+    MemoryStore store = new MemoryStore();
+    store.failing = true;
+    SnapshotWriter writer = new SnapshotWriter(config(false, 10), store);
+    try {
+      write(writer, new SnapshotImpl(), 1, "a", 1);
+      Assert.fail("The failure of the write should be thrown");
+    } catch (IOException e) {
+      Assert.assertFalse(writer.isPending());
+    }
+  }
+}
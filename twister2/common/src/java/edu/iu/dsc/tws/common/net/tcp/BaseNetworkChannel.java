@@ -32,6 +32,17 @@ public abstract class BaseNetworkChannel {
 
   protected BlockingQueue<TCPMessage> pendingSends;
 
+  /**
+   * Messages written before the pending messages of the other edges
+   */
+  protected BlockingQueue<TCPMessage> prioritySends;
+
+  /**
+   * Number of messages of each edge in the pending sends, a priority message of an edge
+   * cannot go before the messages of the same edge
+   */
+  private Map<Integer, Integer> pendingEdgeSends = new HashMap<>();
+
   protected Map<Integer, BlockingQueue<TCPMessage>> pendingReceives;
 
   protected final SocketChannel socketChannel;
@@ -42,8 +53,6 @@ public abstract class BaseNetworkChannel {
 
   protected ByteBuffer readHeader;
 
-  protected ByteBuffer writeHeader;
-
   protected TCPMessage readingRequest;
 
   protected int readEdge;
@@ -52,13 +61,41 @@ public abstract class BaseNetworkChannel {
 
   protected DataStatus readStatus;
 
-  protected DataStatus writeStatus;
-
   protected ChannelHandler channelHandler;
 
   // header size of each message, we use edge and length as the header
   private static final int HEADER_SIZE = 8;
 
+  /**
+   * Weather to use direct buffers for the headers
+   */
+  protected boolean directBuffers;
+
+  /**
+   * The messages being written with a single gathering write
+   */
+  private TCPMessage[] writingRequests;
+
+  /**
+   * The header and the body of each message being written
+   */
+  private ByteBuffer[] writeBuffers;
+
+  /**
+   * The headers of the messages being written
+   */
+  private ByteBuffer[] writeHeaders;
+
+  /**
+   * Number of messages being written
+   */
+  private int writingCount;
+
+  /**
+   * Index of the first buffer in writeBuffers that is not fully written
+   */
+  private int writeOffset;
+
   BaseNetworkChannel(Config cfg, Progress progress, SelectHandler handler,
                      SocketChannel channel, ChannelHandler msgHandler) {
     this.socketChannel = channel;
@@ -67,13 +104,24 @@ public abstract class BaseNetworkChannel {
     this.channelHandler = msgHandler;
 
     pendingSends = new ArrayBlockingQueue<>(1024);
+    prioritySends = new ArrayBlockingQueue<>(1024);
     pendingReceives = new HashMap<>();
 
-    readHeader = ByteBuffer.allocate(HEADER_SIZE);
-    writeHeader = ByteBuffer.allocate(HEADER_SIZE);
+    this.directBuffers = TCPContext.isDirectBuffers(cfg);
+    int gatherMessages = Math.max(1, TCPContext.getGatherMessages(cfg));
+    this.writingRequests = new TCPMessage[gatherMessages];
+    this.writeBuffers = new ByteBuffer[gatherMessages * 2];
+    this.writeHeaders = new ByteBuffer[gatherMessages];
+    for (int i = 0; i < gatherMessages; i++) {
+      writeHeaders[i] = allocate(HEADER_SIZE);
+    }
+    readHeader = allocate(HEADER_SIZE);
 
     this.readStatus = DataStatus.INIT;
-    this.writeStatus = DataStatus.INIT;
+  }
+
+  protected ByteBuffer allocate(int size) {
+    return directBuffers ? ByteBuffer.allocateDirect(size) : ByteBuffer.allocate(size);
   }
 
   public void read() {
@@ -94,6 +142,9 @@ public abstract class BaseNetworkChannel {
   public void clear() {
     pendingReceives.clear();
     pendingSends.clear();
+    prioritySends.clear();
+    pendingEdgeSends.clear();
+    resetWriteBuffers();
   }
 
   public boolean addReadRequest(TCPMessage request) {
@@ -101,6 +152,17 @@ public abstract class BaseNetworkChannel {
   }
 
   public boolean addWriteRequest(TCPMessage request) {
+    return addWriteRequest(request, false);
+  }
+
+  /**
+   * Add a message to be written
+   *
+   * @param request the message
+   * @param priority write the message before the pending messages of the other edges
+   * @return true if the message is accepted
+   */
+  public boolean addWriteRequest(TCPMessage request, boolean priority) {
     ByteBuffer byteBuffer = request.getByteBuffer();
     if (request.getLength() == 0) {
       throw new RuntimeException("Cannot send a message with 0 length");
@@ -110,86 +172,93 @@ public abstract class BaseNetworkChannel {
       throw new RuntimeException("Cannot send a message with 0 length");
     }
 
-    return pendingSends.offer(request);
+    if (priority && !pendingEdgeSends.containsKey(request.getEdge())) {
+      return prioritySends.offer(request);
+    }
+
+    if (pendingSends.offer(request)) {
+      pendingEdgeSends.merge(request.getEdge(), 1, Integer::sum);
+      return true;
+    }
+    return false;
   }
 
+  /**
+   * Write the pending messages. The headers and the bodies of up to the configured number of
+   * messages are written with a single gathering write.
+   */
   public void write() {
-    while (pendingSends.size() > 0) {
-      TCPMessage writeRequest = pendingSends.peek();
-      if (writeRequest == null) {
-        break;
-      }
-
-      int writeState = writeRequest(socketChannel, writeRequest);
-      if (writeState > 0) {
-        break;
-      } else if (writeState < 0) {
-        LOG.severe("Something bad happened while writing to channel");
-        writeRequest.setError();
+    while (writingCount > 0 || fillWriteBuffers()) {
+      try {
+        socketChannel.write(writeBuffers, writeOffset, writingCount * 2 - writeOffset);
+        LOG.finest("Wrote messages " + writingCount);
+      } catch (IOException e) {
+        LOG.log(Level.SEVERE, "Error writing to channel ", e);
+        for (int i = writeOffset / 2; i < writingCount; i++) {
+          writingRequests[i].setError();
+        }
+        resetWriteBuffers();
         selectHandler.handleError(socketChannel);
         return;
-      } else {
-        // remove the request
-        pendingSends.poll();
-        writeRequest.setComplete();
-        // notify the handler
-        channelHandler.onSendComplete(socketChannel, writeRequest);
-        if (pendingSends.size() == 0) {
-          disableWriting();
-        }
       }
-    }
-
-  }
 
-  private int writeRequest(SocketChannel channel, TCPMessage message) {
-    ByteBuffer buffer = message.getByteBuffer();
-    int written = 0;
-    if (writeStatus == DataStatus.INIT) {
-      // lets flip the buffer
-      writeHeader.clear();
-      writeStatus = DataStatus.HEADER;
-
-      writeHeader.putInt(message.getLength());
-      writeHeader.putInt(message.getEdge());
-      writeHeader.flip();
-    }
+      // complete the messages that are fully written
+      while (writeOffset < writingCount * 2 && !writeBuffers[writeOffset].hasRemaining()) {
+        if (writeOffset % 2 == 1) {
+          TCPMessage writeRequest = writingRequests[writeOffset / 2];
+          writeRequest.setComplete();
+          // notify the handler
+          channelHandler.onSendComplete(socketChannel, writeRequest);
+        }
+        writeOffset++;
+      }
 
-    if (writeStatus == DataStatus.HEADER) {
-      written = writeToChannel(channel, writeHeader);
-      if (written < 0) {
-        return written;
-      } else if (written == 0) {
-        writeStatus = DataStatus.BODY;
+      if (writeOffset < writingCount * 2) {
+        // the socket is full, we will continue when it is writable
+        return;
       }
+      resetWriteBuffers();
     }
+    disableWriting();
+  }
 
-    if (writeStatus == DataStatus.BODY) {
-      written = writeToChannel(channel, buffer);
-      if (written < 0) {
-        return written;
-      } else if (written == 0) {
-        LOG.finest(String.format("WRITE BODY %d", buffer.limit()));
-        writeStatus = DataStatus.INIT;
-        return written;
+  /**
+   * Take the pending messages to be written
+   *
+   * @return true if there are messages to write
+   */
+  private boolean fillWriteBuffers() {
+    while (writingCount < writingRequests.length) {
+      TCPMessage writeRequest = prioritySends.poll();
+      if (writeRequest == null) {
+        writeRequest = pendingSends.poll();
+        if (writeRequest == null) {
+          break;
+        }
+        pendingEdgeSends.computeIfPresent(writeRequest.getEdge(),
+            (e, count) -> count > 1 ? count - 1 : null);
       }
+      ByteBuffer header = writeHeaders[writingCount];
+      header.clear();
+      header.putInt(writeRequest.getLength());
+      header.putInt(writeRequest.getEdge());
+      header.flip();
+
+      writingRequests[writingCount] = writeRequest;
+      writeBuffers[writingCount * 2] = header;
+      writeBuffers[writingCount * 2 + 1] = writeRequest.getByteBuffer();
+      writingCount++;
     }
-
-    return written;
+    return writingCount > 0;
   }
 
-  private int writeToChannel(SocketChannel channel, ByteBuffer buffer) {
-    int remaining = buffer.remaining();
-    assert remaining > 0;
-    int wrote;
-    try {
-      wrote = channel.write(buffer);
-      LOG.finest("Wrote " + wrote);
-    } catch (IOException e) {
-      LOG.log(Level.SEVERE, "Error writing to channel ", e);
-      return -1;
+  private void resetWriteBuffers() {
+    for (int i = 0; i < writingCount; i++) {
+      writingRequests[i] = null;
+      writeBuffers[i * 2 + 1] = null;
     }
-    return remaining - wrote;
+    writingCount = 0;
+    writeOffset = 0;
   }
 
   int readFromChannel(SocketChannel channel, ByteBuffer buffer) {
@@ -212,17 +281,38 @@ public abstract class BaseNetworkChannel {
     }
   }
 
-  public void forceFlush() {
-    while (!pendingSends.isEmpty()) {
-      int writeState = writeRequest(socketChannel, pendingSends.poll());
-      if (writeState != 0) {
-        return;
-      }
+  /**
+   * Read to the buffers with a scattering read
+   *
+   * @param channel the channel
+   * @param buffers the buffers
+   * @return -1 if an error occurred, otherwise the number of bytes remaining in the first buffer
+   */
+  int readFromChannel(SocketChannel channel, ByteBuffer[] buffers) {
+    long read;
+    try {
+      read = channel.read(buffers);
+    } catch (java.nio.channels.ClosedByInterruptException e) {
+      LOG.warning("ClosedByInterruptException thrown. "
+          + "Probably the Channel is closed by the user program intentionally.");
+      return -1;
+    } catch (IOException e) {
+      LOG.log(Level.SEVERE, "Error in channel.read ", e);
+      return -1;
+    }
+    if (read < 0) {
+      return -1;
     }
+    return buffers[0].remaining();
+  }
+
+  public void forceFlush() {
+    write();
   }
 
   public boolean isPending() {
-    boolean sendPending = pendingSends.size() > 0;
+    boolean sendPending = pendingSends.size() > 0 || prioritySends.size() > 0
+        || writingCount > 0;
     boolean recvPending = false;
     for (Map.Entry<Integer, BlockingQueue<TCPMessage>> e : pendingReceives.entrySet()) {
       recvPending = e.getValue().size() > 0;
@@ -145,6 +145,21 @@ public class Client implements SelectHandler {
   }
 
   public TCPMessage send(SocketChannel sc, ByteBuffer buffer, int size, int edge) {
+    return send(sc, buffer, size, edge, false);
+  }
+
+  /**
+   * Send a message
+   *
+   * @param sc the channel
+   * @param buffer the buffer
+   * @param size size of the message
+   * @param edge the edge
+   * @param priority send the message before the pending messages of the other edges
+   * @return the request, null if the message is not accepted
+   */
+  public TCPMessage send(SocketChannel sc, ByteBuffer buffer, int size, int edge,
+                         boolean priority) {
     if (sc != socketChannel) {
       return null;
     }
@@ -159,7 +174,7 @@ public class Client implements SelectHandler {
 
     channel.enableWriting();
     TCPMessage request = new TCPMessage(buffer.duplicate(), edge, size);
-    if (channel.addWriteRequest(request)) {
+    if (channel.addWriteRequest(request, priority)) {
       return request;
     }
     return null;
@@ -21,12 +21,22 @@ import java.util.logging.Logger;
 
 import edu.iu.dsc.tws.api.config.Config;
 
+/**
+ * A channel that reads the messages in to the buffers posted for their edges. The body of a
+ * message and the header of the next message are read with a single scattering read.
+ */
 public class FixedBufferChannel extends BaseNetworkChannel {
   private static final Logger LOG = Logger.getLogger(FixedBufferChannel.class.getName());
 
+  /**
+   * The body of the current message and the header of the next message
+   */
+  private ByteBuffer[] bodyAndHeader = new ByteBuffer[2];
+
   public FixedBufferChannel(Config cfg, Progress progress, SelectHandler handler,
                             SocketChannel channel, ChannelHandler msgHandler) {
     super(cfg, progress, handler, channel, msgHandler);
+    bodyAndHeader[1] = readHeader;
   }
 
   public void read() {
@@ -67,20 +77,24 @@ public class FixedBufferChannel extends BaseNetworkChannel {
     }
 
     if (readStatus == DataStatus.HEADER) {
-      int retval = readFromChannel(channel, readHeader);
-      if (retval != 0) {
-        // either we didnt read fully or we had an error
-        // we had an error
-        if (retval < 0) {
-          selectHandler.handleError(channel);
+      // the header may have been read along with the previous message
+      if (readHeader.hasRemaining()) {
+        int retval = readFromChannel(channel, readHeader);
+        if (retval != 0) {
+          // either we didnt read fully or we had an error
+          // we had an error
+          if (retval < 0) {
+            selectHandler.handleError(channel);
+          }
+          return null;
         }
-        return null;
       }
 
       // We read the header fully
       readHeader.flip();
       readMessageSize = readHeader.getInt();
       readEdge = readHeader.getInt();
+      readHeader.clear();
       readStatus = DataStatus.BODY;
       LOG.finest(String.format("READ Header %d %d", readMessageSize, readEdge));
     }
@@ -99,7 +113,9 @@ public class FixedBufferChannel extends BaseNetworkChannel {
         buffer = readingRequest.getByteBuffer();
       }
 
-      int retVal = readFromChannel(channel, buffer);
+      bodyAndHeader[0] = buffer;
+      int retVal = readFromChannel(channel, bodyAndHeader);
+      bodyAndHeader[0] = null;
       if (retVal < 0) {
         readMessageSize = 0;
         readEdge = 0;
@@ -118,7 +134,8 @@ public class FixedBufferChannel extends BaseNetworkChannel {
 
         TCPMessage ret = readingRequest;
         readingRequest = null;
-        readStatus = DataStatus.INIT;
+        // we may have read a part of the next header
+        readStatus = DataStatus.HEADER;
         LOG.finest(String.format("READ Body %d", buffer.limit()));
         return ret;
       } else {
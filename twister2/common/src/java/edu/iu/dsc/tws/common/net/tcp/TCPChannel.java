@@ -31,20 +31,34 @@ import edu.iu.dsc.tws.common.net.NetworkInfo;
 
 /**
  * A channel implementation, that supports iSend and iRecv semantics.
+ * <p>
+ * There can be multiple connections between two workers. The messages of an edge always go
+ * through the same connection, so they are received in the order they are sent, and the
+ * edges are striped across the connections.
  */
 public class TCPChannel {
   private static final Logger LOG = Logger.getLogger(TCPChannel.class.getName());
 
+  /**
+   * The hello message has the worker id and the connection index
+   */
+  private static final int HELLO_SIZE = 8;
+
   /**
    * Server
    */
   private Server server;
 
   /**
-   * Client map
+   * Client map, with connection keys
    */
   private Map<Integer, Client> clients;
 
+  /**
+   * Number of connections between two workers
+   */
+  private int connections;
+
   /**
    * The communicationProgress loop
    */
@@ -66,12 +80,12 @@ public class TCPChannel {
   private Map<Integer, NetworkInfo> networkInfoMap;
 
   /**
-   * client channels with workerIDs
+   * client channels with connection keys
    */
   protected HashBiMap<Integer, SocketChannel> clientChannels = HashBiMap.create();
 
   /**
-   * server channels with workerIDs
+   * server channels with connection keys
    */
   protected HashBiMap<Integer, SocketChannel> serverChannels = HashBiMap.create();
 
@@ -94,6 +108,7 @@ public class TCPChannel {
 
     clients = new HashMap<>();
     looper = new Progress();
+    connections = Math.max(1, TCPContext.getConnectionsPerWorker(cfg));
 
     networkInfoMap = new HashMap<>();
     helloSendByteBuffers = new ArrayList<>();
@@ -122,11 +137,13 @@ public class TCPChannel {
 
     for (NetworkInfo ni : workerInfos) {
       networkInfoMap.put(ni.getProcId(), ni);
-      helloSendByteBuffers.add(ByteBuffer.allocate(4));
-      helloReceiveByteBuffers.add(ByteBuffer.allocate(4));
+      for (int i = 0; i < connections; i++) {
+        helloSendByteBuffers.add(ByteBuffer.allocate(HELLO_SIZE));
+        helloReceiveByteBuffers.add(ByteBuffer.allocate(HELLO_SIZE));
 
-      helloSendByteBuffers.add(ByteBuffer.allocate(4));
-      helloReceiveByteBuffers.add(ByteBuffer.allocate(4));
+        helloSendByteBuffers.add(ByteBuffer.allocate(HELLO_SIZE));
+        helloReceiveByteBuffers.add(ByteBuffer.allocate(HELLO_SIZE));
+      }
     }
 
     // after sync we need to connect to all the servers
@@ -139,11 +156,14 @@ public class TCPChannel {
         String remoteHost = TCPContext.getHostName(info);
         int remotePort = TCPContext.getPort(info);
 
-        Client client = new Client(remoteHost, remotePort, config,
-            looper, new ClientChannelHandler());
-        client.connect();
-        clients.put(info.getProcId(), client);
-        clientChannels.put(info.getProcId(), client.getSocketChannel());
+        for (int i = 0; i < connections; i++) {
+          Client client = new Client(remoteHost, remotePort, config,
+              looper, new ClientChannelHandler());
+          client.connect();
+          int key = connectionKey(info.getProcId(), i);
+          clients.put(key, client);
+          clientChannels.put(key, client.getSocketChannel());
+        }
       } catch (UnresolvedAddressException e) {
         throw new RuntimeException("Failed to create client", e);
       }
@@ -159,12 +179,27 @@ public class TCPChannel {
    * @return the reference message created
    */
   public TCPMessage iSend(ByteBuffer buffer, int size, int workerID, int edge) {
-    SocketChannel ch = clientChannels.get(workerID);
+    return iSend(buffer, size, workerID, edge, false);
+  }
+
+  /**
+   * Send a buffer
+   * @param buffer buffer
+   * @param size size of the buffer, we assume start from 0th position
+   * @param workerID the worker id
+   * @param edge the edg
+   * @param priority send the buffer before the pending messages of the other edges
+   * @return the reference message created
+   */
+  public TCPMessage iSend(ByteBuffer buffer, int size, int workerID, int edge,
+                          boolean priority) {
+    int key = connectionKey(workerID, stripe(edge));
+    SocketChannel ch = clientChannels.get(key);
     if (ch == null) {
       throw new Twister2RuntimeException("Can not send to an un-connected worker: " + workerID);
     }
-    Client client = clients.get(workerID);
-    return client.send(ch, buffer, size, edge);
+    Client client = clients.get(key);
+    return client.send(ch, buffer, size, edge, priority);
   }
 
   /**
@@ -177,7 +212,7 @@ public class TCPChannel {
    * @return the reference message created
    */
   public TCPMessage iRecv(ByteBuffer buffer, int size, int workerID, int edge) {
-    SocketChannel ch = serverChannels.get(workerID);
+    SocketChannel ch = serverChannels.get(connectionKey(workerID, stripe(edge)));
     if (ch == null) {
       throw new Twister2RuntimeException("Can not receive from an unconnected worker: " + workerID);
     }
@@ -196,13 +231,14 @@ public class TCPChannel {
    * @param destProcId destination id
    * @param sc channel
    */
-  private void sendHelloMessage(int destProcId, SocketChannel sc) {
+  private void sendHelloMessage(int connectionKey, SocketChannel sc) {
     ByteBuffer buffer = helloSendByteBuffers.remove(0);
     buffer.clear();
     buffer.putInt(thisInfo.getProcId());
+    buffer.putInt(connectionKey % connections);
 
-    Client client = clients.get(destProcId);
-    client.send(sc, buffer, 4, -1);
+    Client client = clients.get(connectionKey);
+    client.send(sc, buffer, HELLO_SIZE, -1);
   }
 
   /**
@@ -211,7 +247,7 @@ public class TCPChannel {
    */
   private void postHelloMessage(SocketChannel sc) {
     ByteBuffer buffer = helloReceiveByteBuffers.remove(0);
-    server.receive(sc, buffer, 4, -1);
+    server.receive(sc, buffer, HELLO_SIZE, -1);
   }
 
   /**
@@ -232,9 +268,9 @@ public class TCPChannel {
     long start = System.currentTimeMillis();
     long delay = 0;
 
+    int expected = (networkInfoMap.size() - 1) * connections;
     //now wait for the handshakes to happen
-    while (clientsConnected != (networkInfoMap.size() - 1)
-        || (clientsCompleted != networkInfoMap.size() - 1)) {
+    while (clientsConnected != expected || clientsCompleted != expected) {
       looper.loop();
 
       delay = System.currentTimeMillis() - start;
@@ -244,7 +280,7 @@ public class TCPChannel {
       }
     }
 
-    while (serverChannels.size() != networkInfoMap.size() - 1) {
+    while (serverChannels.size() != expected) {
       looper.loop();
 
       delay = System.currentTimeMillis() - start;
@@ -258,22 +294,38 @@ public class TCPChannel {
   }
 
   public void closeConnection(int workerID) {
-    Client client = clients.get(workerID);
-    client.disconnect();
-    clients.remove(workerID);
     networkInfoMap.remove(workerID);
-
-    clientChannels.remove(workerID);
-
-    SocketChannel serverChannel = serverChannels.remove(workerID);
-    if (serverChannel != null) {
-      try {
-        serverChannel.close();
-      } catch (IOException e) {
+    for (int i = 0; i < connections; i++) {
+      int key = connectionKey(workerID, i);
+      Client client = clients.remove(key);
+      client.disconnect();
+
+      clientChannels.remove(key);
+
+      SocketChannel serverChannel = serverChannels.remove(key);
+      if (serverChannel != null) {
+        try {
+          serverChannel.close();
+        } catch (IOException e) {
+        }
       }
     }
   }
 
+  /**
+   * The connection used by an edge
+   */
+  private int stripe(int edge) {
+    return Math.floorMod(edge, connections);
+  }
+
+  /**
+   * The key of a connection to a worker
+   */
+  private int connectionKey(int workerID, int connection) {
+    return workerID * connections + connection;
+  }
+
   private class ServerChannelHandler implements ChannelHandler {
 
     @Override
@@ -296,9 +348,10 @@ public class TCPChannel {
       if (readRequest.getEdge() == -1) {
         ByteBuffer buffer = readRequest.getByteBuffer();
         int workerID = buffer.getInt();
+        int connection = buffer.getInt();
         // add this to
-        serverChannels.put(workerID, channel);
-        LOG.finest("Server received hello message from: " + workerID);
+        serverChannels.put(connectionKey(workerID, connection), channel);
+        LOG.finest("Server received hello message from: " + workerID + ", " + connection);
         buffer.clear();
         helloReceiveByteBuffers.add(buffer);
         clientsConnected++;
@@ -322,9 +375,9 @@ public class TCPChannel {
     @Override
     public void onConnect(SocketChannel channel) {
       LOG.finest("Client connected to server: " + channel);
-      Integer workerID = clientChannels.inverse().get(channel);
+      Integer key = clientChannels.inverse().get(channel);
       // we need to send a hello message to server
-      sendHelloMessage(workerID, channel);
+      sendHelloMessage(key, channel);
     }
 
     @Override
@@ -29,6 +29,23 @@ public class TCPContext extends Context {
   public static final String TWISTER2_SEND_BUFF_SIZE = "twister2.tcp.send.buffer.size";
   public static final String TWISTER2_RECV_BUFF_SIZE = "twister2.tcp.recv.buffer.size";
 
+  /**
+   * Use direct buffers for the messages and the headers, so that the socket writes and reads
+   * do not copy them to temporary direct buffers
+   */
+  public static final String TWISTER2_DIRECT_BUFFERS = "twister2.tcp.direct.buffers";
+
+  /**
+   * Maximum number of messages written to a socket with a single gathering write
+   */
+  public static final String TWISTER2_GATHER_MESSAGES = "twister2.tcp.gather.messages";
+
+  /**
+   * Number of connections between two workers, the edges are striped across them
+   */
+  public static final String TWISTER2_CONNECTIONS_PER_WORKER =
+      "twister2.tcp.connections.per.worker";
+
   public static final String NETWORK_HOSTNAME = "twister2.tcp.hostname";
   public static final String NETWORK_PORT = "twister2.tcp.port";
 
@@ -64,6 +81,18 @@ public class TCPContext extends Context {
     return cfg.getIntegerValue(TWISTER2_MAX_PACKET_SIZE, def);
   }
 
+  public static boolean isDirectBuffers(Config cfg) {
+    return cfg.getBooleanValue(TWISTER2_DIRECT_BUFFERS, false);
+  }
+
+  public static int getGatherMessages(Config cfg) {
+    return cfg.getIntegerValue(TWISTER2_GATHER_MESSAGES, 16);
+  }
+
+  public static int getConnectionsPerWorker(Config cfg) {
+    return cfg.getIntegerValue(TWISTER2_CONNECTIONS_PER_WORKER, 1);
+  }
+
   public static String getHostName(NetworkInfo networkInfo) {
     return (String) networkInfo.getProperties().get(NETWORK_HOSTNAME);
   }
@@ -15,6 +15,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BigIntVector;
 import org.apache.arrow.vector.FieldVector;
 import org.apache.arrow.vector.Float4Vector;
 import org.apache.arrow.vector.Float8Vector;
@@ -51,6 +52,8 @@ public class ArrowTableBuilder implements TableBuilder {
         columns.add(new Float8Column((Float8Vector) vector));
       } else if (vector instanceof UInt8Vector) {
         columns.add(new Int8Column((UInt8Vector) vector));
+      } else if (vector instanceof BigIntVector) {
+        columns.add(new Int8Column((BigIntVector) vector));
       } else if (vector instanceof VarCharVector) {
         columns.add(new StringColumn((VarCharVector) vector));
       } else if (vector instanceof VarBinaryVector) {
@@ -11,14 +11,20 @@
 //  limitations under the License.
 package edu.iu.dsc.tws.common.table.arrow;
 
+import org.apache.arrow.vector.BigIntVector;
 import org.apache.arrow.vector.FieldVector;
 import org.apache.arrow.vector.UInt8Vector;
 
 import edu.iu.dsc.tws.common.table.ArrowColumn;
 
+/**
+ * Column of 8 byte integers, backed by a signed {@link BigIntVector} or an {@link UInt8Vector}
+ */
 public class Int8Column implements ArrowColumn<Long> {
   private UInt8Vector vector;
 
+  private BigIntVector bigIntVector;
+
   private int currentIndex;
 
   public Int8Column(UInt8Vector intVector) {
@@ -26,8 +32,19 @@ public class Int8Column implements ArrowColumn<Long> {
     this.currentIndex = 0;
   }
 
+  public Int8Column(BigIntVector intVector) {
+    this.bigIntVector = intVector;
+    this.currentIndex = 0;
+  }
+
   @Override
   public void addValue(Long value) {
+    if (bigIntVector != null) {
+      bigIntVector.setSafe(currentIndex, value);
+      currentIndex++;
+      bigIntVector.setValueCount(currentIndex);
+      return;
+    }
     vector.setSafe(currentIndex, value);
     currentIndex++;
     vector.setValueCount(currentIndex);
@@ -35,16 +52,16 @@ public class Int8Column implements ArrowColumn<Long> {
 
   @Override
   public FieldVector getVector() {
-    return vector;
+    return bigIntVector != null ? bigIntVector : vector;
   }
 
   @Override
   public Long get(int index) {
-    return vector.get(index);
+    return bigIntVector != null ? bigIntVector.get(index) : vector.get(index);
   }
 
   @Override
   public long currentSize() {
-    return vector.getBufferSize();
+    return getVector().getBufferSize();
   }
 }
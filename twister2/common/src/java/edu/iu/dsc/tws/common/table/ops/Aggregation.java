@@ -0,0 +1,66 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.common.table.ops;
+
+import java.io.Serializable;
+
+/**
+ * An aggregation computed for each group by {@link TableAggregate}
+ */
+public final class Aggregation implements Serializable {
+  public enum Type {
+    COUNT,
+    SUM,
+    MIN,
+    MAX
+  }
+
+  private Type type;
+
+  /**
+   * The aggregated column, -1 for count
+   */
+  private int column;
+
+  private Aggregation() {
+    // non arg constructor for kryo
+  }
+
+  private Aggregation(Type type, int column) {
+    this.type = type;
+    this.column = column;
+  }
+
+  public static Aggregation count() {
+    return new Aggregation(Type.COUNT, -1);
+  }
+
+  public static Aggregation sum(int column) {
+    return new Aggregation(Type.SUM, column);
+  }
+
+  public static Aggregation min(int column) {
+    return new Aggregation(Type.MIN, column);
+  }
+
+  public static Aggregation max(int column) {
+    return new Aggregation(Type.MAX, column);
+  }
+
+  public Type getType() {
+    return type;
+  }
+
+  public int getColumn() {
+    return column;
+  }
+}
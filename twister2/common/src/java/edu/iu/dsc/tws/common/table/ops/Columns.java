@@ -0,0 +1,214 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.common.table.ops;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BaseVariableWidthVector;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float4Vector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.UInt8Vector;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import edu.iu.dsc.tws.api.exceptions.Twister2RuntimeException;
+import edu.iu.dsc.tws.common.table.ArrowColumn;
+import edu.iu.dsc.tws.common.table.Table;
+import edu.iu.dsc.tws.common.table.arrow.ArrowTable;
+
+import io.netty.buffer.ArrowBuf;
+
+/**
+ * Helpers for reading the vectors of a column into primitive arrays and copying rows between
+ * vectors
+ */
+final class Columns {
+  private Columns() {
+  }
+
+  static boolean isIntegral(FieldVector vector) {
+    return vector instanceof IntVector || vector instanceof BigIntVector
+        || vector instanceof UInt8Vector;
+  }
+
+  static boolean isFloating(FieldVector vector) {
+    return vector instanceof Float4Vector || vector instanceof Float8Vector;
+  }
+
+  static boolean isBinary(FieldVector vector) {
+    return vector instanceof BaseVariableWidthVector;
+  }
+
+  /**
+   * Read the values of an integer column, null values are read as 0
+   */
+  static long[] readLongs(FieldVector vector, int rows, long[] values) {
+    long[] out = values.length < rows ? new long[rows] : values;
+    ArrowBuf data = vector.getDataBuffer();
+    if (vector instanceof IntVector) {
+      for (int i = 0; i < rows; i++) {
+        out[i] = data.getInt((long) i * IntVector.TYPE_WIDTH);
+      }
+    } else if (vector instanceof BigIntVector || vector instanceof UInt8Vector) {
+      for (int i = 0; i < rows; i++) {
+        out[i] = data.getLong((long) i * BigIntVector.TYPE_WIDTH);
+      }
+    } else {
+      throw new Twister2RuntimeException("Not an integer column: " + vector.getField());
+    }
+    return out;
+  }
+
+  /**
+   * Read the values of a numeric column as doubles, null values are read as 0
+   */
+  static double[] readDoubles(FieldVector vector, int rows, double[] values) {
+    double[] out = values.length < rows ? new double[rows] : values;
+    ArrowBuf data = vector.getDataBuffer();
+    if (vector instanceof Float8Vector) {
+      for (int i = 0; i < rows; i++) {
+        out[i] = data.getDouble((long) i * Float8Vector.TYPE_WIDTH);
+      }
+    } else if (vector instanceof Float4Vector) {
+      for (int i = 0; i < rows; i++) {
+        out[i] = data.getFloat((long) i * Float4Vector.TYPE_WIDTH);
+      }
+    } else if (vector instanceof IntVector) {
+      for (int i = 0; i < rows; i++) {
+        out[i] = data.getInt((long) i * IntVector.TYPE_WIDTH);
+      }
+    } else if (vector instanceof BigIntVector || vector instanceof UInt8Vector) {
+      for (int i = 0; i < rows; i++) {
+        out[i] = data.getLong((long) i * BigIntVector.TYPE_WIDTH);
+      }
+    } else {
+      throw new Twister2RuntimeException("Not a numeric column: " + vector.getField());
+    }
+    return out;
+  }
+
+  /**
+   * Start offset of a value in a variable width vector
+   */
+  static int start(FieldVector vector, int index) {
+    return vector.getOffsetBuffer().getInt((long) index * BaseVariableWidthVector.OFFSET_WIDTH);
+  }
+
+  /**
+   * Hash of the bytes of a value in a variable width vector
+   */
+  static int hashBytes(FieldVector vector, int index) {
+    ArrowBuf data = vector.getDataBuffer();
+    int end = start(vector, index + 1);
+    int h = 1;
+    for (int j = start(vector, index); j < end; j++) {
+      h = 31 * h + data.getByte(j);
+    }
+    return h;
+  }
+
+  /**
+   * Compare the bytes of a value in a variable width vector with an array
+   */
+  static boolean bytesEqual(FieldVector vector, int index, byte[] value) {
+    int start = start(vector, index);
+    int length = start(vector, index + 1) - start;
+    if (length != value.length) {
+      return false;
+    }
+    ArrowBuf data = vector.getDataBuffer();
+    for (int j = 0; j < length; j++) {
+      if (data.getByte(start + j) != value[j]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Copy the bytes of a value in a variable width vector
+   */
+  static byte[] getBytes(FieldVector vector, int index) {
+    int start = start(vector, index);
+    byte[] value = new byte[start(vector, index + 1) - start];
+    vector.getDataBuffer().getBytes(start, value);
+    return value;
+  }
+
+  static void setLong(FieldVector vector, int index, long value) {
+    if (vector instanceof IntVector) {
+      ((IntVector) vector).setSafe(index, (int) value);
+    } else if (vector instanceof BigIntVector) {
+      ((BigIntVector) vector).setSafe(index, value);
+    } else if (vector instanceof UInt8Vector) {
+      ((UInt8Vector) vector).setSafe(index, value);
+    } else {
+      throw new Twister2RuntimeException("Not an integer column: " + vector.getField());
+    }
+  }
+
+  static void setDouble(FieldVector vector, int index, double value) {
+    if (vector instanceof Float8Vector) {
+      ((Float8Vector) vector).setSafe(index, value);
+    } else if (vector instanceof Float4Vector) {
+      ((Float4Vector) vector).setSafe(index, (float) value);
+    } else {
+      throw new Twister2RuntimeException("Not a floating point column: " + vector.getField());
+    }
+  }
+
+  static FieldVector newVector(Field field, int capacity, BufferAllocator allocator) {
+    FieldVector vector = field.createVector(allocator);
+    vector.setInitialCapacity(capacity);
+    vector.allocateNew();
+    return vector;
+  }
+
+  /**
+   * Copy the given rows of a vector to a new vector
+   */
+  static FieldVector take(FieldVector from, int[] rows, int count, BufferAllocator allocator) {
+    FieldVector to = newVector(from.getField(), count, allocator);
+    for (int i = 0; i < count; i++) {
+      to.copyFromSafe(rows[i], i, from);
+    }
+    to.setValueCount(count);
+    return to;
+  }
+
+  /**
+   * Copy the given rows of all the columns of a table to a new table
+   */
+  static Table take(Schema schema, Table table, int[] rows, int count,
+                    BufferAllocator allocator) {
+    List<ArrowColumn> columns = table.getColumns();
+    List<FieldVector> vectors = new ArrayList<>(columns.size());
+    for (ArrowColumn column : columns) {
+      vectors.add(take(column.getVector(), rows, count, allocator));
+    }
+    return new ArrowTable(schema, vectors);
+  }
+
+  static int[] grow(int[] array, int size) {
+    if (array.length >= size) {
+      return array;
+    }
+    int[] grown = new int[Math.max(size, array.length * 2)];
+    System.arraycopy(array, 0, grown, 0, array.length);
+    return grown;
+  }
+}
@@ -0,0 +1,94 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.common.table.ops;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing map from long keys to non negative integers, used to look up the groups and
+ * the build rows without boxing the keys
+ */
+final class LongIntHashMap {
+  private static final int ABSENT = -1;
+
+  private long[] keys;
+
+  private int[] values;
+
+  private int size;
+
+  private int mask;
+
+  LongIntHashMap(int expected) {
+    int capacity = Integer.highestOneBit(Math.max(16, expected * 2) - 1) << 1;
+    this.keys = new long[capacity];
+    this.values = new int[capacity];
+    Arrays.fill(values, ABSENT);
+    this.mask = capacity - 1;
+  }
+
+  /**
+   * Get the value of a key
+   *
+   * @return the value or -1 if the key is not in the map
+   */
+  int get(long key) {
+    int slot = slot(key);
+    while (values[slot] != ABSENT) {
+      if (keys[slot] == key) {
+        return values[slot];
+      }
+      slot = (slot + 1) & mask;
+    }
+    return ABSENT;
+  }
+
+  void put(long key, int value) {
+    int slot = slot(key);
+    while (values[slot] != ABSENT) {
+      if (keys[slot] == key) {
+        values[slot] = value;
+        return;
+      }
+      slot = (slot + 1) & mask;
+    }
+    keys[slot] = key;
+    values[slot] = value;
+    if (++size * 2 > keys.length) {
+      rehash();
+    }
+  }
+
+  int size() {
+    return size;
+  }
+
+  private int slot(long key) {
+    long h = key * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ (h >>> 32)) & mask;
+  }
+
+  private void rehash() {
+    long[] oldKeys = keys;
+    int[] oldValues = values;
+    keys = new long[oldKeys.length * 2];
+    values = new int[oldValues.length * 2];
+    Arrays.fill(values, ABSENT);
+    mask = keys.length - 1;
+    size = 0;
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldValues[i] != ABSENT) {
+        put(oldKeys[i], oldValues[i]);
+      }
+    }
+  }
+}
@@ -0,0 +1,323 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.common.table.ops;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BaseVariableWidthVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import edu.iu.dsc.tws.api.exceptions.Twister2RuntimeException;
+import edu.iu.dsc.tws.common.table.ArrowColumn;
+import edu.iu.dsc.tws.common.table.Table;
+import edu.iu.dsc.tws.common.table.arrow.ArrowTable;
+import edu.iu.dsc.tws.common.table.arrow.ArrowTypes;
+
+/**
+ * Groups the rows by a key column and computes aggregations for each group. Integer keys are
+ * looked up in a primitive hash map, and the accumulators of each aggregation are primitive
+ * arrays indexed by the group. The groups are emitted as a single table after all the input
+ * tables are applied.
+ * <p>
+ * Count, and the sum, min and max of integer columns produce long columns. The sum, min and
+ * max of floating point columns produce double columns. Null values are not aggregated and
+ * rows with a null key are dropped.
+ */
+public final class TableAggregate implements TableOperator {
+  private static final int INITIAL_GROUPS = 1024;
+
+  private int keyColumn;
+
+  private Aggregation[] aggregations;
+
+  private transient Schema outputSchema;
+
+  private transient BufferAllocator allocator;
+
+  /**
+   * Weather the key is a string or binary column
+   */
+  private transient boolean binaryKey;
+
+  /**
+   * Weather each aggregation is computed on doubles
+   */
+  private transient boolean[] floating;
+
+  private transient LongIntHashMap longGroups;
+
+  private transient Map<ByteBuffer, Integer> binaryGroups;
+
+  private transient long[] longKeys;
+
+  private transient List<byte[]> binaryKeys;
+
+  private transient int groups;
+
+  private transient int capacity;
+
+  /**
+   * Accumulators of the aggregations computed on longs, indexed by the group
+   */
+  private transient long[][] longValues;
+
+  /**
+   * Accumulators of the aggregations computed on doubles, indexed by the group
+   */
+  private transient double[][] doubleValues;
+
+  private transient int[] rowGroups;
+
+  private transient long[] longBuffer;
+
+  private transient double[] doubleBuffer;
+
+  private TableAggregate() {
+    // non arg constructor for kryo
+  }
+
+  public TableAggregate(int keyColumn, Aggregation... aggregations) {
+    this.keyColumn = keyColumn;
+    this.aggregations = aggregations;
+  }
+
+  @Override
+  public Schema getOutputSchema(Schema inputSchema) {
+    List<Field> inputFields = inputSchema.getFields();
+    List<Field> fields = new ArrayList<>(aggregations.length + 1);
+    fields.add(inputFields.get(keyColumn));
+    for (Aggregation a : aggregations) {
+      String name = a.getType().name().toLowerCase();
+      if (a.getType() == Aggregation.Type.COUNT) {
+        fields.add(new Field(name, ArrowTypes.LONG_FIELD_TYPE, null));
+      } else {
+        Field input = inputFields.get(a.getColumn());
+        fields.add(new Field(name + "_" + input.getName(), isFloating(input)
+            ? ArrowTypes.DOUBLE_FIELD_TYPE : ArrowTypes.LONG_FIELD_TYPE, null));
+      }
+    }
+    return new Schema(fields);
+  }
+
+  private static boolean isFloating(Field field) {
+    return field.getType() instanceof ArrowType.FloatingPoint;
+  }
+
+  @Override
+  public void prepare(Schema inputSchema, BufferAllocator alloc) {
+    this.outputSchema = getOutputSchema(inputSchema);
+    this.allocator = alloc;
+    ArrowType keyType = inputSchema.getFields().get(keyColumn).getType();
+    this.binaryKey = keyType instanceof ArrowType.Binary || keyType instanceof ArrowType.Utf8;
+    if (!binaryKey && !(keyType instanceof ArrowType.Int)) {
+      throw new Twister2RuntimeException("Un-supported key type for aggregation: " + keyType);
+    }
+
+    this.floating = new boolean[aggregations.length];
+    for (int a = 0; a < aggregations.length; a++) {
+      Aggregation agg = aggregations[a];
+      floating[a] = agg.getType() != Aggregation.Type.COUNT
+          && isFloating(inputSchema.getFields().get(agg.getColumn()));
+    }
+
+    this.groups = 0;
+    this.capacity = INITIAL_GROUPS;
+    this.longGroups = new LongIntHashMap(INITIAL_GROUPS);
+    this.binaryGroups = new HashMap<>();
+    this.longKeys = new long[capacity];
+    this.binaryKeys = new ArrayList<>();
+    this.longValues = new long[aggregations.length][];
+    this.doubleValues = new double[aggregations.length][];
+    for (int a = 0; a < aggregations.length; a++) {
+      if (floating[a]) {
+        doubleValues[a] = new double[capacity];
+      } else {
+        longValues[a] = new long[capacity];
+      }
+    }
+    this.rowGroups = new int[0];
+    this.longBuffer = new long[0];
+    this.doubleBuffer = new double[0];
+  }
+
+  @Override
+  public Table apply(Table table) {
+    int rows = table.rowCount();
+    List<ArrowColumn> columns = table.getColumns();
+    rowGroups = Columns.grow(rowGroups, rows);
+    assignGroups(columns.get(keyColumn).getVector(), rows);
+
+    for (int a = 0; a < aggregations.length; a++) {
+      Aggregation agg = aggregations[a];
+      if (agg.getType() == Aggregation.Type.COUNT) {
+        long[] acc = longValues[a];
+        for (int i = 0; i < rows; i++) {
+          int g = rowGroups[i];
+          if (g >= 0) {
+            acc[g]++;
+          }
+        }
+        continue;
+      }
+
+      FieldVector vector = columns.get(agg.getColumn()).getVector();
+      boolean nulls = vector.getNullCount() > 0;
+      if (floating[a]) {
+        doubleBuffer = Columns.readDoubles(vector, rows, doubleBuffer);
+        double[] acc = doubleValues[a];
+        for (int i = 0; i < rows; i++) {
+          int g = rowGroups[i];
+          if (g < 0 || (nulls && vector.isNull(i))) {
+            continue;
+          }
+          double v = doubleBuffer[i];
+          switch (agg.getType()) {
+            case SUM:
+              acc[g] += v;
+              break;
+            case MIN:
+              acc[g] = Math.min(acc[g], v);
+              break;
+            default:
+              acc[g] = Math.max(acc[g], v);
+          }
+        }
+      } else {
+        longBuffer = Columns.readLongs(vector, rows, longBuffer);
+        long[] acc = longValues[a];
+        for (int i = 0; i < rows; i++) {
+          int g = rowGroups[i];
+          if (g < 0 || (nulls && vector.isNull(i))) {
+            continue;
+          }
+          long v = longBuffer[i];
+          switch (agg.getType()) {
+            case SUM:
+              acc[g] += v;
+              break;
+            case MIN:
+              acc[g] = Math.min(acc[g], v);
+              break;
+            default:
+              acc[g] = Math.max(acc[g], v);
+          }
+        }
+      }
+    }
+    return null;
+  }
+
+  private void assignGroups(FieldVector keys, int rows) {
+    boolean nulls = keys.getNullCount() > 0;
+    if (binaryKey) {
+      for (int i = 0; i < rows; i++) {
+        if (nulls && keys.isNull(i)) {
+          rowGroups[i] = -1;
+          continue;
+        }
+        ByteBuffer key = ByteBuffer.wrap(Columns.getBytes(keys, i));
+        Integer g = binaryGroups.get(key);
+        if (g == null) {
+          g = newGroup();
+          binaryGroups.put(key, g);
+          binaryKeys.add(key.array());
+        }
+        rowGroups[i] = g;
+      }
+    } else {
+      longBuffer = Columns.readLongs(keys, rows, longBuffer);
+      for (int i = 0; i < rows; i++) {
+        if (nulls && keys.isNull(i)) {
+          rowGroups[i] = -1;
+          continue;
+        }
+        long key = longBuffer[i];
+        int g = longGroups.get(key);
+        if (g < 0) {
+          g = newGroup();
+          longGroups.put(key, g);
+          longKeys[g] = key;
+        }
+        rowGroups[i] = g;
+      }
+    }
+  }
+
+  private int newGroup() {
+    if (groups == capacity) {
+      capacity *= 2;
+      longKeys = Arrays.copyOf(longKeys, capacity);
+      for (int a = 0; a < aggregations.length; a++) {
+        if (floating[a]) {
+          doubleValues[a] = Arrays.copyOf(doubleValues[a], capacity);
+        } else {
+          longValues[a] = Arrays.copyOf(longValues[a], capacity);
+        }
+      }
+    }
+
+    for (int a = 0; a < aggregations.length; a++) {
+      Aggregation.Type type = aggregations[a].getType();
+      if (floating[a]) {
+        doubleValues[a][groups] = type == Aggregation.Type.MIN ? Double.POSITIVE_INFINITY
+            : type == Aggregation.Type.MAX ? Double.NEGATIVE_INFINITY : 0;
+      } else {
+        longValues[a][groups] = type == Aggregation.Type.MIN ? Long.MAX_VALUE
+            : type == Aggregation.Type.MAX ? Long.MIN_VALUE : 0;
+      }
+    }
+    return groups++;
+  }
+
+  @Override
+  public Table finish() {
+    if (groups == 0) {
+      return null;
+    }
+
+    List<Field> fields = outputSchema.getFields();
+    List<FieldVector> vectors = new ArrayList<>(fields.size());
+    FieldVector keys = Columns.newVector(fields.get(0), groups, allocator);
+    for (int g = 0; g < groups; g++) {
+      if (binaryKey) {
+        ((BaseVariableWidthVector) keys).setSafe(g, binaryKeys.get(g));
+      } else {
+        Columns.setLong(keys, g, longKeys[g]);
+      }
+    }
+    keys.setValueCount(groups);
+    vectors.add(keys);
+
+    for (int a = 0; a < aggregations.length; a++) {
+      FieldVector values = Columns.newVector(fields.get(a + 1), groups, allocator);
+      for (int g = 0; g < groups; g++) {
+        if (floating[a]) {
+          Columns.setDouble(values, g, doubleValues[a][g]);
+        } else {
+          Columns.setLong(values, g, longValues[a][g]);
+        }
+      }
+      values.setValueCount(groups);
+      vectors.add(values);
+    }
+    return new ArrowTable(outputSchema, vectors);
+  }
+}
@@ -0,0 +1,167 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.common.table.ops;
+
+import java.io.Serializable;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import edu.iu.dsc.tws.common.table.Table;
+
+/**
+ * Filters the rows of a table with a condition on one column. The column is read into a
+ * primitive array, the condition is evaluated in a loop to fill a selection vector with the
+ * matching rows, and only the selected rows are copied to the output. Rows with a null value
+ * in the column are dropped.
+ */
+public final class TableFilter implements TableOperator {
+  /**
+   * Condition on an integer column
+   */
+  public interface LongCondition extends Serializable {
+    boolean test(long value);
+  }
+
+  /**
+   * Condition on a numeric column
+   */
+  public interface DoubleCondition extends Serializable {
+    boolean test(double value);
+  }
+
+  private int column;
+
+  private LongCondition longCondition;
+
+  private DoubleCondition doubleCondition;
+
+  private byte[] equalTo;
+
+  private transient Schema schema;
+
+  private transient BufferAllocator allocator;
+
+  private transient int[] selection = new int[0];
+
+  private transient long[] longs = new long[0];
+
+  private transient double[] doubles = new double[0];
+
+  private TableFilter() {
+    // non arg constructor for kryo
+  }
+
+  private TableFilter(int column) {
+    this.column = column;
+  }
+
+  /**
+   * Filter on an integer column
+   *
+   * @param column index of the column
+   * @param condition the condition
+   * @return the filter
+   */
+  public static TableFilter longs(int column, LongCondition condition) {
+    TableFilter filter = new TableFilter(column);
+    filter.longCondition = condition;
+    return filter;
+  }
+
+  /**
+   * Filter on a numeric column, integer values are converted to doubles
+   *
+   * @param column index of the column
+   * @param condition the condition
+   * @return the filter
+   */
+  public static TableFilter doubles(int column, DoubleCondition condition) {
+    TableFilter filter = new TableFilter(column);
+    filter.doubleCondition = condition;
+    return filter;
+  }
+
+  /**
+   * Keep the rows whose value in a string or binary column equals the given bytes
+   *
+   * @param column index of the column
+   * @param value the bytes to compare
+   * @return the filter
+   */
+  public static TableFilter bytesEqual(int column, byte[] value) {
+    TableFilter filter = new TableFilter(column);
+    filter.equalTo = value;
+    return filter;
+  }
+
+  @Override
+  public Schema getOutputSchema(Schema inputSchema) {
+    return inputSchema;
+  }
+
+  @Override
+  public void prepare(Schema inputSchema, BufferAllocator alloc) {
+    this.schema = inputSchema;
+    this.allocator = alloc;
+    this.selection = new int[0];
+    this.longs = new long[0];
+    this.doubles = new double[0];
+  }
+
+  @Override
+  public Table apply(Table table) {
+    int rows = table.rowCount();
+    FieldVector vector = table.getColumns().get(column).getVector();
+    selection = Columns.grow(selection, rows);
+    int count = 0;
+    if (longCondition != null) {
+      longs = Columns.readLongs(vector, rows, longs);
+      for (int i = 0; i < rows; i++) {
+        if (longCondition.test(longs[i])) {
+          selection[count++] = i;
+        }
+      }
+    } else if (doubleCondition != null) {
+      doubles = Columns.readDoubles(vector, rows, doubles);
+      for (int i = 0; i < rows; i++) {
+        if (doubleCondition.test(doubles[i])) {
+          selection[count++] = i;
+        }
+      }
+    } else {
+      for (int i = 0; i < rows; i++) {
+        if (Columns.bytesEqual(vector, i, equalTo)) {
+          selection[count++] = i;
+        }
+      }
+    }
+
+    if (vector.getNullCount() > 0) {
+      int kept = 0;
+      for (int i = 0; i < count; i++) {
+        if (!vector.isNull(selection[i])) {
+          selection[kept++] = selection[i];
+        }
+      }
+      count = kept;
+    }
+
+    if (count == 0) {
+      return null;
+    } else if (count == rows) {
+      return table;
+    }
+    return Columns.take(schema, table, selection, count, allocator);
+  }
+}
@@ -0,0 +1,254 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.common.table.ops;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import edu.iu.dsc.tws.api.exceptions.Twister2RuntimeException;
+import edu.iu.dsc.tws.common.table.ArrowColumn;
+import edu.iu.dsc.tws.common.table.Table;
+import edu.iu.dsc.tws.common.table.arrow.ArrowTable;
+
+/**
+ * Inner hash join of the input tables with a build side that fits in memory. The build tables
+ * are given to {@link #build(Table)} before any input is applied, the rows are chained by the
+ * key in primitive arrays. Each input table is then probed and the matching rows of both sides
+ * are copied to the output, the input columns first followed by the build columns.
+ * <p>
+ * The keys of both sides should be integer columns, or both should be string or binary
+ * columns. Rows with null keys do not match.
+ */
+public final class TableHashJoin implements TableOperator {
+  private static final int INITIAL_ROWS = 1024;
+
+  private int probeKey;
+
+  private int buildKey;
+
+  /**
+   * The arrow schema is not serializable, we keep it as json
+   */
+  private String buildSchemaJson;
+
+  private transient Schema buildSchema;
+
+  private transient Schema outputSchema;
+
+  private transient BufferAllocator allocator;
+
+  /**
+   * Weather the keys are string or binary columns
+   */
+  private transient boolean binaryKey;
+
+  /**
+   * The first build row of each integer key
+   */
+  private transient LongIntHashMap longHeads;
+
+  /**
+   * The first build row of each binary key
+   */
+  private transient Map<ByteBuffer, Integer> binaryHeads;
+
+  /**
+   * The next build row with the same key, -1 at the end of a chain
+   */
+  private transient int[] next;
+
+  /**
+   * The build table of each build row
+   */
+  private transient int[] buildTable;
+
+  /**
+   * The row in the build table of each build row
+   */
+  private transient int[] buildRow;
+
+  private transient int buildRows;
+
+  private transient List<Table> buildTables;
+
+  private transient long[] keyBuffer;
+
+  private transient int[] probeRows;
+
+  private transient int[] matchedRows;
+
+  private TableHashJoin() {
+    // non arg constructor for kryo
+  }
+
+  public TableHashJoin(int probeKey, Schema buildSchema, int buildKey) {
+    this.probeKey = probeKey;
+    this.buildKey = buildKey;
+    this.buildSchemaJson = buildSchema.toJson();
+    this.buildSchema = buildSchema;
+  }
+
+  public Schema getBuildSchema() {
+    if (buildSchema == null) {
+      try {
+        buildSchema = Schema.fromJSON(buildSchemaJson);
+      } catch (IOException e) {
+        throw new Twister2RuntimeException("Failed to read the build schema", e);
+      }
+    }
+    return buildSchema;
+  }
+
+  @Override
+  public Schema getOutputSchema(Schema input) {
+    List<Field> fields = new ArrayList<>(input.getFields());
+    fields.addAll(getBuildSchema().getFields());
+    return new Schema(fields);
+  }
+
+  private static boolean isBinary(ArrowType type) {
+    return type instanceof ArrowType.Binary || type instanceof ArrowType.Utf8;
+  }
+
+  @Override
+  public void prepare(Schema input, BufferAllocator alloc) {
+    this.outputSchema = getOutputSchema(input);
+    this.allocator = alloc;
+    ArrowType probeType = input.getFields().get(probeKey).getType();
+    ArrowType buildType = getBuildSchema().getFields().get(buildKey).getType();
+    this.binaryKey = isBinary(probeType);
+    if (binaryKey != isBinary(buildType)
+        || (!binaryKey && !(probeType instanceof ArrowType.Int
+        && buildType instanceof ArrowType.Int))) {
+      throw new Twister2RuntimeException("Un-supported key types for join: "
+          + probeType + ", " + buildType);
+    }
+
+    this.longHeads = new LongIntHashMap(INITIAL_ROWS);
+    this.binaryHeads = new HashMap<>();
+    this.next = new int[INITIAL_ROWS];
+    this.buildTable = new int[INITIAL_ROWS];
+    this.buildRow = new int[INITIAL_ROWS];
+    this.buildRows = 0;
+    this.buildTables = new ArrayList<>();
+    this.keyBuffer = new long[0];
+    this.probeRows = new int[0];
+    this.matchedRows = new int[0];
+  }
+
+  /**
+   * Add a table to the build side, should be called after prepare and before the inputs are
+   * applied. The table is kept until the join is finished.
+   *
+   * @param table the build table
+   */
+  public void build(Table table) {
+    int rows = table.rowCount();
+    if (rows == 0) {
+      return;
+    }
+    int tableIndex = buildTables.size();
+    buildTables.add(table);
+    if (buildRows + rows > next.length) {
+      int size = Math.max(buildRows + rows, next.length * 2);
+      next = Arrays.copyOf(next, size);
+      buildTable = Arrays.copyOf(buildTable, size);
+      buildRow = Arrays.copyOf(buildRow, size);
+    }
+
+    FieldVector keys = table.getColumns().get(buildKey).getVector();
+    boolean nulls = keys.getNullCount() > 0;
+    if (!binaryKey) {
+      keyBuffer = Columns.readLongs(keys, rows, keyBuffer);
+    }
+    for (int i = 0; i < rows; i++) {
+      if (nulls && keys.isNull(i)) {
+        continue;
+      }
+      int r = buildRows++;
+      buildTable[r] = tableIndex;
+      buildRow[r] = i;
+      if (binaryKey) {
+        ByteBuffer key = ByteBuffer.wrap(Columns.getBytes(keys, i));
+        Integer head = binaryHeads.put(key, r);
+        next[r] = head == null ? -1 : head;
+      } else {
+        next[r] = longHeads.get(keyBuffer[i]);
+        longHeads.put(keyBuffer[i], r);
+      }
+    }
+  }
+
+  @Override
+  public Table apply(Table table) {
+    int rows = table.rowCount();
+    FieldVector keys = table.getColumns().get(probeKey).getVector();
+    boolean nulls = keys.getNullCount() > 0;
+    if (!binaryKey) {
+      keyBuffer = Columns.readLongs(keys, rows, keyBuffer);
+    }
+
+    int count = 0;
+    for (int i = 0; i < rows; i++) {
+      if (nulls && keys.isNull(i)) {
+        continue;
+      }
+      int r;
+      if (binaryKey) {
+        Integer head = binaryHeads.get(ByteBuffer.wrap(Columns.getBytes(keys, i)));
+        r = head == null ? -1 : head;
+      } else {
+        r = longHeads.get(keyBuffer[i]);
+      }
+      for (; r >= 0; r = next[r]) {
+        probeRows = Columns.grow(probeRows, count + 1);
+        matchedRows = Columns.grow(matchedRows, count + 1);
+        probeRows[count] = i;
+        matchedRows[count] = r;
+        count++;
+      }
+    }
+
+    if (count == 0) {
+      return null;
+    }
+
+    List<ArrowColumn> columns = table.getColumns();
+    List<FieldVector> vectors = new ArrayList<>(outputSchema.getFields().size());
+    for (ArrowColumn column : columns) {
+      vectors.add(Columns.take(column.getVector(), probeRows, count, allocator));
+    }
+    List<Field> buildFields = getBuildSchema().getFields();
+    for (int c = 0; c < buildFields.size(); c++) {
+      FieldVector to = Columns.newVector(buildFields.get(c), count, allocator);
+      for (int i = 0; i < count; i++) {
+        int r = matchedRows[i];
+        FieldVector from = buildTables.get(buildTable[r]).getColumns().get(c).getVector();
+        to.copyFromSafe(buildRow[r], i, from);
+      }
+      to.setValueCount(count);
+      vectors.add(to);
+    }
+    return new ArrowTable(outputSchema, vectors);
+  }
+}
@@ -0,0 +1,58 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.common.table.ops;
+
+import java.io.Serializable;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import edu.iu.dsc.tws.common.table.Table;
+
+/**
+ * An operator that works on a batch of rows at a time as arrow tables. The operators read the
+ * vectors of the columns in loops instead of creating a row object for each record.
+ */
+public interface TableOperator extends Serializable {
+  /**
+   * The schema of the tables produced by this operator
+   *
+   * @param inputSchema schema of the input tables
+   * @return the output schema
+   */
+  Schema getOutputSchema(Schema inputSchema);
+
+  /**
+   * Prepare the operator before the first table is applied
+   *
+   * @param inputSchema schema of the input tables
+   * @param allocator allocator for the output vectors
+   */
+  void prepare(Schema inputSchema, BufferAllocator allocator);
+
+  /**
+   * Apply the operator to a table
+   *
+   * @param table the input table
+   * @return the output table, null if there is no output for this table
+   */
+  Table apply(Table table);
+
+  /**
+   * Called after all the tables are applied, blocking operators produce their output here
+   *
+   * @return the output table, null if there is no output
+   */
+  default Table finish() {
+    return null;
+  }
+}
@@ -0,0 +1,66 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.common.table.ops;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import edu.iu.dsc.tws.common.table.ArrowColumn;
+import edu.iu.dsc.tws.common.table.Table;
+import edu.iu.dsc.tws.common.table.arrow.ArrowTable;
+
+/**
+ * Selects a subset of the columns of a table. The vectors of the selected columns are reused,
+ * nothing is copied.
+ */
+public final class TableProject implements TableOperator {
+  private int[] columns;
+
+  private transient Schema schema;
+
+  private TableProject() {
+    // non arg constructor for kryo
+  }
+
+  public TableProject(int... columns) {
+    this.columns = columns;
+  }
+
+  @Override
+  public Schema getOutputSchema(Schema inputSchema) {
+    List<Field> fields = new ArrayList<>(columns.length);
+    for (int c : columns) {
+      fields.add(inputSchema.getFields().get(c));
+    }
+    return new Schema(fields);
+  }
+
+  @Override
+  public void prepare(Schema inputSchema, BufferAllocator allocator) {
+    this.schema = getOutputSchema(inputSchema);
+  }
+
+  @Override
+  public Table apply(Table table) {
+    List<ArrowColumn> inputColumns = table.getColumns();
+    List<FieldVector> vectors = new ArrayList<>(columns.length);
+    for (int c : columns) {
+      vectors.add(inputColumns.get(c).getVector());
+    }
+    return new ArrowTable(schema, vectors);
+  }
+}
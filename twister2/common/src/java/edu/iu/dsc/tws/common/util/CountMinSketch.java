@@ -0,0 +1,165 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.common.util;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * A count-min sketch estimating the frequencies of the keys of a stream in a fixed amount of
+ * memory. Each key is counted in one cell of every row, the estimate is the minimum of these
+ * cells, so it is never lower than the real count and is higher by at most
+ * {@code e / width * total} with a probability of {@code 1 - e^-depth}.
+ */
+public class CountMinSketch implements Serializable {
+  private static final long serialVersionUID = -3185024913651307761L;
+
+  /**
+   * Number of rows
+   */
+  private final int depth;
+
+  /**
+   * Number of cells in a row
+   */
+  private final int width;
+
+  /**
+   * The cells, row after row
+   */
+  private final long[] counts;
+
+  /**
+   * Total of all the counts added
+   */
+  private long total;
+
+  public CountMinSketch(int depth, int width) {
+    if (depth <= 0 || width <= 0) {
+      throw new IllegalArgumentException("Depth and width should be positive: "
+          + depth + ", " + width);
+    }
+    this.depth = depth;
+    this.width = width;
+    this.counts = new long[depth * width];
+  }
+
+  /**
+   * Create a sketch with the given error bounds
+   *
+   * @param epsilon the over estimation relative to the total count
+   * @param delta the probability of exceeding the over estimation
+   * @return the sketch
+   */
+  public static CountMinSketch withError(double epsilon, double delta) {
+    int width = (int) Math.ceil(Math.E / epsilon);
+    int depth = (int) Math.ceil(Math.log(1 / delta));
+    return new CountMinSketch(Math.max(depth, 1), width);
+  }
+
+  /**
+   * Count a key once
+   *
+   * @param key the key
+   * @return the estimated count of the key after adding it
+   */
+  public long add(Object key) {
+    return add(key.hashCode(), 1);
+  }
+
+  /**
+   * Add a count to the key with the given hash
+   *
+   * @param hash hash of the key
+   * @param count the count to add
+   * @return the estimated count of the key after adding it
+   */
+  public long add(int hash, long count) {
+    long min = Long.MAX_VALUE;
+    for (int row = 0; row < depth; row++) {
+      int cell = cell(row, hash);
+      counts[cell] += count;
+      min = Math.min(min, counts[cell]);
+    }
+    total += count;
+    return min;
+  }
+
+  /**
+   * The estimated count of a key
+   *
+   * @param key the key
+   * @return the estimate
+   */
+  public long estimate(Object key) {
+    return estimate(key.hashCode());
+  }
+
+  /**
+   * The estimated count of the key with the given hash
+   *
+   * @param hash hash of the key
+   * @return the estimate
+   */
+  public long estimate(int hash) {
+    long min = Long.MAX_VALUE;
+    for (int row = 0; row < depth; row++) {
+      min = Math.min(min, counts[cell(row, hash)]);
+    }
+    return min;
+  }
+
+  /**
+   * Total of all the counts added
+   *
+   * @return the total
+   */
+  public long getTotal() {
+    return total;
+  }
+
+  /**
+   * Add the counts of a sketch with the same dimensions to this one
+   *
+   * @param other the other sketch
+   */
+  public void merge(CountMinSketch other) {
+    if (other.depth != depth || other.width != width) {
+      throw new IllegalArgumentException("Cannot merge sketches of different sizes");
+    }
+    for (int i = 0; i < counts.length; i++) {
+      counts[i] += other.counts[i];
+    }
+    total += other.total;
+  }
+
+  /**
+   * Remove all the counts
+   */
+  public void clear() {
+    Arrays.fill(counts, 0);
+    total = 0;
+  }
+
+  /**
+   * Each row uses a different mix of the hash, based on the finalizer of murmur3
+   */
+  private int cell(int row, int hash) {
+    int h = hash + row * 0x9E3779B9;
+    h ^= h >>> 16;
+    h *= 0x85EBCA6B;
+    h ^= h >>> 13;
+    h *= 0xC2B2AE35;
+    h ^= h >>> 16;
+    return row * width + (h & Integer.MAX_VALUE) % width;
+  }
+}
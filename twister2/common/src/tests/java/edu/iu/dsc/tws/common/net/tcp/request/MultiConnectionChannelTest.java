@@ -0,0 +1,121 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.common.net.tcp.request;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.common.net.NetworkInfo;
+import edu.iu.dsc.tws.common.net.tcp.TCPChannel;
+import edu.iu.dsc.tws.common.net.tcp.TCPContext;
+import edu.iu.dsc.tws.common.net.tcp.TCPMessage;
+
+/**
+ * In this test two channels communicate over multiple connections
+ */
+public class MultiConnectionChannelTest {
+  private static final int CONNECTIONS = 3;
+
+  private static final int EDGES = 4;
+
+  private static final int MESSAGES = 10;
+
+  private List<TCPChannel> channels = new ArrayList<>();
+
+  @Before
+  public void setUp() throws Exception {
+    Config cfg = Config.newBuilder()
+        .put(TCPContext.TWISTER2_CONNECTIONS_PER_WORKER, CONNECTIONS).build();
+
+    List<NetworkInfo> networkInfos = new ArrayList<>();
+    for (int i = 0; i < 2; i++) {
+      NetworkInfo info = new NetworkInfo(i);
+      info.addProperty(TCPContext.NETWORK_PORT, 10035 + i);
+      info.addProperty(TCPContext.NETWORK_HOSTNAME, "localhost");
+      TCPChannel channel = new TCPChannel(cfg, info);
+      channel.startListening();
+      channels.add(channel);
+      networkInfos.add(info);
+    }
+
+    List<Thread> threads = new ArrayList<>();
+    for (TCPChannel channel : channels) {
+      Thread t = new Thread(() -> {
+        channel.startConnections(networkInfos);
+        channel.waitForConnections(10000);
+      });
+      t.start();
+      threads.add(t);
+    }
+    for (Thread t : threads) {
+      t.join();
+    }
+  }
+
+  @After
+  public void tearDown() {
+    for (TCPChannel channel : channels) {
+      channel.stop();
+    }
+  }
+
+  @Test
+  public void sendMessagesTest() {
+    TCPChannel sender = channels.get(0);
+    TCPChannel receiver = channels.get(1);
+
+    List<List<TCPMessage>> recvs = new ArrayList<>();
+    for (int e = 0; e < EDGES; e++) {
+      List<TCPMessage> edgeRecvs = new ArrayList<>();
+      for (int i = 0; i < MESSAGES; i++) {
+        edgeRecvs.add(receiver.iRecv(ByteBuffer.allocate(64), 64, 0, e));
+      }
+      recvs.add(edgeRecvs);
+    }
+
+    List<TCPMessage> sends = new ArrayList<>();
+    for (int i = 0; i < MESSAGES; i++) {
+      for (int e = 0; e < EDGES; e++) {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        buffer.putInt(0, e);
+        buffer.putInt(4, i);
+        // the last message of every edge goes through the priority lane
+        sends.add(sender.iSend(buffer, 8 + i, 1, e, i == MESSAGES - 1));
+      }
+    }
+
+    boolean completed = false;
+    while (!completed) {
+      sender.progress();
+      receiver.progress();
+      completed = sends.stream().allMatch(TCPMessage::isComplete)
+          && recvs.stream().allMatch(l -> l.stream().allMatch(TCPMessage::isComplete));
+    }
+
+    // the messages of an edge are received in the order they are sent
+    for (int e = 0; e < EDGES; e++) {
+      for (int i = 0; i < MESSAGES; i++) {
+        ByteBuffer buffer = recvs.get(e).get(i).getByteBuffer();
+        Assert.assertEquals(8 + i, buffer.limit());
+        Assert.assertEquals(e, buffer.getInt(0));
+        Assert.assertEquals(i, buffer.getInt(4));
+      }
+    }
+  }
+}
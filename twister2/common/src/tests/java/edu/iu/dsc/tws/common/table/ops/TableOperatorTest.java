@@ -0,0 +1,150 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.common.table.ops;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.types.FloatingPointPrecision;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.apache.arrow.vector.util.Text;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.iu.dsc.tws.common.table.ArrowColumn;
+import edu.iu.dsc.tws.common.table.Table;
+import edu.iu.dsc.tws.common.table.arrow.ArrowTable;
+
+public class TableOperatorTest {
+  private static final int ROWS = 1000;
+
+  private RootAllocator allocator;
+
+  private Schema schema;
+
+  private Table table;
+
+  @Before
+  public void setup() {
+    allocator = new RootAllocator(Integer.MAX_VALUE);
+    schema = new Schema(Arrays.asList(
+        new Field("key", new FieldType(false, new ArrowType.Int(32, true), null), null),
+        new Field("value", new FieldType(false,
+            new ArrowType.FloatingPoint(FloatingPointPrecision.DOUBLE), null), null),
+        new Field("name", new FieldType(false, new ArrowType.Utf8(), null), null)));
+
+    IntVector keys = new IntVector("key", allocator);
+    Float8Vector values = new Float8Vector("value", allocator);
+    VarCharVector names = new VarCharVector("name", allocator);
+    for (int i = 0; i < ROWS; i++) {
+      keys.setSafe(i, i % 10);
+      values.setSafe(i, i);
+      names.setSafe(i, new Text("name-" + (i % 10)));
+    }
+    keys.setValueCount(ROWS);
+    values.setValueCount(ROWS);
+    names.setValueCount(ROWS);
+    table = new ArrowTable(schema, Arrays.asList(new FieldVector[]{keys, values, names}));
+  }
+
+  @Test
+  public void testFilterAndProject() {
+    TableFilter filter = TableFilter.longs(0, k -> k == 3);
+    filter.prepare(schema, allocator);
+    Table filtered = filter.apply(table);
+    Assert.assertEquals(ROWS / 10, filtered.rowCount());
+    for (int i = 0; i < filtered.rowCount(); i++) {
+      Assert.assertEquals(3, filtered.getColumns().get(0).get(i));
+      Assert.assertEquals(3.0 + i * 10, (Double) filtered.getColumns().get(1).get(i), 0.0);
+    }
+
+    TableFilter none = TableFilter.doubles(1, v -> v < 0);
+    none.prepare(schema, allocator);
+    Assert.assertNull(none.apply(table));
+
+    TableProject project = new TableProject(2, 0);
+    Schema projected = project.getOutputSchema(schema);
+    Assert.assertEquals("name", projected.getFields().get(0).getName());
+    project.prepare(schema, allocator);
+    Table t = project.apply(filtered);
+    Assert.assertEquals(2, t.getColumns().size());
+    Assert.assertEquals("name-3", t.getColumns().get(0).get(0).toString());
+  }
+
+  @Test
+  public void testAggregate() {
+    TableAggregate aggregate = new TableAggregate(2, Aggregation.count(),
+        Aggregation.sum(0), Aggregation.min(1), Aggregation.max(1));
+    aggregate.prepare(schema, allocator);
+    // the same table twice, the groups are kept across the inputs
+    Assert.assertNull(aggregate.apply(table));
+    Assert.assertNull(aggregate.apply(table));
+    Table result = aggregate.finish();
+    Assert.assertEquals(10, result.rowCount());
+
+    List<ArrowColumn> columns = result.getColumns();
+    for (int g = 0; g < result.rowCount(); g++) {
+      int key = Integer.parseInt(columns.get(0).get(g).toString().substring("name-".length()));
+      Assert.assertEquals(2L * ROWS / 10, columns.get(1).get(g));
+      Assert.assertEquals(2L * key * ROWS / 10, columns.get(2).get(g));
+      Assert.assertEquals((double) key, (Double) columns.get(3).get(g), 0.0);
+      Assert.assertEquals((double) ROWS - 10 + key, (Double) columns.get(4).get(g), 0.0);
+    }
+  }
+
+  @Test
+  public void testHashJoin() {
+    Schema buildSchema = new Schema(Arrays.asList(
+        new Field("id", new FieldType(false, new ArrowType.Int(32, true), null), null),
+        new Field("label", new FieldType(false, new ArrowType.Utf8(), null), null)));
+    IntVector ids = new IntVector("id", allocator);
+    VarCharVector labels = new VarCharVector("label", allocator);
+    // keys 0 to 4 once, key 2 twice and key 20 does not match
+    int[] buildKeys = {0, 1, 2, 3, 4, 2, 20};
+    for (int i = 0; i < buildKeys.length; i++) {
+      ids.setSafe(i, buildKeys[i]);
+      labels.setSafe(i, new Text("label-" + i));
+    }
+    ids.setValueCount(buildKeys.length);
+    labels.setValueCount(buildKeys.length);
+    Table build = new ArrowTable(buildSchema, Arrays.asList(new FieldVector[]{ids, labels}));
+
+    TableHashJoin join = new TableHashJoin(0, buildSchema, 0);
+    Assert.assertEquals(5, join.getOutputSchema(schema).getFields().size());
+    join.prepare(schema, allocator);
+    join.build(build);
+    Table result = join.apply(table);
+    Assert.assertEquals(6 * ROWS / 10, result.rowCount());
+
+    Map<Integer, Integer> counts = new HashMap<>();
+    List<ArrowColumn> columns = result.getColumns();
+    for (int i = 0; i < result.rowCount(); i++) {
+      int key = (Integer) columns.get(0).get(i);
+      Assert.assertEquals(key, columns.get(3).get(i));
+      counts.merge(key, 1, Integer::sum);
+    }
+    Assert.assertEquals(5, counts.size());
+    Assert.assertEquals(2 * ROWS / 10, (int) counts.get(2));
+    Assert.assertEquals(ROWS / 10, (int) counts.get(4));
+  }
+}
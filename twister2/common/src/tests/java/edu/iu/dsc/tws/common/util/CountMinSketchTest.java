@@ -0,0 +1,55 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.common.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CountMinSketchTest {
+  @Test
+  public void testEstimates() {
+    CountMinSketch sketch = CountMinSketch.withError(0.001, 0.01);
+    for (int i = 0; i < 10000; i++) {
+      sketch.add("key-" + (i % 1000));
+    }
+    for (int i = 0; i < 5000; i++) {
+      sketch.add("hot");
+    }
+
+    Assert.assertEquals(15000, sketch.getTotal());
+    long hot = sketch.estimate("hot");
+    Assert.assertTrue(hot >= 5000 && hot <= 5000 + 0.001 * Math.E * 15000);
+    for (int i = 0; i < 1000; i++) {
+      long estimate = sketch.estimate("key-" + i);
+      Assert.assertTrue(estimate >= 10);
+      Assert.assertTrue(estimate < 100);
+    }
+  }
+
+  @Test
+  public void testMerge() {
+    CountMinSketch first = new CountMinSketch(4, 256);
+    CountMinSketch second = new CountMinSketch(4, 256);
+    first.add(1, 10);
+    second.add(1, 5);
+    second.add(2, 3);
+
+    first.merge(second);
+    Assert.assertEquals(18, first.getTotal());
+    Assert.assertTrue(first.estimate(1) >= 15);
+    Assert.assertTrue(first.estimate(2) >= 3);
+
+    first.clear();
+    Assert.assertEquals(0, first.getTotal());
+    Assert.assertEquals(0, first.estimate(1));
+  }
+}
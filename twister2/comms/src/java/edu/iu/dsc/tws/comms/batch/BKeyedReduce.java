@@ -28,6 +28,7 @@ import edu.iu.dsc.tws.comms.dfw.MToNChain;
 import edu.iu.dsc.tws.comms.dfw.MToNSimple;
 import edu.iu.dsc.tws.comms.dfw.io.partition.PartitionPartialReceiver;
 import edu.iu.dsc.tws.comms.dfw.io.reduce.keyed.KReduceBatchFinalReceiver;
+import edu.iu.dsc.tws.comms.dfw.io.reduce.keyed.KReduceBatchPrimitiveFinalReceiver;
 import edu.iu.dsc.tws.comms.utils.LogicalPlanBuilder;
 
 /**
@@ -49,18 +50,25 @@ public class BKeyedReduce extends BaseOperation {
     this.keyType = kType;
     this.dataType = dType;
     MessageReceiver partialReceiver = new PartitionPartialReceiver();
+    MessageReceiver finalReceiver;
+    // primitive keys and values are reduced in primitive maps to avoid boxing them
+    if (KReduceBatchPrimitiveFinalReceiver.isSupported(keyType, dataType)) {
+      finalReceiver = new KReduceBatchPrimitiveFinalReceiver(fnc, rcvr, keyType, dataType);
+    } else {
+      finalReceiver = new KReduceBatchFinalReceiver(fnc, rcvr);
+    }
 
     if (CommunicationContext.ALLTOALL_ALGO_SIMPLE.equals(
         CommunicationContext.partitionAlgorithm(comm.getConfig()))) {
       this.op = new MToNSimple(comm.getConfig(), comm.getChannel(),
           plan, sources, destinations,
-          new KReduceBatchFinalReceiver(fnc, rcvr),
+          finalReceiver,
           partialReceiver, dataType, dataType,
           keyType, keyType, edgeId, messageSchema);
     } else if (CommunicationContext.ALLTOALL_ALGO_RING.equals(
         CommunicationContext.partitionAlgorithm(comm.getConfig()))) {
       op = new MToNChain(comm.getConfig(), comm.getChannel(),
-          plan, sources, destinations, new KReduceBatchFinalReceiver(fnc, rcvr), partialReceiver,
+          plan, sources, destinations, finalReceiver, partialReceiver,
           dataType, dataType, keyType, keyType, edgeId, messageSchema);
     }
     this.destinationSelector = destSelector;
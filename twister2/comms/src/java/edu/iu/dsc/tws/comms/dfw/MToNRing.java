@@ -530,8 +530,9 @@ public class MToNRing implements DataFlowOperation, ChannelReceiver {
 
   @Override
   public void finish(int source) {
-    Set<Integer> targetsOfThisWorker = TaskPlanUtils.getTasksOfThisWorker(logicalPlan, targets);
-    for (int dest : targetsOfThisWorker) {
+    // the partial receiver forwards the syncs of a source only after it has sent a sync to
+    // every target, including the targets of the other workers
+    for (int dest : targets) {
       // first we need to call finish on the partial receivers
       while (!send(source, new int[0], MessageFlags.SYNC_EMPTY, dest)) {
         // lets progress until finish
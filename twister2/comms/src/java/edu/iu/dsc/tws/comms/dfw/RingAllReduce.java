@@ -0,0 +1,345 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.dfw;
+
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import edu.iu.dsc.tws.api.comms.CommunicationContext;
+import edu.iu.dsc.tws.api.comms.DataFlowOperation;
+import edu.iu.dsc.tws.api.comms.LogicalPlan;
+import edu.iu.dsc.tws.api.comms.ReduceFunction;
+import edu.iu.dsc.tws.api.comms.SingularReceiver;
+import edu.iu.dsc.tws.api.comms.channel.TWSChannel;
+import edu.iu.dsc.tws.api.comms.messaging.MessageFlags;
+import edu.iu.dsc.tws.api.comms.messaging.MessageReceiver;
+import edu.iu.dsc.tws.api.comms.messaging.types.MessageType;
+import edu.iu.dsc.tws.api.comms.messaging.types.MessageTypes;
+import edu.iu.dsc.tws.api.comms.packing.MessageSchema;
+import edu.iu.dsc.tws.api.comms.structs.Tuple;
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.comms.dfw.io.TargetPartialReceiver;
+import edu.iu.dsc.tws.comms.dfw.io.allreduce.AllReduceChunks;
+import edu.iu.dsc.tws.comms.dfw.io.allreduce.ChunkGatherBatchReceiver;
+import edu.iu.dsc.tws.comms.dfw.io.allreduce.ChunkGatherStreamingReceiver;
+import edu.iu.dsc.tws.comms.dfw.io.allreduce.ReduceScatterBatchReceiver;
+import edu.iu.dsc.tws.comms.dfw.io.allreduce.ReduceScatterStreamingReceiver;
+import edu.iu.dsc.tws.comms.dfw.io.partition.PartitionPartialReceiver;
+
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.Int2LongOpenHashMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArraySet;
+
+/**
+ * AllReduce for primitive arrays implemented as a reduce-scatter followed by an allgather.
+ * Every message is split in to one chunk per target, each target reduces a single chunk and
+ * sends the reduced chunk to all the targets. Unlike the tree based {@link AllReduce}, the
+ * reduction work and the network traffic is divided evenly among the targets.
+ * <p>
+ * Despite the name this is not the neighbour to neighbour ring algorithm, where a chunk is
+ * passed along the ring in p - 1 steps. Each phase is a single all-to-all step, the chunks go
+ * directly from the sources to their owners and from the owners to every target. The batch
+ * phases use the all-to-all algorithm configured for partitioning, with {@link MToNRing} the
+ * workers send to the other workers in ring order.
+ *
+ * The reduce function is applied on chunks, so it must be element wise.
+ */
+public class RingAllReduce implements DataFlowOperation {
+  private static final Logger LOG = Logger.getLogger(RingAllReduce.class.getName());
+
+  /**
+   * The reduce-scatter operation
+   */
+  private DataFlowOperation reduceScatter;
+
+  /**
+   * The allgather operation
+   */
+  private DataFlowOperation allGather;
+
+  // the source tasks
+  protected Set<Integer> sources;
+
+  // the destination task
+  private Set<Integer> destinations;
+
+  /**
+   * The targets owning each chunk, the i th chunk is reduced by chunkOwners[i]
+   */
+  private int[] chunkOwners;
+
+  // the final receiver
+  private SingularReceiver finalReceiver;
+
+  /**
+   * The channel
+   */
+  private TWSChannel channel;
+
+  /**
+   * The reduce-scatter edge
+   */
+  private int reduceScatterEdge;
+
+  /**
+   * The allgather edge
+   */
+  private int allGatherEdge;
+
+  /**
+   * The task plan
+   */
+  private LogicalPlan logicalPlan;
+
+  /**
+   * The reduce function
+   */
+  private ReduceFunction reduceFunction;
+
+  /**
+   * Weather streaming mode
+   */
+  private boolean streaming;
+  private MessageSchema messageSchema;
+
+  /**
+   * Chunks of the last message of a source that are not yet accepted by the reduce-scatter
+   */
+  private Int2ObjectOpenHashMap<Object[]> pendingChunks = new Int2ObjectOpenHashMap<>();
+
+  /**
+   * The next chunk to send for a source with pending chunks
+   */
+  private Int2IntOpenHashMap pendingIndex = new Int2IntOpenHashMap();
+
+  /**
+   * The flags of the pending messages
+   */
+  private Int2IntOpenHashMap pendingFlags = new Int2IntOpenHashMap();
+
+  /**
+   * Number of messages sent by each source
+   */
+  private Int2LongOpenHashMap rounds = new Int2LongOpenHashMap();
+
+  /**
+   * Sources that called finish while they still had pending chunks
+   */
+  private Set<Integer> pendingFinish = new IntArraySet();
+
+  public RingAllReduce(Config config, TWSChannel chnl, LogicalPlan instancePlan,
+                       Set<Integer> sources, Set<Integer> destination,
+                       ReduceFunction reduceFn, SingularReceiver finalRecv, MessageType t,
+                       int reduceScatterEdge, int allGatherEdge,
+                       boolean strm, MessageSchema messageSchema) {
+    if (!AllReduceChunks.isChunkable(t)) {
+      throw new IllegalArgumentException("Ring allreduce only supports primitive arrays: " + t);
+    }
+    this.channel = chnl;
+    this.sources = sources;
+    this.destinations = destination;
+    this.finalReceiver = finalRecv;
+    this.reduceScatterEdge = reduceScatterEdge;
+    this.allGatherEdge = allGatherEdge;
+    this.reduceFunction = reduceFn;
+    this.streaming = strm;
+    this.messageSchema = messageSchema;
+    init(config, t, instancePlan);
+  }
+
+  private void init(Config config, MessageType t, LogicalPlan instancePlan) {
+    this.logicalPlan = instancePlan;
+
+    chunkOwners = destinations.stream().mapToInt(Integer::intValue).sorted().toArray();
+
+    MessageReceiver gatherReceiver;
+    if (streaming) {
+      gatherReceiver = new ChunkGatherStreamingReceiver(finalReceiver, chunkOwners.length);
+    } else {
+      gatherReceiver = new ChunkGatherBatchReceiver(finalReceiver, chunkOwners.length);
+    }
+    allGather = createAllToAll(config, instancePlan, destinations, gatherReceiver, t,
+        allGatherEdge);
+
+    MessageReceiver scatterReceiver;
+    if (streaming) {
+      scatterReceiver = new ReduceScatterStreamingReceiver(reduceFunction, allGather,
+          chunkOwners);
+    } else {
+      scatterReceiver = new ReduceScatterBatchReceiver(reduceFunction, allGather, chunkOwners);
+    }
+    reduceScatter = createAllToAll(config, instancePlan, sources, scatterReceiver, t,
+        reduceScatterEdge);
+  }
+
+  private DataFlowOperation createAllToAll(Config config, LogicalPlan instancePlan,
+                                           Set<Integer> srcs, MessageReceiver finalRcvr,
+                                           MessageType t, int edge) {
+    if (!streaming && CommunicationContext.ALLTOALL_ALGO_RING.equals(
+        CommunicationContext.partitionAlgorithm(config))) {
+      return new MToNRing(config, channel, instancePlan, srcs, destinations, finalRcvr,
+          new PartitionPartialReceiver(), t, t, MessageTypes.LONG, MessageTypes.LONG,
+          edge, messageSchema);
+    }
+
+    MessageReceiver partialRcvr = streaming
+        ? new TargetPartialReceiver() : new PartitionPartialReceiver();
+    MToNSimple allToAll = new MToNSimple(channel, srcs, destinations, finalRcvr, partialRcvr,
+        t, MessageTypes.LONG, messageSchema);
+    allToAll.init(config, t, instancePlan, edge);
+    return allToAll;
+  }
+
+  @Override
+  public boolean sendPartial(int source, Object message, int flags) {
+    throw new RuntimeException("Not-implemented");
+  }
+
+  @Override
+  public synchronized boolean send(int source, Object message, int flags) {
+    if ((flags & MessageFlags.SYNC_BARRIER) == MessageFlags.SYNC_BARRIER) {
+      throw new RuntimeException("Barriers are not supported by the ring allreduce");
+    }
+
+    // we cannot accept a new message until the chunks of the previous one are sent
+    if (pendingChunks.containsKey(source) && !sendChunks(source)) {
+      return false;
+    }
+
+    rounds.addTo(source, 1);
+    pendingChunks.put(source, AllReduceChunks.split(message, chunkOwners.length));
+    pendingIndex.put(source, 0);
+    pendingFlags.put(source, flags);
+    sendChunks(source);
+    return true;
+  }
+
+  /**
+   * Send the pending chunks of a source to the chunk owners
+   *
+   * @param source source
+   * @return true if all the chunks are sent
+   */
+  private boolean sendChunks(int source) {
+    Object[] chunks = pendingChunks.get(source);
+    int flags = pendingFlags.get(source);
+    long round = rounds.get(source) - 1;
+    for (int i = pendingIndex.get(source); i < chunks.length; i++) {
+      Tuple chunk = Tuple.of(AllReduceChunks.key(round, i), chunks[i]);
+      if (!reduceScatter.send(source, chunk, flags, chunkOwners[i])) {
+        pendingIndex.put(source, i);
+        return false;
+      }
+    }
+    pendingChunks.remove(source);
+    pendingIndex.remove(source);
+    pendingFlags.remove(source);
+    return true;
+  }
+
+  @Override
+  public boolean send(int source, Object message, int flags, int target) {
+    throw new RuntimeException("Not-implemented");
+  }
+
+  @Override
+  public boolean sendPartial(int source, Object message, int flags, int target) {
+    throw new RuntimeException("Not-implemented");
+  }
+
+  @Override
+  public synchronized boolean progress() {
+    try {
+      if (!pendingChunks.isEmpty()) {
+        for (int source : pendingChunks.keySet().toIntArray()) {
+          sendChunks(source);
+        }
+      }
+
+      if (!pendingFinish.isEmpty()) {
+        for (int source : pendingFinish.toArray(new Integer[0])) {
+          if (!pendingChunks.containsKey(source)) {
+            reduceScatter.finish(source);
+            pendingFinish.remove(source);
+          }
+        }
+      }
+
+      boolean scatterProgress = reduceScatter.progress();
+      boolean gatherProgress = allGather.progress();
+      return scatterProgress || gatherProgress
+          || !pendingChunks.isEmpty() || !pendingFinish.isEmpty();
+    } catch (Throwable t) {
+      LOG.log(Level.SEVERE, "un-expected error", t);
+      throw new RuntimeException(t);
+    }
+  }
+
+  public synchronized boolean isComplete() {
+    return pendingChunks.isEmpty() && pendingFinish.isEmpty()
+        && reduceScatter.isComplete() && allGather.isComplete();
+  }
+
+  @Override
+  public void close() {
+    reduceScatter.close();
+    allGather.close();
+  }
+
+  @Override
+  public synchronized void reset() {
+    pendingChunks.clear();
+    pendingIndex.clear();
+    pendingFlags.clear();
+    pendingFinish.clear();
+    rounds.clear();
+
+    if (reduceScatter != null) {
+      reduceScatter.reset();
+    }
+
+    if (allGather != null) {
+      allGather.reset();
+    }
+  }
+
+  @Override
+  public synchronized void finish(int source) {
+    if (pendingChunks.containsKey(source)) {
+      pendingFinish.add(source);
+    } else {
+      reduceScatter.finish(source);
+    }
+  }
+
+  @Override
+  public LogicalPlan getLogicalPlan() {
+    return logicalPlan;
+  }
+
+  @Override
+  public String getUniqueId() {
+    return String.valueOf(reduceScatterEdge);
+  }
+
+  @Override
+  public Set<Integer> getSources() {
+    return sources;
+  }
+
+  @Override
+  public Set<Integer> getTargets() {
+    return destinations;
+  }
+}
@@ -30,15 +30,20 @@ public class ObjectBuilderImpl<D, W> implements ObjectBuilder<D, W> {
 
   private boolean built;
 
+  /**
+   * Holder for the parts of an object spanning several buffers, created only when a packer
+   * asks for it, so that the objects read directly from a buffer do not allocate it
+   */
   private W partialDataHolder;
+  private DataPacker<D, W> dataPacker;
   private D finalObject;
 
   private int totalSize;
   private int completedSize;
 
-  void init(DataPacker<D, W> dataPacker, int totSize) {
+  void init(DataPacker<D, W> packer, int totSize) {
     this.reset();
-    this.partialDataHolder = dataPacker.wrapperForByteLength(totSize);
+    this.dataPacker = packer;
     this.totalSize = totSize;
   }
 
@@ -63,6 +68,9 @@ public class ObjectBuilderImpl<D, W> implements ObjectBuilder<D, W> {
   }
 
   public W getPartialDataHolder() {
+    if (partialDataHolder == null) {
+      partialDataHolder = dataPacker.wrapperForByteLength(totalSize);
+    }
     return partialDataHolder;
   }
 
@@ -77,6 +85,7 @@ public class ObjectBuilderImpl<D, W> implements ObjectBuilder<D, W> {
 
   private void reset() {
     this.partialDataHolder = null;
+    this.dataPacker = null;
     this.totalSize = 0;
     this.finalObject = null;
     this.built = false;
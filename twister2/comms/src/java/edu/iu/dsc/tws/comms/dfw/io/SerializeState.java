@@ -55,11 +55,13 @@ public class SerializeState extends PackerStore {
 
   public static class StoredData {
     private byte[] data;
+    private int length;
     private int bytesCopied;
     private int totalToCopy;
 
     private void clear() {
       this.data = null;
+      this.length = 0;
       this.bytesCopied = 0;
     }
 
@@ -68,10 +70,10 @@ public class SerializeState extends PackerStore {
     }
 
     public void setTotalToCopy(int totalToCopy) {
-      if (data != null && data.length != totalToCopy) {
+      if (data != null && length != totalToCopy) {
         throw new RuntimeException(
             "Assertion failed. Total to copy is different than data length."
-                + "Expected : " + data.length + ", Found : " + totalToCopy
+                + "Expected : " + length + ", Found : " + totalToCopy
         );
       }
       this.totalToCopy = totalToCopy;
@@ -109,8 +111,14 @@ public class SerializeState extends PackerStore {
 
   @Override
   public void store(byte[] data) {
+    store(data, data.length);
+  }
+
+  @Override
+  public void store(byte[] data, int length) {
     this.active.clear();
     this.active.data = data;
+    this.active.length = length;
   }
 
   @Override
@@ -118,6 +126,11 @@ public class SerializeState extends PackerStore {
     return this.active.data;
   }
 
+  @Override
+  public int retrieveLength() {
+    return this.active.length;
+  }
+
   /**
    * Swaps active {@link StoredData} instance
    */
@@ -75,11 +75,10 @@ public abstract class TargetFinalReceiver extends TargetReceiver {
   protected void addSyncMessage(int source, int target) {
     Set<Integer> sources = syncReceived.get(target);
     sources.add(source);
-    for (int t : thisDestinations) {
-      Set<Integer> syncSources = syncReceived.get(t);
-      if (syncSources.equals(this.thisSources)) {
-        targetStates.put(target, ReceiverState.ALL_SYNCS_RECEIVED);
-      }
+    // a target is ready only after its own syncs are received, otherwise a late sync marks
+    // an already synced target again
+    if (sources.equals(this.thisSources)) {
+      targetStates.put(target, ReceiverState.ALL_SYNCS_RECEIVED);
     }
   }
 
@@ -87,11 +86,8 @@ public abstract class TargetFinalReceiver extends TargetReceiver {
   protected void addSyncMessageBarrier(int source, int target, byte[] barrier) {
     Set<Integer> sources = syncReceived.get(target);
     sources.add(source);
-    for (int t : thisDestinations) {
-      Set<Integer> syncSources = syncReceived.get(t);
-      if (syncSources.equals(this.thisSources)) {
-        targetStates.put(target, ReceiverState.ALL_SYNCS_RECEIVED);
-      }
+    if (sources.equals(this.thisSources)) {
+      targetStates.put(target, ReceiverState.ALL_SYNCS_RECEIVED);
     }
     syncState = SyncState.BARRIER_SYNC;
     barriers.put(target, barrier);
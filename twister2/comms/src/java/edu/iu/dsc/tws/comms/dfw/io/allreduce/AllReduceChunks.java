@@ -0,0 +1,165 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.dfw.io.allreduce;
+
+import java.util.Arrays;
+
+import edu.iu.dsc.tws.api.comms.messaging.types.MessageType;
+import edu.iu.dsc.tws.api.comms.messaging.types.MessageTypes;
+
+/**
+ * Helper methods to split primitive arrays in to chunks and put them back together. The ring
+ * allreduce reduces each chunk at a different task, so every chunk carries a key made of
+ * the round it belongs to and the index of the chunk.
+ */
+public final class AllReduceChunks {
+
+  private AllReduceChunks() {
+  }
+
+  /**
+   * Check weather the data type can be split in to chunks
+   *
+   * @param type data type
+   * @return true if the type is a primitive array
+   */
+  public static boolean isChunkable(MessageType type) {
+    return type == MessageTypes.DOUBLE_ARRAY || type == MessageTypes.INTEGER_ARRAY
+        || type == MessageTypes.LONG_ARRAY || type == MessageTypes.FLOAT_ARRAY
+        || type == MessageTypes.SHORT_ARRAY || type == MessageTypes.BYTE_ARRAY
+        || type == MessageTypes.CHAR_ARRAY;
+  }
+
+  /**
+   * Create the key of a chunk
+   *
+   * @param round the round of the source
+   * @param chunk index of the chunk
+   * @return the key
+   */
+  public static long key(long round, int chunk) {
+    return (round << 32) | (chunk & 0xFFFFFFFFL);
+  }
+
+  public static long round(long key) {
+    return key >>> 32;
+  }
+
+  public static int chunk(long key) {
+    return (int) key;
+  }
+
+  /**
+   * Split an array in to chunks of almost equal size. If the array has less elements than
+   * the number of chunks, the trailing chunks are empty arrays.
+   *
+   * @param array the array
+   * @param noOfChunks number of chunks
+   * @return the chunks
+   */
+  public static Object[] split(Object array, int noOfChunks) {
+    int length = length(array);
+    int base = length / noOfChunks;
+    int remainder = length % noOfChunks;
+
+    Object[] chunks = new Object[noOfChunks];
+    int start = 0;
+    for (int i = 0; i < noOfChunks; i++) {
+      int end = start + base + (i < remainder ? 1 : 0);
+      chunks[i] = copyOfRange(array, start, end);
+      start = end;
+    }
+    return chunks;
+  }
+
+  /**
+   * Join the chunks created by {@link #split(Object, int)}
+   *
+   * @param chunks the chunks in order
+   * @return the joined array
+   */
+  public static Object join(Object[] chunks) {
+    int length = 0;
+    for (Object c : chunks) {
+      length += length(c);
+    }
+
+    Object joined = newArray(chunks[0], length);
+    int pos = 0;
+    for (Object c : chunks) {
+      int l = length(c);
+      System.arraycopy(c, 0, joined, pos, l);
+      pos += l;
+    }
+    return joined;
+  }
+
+  private static int length(Object array) {
+    if (array instanceof double[]) {
+      return ((double[]) array).length;
+    } else if (array instanceof int[]) {
+      return ((int[]) array).length;
+    } else if (array instanceof long[]) {
+      return ((long[]) array).length;
+    } else if (array instanceof float[]) {
+      return ((float[]) array).length;
+    } else if (array instanceof short[]) {
+      return ((short[]) array).length;
+    } else if (array instanceof byte[]) {
+      return ((byte[]) array).length;
+    } else if (array instanceof char[]) {
+      return ((char[]) array).length;
+    }
+    throw new IllegalArgumentException("Only primitive arrays can be split: "
+        + (array == null ? null : array.getClass()));
+  }
+
+  private static Object copyOfRange(Object array, int from, int to) {
+    if (array instanceof double[]) {
+      return Arrays.copyOfRange((double[]) array, from, to);
+    } else if (array instanceof int[]) {
+      return Arrays.copyOfRange((int[]) array, from, to);
+    } else if (array instanceof long[]) {
+      return Arrays.copyOfRange((long[]) array, from, to);
+    } else if (array instanceof float[]) {
+      return Arrays.copyOfRange((float[]) array, from, to);
+    } else if (array instanceof short[]) {
+      return Arrays.copyOfRange((short[]) array, from, to);
+    } else if (array instanceof byte[]) {
+      return Arrays.copyOfRange((byte[]) array, from, to);
+    } else if (array instanceof char[]) {
+      return Arrays.copyOfRange((char[]) array, from, to);
+    }
+    throw new IllegalArgumentException("Only primitive arrays can be split: "
+        + (array == null ? null : array.getClass()));
+  }
+
+  private static Object newArray(Object sample, int length) {
+    if (sample instanceof double[]) {
+      return new double[length];
+    } else if (sample instanceof int[]) {
+      return new int[length];
+    } else if (sample instanceof long[]) {
+      return new long[length];
+    } else if (sample instanceof float[]) {
+      return new float[length];
+    } else if (sample instanceof short[]) {
+      return new short[length];
+    } else if (sample instanceof byte[]) {
+      return new byte[length];
+    } else if (sample instanceof char[]) {
+      return new char[length];
+    }
+    throw new IllegalArgumentException("Only primitive arrays can be joined: "
+        + (sample == null ? null : sample.getClass()));
+  }
+}
@@ -0,0 +1,115 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.dfw.io.allreduce;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import edu.iu.dsc.tws.api.comms.DataFlowOperation;
+import edu.iu.dsc.tws.api.comms.SingularReceiver;
+import edu.iu.dsc.tws.api.comms.structs.Tuple;
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.comms.dfw.io.ReceiverState;
+import edu.iu.dsc.tws.comms.dfw.io.TargetFinalReceiver;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+
+/**
+ * Batch allgather receiver of the ring allreduce, collects the reduced chunks and hands over
+ * the joined array to the receiver once all the chunks are present.
+ */
+public class ChunkGatherBatchReceiver extends TargetFinalReceiver {
+  /**
+   * The receiver to deliver the reduced array
+   */
+  private SingularReceiver receiver;
+
+  /**
+   * Number of chunks the array is split in to
+   */
+  private int noOfChunks;
+
+  /**
+   * The chunks received for each target
+   */
+  private Int2ObjectOpenHashMap<Object[]> chunks = new Int2ObjectOpenHashMap<>();
+
+  public ChunkGatherBatchReceiver(SingularReceiver receiver, int noOfChunks) {
+    this.receiver = receiver;
+    this.noOfChunks = noOfChunks;
+  }
+
+  @Override
+  public void init(Config cfg, DataFlowOperation op, Map<Integer, List<Integer>> expectedIds) {
+    super.init(cfg, op, expectedIds);
+    for (int target : expectedIds.keySet()) {
+      chunks.put(target, new Object[noOfChunks]);
+    }
+    receiver.init(cfg, expectedIds.keySet());
+  }
+
+  @Override
+  protected void merge(int dest, List<Object> dests) {
+    Object[] chunksOfTarget = chunks.get(dest);
+    for (Object o : dests) {
+      Tuple t = (Tuple) o;
+      chunksOfTarget[AllReduceChunks.chunk((Long) t.getKey())] = t.getValue();
+    }
+    dests.clear();
+  }
+
+  @Override
+  protected boolean sendToTarget(int source, int target) {
+    Object[] chunksOfTarget = chunks.get(target);
+    for (int i = 0; i < chunksOfTarget.length; i++) {
+      if (chunksOfTarget[i] == null) {
+        throw new RuntimeException("Chunk " + i + " is missing for target " + target);
+      }
+    }
+
+    if (receiver.receive(target, AllReduceChunks.join(chunksOfTarget))) {
+      Arrays.fill(chunksOfTarget, null);
+      return true;
+    }
+    return false;
+  }
+
+  @Override
+  protected boolean isFilledToSend(int target) {
+    return targetStates.get(target) == ReceiverState.ALL_SYNCS_RECEIVED
+        && !isAllEmpty(target);
+  }
+
+  @Override
+  protected boolean isAllEmpty(int target) {
+    for (Object c : chunks.get(target)) {
+      if (c != null) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  protected boolean onSyncEvent(int target, byte[] value) {
+    return receiver.sync(target, value);
+  }
+
+  @Override
+  public void clean() {
+    super.clean();
+    for (Object[] c : chunks.values()) {
+      Arrays.fill(c, null);
+    }
+  }
+}
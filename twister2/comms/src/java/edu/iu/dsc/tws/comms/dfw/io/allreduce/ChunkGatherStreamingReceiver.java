@@ -0,0 +1,149 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.dfw.io.allreduce;
+
+import java.util.List;
+import java.util.Map;
+
+import edu.iu.dsc.tws.api.comms.DataFlowOperation;
+import edu.iu.dsc.tws.api.comms.SingularReceiver;
+import edu.iu.dsc.tws.api.comms.structs.Tuple;
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.comms.dfw.io.TargetFinalReceiver;
+
+import it.unimi.dsi.fastutil.ints.Int2LongOpenHashMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+
+/**
+ * Streaming allgather receiver of the ring allreduce. The chunks are grouped by round and the
+ * joined arrays are handed over to the receiver in the order of the rounds.
+ */
+public class ChunkGatherStreamingReceiver extends TargetFinalReceiver {
+  /**
+   * The receiver to deliver the reduced arrays
+   */
+  private SingularReceiver receiver;
+
+  /**
+   * Number of chunks the array is split in to
+   */
+  private int noOfChunks;
+
+  /**
+   * Chunks of the rounds that are not complete yet, for each target
+   */
+  private Int2ObjectOpenHashMap<Long2ObjectOpenHashMap<Object[]>> partialRounds =
+      new Int2ObjectOpenHashMap<>();
+
+  /**
+   * Joined arrays of the complete rounds, for each target
+   */
+  private Int2ObjectOpenHashMap<Long2ObjectOpenHashMap<Object>> completeRounds =
+      new Int2ObjectOpenHashMap<>();
+
+  /**
+   * The next round to deliver for each target
+   */
+  private Int2LongOpenHashMap nextRound = new Int2LongOpenHashMap();
+
+  public ChunkGatherStreamingReceiver(SingularReceiver receiver, int noOfChunks) {
+    this.receiver = receiver;
+    this.noOfChunks = noOfChunks;
+  }
+
+  @Override
+  public void init(Config cfg, DataFlowOperation op, Map<Integer, List<Integer>> expectedIds) {
+    super.init(cfg, op, expectedIds);
+    for (int target : expectedIds.keySet()) {
+      partialRounds.put(target, new Long2ObjectOpenHashMap<>());
+      completeRounds.put(target, new Long2ObjectOpenHashMap<>());
+    }
+    receiver.init(cfg, expectedIds.keySet());
+  }
+
+  @Override
+  protected void merge(int dest, List<Object> dests) {
+    Long2ObjectOpenHashMap<Object[]> partials = partialRounds.get(dest);
+    for (Object o : dests) {
+      Tuple t = (Tuple) o;
+      long key = (Long) t.getKey();
+      long round = AllReduceChunks.round(key);
+
+      Object[] chunksOfRound = partials.get(round);
+      if (chunksOfRound == null) {
+        chunksOfRound = new Object[noOfChunks];
+        partials.put(round, chunksOfRound);
+      }
+      chunksOfRound[AllReduceChunks.chunk(key)] = t.getValue();
+
+      if (isComplete(chunksOfRound)) {
+        partials.remove(round);
+        completeRounds.get(dest).put(round, AllReduceChunks.join(chunksOfRound));
+      }
+    }
+    dests.clear();
+  }
+
+  private boolean isComplete(Object[] chunksOfRound) {
+    for (Object c : chunksOfRound) {
+      if (c == null) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  protected boolean sendToTarget(int source, int target) {
+    Long2ObjectOpenHashMap<Object> complete = completeRounds.get(target);
+    long round = nextRound.get(target);
+    Object value = complete.get(round);
+    while (value != null) {
+      if (!receiver.receive(target, value)) {
+        return false;
+      }
+      complete.remove(round);
+      round++;
+      nextRound.put(target, round);
+      value = complete.get(round);
+    }
+    return true;
+  }
+
+  @Override
+  protected boolean isFilledToSend(int target) {
+    return completeRounds.get(target).containsKey(nextRound.get(target));
+  }
+
+  @Override
+  protected boolean isAllEmpty(int target) {
+    return completeRounds.get(target).isEmpty() && partialRounds.get(target).isEmpty();
+  }
+
+  @Override
+  protected boolean onSyncEvent(int target, byte[] value) {
+    return receiver.sync(target, value);
+  }
+
+  @Override
+  public void clean() {
+    super.clean();
+    for (Long2ObjectOpenHashMap<Object[]> p : partialRounds.values()) {
+      p.clear();
+    }
+    for (Long2ObjectOpenHashMap<Object> c : completeRounds.values()) {
+      c.clear();
+    }
+    nextRound.clear();
+  }
+}
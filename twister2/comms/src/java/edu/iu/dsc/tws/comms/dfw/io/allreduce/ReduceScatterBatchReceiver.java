@@ -0,0 +1,74 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.dfw.io.allreduce;
+
+import java.util.List;
+
+import edu.iu.dsc.tws.api.comms.DataFlowOperation;
+import edu.iu.dsc.tws.api.comms.ReduceFunction;
+import edu.iu.dsc.tws.api.comms.structs.Tuple;
+import edu.iu.dsc.tws.comms.dfw.io.ReceiverState;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+
+/**
+ * Batch reduce-scatter receiver, all the chunks received for a target are reduced in to one
+ * and sent to the allgather after all the sources are finished.
+ */
+public class ReduceScatterBatchReceiver extends ReduceScatterReceiver {
+  /**
+   * The partially reduced chunk of each target
+   */
+  private Int2ObjectOpenHashMap<Tuple<Long, Object>> reduced = new Int2ObjectOpenHashMap<>();
+
+  public ReduceScatterBatchReceiver(ReduceFunction reduceFunction, DataFlowOperation allGather,
+                                    int[] gatherTargets) {
+    super(reduceFunction, allGather, gatherTargets);
+  }
+
+  @Override
+  protected void merge(int dest, List<Object> dests) {
+    Tuple<Long, Object> current = reduced.get(dest);
+    for (Object o : dests) {
+      Tuple t = (Tuple) o;
+      if (current == null) {
+        // in batch mode we reduce everything to a single value, so the round is not relevant
+        int chunk = AllReduceChunks.chunk((Long) t.getKey());
+        current = new Tuple<>(AllReduceChunks.key(0, chunk), t.getValue());
+        reduced.put(dest, current);
+      } else {
+        current.setValue(reduceFunction.reduce(current.getValue(), t.getValue()));
+      }
+    }
+    dests.clear();
+  }
+
+  @Override
+  protected boolean isFilledToSend(int target) {
+    if (targetStates.get(target) == ReceiverState.ALL_SYNCS_RECEIVED
+        && reduced.containsKey(target)) {
+      readyToSend.get(target).add(reduced.remove(target));
+    }
+    return super.isFilledToSend(target);
+  }
+
+  @Override
+  protected boolean hasPartial(int target) {
+    return reduced.containsKey(target);
+  }
+
+  @Override
+  public void clean() {
+    super.clean();
+    reduced.clear();
+  }
+}
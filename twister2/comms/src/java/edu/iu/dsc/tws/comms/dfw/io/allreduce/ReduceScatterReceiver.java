@@ -0,0 +1,137 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.dfw.io.allreduce;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+import edu.iu.dsc.tws.api.comms.DataFlowOperation;
+import edu.iu.dsc.tws.api.comms.ReduceFunction;
+import edu.iu.dsc.tws.api.comms.messaging.MessageFlags;
+import edu.iu.dsc.tws.api.comms.structs.Tuple;
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.comms.dfw.io.TargetFinalReceiver;
+
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+
+/**
+ * The receiver of the reduce-scatter phase of the ring allreduce. Every target owns a single
+ * chunk of the array, reduces the chunks it receives from all the sources and sends the
+ * reduced chunk to every target of the allgather phase.
+ */
+public abstract class ReduceScatterReceiver extends TargetFinalReceiver {
+  /**
+   * The reduce function
+   */
+  protected ReduceFunction reduceFunction;
+
+  /**
+   * The allgather operation to send the reduced chunks
+   */
+  private DataFlowOperation allGather;
+
+  /**
+   * The targets of the allgather operation
+   */
+  private int[] gatherTargets;
+
+  /**
+   * Reduced chunks ready to be sent to the allgather targets
+   */
+  protected Int2ObjectOpenHashMap<Queue<Tuple>> readyToSend = new Int2ObjectOpenHashMap<>();
+
+  /**
+   * The index of the next allgather target to send the first ready chunk
+   */
+  private Int2IntOpenHashMap sendIndex = new Int2IntOpenHashMap();
+
+  /**
+   * The index of the next allgather target to send the sync
+   */
+  private Int2IntOpenHashMap syncIndex = new Int2IntOpenHashMap();
+
+  public ReduceScatterReceiver(ReduceFunction reduceFunction, DataFlowOperation allGather,
+                               int[] gatherTargets) {
+    this.reduceFunction = reduceFunction;
+    this.allGather = allGather;
+    this.gatherTargets = gatherTargets;
+  }
+
+  @Override
+  public void init(Config cfg, DataFlowOperation op, Map<Integer, List<Integer>> expectedIds) {
+    super.init(cfg, op, expectedIds);
+    for (int target : expectedIds.keySet()) {
+      readyToSend.put(target, new ArrayDeque<>());
+    }
+  }
+
+  @Override
+  protected boolean sendToTarget(int source, int target) {
+    Queue<Tuple> ready = readyToSend.get(target);
+    Tuple chunk = ready.peek();
+    while (chunk != null) {
+      for (int i = sendIndex.get(target); i < gatherTargets.length; i++) {
+        if (!allGather.send(target, chunk, 0, gatherTargets[i])) {
+          sendIndex.put(target, i);
+          return false;
+        }
+      }
+      sendIndex.put(target, 0);
+      ready.poll();
+      chunk = ready.peek();
+    }
+    return true;
+  }
+
+  @Override
+  protected boolean isFilledToSend(int target) {
+    return !readyToSend.get(target).isEmpty();
+  }
+
+  @Override
+  protected boolean isAllEmpty(int target) {
+    return readyToSend.get(target).isEmpty() && !hasPartial(target);
+  }
+
+  @Override
+  protected boolean onSyncEvent(int target, byte[] value) {
+    for (int i = syncIndex.get(target); i < gatherTargets.length; i++) {
+      if (!allGather.send(target, new byte[0], MessageFlags.SYNC_EMPTY, gatherTargets[i])) {
+        syncIndex.put(target, i);
+        return false;
+      }
+    }
+    syncIndex.put(target, 0);
+    return true;
+  }
+
+  @Override
+  public void clean() {
+    super.clean();
+    for (Queue<Tuple> q : readyToSend.values()) {
+      q.clear();
+    }
+    sendIndex.clear();
+    syncIndex.clear();
+  }
+
+  /**
+   * Check weather there are chunks that are still being reduced for the target
+   *
+   * @param target target
+   * @return true if there are partially reduced chunks
+   */
+  protected abstract boolean hasPartial(int target);
+}
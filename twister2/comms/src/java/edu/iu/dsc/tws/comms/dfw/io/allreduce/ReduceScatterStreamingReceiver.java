@@ -0,0 +1,95 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.dfw.io.allreduce;
+
+import java.util.List;
+import java.util.Map;
+
+import edu.iu.dsc.tws.api.comms.DataFlowOperation;
+import edu.iu.dsc.tws.api.comms.ReduceFunction;
+import edu.iu.dsc.tws.api.comms.structs.Tuple;
+import edu.iu.dsc.tws.api.config.Config;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+
+/**
+ * Streaming reduce-scatter receiver, the chunks of the same round are reduced and the reduced
+ * chunk is sent to the allgather as soon as every source has contributed to the round.
+ */
+public class ReduceScatterStreamingReceiver extends ReduceScatterReceiver {
+  /**
+   * Partially reduced chunks of each target, keyed by the chunk key
+   */
+  private Int2ObjectOpenHashMap<Long2ObjectOpenHashMap<Object>> reduced =
+      new Int2ObjectOpenHashMap<>();
+
+  /**
+   * Number of sources reduced in to each partial chunk
+   */
+  private Int2ObjectOpenHashMap<Long2IntOpenHashMap> counts = new Int2ObjectOpenHashMap<>();
+
+  public ReduceScatterStreamingReceiver(ReduceFunction reduceFunction,
+                                        DataFlowOperation allGather, int[] gatherTargets) {
+    super(reduceFunction, allGather, gatherTargets);
+  }
+
+  @Override
+  public void init(Config cfg, DataFlowOperation op, Map<Integer, List<Integer>> expectedIds) {
+    super.init(cfg, op, expectedIds);
+    for (int target : expectedIds.keySet()) {
+      reduced.put(target, new Long2ObjectOpenHashMap<>());
+      counts.put(target, new Long2IntOpenHashMap());
+    }
+  }
+
+  @Override
+  protected void merge(int dest, List<Object> dests) {
+    Long2ObjectOpenHashMap<Object> partials = reduced.get(dest);
+    Long2IntOpenHashMap sourceCounts = counts.get(dest);
+    int noOfSources = thisSources.size();
+
+    for (Object o : dests) {
+      Tuple t = (Tuple) o;
+      long key = (Long) t.getKey();
+      Object previous = partials.get(key);
+      Object value = previous == null ? t.getValue()
+          : reduceFunction.reduce(previous, t.getValue());
+
+      if (sourceCounts.addTo(key, 1) + 1 == noOfSources) {
+        partials.remove(key);
+        sourceCounts.remove(key);
+        readyToSend.get(dest).add(new Tuple<>(key, value));
+      } else {
+        partials.put(key, value);
+      }
+    }
+    dests.clear();
+  }
+
+  @Override
+  protected boolean hasPartial(int target) {
+    return !reduced.get(target).isEmpty();
+  }
+
+  @Override
+  public void clean() {
+    super.clean();
+    for (Long2ObjectOpenHashMap<Object> r : reduced.values()) {
+      r.clear();
+    }
+    for (Long2IntOpenHashMap c : counts.values()) {
+      c.clear();
+    }
+  }
+}
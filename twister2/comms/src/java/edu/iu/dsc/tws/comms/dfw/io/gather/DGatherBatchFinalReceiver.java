@@ -26,6 +26,8 @@ import edu.iu.dsc.tws.api.comms.DataFlowOperation;
 import edu.iu.dsc.tws.api.comms.messaging.MessageFlags;
 import edu.iu.dsc.tws.api.comms.messaging.MessageReceiver;
 import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.api.util.BlockCodec;
+import edu.iu.dsc.tws.api.util.BlockCodecs;
 import edu.iu.dsc.tws.api.util.KryoSerializer;
 import edu.iu.dsc.tws.comms.dfw.io.AggregatedObjects;
 import edu.iu.dsc.tws.comms.shuffle.FSMerger;
@@ -94,6 +96,7 @@ public class DGatherBatchFinalReceiver implements MessageReceiver {
 
     gather = op;
     sendPendingMax = CommunicationContext.sendPendingMax(cfg);
+    BlockCodec spillCodec = BlockCodecs.fromConfig(cfg, BlockCodecs.SHUFFLE);
     for (Map.Entry<Integer, List<Integer>> e : expectedIds.entrySet()) {
       Map<Integer, Queue<Object>> messagesPerTask = new HashMap<>();
       Map<Integer, Boolean> finishedPerTask = new HashMap<>();
@@ -108,7 +111,7 @@ public class DGatherBatchFinalReceiver implements MessageReceiver {
       batchDone.put(e.getKey(), false);
 
       FSMerger merger = new FSMerger(maxBytesInMemory, maxRecordsInMemory, shuffleDirectory,
-          getOperationName(e.getKey()), gather.getDataType());
+          getOperationName(e.getKey()), gather.getDataType(), spillCodec);
       sortedMergers.put(e.getKey(), merger);
     }
     this.bulkReceiver.init(cfg, expectedIds.keySet());
@@ -24,10 +24,13 @@ import edu.iu.dsc.tws.api.comms.CommunicationContext;
 import edu.iu.dsc.tws.api.comms.DataFlowOperation;
 import edu.iu.dsc.tws.api.comms.structs.Tuple;
 import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.api.util.BlockCodec;
+import edu.iu.dsc.tws.api.util.BlockCodecs;
 import edu.iu.dsc.tws.api.util.KryoSerializer;
 import edu.iu.dsc.tws.comms.dfw.io.KeyedReceiver;
 import edu.iu.dsc.tws.comms.shuffle.FSKeyedMerger;
 import edu.iu.dsc.tws.comms.shuffle.FSKeyedSortedMerger2;
+import edu.iu.dsc.tws.comms.shuffle.FSKeyedSortedMerger3;
 import edu.iu.dsc.tws.comms.shuffle.Shuffle;
 
 /**
@@ -89,19 +92,27 @@ public class DKGatherBatchFinalReceiver extends KeyedReceiver {
     long maxRecordsInMemory = CommunicationContext.getShuffleMaxRecordsInMemory(cfg);
     long maxBytesToFile = CommunicationContext.getShuffleFileSize(cfg);
     int parallelIOAllowance = CommunicationContext.getParallelIOAllowance(cfg);
+    boolean loserTree = CommunicationContext.SHUFFLE_SORTED_MERGER_LOSER_TREE.equals(
+        CommunicationContext.getShuffleSortedMerger(cfg));
+    BlockCodec spillCodec = BlockCodecs.fromConfig(cfg, BlockCodecs.SHUFFLE);
 
     for (Integer target : expectedIds.keySet()) {
 
       Shuffle sortedMerger;
-      if (sorted) {
-        sortedMerger = new FSKeyedSortedMerger2(maxBytesInMemory,
+      if (sorted && loserTree) {
+        sortedMerger = new FSKeyedSortedMerger3(maxBytesInMemory,
             maxBytesToFile, shuffleDirectory, getOperationName(target),
             dataFlowOperation.getKeyType(), dataFlowOperation.getDataType(), comparator, target,
             this.groupByKey, parallelIOAllowance);
+      } else if (sorted) {
+        sortedMerger = new FSKeyedSortedMerger2(maxBytesInMemory,
+            maxBytesToFile, shuffleDirectory, getOperationName(target),
+            dataFlowOperation.getKeyType(), dataFlowOperation.getDataType(), comparator, target,
+            this.groupByKey, parallelIOAllowance, spillCodec);
       } else {
         sortedMerger = new FSKeyedMerger(maxBytesInMemory, maxRecordsInMemory, shuffleDirectory,
             getOperationName(target), dataFlowOperation.getKeyType(),
-            dataFlowOperation.getDataType());
+            dataFlowOperation.getDataType(), spillCodec);
       }
       sortedMergers.put(target, sortedMerger);
     }
@@ -31,10 +31,13 @@ import edu.iu.dsc.tws.api.comms.messaging.MessageReceiver;
 import edu.iu.dsc.tws.api.comms.messaging.types.MessageTypes;
 import edu.iu.dsc.tws.api.comms.structs.Tuple;
 import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.api.util.BlockCodec;
+import edu.iu.dsc.tws.api.util.BlockCodecs;
 import edu.iu.dsc.tws.comms.dfw.io.DFWIOUtils;
 import edu.iu.dsc.tws.comms.dfw.io.ReceiverState;
 import edu.iu.dsc.tws.comms.shuffle.FSKeyedMerger;
 import edu.iu.dsc.tws.comms.shuffle.FSKeyedSortedMerger2;
+import edu.iu.dsc.tws.comms.shuffle.FSKeyedSortedMerger3;
 import edu.iu.dsc.tws.comms.shuffle.FSMerger;
 import edu.iu.dsc.tws.comms.shuffle.Shuffle;
 
@@ -124,6 +127,16 @@ public class DPartitionBatchFinalReceiver implements MessageReceiver {
 
   private Lock lock = new ReentrantLock();
 
+  /**
+   * The sorted merger to use
+   */
+  private String sortedMergerType;
+
+  /**
+   * The codec to compress the shuffle files
+   */
+  private BlockCodec spillCodec;
+
   /**
    * Weather we are complete
    */
@@ -144,6 +157,8 @@ public class DPartitionBatchFinalReceiver implements MessageReceiver {
     long maxRecordsInMemory = CommunicationContext.getShuffleMaxRecordsInMemory(cfg);
     long maxFileSize = CommunicationContext.getShuffleFileSize(cfg);
     int parallelIOAllowance = CommunicationContext.getParallelIOAllowance(cfg);
+    sortedMergerType = CommunicationContext.getShuffleSortedMerger(cfg);
+    spillCodec = BlockCodecs.fromConfig(cfg, BlockCodecs.SHUFFLE);
 
     expIds = expectedIds;
     thisWorker = op.getLogicalPlan().getThisWorker();
@@ -173,17 +188,24 @@ public class DPartitionBatchFinalReceiver implements MessageReceiver {
       Shuffle sortedMerger;
       if (partition.getKeyType() == null) {
         sortedMerger = new FSMerger(maxBytesInMemory, maxRecordsInMemory, shuffleDirectory,
-            DFWIOUtils.getOperationName(target, partition, refresh), partition.getDataType());
+            DFWIOUtils.getOperationName(target, partition, refresh), partition.getDataType(),
+            spillCodec);
       } else {
-        if (comparator != null) {
-          sortedMerger = new FSKeyedSortedMerger2(maxBytesInMemory, maxFileSize,
+        if (comparator != null && CommunicationContext.SHUFFLE_SORTED_MERGER_LOSER_TREE.equals(
+            sortedMergerType)) {
+          sortedMerger = new FSKeyedSortedMerger3(maxBytesInMemory, maxFileSize,
               shuffleDirectory, DFWIOUtils.getOperationName(target, partition, refresh),
               partition.getKeyType(), partition.getDataType(), comparator, target,
               groupByKey, parallelIOAllowance);
+        } else if (comparator != null) {
+          sortedMerger = new FSKeyedSortedMerger2(maxBytesInMemory, maxFileSize,
+              shuffleDirectory, DFWIOUtils.getOperationName(target, partition, refresh),
+              partition.getKeyType(), partition.getDataType(), comparator, target,
+              groupByKey, parallelIOAllowance, spillCodec);
         } else {
           sortedMerger = new FSKeyedMerger(maxBytesInMemory, maxRecordsInMemory, shuffleDirectory,
               DFWIOUtils.getOperationName(target, partition, refresh), partition.getKeyType(),
-              partition.getDataType());
+              partition.getDataType(), spillCodec);
         }
       }
       sortedMergers.put(target, sortedMerger);
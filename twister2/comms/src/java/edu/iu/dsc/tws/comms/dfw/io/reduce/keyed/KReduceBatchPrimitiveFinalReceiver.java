@@ -0,0 +1,271 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.dfw.io.reduce.keyed;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import edu.iu.dsc.tws.api.comms.BulkReceiver;
+import edu.iu.dsc.tws.api.comms.DataFlowOperation;
+import edu.iu.dsc.tws.api.comms.ReduceFunction;
+import edu.iu.dsc.tws.api.comms.messaging.types.MessageType;
+import edu.iu.dsc.tws.api.comms.messaging.types.MessageTypes;
+import edu.iu.dsc.tws.api.comms.structs.Tuple;
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.comms.dfw.io.ReceiverState;
+import edu.iu.dsc.tws.comms.dfw.io.TargetFinalReceiver;
+import edu.iu.dsc.tws.comms.functions.reduction.PrimitiveReduceFunction;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2DoubleMap;
+import it.unimi.dsi.fastutil.longs.Long2DoubleOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2LongMap;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+
+/**
+ * Keyed reduce final receiver for integer and long keys with integer, long or double values.
+ * The reduced values are kept in open addressing primitive maps instead of a map of objects,
+ * integer keys and values are widened to long. If the reduce function is a
+ * {@link PrimitiveReduceFunction} the values are reduced without boxing them.
+ */
+public class KReduceBatchPrimitiveFinalReceiver extends TargetFinalReceiver {
+  /**
+   * Final receiver that get the reduced values for the operation
+   */
+  private BulkReceiver bulkReceiver;
+
+  /**
+   * Reduce function
+   */
+  private ReduceFunction reduceFunction;
+
+  /**
+   * The reduce function if it can work on primitives, null otherwise
+   */
+  private PrimitiveReduceFunction primitiveFunction;
+
+  /**
+   * Key type
+   */
+  private MessageType keyType;
+
+  /**
+   * Data type
+   */
+  private MessageType dataType;
+
+  /**
+   * The reduced integer and long values for each target and key
+   */
+  private Int2ObjectOpenHashMap<Long2LongOpenHashMap> reducedLongs =
+      new Int2ObjectOpenHashMap<>();
+
+  /**
+   * The reduced double values for each target and key
+   */
+  private Int2ObjectOpenHashMap<Long2DoubleOpenHashMap> reducedDoubles =
+      new Int2ObjectOpenHashMap<>();
+
+  public KReduceBatchPrimitiveFinalReceiver(ReduceFunction reduce, BulkReceiver receiver,
+                                            MessageType keyType, MessageType dataType) {
+    if (!isSupported(keyType, dataType)) {
+      throw new IllegalArgumentException("Un-supported key and data types: "
+          + keyType + ", " + dataType);
+    }
+    this.reduceFunction = reduce;
+    if (reduce instanceof PrimitiveReduceFunction) {
+      this.primitiveFunction = (PrimitiveReduceFunction) reduce;
+    }
+    this.bulkReceiver = receiver;
+    this.keyType = keyType;
+    this.dataType = dataType;
+  }
+
+  /**
+   * Check weather the key and data types can be handled by this receiver
+   *
+   * @param keyType key type
+   * @param dataType data type
+   * @return true if the keys are integers or longs and the values are integers, longs or doubles
+   */
+  public static boolean isSupported(MessageType keyType, MessageType dataType) {
+    return (keyType == MessageTypes.INTEGER || keyType == MessageTypes.LONG)
+        && (dataType == MessageTypes.INTEGER || dataType == MessageTypes.LONG
+        || dataType == MessageTypes.DOUBLE);
+  }
+
+  @Override
+  public void init(Config cfg, DataFlowOperation op, Map<Integer, List<Integer>> expectedIds) {
+    super.init(cfg, op, expectedIds);
+    this.bulkReceiver.init(cfg, expectedIds.keySet());
+    for (int t : expectedIds.keySet()) {
+      if (dataType == MessageTypes.DOUBLE) {
+        reducedDoubles.put(t, new Long2DoubleOpenHashMap());
+      } else {
+        reducedLongs.put(t, new Long2LongOpenHashMap());
+      }
+    }
+  }
+
+  @Override
+  protected void merge(int dest, List<Object> dests) {
+    if (dataType == MessageTypes.DOUBLE) {
+      Long2DoubleOpenHashMap targetValues = reducedDoubles.get(dest);
+      for (int i = 0; i < dests.size(); i++) {
+        Tuple t = toTuple(dests.get(i));
+        long key = ((Number) t.getKey()).longValue();
+        double value = (Double) t.getValue();
+        if (targetValues.containsKey(key)) {
+          targetValues.put(key, reduceDouble(targetValues.get(key), value));
+        } else {
+          targetValues.put(key, value);
+        }
+      }
+    } else {
+      Long2LongOpenHashMap targetValues = reducedLongs.get(dest);
+      for (int i = 0; i < dests.size(); i++) {
+        Tuple t = toTuple(dests.get(i));
+        long key = ((Number) t.getKey()).longValue();
+        long value = ((Number) t.getValue()).longValue();
+        if (targetValues.containsKey(key)) {
+          targetValues.put(key, reduceLong(targetValues.get(key), value));
+        } else {
+          targetValues.put(key, value);
+        }
+      }
+    }
+    dests.clear();
+  }
+
+  private Tuple toTuple(Object val) {
+    if (val instanceof Tuple) {
+      return (Tuple) val;
+    } else {
+      throw new RuntimeException("Un-expected type: " + val.getClass());
+    }
+  }
+
+  private long reduceLong(long current, long value) {
+    if (dataType == MessageTypes.INTEGER) {
+      if (primitiveFunction != null) {
+        return primitiveFunction.reduceInt((int) current, (int) value);
+      }
+      return ((Number) reduceFunction.reduce((int) current, (int) value)).longValue();
+    }
+
+    if (primitiveFunction != null) {
+      return primitiveFunction.reduceLong(current, value);
+    }
+    return ((Number) reduceFunction.reduce(current, value)).longValue();
+  }
+
+  private double reduceDouble(double current, double value) {
+    if (primitiveFunction != null) {
+      return primitiveFunction.reduceDouble(current, value);
+    }
+    return (Double) reduceFunction.reduce(current, value);
+  }
+
+  private Object boxKey(long key) {
+    if (keyType == MessageTypes.INTEGER) {
+      return (int) key;
+    }
+    return key;
+  }
+
+  private Object boxValue(long value) {
+    if (dataType == MessageTypes.INTEGER) {
+      return (int) value;
+    }
+    return value;
+  }
+
+  @Override
+  protected boolean isAllEmpty(int target) {
+    if (dataType == MessageTypes.DOUBLE) {
+      return !reducedDoubles.containsKey(target) || reducedDoubles.get(target).isEmpty();
+    }
+    return !reducedLongs.containsKey(target) || reducedLongs.get(target).isEmpty();
+  }
+
+  @Override
+  protected boolean sendToTarget(int source, int target) {
+    if (isAllEmpty(target)) {
+      return isFilledToSend(target);
+    }
+
+    boolean send;
+    if (dataType == MessageTypes.DOUBLE) {
+      send = bulkReceiver.receive(target, new DoubleReduceIterator(reducedDoubles.get(target)));
+      if (send) {
+        reducedDoubles.put(target, new Long2DoubleOpenHashMap());
+      }
+    } else {
+      send = bulkReceiver.receive(target, new LongReduceIterator(reducedLongs.get(target)));
+      if (send) {
+        reducedLongs.put(target, new Long2LongOpenHashMap());
+      }
+    }
+    return send;
+  }
+
+  @Override
+  protected boolean isFilledToSend(int target) {
+    return targetStates.get(target) == ReceiverState.ALL_SYNCS_RECEIVED
+        && messages.get(target).isEmpty();
+  }
+
+  @Override
+  public boolean onSyncEvent(int target, byte[] value) {
+    return bulkReceiver.sync(target, value);
+  }
+
+  private class LongReduceIterator implements Iterator<Object> {
+    private ObjectIterator<Long2LongMap.Entry> it;
+
+    LongReduceIterator(Long2LongOpenHashMap values) {
+      it = values.long2LongEntrySet().fastIterator();
+    }
+
+    @Override
+    public boolean hasNext() {
+      return it.hasNext();
+    }
+
+    @Override
+    public Tuple next() {
+      Long2LongMap.Entry entry = it.next();
+      return new Tuple<>(boxKey(entry.getLongKey()), boxValue(entry.getLongValue()));
+    }
+  }
+
+  private class DoubleReduceIterator implements Iterator<Object> {
+    private ObjectIterator<Long2DoubleMap.Entry> it;
+
+    DoubleReduceIterator(Long2DoubleOpenHashMap values) {
+      it = values.long2DoubleEntrySet().fastIterator();
+    }
+
+    @Override
+    public boolean hasNext() {
+      return it.hasNext();
+    }
+
+    @Override
+    public Tuple next() {
+      Long2DoubleMap.Entry entry = it.next();
+      return new Tuple<>(boxKey(entry.getLongKey()), entry.getDoubleValue());
+    }
+  }
+}
@@ -0,0 +1,27 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.functions.reduction;
+
+import edu.iu.dsc.tws.api.comms.ReduceFunction;
+
+/**
+ * A reduce function that can reduce primitive values without boxing them. The keyed reduce
+ * receivers that keep the values in primitive maps call these methods instead of
+ * {@link ReduceFunction#reduce(Object, Object)}.
+ */
+public interface PrimitiveReduceFunction extends ReduceFunction {
+  int reduceInt(int v1, int v2);
+
+  long reduceLong(long v1, long v2);
+
+  double reduceDouble(double v1, double v2);
+}
@@ -16,16 +16,16 @@ import java.util.Map;
 
 import edu.iu.dsc.tws.api.comms.DataFlowOperation;
 import edu.iu.dsc.tws.api.comms.Op;
-import edu.iu.dsc.tws.api.comms.ReduceFunction;
 import edu.iu.dsc.tws.api.comms.messaging.types.MessageType;
 import edu.iu.dsc.tws.api.comms.messaging.types.MessageTypes;
 import edu.iu.dsc.tws.api.config.Config;
 import edu.iu.dsc.tws.api.exceptions.Twister2RuntimeException;
 
-public class ReduceOperationFunction implements ReduceFunction {
+public class ReduceOperationFunction implements PrimitiveReduceFunction {
 
   private MessageType messageType;
   private Op operation;
+  private AbstractOp abstractOp;
 
   public ReduceOperationFunction(Op operation, MessageType dtype) {
     if (dtype == MessageTypes.OBJECT || dtype == MessageTypes.STRING) {
@@ -34,6 +34,7 @@ public class ReduceOperationFunction implements ReduceFunction {
     }
     this.operation = operation;
     this.messageType = dtype;
+    this.abstractOp = abstractOp(operation);
   }
 
   @Override
@@ -140,20 +141,37 @@ public class ReduceOperationFunction implements ReduceFunction {
 
   @Override
   public Object reduce(Object data1, Object data2) {
-    if (this.operation == Op.SUM) { // Start SUM
-      return this.applyOp(data1, data2, OpSum.getInstance());
-    } else if (this.operation == Op.PRODUCT) {
-      return this.applyOp(data1, data2, OpProduct.getInstance());
-    } else if (this.operation == Op.DIVISION) {
-      return this.applyOp(data1, data2, OpDivision.getInstance());
-    } else if (this.operation == Op.MAX) {
-      return this.applyOp(data1, data2, OpMax.getInstance());
-    } else if (this.operation == Op.MIN) {
-      return this.applyOp(data1, data2, OpMin.getInstance());
+    return this.applyOp(data1, data2, abstractOp);
+  }
+
+  @Override
+  public int reduceInt(int v1, int v2) {
+    return abstractOp.doInt(v1, v2);
+  }
+
+  @Override
+  public long reduceLong(long v1, long v2) {
+    return abstractOp.doLong(v1, v2);
+  }
+
+  @Override
+  public double reduceDouble(double v1, double v2) {
+    return abstractOp.doDouble(v1, v2);
+  }
+
+  private static AbstractOp abstractOp(Op operation) {
+    if (operation == Op.SUM) {
+      return OpSum.getInstance();
+    } else if (operation == Op.PRODUCT) {
+      return OpProduct.getInstance();
+    } else if (operation == Op.DIVISION) {
+      return OpDivision.getInstance();
+    } else if (operation == Op.MAX) {
+      return OpMax.getInstance();
+    } else if (operation == Op.MIN) {
+      return OpMin.getInstance();
     } else {
       throw new Twister2RuntimeException("This operation is not supported.");
     }
   }
 }
-
-
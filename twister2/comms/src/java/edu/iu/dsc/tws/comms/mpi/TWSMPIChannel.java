@@ -25,6 +25,8 @@ import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 
 import edu.iu.dsc.tws.api.comms.CommunicationContext;
+import edu.iu.dsc.tws.api.comms.channel.ChannelCompletionListener;
+import edu.iu.dsc.tws.api.comms.channel.ChannelCompletionNotifier;
 import edu.iu.dsc.tws.api.comms.channel.ChannelListener;
 import edu.iu.dsc.tws.api.comms.channel.TWSChannel;
 import edu.iu.dsc.tws.api.comms.messaging.ChannelMessage;
@@ -125,6 +127,11 @@ public class TWSMPIChannel implements TWSChannel {
    */
   private List<Pair<Integer, Integer>> pendingCloseRequests = new ArrayList<>();
 
+  /**
+   * Notifies the listeners about the completed sends and receives
+   */
+  private ChannelCompletionNotifier completionNotifier = new ChannelCompletionNotifier();
+
   /**
    * Worker id
    */
@@ -316,9 +323,11 @@ public class TWSMPIChannel implements TWSChannel {
       if (sendRequests.pendingSends.size() == 0) {
         sendRequests.callback.onSendComplete(sendRequests.rank,
             sendRequests.edge, sendRequests.message);
+        completionNotifier.completed();
         sendRequestsIterator.remove();
       }
     }
+    completionNotifier.notifyListeners();
   }
 
   @Override
@@ -326,6 +335,17 @@ public class TWSMPIChannel implements TWSChannel {
     progressInternalReceives(groupedRegisteredReceives.get(receiveGroupIndex));
     // if there are pending close requests, lets handle them
     handlePendingCloseRequests();
+    completionNotifier.notifyListeners();
+  }
+
+  @Override
+  public void addCompletionListener(ChannelCompletionListener listener) {
+    completionNotifier.addListener(listener);
+  }
+
+  @Override
+  public void removeCompletionListener(ChannelCompletionListener listener) {
+    completionNotifier.removeListener(listener);
   }
 
   private void progressInternalReceives(List<MPIReceiveRequests> requests) {
@@ -350,6 +370,7 @@ public class TWSMPIChannel implements TWSChannel {
               //We do not have any buffers to receive messages so we need to free a buffer
               receiveRequests.callback.onReceiveComplete(
                   receiveRequests.rank, receiveRequests.edge, r.buffer);
+              completionNotifier.completed();
 
               pendingReceiveCount--;
               requestIterator.remove();
@@ -378,6 +399,7 @@ public class TWSMPIChannel implements TWSChannel {
     progressInternalReceives(registeredReceives);
     // if there are pending close requests, lets handle them
     handlePendingCloseRequests();
+    completionNotifier.notifyListeners();
   }
 
   /**
@@ -0,0 +1,333 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.shm;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import edu.iu.dsc.tws.api.exceptions.Twister2RuntimeException;
+import edu.iu.dsc.tws.comms.shuffle.MemoryMapUtils;
+
+/**
+ * A single producer, single consumer ring buffer in a memory mapped file. The producer and the
+ * consumer are in different processes on the same node, each side maps the same file.
+ * <p>
+ * The file starts with a header holding the write position and the read position in separate
+ * cache lines, followed by the data area. Every record is an integer length, an integer edge
+ * and the payload, padded to 8 bytes. A record never wraps around the end of the data area,
+ * if it does not fit a wrap marker is written and the record starts from the beginning.
+ * <p>
+ * The positions only grow, the offset in the data area is the position modulo the capacity.
+ * The positions are accessed through {@code sun.misc.Unsafe} at the address of the mapping. A
+ * position of the other side is read with a volatile load, so the records are not read before
+ * it, and our position is published with an ordered store after the record is written or
+ * copied out.
+ */
+public final class SharedMemoryRing {
+  private static final Logger LOG = Logger.getLogger(SharedMemoryRing.class.getName());
+
+  private static final int WRITE_POSITION_OFFSET = 0;
+
+  private static final int READ_POSITION_OFFSET = 64;
+
+  private static final int HEADER_SIZE = 128;
+
+  private static final int RECORD_HEADER_SIZE = 8;
+
+  private static final int WRAP_MARKER = -1;
+
+  /**
+   * {@code Unsafe.getLongVolatile(Object, long)} bound to the unsafe instance
+   */
+  private static final MethodHandle GET_LONG_VOLATILE;
+
+  /**
+   * {@code Unsafe.putOrderedLong(Object, long, long)} bound to the unsafe instance
+   */
+  private static final MethodHandle PUT_ORDERED_LONG;
+
+  /**
+   * Reads the address field of a direct buffer
+   */
+  private static final MethodHandle BUFFER_ADDRESS;
+
+  static {
+    try {
+      // sun.* classes cannot be imported, so the methods are looked up by name
+      Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+      Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+      theUnsafe.setAccessible(true);
+      Object unsafe = theUnsafe.get(null);
+
+      MethodHandles.Lookup lookup = MethodHandles.lookup();
+      GET_LONG_VOLATILE = lookup.findVirtual(unsafeClass, "getLongVolatile",
+          MethodType.methodType(long.class, Object.class, long.class)).bindTo(unsafe);
+      PUT_ORDERED_LONG = lookup.findVirtual(unsafeClass, "putOrderedLong",
+          MethodType.methodType(void.class, Object.class, long.class, long.class))
+          .bindTo(unsafe);
+      long addressOffset = (long) lookup.findVirtual(unsafeClass, "objectFieldOffset",
+          MethodType.methodType(long.class, Field.class))
+          .invoke(unsafe, Buffer.class.getDeclaredField("address"));
+      BUFFER_ADDRESS = MethodHandles.insertArguments(lookup.findVirtual(unsafeClass,
+          "getLong", MethodType.methodType(long.class, Object.class, long.class))
+          .bindTo(unsafe), 1, addressOffset);
+    } catch (Throwable t) {
+      throw new ExceptionInInitializerError(t);
+    }
+  }
+
+  /**
+   * The mapped file
+   */
+  private final Path file;
+
+  /**
+   * The mapped buffer including the header
+   */
+  private MappedByteBuffer buffer;
+
+  /**
+   * Size of the data area
+   */
+  private final int capacity;
+
+  /**
+   * Weather we created the file
+   */
+  private final boolean owner;
+
+  /**
+   * The position this side owns, the write position for the producer and read position
+   * for the consumer
+   */
+  private long position;
+
+  /**
+   * Address of the mapped buffer
+   */
+  private final long address;
+
+  private SharedMemoryRing(Path file, int capacity, boolean owner) {
+    this.file = file;
+    this.capacity = capacity;
+    this.owner = owner;
+    // the consumer creates the file, the producer opens the existing one
+    Set<StandardOpenOption> options = EnumSet.of(StandardOpenOption.READ,
+        StandardOpenOption.WRITE);
+    if (owner) {
+      options.add(StandardOpenOption.CREATE_NEW);
+    }
+    try (FileChannel channel = FileChannel.open(file, options)) {
+      this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + capacity);
+    } catch (IOException e) {
+      throw new Twister2RuntimeException("Failed to map the shared memory file: " + file, e);
+    }
+    try {
+      this.address = (long) BUFFER_ADDRESS.invokeExact((Object) buffer);
+    } catch (Throwable t) {
+      throw new Twister2RuntimeException("Failed to get the address of the shared memory", t);
+    }
+    this.position = owner ? 0 : load(WRITE_POSITION_OFFSET);
+  }
+
+  /**
+   * Create a new ring, any existing file with the same name is replaced. The consumer
+   * creates the ring before the producer opens it.
+   *
+   * @param file the file
+   * @param capacity size of the data area, rounded up to a multiple of 8
+   * @return the ring
+   */
+  public static SharedMemoryRing create(Path file, int capacity) {
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      throw new Twister2RuntimeException("Failed to delete the shared memory file: " + file, e);
+    }
+    return new SharedMemoryRing(file, align(capacity), true);
+  }
+
+  /**
+   * Open a ring created by the other side
+   *
+   * @param file the file
+   * @param capacity size of the data area, must be the same as the one used to create it
+   * @return the ring
+   */
+  public static SharedMemoryRing open(Path file, int capacity) {
+    return new SharedMemoryRing(file, align(capacity), false);
+  }
+
+  /**
+   * Write a record to the ring
+   *
+   * @param edge the edge
+   * @param src the source buffer, bytes are read from 0 to length
+   * @param length number of bytes
+   * @return false if there is not enough space in the ring
+   */
+  public boolean write(int edge, ByteBuffer src, int length) {
+    int recordSize = align(RECORD_HEADER_SIZE + length);
+    if (recordSize > capacity) {
+      throw new Twister2RuntimeException("Message of " + length
+          + " bytes is larger than the shared memory ring: " + capacity);
+    }
+
+    long free = capacity - (position - load(READ_POSITION_OFFSET));
+    int offset = (int) (position % capacity);
+    int toEnd = capacity - offset;
+    if (recordSize > toEnd) {
+      if (free < toEnd + recordSize) {
+        return false;
+      }
+      buffer.putInt(HEADER_SIZE + offset, WRAP_MARKER);
+      position += toEnd;
+      offset = 0;
+    } else if (free < recordSize) {
+      return false;
+    }
+
+    int start = HEADER_SIZE + offset;
+    buffer.putInt(start, length);
+    buffer.putInt(start + 4, edge);
+    src.limit(length);
+    src.position(0);
+    buffer.position(start + RECORD_HEADER_SIZE);
+    buffer.put(src);
+
+    position += recordSize;
+    publish(WRITE_POSITION_OFFSET);
+    return true;
+  }
+
+  /**
+   * Check weather there is a record to read
+   *
+   * @return true if a record is available
+   */
+  public boolean hasNext() {
+    long written = load(WRITE_POSITION_OFFSET);
+    while (position < written) {
+      int offset = (int) (position % capacity);
+      if (buffer.getInt(HEADER_SIZE + offset) != WRAP_MARKER) {
+        return true;
+      }
+      position += capacity - offset;
+      publish(READ_POSITION_OFFSET);
+    }
+    return false;
+  }
+
+  /**
+   * The edge of the next record, only valid after {@link #hasNext()} returns true
+   *
+   * @return the edge
+   */
+  public int nextEdge() {
+    return buffer.getInt(HEADER_SIZE + (int) (position % capacity) + 4);
+  }
+
+  /**
+   * The length of the next record, only valid after {@link #hasNext()} returns true
+   *
+   * @return number of bytes
+   */
+  public int nextLength() {
+    return buffer.getInt(HEADER_SIZE + (int) (position % capacity));
+  }
+
+  /**
+   * Copy the next record to the buffer and release the space in the ring, only valid after
+   * {@link #hasNext()} returns true
+   *
+   * @param dst the destination, bytes are written from its current position
+   */
+  public void read(ByteBuffer dst) {
+    int start = HEADER_SIZE + (int) (position % capacity);
+    int length = buffer.getInt(start);
+    buffer.limit(start + RECORD_HEADER_SIZE + length);
+    buffer.position(start + RECORD_HEADER_SIZE);
+    dst.put(buffer);
+    buffer.limit(buffer.capacity());
+
+    position += align(RECORD_HEADER_SIZE + length);
+    publish(READ_POSITION_OFFSET);
+  }
+
+  /**
+   * Unmap the ring, the side that created it deletes the file
+   */
+  public void close() {
+    if (buffer == null) {
+      return;
+    }
+    try {
+      MemoryMapUtils.unMapBuffer(buffer);
+    } catch (ReflectiveOperationException e) {
+      LOG.log(Level.FINE, "Failed to unmap the shared memory file: " + file, e);
+    }
+    buffer = null;
+    if (owner) {
+      try {
+        Files.deleteIfExists(file);
+      } catch (IOException e) {
+        LOG.log(Level.WARNING, "Failed to delete the shared memory file: " + file, e);
+      }
+    }
+  }
+
+  /**
+   * Read a position written by the other side. The accesses to the records after the volatile
+   * load are not moved before it.
+   */
+  private long load(int offset) {
+    if (buffer == null) {
+      // the address is no longer mapped
+      throw new Twister2RuntimeException("The shared memory ring is closed: " + file);
+    }
+    try {
+      return (long) GET_LONG_VOLATILE.invokeExact((Object) null, address + offset);
+    } catch (Throwable t) {
+      throw new Twister2RuntimeException("Failed to read the shared memory position", t);
+    }
+  }
+
+  /**
+   * Publish our position to the other side. The ordered store is not moved before the
+   * accesses to the records.
+   */
+  private void publish(int offset) {
+    try {
+      PUT_ORDERED_LONG.invokeExact((Object) null, address + offset, position);
+    } catch (Throwable t) {
+      throw new Twister2RuntimeException("Failed to publish the shared memory position", t);
+    }
+  }
+
+  private static int align(int size) {
+    return (size + 7) & ~7;
+  }
+}
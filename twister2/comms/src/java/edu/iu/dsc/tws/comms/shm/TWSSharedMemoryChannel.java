@@ -0,0 +1,463 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.shm;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import edu.iu.dsc.tws.api.comms.CommunicationContext;
+import edu.iu.dsc.tws.api.comms.channel.ChannelCompletionListener;
+import edu.iu.dsc.tws.api.comms.channel.ChannelCompletionNotifier;
+import edu.iu.dsc.tws.api.comms.channel.ChannelListener;
+import edu.iu.dsc.tws.api.comms.channel.TWSChannel;
+import edu.iu.dsc.tws.api.comms.messaging.ChannelMessage;
+import edu.iu.dsc.tws.api.comms.packing.DataBuffer;
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.api.config.Context;
+import edu.iu.dsc.tws.api.config.SchedulerContext;
+import edu.iu.dsc.tws.api.exceptions.TimeoutException;
+import edu.iu.dsc.tws.api.exceptions.Twister2RuntimeException;
+import edu.iu.dsc.tws.api.resource.IWorkerController;
+import edu.iu.dsc.tws.api.resource.Network;
+import edu.iu.dsc.tws.proto.jobmaster.JobMasterAPI;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectArrayMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+
+/**
+ * A channel that sends the messages to the workers on the same node through shared memory and
+ * uses another channel for the rest of the workers.
+ * <p>
+ * Two workers are on the same node if they have the same IP address. Every ordered pair of such
+ * workers has a {@link SharedMemoryRing} in the shared memory directory, created by the
+ * receiving worker. The buffers of a message are copied to the ring of the destination and the
+ * send completes as soon as they are copied. The receiver copies the records to the receive
+ * buffers of the edge and calls the listeners the same way as the other channels.
+ */
+public class TWSSharedMemoryChannel implements TWSChannel {
+  private static final Logger LOG = Logger.getLogger(TWSSharedMemoryChannel.class.getName());
+
+  /**
+   * The channel used for the workers on the other nodes
+   */
+  private TWSChannel remoteChannel;
+
+  private IWorkerController workerController;
+
+  private int workerId;
+
+  /**
+   * Directory of the ring files
+   */
+  private String directory;
+
+  /**
+   * Job id used to name the ring files
+   */
+  private String jobId;
+
+  /**
+   * Size of a ring
+   */
+  private int ringSize;
+
+  /**
+   * Rings to send to the local workers
+   */
+  private Int2ObjectOpenHashMap<SharedMemoryRing> sendRings = new Int2ObjectOpenHashMap<>();
+
+  /**
+   * Rings to receive from the local workers
+   */
+  private Int2ObjectOpenHashMap<SharedMemoryRing> receiveRings = new Int2ObjectOpenHashMap<>();
+
+  /**
+   * Sends waiting for space in the ring of each local worker
+   */
+  private Int2ObjectOpenHashMap<Queue<ShmSendRequest>> pendingSends =
+      new Int2ObjectOpenHashMap<>();
+
+  /**
+   * Number of pending sends to local workers
+   */
+  private int pendingSendCount = 0;
+
+  /**
+   * Maximum number of pending sends to local workers
+   */
+  private int maxPendingSends;
+
+  /**
+   * The receives registered for the local workers, by worker and edge
+   */
+  private Int2ObjectOpenHashMap<Int2ObjectOpenHashMap<ShmReceiveRequests>> receivesByWorker =
+      new Int2ObjectOpenHashMap<>();
+
+  /**
+   * The receives registered for the local workers
+   */
+  private List<ShmReceiveRequests> registeredReceives = new ArrayList<>();
+
+  /**
+   * The receives registered for the local workers, grouped
+   */
+  private Int2ObjectArrayMap<List<ShmReceiveRequests>> groupedRegisteredReceives =
+      new Int2ObjectArrayMap<>();
+
+  /**
+   * The groups with receives registered in the remote channel
+   */
+  private IntOpenHashSet remoteGroups = new IntOpenHashSet();
+
+  /**
+   * Notifies the listeners about the completed sends and receives
+   */
+  private ChannelCompletionNotifier completionNotifier = new ChannelCompletionNotifier();
+
+  private static final class ShmSendRequest {
+    private int edge;
+    private ChannelMessage message;
+    private ChannelListener callback;
+    /**
+     * Index of the next buffer of the message to copy
+     */
+    private int nextBuffer;
+
+    ShmSendRequest(int edge, ChannelMessage message, ChannelListener callback) {
+      this.edge = edge;
+      this.message = message;
+      this.callback = callback;
+    }
+  }
+
+  private static final class ShmReceiveRequests {
+    private int rank;
+    private int edge;
+    private ChannelListener callback;
+    private Queue<DataBuffer> availableBuffers;
+    /**
+     * Buffers filled from the ring, waiting to be given to the callback
+     */
+    private Queue<DataBuffer> completed = new ArrayDeque<>();
+
+    ShmReceiveRequests(int rank, int edge, ChannelListener callback,
+                       Queue<DataBuffer> availableBuffers) {
+      this.rank = rank;
+      this.edge = edge;
+      this.callback = callback;
+      this.availableBuffers = availableBuffers;
+    }
+  }
+
+  /**
+   * Create the shared memory channel
+   * @param config configuration
+   * @param wController controller
+   */
+  public TWSSharedMemoryChannel(Config config, IWorkerController wController) {
+    String remoteClass = CommunicationContext.shmChannelRemoteClass(config);
+    if (getClass().getName().equals(remoteClass)) {
+      throw new Twister2RuntimeException("The remote channel of the shared memory channel "
+          + "should be a different channel: " + remoteClass);
+    }
+    Config remoteConfig = Config.newBuilder().putAll(config)
+        .put(SchedulerContext.NETWORK_CLASS, remoteClass).build();
+    this.remoteChannel = Network.initializeChannel(remoteConfig, wController);
+
+    this.workerController = wController;
+    this.workerId = wController.getWorkerInfo().getWorkerID();
+    this.directory = CommunicationContext.shmChannelDirectory(config);
+    this.ringSize = CommunicationContext.shmChannelRingSize(config);
+    String id = Context.jobId(config);
+    this.jobId = id != null ? id : "twister2";
+    this.maxPendingSends = CommunicationContext.networkChannelPendingSize(config);
+
+    List<Integer> localWorkers = new ArrayList<>();
+    for (JobMasterAPI.WorkerInfo w : wController.getJoinedWorkers()) {
+      if (isLocal(w)) {
+        localWorkers.add(w.getWorkerID());
+      }
+    }
+    openRings(localWorkers);
+    LOG.fine(String.format("Worker %d uses shared memory for workers %s",
+        workerId, localWorkers));
+  }
+
+  /**
+   * Weather the worker is another worker on the same node as this worker
+   */
+  private boolean isLocal(JobMasterAPI.WorkerInfo w) {
+    return w.getWorkerID() != workerId
+        && w.getWorkerIP().equals(workerController.getWorkerInfo().getWorkerIP());
+  }
+
+  /**
+   * Create the rings to receive from the workers, wait until every worker has done the same
+   * and open the rings to send to them
+   */
+  private void openRings(List<Integer> workers) {
+    for (int w : workers) {
+      receiveRings.put(w, SharedMemoryRing.create(ringFile(w, workerId), ringSize));
+      receivesByWorker.putIfAbsent(w, new Int2ObjectOpenHashMap<>());
+    }
+
+    try {
+      workerController.waitOnBarrier();
+    } catch (TimeoutException timeoutException) {
+      LOG.log(Level.SEVERE, timeoutException.getMessage(), timeoutException);
+      throw new Twister2RuntimeException(timeoutException);
+    }
+
+    for (int w : workers) {
+      sendRings.put(w, SharedMemoryRing.open(ringFile(workerId, w), ringSize));
+      pendingSends.putIfAbsent(w, new ArrayDeque<>());
+    }
+  }
+
+  private Path ringFile(int from, int to) {
+    return Paths.get(directory, String.format("twister2-%s-%d-%d.ring", jobId, from, to));
+  }
+
+  @Override
+  public boolean sendMessage(int id, ChannelMessage message, ChannelListener callback) {
+    Queue<ShmSendRequest> sends = pendingSends.get(id);
+    if (sends == null) {
+      return remoteChannel.sendMessage(id, message, callback);
+    }
+
+    if (pendingSendCount >= maxPendingSends) {
+      return false;
+    }
+    sends.offer(new ShmSendRequest(message.getHeader().getEdge(), message, callback));
+    pendingSendCount++;
+    return true;
+  }
+
+  @Override
+  public boolean receiveMessage(int group, int id, int edge,
+                                ChannelListener callback, Queue<DataBuffer> receiveBuffers) {
+    Int2ObjectOpenHashMap<ShmReceiveRequests> edges = receivesByWorker.get(id);
+    if (edges == null) {
+      remoteGroups.add(group);
+      return remoteChannel.receiveMessage(group, id, edge, callback, receiveBuffers);
+    }
+
+    ShmReceiveRequests requests = new ShmReceiveRequests(id, edge, callback, receiveBuffers);
+    edges.put(edge, requests);
+    registeredReceives.add(requests);
+    List<ShmReceiveRequests> list = groupedRegisteredReceives.get(group);
+    if (list == null) {
+      list = new ArrayList<>();
+      groupedRegisteredReceives.put(group, list);
+    }
+    list.add(requests);
+    return true;
+  }
+
+  @Override
+  public void progress() {
+    remoteChannel.progress();
+
+    progressShmSends();
+    readRings();
+    notifyReceives(registeredReceives);
+    completionNotifier.notifyListeners();
+  }
+
+  @Override
+  public void progressSends() {
+    remoteChannel.progressSends();
+
+    progressShmSends();
+    completionNotifier.notifyListeners();
+  }
+
+  @Override
+  public void progressReceives(int group) {
+    if (remoteGroups.contains(group)) {
+      remoteChannel.progressReceives(group);
+    }
+
+    List<ShmReceiveRequests> requests = groupedRegisteredReceives.get(group);
+    if (requests != null) {
+      readRings();
+      notifyReceives(requests);
+      completionNotifier.notifyListeners();
+    }
+  }
+
+  /**
+   * Copy the pending messages to the rings while there is space
+   */
+  private void progressShmSends() {
+    if (pendingSendCount == 0) {
+      return;
+    }
+
+    for (Int2ObjectOpenHashMap.Entry<Queue<ShmSendRequest>> e
+        : pendingSends.int2ObjectEntrySet()) {
+      Queue<ShmSendRequest> sends = e.getValue();
+      SharedMemoryRing ring = sendRings.get(e.getIntKey());
+      ShmSendRequest request = sends.peek();
+      while (request != null) {
+        List<DataBuffer> buffers = request.message.getNormalBuffers();
+        while (request.nextBuffer < buffers.size()) {
+          DataBuffer buffer = buffers.get(request.nextBuffer);
+          if (!ring.write(request.edge, buffer.getByteBuffer(), buffer.getSize())) {
+            break;
+          }
+          request.nextBuffer++;
+        }
+        if (request.nextBuffer < buffers.size()) {
+          break;
+        }
+
+        sends.poll();
+        pendingSendCount--;
+        request.callback.onSendComplete(e.getIntKey(), request.edge, request.message);
+        completionNotifier.completed();
+        request = sends.peek();
+      }
+    }
+  }
+
+  /**
+   * Copy the records in the receive rings to the receive buffers of the edges. A ring stops
+   * at a record if its edge has no free receive buffers.
+   */
+  private void readRings() {
+    for (Int2ObjectOpenHashMap.Entry<SharedMemoryRing> e : receiveRings.int2ObjectEntrySet()) {
+      SharedMemoryRing ring = e.getValue();
+      Int2ObjectOpenHashMap<ShmReceiveRequests> edges = receivesByWorker.get(e.getIntKey());
+      while (ring.hasNext()) {
+        ShmReceiveRequests requests = edges.get(ring.nextEdge());
+        if (requests == null) {
+          break;
+        }
+        DataBuffer buffer = requests.availableBuffers.poll();
+        if (buffer == null) {
+          break;
+        }
+
+        ByteBuffer byteBuffer = buffer.getByteBuffer();
+        if (ring.nextLength() > byteBuffer.capacity()) {
+          throw new Twister2RuntimeException("Receive buffer of " + byteBuffer.capacity()
+              + " bytes is smaller than the message: " + ring.nextLength());
+        }
+        byteBuffer.clear();
+        ring.read(byteBuffer);
+        byteBuffer.flip();
+        buffer.setSize(byteBuffer.limit());
+        requests.completed.offer(buffer);
+      }
+    }
+  }
+
+  private void notifyReceives(List<ShmReceiveRequests> requests) {
+    for (int i = 0; i < requests.size(); i++) {
+      ShmReceiveRequests r = requests.get(i);
+      DataBuffer buffer = r.completed.poll();
+      while (buffer != null) {
+        r.callback.onReceiveComplete(r.rank, r.edge, buffer);
+        completionNotifier.completed();
+        buffer = r.completed.poll();
+      }
+    }
+  }
+
+  @Override
+  public boolean isComplete() {
+    return pendingSendCount == 0 && remoteChannel.isComplete();
+  }
+
+  @Override
+  public ByteBuffer createBuffer(int capacity) {
+    return remoteChannel.createBuffer(capacity);
+  }
+
+  @Override
+  public void close() {
+    while (pendingSendCount > 0) {
+      progressShmSends();
+    }
+    remoteChannel.close();
+
+    for (SharedMemoryRing ring : sendRings.values()) {
+      ring.close();
+    }
+    for (SharedMemoryRing ring : receiveRings.values()) {
+      ring.close();
+    }
+    sendRings.clear();
+    receiveRings.clear();
+  }
+
+  @Override
+  public void releaseBuffers(int wId, int e) {
+    Int2ObjectOpenHashMap<ShmReceiveRequests> edges = receivesByWorker.get(wId);
+    if (edges == null) {
+      remoteChannel.releaseBuffers(wId, e);
+      return;
+    }
+
+    ShmReceiveRequests requests = edges.remove(e);
+    if (requests != null) {
+      registeredReceives.remove(requests);
+      for (List<ShmReceiveRequests> list : groupedRegisteredReceives.values()) {
+        list.remove(requests);
+      }
+    }
+  }
+
+  @Override
+  public void addCompletionListener(ChannelCompletionListener listener) {
+    completionNotifier.addListener(listener);
+    remoteChannel.addCompletionListener(listener);
+  }
+
+  @Override
+  public void removeCompletionListener(ChannelCompletionListener listener) {
+    completionNotifier.removeListener(listener);
+    remoteChannel.removeCompletionListener(listener);
+  }
+
+  @Override
+  public void reInit(List<JobMasterAPI.WorkerInfo> restartedWorkers) {
+    remoteChannel.reInit(restartedWorkers);
+
+    // the restarted workers create new rings, so we replace ours with them
+    List<Integer> localWorkers = new ArrayList<>();
+    for (JobMasterAPI.WorkerInfo w : restartedWorkers) {
+      int id = w.getWorkerID();
+      boolean wasLocal = receiveRings.containsKey(id);
+      if (wasLocal != isLocal(w)) {
+        throw new Twister2RuntimeException("Worker " + id
+            + " is restarted on a different node, which is not supported by the shared "
+            + "memory channel");
+      }
+      if (wasLocal) {
+        receiveRings.remove(id).close();
+        sendRings.remove(id).close();
+        localWorkers.add(id);
+      }
+    }
+    openRings(localWorkers);
+  }
+}
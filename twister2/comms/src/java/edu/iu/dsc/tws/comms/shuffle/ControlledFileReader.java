@@ -13,6 +13,7 @@ package edu.iu.dsc.tws.comms.shuffle;
 
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
 import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
 import java.util.Comparator;
@@ -24,6 +25,9 @@ import java.util.logging.Logger;
 
 import edu.iu.dsc.tws.api.comms.messaging.types.MessageType;
 import edu.iu.dsc.tws.api.comms.structs.Tuple;
+import edu.iu.dsc.tws.api.util.BlockCodec;
+import edu.iu.dsc.tws.api.util.BlockCodecs;
+import edu.iu.dsc.tws.api.util.BlockFileReader;
 
 
 public class ControlledFileReader implements ControlledReader<Tuple> {
@@ -33,13 +37,23 @@ public class ControlledFileReader implements ControlledReader<Tuple> {
   private final String filePath;
   private RandomAccessFile raf;
   private ControlledFileReaderFlags meta;
-  private MappedByteBuffer buffer;
+  private ByteBuffer buffer;
   private FileChannel channel;
 
+  /**
+   * Reader of a block compressed file, the buffer is the current block of this reader
+   */
+  private BlockFileReader blockReader;
+
   private MessageType keyType;
   private MessageType dataType;
   private Comparator keyComparator;
 
+  /**
+   * The codec the file was written with
+   */
+  private BlockCodec codec;
+
   private Queue<Object> keysQ = new LinkedList<>();
   private Queue<Object> valuesQ = new LinkedList<>();
   private Queue<Integer> valueSizeQ = new LinkedList<>();
@@ -53,11 +67,21 @@ public class ControlledFileReader implements ControlledReader<Tuple> {
                               MessageType keyType,
                               MessageType dataType,
                               Comparator keyComparator) {
+    this(meta, filePath, keyType, dataType, keyComparator, BlockCodecs.NONE);
+  }
+
+  public ControlledFileReader(ControlledFileReaderFlags meta,
+                              String filePath,
+                              MessageType keyType,
+                              MessageType dataType,
+                              Comparator keyComparator,
+                              BlockCodec codec) {
     this.filePath = filePath;
     this.meta = meta;
     this.keyComparator = keyComparator;
     this.keyType = keyType;
     this.dataType = dataType;
+    this.codec = codec;
 
     if (filePath != null) {
       this.open();
@@ -67,7 +91,12 @@ public class ControlledFileReader implements ControlledReader<Tuple> {
 
   public void open() {
     try {
-      if (buffer == null) {
+      if (buffer == null && codec != BlockCodecs.NONE) {
+        this.blockReader = BlockFileReader.open(filePath);
+        this.blockReader.seek(this.mappedTill);
+        this.buffer = this.blockReader.buffer();
+        this.meta.increaseMemMapLoad(this);
+      } else if (buffer == null) {
         this.raf = new RandomAccessFile(filePath, "r");
         this.channel = raf.getChannel();
         this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, this.mappedTill,
@@ -94,11 +123,20 @@ public class ControlledFileReader implements ControlledReader<Tuple> {
    * </p>
    */
   public void releaseResources() {
-    if (this.buffer != null) {
+    if (this.blockReader != null) {
+      this.mappedTill = this.blockReader.position();
+      try {
+        this.blockReader.close();
+      } catch (IOException e) {
+        LOG.log(Level.SEVERE, "Error in releasing resources", e);
+      }
+      this.blockReader = null;
+      this.buffer = null;
+    } else if (this.buffer != null) {
       this.mappedTill = this.mappedTill + this.buffer.position();
       boolean unmapped = false;
       try {
-        unmapped = MemoryMapUtils.unMapBuffer(this.buffer);
+        unmapped = MemoryMapUtils.unMapBuffer((MappedByteBuffer) this.buffer);
       } catch (Exception e) {
         //do nothing
       }
@@ -120,8 +158,24 @@ public class ControlledFileReader implements ControlledReader<Tuple> {
     }
   }
 
+  /**
+   * Weather there are more records, moves to the next block of a compressed file
+   */
+  private boolean hasRemaining() {
+    if (this.blockReader == null) {
+      return this.buffer.hasRemaining();
+    }
+    try {
+      boolean remaining = this.blockReader.hasRemaining();
+      this.buffer = this.blockReader.buffer();
+      return remaining;
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to read the block from " + filePath, e);
+    }
+  }
+
   private Object readNextKey() {
-    if (this.buffer.hasRemaining()) {
+    if (this.hasRemaining()) {
       int nextKeySize = this.getNextKeySize();
       Object nextKey = this.keyType.getDataPacker().unpackFromBuffer(this.buffer, nextKeySize);
       this.keysQ.add(nextKey);
@@ -134,7 +188,7 @@ public class ControlledFileReader implements ControlledReader<Tuple> {
    * This method reads the next value from file and increases the memory load
    */
   private Object readNextValue() {
-    if (this.buffer.hasRemaining()) {
+    if (this.hasRemaining()) {
       int dataSize = this.buffer.getInt();
       Object nextValue = dataType.getDataPacker().unpackFromBuffer(this.buffer, dataSize);
 
@@ -215,11 +269,15 @@ public class ControlledFileReader implements ControlledReader<Tuple> {
     this.restorePoint.put(RP_KEYED_Q, new LinkedList<>(this.keysQ));
     this.restorePoint.put(RP_VALUES_Q, new LinkedList<>(this.valuesQ));
     this.restorePoint.put(RP_VALUE_SIZE_Q, new LinkedList<>(this.valueSizeQ));
-    int bufferPosition = 0;
-    if (this.buffer != null) {
-      bufferPosition = this.buffer.position();
+    if (this.blockReader != null) {
+      this.restorePoint.put(RP_MAPPED_TILL, this.blockReader.position());
+    } else {
+      int bufferPosition = 0;
+      if (this.buffer != null) {
+        bufferPosition = this.buffer.position();
+      }
+      this.restorePoint.put(RP_MAPPED_TILL, this.mappedTill + bufferPosition);
     }
-    this.restorePoint.put(RP_MAPPED_TILL, this.mappedTill + bufferPosition);
     this.restorePoint.put(RP_KEEP_OPEN, this.buffer != null);
   }
 
@@ -25,7 +25,11 @@ import org.apache.commons.io.FileUtils;
 
 import edu.iu.dsc.tws.api.comms.messaging.types.MessageType;
 import edu.iu.dsc.tws.api.comms.structs.Tuple;
+import edu.iu.dsc.tws.api.util.BlockCodec;
+import edu.iu.dsc.tws.api.util.BlockCodecs;
 import edu.iu.dsc.tws.api.util.KryoSerializer;
+import edu.iu.dsc.tws.api.util.SpillIOService;
+import edu.iu.dsc.tws.api.util.SpillWriter;
 
 /**
  * Un sorted merger
@@ -82,6 +86,11 @@ public class FSKeyedMerger implements Shuffle {
    */
   private List<Long> filePartBytes = new ArrayList<>();
 
+  /**
+   * The files that are being written in the background
+   */
+  private List<SpillWriter> pendingSpills = new ArrayList<>();
+
   /**
    * Amount of bytes in the memory
    */
@@ -111,15 +120,27 @@ public class FSKeyedMerger implements Shuffle {
 
   private FSStatus status = FSStatus.WRITING;
 
+  /**
+   * The codec to compress the files
+   */
+  private BlockCodec codec;
+
   public FSKeyedMerger(long maxBytesInMemory, long maxRecsInMemory,
                        String dir, String opName, MessageType kType,
                        MessageType dType) {
+    this(maxBytesInMemory, maxRecsInMemory, dir, opName, kType, dType, BlockCodecs.NONE);
+  }
+
+  public FSKeyedMerger(long maxBytesInMemory, long maxRecsInMemory,
+                       String dir, String opName, MessageType kType,
+                       MessageType dType, BlockCodec codec) {
     this.maxBytesToKeepInMemory = maxBytesInMemory;
     this.maxRecordsInMemory = maxRecsInMemory;
     this.folder = dir;
     this.operationName = opName;
     this.keyType = kType;
     this.dataType = dType;
+    this.codec = codec;
     this.kryoSerializer = new KryoSerializer();
   }
 
@@ -164,6 +185,7 @@ public class FSKeyedMerger implements Shuffle {
     lock.lock();
     try {
       status = FSStatus.READING;
+      waitForSpills();
       // lets convert the in-memory data to objects
       deserializeObjects();
     } finally {
@@ -171,6 +193,16 @@ public class FSKeyedMerger implements Shuffle {
     }
   }
 
+  /**
+   * Wait until the files written in the background are complete
+   */
+  private void waitForSpills() {
+    for (SpillWriter writer : pendingSpills) {
+      writer.await();
+    }
+    pendingSpills.clear();
+  }
+
   private void deserializeObjects() {
     for (int i = 0; i < recordsInMemory.size(); i++) {
       Tuple kv = recordsInMemory.get(i);
@@ -189,8 +221,12 @@ public class FSKeyedMerger implements Shuffle {
       if (numOfBytesInMemory > maxBytesToKeepInMemory
           || recordsInMemory.size() > maxRecordsInMemory) {
         // save the bytes to disk
-        long totalSize = FileLoader.saveKeyValues(recordsInMemory, bytesLength,
-            numOfBytesInMemory, getSaveFileName(noOfFileWritten), keyType);
+        SpillWriter writer = SpillIOService.open(getSaveFileName(noOfFileWritten), codec);
+        long totalSize = FileLoader.writeKeyValues(writer, recordsInMemory, bytesLength,
+            keyType);
+        // the file is completed in the background, we wait for it before reading
+        writer.closeAsync();
+        pendingSpills.add(writer);
         filePartBytes.add(totalSize);
 
         recordsInMemory.clear();
@@ -286,7 +322,7 @@ public class FSKeyedMerger implements Shuffle {
       // lets read the bytes from the file
       currentFileIndex++;
       openValue = FileLoader.readFile(getSaveFileName(currentFileIndex), keyType,
-          dataType, kryoSerializer);
+          dataType, kryoSerializer, codec);
       currentIndex = 0;
     }
 
@@ -311,6 +347,12 @@ public class FSKeyedMerger implements Shuffle {
    * Cleanup the directories
    */
   public void clean() {
+    lock.lock();
+    try {
+      waitForSpills();
+    } finally {
+      lock.unlock();
+    }
     File file = new File(getSaveFolderName());
     try {
       if (file.exists()) {
@@ -27,6 +27,8 @@ import java.util.logging.Logger;
 
 import edu.iu.dsc.tws.api.comms.messaging.types.MessageType;
 import edu.iu.dsc.tws.api.comms.structs.Tuple;
+import edu.iu.dsc.tws.api.util.BlockCodec;
+import edu.iu.dsc.tws.api.util.BlockCodecs;
 import edu.iu.dsc.tws.api.util.CommonThreadPool;
 
 /**
@@ -120,6 +122,11 @@ public class FSKeyedSortedMerger2 implements Shuffle {
 
   private FSStatus status = FSStatus.WRITING_MEMORY;
 
+  /**
+   * The codec to compress the files
+   */
+  private BlockCodec codec;
+
   /**
    * Create a key based sorted merger
    */
@@ -127,6 +134,18 @@ public class FSKeyedSortedMerger2 implements Shuffle {
                               String dir, String opName, MessageType kType,
                               MessageType dType, Comparator kComparator,
                               int tar, boolean groupByKey, int parallelIOAllowance) {
+    this(maxBytesInMemory, maxBytesToAFile, dir, opName, kType, dType, kComparator, tar,
+        groupByKey, parallelIOAllowance, BlockCodecs.NONE);
+  }
+
+  /**
+   * Create a key based sorted merger that compress the files with the codec
+   */
+  public FSKeyedSortedMerger2(long maxBytesInMemory, long maxBytesToAFile,
+                              String dir, String opName, MessageType kType,
+                              MessageType dType, Comparator kComparator,
+                              int tar, boolean groupByKey, int parallelIOAllowance,
+                              BlockCodec codec) {
     this.maxBytesToKeepInMemory = maxBytesInMemory;
     this.maxBytesFile = maxBytesToAFile;
     this.groupByKey = groupByKey;
@@ -140,6 +159,7 @@ public class FSKeyedSortedMerger2 implements Shuffle {
     this.keyType = kType;
     this.dataType = dType;
     this.keyComparator = kComparator;
+    this.codec = codec;
     this.comparatorWrapper = new ComparatorWrapper(keyComparator);
     this.parallelIOAllowance = parallelIOAllowance;
 
@@ -363,7 +383,7 @@ public class FSKeyedSortedMerger2 implements Shuffle {
       referenceToRecordsInMemory.sort(comparatorWrapper);
 
       long largestTupleWritten = FileLoader.saveKeyValues(
-          referenceToRecordsInMemory, bytesInMemory, fileName, keyType);
+          referenceToRecordsInMemory, null, bytesInMemory, fileName, keyType, codec);
       //todo get inside set?
       largestTupleSizeRecorded.set(Math.max(largestTupleSizeRecorded.get(), largestTupleWritten));
 
@@ -522,7 +542,8 @@ public class FSKeyedSortedMerger2 implements Shuffle {
             getSaveFileName(i),
             keyType,
             dataType,
-            keyComparator
+            keyComparator,
+            codec
         );
         if (fr.hasNext()) {
           controlledFileReaders.add(fr);
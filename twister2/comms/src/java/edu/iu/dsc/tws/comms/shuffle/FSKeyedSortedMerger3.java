@@ -0,0 +1,794 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.shuffle;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import edu.iu.dsc.tws.api.comms.messaging.types.MessageType;
+import edu.iu.dsc.tws.api.comms.messaging.types.MessageTypes;
+import edu.iu.dsc.tws.api.comms.packing.DataPacker;
+import edu.iu.dsc.tws.api.comms.structs.Tuple;
+import edu.iu.dsc.tws.api.util.CommonThreadPool;
+import edu.iu.dsc.tws.comms.utils.ByteArrayComparator;
+import edu.iu.dsc.tws.comms.utils.LoserTree;
+
+import it.unimi.dsi.fastutil.ints.AbstractIntComparator;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+
+/**
+ * Sorted merger that keeps the records of a run in flat arrays and sorts an index over them,
+ * in parallel for large runs. When the keys are byte arrays compared with
+ * {@link ByteArrayComparator}, the first 8 bytes of every key are kept as a long prefix and the
+ * keys are compared only when the prefixes are equal.
+ * <p>
+ * The sorted runs are written to files and merged with a {@link LoserTree} directly over the
+ * memory mapped files. Keys are read from the mapped buffers only when they are needed for
+ * comparing and values are deserialized only when the iterator returns them.
+ * <p>
+ * All the run files are mapped while reading, so the number of runs should stay below the
+ * memory map limit of the OS (vm.max_map_count). Use a larger file size for large shuffles.
+ */
+@SuppressWarnings({"unchecked", "rawtypes"})
+public class FSKeyedSortedMerger3 implements Shuffle {
+  private static final Logger LOG = Logger.getLogger(FSKeyedSortedMerger3.class.getName());
+
+  /**
+   * Runs smaller than this are sorted in the calling thread
+   */
+  private static final int PARALLEL_SORT_THRESHOLD = 8192;
+
+  private static final int INITIAL_RUN_CAPACITY = 1024;
+
+  /**
+   * Maximum bytes to keep in memory
+   */
+  private long maxBytesToKeepInMemory;
+
+  /**
+   * Maximum bytes in a single file to write
+   */
+  private long maxBytesFile;
+
+  private boolean groupByKey;
+
+  /**
+   * The base folder to work on
+   */
+  private String folder;
+
+  /**
+   * Operation name
+   */
+  private String operationName;
+
+  /**
+   * No of files written to the disk so far
+   * The files are started from 0 and go up to this amount
+   */
+  private int noOfFileWritten = 0;
+
+  /**
+   * The records kept in memory
+   */
+  private Run recordsInMemory;
+
+  /**
+   * Records that are going to be written to the next file
+   */
+  private Run recordsToDisk;
+
+  /**
+   * The type of the key used
+   */
+  private MessageType keyType;
+
+  /**
+   * The data type to be returned
+   */
+  private MessageType dataType;
+
+  /**
+   * The key comparator used for comparing keys
+   */
+  private Comparator keyComparator;
+
+  /**
+   * Weather we compare the long prefixes of the byte array keys
+   */
+  private boolean prefixKeys;
+
+  private int parallelIOAllowance;
+
+  private Semaphore concurrentIOs;
+
+  /**
+   * Error occurred while writing a file in the background
+   */
+  private AtomicReference<Throwable> writeError = new AtomicReference<>();
+
+  /**
+   * The file cursors opened for reading, these are released in clean
+   */
+  private List<FileCursor> openCursors = new ArrayList<>();
+
+  /**
+   * The id of the task
+   */
+  private int target;
+
+  private enum FSStatus {
+    WRITING_MEMORY,
+    WRITING_DISK,
+    READING,
+    DONE
+  }
+
+  private FSStatus status = FSStatus.WRITING_MEMORY;
+
+  /**
+   * Create a key based sorted merger
+   */
+  public FSKeyedSortedMerger3(long maxBytesInMemory, long maxBytesToAFile,
+                              String dir, String opName, MessageType kType,
+                              MessageType dType, Comparator kComparator,
+                              int tar, boolean groupByKey, int parallelIOAllowance) {
+    this.maxBytesToKeepInMemory = maxBytesInMemory;
+    this.maxBytesFile = maxBytesToAFile;
+    this.groupByKey = groupByKey;
+    this.folder = dir;
+    this.operationName = opName;
+    this.keyType = kType;
+    this.dataType = dType;
+    this.keyComparator = kComparator;
+    this.prefixKeys = kType == MessageTypes.BYTE_ARRAY
+        && kComparator instanceof ByteArrayComparator;
+    this.parallelIOAllowance = parallelIOAllowance;
+    this.concurrentIOs = new Semaphore(parallelIOAllowance);
+    this.target = tar;
+
+    this.recordsInMemory = new Run();
+    this.recordsToDisk = new Run();
+    LOG.info("Disk merger configured. Folder : " + folder
+        + ", Bytes in memory :" + maxBytesInMemory + ", File size: " + maxBytesFile);
+  }
+
+  /**
+   * Add the data to the file
+   */
+  public synchronized void add(Tuple tuple) {
+    byte[] data = (byte[]) tuple.getValue();
+    add(tuple.getKey(), data, data.length);
+  }
+
+  /**
+   * Add the data to the file
+   */
+  public synchronized void add(Object key, byte[] data, int length) {
+    if (status == FSStatus.READING) {
+      throw new RuntimeException("Cannot add after switching to reading");
+    }
+
+    if (status == FSStatus.WRITING_MEMORY) {
+      recordsInMemory.add(key, data, length);
+      // we switch to disk
+      if (recordsInMemory.bytes >= maxBytesToKeepInMemory) {
+        LOG.fine(String.format("Switching to write to disk memory %d >= maxMemory %d",
+            recordsInMemory.bytes, maxBytesToKeepInMemory));
+        status = FSStatus.WRITING_DISK;
+      }
+    } else {
+      recordsToDisk.add(key, data, length);
+    }
+  }
+
+  /**
+   * This method saves the data to file system
+   */
+  public synchronized void run() {
+    // if not writing to disk return
+    if (status != FSStatus.WRITING_DISK || recordsToDisk.bytes < maxBytesFile) {
+      return;
+    }
+
+    try {
+      // allow only 'parallelIOAllowance' parallel writes to disk
+      concurrentIOs.acquire();
+    } catch (InterruptedException e) {
+      LOG.log(Level.SEVERE, "Couldn't write to the file", e);
+      return;
+    }
+
+    Run run = recordsToDisk;
+    String fileName = getSaveFileName(noOfFileWritten);
+    Runnable fileSaveWorker = () -> {
+      try {
+        run.sort();
+        saveRun(run, fileName);
+      } catch (Throwable t) {
+        writeError.compareAndSet(null, t);
+      } finally {
+        concurrentIOs.release();
+      }
+    };
+    if (CommonThreadPool.isActive()) {
+      CommonThreadPool.getExecutor().execute(fileSaveWorker);
+    } else {
+      fileSaveWorker.run();
+    }
+
+    recordsToDisk = new Run();
+    noOfFileWritten++;
+  }
+
+  public synchronized void switchToReading() {
+    try {
+      // wait for the ongoing disk IOs
+      concurrentIOs.acquire(parallelIOAllowance);
+    } catch (InterruptedException e) {
+      LOG.log(Level.SEVERE, "Couldn't switch to reading", e);
+      throw new RuntimeException(e);
+    }
+
+    try {
+      if (writeError.get() != null) {
+        throw new RuntimeException("Failed to write the sorted runs", writeError.get());
+      }
+      LOG.fine(String.format("Reading from %d files", noOfFileWritten));
+      status = FSStatus.READING;
+
+      long start = System.currentTimeMillis();
+      // the records that are not yet written to the disk are merged as another run
+      recordsInMemory.sort();
+      recordsToDisk.sort();
+      LOG.fine("Memory sorting time: " + (System.currentTimeMillis() - start));
+    } finally {
+      concurrentIOs.release(parallelIOAllowance);
+    }
+  }
+
+  /**
+   * Save a sorted run to a file, in the same format as
+   * {@link FileLoader#saveKeyValues(List, long, String, MessageType)}
+   */
+  private void saveRun(Run run, String fileName) {
+    DataPacker keyPacker = keyType.getDataPacker();
+    boolean fixedKey = isFixedSizeKey();
+
+    long totalSize = 0;
+    byte[][] keyBytes = null;
+    if (fixedKey) {
+      totalSize += (long) run.size * keyType.getUnitSizeInBytes();
+    } else {
+      keyBytes = new byte[run.size][];
+      for (int i = 0; i < run.size; i++) {
+        keyBytes[i] = keyPacker.packToByteArray(run.keys[run.order[i]]);
+        totalSize += keyBytes[i].length + Integer.BYTES;
+      }
+    }
+    totalSize += run.bytes + (long) run.size * Integer.BYTES;
+
+    try {
+      Files.createDirectories(Paths.get(fileName).getParent());
+      MappedByteBuffer os;
+      try (RandomAccessFile raf = new RandomAccessFile(fileName, "rw");
+           FileChannel channel = raf.getChannel()) {
+        os = channel.map(FileChannel.MapMode.READ_WRITE, 0, totalSize);
+      }
+      for (int i = 0; i < run.size; i++) {
+        int record = run.order[i];
+        if (fixedKey) {
+          keyPacker.packToByteBuffer(os, run.keys[record]);
+        } else {
+          os.putInt(keyBytes[i].length);
+          os.put(keyBytes[i]);
+        }
+        os.putInt(run.lengths[record]);
+        os.put(run.values[record], 0, run.lengths[record]);
+      }
+      os.force();
+      unMap(os);
+    } catch (IOException e) {
+      LOG.log(Level.SEVERE, "Failed write to disc", e);
+      throw new RuntimeException(e);
+    }
+  }
+
+  private boolean isFixedSizeKey() {
+    return keyType.isPrimitive() && !keyType.isArray();
+  }
+
+  private static void unMap(MappedByteBuffer buffer) {
+    try {
+      MemoryMapUtils.unMapBuffer(buffer);
+    } catch (Exception e) {
+      LOG.log(Level.FINE, "Couldn't unmap the buffer, it will be released on GC", e);
+    }
+  }
+
+  /**
+   * Compare two keys, using the prefixes if possible
+   */
+  private int compareKeys(long prefix1, Object key1, long prefix2, Object key2) {
+    if (prefixKeys) {
+      int c = Long.compareUnsigned(prefix1, prefix2);
+      if (c != 0) {
+        return c;
+      }
+    }
+    return keyComparator.compare(key1, key2);
+  }
+
+  /**
+   * A run of records. The records are kept in the order they are added and sorted through
+   * an index
+   */
+  private final class Run {
+    private Object[] keys = new Object[INITIAL_RUN_CAPACITY];
+    private byte[][] values = new byte[INITIAL_RUN_CAPACITY][];
+    private int[] lengths = new int[INITIAL_RUN_CAPACITY];
+    private long[] prefixes = prefixKeys ? new long[INITIAL_RUN_CAPACITY] : null;
+    private int[] order;
+    private int size;
+    private long bytes;
+
+    private void add(Object key, byte[] data, int length) {
+      if (size == keys.length) {
+        int capacity = keys.length * 2;
+        keys = Arrays.copyOf(keys, capacity);
+        values = Arrays.copyOf(values, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+        if (prefixes != null) {
+          prefixes = Arrays.copyOf(prefixes, capacity);
+        }
+      }
+      keys[size] = key;
+      values[size] = data;
+      lengths[size] = length;
+      if (prefixes != null) {
+        prefixes[size] = ByteArrayComparator.prefix((byte[]) key);
+      }
+      size++;
+      bytes += length;
+    }
+
+    private void sort() {
+      order = new int[size];
+      for (int i = 0; i < size; i++) {
+        order[i] = i;
+      }
+      AbstractIntComparator comparator = new AbstractIntComparator() {
+        @Override
+        public int compare(int r1, int r2) {
+          return compareKeys(prefixes != null ? prefixes[r1] : 0, keys[r1],
+              prefixes != null ? prefixes[r2] : 0, keys[r2]);
+        }
+      };
+      if (size >= PARALLEL_SORT_THRESHOLD) {
+        IntArrays.parallelQuickSort(order, comparator);
+      } else {
+        IntArrays.quickSort(order, comparator);
+      }
+    }
+  }
+
+  /**
+   * Reads the records of a sorted run in order
+   */
+  private abstract class RunCursor {
+    /**
+     * Weather all the records are read
+     */
+    abstract boolean isDone();
+
+    /**
+     * The prefix of the current key, only valid for byte array keys
+     */
+    abstract long prefix();
+
+    abstract Object key();
+
+    abstract Object value();
+
+    /**
+     * Move to the next record
+     */
+    abstract void advance();
+
+    /**
+     * The position of the current record, used for restore points
+     */
+    abstract int position();
+
+    abstract void seek(int position);
+  }
+
+  /**
+   * Reads a run kept in memory
+   */
+  private final class MemoryCursor extends RunCursor {
+    private Run run;
+    private int index;
+
+    private MemoryCursor(Run run) {
+      this.run = run;
+    }
+
+    @Override
+    boolean isDone() {
+      return index >= run.size;
+    }
+
+    @Override
+    long prefix() {
+      return run.prefixes != null ? run.prefixes[run.order[index]] : 0;
+    }
+
+    @Override
+    Object key() {
+      return run.keys[run.order[index]];
+    }
+
+    @Override
+    Object value() {
+      int record = run.order[index];
+      return dataType.getDataPacker().unpackFromBuffer(ByteBuffer.wrap(run.values[record]),
+          0, run.lengths[record]);
+    }
+
+    @Override
+    void advance() {
+      index++;
+    }
+
+    @Override
+    int position() {
+      return index;
+    }
+
+    @Override
+    void seek(int position) {
+      this.index = position;
+    }
+  }
+
+  /**
+   * Reads a run from a memory mapped file
+   */
+  private final class FileCursor extends RunCursor {
+    private MappedByteBuffer buffer;
+    private int recordStart;
+    private int keyOffset;
+    private int keyLength;
+    private int valueOffset;
+    private int valueLength;
+    private long keyPrefix;
+    private Object key;
+
+    private FileCursor(String fileName) {
+      try (RandomAccessFile raf = new RandomAccessFile(fileName, "r");
+           FileChannel channel = raf.getChannel()) {
+        this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      } catch (IOException e) {
+        LOG.log(Level.SEVERE, "Couldn't memory map file for reading", e);
+        throw new RuntimeException(e);
+      }
+      seek(0);
+    }
+
+    @Override
+    boolean isDone() {
+      return recordStart >= buffer.limit();
+    }
+
+    @Override
+    long prefix() {
+      return keyPrefix;
+    }
+
+    @Override
+    Object key() {
+      if (key == null) {
+        key = keyType.getDataPacker().unpackFromBuffer(buffer, keyOffset, keyLength);
+      }
+      return key;
+    }
+
+    @Override
+    Object value() {
+      return dataType.getDataPacker().unpackFromBuffer(buffer, valueOffset, valueLength);
+    }
+
+    @Override
+    void advance() {
+      seek(valueOffset + valueLength);
+    }
+
+    @Override
+    int position() {
+      return recordStart;
+    }
+
+    @Override
+    void seek(int position) {
+      this.recordStart = position;
+      this.key = null;
+      if (isDone()) {
+        return;
+      }
+
+      if (isFixedSizeKey()) {
+        keyOffset = position;
+        keyLength = keyType.getUnitSizeInBytes();
+      } else {
+        keyOffset = position + Integer.BYTES;
+        keyLength = buffer.getInt(position);
+      }
+      valueOffset = keyOffset + keyLength + Integer.BYTES;
+      valueLength = buffer.getInt(keyOffset + keyLength);
+
+      if (prefixKeys) {
+        // read the prefix without creating the key
+        keyPrefix = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+          keyPrefix <<= 8;
+          if (i < keyLength) {
+            keyPrefix |= buffer.get(keyOffset + i) & 0xff;
+          }
+        }
+      }
+    }
+
+    private void release() {
+      if (buffer != null) {
+        unMap(buffer);
+        buffer = null;
+      }
+    }
+  }
+
+  /**
+   * Merges the runs with a loser tree
+   */
+  private final class MergeStream {
+    private RunCursor[] cursors;
+    private LoserTree tree;
+
+    private MergeStream(List<RunCursor> runs) {
+      this.cursors = runs.toArray(new RunCursor[0]);
+      if (cursors.length > 0) {
+        this.tree = new LoserTree(cursors.length, new AbstractIntComparator() {
+          @Override
+          public int compare(int s1, int s2) {
+            RunCursor c1 = cursors[s1];
+            RunCursor c2 = cursors[s2];
+            if (c1.isDone()) {
+              return c2.isDone() ? 0 : 1;
+            } else if (c2.isDone()) {
+              return -1;
+            }
+            return compareKeys(c1.prefix(), c1.key(), c2.prefix(), c2.key());
+          }
+        });
+        this.tree.build();
+      }
+    }
+
+    private boolean hasNext() {
+      return tree != null && !head().isDone();
+    }
+
+    private RunCursor head() {
+      return cursors[tree.winner()];
+    }
+
+    private void advance() {
+      head().advance();
+      tree.replay();
+    }
+
+    private int[][] snapshot() {
+      if (tree == null) {
+        return null;
+      }
+      int[] positions = new int[cursors.length];
+      for (int i = 0; i < cursors.length; i++) {
+        positions[i] = cursors[i].position();
+      }
+      return new int[][]{positions, tree.snapshot()};
+    }
+
+    private void restore(int[][] snapshot) {
+      if (tree == null) {
+        return;
+      }
+      for (int i = 0; i < cursors.length; i++) {
+        cursors[i].seek(snapshot[0][i]);
+      }
+      tree.restore(snapshot[1]);
+    }
+  }
+
+  private MergeStream createMergeStream() {
+    List<RunCursor> runs = new ArrayList<>();
+    if (recordsInMemory.size > 0) {
+      runs.add(new MemoryCursor(recordsInMemory));
+    }
+    if (recordsToDisk.size > 0) {
+      runs.add(new MemoryCursor(recordsToDisk));
+    }
+    for (int i = 0; i < noOfFileWritten; i++) {
+      FileCursor cursor = new FileCursor(getSaveFileName(i));
+      openCursors.add(cursor);
+      runs.add(cursor);
+    }
+    return new MergeStream(runs);
+  }
+
+  /**
+   * This method gives the values
+   */
+  public RestorableIterator<Object> readIterator() {
+    return new RestorableIterator<Object>() {
+      private static final String RP_STREAM = "STREAM";
+      private static final String RP_IT_OF_CURR_KEY = "IT_OF_CURR_KEY";
+
+      private MergeStream stream = createMergeStream();
+      private Iterator itOfCurrentKey = null;
+
+      private RestorePoint restorePoint;
+
+      @Override
+      public void createRestorePoint() {
+        this.restorePoint = new RestorePoint();
+        this.restorePoint.put(RP_STREAM, stream.snapshot());
+        if (groupByKey) {
+          this.restorePoint.put(RP_IT_OF_CURR_KEY, this.itOfCurrentKey);
+        }
+      }
+
+      @Override
+      public void restore() {
+        if (!this.hasRestorePoint()) {
+          throw new RuntimeException("Couldn't find a valid restore point to restore from.");
+        }
+        this.stream.restore((int[][]) this.restorePoint.get(RP_STREAM));
+        this.itOfCurrentKey = (Iterator) this.restorePoint.get(RP_IT_OF_CURR_KEY);
+      }
+
+      @Override
+      public boolean hasRestorePoint() {
+        return this.restorePoint != null;
+      }
+
+      @Override
+      public void clearRestorePoint() {
+        this.restorePoint = null;
+      }
+
+      private void skipKeys() {
+        //user is trying to skip keys, we skip the remaining values of the current key
+        if (this.itOfCurrentKey != null) {
+          while (this.itOfCurrentKey.hasNext()) {
+            this.itOfCurrentKey.next();
+          }
+        }
+      }
+
+      @Override
+      public boolean hasNext() {
+        this.skipKeys();
+        return stream.hasNext();
+      }
+
+      @Override
+      public Tuple<Object, Object> next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException("There are no more keys to iterate");
+        }
+        RunCursor head = stream.head();
+        final Object currentKey = head.key();
+        final long currentPrefix = head.prefix();
+
+        Tuple<Object, Object> nextValueSet = new Tuple<>();
+        nextValueSet.setKey(currentKey);
+        if (groupByKey) {
+          this.itOfCurrentKey = new Iterator<Object>() {
+            @Override
+            public boolean hasNext() {
+              if (!stream.hasNext()) {
+                return false;
+              }
+              RunCursor cursor = stream.head();
+              return compareKeys(cursor.prefix(), cursor.key(), currentPrefix, currentKey) == 0;
+            }
+
+            @Override
+            public Object next() {
+              if (this.hasNext()) {
+                Object returnValue = stream.head().value();
+                stream.advance();
+                return returnValue;
+              } else {
+                throw new NoSuchElementException("There are no more values for key "
+                    + currentKey);
+              }
+            }
+          };
+          nextValueSet.setValue(this.itOfCurrentKey);
+        } else {
+          nextValueSet.setValue(head.value());
+          stream.advance();
+        }
+        return nextValueSet;
+      }
+    };
+  }
+
+  /**
+   * Cleanup the directories
+   */
+  public synchronized void clean() {
+    for (FileCursor cursor : openCursors) {
+      cursor.release();
+    }
+    openCursors.clear();
+
+    for (int i = 0; i < noOfFileWritten; i++) {
+      File file = new File(getSaveFileName(i));
+      if (file.exists()) {
+        boolean deleted = file.delete();
+        if (!deleted) {
+          LOG.warning("Couldn't delete file : " + file.getName());
+        }
+      }
+    }
+    File rootFolder = new File(this.getSaveFolderName());
+    rootFolder.deleteOnExit();
+    status = FSStatus.DONE;
+  }
+
+  /**
+   * Get the folder name to save the runs
+   *
+   * @return the save folder name
+   */
+  private String getSaveFolderName() {
+    return folder + "/" + operationName;
+  }
+
+  /**
+   * Get the file name to save the current part
+   *
+   * @param filePart file part index
+   * @return the save file name
+   */
+  private String getSaveFileName(int filePart) {
+    return this.getSaveFolderName() + "/part_" + filePart;
+  }
+}
@@ -25,7 +25,11 @@ import java.util.logging.Logger;
 import org.apache.commons.io.FileUtils;
 
 import edu.iu.dsc.tws.api.comms.messaging.types.MessageType;
+import edu.iu.dsc.tws.api.util.BlockCodec;
+import edu.iu.dsc.tws.api.util.BlockCodecs;
 import edu.iu.dsc.tws.api.util.KryoSerializer;
+import edu.iu.dsc.tws.api.util.SpillIOService;
+import edu.iu.dsc.tws.api.util.SpillWriter;
 
 /**
  * Save the records to file system and retrieve them, this is just values, so no
@@ -80,6 +84,11 @@ public class FSMerger implements Shuffle {
    */
   private List<Integer> filePartBytes = new ArrayList<>();
 
+  /**
+   * The files that are being written in the background
+   */
+  private List<SpillWriter> pendingSpills = new ArrayList<>();
+
   /**
    * Amount of bytes in the memory
    */
@@ -105,13 +114,24 @@ public class FSMerger implements Shuffle {
 
   private FSStatus status = FSStatus.WRITING;
 
+  /**
+   * The codec to compress the files
+   */
+  private BlockCodec codec;
+
   public FSMerger(long maxBytesInMemory, long maxRecsInMemory,
                   String dir, String opName, MessageType vType) {
+    this(maxBytesInMemory, maxRecsInMemory, dir, opName, vType, BlockCodecs.NONE);
+  }
+
+  public FSMerger(long maxBytesInMemory, long maxRecsInMemory,
+                  String dir, String opName, MessageType vType, BlockCodec codec) {
     this.maxBytesToKeepInMemory = maxBytesInMemory;
     this.maxRecordsInMemory = maxRecsInMemory;
     this.folder = dir;
     this.operationName = opName;
     this.valueType = vType;
+    this.codec = codec;
     this.kryoSerializer = new KryoSerializer();
   }
 
@@ -139,10 +159,26 @@ public class FSMerger implements Shuffle {
   }
 
   public void switchToReading() {
-    status = FSStatus.READING;
+    lock.lock();
+    try {
+      status = FSStatus.READING;
+      waitForSpills();
+    } finally {
+      lock.unlock();
+    }
     deserializeObjects();
   }
 
+  /**
+   * Wait until the files written in the background are complete
+   */
+  private void waitForSpills() {
+    for (SpillWriter writer : pendingSpills) {
+      writer.await();
+    }
+    pendingSpills.clear();
+  }
+
   private void deserializeObjects() {
     for (int i = 0; i < bytesInMemory.size(); i++) {
       Object o = valueType.getDataPacker().unpackFromByteArray(bytesInMemory.get(i));
@@ -162,8 +198,11 @@ public class FSMerger implements Shuffle {
         // save the bytes to disk
         LOG.log(Level.FINE, String.format("Save objects bytes %d objects %d",
             numOfBytesInMemory, bytesInMemory.size()));
-        FileLoader.saveObjects(bytesInMemory, bytesLength,
-            numOfBytesInMemory, getSaveFileName(noOfFileWritten));
+        SpillWriter writer = SpillIOService.open(getSaveFileName(noOfFileWritten), codec);
+        FileLoader.writeObjects(writer, bytesInMemory, bytesLength);
+        // the file is completed in the background, we wait for it before reading
+        writer.closeAsync();
+        pendingSpills.add(writer);
 
         bytesInMemory.clear();
         bytesLength.clear();
@@ -243,7 +282,7 @@ public class FSMerger implements Shuffle {
       // lets read the bytes from the file
       currentFileIndex++;
       openValues = FileLoader.readFile(getSaveFileName(currentFileIndex),
-          valueType, kryoSerializer);
+          valueType, kryoSerializer, codec);
       currentIndex = 0;
     }
 
@@ -268,6 +307,12 @@ public class FSMerger implements Shuffle {
    * Cleanup the directories
    */
   public void clean() {
+    lock.lock();
+    try {
+      waitForSpills();
+    } finally {
+      lock.unlock();
+    }
     File file = new File(getSaveFolderName());
     try {
       FileUtils.cleanDirectory(file);
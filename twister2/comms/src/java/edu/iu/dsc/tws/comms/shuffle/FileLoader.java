@@ -14,9 +14,7 @@ package edu.iu.dsc.tws.comms.shuffle;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
-import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
-import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
@@ -29,7 +27,12 @@ import org.apache.commons.lang3.tuple.Triple;
 import edu.iu.dsc.tws.api.comms.messaging.types.MessageType;
 import edu.iu.dsc.tws.api.comms.messaging.types.MessageTypes;
 import edu.iu.dsc.tws.api.comms.structs.Tuple;
+import edu.iu.dsc.tws.api.util.BlockCodec;
+import edu.iu.dsc.tws.api.util.BlockCodecs;
+import edu.iu.dsc.tws.api.util.BlockFileReader;
 import edu.iu.dsc.tws.api.util.KryoSerializer;
+import edu.iu.dsc.tws.api.util.SpillIOService;
+import edu.iu.dsc.tws.api.util.SpillWriter;
 
 @SuppressWarnings({"unchecked", "rawtypes"})
 public final class FileLoader {
@@ -47,25 +50,27 @@ public final class FileLoader {
    */
   public static void saveObjects(List<byte[]> records, List<Integer> sizes,
                                  long size, String outFileName) {
-    try {
-      LOG.fine("Saving file: " + outFileName);
-      Files.createDirectories(Paths.get(outFileName).getParent());
-      FileChannel rwChannel = new RandomAccessFile(outFileName, "rw").getChannel();
-      // we need to write the size of each message
-      ByteBuffer os = rwChannel.map(FileChannel.MapMode.READ_WRITE, 0,
-          size + sizes.size() * 4);
-      int total = 0;
-      for (int i = 0; i < records.size(); i++) {
-        byte[] r = records.get(i);
-        total += sizes.get(i) + 4;
-        os.putInt(sizes.get(i));
-        os.put(r, 0, sizes.get(i));
-      }
-      rwChannel.force(true);
-      rwChannel.close();
-    } catch (IOException e) {
-      LOG.log(Level.SEVERE, "Failed write to disc", e);
-      throw new RuntimeException(e);
+    LOG.fine("Saving file: " + outFileName);
+    SpillWriter writer = SpillIOService.open(outFileName);
+    writeObjects(writer, records, sizes);
+    writer.await();
+  }
+
+  /**
+   * Write the list of records to a spill writer, in the format of
+   * {@link #saveObjects(List, List, long, String)}. The records can be modified after this
+   * method returns.
+   *
+   * @param writer the writer
+   * @param records records to be written
+   * @param sizes sizes of the records
+   */
+  public static void writeObjects(SpillWriter writer, List<byte[]> records, List<Integer> sizes) {
+    for (int i = 0; i < records.size(); i++) {
+      byte[] r = records.get(i);
+      writer.putInt(sizes.get(i));
+      writer.put(r, 0, sizes.get(i));
+      writer.markRecord();
     }
   }
 
@@ -79,73 +84,26 @@ public final class FileLoader {
    */
   public static long saveKeyValues(List<Tuple> records, List<Integer> sizes,
                                    long size, String outFileName, MessageType keyType) {
-    try {
-      long maxRecord = Long.MIN_VALUE; //max size of a tuple saved to this file
-
-      // first serialize keys
-      long totalSize = 0;
-      List<byte[]> byteKeys = new ArrayList<>();
-      if (keyType.isPrimitive() && !keyType.isArray()) {
-        totalSize += records.size() * keyType.getUnitSizeInBytes();
-      } else {
-        for (Tuple record : records) {
-          byte[] data = keyType.getDataPacker().packToByteArray(record.getKey());
-          totalSize += data.length; // data + length of key
-          if (keyType.getDataPacker().isHeaderRequired()) {
-            totalSize += Integer.BYTES;
-          }
-          byteKeys.add(data);
-        }
-      }
-
-      long sizeSum = 0; //just to check whether sizes match
-
-      // we need to write the data lengths and key lengths
-      int dataLengthSize = Integer.BYTES * records.size();
-      totalSize += size + dataLengthSize;
-
-      Files.createDirectories(Paths.get(outFileName).getParent());
-      RandomAccessFile randomAccessFile = new RandomAccessFile(outFileName, "rw");
-      FileChannel rwChannel = randomAccessFile.getChannel();
-      MappedByteBuffer os = rwChannel.map(FileChannel.MapMode.READ_WRITE, 0, totalSize);
-      for (int i = 0; i < records.size(); i++) {
-        long positionBefore = os.position(); //position of os before writing this tuple
-
-        Tuple keyValue = records.get(i);
-        byte[] r = (byte[]) keyValue.getValue(); //this has been already serialized
-        if (keyType.isPrimitive() && !keyType.isArray()) {
-          keyType.getDataPacker().packToByteBuffer(os, keyValue.getKey());
-        } else {
-          byte[] key = byteKeys.get(i);
-          if (keyType.getDataPacker().isHeaderRequired()) {
-            os.putInt(key.length);
-          }
-          os.put(key);
-        }
-
-        sizeSum += sizes.get(i);
-        os.putInt(sizes.get(i));
-        os.put(r, 0, sizes.get(i));
+    return saveKeyValues(records, sizes, size, outFileName, keyType, BlockCodecs.NONE);
+  }
 
-        long tupleSize = os.position() - positionBefore;
-        maxRecord = Math.max(maxRecord, tupleSize);
-      }
-      if (sizeSum != size) {
-        LOG.log(Level.WARNING, "Sum doesn't equal size: " + sizeSum + " != " + size);
-      }
-      rwChannel.close();
-      randomAccessFile.close();
-      try {
-        MemoryMapUtils.unMapBuffer(os);
-      } catch (Exception e) {
-        //ignore
-        LOG.warning("Couldn't manually unmap a byte buffer");
-      }
-      return maxRecord;
-    } catch (IOException e) {
-      LOG.log(Level.SEVERE, "Failed write to disc", e);
-      throw new RuntimeException(e);
-    }
+  /**
+   * Save the list of records to the file system, compressed to blocks with the codec
+   *
+   * @param records records to be written
+   * @param size total size of the records
+   * @param outFileName out file name
+   * @param codec the codec to compress the file
+   * @return maximum size of the tuple written to this file
+   */
+  public static long saveKeyValues(List<Tuple> records, List<Integer> sizes,
+                                   long size, String outFileName, MessageType keyType,
+                                   BlockCodec codec) {
+    SpillWriter writer = SpillIOService.open(outFileName, codec);
+    long maxRecord = writeKeyValues(writer, records, sizes, keyType);
+    writer.await();
+    checkSize(records, sizes, size);
+    return maxRecord;
   }
 
   /**
@@ -153,82 +111,89 @@ public final class FileLoader {
    */
   public static long saveKeyValues(List<Tuple> records,
                                    long size, String outFileName, MessageType keyType) {
-    try {
-      long maxRecord = Long.MIN_VALUE; //max size of a tuple saved to this file
+    SpillWriter writer = SpillIOService.open(outFileName);
+    long maxRecord = writeKeyValues(writer, records, null, keyType);
+    writer.await();
+    checkSize(records, null, size);
+    return maxRecord;
+  }
 
-      // first serialize keys
-      long totalSize = 0;
-      List<byte[]> byteKeys = null;
-      if (keyType.isPrimitive() && !keyType.isArray()) {
-        totalSize += records.size() * keyType.getUnitSizeInBytes();
+  /**
+   * Write the list of records to a spill writer, in the format of
+   * {@link #saveKeyValues(List, List, long, String, MessageType)}. The records can be modified
+   * after this method returns.
+   *
+   * @param writer the writer
+   * @param records records to be written, values should be serialized
+   * @param sizes sizes of the values, if null the length of the values are used
+   * @param keyType key type
+   * @return maximum size of the tuple written
+   */
+  public static long writeKeyValues(SpillWriter writer, List<Tuple> records, List<Integer> sizes,
+                                    MessageType keyType) {
+    long maxRecord = Long.MIN_VALUE; //max size of a tuple saved to this file
+    boolean primitiveKey = keyType.isPrimitive() && !keyType.isArray();
+    byte[] primitiveKeyBytes = primitiveKey ? new byte[keyType.getUnitSizeInBytes()] : null;
+    ByteBuffer primitiveKeyBuffer = primitiveKey ? ByteBuffer.wrap(primitiveKeyBytes) : null;
+
+    int i = 0;
+    for (Tuple keyValue : records) {
+      long positionBefore = writer.getBytes(); //position before writing this tuple
+
+      byte[] r = (byte[]) keyValue.getValue(); //this has been already serialized
+      if (primitiveKey) {
+        primitiveKeyBuffer.clear();
+        keyType.getDataPacker().packToByteBuffer(primitiveKeyBuffer, keyValue.getKey());
+        writer.put(primitiveKeyBytes);
       } else {
-        byteKeys = new ArrayList<>(records.size()); //only initialize if required
-        for (Tuple record : records) {
-          byte[] data = keyType.getDataPacker().packToByteArray(record.getKey());
-          totalSize += data.length; // data + length of key
-          if (keyType.getDataPacker().isHeaderRequired()) {
-            totalSize += Integer.BYTES;
-          }
-          byteKeys.add(data);
+        byte[] key = keyType.getDataPacker().packToByteArray(keyValue.getKey());
+        if (keyType.getDataPacker().isHeaderRequired()) {
+          writer.putInt(key.length);
         }
+        writer.put(key);
       }
 
-      long sizeSum = 0; //just to check whether sizes match
-
-      // we need to write the data lengths and key lengths
-      int dataLengthSize = Integer.BYTES * records.size();
-      totalSize += size + dataLengthSize;
-
-      Files.createDirectories(Paths.get(outFileName).getParent());
-      RandomAccessFile randomAccessFile = new RandomAccessFile(outFileName, "rw");
-      FileChannel rwChannel = randomAccessFile.getChannel();
-      MappedByteBuffer os = rwChannel.map(FileChannel.MapMode.READ_WRITE, 0, totalSize);
-      int i = 0;
-      for (Tuple keyValue : records) {
-        long positionBefore = os.position(); //position of os before writing this tuple
-
-        byte[] r = (byte[]) keyValue.getValue(); //this has been already serialized
-        if (keyType.isPrimitive() && !keyType.isArray()) {
-          keyType.getDataPacker().packToByteBuffer(os, keyValue.getKey());
-        } else {
-          byte[] key = byteKeys.get(i);
-          if (keyType.getDataPacker().isHeaderRequired()) {
-            os.putInt(key.length);
-          }
-          os.put(key);
-        }
+      int length = sizes != null ? sizes.get(i) : r.length;
+      writer.putInt(length);
+      writer.put(r, 0, length);
+      writer.markRecord();
 
-        sizeSum += r.length;
-        os.putInt(r.length);
-        os.put(r, 0, r.length);
+      long tupleSize = writer.getBytes() - positionBefore;
+      maxRecord = Math.max(maxRecord, tupleSize);
+      i++;
+    }
+    return maxRecord;
+  }
 
-        long tupleSize = os.position() - positionBefore;
-        maxRecord = Math.max(maxRecord, tupleSize);
-        i++;
-      }
-      if (sizeSum != size) {
-        LOG.log(Level.WARNING, "Sum doesn't equal size: " + sizeSum + " != " + size);
-      }
-      rwChannel.close();
-      randomAccessFile.close();
-      try {
-        MemoryMapUtils.unMapBuffer(os);
-      } catch (Exception e) {
-        //ignore
-        LOG.warning("Couldn't unmap a byte buffer manually");
-      }
-      return maxRecord;
-    } catch (IOException e) {
-      LOG.log(Level.SEVERE, "Failed write to disc", e);
-      throw new RuntimeException(e);
+  private static void checkSize(List<Tuple> records, List<Integer> sizes, long size) {
+    long sizeSum = 0; //just to check whether sizes match
+    for (int i = 0; i < records.size(); i++) {
+      sizeSum += sizes != null ? sizes.get(i) : ((byte[]) records.get(i).getValue()).length;
+    }
+    if (sizeSum != size) {
+      LOG.log(Level.WARNING, "Sum doesn't equal size: " + sizeSum + " != " + size);
     }
   }
 
   public static List<Tuple> readFile(String fileName, MessageType keyType,
                                      MessageType dataType, KryoSerializer deserializer) {
+    return readFile(fileName, keyType, dataType, deserializer, BlockCodecs.NONE);
+  }
+
+  /**
+   * Read a file of key values
+   *
+   * @param codec the codec the file was written with
+   */
+  public static List<Tuple> readFile(String fileName, MessageType keyType,
+                                     MessageType dataType, KryoSerializer deserializer,
+                                     BlockCodec codec) {
     String outFileName = Paths.get(fileName).toString();
     FileChannel rwChannel;
     try {
+      if (codec != BlockCodecs.NONE) {
+        return readBlockFile(outFileName, keyType, dataType);
+      }
       rwChannel = new RandomAccessFile(outFileName, "rw").getChannel();
       ByteBuffer os = rwChannel.map(FileChannel.MapMode.READ_ONLY, 0, rwChannel.size());
 
@@ -265,9 +230,22 @@ public final class FileLoader {
 
   public static List<Object> readFile(String fileName, MessageType dataType,
                                       KryoSerializer deserializer) {
+    return readFile(fileName, dataType, deserializer, BlockCodecs.NONE);
+  }
+
+  /**
+   * Read a file of values
+   *
+   * @param codec the codec the file was written with
+   */
+  public static List<Object> readFile(String fileName, MessageType dataType,
+                                      KryoSerializer deserializer, BlockCodec codec) {
     String outFileName = Paths.get(fileName).toString();
     FileChannel rwChannel;
     try {
+      if (codec != BlockCodecs.NONE) {
+        return readBlockFile(outFileName, dataType);
+      }
       rwChannel = new RandomAccessFile(outFileName, "rw").getChannel();
       ByteBuffer os = rwChannel.map(FileChannel.MapMode.READ_ONLY, 0, rwChannel.size());
 
@@ -290,6 +268,48 @@ public final class FileLoader {
     }
   }
 
+  /**
+   * Read a block compressed file of key values, the blocks are decompressed one at a time
+   */
+  private static List<Tuple> readBlockFile(String fileName, MessageType keyType,
+                                           MessageType dataType) throws IOException {
+    List<Tuple> keyValues = new ArrayList<>();
+    BlockFileReader reader = BlockFileReader.open(fileName);
+    try {
+      while (reader.hasRemaining()) {
+        ByteBuffer os = reader.buffer();
+        int keySize = getKeySize(keyType, os);
+        Object key = keyType.getDataPacker().unpackFromBuffer(os, keySize - Integer.BYTES);
+
+        int dataSize = os.getInt();
+        Object value = dataType.getDataPacker().unpackFromBuffer(os, dataSize);
+        keyValues.add(new Tuple(key, value));
+      }
+    } finally {
+      reader.close();
+    }
+    return keyValues;
+  }
+
+  /**
+   * Read a block compressed file of values, the blocks are decompressed one at a time
+   */
+  private static List<Object> readBlockFile(String fileName,
+                                            MessageType dataType) throws IOException {
+    List<Object> values = new ArrayList<>();
+    BlockFileReader reader = BlockFileReader.open(fileName);
+    try {
+      while (reader.hasRemaining()) {
+        ByteBuffer os = reader.buffer();
+        int dataSize = os.getInt();
+        values.add(dataType.getDataPacker().unpackFromBuffer(os, dataSize));
+      }
+    } finally {
+      reader.close();
+    }
+    return values;
+  }
+
   public static Triple<List<Tuple>, Long, Long> openFilePart(String fileName, long startOffSet,
                                                              int maxSize, MessageType keyType,
                                                              MessageType dataType,
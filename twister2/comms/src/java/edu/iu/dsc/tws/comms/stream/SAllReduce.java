@@ -22,6 +22,8 @@ import edu.iu.dsc.tws.api.comms.SingularReceiver;
 import edu.iu.dsc.tws.api.comms.messaging.types.MessageType;
 import edu.iu.dsc.tws.api.comms.packing.MessageSchema;
 import edu.iu.dsc.tws.comms.dfw.AllReduce;
+import edu.iu.dsc.tws.comms.dfw.RingAllReduce;
+import edu.iu.dsc.tws.comms.dfw.io.allreduce.AllReduceChunks;
 import edu.iu.dsc.tws.comms.utils.LogicalPlanBuilder;
 
 /**
@@ -51,12 +53,19 @@ public class SAllReduce extends BaseOperation {
       throw new IllegalArgumentException("The destination cannot be empty");
     }
 
-    int middleTask = comm.nextId();
-    int firstSource = sources.iterator().next();
-    plan.addLogicalIdToWorker(plan.getWorkerForForLogicalId(firstSource), middleTask);
+    if (CommunicationContext.ALLREDUCE_ALGO_RING.equals(
+        CommunicationContext.allReduceAlgorithm(comm.getConfig()))
+        && AllReduceChunks.isChunkable(dataType)) {
+      op = new RingAllReduce(comm.getConfig(), comm.getChannel(), plan, sources, targets,
+          fnc, rcvr, dataType, reduceEdgeId, bcastEdgeId, true, messageSchema);
+    } else {
+      int middleTask = comm.nextId();
+      int firstSource = sources.iterator().next();
+      plan.addLogicalIdToWorker(plan.getWorkerForForLogicalId(firstSource), middleTask);
 
-    op = new AllReduce(comm.getConfig(), comm.getChannel(), plan, sources, targets,
-        middleTask, fnc, rcvr, dataType, reduceEdgeId, bcastEdgeId, true, messageSchema);
+      op = new AllReduce(comm.getConfig(), comm.getChannel(), plan, sources, targets,
+          middleTask, fnc, rcvr, dataType, reduceEdgeId, bcastEdgeId, true, messageSchema);
+    }
   }
 
   public SAllReduce(Communicator comm, LogicalPlan plan,
@@ -27,6 +27,7 @@ import java.util.logging.Logger;
 import org.apache.arrow.memory.RootAllocator;
 import org.apache.arrow.vector.BaseFixedWidthVector;
 import org.apache.arrow.vector.BaseVariableWidthVector;
+import org.apache.arrow.vector.BigIntVector;
 import org.apache.arrow.vector.FieldVector;
 import org.apache.arrow.vector.Float4Vector;
 import org.apache.arrow.vector.Float8Vector;
@@ -314,6 +315,8 @@ public class ArrowAllToAll implements ReceiveCallback {
               c = new Float8Column((Float8Vector) v);
             } else if (v instanceof UInt8Vector) {
               c = new Int8Column((UInt8Vector) v);
+            } else if (v instanceof BigIntVector) {
+              c = new Int8Column((BigIntVector) v);
             } else if (v instanceof UInt2Vector) {
               c = new UInt2Column((UInt2Vector) v);
             } else {
@@ -0,0 +1,224 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.table;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BaseVariableWidthVector;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float4Vector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.UInt8Vector;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import edu.iu.dsc.tws.common.table.ArrowColumn;
+import edu.iu.dsc.tws.common.table.Table;
+import edu.iu.dsc.tws.common.table.arrow.ArrowTable;
+
+import io.netty.buffer.ArrowBuf;
+
+/**
+ * Partitions arrow tables to targets column by column, without creating a row object for each
+ * record. The key columns are hashed in a loop over the value buffers of each vector, then the
+ * rows are grouped by target and every column is copied to a new vector per target.
+ */
+public class ArrowTablePartitioner {
+  /**
+   * The targets sorted by id
+   */
+  private final int[] destinations;
+
+  /**
+   * Index of each target in the destinations
+   */
+  private final Map<Integer, Integer> destinationIndexes = new HashMap<>();
+
+  /**
+   * Key columns
+   */
+  private final int[] indexes;
+
+  private final Schema schema;
+
+  private final BufferAllocator allocator;
+
+  /**
+   * Hash of the keys of each row, reused between tables
+   */
+  private int[] hashes = new int[0];
+
+  /**
+   * Destination index of each row, reused between tables
+   */
+  private int[] rowDestinations = new int[0];
+
+  /**
+   * Rows ordered by the destination, reused between tables
+   */
+  private int[] order = new int[0];
+
+  public ArrowTablePartitioner(Set<Integer> targets, int[] indexes, Schema schema,
+                               BufferAllocator allocator) {
+    List<Integer> sorted = new ArrayList<>(targets);
+    sorted.sort(Comparator.comparingInt(o -> o));
+    this.destinations = new int[sorted.size()];
+    for (int i = 0; i < destinations.length; i++) {
+      destinations[i] = sorted.get(i);
+      destinationIndexes.put(destinations[i], i);
+    }
+    this.indexes = indexes;
+    this.schema = schema;
+    this.allocator = allocator;
+  }
+
+  /**
+   * Partition the table by the hash of the key columns
+   *
+   * @param table the table
+   * @return the partitioned table of each target, targets without rows are not included
+   */
+  public Map<Integer, Table> partition(Table table) {
+    int rows = table.rowCount();
+    ensureCapacity(rows);
+    Arrays.fill(hashes, 0, rows, 0);
+    List<ArrowColumn> columns = table.getColumns();
+    for (int index : indexes) {
+      hash(columns.get(index).getVector(), rows, hashes);
+    }
+
+    int n = destinations.length;
+    for (int i = 0; i < rows; i++) {
+      rowDestinations[i] = (hashes[i] & Integer.MAX_VALUE) % n;
+    }
+    return split(table, rows);
+  }
+
+  /**
+   * Partition the table to the given targets
+   *
+   * @param table the table
+   * @param targets target of each row
+   * @return the partitioned table of each target, targets without rows are not included
+   */
+  public Map<Integer, Table> partition(Table table, int[] targets) {
+    int rows = table.rowCount();
+    ensureCapacity(rows);
+    for (int i = 0; i < rows; i++) {
+      rowDestinations[i] = destinationIndexes.get(targets[i]);
+    }
+    return split(table, rows);
+  }
+
+  private Map<Integer, Table> split(Table table, int rows) {
+    // counting sort of the rows by the destination, keeps the order of the rows of a target
+    int n = destinations.length;
+    int[] starts = new int[n + 1];
+    for (int i = 0; i < rows; i++) {
+      starts[rowDestinations[i] + 1]++;
+    }
+    for (int d = 0; d < n; d++) {
+      starts[d + 1] += starts[d];
+    }
+    int[] next = Arrays.copyOf(starts, n);
+    for (int i = 0; i < rows; i++) {
+      order[next[rowDestinations[i]]++] = i;
+    }
+
+    List<ArrowColumn> columns = table.getColumns();
+    Map<Integer, Table> partitions = new HashMap<>();
+    for (int d = 0; d < n; d++) {
+      int count = starts[d + 1] - starts[d];
+      if (count == 0) {
+        continue;
+      }
+      List<FieldVector> vectors = new ArrayList<>(columns.size());
+      for (int c = 0; c < columns.size(); c++) {
+        FieldVector from = columns.get(c).getVector();
+        FieldVector to = from.getField().createVector(allocator);
+        to.setInitialCapacity(count);
+        to.allocateNew();
+        for (int i = 0; i < count; i++) {
+          to.copyFromSafe(order[starts[d] + i], i, from);
+        }
+        to.setValueCount(count);
+        vectors.add(to);
+      }
+      partitions.put(destinations[d], new ArrowTable(schema, vectors));
+    }
+    return partitions;
+  }
+
+  private void ensureCapacity(int rows) {
+    if (hashes.length < rows) {
+      hashes = new int[rows];
+      rowDestinations = new int[rows];
+      order = new int[rows];
+    }
+  }
+
+  /**
+   * Combine the hash of the values of the vector with the hashes of the previous key columns.
+   * Null values hash to 0.
+   *
+   * @param vector the vector
+   * @param rows number of values
+   * @param hashes the hashes to update
+   */
+  public static void hash(FieldVector vector, int rows, int[] hashes) {
+    boolean noNulls = vector.getNullCount() == 0;
+    if (vector instanceof IntVector || vector instanceof Float4Vector) {
+      ArrowBuf data = vector.getDataBuffer();
+      for (int i = 0; i < rows; i++) {
+        int h = noNulls || !vector.isNull(i) ? data.getInt((long) i * 4) : 0;
+        hashes[i] = 31 * hashes[i] + h;
+      }
+    } else if (vector instanceof BigIntVector || vector instanceof UInt8Vector
+        || vector instanceof Float8Vector) {
+      ArrowBuf data = vector.getDataBuffer();
+      for (int i = 0; i < rows; i++) {
+        int h = 0;
+        if (noNulls || !vector.isNull(i)) {
+          long value = data.getLong((long) i * 8);
+          h = (int) (value ^ (value >>> 32));
+        }
+        hashes[i] = 31 * hashes[i] + h;
+      }
+    } else if (vector instanceof BaseVariableWidthVector) {
+      ArrowBuf offsets = vector.getOffsetBuffer();
+      ArrowBuf data = vector.getDataBuffer();
+      for (int i = 0; i < rows; i++) {
+        int h = 0;
+        if (noNulls || !vector.isNull(i)) {
+          int end = offsets.getInt((long) (i + 1) * BaseVariableWidthVector.OFFSET_WIDTH);
+          for (int j = offsets.getInt((long) i * BaseVariableWidthVector.OFFSET_WIDTH);
+               j < end; j++) {
+            h = 31 * h + data.getByte(j);
+          }
+        }
+        hashes[i] = 31 * hashes[i] + h;
+      }
+    } else {
+      for (int i = 0; i < rows; i++) {
+        hashes[i] = 31 * hashes[i] + vector.hashCode(i);
+      }
+    }
+  }
+}
@@ -31,27 +31,31 @@ import edu.iu.dsc.tws.api.comms.LogicalPlan;
 import edu.iu.dsc.tws.api.exceptions.Twister2RuntimeException;
 import edu.iu.dsc.tws.api.resource.IWorkerController;
 import edu.iu.dsc.tws.common.table.ArrowColumn;
-import edu.iu.dsc.tws.common.table.ArrowTableBuilder;
 import edu.iu.dsc.tws.common.table.OneRow;
-import edu.iu.dsc.tws.common.table.Row;
 import edu.iu.dsc.tws.common.table.Table;
-import edu.iu.dsc.tws.common.table.TableBuilder;
+import edu.iu.dsc.tws.comms.selectors.HashingSelector;
 import edu.iu.dsc.tws.comms.table.ArrowAllToAll;
 import edu.iu.dsc.tws.comms.table.ArrowCallback;
+import edu.iu.dsc.tws.comms.table.ArrowTablePartitioner;
 import edu.iu.dsc.tws.comms.utils.LogicalPlanBuilder;
 import edu.iu.dsc.tws.comms.utils.TaskPlanUtils;
 
+/**
+ * Partitions arrow tables. The tables are split to the targets column by column as they are
+ * inserted and the partitions are sent as arrow buffers, so no row objects are created. With a
+ * {@link HashingSelector} the targets are chosen by hashing the key columns directly from the
+ * vectors, other selectors are given the key of each row.
+ */
 public class STPartition extends BaseOperation {
   private ArrowAllToAll allToAll;
   private DestinationSelector selector;
   private int[] indexes;
-  private Map<Integer, TableBuilder> partitionedTables = new HashMap<>();
+  private ArrowTablePartitioner partitioner;
+  private int[] rowTargets = new int[0];
   private Map<Integer, Queue<Table>> inputs = new HashMap<>();
   private boolean finished = false;
   private Set<Integer> finishedSources = new HashSet<>();
   private Set<Integer> thisWorkerSources;
-  private Schema schema;
-  private RootAllocator allocator;
 
   /**
    * Create the base operation
@@ -89,12 +93,11 @@ public class STPartition extends BaseOperation {
       this.indexes = ArrayUtils.toPrimitive(indexes.toArray(new Integer[0]));
     }
     this.selector.prepare(comm, sources, targets);
-    this.schema = schema;
-    this.allocator = allocator;
     for (int s : sources) {
       this.inputs.put(s, new LinkedList<>());
     }
     this.thisWorkerSources = TaskPlanUtils.getTasksOfThisWorker(plan, sources);
+    this.partitioner = new ArrowTablePartitioner(targets, this.indexes, schema, allocator);
     this.allToAll = new ArrowAllToAll(comm.getConfig(), controller, sources, targets,
         plan, comm.nextEdge(), receiver, schema, allocator);
   }
@@ -107,38 +110,22 @@ public class STPartition extends BaseOperation {
   @Override
   public boolean isComplete() {
     for (Map.Entry<Integer, Queue<Table>> e : inputs.entrySet()) {
-      if (e.getValue().isEmpty()) {
-        continue;
-      }
-      // partition the table, default
-      Table t = e.getValue().poll();
-
-      List<ArrowColumn> columns = t.getColumns();
-      ArrowColumn col = columns.get(indexes[0]);
-      for (int i = 0; i < col.getVector().getValueCount(); i++) {
-        Row row = new OneRow(col.get(i));
-        int target = selector.next(e.getKey(), row);
-
-        TableBuilder builder = partitionedTables.get(target);
-        if (builder == null) {
-          builder = new ArrowTableBuilder(schema, allocator);
-          this.partitionedTables.put(target, builder);
+      Queue<Table> queue = e.getValue();
+      while (!queue.isEmpty()) {
+        Table t = queue.poll();
+        Map<Integer, Table> partitions;
+        if (selector instanceof HashingSelector) {
+          partitions = partitioner.partition(t);
+        } else {
+          partitions = partitioner.partition(t, selectTargets(e.getKey(), t));
         }
-        for (int j = 0; j < columns.size(); j++) {
-          builder.getColumns().get(j).addValue(columns.get(j).get(i));
+        for (Map.Entry<Integer, Table> p : partitions.entrySet()) {
+          allToAll.insert(p.getValue(), p.getKey());
         }
-
       }
     }
 
     if (finished) {
-      for (Map.Entry<Integer, TableBuilder> e : partitionedTables.entrySet()) {
-        Table t = e.getValue().build();
-        allToAll.insert(t, e.getKey());
-      }
-
-      // clear the tables, so we won't build the tables again
-      partitionedTables.clear();
       for (int s : finishedSources) {
         allToAll.finish(s);
       }
@@ -146,9 +133,23 @@ public class STPartition extends BaseOperation {
       finishedSources.clear();
       return allToAll.isComplete();
     }
+    // send the partitions while the sources are still inserting
+    allToAll.isComplete();
     return false;
   }
 
+  private int[] selectTargets(int source, Table t) {
+    int rows = t.rowCount();
+    if (rowTargets.length < rows) {
+      rowTargets = new int[rows];
+    }
+    ArrowColumn col = t.getColumns().get(indexes[0]);
+    for (int i = 0; i < rows; i++) {
+      rowTargets[i] = selector.next(source, new OneRow(col.get(i)));
+    }
+    return rowTargets;
+  }
+
   @Override
   public void finish(int src) {
     finishedSources.add(src);
@@ -24,9 +24,12 @@ import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 
 import edu.iu.dsc.tws.api.comms.CommunicationContext;
+import edu.iu.dsc.tws.api.comms.channel.ChannelCompletionListener;
+import edu.iu.dsc.tws.api.comms.channel.ChannelCompletionNotifier;
 import edu.iu.dsc.tws.api.comms.channel.ChannelListener;
 import edu.iu.dsc.tws.api.comms.channel.TWSChannel;
 import edu.iu.dsc.tws.api.comms.messaging.ChannelMessage;
+import edu.iu.dsc.tws.api.comms.messaging.MessageFlags;
 import edu.iu.dsc.tws.api.comms.packing.DataBuffer;
 import edu.iu.dsc.tws.api.config.Config;
 import edu.iu.dsc.tws.api.exceptions.TimeoutException;
@@ -44,6 +47,12 @@ import it.unimi.dsi.fastutil.ints.Int2ObjectArrayMap;
 public class TWSTCPChannel implements TWSChannel {
   private static final Logger LOG = Logger.getLogger(TWSTCPChannel.class.getName());
 
+  /**
+   * Flags of the messages sent through the priority lane
+   */
+  private static final int CONTROL_FLAGS = MessageFlags.SYNC_MESSAGE | MessageFlags.SYNC_EMPTY
+      | MessageFlags.SYNC_BARRIER;
+
   private int executor;
 
   private int sendCount = 0;
@@ -128,6 +137,16 @@ public class TWSTCPChannel implements TWSChannel {
    */
   private List<Pair<Integer, Integer>> pendingCloseRequests = new ArrayList<>();
 
+  /**
+   * Notifies the listeners about the completed sends and receives
+   */
+  private ChannelCompletionNotifier completionNotifier = new ChannelCompletionNotifier();
+
+  /**
+   * Weather to create direct buffers
+   */
+  private boolean directBuffers;
+
   /**
    * Create the TCP channel
    * @param config configuration
@@ -141,6 +160,7 @@ public class TWSTCPChannel implements TWSChannel {
 
     workerController = wController;
     maxConnEstTime = TCPContext.maxConnEstTime(config);
+    directBuffers = TCPContext.isDirectBuffers(config);
 
     channel = createChannel(config, localIp, workerPort, index);
     // now lets start listening before sending the ports to master,
@@ -286,11 +306,13 @@ public class TWSTCPChannel implements TWSChannel {
    */
   private void postMessage(TCPSendRequests requests) {
     ChannelMessage message = requests.message;
+    // the sync messages go before the data of the other edges
+    boolean priority = (message.getHeader().getFlags() & CONTROL_FLAGS) != 0;
     for (int i = 0; i < message.getNormalBuffers().size(); i++) {
       sendCount++;
       DataBuffer buffer = message.getNormalBuffers().get(i);
       TCPMessage request = channel.iSend(buffer.getByteBuffer(), buffer.getSize(),
-          requests.rank, message.getHeader().getEdge());
+          requests.rank, message.getHeader().getEdge(), priority);
       // register to the loop to make communicationProgress on the send
       requests.pendingSends.add(new Request(request, buffer));
     }
@@ -340,6 +362,7 @@ public class TWSTCPChannel implements TWSChannel {
           //We do not have any buffers to receive messages so we need to free a buffer
           receiveRequests.callback.onReceiveComplete(
               receiveRequests.rank, receiveRequests.edge, r.buffer);
+          completionNotifier.completed();
           requestIterator.remove();
         }
       }
@@ -355,6 +378,7 @@ public class TWSTCPChannel implements TWSChannel {
     internalProgressReceives(registeredReceives);
 
     channel.progress();
+    completionNotifier.notifyListeners();
   }
 
   @Override
@@ -390,14 +414,27 @@ public class TWSTCPChannel implements TWSChannel {
       if (sendRequests.pendingSends.size() == 0) {
         sendRequests.callback.onSendComplete(sendRequests.rank,
             sendRequests.edge, sendRequests.message);
+        completionNotifier.completed();
         sendRequestsIterator.remove();
       }
     }
+    completionNotifier.notifyListeners();
   }
 
   @Override
   public void progressReceives(int group) {
     internalProgressReceives(groupedRegisteredReceives.get(group));
+    completionNotifier.notifyListeners();
+  }
+
+  @Override
+  public void addCompletionListener(ChannelCompletionListener listener) {
+    completionNotifier.addListener(listener);
+  }
+
+  @Override
+  public void removeCompletionListener(ChannelCompletionListener listener) {
+    completionNotifier.removeListener(listener);
   }
 
   /**
@@ -429,6 +466,9 @@ public class TWSTCPChannel implements TWSChannel {
 
   @Override
   public ByteBuffer createBuffer(int capacity) {
+    if (directBuffers) {
+      return ByteBuffer.allocateDirect(capacity);
+    }
     return ByteBuffer.allocate(capacity);
   }
 
@@ -44,6 +44,8 @@ import org.openucx.jucx.ucp.UcpRequest;
 import org.openucx.jucx.ucp.UcpWorker;
 import org.openucx.jucx.ucp.UcpWorkerParams;
 
+import edu.iu.dsc.tws.api.comms.channel.ChannelCompletionListener;
+import edu.iu.dsc.tws.api.comms.channel.ChannelCompletionNotifier;
 import edu.iu.dsc.tws.api.comms.channel.ChannelListener;
 import edu.iu.dsc.tws.api.comms.channel.TWSChannel;
 import edu.iu.dsc.tws.api.comms.messaging.ChannelMessage;
@@ -77,6 +79,11 @@ public class TWSUCXChannel implements TWSChannel {
 
   private AtomicLong pendingSendRequests = new AtomicLong();
 
+  /**
+   * Notifies the listeners about the completed sends and receives
+   */
+  private ChannelCompletionNotifier completionNotifier = new ChannelCompletionNotifier();
+
   private int workerId;
 
   private int tagWIdOffset = 100000;
@@ -247,6 +254,7 @@ public class TWSUCXChannel implements TWSChannel {
               pendingSendRequests.decrementAndGet();
               if (buffersLeft.decrementAndGet() == 0) {
                 callback.onSendComplete(id, message.getHeader().getEdge(), message);
+                completionNotifier.completed();
               }
             }
 
@@ -327,6 +335,7 @@ public class TWSUCXChannel implements TWSChannel {
                 recvBuffer.setSize((int) request.getRecvSize());
                 requestsMap.remove(requestId);
                 callback.onReceiveComplete(id, edge, recvBuffer);
+                completionNotifier.completed();
               }
 
               @Override
@@ -365,6 +374,7 @@ public class TWSUCXChannel implements TWSChannel {
       receiveProgress.progress();
     }
     this.ucpWorker.progress();
+    completionNotifier.notifyListeners();
   }
 
   @Override
@@ -377,6 +387,16 @@ public class TWSUCXChannel implements TWSChannel {
     this.progress();
   }
 
+  @Override
+  public void addCompletionListener(ChannelCompletionListener listener) {
+    completionNotifier.addListener(listener);
+  }
+
+  @Override
+  public void removeCompletionListener(ChannelCompletionListener listener) {
+    completionNotifier.removeListener(listener);
+  }
+
   @Override
   public boolean isComplete() {
     return pendingSendRequests.get() == 0;
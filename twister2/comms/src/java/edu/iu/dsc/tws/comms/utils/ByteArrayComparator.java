@@ -0,0 +1,62 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.utils;
+
+import java.util.Comparator;
+
+/**
+ * Compares byte arrays lexicographically, treating the bytes as unsigned values. Sorted
+ * mergers recognize this comparator and compare the first bytes of the keys as a single long
+ * before falling back to comparing the arrays.
+ */
+public final class ByteArrayComparator implements Comparator<byte[]> {
+
+  private static final ByteArrayComparator INSTANCE = new ByteArrayComparator();
+
+  private ByteArrayComparator() {
+  }
+
+  public static ByteArrayComparator getInstance() {
+    return INSTANCE;
+  }
+
+  @Override
+  public int compare(byte[] left, byte[] right) {
+    for (int i = 0, j = 0; i < left.length && j < right.length; i++, j++) {
+      int a = left[i] & 0xff;
+      int b = right[j] & 0xff;
+      if (a != b) {
+        return a - b;
+      }
+    }
+    return left.length - right.length;
+  }
+
+  /**
+   * The first 8 bytes of the array as an unsigned long, missing bytes are taken as 0. If the
+   * prefixes of two arrays differ, comparing them with {@link Long#compareUnsigned(long, long)}
+   * gives the same order as {@link #compare(byte[], byte[])}.
+   *
+   * @param array the array
+   * @return the prefix
+   */
+  public static long prefix(byte[] array) {
+    long prefix = 0;
+    for (int i = 0; i < Long.BYTES; i++) {
+      prefix <<= 8;
+      if (i < array.length) {
+        prefix |= array[i] & 0xff;
+      }
+    }
+    return prefix;
+  }
+}
@@ -0,0 +1,115 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.utils;
+
+import java.util.Arrays;
+
+import it.unimi.dsi.fastutil.ints.IntComparator;
+
+/**
+ * A tournament tree of losers for merging k sorted sources. The tree only keeps the indexes of
+ * the sources, the heads of the sources are compared through the given comparator. Once the
+ * head of the winning source is consumed, {@link #replay()} finds the next winner with
+ * log(k) comparisons, compared to the 2log(k) comparisons of a binary heap.
+ * <p>
+ * The comparator should treat an exhausted source as larger than any other source.
+ */
+public class LoserTree {
+  /**
+   * Number of sources
+   */
+  private final int k;
+
+  /**
+   * tree[0] is the winner, tree[1..k-1] are the losers at the internal nodes
+   */
+  private final int[] tree;
+
+  /**
+   * Compares the heads of two sources
+   */
+  private final IntComparator comparator;
+
+  public LoserTree(int k, IntComparator comparator) {
+    if (k < 1) {
+      throw new IllegalArgumentException("At least one source is required: " + k);
+    }
+    this.k = k;
+    this.tree = new int[k];
+    this.comparator = comparator;
+  }
+
+  /**
+   * Build the tree from the current heads of the sources
+   */
+  public void build() {
+    // the winners of the sub trees, leaves are at k..2k-1
+    int[] winners = new int[2 * k];
+    for (int i = 0; i < k; i++) {
+      winners[k + i] = i;
+    }
+    for (int node = k - 1; node > 0; node--) {
+      int left = winners[2 * node];
+      int right = winners[2 * node + 1];
+      if (comparator.compare(left, right) <= 0) {
+        winners[node] = left;
+        tree[node] = right;
+      } else {
+        winners[node] = right;
+        tree[node] = left;
+      }
+    }
+    tree[0] = k == 1 ? 0 : winners[1];
+  }
+
+  /**
+   * The source with the smallest head
+   *
+   * @return index of the source
+   */
+  public int winner() {
+    return tree[0];
+  }
+
+  /**
+   * Find the new winner after the head of the current winner changed
+   */
+  public void replay() {
+    int candidate = tree[0];
+    for (int node = (candidate + k) >> 1; node > 0; node >>= 1) {
+      if (comparator.compare(tree[node], candidate) < 0) {
+        int loser = candidate;
+        candidate = tree[node];
+        tree[node] = loser;
+      }
+    }
+    tree[0] = candidate;
+  }
+
+  /**
+   * Take a copy of the tree, which can be used with {@link #restore(int[])}
+   *
+   * @return the copy
+   */
+  public int[] snapshot() {
+    return Arrays.copyOf(tree, k);
+  }
+
+  /**
+   * Restore the tree to a snapshot, the heads of the sources should be restored as well
+   *
+   * @param snapshot the snapshot
+   */
+  public void restore(int[] snapshot) {
+    System.arraycopy(snapshot, 0, tree, 0, k);
+  }
+}
@@ -0,0 +1,235 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+
+import edu.iu.dsc.tws.api.comms.channel.ChannelCompletionListener;
+import edu.iu.dsc.tws.api.comms.channel.ChannelCompletionNotifier;
+import edu.iu.dsc.tws.api.comms.channel.ChannelListener;
+import edu.iu.dsc.tws.api.comms.channel.TWSChannel;
+import edu.iu.dsc.tws.api.comms.messaging.ChannelMessage;
+import edu.iu.dsc.tws.api.comms.packing.DataBuffer;
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.api.config.Context;
+import edu.iu.dsc.tws.api.resource.IWorkerController;
+import edu.iu.dsc.tws.proto.jobmaster.JobMasterAPI;
+
+/**
+ * A channel between the workers of a test running in the same process. The buffers of a
+ * message are copied to the receiving worker when they are sent, and they are given to the
+ * receive buffers of the edge when the receiving worker progresses its channel. The sends
+ * complete when the sending worker progresses its channel.
+ * <p>
+ * The channels are either created together with {@link #create(int)}, or one by one through
+ * the network class configuration, in which case the channels of the same job are connected.
+ */
+public final class LocalChannel implements TWSChannel {
+  /**
+   * The workers of the channels created through the configuration, by job id
+   */
+  private static final Map<String, Map<Integer, LocalChannel>> JOBS = new ConcurrentHashMap<>();
+
+  private final Map<Integer, LocalChannel> workers;
+
+  private final int workerId;
+
+  /**
+   * Buffers received from each worker and edge
+   */
+  private final Map<Long, Queue<byte[]>> inbox = new HashMap<>();
+
+  private final Map<Long, ReceiveRequest> receives = new HashMap<>();
+
+  private final List<SendRequest> sends = new ArrayList<>();
+
+  private final ChannelCompletionNotifier completionNotifier = new ChannelCompletionNotifier();
+
+  private static final class SendRequest {
+    private int id;
+    private int edge;
+    private ChannelMessage message;
+    private ChannelListener callback;
+
+    SendRequest(int id, int edge, ChannelMessage message, ChannelListener callback) {
+      this.id = id;
+      this.edge = edge;
+      this.message = message;
+      this.callback = callback;
+    }
+  }
+
+  private static final class ReceiveRequest {
+    private int id;
+    private int edge;
+    private ChannelListener callback;
+    private Queue<DataBuffer> availableBuffers;
+
+    ReceiveRequest(int id, int edge, ChannelListener callback,
+                   Queue<DataBuffer> availableBuffers) {
+      this.id = id;
+      this.edge = edge;
+      this.callback = callback;
+      this.availableBuffers = availableBuffers;
+    }
+  }
+
+  private LocalChannel(Map<Integer, LocalChannel> workers, int workerId) {
+    this.workers = workers;
+    this.workerId = workerId;
+  }
+
+  /**
+   * Create the channel of a worker and connect it to the channels created for the same job,
+   * used when the channel is created by {@link edu.iu.dsc.tws.api.resource.Network}
+   *
+   * @param config configuration
+   * @param wController controller of the worker
+   */
+  public LocalChannel(Config config, IWorkerController wController) {
+    this.workers = JOBS.computeIfAbsent(Context.jobId(config), k -> new ConcurrentHashMap<>());
+    this.workerId = wController.getWorkerInfo().getWorkerID();
+    workers.put(workerId, this);
+  }
+
+  /**
+   * Create the connected channels of the workers
+   *
+   * @param numberOfWorkers number of workers
+   * @return the channel of each worker
+   */
+  public static List<LocalChannel> create(int numberOfWorkers) {
+    Map<Integer, LocalChannel> workers = new HashMap<>();
+    List<LocalChannel> channels = new ArrayList<>();
+    for (int i = 0; i < numberOfWorkers; i++) {
+      LocalChannel channel = new LocalChannel(workers, i);
+      workers.put(i, channel);
+      channels.add(channel);
+    }
+    return channels;
+  }
+
+  private static long key(int worker, int edge) {
+    return ((long) worker << 32) | (edge & 0xFFFFFFFFL);
+  }
+
+  private synchronized void deliver(int from, int edge, byte[] data) {
+    inbox.computeIfAbsent(key(from, edge), k -> new ArrayDeque<>()).add(data);
+  }
+
+  @Override
+  public synchronized boolean sendMessage(int id, ChannelMessage message,
+                                          ChannelListener callback) {
+    LocalChannel target = workers.get(id);
+    if (target == null) {
+      throw new IllegalArgumentException("Worker " + id + " is not connected");
+    }
+    int edge = message.getHeader().getEdge();
+    for (DataBuffer buffer : message.getNormalBuffers()) {
+      ByteBuffer src = buffer.getByteBuffer().duplicate();
+      src.limit(buffer.getSize());
+      src.position(0);
+      byte[] data = new byte[buffer.getSize()];
+      src.get(data);
+      target.deliver(workerId, edge, data);
+    }
+    sends.add(new SendRequest(id, edge, message, callback));
+    return true;
+  }
+
+  @Override
+  public synchronized boolean receiveMessage(int group, int id, int edge,
+                                             ChannelListener callback,
+                                             Queue<DataBuffer> receiveBuffers) {
+    receives.put(key(id, edge), new ReceiveRequest(id, edge, callback, receiveBuffers));
+    return true;
+  }
+
+  @Override
+  public void progress() {
+    progressSends();
+    progressReceives(0);
+  }
+
+  @Override
+  public synchronized void progressSends() {
+    for (SendRequest send : sends) {
+      send.callback.onSendComplete(send.id, send.edge, send.message);
+      completionNotifier.completed();
+    }
+    sends.clear();
+    completionNotifier.notifyListeners();
+  }
+
+  @Override
+  public synchronized void progressReceives(int group) {
+    for (Map.Entry<Long, ReceiveRequest> e : receives.entrySet()) {
+      Queue<byte[]> received = inbox.get(e.getKey());
+      ReceiveRequest request = e.getValue();
+      while (received != null && !received.isEmpty()) {
+        DataBuffer buffer = request.availableBuffers.poll();
+        if (buffer == null) {
+          break;
+        }
+        byte[] data = received.poll();
+        ByteBuffer byteBuffer = buffer.getByteBuffer();
+        byteBuffer.clear();
+        byteBuffer.put(data);
+        byteBuffer.flip();
+        buffer.setSize(data.length);
+        request.callback.onReceiveComplete(request.id, request.edge, buffer);
+        completionNotifier.completed();
+      }
+    }
+    completionNotifier.notifyListeners();
+  }
+
+  @Override
+  public synchronized boolean isComplete() {
+    return sends.isEmpty();
+  }
+
+  @Override
+  public ByteBuffer createBuffer(int capacity) {
+    return ByteBuffer.allocate(capacity);
+  }
+
+  @Override
+  public void close() {
+  }
+
+  @Override
+  public synchronized void releaseBuffers(int wId, int e) {
+    receives.remove(key(wId, e));
+  }
+
+  @Override
+  public void addCompletionListener(ChannelCompletionListener listener) {
+    completionNotifier.addListener(listener);
+  }
+
+  @Override
+  public void removeCompletionListener(ChannelCompletionListener listener) {
+    completionNotifier.removeListener(listener);
+  }
+
+  @Override
+  public void reInit(List<JobMasterAPI.WorkerInfo> restartedWorkers) {
+  }
+}
@@ -0,0 +1,186 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.dfw;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import edu.iu.dsc.tws.api.comms.BulkReceiver;
+import edu.iu.dsc.tws.api.comms.CommunicationContext;
+import edu.iu.dsc.tws.api.comms.Communicator;
+import edu.iu.dsc.tws.api.comms.LogicalPlan;
+import edu.iu.dsc.tws.api.comms.messaging.types.MessageTypes;
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.comms.LocalChannel;
+import edu.iu.dsc.tws.comms.batch.BPartition;
+
+/**
+ * Runs the batch partition between workers connected by a {@link LocalChannel} with the ring
+ * and the simple all-to-all algorithms.
+ */
+public class MToNRingTest {
+  private static final int WORKERS = 3;
+
+  private static final int TASKS_PER_WORKER = 2;
+
+  private static final int TASKS = WORKERS * TASKS_PER_WORKER;
+
+  private static final int MESSAGES = 50;
+
+  private static final int MAX_ITERATIONS = 100000;
+
+  /**
+   * Collects the values received by the targets of all the workers
+   */
+  private static class Results implements BulkReceiver {
+    private Map<Integer, List<Integer>> received;
+
+    Results(Map<Integer, List<Integer>> received) {
+      this.received = received;
+    }
+
+    @Override
+    public void init(Config cfg, Set<Integer> targets) {
+    }
+
+    @Override
+    public boolean receive(int target, Iterator<Object> it) {
+      List<Integer> values = received.computeIfAbsent(target, k -> new ArrayList<>());
+      while (it.hasNext()) {
+        values.add((Integer) it.next());
+      }
+      return true;
+    }
+  }
+
+  private static int source(int index) {
+    return index;
+  }
+
+  private static int target(int index) {
+    return TASKS + index;
+  }
+
+  /**
+   * The tasks of a worker are its sources and the targets with the same index
+   */
+  private static LogicalPlan plan(int worker) {
+    Map<Integer, Set<Integer>> workerToTasks = new HashMap<>();
+    Set<Integer> allTasks = new HashSet<>();
+    for (int w = 0; w < WORKERS; w++) {
+      Set<Integer> tasks = new HashSet<>();
+      for (int t = 0; t < TASKS_PER_WORKER; t++) {
+        tasks.add(source(w * TASKS_PER_WORKER + t));
+        tasks.add(target(w * TASKS_PER_WORKER + t));
+      }
+      workerToTasks.put(w, tasks);
+      allTasks.addAll(tasks);
+    }
+    Map<Integer, Set<Integer>> groups = new HashMap<>();
+    groups.put(0, new HashSet<>(workerToTasks.keySet()));
+    Map<String, Set<Integer>> nodes = new HashMap<>();
+    nodes.put("localhost", allTasks);
+    return new LogicalPlan(workerToTasks, groups, nodes, worker);
+  }
+
+  /**
+   * Every source sends its values to all the targets and finishes, then the workers progress
+   * until every target received its values
+   */
+  private static Map<Integer, List<Integer>> partition(String algorithm) {
+    Config config = Config.newBuilder()
+        .put(CommunicationContext.ALLTOALL_ALGO_KEY, algorithm)
+        .put(CommunicationContext.BUFFER_SIZE, 1024)
+        .put(CommunicationContext.SEND_BUFFERS_COUNT, 4)
+        .put(CommunicationContext.RECEIVE_BUFFERS_COUNT, 4)
+        .build();
+    List<LocalChannel> channels = LocalChannel.create(WORKERS);
+    Set<Integer> sources = new HashSet<>();
+    Set<Integer> targets = new HashSet<>();
+    for (int i = 0; i < TASKS; i++) {
+      sources.add(source(i));
+      targets.add(target(i));
+    }
+
+    Map<Integer, List<Integer>> received = new HashMap<>();
+    BPartition[] operations = new BPartition[WORKERS];
+    for (int w = 0; w < WORKERS; w++) {
+      Communicator comm = new Communicator(config, channels.get(w),
+          System.getProperty("java.io.tmpdir"));
+      operations[w] = new BPartition(comm, plan(w), sources, targets, MessageTypes.INTEGER,
+          new Results(received), (source, data) -> target((Integer) data % TASKS), false);
+    }
+
+    int[] sent = new int[TASKS];
+    for (int i = 0; i < MAX_ITERATIONS; i++) {
+      boolean complete = true;
+      for (int w = 0; w < WORKERS; w++) {
+        for (int t = 0; t < TASKS_PER_WORKER; t++) {
+          int source = source(w * TASKS_PER_WORKER + t);
+          if (sent[source] < MESSAGES) {
+            if (operations[w].partition(source, source * 1000 + sent[source], 0)) {
+              sent[source]++;
+            }
+            complete = false;
+          } else if (sent[source] == MESSAGES) {
+            operations[w].finish(source);
+            sent[source]++;
+          }
+        }
+        operations[w].progressChannel();
+        complete &= operations[w].isComplete();
+      }
+      if (complete && received.size() == TASKS) {
+        return received;
+      }
+    }
+    Assert.fail("The partition did not complete with the " + algorithm + " algorithm");
+    return null;
+  }
+
+  private static void assertPartitioned(Map<Integer, List<Integer>> received) {
+    for (int i = 0; i < TASKS; i++) {
+      List<Integer> expected = new ArrayList<>();
+      for (int s = 0; s < TASKS; s++) {
+        for (int m = 0; m < MESSAGES; m++) {
+          if ((s * 1000 + m) % TASKS == i) {
+            expected.add(s * 1000 + m);
+          }
+        }
+      }
+      List<Integer> actual = received.get(target(i));
+      Collections.sort(actual);
+      Assert.assertEquals("Target " + target(i), expected, actual);
+    }
+  }
+
+  @Test
+  public void testRing() {
+    // the sources finish after sending to the targets of every worker, the syncs must reach
+    // the targets of the other workers as well
+    assertPartitioned(partition(CommunicationContext.ALLTOALL_ALGO_RING));
+  }
+
+  @Test
+  public void testSimple() {
+    assertPartitioned(partition(CommunicationContext.ALLTOALL_ALGO_SIMPLE));
+  }
+}
@@ -0,0 +1,408 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.dfw;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import edu.iu.dsc.tws.api.comms.BaseOperation;
+import edu.iu.dsc.tws.api.comms.CommunicationContext;
+import edu.iu.dsc.tws.api.comms.Communicator;
+import edu.iu.dsc.tws.api.comms.DataFlowOperation;
+import edu.iu.dsc.tws.api.comms.LogicalPlan;
+import edu.iu.dsc.tws.api.comms.Op;
+import edu.iu.dsc.tws.api.comms.ReduceFunction;
+import edu.iu.dsc.tws.api.comms.SingularReceiver;
+import edu.iu.dsc.tws.api.comms.messaging.types.MessageTypes;
+import edu.iu.dsc.tws.api.comms.packing.MessageSchema;
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.common.config.ConfigLoader;
+import edu.iu.dsc.tws.comms.LocalChannel;
+import edu.iu.dsc.tws.comms.batch.BAllReduce;
+import edu.iu.dsc.tws.comms.functions.reduction.ReduceOperationFunction;
+import edu.iu.dsc.tws.comms.stream.SAllReduce;
+
+/**
+ * Runs the ring allreduce between workers connected by a {@link LocalChannel} and compares
+ * the results with the tree allreduce.
+ */
+public class RingAllReduceTest {
+  private static final int WORKERS = 3;
+
+  private static final int TASKS_PER_WORKER = 2;
+
+  private static final int TASKS = WORKERS * TASKS_PER_WORKER;
+
+  /**
+   * Two elements for each chunk, so a chunk can be identified by its first element
+   */
+  private static final int LENGTH = TASKS * 2;
+
+  private static final int MAX_ITERATIONS = 100000;
+
+  /**
+   * Sums integer arrays and records the chunks it reduces
+   */
+  private static class RecordingSum implements ReduceFunction {
+    private ReduceFunction sum = new ReduceOperationFunction(Op.SUM, MessageTypes.INTEGER_ARRAY);
+
+    private Set<Integer> chunks = new HashSet<>();
+
+    @Override
+    public void init(Config cfg, DataFlowOperation op, Map<Integer, List<Integer>> expectedIds) {
+      sum.init(cfg, op, expectedIds);
+    }
+
+    @Override
+    public Object reduce(Object t1, Object t2) {
+      // the second value is always a chunk as sent by a source
+      int[] chunk = (int[]) t2;
+      if (chunk.length > 0) {
+        chunks.add(index(chunk[0]) / 2);
+      }
+      return sum.reduce(t1, t2);
+    }
+  }
+
+  /**
+   * Collects the arrays received by the targets of all the workers
+   */
+  private static class Results implements SingularReceiver {
+    private Map<Integer, List<int[]>> received;
+
+    Results(Map<Integer, List<int[]>> received) {
+      this.received = received;
+    }
+
+    @Override
+    public void init(Config cfg, Set<Integer> targets) {
+      for (int target : targets) {
+        received.put(target, new ArrayList<>());
+      }
+    }
+
+    @Override
+    public boolean receive(int target, Object object) {
+      received.get(target).add((int[]) object);
+      return true;
+    }
+  }
+
+  /**
+   * The allreduce operation of every worker
+   */
+  private static class Cluster {
+    private boolean streaming;
+
+    private BaseOperation[] operations = new BaseOperation[WORKERS];
+
+    private RecordingSum[] functions = new RecordingSum[WORKERS];
+
+    private Map<Integer, List<int[]>> received = new HashMap<>();
+
+    private int[] sent = new int[TASKS];
+
+    private boolean[] finished = new boolean[TASKS];
+
+    Cluster(Config config, boolean streaming) {
+      this(config, Collections.emptyMap(), streaming);
+    }
+
+    /**
+     * Create the operations with the given edge properties added to the configuration, the
+     * same way as the task executor does
+     */
+    Cluster(Config config, Map<String, Object> edgeProperties, boolean streaming) {
+      this.streaming = streaming;
+      List<LocalChannel> channels = LocalChannel.create(WORKERS);
+      Set<Integer> sources = new HashSet<>();
+      Set<Integer> targets = new HashSet<>();
+      for (int i = 0; i < TASKS; i++) {
+        sources.add(source(i));
+        targets.add(target(i));
+      }
+
+      for (int w = 0; w < WORKERS; w++) {
+        Communicator comm = new Communicator(config, channels.get(w),
+            System.getProperty("java.io.tmpdir")).newWithConfig(edgeProperties);
+        functions[w] = new RecordingSum();
+        Results results = new Results(received);
+        if (streaming) {
+          operations[w] = new SAllReduce(comm, plan(w), sources, targets,
+              MessageTypes.INTEGER_ARRAY, functions[w], results, comm.nextEdge(),
+              comm.nextEdge(), MessageSchema.noSchema());
+        } else {
+          operations[w] = new BAllReduce(comm, plan(w), sources, targets, functions[w],
+              results, MessageTypes.INTEGER_ARRAY);
+        }
+      }
+    }
+
+    /**
+     * Send the next array of a source
+     *
+     * @return true if the array is accepted
+     */
+    boolean send(int source) {
+      BaseOperation op = operations[source / TASKS_PER_WORKER];
+      int[] data = data(source, sent[source]);
+      boolean accepted = streaming ? ((SAllReduce) op).reduce(source, data, 0)
+          : ((BAllReduce) op).reduce(source, data, 0);
+      if (accepted) {
+        sent[source]++;
+      }
+      return accepted;
+    }
+
+    void finish(int source) {
+      operations[source / TASKS_PER_WORKER].finish(source);
+      finished[source] = true;
+    }
+
+    /**
+     * Send the given number of arrays from every source and progress until every target
+     * received its results, a batch operation must also complete
+     */
+    void run(int rounds) {
+      int expected = streaming ? rounds : 1;
+      for (int i = 0; i < MAX_ITERATIONS; i++) {
+        boolean complete = true;
+        for (int w = 0; w < WORKERS; w++) {
+          for (int t = 0; t < TASKS_PER_WORKER; t++) {
+            int source = w * TASKS_PER_WORKER + t;
+            if (sent[source] < rounds) {
+              send(source);
+              complete = false;
+            } else if (!streaming && !finished[source]) {
+              finish(source);
+            }
+          }
+          operations[w].progressChannel();
+          // the streaming receivers never complete
+          complete &= streaming || operations[w].isComplete();
+        }
+
+        if (complete && received.size() == TASKS && received.values().stream()
+            .allMatch(r -> r.size() == expected)) {
+          return;
+        }
+      }
+      Assert.fail("The allreduce did not complete");
+    }
+  }
+
+  private static Config config(String algorithm, int sendPendingMax) {
+    return config(algorithm, CommunicationContext.ALLTOALL_ALGO_RING, sendPendingMax);
+  }
+
+  private static Config config(String algorithm, String allToAll, int sendPendingMax) {
+    return Config.newBuilder()
+        .put(CommunicationContext.ALLREDUCE_ALGO_KEY, algorithm)
+        .put(CommunicationContext.ALLTOALL_ALGO_KEY, allToAll)
+        .put(CommunicationContext.SEND_PENDING_MAX, sendPendingMax)
+        .put(CommunicationContext.BUFFER_SIZE, 1024)
+        .put(CommunicationContext.SEND_BUFFERS_COUNT, 4)
+        .put(CommunicationContext.RECEIVE_BUFFERS_COUNT, 4)
+        .build();
+  }
+
+  private static int source(int index) {
+    return index;
+  }
+
+  private static int target(int index) {
+    return TASKS + index;
+  }
+
+  /**
+   * The tasks of a worker are its sources and the targets with the same index
+   */
+  private static LogicalPlan plan(int worker) {
+    Map<Integer, Set<Integer>> workerToTasks = new HashMap<>();
+    Set<Integer> allTasks = new HashSet<>();
+    for (int w = 0; w < WORKERS; w++) {
+      Set<Integer> tasks = new HashSet<>();
+      for (int t = 0; t < TASKS_PER_WORKER; t++) {
+        tasks.add(source(w * TASKS_PER_WORKER + t));
+        tasks.add(target(w * TASKS_PER_WORKER + t));
+      }
+      workerToTasks.put(w, tasks);
+      allTasks.addAll(tasks);
+    }
+    Map<Integer, Set<Integer>> groups = new HashMap<>();
+    groups.put(0, new HashSet<>(workerToTasks.keySet()));
+    Map<String, Set<Integer>> nodes = new HashMap<>();
+    nodes.put("localhost", allTasks);
+    return new LogicalPlan(workerToTasks, groups, nodes, worker);
+  }
+
+  /**
+   * Element j of the round r array of source s is s * 1000 + r * 100 + j
+   */
+  private static int[] data(int source, int round) {
+    int[] data = new int[LENGTH];
+    for (int j = 0; j < LENGTH; j++) {
+      data[j] = source * 1000 + round * 100 + j;
+    }
+    return data;
+  }
+
+  private static int index(int value) {
+    return value % 100;
+  }
+
+  /**
+   * The sum of the arrays of all the sources in the given rounds
+   */
+  private static int[] expected(int fromRound, int toRound) {
+    int[] sum = new int[LENGTH];
+    for (int s = 0; s < TASKS; s++) {
+      for (int r = fromRound; r < toRound; r++) {
+        int[] d = data(s, r);
+        for (int j = 0; j < LENGTH; j++) {
+          sum[j] += d[j];
+        }
+      }
+    }
+    return sum;
+  }
+
+  private static void assertResults(Map<Integer, List<int[]>> expected,
+                                    Map<Integer, List<int[]>> actual) {
+    Assert.assertEquals(expected.keySet(), actual.keySet());
+    for (Map.Entry<Integer, List<int[]>> e : expected.entrySet()) {
+      List<int[]> a = actual.get(e.getKey());
+      Assert.assertEquals(e.getValue().size(), a.size());
+      for (int i = 0; i < a.size(); i++) {
+        Assert.assertArrayEquals("Target " + e.getKey() + " round " + i,
+            e.getValue().get(i), a.get(i));
+      }
+    }
+  }
+
+  /**
+   * Every worker reduces only the chunks owned by its targets, the i th target in order
+   * owns the i th chunk
+   */
+  private static void assertChunkOwners(Cluster ring) {
+    for (int w = 0; w < WORKERS; w++) {
+      Set<Integer> owned = new HashSet<>();
+      for (int t = 0; t < TASKS_PER_WORKER; t++) {
+        owned.add(w * TASKS_PER_WORKER + t);
+      }
+      Assert.assertEquals("Chunks reduced by worker " + w, owned, ring.functions[w].chunks);
+    }
+  }
+
+  @Test
+  public void testBatchMatchesTree() {
+    int rounds = 3;
+    Cluster tree = new Cluster(config(CommunicationContext.ALLREDUCE_ALGO_TREE, 16), false);
+    tree.run(rounds);
+    Cluster ring = new Cluster(config(CommunicationContext.ALLREDUCE_ALGO_RING, 16), false);
+    ring.run(rounds);
+
+    assertResults(tree.received, ring.received);
+    for (List<int[]> r : ring.received.values()) {
+      Assert.assertArrayEquals(expected(0, rounds), r.get(0));
+    }
+    assertChunkOwners(ring);
+  }
+
+  @Test
+  public void testBatchWithSimpleAllToAll() {
+    int rounds = 3;
+    Cluster ring = new Cluster(config(CommunicationContext.ALLREDUCE_ALGO_RING,
+        CommunicationContext.ALLTOALL_ALGO_SIMPLE, 16), false);
+    ring.run(rounds);
+    for (List<int[]> r : ring.received.values()) {
+      Assert.assertArrayEquals(expected(0, rounds), r.get(0));
+    }
+    assertChunkOwners(ring);
+  }
+
+  @Test
+  public void testEdgePropertyWithDefaultConfig() {
+    Config config = ConfigLoader.loadTestConfig();
+    int rounds = 2;
+    Cluster tree = new Cluster(config, false);
+    tree.run(rounds);
+    // the tree reduces the whole arrays, which start with the first chunk
+    for (int w = 0; w < WORKERS; w++) {
+      Assert.assertTrue(Collections.singleton(0).containsAll(tree.functions[w].chunks));
+    }
+
+    Cluster ring = new Cluster(config, Collections.singletonMap(
+        CommunicationContext.ALLREDUCE_ALGO_KEY, CommunicationContext.ALLREDUCE_ALGO_RING),
+        false);
+    ring.run(rounds);
+    assertResults(tree.received, ring.received);
+    assertChunkOwners(ring);
+  }
+
+  @Test
+  public void testStreamingMatchesTree() {
+    int rounds = 4;
+    Cluster tree = new Cluster(config(CommunicationContext.ALLREDUCE_ALGO_TREE, 16), true);
+    tree.run(rounds);
+    Cluster ring = new Cluster(config(CommunicationContext.ALLREDUCE_ALGO_RING, 16), true);
+    ring.run(rounds);
+
+    assertResults(tree.received, ring.received);
+    // the rounds are reduced separately and delivered in order
+    for (List<int[]> r : ring.received.values()) {
+      for (int i = 0; i < rounds; i++) {
+        Assert.assertArrayEquals(expected(i, i + 1), r.get(i));
+      }
+    }
+    assertChunkOwners(ring);
+  }
+
+  @Test
+  public void testPendingChunksBlockNextMessage() {
+    // a single pending message per source, so the chunks of a message cannot be sent at once
+    Cluster ring = new Cluster(config(CommunicationContext.ALLREDUCE_ALGO_RING, 1), true);
+    Assert.assertTrue(ring.send(0));
+    Assert.assertFalse("The next message must wait for the pending chunks", ring.send(0));
+    Assert.assertEquals(1, ring.sent[0]);
+
+    int rounds = 3;
+    ring.run(rounds);
+    for (List<int[]> r : ring.received.values()) {
+      for (int i = 0; i < rounds; i++) {
+        Assert.assertArrayEquals(expected(i, i + 1), r.get(i));
+      }
+    }
+    assertChunkOwners(ring);
+  }
+
+  @Test
+  public void testFinishWaitsForPendingChunks() {
+    Cluster ring = new Cluster(config(CommunicationContext.ALLREDUCE_ALGO_RING, 1), false);
+    Assert.assertTrue(ring.send(0));
+    ring.finish(0);
+    Assert.assertFalse(ring.operations[0].isComplete());
+
+    ring.run(1);
+    for (List<int[]> r : ring.received.values()) {
+      Assert.assertArrayEquals(expected(0, 1), r.get(0));
+    }
+  }
+}
@@ -90,6 +90,34 @@ public class DataSerializerTest {
     Assert.assertArrayEquals((int[]) inMessage.getDeserializedData(), (int[]) data);
   }
 
+  @Test
+  public void testBuildLargeObjectMessagesOfDifferentSizes() {
+    int numBuffers = 20;
+    int size = 1000;
+    MessageType type = MessageTypes.OBJECT;
+    // the objects spanning several buffers are read in to pooled buffers, which can be longer
+    // than the next object
+    int[] lengths = {800, 300, 1200, 500};
+    for (int length : lengths) {
+      Object data = createData(length, type);
+      InMessage inMessage = singleValueCase(numBuffers, size, type, data);
+      Assert.assertArrayEquals((int[]) inMessage.getDeserializedData(), (int[]) data);
+    }
+  }
+
+  @Test
+  public void testBuildSmallObjectMessage() {
+    int numBuffers = 4;
+    int size = 1000;
+    MessageType type = MessageTypes.OBJECT;
+    for (int i = 0; i < 3; i++) {
+      // the object fits in to a single buffer and the serialization buffers are reused
+      Object data = createData(10 + i, type);
+      InMessage inMessage = singleValueCase(numBuffers, size, type, data);
+      Assert.assertArrayEquals((int[]) inMessage.getDeserializedData(), (int[]) data);
+    }
+  }
+
   private InMessage singleValueCase(int numBuffers, int size, MessageType type, Object data) {
     BlockingQueue<DataBuffer> bufferQueue = createDataQueue(numBuffers, size);
 
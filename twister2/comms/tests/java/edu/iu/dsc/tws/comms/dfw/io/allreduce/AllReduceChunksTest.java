@@ -0,0 +1,48 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.dfw.io.allreduce;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AllReduceChunksTest {
+
+  @Test
+  public void splitAndJoin() {
+    double[] array = new double[11];
+    for (int i = 0; i < array.length; i++) {
+      array[i] = i;
+    }
+
+    Object[] chunks = AllReduceChunks.split(array, 4);
+    Assert.assertEquals(4, chunks.length);
+    Assert.assertArrayEquals(new double[]{0, 1, 2}, (double[]) chunks[0], 0);
+    Assert.assertArrayEquals(new double[]{9, 10}, (double[]) chunks[3], 0);
+    Assert.assertArrayEquals(array, (double[]) AllReduceChunks.join(chunks), 0);
+  }
+
+  @Test
+  public void splitSmallArray() {
+    int[] array = {1, 2};
+
+    Object[] chunks = AllReduceChunks.split(array, 4);
+    Assert.assertEquals(0, ((int[]) chunks[3]).length);
+    Assert.assertArrayEquals(array, (int[]) AllReduceChunks.join(chunks));
+  }
+
+  @Test
+  public void keys() {
+    long key = AllReduceChunks.key(12, 7);
+    Assert.assertEquals(12, AllReduceChunks.round(key));
+    Assert.assertEquals(7, AllReduceChunks.chunk(key));
+  }
+}
@@ -0,0 +1,342 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.dfw.io.reduce.keyed;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import edu.iu.dsc.tws.api.comms.BulkReceiver;
+import edu.iu.dsc.tws.api.comms.DataFlowOperation;
+import edu.iu.dsc.tws.api.comms.LogicalPlan;
+import edu.iu.dsc.tws.api.comms.Op;
+import edu.iu.dsc.tws.api.comms.ReduceFunction;
+import edu.iu.dsc.tws.api.comms.messaging.MessageFlags;
+import edu.iu.dsc.tws.api.comms.messaging.types.MessageType;
+import edu.iu.dsc.tws.api.comms.messaging.types.MessageTypes;
+import edu.iu.dsc.tws.api.comms.structs.Tuple;
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.comms.functions.reduction.ReduceOperationFunction;
+
+public class KReduceBatchPrimitiveFinalReceiverTest {
+  private static final List<Integer> SOURCES = Arrays.asList(10, 11);
+
+  private static final List<Integer> TARGETS = Arrays.asList(0, 1);
+
+  /**
+   * Number of values each source sends for a key, more than the low water mark so the values
+   * are merged while receiving
+   */
+  private static final int VALUES = 20;
+
+  private static final int KEYS = 5;
+
+  /**
+   * Records the reduced values and the syncs of each target
+   */
+  private static class RecordingReceiver implements BulkReceiver {
+    private Map<Integer, Map<Object, Object>> received = new HashMap<>();
+
+    private Map<Integer, List<byte[]>> syncs = new HashMap<>();
+
+    private int refuse;
+
+    RecordingReceiver(int refuse) {
+      this.refuse = refuse;
+    }
+
+    @Override
+    public void init(Config cfg, Set<Integer> targets) {
+      for (int target : targets) {
+        received.put(target, new HashMap<>());
+        syncs.put(target, new ArrayList<>());
+      }
+    }
+
+    @Override
+    public boolean receive(int target, Iterator<Object> it) {
+      if (refuse > 0) {
+        refuse--;
+        return false;
+      }
+      while (it.hasNext()) {
+        Tuple tuple = (Tuple) it.next();
+        Assert.assertNull("Key received twice", received.get(target).put(tuple.getKey(),
+            tuple.getValue()));
+      }
+      return true;
+    }
+
+    @Override
+    public boolean sync(int target, byte[] message) {
+      syncs.get(target).add(message);
+      return true;
+    }
+  }
+
+  /**
+   * A reduce function that only works on boxed values
+   */
+  private static class BoxedSum implements ReduceFunction {
+    @Override
+    public void init(Config cfg, DataFlowOperation op, Map<Integer, List<Integer>> expectedIds) {
+    }
+
+    @Override
+    public Object reduce(Object t1, Object t2) {
+      if (t1 instanceof Integer) {
+        return (Integer) t1 + (Integer) t2;
+      } else if (t1 instanceof Long) {
+        return (Long) t1 + (Long) t2;
+      }
+      return (Double) t1 + (Double) t2;
+    }
+  }
+
+  private static KReduceBatchPrimitiveFinalReceiver create(ReduceFunction function,
+                                                           BulkReceiver receiver,
+                                                           MessageType keyType,
+                                                           MessageType dataType) {
+    LogicalPlan plan = Mockito.mock(LogicalPlan.class);
+    Mockito.when(plan.getThisWorker()).thenReturn(0);
+    DataFlowOperation op = Mockito.mock(DataFlowOperation.class);
+    Mockito.when(op.getLogicalPlan()).thenReturn(plan);
+    Mockito.when(op.getSources()).thenReturn(new HashSet<>(SOURCES));
+    Mockito.when(op.getTargets()).thenReturn(new HashSet<>(TARGETS));
+
+    Map<Integer, List<Integer>> expectedIds = new HashMap<>();
+    for (int target : TARGETS) {
+      expectedIds.put(target, SOURCES);
+    }
+    KReduceBatchPrimitiveFinalReceiver finalReceiver = new KReduceBatchPrimitiveFinalReceiver(
+        function, receiver, keyType, dataType);
+    finalReceiver.init(Config.newBuilder().build(), op, expectedIds);
+    return finalReceiver;
+  }
+
+  private static Object key(MessageType keyType, int key) {
+    return keyType == MessageTypes.INTEGER ? (Object) key : (Object) (long) key;
+  }
+
+  private static Object value(MessageType dataType, int value) {
+    if (dataType == MessageTypes.INTEGER) {
+      return value;
+    } else if (dataType == MessageTypes.LONG) {
+      return (long) value;
+    }
+    return value + 0.5;
+  }
+
+  /**
+   * Send the values of each source to each target, the value of a key is the key + 1
+   */
+  private static void send(KReduceBatchPrimitiveFinalReceiver finalReceiver,
+                           MessageType keyType, MessageType dataType) {
+    for (int i = 0; i < VALUES; i++) {
+      for (int source : SOURCES) {
+        for (int target : TARGETS) {
+          int k = i % KEYS;
+          while (!finalReceiver.onMessage(source, 0, target, 0,
+              new Tuple<>(key(keyType, k), value(dataType, k + 1)))) {
+            finalReceiver.progress();
+          }
+        }
+      }
+    }
+  }
+
+  private static void sync(KReduceBatchPrimitiveFinalReceiver finalReceiver, int target,
+                           int flags, byte[] barrier) {
+    for (int source : SOURCES) {
+      Assert.assertTrue(finalReceiver.onMessage(source, 0, target, flags, barrier));
+    }
+  }
+
+  private static void progressToComplete(KReduceBatchPrimitiveFinalReceiver finalReceiver) {
+    for (int i = 0; i < 100 && !finalReceiver.isComplete(); i++) {
+      finalReceiver.progress();
+    }
+    Assert.assertTrue(finalReceiver.isComplete());
+  }
+
+  private static Map<Object, Object> expected(MessageType keyType, MessageType dataType) {
+    int count = VALUES / KEYS * SOURCES.size();
+    Map<Object, Object> expected = new HashMap<>();
+    for (int k = 0; k < KEYS; k++) {
+      if (dataType == MessageTypes.INTEGER) {
+        expected.put(key(keyType, k), (k + 1) * count);
+      } else if (dataType == MessageTypes.LONG) {
+        expected.put(key(keyType, k), (long) (k + 1) * count);
+      } else {
+        expected.put(key(keyType, k), (k + 1.5) * count);
+      }
+    }
+    return expected;
+  }
+
+  private void reduceAll(ReduceFunction function, MessageType keyType, MessageType dataType) {
+    RecordingReceiver receiver = new RecordingReceiver(0);
+    KReduceBatchPrimitiveFinalReceiver finalReceiver = create(function, receiver, keyType,
+        dataType);
+    send(finalReceiver, keyType, dataType);
+    for (int target : TARGETS) {
+      sync(finalReceiver, target, MessageFlags.SYNC_EMPTY, null);
+    }
+    progressToComplete(finalReceiver);
+
+    String types = keyType + ", " + dataType;
+    for (int target : TARGETS) {
+      Assert.assertEquals(types, expected(keyType, dataType), receiver.received.get(target));
+      Assert.assertEquals(types, 1, receiver.syncs.get(target).size());
+    }
+  }
+
+  @Test
+  public void testPrimitiveFunction() {
+    for (MessageType keyType : Arrays.asList(MessageTypes.INTEGER, MessageTypes.LONG)) {
+      for (MessageType dataType : Arrays.asList(MessageTypes.INTEGER, MessageTypes.LONG,
+          MessageTypes.DOUBLE)) {
+        reduceAll(new ReduceOperationFunction(Op.SUM, dataType), keyType, dataType);
+      }
+    }
+  }
+
+  @Test
+  public void testBoxedFunction() {
+    for (MessageType keyType : Arrays.asList(MessageTypes.INTEGER, MessageTypes.LONG)) {
+      for (MessageType dataType : Arrays.asList(MessageTypes.INTEGER, MessageTypes.LONG,
+          MessageTypes.DOUBLE)) {
+        reduceAll(new BoxedSum(), keyType, dataType);
+      }
+    }
+  }
+
+  @Test
+  public void testValuesAreSentAfterAllSyncs() {
+    RecordingReceiver receiver = new RecordingReceiver(0);
+    KReduceBatchPrimitiveFinalReceiver finalReceiver = create(new BoxedSum(), receiver,
+        MessageTypes.INTEGER, MessageTypes.LONG);
+    send(finalReceiver, MessageTypes.INTEGER, MessageTypes.LONG);
+
+    // a sync from one source only, the target waits for the other source
+    Assert.assertTrue(finalReceiver.onMessage(SOURCES.get(0), 0, 0, MessageFlags.SYNC_EMPTY,
+        null));
+    finalReceiver.progress();
+    Assert.assertTrue(receiver.received.get(0).isEmpty());
+    // the source that synced can not send more values
+    Assert.assertFalse(finalReceiver.onMessage(SOURCES.get(0), 0, 0, 0,
+        new Tuple<>(1, 1L)));
+
+    Assert.assertTrue(finalReceiver.onMessage(SOURCES.get(1), 0, 0, MessageFlags.SYNC_EMPTY,
+        null));
+    finalReceiver.progress();
+    Assert.assertEquals(expected(MessageTypes.INTEGER, MessageTypes.LONG),
+        receiver.received.get(0));
+    Assert.assertEquals(1, receiver.syncs.get(0).size());
+    Assert.assertTrue(receiver.received.get(1).isEmpty());
+    Assert.assertFalse(finalReceiver.isComplete());
+
+    sync(finalReceiver, 1, MessageFlags.SYNC_EMPTY, null);
+    progressToComplete(finalReceiver);
+    Assert.assertEquals(expected(MessageTypes.INTEGER, MessageTypes.LONG),
+        receiver.received.get(1));
+  }
+
+  @Test
+  public void testRefusedValuesAreSentAgain() {
+    RecordingReceiver receiver = new RecordingReceiver(3);
+    KReduceBatchPrimitiveFinalReceiver finalReceiver = create(
+        new ReduceOperationFunction(Op.SUM, MessageTypes.DOUBLE), receiver,
+        MessageTypes.LONG, MessageTypes.DOUBLE);
+    send(finalReceiver, MessageTypes.LONG, MessageTypes.DOUBLE);
+    for (int target : TARGETS) {
+      sync(finalReceiver, target, MessageFlags.SYNC_EMPTY, null);
+    }
+    Assert.assertTrue(finalReceiver.progress());
+    Assert.assertFalse(finalReceiver.isComplete());
+    progressToComplete(finalReceiver);
+    for (int target : TARGETS) {
+      Assert.assertEquals(expected(MessageTypes.LONG, MessageTypes.DOUBLE),
+          receiver.received.get(target));
+      Assert.assertEquals(1, receiver.syncs.get(target).size());
+    }
+  }
+
+  @Test
+  public void testBarrierSync() {
+    RecordingReceiver receiver = new RecordingReceiver(0);
+    KReduceBatchPrimitiveFinalReceiver finalReceiver = create(
+        new ReduceOperationFunction(Op.MAX, MessageTypes.INTEGER), receiver,
+        MessageTypes.INTEGER, MessageTypes.INTEGER);
+    send(finalReceiver, MessageTypes.INTEGER, MessageTypes.INTEGER);
+    byte[] barrier = {1, 2, 3};
+    for (int target : TARGETS) {
+      sync(finalReceiver, target, MessageFlags.SYNC_BARRIER, barrier);
+    }
+    progressToComplete(finalReceiver);
+    for (int target : TARGETS) {
+      for (int k = 0; k < KEYS; k++) {
+        Assert.assertEquals(k + 1, receiver.received.get(target).get(k));
+      }
+      Assert.assertArrayEquals(barrier, receiver.syncs.get(target).get(0));
+    }
+  }
+
+  @Test
+  public void testSyncWithoutValues() {
+    RecordingReceiver receiver = new RecordingReceiver(0);
+    KReduceBatchPrimitiveFinalReceiver finalReceiver = create(new BoxedSum(), receiver,
+        MessageTypes.LONG, MessageTypes.INTEGER);
+    for (int target : TARGETS) {
+      sync(finalReceiver, target, MessageFlags.SYNC_EMPTY, null);
+    }
+    progressToComplete(finalReceiver);
+    for (int target : TARGETS) {
+      Assert.assertTrue(receiver.received.get(target).isEmpty());
+      Assert.assertEquals(1, receiver.syncs.get(target).size());
+    }
+  }
+
+  @Test
+  public void testUnsupportedTypes() {
+    List<MessageType> types = Arrays.asList(MessageTypes.INTEGER, MessageTypes.LONG,
+        MessageTypes.DOUBLE, MessageTypes.SHORT, MessageTypes.STRING, MessageTypes.OBJECT,
+        MessageTypes.INTEGER_ARRAY);
+    for (MessageType keyType : types) {
+      for (MessageType dataType : types) {
+        boolean supported = (keyType == MessageTypes.INTEGER || keyType == MessageTypes.LONG)
+            && (dataType == MessageTypes.INTEGER || dataType == MessageTypes.LONG
+            || dataType == MessageTypes.DOUBLE);
+        Assert.assertEquals(keyType + ", " + dataType, supported,
+            KReduceBatchPrimitiveFinalReceiver.isSupported(keyType, dataType));
+        if (!supported) {
+          try {
+            new KReduceBatchPrimitiveFinalReceiver(new BoxedSum(), new RecordingReceiver(0),
+                keyType, dataType);
+            Assert.fail("Created a receiver for " + keyType + ", " + dataType);
+          } catch (IllegalArgumentException e) {
+            // the keyed reduce falls back to the object receiver for these types
+          }
+        }
+      }
+    }
+  }
+}
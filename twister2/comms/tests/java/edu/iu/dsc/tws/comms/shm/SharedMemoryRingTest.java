@@ -0,0 +1,70 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.shm;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SharedMemoryRingTest {
+
+  @Test
+  public void writeAndRead() throws IOException {
+    Path dir = Files.createTempDirectory("twister2-shm");
+    Path file = dir.resolve("ring");
+    SharedMemoryRing consumer = SharedMemoryRing.create(file, 256);
+    SharedMemoryRing producer = SharedMemoryRing.open(file, 256);
+
+    ByteBuffer src = ByteBuffer.allocate(100);
+    ByteBuffer dst = ByteBuffer.allocate(100);
+    int read = 0;
+    for (int i = 0; i < 50; i++) {
+      // records of different sizes so that they wrap around at different places
+      int length = 4 + (i % 10) * 8;
+      src.clear();
+      while (src.position() < length) {
+        src.put((byte) i);
+      }
+      while (!producer.write(i, src, length)) {
+        // the ring is full, read from it to make space
+        Assert.assertTrue(consumer.hasNext());
+        checkRecord(consumer, dst, read++);
+      }
+    }
+    while (consumer.hasNext()) {
+      checkRecord(consumer, dst, read++);
+    }
+    Assert.assertEquals(50, read);
+
+    producer.close();
+    consumer.close();
+    Assert.assertFalse(Files.exists(file));
+    Files.delete(dir);
+  }
+
+  private void checkRecord(SharedMemoryRing ring, ByteBuffer dst, int expected) {
+    Assert.assertEquals(expected, ring.nextEdge());
+    int length = ring.nextLength();
+    Assert.assertEquals(4 + (expected % 10) * 8, length);
+    dst.clear();
+    ring.read(dst);
+    dst.flip();
+    Assert.assertEquals(length, dst.remaining());
+    while (dst.hasRemaining()) {
+      Assert.assertEquals((byte) expected, dst.get());
+    }
+  }
+}
@@ -0,0 +1,267 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.shm;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import edu.iu.dsc.tws.api.comms.CommunicationContext;
+import edu.iu.dsc.tws.api.comms.channel.ChannelListener;
+import edu.iu.dsc.tws.api.comms.channel.TWSChannel;
+import edu.iu.dsc.tws.api.comms.messaging.ChannelMessage;
+import edu.iu.dsc.tws.api.comms.messaging.MessageHeader;
+import edu.iu.dsc.tws.api.comms.packing.DataBuffer;
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.api.config.Context;
+import edu.iu.dsc.tws.api.config.SchedulerContext;
+import edu.iu.dsc.tws.api.exceptions.Twister2RuntimeException;
+import edu.iu.dsc.tws.api.resource.IWorkerController;
+import edu.iu.dsc.tws.api.resource.Network;
+import edu.iu.dsc.tws.comms.LocalChannel;
+import edu.iu.dsc.tws.proto.jobmaster.JobMasterAPI;
+
+/**
+ * Runs the shared memory channel between three workers, the first two on the same node and
+ * the third on another node connected by a {@link LocalChannel}.
+ */
+public class TWSSharedMemoryChannelTest {
+  private static final int WORKERS = 3;
+
+  private static final int EDGE = 5;
+
+  private static final int MESSAGES = 200;
+
+  private static final int MAX_SIZE = 120;
+
+  private static int jobs = 0;
+
+  private Path directory;
+
+  @Before
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("twister2-shm");
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    Files.delete(directory);
+  }
+
+  /**
+   * Receives the buffers of a worker and gives the buffers back to the channel
+   */
+  private static final class Receiver implements ChannelListener {
+    private Queue<DataBuffer> buffers = new ArrayDeque<>();
+
+    private List<byte[]> received = new ArrayList<>();
+
+    private int sent = 0;
+
+    Receiver() {
+      for (int i = 0; i < 4; i++) {
+        buffers.add(new DataBuffer(ByteBuffer.allocate(MAX_SIZE)));
+      }
+    }
+
+    @Override
+    public void onReceiveComplete(int id, int stream, DataBuffer message) {
+      Assert.assertEquals(0, id);
+      Assert.assertEquals(EDGE, stream);
+      byte[] data = new byte[message.getSize()];
+      message.getByteBuffer().get(data);
+      received.add(data);
+      buffers.add(message);
+    }
+
+    @Override
+    public void onSendComplete(int id, int stream, ChannelMessage message) {
+      Assert.assertEquals(EDGE, stream);
+      sent++;
+    }
+  }
+
+  @Test
+  public void sendToLocalAndRemoteWorkers() throws Exception {
+    // a small ring, so that the records wrap around and the sends wait for space
+    List<TWSChannel> channels = createChannels(config(LocalChannel.class.getName(), 256));
+    Assert.assertTrue(channels.get(0) instanceof TWSSharedMemoryChannel);
+    Assert.assertEquals(2, Files.list(directory).count());
+
+    Receiver sender = new Receiver();
+    List<Receiver> receivers = new ArrayList<>();
+    for (int w = 1; w < WORKERS; w++) {
+      Receiver receiver = new Receiver();
+      channels.get(w).receiveMessage(0, 0, EDGE, receiver, receiver.buffers);
+      receivers.add(receiver);
+    }
+
+    int next = 0;
+    while (next < MESSAGES || receivers.get(0).received.size() < MESSAGES * 2
+        || receivers.get(1).received.size() < MESSAGES * 2) {
+      if (next < MESSAGES && channels.get(0).sendMessage(1, message(next), sender)) {
+        Assert.assertTrue(channels.get(0).sendMessage(2, message(next), sender));
+        next++;
+      }
+      channels.forEach(TWSChannel::progress);
+    }
+    channels.forEach(TWSChannel::progress);
+
+    Assert.assertEquals(MESSAGES * 2, sender.sent);
+    Assert.assertTrue(channels.get(0).isComplete());
+    for (Receiver receiver : receivers) {
+      for (int i = 0; i < MESSAGES * 2; i++) {
+        checkData(i, receiver.received.get(i));
+      }
+    }
+
+    channels.forEach(TWSChannel::close);
+    Assert.assertEquals(0, Files.list(directory).count());
+  }
+
+  @Test
+  public void waitForReceiveBuffers() throws Exception {
+    List<TWSChannel> channels = createChannels(config(LocalChannel.class.getName(), 4096));
+    Receiver sender = new Receiver();
+    Receiver receiver = new Receiver();
+    Queue<DataBuffer> available = new ArrayDeque<>();
+    channels.get(1).receiveMessage(0, 0, EDGE, receiver, available);
+
+    for (int i = 0; i < 3; i++) {
+      Assert.assertTrue(channels.get(0).sendMessage(1, message(i), sender));
+    }
+    channels.forEach(TWSChannel::progress);
+    // the records stay in the ring until there are receive buffers
+    Assert.assertEquals(3, sender.sent);
+    Assert.assertTrue(receiver.received.isEmpty());
+
+    available.add(receiver.buffers.poll());
+    channels.get(1).progress();
+    Assert.assertEquals(1, receiver.received.size());
+    available.add(receiver.buffers.poll());
+    available.add(receiver.buffers.poll());
+    channels.get(1).progress();
+    Assert.assertEquals(3, receiver.received.size());
+    // the listener gives the buffers back to its own queue
+    while (!receiver.buffers.isEmpty()) {
+      available.add(receiver.buffers.poll());
+    }
+    channels.get(1).progress();
+    Assert.assertEquals(6, receiver.received.size());
+    for (int i = 0; i < 6; i++) {
+      checkData(i, receiver.received.get(i));
+    }
+    channels.forEach(TWSChannel::close);
+  }
+
+  @Test(expected = Twister2RuntimeException.class)
+  public void remoteChannelMustBeDifferent() throws Exception {
+    createChannels(config(TWSSharedMemoryChannel.class.getName(), 256));
+  }
+
+  private Config config(String remoteClass, int ringSize) {
+    return Config.newBuilder()
+        .put(Context.JOB_ID, "shm-test-" + jobs++)
+        .put(SchedulerContext.NETWORK_CLASS, TWSSharedMemoryChannel.class.getName())
+        .put(CommunicationContext.SHM_CHANNEL_REMOTE_CLASS, remoteClass)
+        .put(CommunicationContext.SHM_CHANNEL_DIRECTORY, directory.toString())
+        .put(CommunicationContext.SHM_CHANNEL_RING_SIZE, ringSize)
+        .build();
+  }
+
+  /**
+   * Create the channels of the workers, each in its own thread as the workers wait for each
+   * other to create their rings
+   */
+  private List<TWSChannel> createChannels(Config config) throws Exception {
+    List<JobMasterAPI.WorkerInfo> workers = new ArrayList<>();
+    for (int w = 0; w < WORKERS; w++) {
+      workers.add(JobMasterAPI.WorkerInfo.newBuilder()
+          .setWorkerID(w)
+          .setWorkerIP(w < 2 ? "10.0.0.1" : "10.0.0.2")
+          .build());
+    }
+
+    CyclicBarrier barrier = new CyclicBarrier(WORKERS);
+    ExecutorService executor = Executors.newFixedThreadPool(WORKERS);
+    try {
+      List<Future<TWSChannel>> futures = new ArrayList<>();
+      for (JobMasterAPI.WorkerInfo worker : workers) {
+        IWorkerController controller = Mockito.mock(IWorkerController.class);
+        Mockito.when(controller.getWorkerInfo()).thenReturn(worker);
+        Mockito.when(controller.getJoinedWorkers()).thenReturn(workers);
+        Mockito.doAnswer(invocation -> barrier.await()).when(controller).waitOnBarrier();
+        futures.add(executor.submit(() -> Network.initializeChannel(config, controller)));
+      }
+
+      List<TWSChannel> channels = new ArrayList<>();
+      for (Future<TWSChannel> future : futures) {
+        channels.add(future.get());
+      }
+      return channels;
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * A message with two buffers of different sizes
+   */
+  private static ChannelMessage message(int index) {
+    ChannelMessage message = new ChannelMessage();
+    message.setHeader(MessageHeader.newBuilder(0, EDGE).build());
+    message.addBuffer(buffer(index * 2));
+    message.addBuffer(buffer(index * 2 + 1));
+    return message;
+  }
+
+  private static int size(int index) {
+    return 1 + (index * 7) % MAX_SIZE;
+  }
+
+  private static DataBuffer buffer(int index) {
+    DataBuffer buffer = new DataBuffer(ByteBuffer.allocate(MAX_SIZE));
+    for (int i = 0; i < size(index); i++) {
+      buffer.getByteBuffer().put((byte) (index + i));
+    }
+    buffer.setSize(size(index));
+    return buffer;
+  }
+
+  private static void checkData(int index, byte[] data) {
+    Assert.assertEquals(size(index), data.length);
+    for (int i = 0; i < data.length; i++) {
+      Assert.assertEquals((byte) (index + i), data[i]);
+    }
+  }
+}
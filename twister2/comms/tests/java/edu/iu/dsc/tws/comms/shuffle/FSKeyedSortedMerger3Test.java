@@ -0,0 +1,170 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.shuffle;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.iu.dsc.tws.api.comms.messaging.types.MessageTypes;
+import edu.iu.dsc.tws.api.comms.packing.types.primitive.IntegerArrayPacker;
+import edu.iu.dsc.tws.api.comms.structs.Tuple;
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.api.util.CommonThreadPool;
+import edu.iu.dsc.tws.comms.utils.ByteArrayComparator;
+
+@SuppressWarnings({"unchecked", "rawtypes"})
+public class FSKeyedSortedMerger3Test {
+
+  private FSKeyedSortedMerger3 fsMerger;
+
+  @Before
+  public void before() throws Exception {
+    CommonThreadPool.init(Config.newBuilder().build());
+  }
+
+  @After
+  public void after() throws Exception {
+    if (fsMerger != null) {
+      fsMerger.clean();
+    }
+  }
+
+  @Test
+  public void testGroupByKey() throws Exception {
+    fsMerger = new FSKeyedSortedMerger3(100000, 10000, "/tmp",
+        "fskeyedsortedmerger3-" + UUID.randomUUID(), MessageTypes.INTEGER,
+        MessageTypes.INTEGER_ARRAY, Comparator.comparingInt(i -> (Integer) i), 0, true, 2);
+
+    int dataLength = 1024;
+    int noOfKeys = 1000;
+    int dataForEachKey = 10;
+    int[] data = new int[dataLength];
+    Arrays.fill(data, 1);
+    byte[] byteType = IntegerArrayPacker.getInstance().packToByteArray(data);
+    for (int j = 0; j < dataForEachKey; j++) {
+      for (int i = noOfKeys - 1; i >= 0; i--) {
+        fsMerger.add(i, byteType, byteType.length);
+        fsMerger.run();
+      }
+    }
+
+    fsMerger.switchToReading();
+
+    Iterator<Object> it = fsMerger.readIterator();
+    int count = 0;
+    Set<Integer> set = new HashSet<>();
+    int current = 0;
+    while (it.hasNext()) {
+      Tuple val = (Tuple) it.next();
+      int k = (int) val.getKey();
+      Assert.assertTrue("Wrong order", k >= current);
+      current = k;
+      Assert.assertTrue("Duplicate value", set.add(k));
+      Iterator dataIt = (Iterator) val.getValue();
+      int dataCount = 0;
+      while (dataIt.hasNext()) {
+        int[] arr = (int[]) dataIt.next();
+        Assert.assertEquals(dataLength, arr.length);
+        dataCount++;
+      }
+      Assert.assertEquals(dataForEachKey, dataCount);
+      count++;
+    }
+    Assert.assertEquals(noOfKeys, count);
+  }
+
+  @Test
+  public void testByteArrayKeys() throws Exception {
+    fsMerger = new FSKeyedSortedMerger3(10000, 10000, "/tmp",
+        "fskeyedsortedmerger3-" + UUID.randomUUID(), MessageTypes.BYTE_ARRAY,
+        MessageTypes.INTEGER, ByteArrayComparator.getInstance(), 0, false, 2);
+
+    Random random = new Random(0);
+    int noOfRecords = 20000;
+    for (int i = 0; i < noOfRecords; i++) {
+      // short keys and keys sharing the first 8 bytes are compared using the full key
+      byte[] key = new byte[random.nextInt(12)];
+      random.nextBytes(key);
+      if (key.length > 8 && i % 2 == 0) {
+        Arrays.fill(key, 0, 8, (byte) 1);
+      }
+      byte[] value = MessageTypes.INTEGER.getDataPacker().packToByteArray(i);
+      fsMerger.add(key, value, value.length);
+      fsMerger.run();
+    }
+
+    fsMerger.switchToReading();
+
+    Iterator<Object> it = fsMerger.readIterator();
+    Set<Integer> values = new HashSet<>();
+    byte[] previous = null;
+    while (it.hasNext()) {
+      Tuple val = (Tuple) it.next();
+      byte[] key = (byte[]) val.getKey();
+      if (previous != null) {
+        Assert.assertTrue("Wrong order",
+            ByteArrayComparator.getInstance().compare(previous, key) <= 0);
+      }
+      previous = key;
+      Assert.assertTrue("Duplicate value", values.add((Integer) val.getValue()));
+    }
+    Assert.assertEquals(noOfRecords, values.size());
+  }
+
+  @Test
+  public void testRestore() throws Exception {
+    fsMerger = new FSKeyedSortedMerger3(1000, 1000, "/tmp",
+        "fskeyedsortedmerger3-" + UUID.randomUUID(), MessageTypes.INTEGER,
+        MessageTypes.INTEGER, (Comparator<Integer>) Integer::compare, 0, true, 1);
+
+    int noOfKeys = 100000;
+    for (int i = 0; i < noOfKeys; i++) {
+      byte[] bytes = MessageTypes.INTEGER.getDataPacker().packToByteArray(i);
+      fsMerger.add(i, bytes, bytes.length);
+      fsMerger.run();
+    }
+
+    fsMerger.switchToReading();
+
+    RestorableIterator<Object> it = fsMerger.readIterator();
+    boolean restored = false;
+    int i = 0;
+    while (i < noOfKeys) {
+      Tuple tuple = (Tuple) it.next();
+      Assert.assertEquals(i, tuple.getKey());
+      Assert.assertEquals(i, ((Iterator) tuple.getValue()).next());
+
+      if (i == 40000 && !it.hasRestorePoint()) {
+        it.createRestorePoint();
+      }
+
+      if (i == 70000 && !restored) {
+        it.restore();
+        it.clearRestorePoint();
+        i = 40000;
+        restored = true;
+      }
+      i++;
+    }
+    Assert.assertFalse(it.hasNext());
+  }
+}
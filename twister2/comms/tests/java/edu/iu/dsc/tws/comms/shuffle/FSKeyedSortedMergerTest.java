@@ -29,6 +29,7 @@ import edu.iu.dsc.tws.api.comms.messaging.types.MessageTypes;
 import edu.iu.dsc.tws.api.comms.packing.types.primitive.IntegerArrayPacker;
 import edu.iu.dsc.tws.api.comms.structs.Tuple;
 import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.api.util.BlockCodecs;
 import edu.iu.dsc.tws.api.util.CommonThreadPool;
 import edu.iu.dsc.tws.api.util.KryoSerializer;
 
@@ -64,6 +65,19 @@ public class FSKeyedSortedMergerTest {
 
   @Test
   public void testStart() throws Exception {
+    addAndRead();
+  }
+
+  @Test
+  public void testCompressed() throws Exception {
+    fsMerger.clean();
+    fsMerger = new FSKeyedSortedMerger2(100000, 10000, "/tmp",
+        "fskeyedsortedmerger", MessageTypes.INTEGER, MessageTypes.INTEGER_ARRAY,
+        Comparator.comparingInt(i -> (Integer) i), 0, true, 2, BlockCodecs.LZ4);
+    addAndRead();
+  }
+
+  private void addAndRead() {
     int dataLength = 1024;
     int noOfKeys = 1000;
     int dataForEachKey = 10;
@@ -0,0 +1,120 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.table;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.apache.arrow.vector.util.Text;
+import org.junit.Assert;
+import org.junit.Test;
+
+import edu.iu.dsc.tws.common.table.ArrowColumn;
+import edu.iu.dsc.tws.common.table.Table;
+import edu.iu.dsc.tws.common.table.arrow.ArrowTable;
+
+public class ArrowTablePartitionerTest {
+  private static final int ROWS = 1000;
+
+  @Test
+  public void testPartition() {
+    RootAllocator allocator = new RootAllocator(Integer.MAX_VALUE);
+    Schema schema = new Schema(Arrays.asList(
+        new Field("int", new FieldType(false, new ArrowType.Int(32, true), null), null),
+        new Field("str", new FieldType(false, new ArrowType.Utf8(), null), null)));
+
+    IntVector ints = new IntVector("int", allocator);
+    VarCharVector strings = new VarCharVector("str", allocator);
+    for (int i = 0; i < ROWS; i++) {
+      ints.setSafe(i, i % 100);
+      strings.setSafe(i, new Text("value-" + i));
+    }
+    ints.setValueCount(ROWS);
+    strings.setValueCount(ROWS);
+    Table table = new ArrowTable(schema, Arrays.asList(new FieldVector[]{ints, strings}));
+
+    Set<Integer> targets = new HashSet<>(Arrays.asList(4, 1, 3, 2));
+    ArrowTablePartitioner partitioner = new ArrowTablePartitioner(targets, new int[]{0},
+        schema, allocator);
+    Map<Integer, Table> partitions = partitioner.partition(table);
+
+    int total = 0;
+    Set<Integer> seenStrings = new HashSet<>();
+    for (Map.Entry<Integer, Table> e : partitions.entrySet()) {
+      Table t = e.getValue();
+      List<ArrowColumn> columns = t.getColumns();
+      total += t.rowCount();
+      int previous = -1;
+      for (int i = 0; i < t.rowCount(); i++) {
+        int key = (Integer) columns.get(0).get(i);
+        // all the rows with the same key go to the same target
+        Assert.assertEquals((int) e.getKey(), targetOf(key));
+        String value = columns.get(1).get(i).toString();
+        int row = Integer.parseInt(value.substring("value-".length()));
+        Assert.assertEquals(key, row % 100);
+        // the order of the rows is kept
+        Assert.assertTrue(row > previous);
+        previous = row;
+        seenStrings.add(row);
+      }
+    }
+    Assert.assertEquals(ROWS, total);
+    Assert.assertEquals(ROWS, seenStrings.size());
+  }
+
+  @Test
+  public void testPartitionToTargets() {
+    RootAllocator allocator = new RootAllocator(Integer.MAX_VALUE);
+    Schema schema = new Schema(Arrays.asList(
+        new Field("int", new FieldType(false, new ArrowType.Int(32, true), null), null)));
+    IntVector ints = new IntVector("int", allocator);
+    for (int i = 0; i < ROWS; i++) {
+      ints.setSafe(i, i);
+    }
+    ints.setValueCount(ROWS);
+    Table table = new ArrowTable(schema, Arrays.asList(new FieldVector[]{ints}));
+
+    Set<Integer> targets = new HashSet<>(Arrays.asList(0, 1));
+    int[] rowTargets = new int[ROWS];
+    for (int i = 0; i < ROWS; i++) {
+      rowTargets[i] = i < 10 ? 1 : 0;
+    }
+    ArrowTablePartitioner partitioner = new ArrowTablePartitioner(targets, new int[]{0},
+        schema, allocator);
+    Map<Integer, Table> partitions = partitioner.partition(table, rowTargets);
+
+    Assert.assertEquals(ROWS - 10, partitions.get(0).rowCount());
+    Assert.assertEquals(10, partitions.get(1).rowCount());
+    List<Integer> values = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      values.add((Integer) partitions.get(1).getColumns().get(0).get(i));
+    }
+    Assert.assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), values);
+  }
+
+  private static int targetOf(int key) {
+    // targets 1, 2, 3, 4 sorted, an integer hashes to itself
+    return 1 + (key & Integer.MAX_VALUE) % 4;
+  }
+}
@@ -0,0 +1,76 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.comms.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import it.unimi.dsi.fastutil.ints.AbstractIntComparator;
+
+public class LoserTreeTest {
+
+  @Test
+  public void merge() {
+    int[][] runs = {{1, 4, 9}, {2, 3, 10, 11}, {}, {5, 6, 7, 8}, {0}};
+    int[] positions = new int[runs.length];
+    LoserTree tree = new LoserTree(runs.length, new AbstractIntComparator() {
+      @Override
+      public int compare(int s1, int s2) {
+        boolean done1 = positions[s1] >= runs[s1].length;
+        boolean done2 = positions[s2] >= runs[s2].length;
+        if (done1 || done2) {
+          return Boolean.compare(done1, done2);
+        }
+        return Integer.compare(runs[s1][positions[s1]], runs[s2][positions[s2]]);
+      }
+    });
+    tree.build();
+
+    int[] snapshot = null;
+    for (int expected = 0; expected < 12; expected++) {
+      if (expected == 6) {
+        snapshot = tree.snapshot();
+      }
+      int winner = tree.winner();
+      Assert.assertEquals(expected, runs[winner][positions[winner]]);
+      positions[winner]++;
+      tree.replay();
+    }
+    int winner = tree.winner();
+    Assert.assertTrue(positions[winner] >= runs[winner].length);
+
+    // go back to the state before reading 6
+    tree.restore(snapshot);
+    int[] restored = {2, 2, 0, 1, 1};
+    System.arraycopy(restored, 0, positions, 0, positions.length);
+    for (int expected = 6; expected < 12; expected++) {
+      winner = tree.winner();
+      Assert.assertEquals(expected, runs[winner][positions[winner]]);
+      positions[winner]++;
+      tree.replay();
+    }
+  }
+
+  @Test
+  public void singleSource() {
+    LoserTree tree = new LoserTree(1, new AbstractIntComparator() {
+      @Override
+      public int compare(int s1, int s2) {
+        return 0;
+      }
+    });
+    tree.build();
+    Assert.assertEquals(0, tree.winner());
+    tree.replay();
+    Assert.assertEquals(0, tree.winner());
+  }
+}
@@ -24,6 +24,7 @@ import java.util.logging.Logger;
 import org.apache.beam.runners.twister2.Twister2BatchTranslationContext;
 import org.apache.beam.runners.twister2.Twister2PipelineOptions;
 import org.apache.beam.runners.twister2.translators.batch.AssignWindowTranslatorBatch;
+import org.apache.beam.runners.twister2.translators.batch.CombinePerKeyTranslatorBatch;
 import org.apache.beam.runners.twister2.translators.batch.FlattenTranslatorBatch;
 import org.apache.beam.runners.twister2.translators.batch.GroupByKeyTranslatorBatch;
 import org.apache.beam.runners.twister2.translators.batch.PCollectionViewTranslatorBatch;
@@ -31,12 +32,14 @@ import org.apache.beam.runners.twister2.translators.batch.ParDoMultiOutputTransl
 import org.apache.beam.runners.twister2.translators.batch.ReadSourceTranslatorBatch;
 import org.apache.beam.sdk.io.Read;
 import org.apache.beam.sdk.runners.TransformHierarchy;
+import org.apache.beam.sdk.transforms.Combine;
 import org.apache.beam.sdk.transforms.Flatten;
 import org.apache.beam.sdk.transforms.GroupByKey;
 import org.apache.beam.sdk.transforms.PTransform;
 import org.apache.beam.sdk.transforms.ParDo;
 import org.apache.beam.sdk.transforms.View;
 import org.apache.beam.sdk.transforms.windowing.Window;
+import org.apache.beam.sdk.values.PCollection;
 
 /**
  * Twister pipeline translator for batch pipelines.
@@ -54,6 +57,12 @@ public class Twister2BatchPipelineTranslator extends Twister2PipelineTranslator
   private static final Map<Class<? extends PTransform>, BatchTransformTranslator>
       TRANSFORM_TRANSLATORS = new HashMap<>();
 
+  /**
+   * Translator for the combines that can be lifted, other combines are expanded
+   */
+  private static final CombinePerKeyTranslatorBatch COMBINE_TRANSLATOR =
+      new CombinePerKeyTranslatorBatch();
+
   private final Twister2BatchTranslationContext translationContext;
 
   static {
@@ -72,6 +81,21 @@ public class Twister2BatchPipelineTranslator extends Twister2PipelineTranslator
     this.translationContext = twister2TranslationContext;
   }
 
+  @Override
+  public CompositeBehavior enterCompositeTransform(TransformHierarchy.Node node) {
+    PTransform transform = node.getTransform();
+    if (transform instanceof Combine.PerKey) {
+      translationContext.setCurrentTransform(node.toAppliedPTransform(getPipeline()));
+      PCollection<?> input = (PCollection<?>) translationContext.getInput(transform);
+      if (CombinePerKeyTranslatorBatch.canTranslate((Combine.PerKey) transform, input)) {
+        LOG.fine(String.format("lifting combine %s", transform));
+        COMBINE_TRANSLATOR.translateNode((Combine.PerKey) transform, translationContext);
+        return CompositeBehavior.DO_NOT_ENTER_TRANSFORM;
+      }
+    }
+    return CompositeBehavior.ENTER_TRANSFORM;
+  }
+
   @Override
   public void visitPrimitiveTransform(TransformHierarchy.Node node) {
     LOG.fine(String.format("visiting transform %s", node.getTransform()));
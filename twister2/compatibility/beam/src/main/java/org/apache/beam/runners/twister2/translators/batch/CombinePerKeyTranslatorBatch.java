@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.beam.runners.twister2.translators.batch;
+
+import org.apache.beam.runners.twister2.Twister2BatchTranslationContext;
+import org.apache.beam.runners.twister2.translators.BatchTransformTranslator;
+import org.apache.beam.runners.twister2.translators.functions.ExtractOutputFunction;
+import org.apache.beam.runners.twister2.translators.functions.MergeAccumulatorsFunction;
+import org.apache.beam.runners.twister2.translators.functions.PartialCombineFunction;
+import org.apache.beam.sdk.coders.CannotProvideCoderException;
+import org.apache.beam.sdk.coders.Coder;
+import org.apache.beam.sdk.coders.KvCoder;
+import org.apache.beam.sdk.transforms.Combine;
+import org.apache.beam.sdk.transforms.windowing.BoundedWindow;
+import org.apache.beam.sdk.transforms.windowing.DefaultTrigger;
+import org.apache.beam.sdk.transforms.windowing.TimestampCombiner;
+import org.apache.beam.sdk.util.WindowedValue;
+import org.apache.beam.sdk.values.KV;
+import org.apache.beam.sdk.values.PCollection;
+import org.apache.beam.sdk.values.WindowingStrategy;
+
+import edu.iu.dsc.tws.tset.sets.batch.BatchTSetImpl;
+import edu.iu.dsc.tws.tset.sets.batch.ComputeTSet;
+
+/**
+ * Translates {@link Combine.PerKey} by lifting the combine function to the map side. The values
+ * of each partition are combined to accumulators per key and window, only the accumulators are
+ * shuffled with a keyed reduce that merges them, and the output is extracted from the merged
+ * accumulators. Combines that can not be lifted are expanded and translated through
+ * {@link GroupByKeyTranslatorBatch}.
+ */
+public class CombinePerKeyTranslatorBatch<K, I, A, O>
+    implements BatchTransformTranslator<Combine.PerKey<K, I, O>> {
+
+  /**
+   * Check weather the combine can be lifted. The combine function should not need a context
+   * or side inputs, and the windows should not merge or fire more than once.
+   *
+   * @param transform the combine
+   * @param input the input of the combine
+   * @return true if the combine can be translated by this translator
+   */
+  public static boolean canTranslate(Combine.PerKey<?, ?, ?> transform, PCollection<?> input) {
+    WindowingStrategy<?, ?> windowingStrategy = input.getWindowingStrategy();
+    return transform.getFn() instanceof Combine.CombineFn
+        && transform.getSideInputs().isEmpty()
+        && input.getCoder() instanceof KvCoder
+        && windowingStrategy.getWindowFn().isNonMerging()
+        && windowingStrategy.getTrigger() instanceof DefaultTrigger
+        && windowingStrategy.getTimestampCombiner() == TimestampCombiner.END_OF_WINDOW;
+  }
+
+  @Override
+  public void translateNode(Combine.PerKey<K, I, O> transform,
+                            Twister2BatchTranslationContext context) {
+    PCollection<KV<K, I>> input = context.getInput(transform);
+    BatchTSetImpl<WindowedValue<KV<K, I>>> inputTSet = context.getInputDataSet(input);
+    final KvCoder<K, I> coder = (KvCoder<K, I>) input.getCoder();
+    final Combine.CombineFn<I, A, O> combineFn =
+        (Combine.CombineFn<I, A, O>) transform.getFn();
+
+    final Coder<A> accumCoder;
+    try {
+      accumCoder = combineFn.getAccumulatorCoder(input.getPipeline().getCoderRegistry(),
+          coder.getValueCoder());
+    } catch (CannotProvideCoderException e) {
+      throw new IllegalStateException("Could not determine the accumulator coder of "
+          + combineFn, e);
+    }
+    final Coder<BoundedWindow> windowCoder =
+        (Coder<BoundedWindow>) input.getWindowingStrategy().getWindowFn().windowCoder();
+    final Coder<KV<K, BoundedWindow>> keyWindowCoder =
+        KvCoder.of(coder.getKeyCoder(), windowCoder);
+
+    ComputeTSet<WindowedValue<KV<K, O>>> outputTSet = inputTSet
+        .direct()
+        .<byte[], byte[]>computeToTuple(
+            new PartialCombineFunction<>(keyWindowCoder, accumCoder, combineFn))
+        .keyedReduce(new MergeAccumulatorsFunction<>(accumCoder, combineFn))
+        .map(new ExtractOutputFunction<>(keyWindowCoder, accumCoder, combineFn));
+    PCollection output = context.getOutput(transform);
+    context.setOutputDataSet(output, outputTSet);
+  }
+}
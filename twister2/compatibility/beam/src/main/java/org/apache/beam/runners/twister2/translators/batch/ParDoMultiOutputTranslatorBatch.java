@@ -28,12 +28,10 @@ import org.apache.beam.runners.core.construction.ParDoTranslation;
 import org.apache.beam.runners.twister2.Twister2BatchTranslationContext;
 import org.apache.beam.runners.twister2.translators.BatchTransformTranslator;
 import org.apache.beam.runners.twister2.translators.functions.DoFnFunction;
-import org.apache.beam.runners.twister2.translators.functions.OutputTagFilter;
 import org.apache.beam.sdk.coders.Coder;
 import org.apache.beam.sdk.transforms.DoFn;
 import org.apache.beam.sdk.transforms.DoFnSchemaInformation;
 import org.apache.beam.sdk.transforms.ParDo;
-import org.apache.beam.sdk.transforms.join.RawUnionValue;
 import org.apache.beam.sdk.transforms.reflect.DoFnSignature;
 import org.apache.beam.sdk.transforms.reflect.DoFnSignatures;
 import org.apache.beam.sdk.util.WindowedValue;
@@ -46,6 +44,8 @@ import org.apache.beam.vendor.guava.v26_0_jre.com.google.common.collect.Maps;
 
 import edu.iu.dsc.tws.tset.sets.batch.BatchTSetImpl;
 import edu.iu.dsc.tws.tset.sets.batch.ComputeTSet;
+import edu.iu.dsc.tws.tset.sets.batch.functions.IdentityFunction;
+
 /**
  * ParDo translator.
  */
@@ -71,6 +71,11 @@ public class ParDoMultiOutputTranslatorBatch<IT, OT>
     doFnSchemaInformation = ParDoTranslation.getSchemaInformation(context.getCurrentTransform());
     TupleTag<OT> mainOutput = transform.getMainOutputTag();
     List<TupleTag<?>> additionalOutputTags = new ArrayList<>(outputs.size() - 1);
+    for (TupleTag<?> tag : outputs.keySet()) {
+      if (!tag.equals(mainOutput)) {
+        additionalOutputTags.add(tag);
+      }
+    }
     Collection<PCollectionView<?>> sideInputs = transform.getSideInputs();
 
     // construct a map from side input to WindowingStrategy so that
@@ -96,10 +101,12 @@ public class ParDoMultiOutputTranslatorBatch<IT, OT>
       }
     }
 
-    ComputeTSet<RawUnionValue> outputTSet =
+    // the outputs are routed to their links by the tag index in a single pass, instead of
+    // sending all the outputs to every link and filtering them
+    ComputeTSet<Object> outputTSet =
         inputTTSet
             .direct()
-            .<RawUnionValue>compute(
+            .computeMultiOutput(
                 new DoFnFunction<OT, IT>(
                     context,
                     doFn,
@@ -114,7 +121,9 @@ public class ParDoMultiOutputTranslatorBatch<IT, OT>
 
     for (Map.Entry<TupleTag<?>, PValue> output : outputs.entrySet()) {
       ComputeTSet<WindowedValue<OT>> tempTSet =
-          outputTSet.direct().compute(new OutputTagFilter<>(outputMap.get(output.getKey())));
+          outputTSet
+              .<WindowedValue<OT>>output(outputMap.get(output.getKey()))
+              .map(new IdentityFunction<>());
       context.setOutputDataSet((PCollection) output.getValue(), tempTSet);
     }
   }
@@ -42,14 +42,15 @@ import org.apache.beam.sdk.values.TupleTag;
 import org.apache.beam.sdk.values.WindowingStrategy;
 
 import edu.iu.dsc.tws.api.tset.TSetContext;
-import edu.iu.dsc.tws.api.tset.fn.ComputeCollectorFunc;
-import edu.iu.dsc.tws.api.tset.fn.RecordCollector;
+import edu.iu.dsc.tws.api.tset.fn.MultiOutputCollector;
+import edu.iu.dsc.tws.api.tset.fn.MultiOutputComputeFunc;
 
 /**
- * DoFn function.
+ * DoFn function. The output of each tag is collected to the output with the index of the tag in
+ * the output map, so that all the outputs are routed in a single pass.
  */
 public class DoFnFunction<OT, IT>
-    implements ComputeCollectorFunc<Iterator<WindowedValue<IT>>, RawUnionValue> {
+    implements MultiOutputComputeFunc<Iterator<WindowedValue<IT>>> {
 
   private final DoFn<IT, OT> doFn;
   private final transient PipelineOptions pipelineOptions;
@@ -126,7 +127,7 @@ public class DoFnFunction<OT, IT>
   }
 
   @Override
-  public void compute(Iterator<WindowedValue<IT>> input, RecordCollector<RawUnionValue> output) {
+  public void compute(Iterator<WindowedValue<IT>> input, MultiOutputCollector output) {
     outputManager.clear();
     doFnRunner.startBundle();
     while (input.hasNext()) {
@@ -136,8 +137,8 @@ public class DoFnFunction<OT, IT>
     doFnRunner.finishBundle();
     Iterator<RawUnionValue> outputs = outputManager.getOutputs();
     while (outputs.hasNext()) {
-
-      output.collect(outputs.next());
+      RawUnionValue value = outputs.next();
+      output.collect(value.getUnionTag(), value.getValue());
     }
   }
 
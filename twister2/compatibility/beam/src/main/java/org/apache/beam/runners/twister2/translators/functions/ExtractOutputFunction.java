@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.beam.runners.twister2.translators.functions;
+
+import org.apache.beam.runners.twister2.utils.TranslationUtils;
+import org.apache.beam.sdk.coders.Coder;
+import org.apache.beam.sdk.transforms.Combine;
+import org.apache.beam.sdk.transforms.windowing.BoundedWindow;
+import org.apache.beam.sdk.transforms.windowing.PaneInfo;
+import org.apache.beam.sdk.util.WindowedValue;
+import org.apache.beam.sdk.values.KV;
+
+import edu.iu.dsc.tws.api.comms.structs.Tuple;
+import edu.iu.dsc.tws.api.tset.fn.MapFunc;
+
+/**
+ * Extracts the combined output of a key and window from the merged accumulator. The output
+ * has the end of the window as the timestamp.
+ */
+public class ExtractOutputFunction<K, A, O>
+    implements MapFunc<Tuple<byte[], byte[]>, WindowedValue<KV<K, O>>> {
+
+  private final Coder<KV<K, BoundedWindow>> keyWindowCoder;
+  private final Coder<A> accumCoder;
+  private final Combine.CombineFn<?, A, O> combineFn;
+
+  public ExtractOutputFunction(Coder<KV<K, BoundedWindow>> keyWindowCoder,
+                               Coder<A> accumCoder,
+                               Combine.CombineFn<?, A, O> combineFn) {
+    this.keyWindowCoder = keyWindowCoder;
+    this.accumCoder = accumCoder;
+    this.combineFn = combineFn;
+  }
+
+  @Override
+  public WindowedValue<KV<K, O>> map(Tuple<byte[], byte[]> input) {
+    KV<K, BoundedWindow> keyWindow = TranslationUtils.fromByteArray(input.getKey(),
+        keyWindowCoder);
+    A accumulator = TranslationUtils.fromByteArray(input.getValue(), accumCoder);
+    BoundedWindow window = keyWindow.getValue();
+    return WindowedValue.of(
+        KV.of(keyWindow.getKey(), combineFn.extractOutput(accumulator)),
+        window.maxTimestamp(),
+        window,
+        PaneInfo.ON_TIME_AND_ONLY_FIRING);
+  }
+}
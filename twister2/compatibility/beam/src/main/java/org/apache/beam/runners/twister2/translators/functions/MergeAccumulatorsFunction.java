@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.beam.runners.twister2.translators.functions;
+
+import java.util.Arrays;
+
+import org.apache.beam.runners.twister2.utils.TranslationUtils;
+import org.apache.beam.sdk.coders.Coder;
+import org.apache.beam.sdk.transforms.Combine;
+
+import edu.iu.dsc.tws.api.tset.fn.ReduceFunc;
+
+/**
+ * Merges two encoded accumulators of the same key and window.
+ */
+public class MergeAccumulatorsFunction<A> implements ReduceFunc<byte[]> {
+
+  private final Coder<A> accumCoder;
+  private final Combine.CombineFn<?, A, ?> combineFn;
+
+  public MergeAccumulatorsFunction(Coder<A> accumCoder,
+                                   Combine.CombineFn<?, A, ?> combineFn) {
+    this.accumCoder = accumCoder;
+    this.combineFn = combineFn;
+  }
+
+  @Override
+  public byte[] reduce(byte[] t1, byte[] t2) {
+    A merged = combineFn.mergeAccumulators(Arrays.asList(
+        TranslationUtils.fromByteArray(t1, accumCoder),
+        TranslationUtils.fromByteArray(t2, accumCoder)));
+    return TranslationUtils.toByteArray(merged, accumCoder);
+  }
+}
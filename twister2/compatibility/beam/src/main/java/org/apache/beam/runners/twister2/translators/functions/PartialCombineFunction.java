@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.beam.runners.twister2.translators.functions;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.apache.beam.runners.twister2.utils.TranslationUtils;
+import org.apache.beam.sdk.coders.Coder;
+import org.apache.beam.sdk.transforms.Combine;
+import org.apache.beam.sdk.transforms.windowing.BoundedWindow;
+import org.apache.beam.sdk.util.WindowedValue;
+import org.apache.beam.sdk.values.KV;
+
+import edu.iu.dsc.tws.api.comms.structs.Tuple;
+import edu.iu.dsc.tws.api.tset.fn.ComputeCollectorFunc;
+import edu.iu.dsc.tws.api.tset.fn.RecordCollector;
+
+/**
+ * Combines the values of a partition for each key and window before they are shuffled. The
+ * output is the encoded key and window with the encoded accumulator.
+ */
+public class PartialCombineFunction<K, I, A>
+    implements ComputeCollectorFunc<Iterator<WindowedValue<KV<K, I>>>,
+    Tuple<byte[], byte[]>> {
+
+  private final Coder<KV<K, BoundedWindow>> keyWindowCoder;
+  private final Coder<A> accumCoder;
+  private final Combine.CombineFn<I, A, ?> combineFn;
+
+  public PartialCombineFunction(Coder<KV<K, BoundedWindow>> keyWindowCoder,
+                                Coder<A> accumCoder,
+                                Combine.CombineFn<I, A, ?> combineFn) {
+    this.keyWindowCoder = keyWindowCoder;
+    this.accumCoder = accumCoder;
+    this.combineFn = combineFn;
+  }
+
+  @Override
+  public void compute(Iterator<WindowedValue<KV<K, I>>> input,
+                      RecordCollector<Tuple<byte[], byte[]>> output) {
+    // the encoded keys are wrapped in byte buffers to compare them by content
+    Map<ByteBuffer, A> accumulators = new HashMap<>();
+    while (input.hasNext()) {
+      WindowedValue<KV<K, I>> element = input.next();
+      K key = element.getValue().getKey();
+      I value = element.getValue().getValue();
+      for (BoundedWindow window : element.getWindows()) {
+        ByteBuffer keyWindow = ByteBuffer.wrap(
+            TranslationUtils.toByteArray(KV.of(key, window), keyWindowCoder));
+        A accumulator = accumulators.get(keyWindow);
+        if (accumulator == null) {
+          accumulator = combineFn.createAccumulator();
+        }
+        accumulators.put(keyWindow, combineFn.addInput(accumulator, value));
+      }
+    }
+
+    for (Map.Entry<ByteBuffer, A> e : accumulators.entrySet()) {
+      output.collect(new Tuple<>(e.getKey().array(),
+          TranslationUtils.toByteArray(e.getValue(), accumCoder)));
+    }
+  }
+}
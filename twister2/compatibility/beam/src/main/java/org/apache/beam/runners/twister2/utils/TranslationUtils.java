@@ -18,6 +18,7 @@
 package org.apache.beam.runners.twister2.utils;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 
 import org.apache.beam.sdk.coders.Coder;
@@ -65,4 +66,22 @@ public final class TranslationUtils {
       throw new IllegalStateException("Error decoding bytes for coder: " + coder, e);
     }
   }
+
+  /**
+   * Utility method for serializing an object using the specified coder.
+   *
+   * @param <T> Type of object to be serialized.
+   * @param value object to be serialized.
+   * @param coder Coder to serialize with.
+   * @return Serialized bytes.
+   */
+  public static <T> byte[] toByteArray(T value, Coder<T> coder) {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try {
+      coder.encode(value, baos);
+    } catch (IOException e) {
+      throw new IllegalStateException("Error encoding value for coder: " + coder, e);
+    }
+    return baos.toByteArray();
+  }
 }
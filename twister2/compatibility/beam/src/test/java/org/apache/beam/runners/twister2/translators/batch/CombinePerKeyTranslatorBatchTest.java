@@ -0,0 +1,287 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.beam.runners.twister2.translators.batch;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.beam.runners.core.SystemReduceFn;
+import org.apache.beam.runners.twister2.Twister2LegacyRunner;
+import org.apache.beam.runners.twister2.translators.functions.ExtractOutputFunction;
+import org.apache.beam.runners.twister2.translators.functions.GroupByWindowFunction;
+import org.apache.beam.runners.twister2.translators.functions.MergeAccumulatorsFunction;
+import org.apache.beam.runners.twister2.translators.functions.PartialCombineFunction;
+import org.apache.beam.sdk.Pipeline;
+import org.apache.beam.sdk.coders.Coder;
+import org.apache.beam.sdk.coders.KvCoder;
+import org.apache.beam.sdk.coders.StringUtf8Coder;
+import org.apache.beam.sdk.coders.VarIntCoder;
+import org.apache.beam.sdk.options.PipelineOptions;
+import org.apache.beam.sdk.options.PipelineOptionsFactory;
+import org.apache.beam.sdk.transforms.Combine;
+import org.apache.beam.sdk.transforms.Create;
+import org.apache.beam.sdk.transforms.Mean;
+import org.apache.beam.sdk.transforms.Sum;
+import org.apache.beam.sdk.transforms.View;
+import org.apache.beam.sdk.transforms.windowing.AfterPane;
+import org.apache.beam.sdk.transforms.windowing.BoundedWindow;
+import org.apache.beam.sdk.transforms.windowing.FixedWindows;
+import org.apache.beam.sdk.transforms.windowing.IntervalWindow;
+import org.apache.beam.sdk.transforms.windowing.PaneInfo;
+import org.apache.beam.sdk.transforms.windowing.Sessions;
+import org.apache.beam.sdk.transforms.windowing.SlidingWindows;
+import org.apache.beam.sdk.transforms.windowing.Window;
+import org.apache.beam.sdk.util.CombineFnUtil;
+import org.apache.beam.sdk.util.WindowedValue;
+import org.apache.beam.sdk.values.KV;
+import org.apache.beam.sdk.values.PCollection;
+import org.apache.beam.sdk.values.PCollectionView;
+import org.apache.beam.sdk.values.TimestampedValue;
+import org.apache.beam.sdk.values.WindowingStrategy;
+import org.joda.time.Duration;
+import org.joda.time.Instant;
+import org.junit.Assert;
+import org.junit.Test;
+
+import edu.iu.dsc.tws.api.comms.structs.Tuple;
+import edu.iu.dsc.tws.api.tset.fn.RecordCollector;
+
+public class CombinePerKeyTranslatorBatchTest {
+
+  private static final Duration SIZE = Duration.standardSeconds(10);
+
+  private static final Duration PERIOD = Duration.standardSeconds(5);
+
+  private static final Coder<KV<String, BoundedWindow>> KEY_WINDOW_CODER =
+      KvCoder.of(StringUtf8Coder.of(), (Coder) IntervalWindow.getCoder());
+
+  private static final Coder<int[]> ACCUM_CODER = accumulatorCoder();
+
+  private static Coder<int[]> accumulatorCoder() {
+    try {
+      return Sum.ofIntegers().getAccumulatorCoder(null, VarIntCoder.of());
+    } catch (Exception e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * An element in all the sliding windows of its timestamp
+   */
+  private static WindowedValue<KV<String, Integer>> element(String key, int value,
+                                                           long millis) {
+    List<BoundedWindow> windows = new ArrayList<>();
+    long start = millis - millis % PERIOD.getMillis();
+    for (long s = start; s > millis - SIZE.getMillis(); s -= PERIOD.getMillis()) {
+      windows.add(new IntervalWindow(new Instant(s), SIZE));
+    }
+    return WindowedValue.of(KV.of(key, value), new Instant(millis), windows,
+        PaneInfo.NO_FIRING);
+  }
+
+  /**
+   * The elements of two partitions, each element is in two windows
+   */
+  private static List<List<WindowedValue<KV<String, Integer>>>> partitions() {
+    List<List<WindowedValue<KV<String, Integer>>>> partitions = new ArrayList<>();
+    for (int p = 0; p < 2; p++) {
+      List<WindowedValue<KV<String, Integer>>> partition = new ArrayList<>();
+      for (int i = 0; i < 50; i++) {
+        partition.add(element("k" + (i % 3), p * 100 + i, i * 700L + p * 300));
+      }
+      partitions.add(partition);
+    }
+    return partitions;
+  }
+
+  private static <T> RecordCollector<T> collector(List<T> records) {
+    return new RecordCollector<T>() {
+      @Override
+      public void collect(T record) {
+        records.add(record);
+      }
+
+      @Override
+      public void close() {
+      }
+    };
+  }
+
+  /**
+   * Run the lifted combine, a partial combine in each partition, merging the accumulators of
+   * each key and window and extracting the output.
+   */
+  private static Set<WindowedValue<KV<String, Integer>>> lifted() {
+    Combine.CombineFn<Integer, int[], Integer> sum = Sum.ofIntegers();
+    PartialCombineFunction<String, Integer, int[]> partial =
+        new PartialCombineFunction<>(KEY_WINDOW_CODER, ACCUM_CODER, sum);
+    MergeAccumulatorsFunction<int[]> merge = new MergeAccumulatorsFunction<>(ACCUM_CODER, sum);
+    ExtractOutputFunction<String, int[], Integer> extract =
+        new ExtractOutputFunction<>(KEY_WINDOW_CODER, ACCUM_CODER, sum);
+
+    List<Tuple<byte[], byte[]>> partials = new ArrayList<>();
+    for (List<WindowedValue<KV<String, Integer>>> partition : partitions()) {
+      partial.compute(partition.iterator(), collector(partials));
+    }
+
+    Map<ByteBuffer, byte[]> reduced = new HashMap<>();
+    for (Tuple<byte[], byte[]> t : partials) {
+      reduced.merge(ByteBuffer.wrap(t.getKey()), t.getValue(), merge::reduce);
+    }
+
+    Set<WindowedValue<KV<String, Integer>>> output = new HashSet<>();
+    for (Map.Entry<ByteBuffer, byte[]> e : reduced.entrySet()) {
+      output.add(extract.map(new Tuple<>(e.getKey().array(), e.getValue())));
+    }
+    return output;
+  }
+
+  /**
+   * Run the expanded combine, grouping all the values of a key by window and combining the
+   * grouped values.
+   */
+  private static Set<WindowedValue<KV<String, Integer>>> expanded() {
+    Combine.CombineFn<Integer, int[], Integer> sum = Sum.ofIntegers();
+    WindowingStrategy<?, IntervalWindow> windowingStrategy =
+        WindowingStrategy.of(SlidingWindows.of(SIZE).every(PERIOD));
+    GroupByWindowFunction<String, Integer, IntervalWindow> groupByWindow =
+        new GroupByWindowFunction<>(windowingStrategy,
+            SystemReduceFn.buffering(VarIntCoder.of()));
+
+    Map<String, List<WindowedValue<Integer>>> grouped = new HashMap<>();
+    for (List<WindowedValue<KV<String, Integer>>> partition : partitions()) {
+      for (WindowedValue<KV<String, Integer>> element : partition) {
+        grouped.computeIfAbsent(element.getValue().getKey(), k -> new ArrayList<>())
+            .add(element.withValue(element.getValue().getValue()));
+      }
+    }
+
+    List<WindowedValue<KV<String, Iterable<Integer>>>> groups = new ArrayList<>();
+    for (Map.Entry<String, List<WindowedValue<Integer>>> e : grouped.entrySet()) {
+      groupByWindow.flatMap(KV.of(e.getKey(), e.getValue()), collector(groups));
+    }
+
+    Set<WindowedValue<KV<String, Integer>>> output = new HashSet<>();
+    for (WindowedValue<KV<String, Iterable<Integer>>> group : groups) {
+      output.add(group.withValue(KV.of(group.getValue().getKey(),
+          sum.apply(group.getValue().getValue()))));
+    }
+    return output;
+  }
+
+  @Test
+  public void testLiftedEqualsExpanded() {
+    Set<WindowedValue<KV<String, Integer>>> expected = expanded();
+    Set<WindowedValue<KV<String, Integer>>> actual = lifted();
+
+    // 3 keys, every key has values in the windows starting from -5 to 30 seconds
+    Assert.assertEquals(3 * 8, expected.size());
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void testMultipleWindowsPerElement() {
+    Set<WindowedValue<KV<String, Integer>>> output = lifted();
+    long total = 0;
+    for (WindowedValue<KV<String, Integer>> value : output) {
+      Assert.assertEquals(1, value.getWindows().size());
+      BoundedWindow window = value.getWindows().iterator().next();
+      Assert.assertEquals(window.maxTimestamp(), value.getTimestamp());
+      total += value.getValue().getValue();
+    }
+
+    // every value is counted once in each of its two windows
+    long sum = 0;
+    for (List<WindowedValue<KV<String, Integer>>> partition : partitions()) {
+      for (WindowedValue<KV<String, Integer>> element : partition) {
+        Assert.assertEquals(2, element.getWindows().size());
+        sum += element.getValue().getValue();
+      }
+    }
+    Assert.assertEquals(2 * sum, total);
+  }
+
+  private static Pipeline pipeline() {
+    PipelineOptions options = PipelineOptionsFactory.create();
+    options.setRunner(Twister2LegacyRunner.class);
+    return Pipeline.create(options);
+  }
+
+  private static PCollection<KV<String, Integer>> input(Pipeline pipeline,
+                                                       Window<KV<String, Integer>> window) {
+    return pipeline
+        .apply(Create.timestamped(
+            TimestampedValue.of(KV.of("a", 1), new Instant(0)),
+            TimestampedValue.of(KV.of("b", 2), new Instant(1000))))
+        .apply(window);
+  }
+
+  @Test
+  public void testCanTranslate() {
+    Pipeline pipeline = pipeline();
+    Combine.PerKey<String, Integer, Integer> sum = Combine.perKey(Sum.ofIntegers());
+
+    Assert.assertTrue(CombinePerKeyTranslatorBatch.canTranslate(sum,
+        input(pipeline, Window.into(FixedWindows.of(SIZE)))));
+    Assert.assertTrue(CombinePerKeyTranslatorBatch.canTranslate(sum,
+        input(pipeline, Window.into(SlidingWindows.of(SIZE).every(PERIOD)))));
+    Assert.assertTrue(CombinePerKeyTranslatorBatch.canTranslate(
+        Combine.<String, Integer, Double>perKey(Mean.of()),
+        input(pipeline, Window.into(FixedWindows.of(SIZE)))));
+  }
+
+  @Test
+  public void testMergingWindowsNotTranslated() {
+    Pipeline pipeline = pipeline();
+    Assert.assertFalse(CombinePerKeyTranslatorBatch.canTranslate(
+        Combine.perKey(Sum.ofIntegers()),
+        input(pipeline, Window.into(Sessions.withGapDuration(SIZE)))));
+  }
+
+  @Test
+  public void testTriggersNotTranslated() {
+    Pipeline pipeline = pipeline();
+    Window<KV<String, Integer>> window = Window.<KV<String, Integer>>into(FixedWindows.of(SIZE))
+        .triggering(AfterPane.elementCountAtLeast(1))
+        .withAllowedLateness(Duration.ZERO)
+        .discardingFiredPanes();
+    Assert.assertFalse(CombinePerKeyTranslatorBatch.canTranslate(
+        Combine.perKey(Sum.ofIntegers()), input(pipeline, window)));
+  }
+
+  @Test
+  public void testSideInputsNotTranslated() {
+    Pipeline pipeline = pipeline();
+    PCollectionView<Integer> view = pipeline
+        .apply("side", Create.of(Arrays.asList(1)))
+        .apply(View.asSingleton());
+    // only a combine function with a context can have side inputs
+    Combine.PerKey<String, Integer, Integer> withContext = Combine.perKey(
+        CombineFnUtil.toFnWithContext(Sum.ofIntegers()));
+    Assert.assertFalse(CombinePerKeyTranslatorBatch.canTranslate(withContext,
+        input(pipeline, Window.into(FixedWindows.of(SIZE)))));
+    Assert.assertFalse(CombinePerKeyTranslatorBatch.canTranslate(
+        withContext.withSideInputs(view), input(pipeline, Window.into(FixedWindows.of(SIZE)))));
+  }
+}
@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.beam.runners.twister2.translators.functions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.beam.runners.twister2.Twister2BatchTranslationContext;
+import org.apache.beam.runners.twister2.Twister2PipelineOptions;
+import org.apache.beam.sdk.coders.Coder;
+import org.apache.beam.sdk.coders.StringUtf8Coder;
+import org.apache.beam.sdk.coders.VarIntCoder;
+import org.apache.beam.sdk.options.PipelineOptionsFactory;
+import org.apache.beam.sdk.transforms.DoFn;
+import org.apache.beam.sdk.transforms.DoFnSchemaInformation;
+import org.apache.beam.sdk.util.WindowedValue;
+import org.apache.beam.sdk.values.TupleTag;
+import org.apache.beam.sdk.values.WindowingStrategy;
+import org.junit.Assert;
+import org.junit.Test;
+
+import edu.iu.dsc.tws.api.tset.TSetContext;
+import edu.iu.dsc.tws.api.tset.fn.MultiOutputCollector;
+
+public class DoFnFunctionTest {
+
+  private static final TupleTag<Integer> MAIN = new TupleTag<Integer>("main") {
+  };
+
+  private static final TupleTag<Integer> ODD = new TupleTag<Integer>("odd") {
+  };
+
+  private static final TupleTag<String> NAMES = new TupleTag<String>("names") {
+  };
+
+  /**
+   * Outputs the even numbers to the main output, the odd numbers and a name for every number to
+   * the additional outputs
+   */
+  private static class SplitFn extends DoFn<Integer, Integer> {
+    @ProcessElement
+    public void processElement(ProcessContext c) {
+      int value = c.element();
+      if (value % 2 == 0) {
+        c.output(value);
+      } else {
+        c.output(ODD, value);
+      }
+      c.output(NAMES, "n" + value);
+    }
+  }
+
+  /**
+   * Runs the DoFn and returns the values collected for each output index
+   */
+  private static Map<Integer, List<Object>> run(List<TupleTag<?>> additionalOutputs,
+                                                Map<TupleTag<?>, Integer> outputMap) {
+    Map<TupleTag<?>, Coder<?>> outputCoders = new HashMap<>();
+    outputCoders.put(MAIN, VarIntCoder.of());
+    outputCoders.put(ODD, VarIntCoder.of());
+    outputCoders.put(NAMES, StringUtf8Coder.of());
+
+    DoFnFunction<Integer, Integer> function = new DoFnFunction<>(
+        new Twister2BatchTranslationContext(
+            PipelineOptionsFactory.as(Twister2PipelineOptions.class)),
+        new SplitFn(), VarIntCoder.of(), outputCoders, additionalOutputs,
+        WindowingStrategy.globalDefault(), Collections.emptyMap(), MAIN,
+        DoFnSchemaInformation.create(), outputMap);
+    function.prepare(new TSetContext());
+
+    List<WindowedValue<Integer>> input = new ArrayList<>();
+    for (int i = 0; i < 6; i++) {
+      input.add(WindowedValue.valueInGlobalWindow(i));
+    }
+
+    Map<Integer, List<Object>> collected = new HashMap<>();
+    function.compute(input.iterator(), new MultiOutputCollector() {
+      @Override
+      public void collect(int output, Object record) {
+        collected.computeIfAbsent(output, o -> new ArrayList<>())
+            .add(((WindowedValue<?>) record).getValue());
+      }
+
+      @Override
+      public void close() {
+      }
+    });
+    return collected;
+  }
+
+  @Test
+  public void testOutputsRoutedByTag() {
+    Map<TupleTag<?>, Integer> outputMap = new HashMap<>();
+    outputMap.put(MAIN, 0);
+    outputMap.put(ODD, 1);
+    outputMap.put(NAMES, 2);
+    Map<Integer, List<Object>> collected = run(Arrays.asList(ODD, NAMES), outputMap);
+
+    Assert.assertEquals(3, collected.size());
+    Assert.assertEquals(Arrays.asList(0, 2, 4), collected.get(0));
+    Assert.assertEquals(Arrays.asList(1, 3, 5), collected.get(1));
+    Assert.assertEquals(Arrays.asList("n0", "n1", "n2", "n3", "n4", "n5"), collected.get(2));
+  }
+
+  @Test
+  public void testOutputsRoutedByIndex() {
+    // the index of each output is given by the output map, not by the order of the tags
+    Map<TupleTag<?>, Integer> outputMap = new HashMap<>();
+    outputMap.put(MAIN, 2);
+    outputMap.put(ODD, 0);
+    outputMap.put(NAMES, 1);
+    Map<Integer, List<Object>> collected = run(Arrays.asList(ODD, NAMES), outputMap);
+
+    Assert.assertEquals(3, collected.size());
+    Assert.assertEquals(Arrays.asList(0, 2, 4), collected.get(2));
+    Assert.assertEquals(Arrays.asList(1, 3, 5), collected.get(0));
+    Assert.assertEquals(Arrays.asList("n0", "n1", "n2", "n3", "n4", "n5"), collected.get(1));
+  }
+}
@@ -0,0 +1,166 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.data.api.formatters;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Logger;
+
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowFileReader;
+import org.apache.arrow.vector.ipc.SeekableReadChannel;
+import org.apache.arrow.vector.ipc.message.ArrowBlock;
+
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.api.data.Path;
+import edu.iu.dsc.tws.data.api.InputPartitioner;
+import edu.iu.dsc.tws.data.api.assigner.OrderedInputSplitAssigner;
+import edu.iu.dsc.tws.data.api.splits.ArrowInputSplit;
+import edu.iu.dsc.tws.data.arrow.MappedFileChannel;
+import edu.iu.dsc.tws.data.fs.io.InputSplitAssigner;
+
+/**
+ * Splits local arrow files by record batches. Only the footers of the files are read to find
+ * the batches, and consecutive batches are grouped so that the splits have about the same
+ * number of bytes. A split does not cross files. The path can be a file or a directory of
+ * files, files starting with _ or . are ignored.
+ */
+public class ArrowInputPartitioner implements InputPartitioner<VectorSchemaRoot,
+    ArrowInputSplit> {
+  private static final Logger LOG = Logger.getLogger(ArrowInputPartitioner.class.getName());
+
+  private static final long serialVersionUID = 1L;
+
+  private final Path filePath;
+
+  private final int numberOfTasks;
+
+  /**
+   * Columns to read, null for all the columns
+   */
+  private final String[] columns;
+
+  private Config config;
+
+  private transient OrderedInputSplitAssigner<VectorSchemaRoot> assigner;
+
+  public ArrowInputPartitioner(Path filePath, int numTasks, Config config, String... columns) {
+    this.filePath = filePath;
+    this.numberOfTasks = numTasks;
+    this.config = config;
+    this.columns = columns == null || columns.length == 0 ? null : columns;
+  }
+
+  @Override
+  public void configure(Config parameters) {
+    this.config = parameters;
+  }
+
+  @Override
+  public ArrowInputSplit[] createInputSplits(int minNumSplits) throws IOException {
+    if (minNumSplits < 1) {
+      throw new IllegalArgumentException("Number of input splits has to be at least 1.");
+    }
+
+    List<File> files = listFiles(new File(filePath.toUri().getPath()));
+    List<List<ArrowBlock>> fileBlocks = new ArrayList<>(files.size());
+    long totalBytes = 0;
+    for (File file : files) {
+      List<ArrowBlock> blocks = readBlocks(file);
+      fileBlocks.add(blocks);
+      for (ArrowBlock block : blocks) {
+        totalBytes += blockBytes(block);
+      }
+    }
+
+    List<ArrowInputSplit> splits = new ArrayList<>();
+    long cumulative = 0;
+    int cut = 0;
+    for (int f = 0; f < files.size(); f++) {
+      Path path = new Path(files.get(f).getPath());
+      List<ArrowBlock> blocks = fileBlocks.get(f);
+      int first = 0;
+      for (int b = 0; b < blocks.size(); b++) {
+        cumulative += blockBytes(blocks.get(b));
+        boolean last = b == blocks.size() - 1;
+        if (cumulative >= cutPoint(totalBytes, cut, minNumSplits) || last) {
+          splits.add(createSplit(splits.size(), path, blocks, first, b + 1));
+          first = b + 1;
+          while (cumulative >= cutPoint(totalBytes, cut, minNumSplits) && cut < minNumSplits) {
+            cut++;
+          }
+        }
+      }
+    }
+    LOG.fine("Created " + splits.size() + " splits for " + filePath + " with "
+        + totalBytes + " bytes of record batches");
+    return splits.toArray(new ArrowInputSplit[0]);
+  }
+
+  @Override
+  public InputSplitAssigner<VectorSchemaRoot> getInputSplitAssigner(
+      ArrowInputSplit[] inputSplits) {
+    if (assigner == null) {
+      assigner = new OrderedInputSplitAssigner<>(inputSplits, numberOfTasks);
+    }
+    return assigner;
+  }
+
+  private ArrowInputSplit createSplit(int num, Path path, List<ArrowBlock> blocks,
+                                      int first, int end) {
+    long start = blocks.get(first).getOffset();
+    ArrowBlock lastBlock = blocks.get(end - 1);
+    long length = lastBlock.getOffset() + blockBytes(lastBlock) - start;
+    return new ArrowInputSplit(num, path, first, end - first, start, length, columns,
+        new String[]{"localhost"});
+  }
+
+  /**
+   * Cumulative number of bytes at which the given split should end
+   */
+  private static long cutPoint(long totalBytes, int cut, int splits) {
+    return (long) (totalBytes * ((double) (cut + 1) / splits));
+  }
+
+  private static long blockBytes(ArrowBlock block) {
+    return block.getMetadataLength() + block.getBodyLength();
+  }
+
+  private static List<ArrowBlock> readBlocks(File file) throws IOException {
+    try (RootAllocator allocator = new RootAllocator(Long.MAX_VALUE);
+         ArrowFileReader reader = new ArrowFileReader(
+             new SeekableReadChannel(MappedFileChannel.open(file)), allocator)) {
+      return new ArrayList<>(reader.getRecordBlocks());
+    }
+  }
+
+  private static List<File> listFiles(File path) throws IOException {
+    if (!path.exists()) {
+      throw new IOException("Arrow input " + path + " does not exist");
+    }
+    if (!path.isDirectory()) {
+      return Arrays.asList(path);
+    }
+
+    File[] children = path.listFiles(file -> file.isFile()
+        && !file.getName().startsWith("_") && !file.getName().startsWith("."));
+    if (children == null) {
+      throw new IOException("Failed to list the arrow input directory " + path);
+    }
+    Arrays.sort(children);
+    return Arrays.asList(children);
+  }
+}
@@ -0,0 +1,173 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.data.api.formatters;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Logger;
+
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.api.data.Path;
+import edu.iu.dsc.tws.data.api.InputPartitioner;
+import edu.iu.dsc.tws.data.api.assigner.OrderedInputSplitAssigner;
+import edu.iu.dsc.tws.data.api.splits.TypedCSVInputSplit;
+import edu.iu.dsc.tws.data.fs.io.InputSplitAssigner;
+
+/**
+ * Splits local delimited text files into byte ranges of about the same size that are parsed
+ * with a typed schema by {@link TypedCSVInputSplit}. Unlike {@link CSVInputPartitioner} the
+ * number of lines does not need to be known and the files are not scanned to create the
+ * splits, the splits find their line boundaries when they are opened. A split does not cross
+ * files. The path can be a file or a directory of files, files starting with _ or . are
+ * ignored.
+ */
+public class TypedCSVInputPartitioner implements InputPartitioner<VectorSchemaRoot,
+    TypedCSVInputSplit> {
+  private static final Logger LOG = Logger.getLogger(TypedCSVInputPartitioner.class.getName());
+
+  private static final long serialVersionUID = 1L;
+
+  private final Path filePath;
+
+  private final int numberOfTasks;
+
+  /**
+   * The schema of the rows as arrow json, arrow schemas are not serializable
+   */
+  private final String schemaJson;
+
+  private char fieldDelimiter = ',';
+
+  private boolean skipFirstLineAsHeader = false;
+
+  private int batchRows = TypedCSVInputSplit.DEFAULT_BATCH_ROWS;
+
+  private Config config;
+
+  private transient OrderedInputSplitAssigner<VectorSchemaRoot> assigner;
+
+  public TypedCSVInputPartitioner(Path filePath, int numTasks, Schema schema, Config config) {
+    this.filePath = filePath;
+    this.numberOfTasks = numTasks;
+    this.schemaJson = schema.toJson();
+    this.config = config;
+  }
+
+  public TypedCSVInputPartitioner fieldDelimiter(char delimiter) {
+    this.fieldDelimiter = delimiter;
+    return this;
+  }
+
+  public TypedCSVInputPartitioner ignoreFirstLine() {
+    this.skipFirstLineAsHeader = true;
+    return this;
+  }
+
+  public TypedCSVInputPartitioner batchRows(int rows) {
+    this.batchRows = rows;
+    return this;
+  }
+
+  @Override
+  public void configure(Config parameters) {
+    this.config = parameters;
+  }
+
+  @Override
+  public TypedCSVInputSplit[] createInputSplits(int minNumSplits) throws IOException {
+    if (minNumSplits < 1) {
+      throw new IllegalArgumentException("Number of input splits has to be at least 1.");
+    }
+
+    List<File> files = listFiles(new File(filePath.toUri().getPath()));
+    long totalBytes = 0;
+    for (File file : files) {
+      totalBytes += file.length();
+    }
+
+    Schema schema = Schema.fromJSON(schemaJson);
+    List<TypedCSVInputSplit> splits = new ArrayList<>();
+    long fileStart = 0;
+    int cut = 0;
+    for (File file : files) {
+      Path path = new Path(file.getPath());
+      long length = file.length();
+      long position = 0;
+      while (position < length) {
+        long cutAt = cutPoint(totalBytes, cut, minNumSplits) - fileStart;
+        if (cutAt <= position) {
+          cut++;
+          continue;
+        }
+        long end = Math.min(cutAt, length);
+        splits.add(createSplit(splits.size(), path, position, end - position, schema));
+        position = end;
+      }
+      fileStart += length;
+    }
+    LOG.fine("Created " + splits.size() + " splits for " + filePath + " with "
+        + totalBytes + " bytes");
+    return splits.toArray(new TypedCSVInputSplit[0]);
+  }
+
+  @Override
+  public InputSplitAssigner<VectorSchemaRoot> getInputSplitAssigner(
+      TypedCSVInputSplit[] inputSplits) {
+    if (assigner == null) {
+      assigner = new OrderedInputSplitAssigner<>(inputSplits, numberOfTasks);
+    }
+    return assigner;
+  }
+
+  private TypedCSVInputSplit createSplit(int num, Path path, long start, long length,
+                                         Schema schema) {
+    TypedCSVInputSplit split = new TypedCSVInputSplit(num, path, start, length, schema,
+        new String[]{"localhost"});
+    split.setFieldDelimiter(fieldDelimiter);
+    split.setSkipFirstLineAsHeader(skipFirstLineAsHeader);
+    split.setBatchRows(batchRows);
+    if (config != null) {
+      split.configure(config);
+    }
+    return split;
+  }
+
+  /**
+   * Cumulative number of bytes at which the given split should end
+   */
+  private static long cutPoint(long totalBytes, int cut, int splits) {
+    return (long) (totalBytes * ((double) (cut + 1) / splits));
+  }
+
+  private static List<File> listFiles(File path) throws IOException {
+    if (!path.exists()) {
+      throw new IOException("CSV input " + path + " does not exist");
+    }
+    if (!path.isDirectory()) {
+      return Arrays.asList(path);
+    }
+
+    File[] children = path.listFiles(file -> file.isFile()
+        && !file.getName().startsWith("_") && !file.getName().startsWith("."));
+    if (children == null) {
+      throw new IOException("Failed to list the csv input directory " + path);
+    }
+    Arrays.sort(children);
+    return Arrays.asList(children);
+  }
+}
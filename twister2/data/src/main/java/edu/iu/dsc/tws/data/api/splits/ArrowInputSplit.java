@@ -11,12 +11,106 @@
 //  limitations under the License.
 package edu.iu.dsc.tws.data.api.splits;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
+import org.apache.arrow.flatbuf.Buffer;
+import org.apache.arrow.flatbuf.FieldNode;
+import org.apache.arrow.flatbuf.Message;
+import org.apache.arrow.flatbuf.MessageHeader;
+import org.apache.arrow.flatbuf.RecordBatch;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.TypeLayout;
+import org.apache.arrow.vector.VectorLoader;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowFileReader;
+import org.apache.arrow.vector.ipc.SeekableReadChannel;
+import org.apache.arrow.vector.ipc.message.ArrowBlock;
+import org.apache.arrow.vector.ipc.message.ArrowFieldNode;
+import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
+import org.apache.arrow.vector.ipc.message.MessageMetadataResult;
+import org.apache.arrow.vector.ipc.message.MessageSerializer;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import edu.iu.dsc.tws.api.config.Config;
 import edu.iu.dsc.tws.api.data.Path;
+import edu.iu.dsc.tws.data.arrow.MappedFileChannel;
+
+import io.netty.buffer.ArrowBuf;
+
+/**
+ * A range of record batches of an arrow file. The file is memory mapped and each record is a
+ * record batch holding only the projected columns. Only the metadata of a batch and the
+ * buffers of the projected columns are read from the file, the other columns are skipped.
+ * <p>
+ * The returned root and its vectors are reused for the next batch. A reader that keeps a batch
+ * should transfer the vectors out of the root, the next batch is then loaded to new buffers.
+ */
+public class ArrowInputSplit extends FileInputSplit<VectorSchemaRoot> {
+  private static final Logger LOG = Logger.getLogger(ArrowInputSplit.class.getName());
+
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Index of the first record batch of the split
+   */
+  private int firstBatch;
+
+  /**
+   * Number of record batches, -1 for all the batches of the file
+   */
+  private int batches = -1;
+
+  /**
+   * Names of the columns to read, null for all the columns
+   */
+  private String[] columns;
+
+  private transient BufferAllocator allocator;
+
+  private transient boolean ownAllocator;
+
+  private transient ArrowFileReader reader;
+
+  private transient SeekableReadChannel channel;
+
+  private transient List<ArrowBlock> blocks;
 
-//TODO: HAVE TO VERIFY DO WE NEED THIS
-public class ArrowInputSplit extends FileInputSplit<Object> {
+  private transient VectorSchemaRoot root;
+
+  /**
+   * The root holding the projected vectors
+   */
+  private transient VectorSchemaRoot projected;
+
+  /**
+   * Loads the projected buffers to the projected root, null if all the columns are read
+   */
+  private transient VectorLoader projectedLoader;
+
+  /**
+   * Index of the first field node and the number of field nodes of each projected column
+   */
+  private transient int[] nodeStarts;
+
+  private transient int[] nodeCounts;
+
+  /**
+   * Index of the first buffer and the number of buffers of each projected column
+   */
+  private transient int[] bufferStarts;
+
+  private transient int[] bufferCounts;
+
+  private transient int currentBatch;
+
+  private transient int endBatch;
 
   public ArrowInputSplit(int num, Path file, long start, long length, String[] hosts) {
     super(num, file, start, length, hosts);
@@ -26,13 +120,228 @@ public class ArrowInputSplit extends FileInputSplit<Object> {
     super(num, file, hosts);
   }
 
+  /**
+   * Create a split of record batches
+   *
+   * @param num the number of this input split
+   * @param file the file
+   * @param firstBatch index of the first record batch
+   * @param batches number of record batches
+   * @param start offset of the first record batch in the file
+   * @param length number of bytes of the record batches
+   * @param columns the columns to read, null for all the columns
+   * @param hosts the list of hosts containing the file
+   */
+  public ArrowInputSplit(int num, Path file, int firstBatch, int batches, long start,
+                         long length, String[] columns, String[] hosts) {
+    super(num, file, start, length, hosts);
+    this.firstBatch = firstBatch;
+    this.batches = batches;
+    this.columns = columns;
+  }
+
   @Override
-  public boolean reachedEnd() throws IOException {
-    return false;
+  public void open() throws IOException {
+    open((BufferAllocator) null);
+  }
+
+  @Override
+  public void open(Config cfg) throws IOException {
+    configure(cfg);
+    open((BufferAllocator) null);
+  }
+
+  /**
+   * Open the split and load the batches with the given allocator, so their vectors can be
+   * transferred to other vectors of the same allocator without copying
+   *
+   * @param bufferAllocator the allocator, if null the split creates its own
+   * @throws IOException if the file can not be read
+   */
+  public void open(BufferAllocator bufferAllocator) throws IOException {
+    if (bufferAllocator == null) {
+      this.allocator = new RootAllocator(Long.MAX_VALUE);
+      this.ownAllocator = true;
+    } else {
+      this.allocator = bufferAllocator;
+      this.ownAllocator = false;
+    }
+
+    File file = new File(getPath().toUri().getPath());
+    this.channel = new SeekableReadChannel(MappedFileChannel.open(file));
+    this.reader = new ArrowFileReader(channel, allocator);
+    this.root = reader.getVectorSchemaRoot();
+    this.blocks = reader.getRecordBlocks();
+    this.currentBatch = Math.min(firstBatch, blocks.size());
+    this.endBatch = batches < 0 ? blocks.size() : Math.min(blocks.size(), firstBatch + batches);
+
+    if (columns == null) {
+      this.projected = root;
+      this.projectedLoader = null;
+    } else {
+      project(root.getSchema());
+    }
+    LOG.log(Level.FINE, "Opening arrow split " + getPath() + " batches ["
+        + currentBatch + "," + endBatch + ")");
+  }
+
+  @Override
+  public boolean reachedEnd() {
+    return reader == null || currentBatch >= endBatch;
+  }
+
+  /**
+   * Find the field nodes and the buffers of the projected columns. The nodes of a record batch
+   * are the fields in depth first order and each node has the buffers of its type.
+   */
+  private void project(Schema schema) throws IOException {
+    List<Field> fields = schema.getFields();
+    int[] fieldNodeStarts = new int[fields.size()];
+    int[] fieldBufferStarts = new int[fields.size()];
+    int[] fieldNodeCounts = new int[fields.size()];
+    int[] fieldBufferCounts = new int[fields.size()];
+    int node = 0;
+    int buffer = 0;
+    for (int i = 0; i < fields.size(); i++) {
+      fieldNodeStarts[i] = node;
+      fieldBufferStarts[i] = buffer;
+      fieldNodeCounts[i] = countNodes(fields.get(i));
+      fieldBufferCounts[i] = countBuffers(fields.get(i));
+      node += fieldNodeCounts[i];
+      buffer += fieldBufferCounts[i];
+    }
+
+    List<Field> projectedFields = new ArrayList<>(columns.length);
+    this.nodeStarts = new int[columns.length];
+    this.nodeCounts = new int[columns.length];
+    this.bufferStarts = new int[columns.length];
+    this.bufferCounts = new int[columns.length];
+    for (int c = 0; c < columns.length; c++) {
+      int index = -1;
+      for (int i = 0; i < fields.size(); i++) {
+        if (fields.get(i).getName().equals(columns[c])) {
+          index = i;
+          break;
+        }
+      }
+      if (index < 0) {
+        throw new IOException("Column " + columns[c] + " is not in " + getPath()
+            + ", the schema is " + schema);
+      }
+      projectedFields.add(fields.get(index));
+      nodeStarts[c] = fieldNodeStarts[index];
+      nodeCounts[c] = fieldNodeCounts[index];
+      bufferStarts[c] = fieldBufferStarts[index];
+      bufferCounts[c] = fieldBufferCounts[index];
+    }
+    this.projected = VectorSchemaRoot.create(new Schema(projectedFields), allocator);
+    this.projectedLoader = new VectorLoader(projected);
+  }
+
+  private static int countNodes(Field field) {
+    int nodes = 1;
+    for (Field child : field.getChildren()) {
+      nodes += countNodes(child);
+    }
+    return nodes;
+  }
+
+  private static int countBuffers(Field field) {
+    int buffers = TypeLayout.getTypeBufferCount(field.getType());
+    for (Field child : field.getChildren()) {
+      buffers += countBuffers(child);
+    }
+    return buffers;
+  }
+
+  /**
+   * Load the next record batch
+   *
+   * @param reuse not used, the root of the split is reused
+   * @return the root with the projected vectors of the batch, null at the end of the split
+   */
+  @Override
+  public VectorSchemaRoot nextRecord(VectorSchemaRoot reuse) throws IOException {
+    if (reachedEnd()) {
+      return null;
+    }
+    ArrowBlock block = blocks.get(currentBatch++);
+    if (projectedLoader == null) {
+      reader.loadRecordBatch(block);
+    } else {
+      loadProjected(block);
+    }
+    return projected;
+  }
+
+  /**
+   * Read the metadata of the batch and only the buffers of the projected columns
+   */
+  private void loadProjected(ArrowBlock block) throws IOException {
+    channel.setPosition(block.getOffset());
+    MessageMetadataResult metadata = MessageSerializer.readMessage(channel);
+    Message message = metadata == null ? null : metadata.getMessage();
+    if (message == null || message.headerType() != MessageHeader.RecordBatch) {
+      throw new IOException("Expected a record batch at " + block.getOffset() + " of "
+          + getPath());
+    }
+    RecordBatch batch = (RecordBatch) message.header(new RecordBatch());
+    long bodyStart = block.getOffset() + block.getMetadataLength();
+
+    long bodyLength = 0;
+    for (int c = 0; c < columns.length; c++) {
+      for (int b = bufferStarts[c]; b < bufferStarts[c] + bufferCounts[c]; b++) {
+        bodyLength += batch.buffers(b).length();
+      }
+    }
+
+    List<ArrowFieldNode> nodes = new ArrayList<>();
+    List<ArrowBuf> buffers = new ArrayList<>();
+    ArrowBuf body = allocator.buffer((int) bodyLength);
+    try {
+      FieldNode fieldNode = new FieldNode();
+      Buffer bufferMeta = new Buffer();
+      for (int c = 0; c < columns.length; c++) {
+        for (int n = nodeStarts[c]; n < nodeStarts[c] + nodeCounts[c]; n++) {
+          batch.nodes(fieldNode, n);
+          nodes.add(new ArrowFieldNode(fieldNode.length(), fieldNode.nullCount()));
+        }
+        for (int b = bufferStarts[c]; b < bufferStarts[c] + bufferCounts[c]; b++) {
+          batch.buffers(bufferMeta, b);
+          long start = body.writerIndex();
+          channel.setPosition(bodyStart + bufferMeta.offset());
+          if (channel.readFully(body, bufferMeta.length()) != bufferMeta.length()) {
+            throw new IOException("Truncated record batch at " + block.getOffset() + " of "
+                + getPath());
+          }
+          buffers.add(body.slice(start, bufferMeta.length()));
+        }
+      }
+      try (ArrowRecordBatch projectedBatch = new ArrowRecordBatch((int) batch.length(), nodes,
+          buffers)) {
+        projectedLoader.load(projectedBatch);
+      }
+    } finally {
+      body.close();
+    }
   }
 
   @Override
-  public Object nextRecord(Object reuse) throws IOException {
-    return null;
+  public void close() throws IOException {
+    if (projectedLoader != null) {
+      projected.close();
+      projectedLoader = null;
+    }
+    if (reader != null) {
+      reader.close();
+      reader = null;
+    }
+    if (ownAllocator && allocator != null) {
+      allocator.close();
+    }
+    allocator = null;
+    root = null;
+    projected = null;
+    blocks = null;
   }
 }
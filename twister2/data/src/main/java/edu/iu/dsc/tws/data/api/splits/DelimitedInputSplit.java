@@ -12,6 +12,8 @@
 package edu.iu.dsc.tws.data.api.splits;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.charset.Charset;
 import java.util.Arrays;
 import java.util.logging.Logger;
@@ -19,6 +21,7 @@ import java.util.logging.Logger;
 import edu.iu.dsc.tws.api.config.Config;
 import edu.iu.dsc.tws.api.data.Path;
 import edu.iu.dsc.tws.data.api.formatters.FileInputPartitioner;
+import edu.iu.dsc.tws.data.utils.DelimiterSearch;
 
 public abstract class DelimitedInputSplit<OT> extends FileInputSplit<OT> {
 
@@ -50,6 +53,11 @@ public abstract class DelimitedInputSplit<OT> extends FileInputSplit<OT> {
 
   private transient byte[] readBuffer;
 
+  /**
+   * The read buffer viewed as long words for searching single byte delimiters
+   */
+  private transient ByteBuffer readWords;
+
   private transient byte[] wrapBuffer;
 
   private transient int readPos;
@@ -220,6 +228,7 @@ public abstract class DelimitedInputSplit<OT> extends FileInputSplit<OT> {
 
     if (this.readBuffer == null || this.readBuffer.length != this.bufferSize) {
       this.readBuffer = new byte[this.bufferSize];
+      this.readWords = ByteBuffer.wrap(this.readBuffer).order(ByteOrder.LITTLE_ENDIAN);
     }
     if (this.wrapBuffer == null || this.wrapBuffer.length < 256) {
       this.wrapBuffer = new byte[256];
@@ -293,12 +302,7 @@ public abstract class DelimitedInputSplit<OT> extends FileInputSplit<OT> {
             // we have bytes left to emit
             if (countInReadBuffer > 0) {
               // we have bytes left in the readBuffer. Move them into the wrapBuffer
-              if (this.wrapBuffer.length - countInWrapBuffer < countInReadBuffer) {
-                // reallocate
-                byte[] tmp = new byte[countInWrapBuffer + countInReadBuffer];
-                System.arraycopy(this.wrapBuffer, 0, tmp, 0, countInWrapBuffer);
-                this.wrapBuffer = tmp;
-              }
+              ensureWrapCapacity(countInWrapBuffer, countInWrapBuffer + countInReadBuffer);
               // copy readBuffer bytes to wrapBuffer
               System.arraycopy(this.readBuffer, 0, this.wrapBuffer,
                   countInWrapBuffer, countInReadBuffer);
@@ -317,6 +321,16 @@ public abstract class DelimitedInputSplit<OT> extends FileInputSplit<OT> {
       int startPos = this.readPos - delimPos;
       int count;
       // Search for next occurence of delimiter in read buffer.
+      if (this.delimiter.length == 1) {
+        int found = DelimiterSearch.indexOf(this.readWords, this.readPos, this.limit,
+            this.delimiter[0]);
+        if (found >= 0) {
+          this.readPos = found + 1;
+          delimPos = 1;
+        } else {
+          this.readPos = this.limit;
+        }
+      }
       while (this.readPos < this.limit && delimPos < this.delimiter.length) {
         if ((this.readBuffer[this.readPos]) == this.delimiter[delimPos]) {
           // Found the expected delimiter character. Continue looking for the next
@@ -345,11 +359,7 @@ public abstract class DelimitedInputSplit<OT> extends FileInputSplit<OT> {
         // copy to byte array
         if (countInWrapBuffer > 0) {
           // check wrap buffer size
-          if (this.wrapBuffer.length < countInWrapBuffer + count) {
-            final byte[] nb = new byte[countInWrapBuffer + count];
-            System.arraycopy(this.wrapBuffer, 0, nb, 0, countInWrapBuffer);
-            this.wrapBuffer = nb;
-          }
+          ensureWrapCapacity(countInWrapBuffer, countInWrapBuffer + count);
           if (count >= 0) {
             System.arraycopy(this.readBuffer, 0, this.wrapBuffer, countInWrapBuffer, count);
           }
@@ -373,13 +383,7 @@ public abstract class DelimitedInputSplit<OT> extends FileInputSplit<OT> {
         // We might need to go back.
         int bytesToMove = count - delimPos;
         // ensure wrapBuffer is large enough
-        if (this.wrapBuffer.length - countInWrapBuffer < bytesToMove) {
-          // reallocate
-          byte[] tmp = new byte[Math.max(this.wrapBuffer.length * 2,
-              countInWrapBuffer + bytesToMove)];
-          System.arraycopy(this.wrapBuffer, 0, tmp, 0, countInWrapBuffer);
-          this.wrapBuffer = tmp;
-        }
+        ensureWrapCapacity(countInWrapBuffer, countInWrapBuffer + bytesToMove);
 
         // copy readBuffer to wrapBuffer (except delimiter chars)
         System.arraycopy(this.readBuffer, startPos, this.wrapBuffer,
@@ -392,6 +396,18 @@ public abstract class DelimitedInputSplit<OT> extends FileInputSplit<OT> {
 
   }
 
+  /**
+   * Grow the wrap buffer to hold the required number of bytes. The buffer is kept across the
+   * records and doubled when it grows, so long records do not allocate a new buffer each time.
+   */
+  private void ensureWrapCapacity(int used, int required) {
+    if (this.wrapBuffer.length < required) {
+      byte[] tmp = new byte[Math.max(this.wrapBuffer.length * 2, required)];
+      System.arraycopy(this.wrapBuffer, 0, tmp, 0, used);
+      this.wrapBuffer = tmp;
+    }
+  }
+
   private void setResult(byte[] buffer, int resultOffset, int len) {
     this.currBuffer = buffer;
     this.currOffset = resultOffset;
@@ -407,6 +423,7 @@ public abstract class DelimitedInputSplit<OT> extends FileInputSplit<OT> {
   public void close() throws IOException {
     this.wrapBuffer = null;
     this.readBuffer = null;
+    this.readWords = null;
     super.close();
   }
 
@@ -0,0 +1,715 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.data.api.splits;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BaseFixedWidthVector;
+import org.apache.arrow.vector.BaseVariableWidthVector;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float4Vector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.SmallIntVector;
+import org.apache.arrow.vector.VarBinaryVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.api.data.Path;
+import edu.iu.dsc.tws.data.api.formatters.FileInputPartitioner;
+import edu.iu.dsc.tws.data.utils.DelimiterSearch;
+
+/**
+ * A byte range of a local delimited text file parsed into arrow vectors of a typed schema.
+ * <p>
+ * The file is read to a reusable direct buffer and the line and field delimiters are searched
+ * eight bytes at a time with {@link DelimiterSearch}. Numeric fields are parsed from the bytes
+ * of the buffer into the primitive vectors and text fields are copied from the buffer to the
+ * vectors, so no objects are created for a field. Decimal values that can not be parsed exactly
+ * with a long mantissa, and quoted numbers, fall back to the JDK parsers.
+ * <p>
+ * A split that does not start at the beginning of the file skips the partial line at its start,
+ * and the line that crosses the end of a split is read by that split. Quoted fields may contain
+ * field delimiters and doubled quotes but not line delimiters. Empty fields are null.
+ * <p>
+ * Each record is a batch of rows. The returned root is reused for the next batch, a reader that
+ * keeps a batch should transfer the vectors out of the root.
+ */
+public class TypedCSVInputSplit extends FileInputSplit<VectorSchemaRoot> {
+  private static final Logger LOG = Logger.getLogger(TypedCSVInputSplit.class.getName());
+
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * The default number of rows in a batch
+   */
+  public static final int DEFAULT_BATCH_ROWS = 8192;
+
+  /**
+   * The default read buffer size = 1MB.
+   */
+  private static final int DEFAULT_READ_BUFFER_SIZE = 1024 * 1024;
+
+  private static final byte NEW_LINE = (byte) '\n';
+
+  private static final byte CARRIAGE_RETURN = (byte) '\r';
+
+  private static final int INT = 0;
+  private static final int LONG = 1;
+  private static final int SHORT = 2;
+  private static final int FLOAT = 3;
+  private static final int DOUBLE = 4;
+  private static final int STRING = 5;
+  private static final int BINARY = 6;
+
+  /**
+   * Largest mantissa of a double that is an exact integer
+   */
+  private static final long DOUBLE_EXACT_MANTISSA = 1L << 53;
+
+  private static final long FLOAT_EXACT_MANTISSA = 1L << 24;
+
+  /**
+   * Powers of ten that are exact doubles, dividing an exact mantissa by them is correctly rounded
+   */
+  private static final double[] DOUBLE_POWERS = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8,
+      1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+  private static final float[] FLOAT_POWERS = {1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f,
+      1e8f, 1e9f, 1e10f};
+
+  /**
+   * The schema of the rows as arrow json, arrow schemas are not serializable
+   */
+  private final String schemaJson;
+
+  private byte fieldDelimiter = (byte) ',';
+
+  private byte quoteCharacter = (byte) '"';
+
+  private boolean skipFirstLineAsHeader = false;
+
+  private int batchRows = DEFAULT_BATCH_ROWS;
+
+  private int bufferSize = DEFAULT_READ_BUFFER_SIZE;
+
+  private transient BufferAllocator allocator;
+
+  private transient boolean ownAllocator;
+
+  private transient FileChannel channel;
+
+  private transient VectorSchemaRoot root;
+
+  private transient FieldVector[] vectors;
+
+  private transient int[] kinds;
+
+  /**
+   * Holds the file bytes from bufferOffset, the bytes before position are consumed
+   */
+  private transient ByteBuffer buffer;
+
+  private transient long bufferOffset;
+
+  private transient long readOffset;
+
+  /**
+   * Offset of the first byte after the split, lines starting from here belong to the next split
+   */
+  private transient long splitEnd;
+
+  private transient boolean endOfFile;
+
+  private transient boolean end;
+
+  /**
+   * Holds quoted fields without their quotes
+   */
+  private transient byte[] scratch;
+
+  private transient int scratchLength;
+
+  /**
+   * Index of the row being parsed in the file, used in the error messages
+   */
+  private transient long line;
+
+  /**
+   * Create a split of a file
+   *
+   * @param num the number of this input split
+   * @param file the file
+   * @param start the position of the first byte in the file to process
+   * @param length the number of bytes in the file to process (-1 is flag for "read whole file")
+   * @param schema the types and names of the fields in a line
+   * @param hosts the list of hosts containing the file
+   */
+  public TypedCSVInputSplit(int num, Path file, long start, long length, Schema schema,
+                            String[] hosts) {
+    super(num, file, start, length, hosts);
+    this.schemaJson = schema.toJson();
+  }
+
+  public byte getFieldDelimiter() {
+    return fieldDelimiter;
+  }
+
+  public void setFieldDelimiter(char delimiter) {
+    if (delimiter > 0x7F || delimiter == '\n' || delimiter == '\r') {
+      throw new IllegalArgumentException("The field delimiter must be a single byte character "
+          + "other than a line delimiter");
+    }
+    this.fieldDelimiter = (byte) delimiter;
+  }
+
+  public void setQuoteCharacter(char quote) {
+    if (quote > 0x7F) {
+      throw new IllegalArgumentException("The quote must be a single byte character");
+    }
+    this.quoteCharacter = (byte) quote;
+  }
+
+  public boolean isSkipFirstLineAsHeader() {
+    return skipFirstLineAsHeader;
+  }
+
+  public void setSkipFirstLineAsHeader(boolean skipFirstLineAsHeader) {
+    this.skipFirstLineAsHeader = skipFirstLineAsHeader;
+  }
+
+  public int getBatchRows() {
+    return batchRows;
+  }
+
+  public void setBatchRows(int batchRows) {
+    if (batchRows < 1) {
+      throw new IllegalArgumentException("A batch must have at least 1 row.");
+    }
+    this.batchRows = batchRows;
+  }
+
+  public void setBufferSize(int bufferSize) {
+    if (bufferSize < Long.BYTES) {
+      throw new IllegalArgumentException("Buffer size must be at least " + Long.BYTES);
+    }
+    this.bufferSize = bufferSize;
+  }
+
+  @Override
+  public void open() throws IOException {
+    open((BufferAllocator) null);
+  }
+
+  @Override
+  public void open(Config cfg) throws IOException {
+    configure(cfg);
+    open((BufferAllocator) null);
+  }
+
+  /**
+   * Open the split and create the vectors with the given allocator, so they can be transferred
+   * to other vectors of the same allocator without copying
+   *
+   * @param bufferAllocator the allocator, if null the split creates its own
+   * @throws IOException if the file can not be read
+   */
+  public void open(BufferAllocator bufferAllocator) throws IOException {
+    if (bufferAllocator == null) {
+      this.allocator = new RootAllocator(Long.MAX_VALUE);
+      this.ownAllocator = true;
+    } else {
+      this.allocator = bufferAllocator;
+      this.ownAllocator = false;
+    }
+
+    Schema schema = Schema.fromJSON(schemaJson);
+    this.root = VectorSchemaRoot.create(schema, allocator);
+    List<FieldVector> fieldVectors = root.getFieldVectors();
+    this.vectors = fieldVectors.toArray(new FieldVector[0]);
+    this.kinds = new int[vectors.length];
+    for (int i = 0; i < vectors.length; i++) {
+      kinds[i] = kindOf(vectors[i]);
+    }
+
+    this.splitStart = getStart();
+    this.splitLength = getLength();
+    this.splitEnd = splitLength == FileInputPartitioner.READ_WHOLE_SPLIT_FLAG
+        ? Long.MAX_VALUE : splitStart + splitLength;
+    this.channel = FileChannel.open(Paths.get(getPath().toUri().getPath()),
+        StandardOpenOption.READ);
+    if (buffer == null || buffer.capacity() != bufferSize) {
+      this.buffer = ByteBuffer.allocateDirect(bufferSize).order(ByteOrder.LITTLE_ENDIAN);
+    }
+    buffer.clear().limit(0);
+    if (scratch == null) {
+      this.scratch = new byte[256];
+    }
+    this.endOfFile = false;
+    this.end = false;
+    this.line = 0;
+
+    // start after the first line delimiter at or after the byte before the split, so a split
+    // starting at the beginning of a line keeps it
+    this.bufferOffset = splitStart > 0 ? splitStart - 1 : 0;
+    this.readOffset = bufferOffset;
+    if (splitStart > 0 || skipFirstLineAsHeader) {
+      int delimiter = findLineEnd();
+      buffer.position(delimiter < 0 ? buffer.limit() : delimiter + 1);
+    }
+    LOG.log(Level.FINE, "Opening csv split " + getPath() + " [" + splitStart + ","
+        + splitLength + "]");
+  }
+
+  /**
+   * Checks weather there is a line starting in this split
+   */
+  @Override
+  public boolean reachedEnd() throws IOException {
+    if (!end) {
+      end = channel == null || !hasLine();
+    }
+    return end;
+  }
+
+  /**
+   * Parse the next batch of rows
+   *
+   * @param reuse not used, the root of the split is reused
+   * @return the root holding the rows of the batch, null at the end of the split
+   */
+  @Override
+  public VectorSchemaRoot nextRecord(VectorSchemaRoot reuse) throws IOException {
+    if (reachedEnd()) {
+      return null;
+    }
+
+    for (int i = 0; i < vectors.length; i++) {
+      if (vectors[i] instanceof BaseVariableWidthVector) {
+        ((BaseVariableWidthVector) vectors[i]).allocateNew((long) batchRows * 16, batchRows);
+      } else {
+        ((BaseFixedWidthVector) vectors[i]).allocateNew(batchRows);
+      }
+    }
+
+    int rows = 0;
+    while (rows < batchRows && hasLine()) {
+      int delimiter = findLineEnd();
+      int lineStart = buffer.position();
+      int lineEnd = delimiter < 0 ? buffer.limit() : delimiter;
+      buffer.position(delimiter < 0 ? buffer.limit() : delimiter + 1);
+      if (lineEnd > lineStart && buffer.get(lineEnd - 1) == CARRIAGE_RETURN) {
+        lineEnd--;
+      }
+      line++;
+      if (lineEnd > lineStart) {
+        parseLine(rows++, lineStart, lineEnd);
+      }
+    }
+
+    for (int i = 0; i < vectors.length; i++) {
+      vectors[i].setValueCount(rows);
+    }
+    root.setRowCount(rows);
+    return root;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (channel != null) {
+      channel.close();
+      channel = null;
+    }
+    if (root != null) {
+      root.close();
+      root = null;
+    }
+    if (ownAllocator && allocator != null) {
+      allocator.close();
+    }
+    allocator = null;
+    vectors = null;
+    buffer = null;
+    scratch = null;
+  }
+
+  /**
+   * Weather a line starts before the end of the split
+   */
+  private boolean hasLine() throws IOException {
+    if (bufferOffset + buffer.position() >= splitEnd) {
+      return false;
+    }
+    if (!buffer.hasRemaining()) {
+      fill();
+    }
+    return buffer.hasRemaining();
+  }
+
+  /**
+   * Find the line delimiter of the line starting at the buffer position, reading more of the
+   * file when the line does not fit the buffer. The position may move when the buffer is
+   * compacted.
+   *
+   * @return index of the delimiter in the buffer, -1 if the line ends at the end of the file
+   */
+  private int findLineEnd() throws IOException {
+    int searched = buffer.position();
+    while (true) {
+      int delimiter = DelimiterSearch.indexOf(buffer, searched, buffer.limit(), NEW_LINE);
+      if (delimiter >= 0) {
+        return delimiter;
+      }
+      if (endOfFile) {
+        return -1;
+      }
+      searched = buffer.limit() - buffer.position();
+      fill();
+    }
+  }
+
+  /**
+   * Move the unread bytes to the start of the buffer and read the file after them. The buffer
+   * is doubled if it is full of unread bytes.
+   */
+  private void fill() throws IOException {
+    bufferOffset += buffer.position();
+    if (buffer.position() == 0 && buffer.limit() == buffer.capacity()) {
+      ByteBuffer larger = ByteBuffer.allocateDirect(buffer.capacity() * 2)
+          .order(ByteOrder.LITTLE_ENDIAN);
+      larger.put(buffer);
+      buffer = larger;
+    } else {
+      buffer.compact();
+    }
+
+    while (buffer.hasRemaining()) {
+      int read = channel.read(buffer, readOffset);
+      if (read < 0) {
+        endOfFile = true;
+        break;
+      }
+      readOffset += read;
+    }
+    buffer.flip();
+  }
+
+  private void parseLine(int row, int lineStart, int lineEnd) throws IOException {
+    int position = lineStart;
+    for (int column = 0; column < vectors.length; column++) {
+      if (position > lineEnd) {
+        // the line has fewer fields than the schema
+        setNull(column, row);
+        continue;
+      }
+
+      if (position < lineEnd && buffer.get(position) == quoteCharacter) {
+        int next = unquote(position + 1, lineEnd);
+        setQuotedValue(column, row);
+        position = next + 1;
+      } else {
+        int delimiter = DelimiterSearch.indexOf(buffer, position, lineEnd, fieldDelimiter);
+        int fieldEnd = delimiter < 0 ? lineEnd : delimiter;
+        setValue(column, row, position, fieldEnd);
+        position = fieldEnd + 1;
+      }
+    }
+  }
+
+  private void setValue(int column, int row, int start, int fieldEnd) throws IOException {
+    int kind = kinds[column];
+    if (kind == STRING || kind == BINARY) {
+      if (start == fieldEnd) {
+        setNull(column, row);
+      } else {
+        ((BaseVariableWidthVector) vectors[column]).setSafe(row, buffer, start,
+            fieldEnd - start);
+      }
+      return;
+    }
+
+    int from = start;
+    int to = fieldEnd;
+    while (from < to && buffer.get(from) == ' ') {
+      from++;
+    }
+    while (to > from && buffer.get(to - 1) == ' ') {
+      to--;
+    }
+    if (from == to) {
+      setNull(column, row);
+      return;
+    }
+
+    try {
+      switch (kind) {
+        case INT:
+          ((IntVector) vectors[column]).set(row, (int) parseLong(from, to,
+              Integer.MIN_VALUE, Integer.MAX_VALUE));
+          break;
+        case LONG:
+          ((BigIntVector) vectors[column]).set(row, parseLong(from, to,
+              Long.MIN_VALUE, Long.MAX_VALUE));
+          break;
+        case SHORT:
+          ((SmallIntVector) vectors[column]).set(row, (short) parseLong(from, to,
+              Short.MIN_VALUE, Short.MAX_VALUE));
+          break;
+        case FLOAT:
+          ((Float4Vector) vectors[column]).set(row, parseFloat(from, to));
+          break;
+        default:
+          ((Float8Vector) vectors[column]).set(row, parseDouble(from, to));
+      }
+    } catch (NumberFormatException e) {
+      throw new IOException("Invalid value '" + asString(from, to) + "' for "
+          + vectors[column].getField().getName() + " in line " + line + " of " + getPath(), e);
+    }
+  }
+
+  private void setQuotedValue(int column, int row) throws IOException {
+    int kind = kinds[column];
+    if (kind == STRING || kind == BINARY) {
+      ((BaseVariableWidthVector) vectors[column]).setSafe(row, scratch, 0, scratchLength);
+      return;
+    }
+
+    String value = new String(scratch, 0, scratchLength, StandardCharsets.UTF_8).trim();
+    if (value.isEmpty()) {
+      setNull(column, row);
+      return;
+    }
+    try {
+      switch (kind) {
+        case INT:
+          ((IntVector) vectors[column]).set(row, Integer.parseInt(value));
+          break;
+        case LONG:
+          ((BigIntVector) vectors[column]).set(row, Long.parseLong(value));
+          break;
+        case SHORT:
+          ((SmallIntVector) vectors[column]).set(row, Short.parseShort(value));
+          break;
+        case FLOAT:
+          ((Float4Vector) vectors[column]).set(row, Float.parseFloat(value));
+          break;
+        default:
+          ((Float8Vector) vectors[column]).set(row, Double.parseDouble(value));
+      }
+    } catch (NumberFormatException e) {
+      throw new IOException("Invalid value '" + value + "' for "
+          + vectors[column].getField().getName() + " in line " + line + " of " + getPath(), e);
+    }
+  }
+
+  private void setNull(int column, int row) {
+    if (vectors[column] instanceof BaseVariableWidthVector) {
+      ((BaseVariableWidthVector) vectors[column]).setNull(row);
+    } else {
+      ((BaseFixedWidthVector) vectors[column]).setNull(row);
+    }
+  }
+
+  /**
+   * Copy a quoted field without the quotes to the scratch buffer
+   *
+   * @param start index after the opening quote
+   * @param lineEnd end of the line
+   * @return index of the field delimiter after the closing quote, or the line end
+   */
+  private int unquote(int start, int lineEnd) throws IOException {
+    scratchLength = 0;
+    int i = start;
+    while (true) {
+      if (i >= lineEnd) {
+        throw new IOException("Unterminated quoted field in line " + line + " of " + getPath());
+      }
+      byte b = buffer.get(i);
+      if (b == quoteCharacter) {
+        if (i + 1 < lineEnd && buffer.get(i + 1) == quoteCharacter) {
+          appendScratch(b);
+          i += 2;
+          continue;
+        }
+        break;
+      }
+      appendScratch(b);
+      i++;
+    }
+
+    int delimiter = DelimiterSearch.indexOf(buffer, i + 1, lineEnd, fieldDelimiter);
+    return delimiter < 0 ? lineEnd : delimiter;
+  }
+
+  private void appendScratch(byte b) {
+    if (scratchLength == scratch.length) {
+      byte[] larger = new byte[scratch.length * 2];
+      System.arraycopy(scratch, 0, larger, 0, scratchLength);
+      scratch = larger;
+    }
+    scratch[scratchLength++] = b;
+  }
+
+  private long parseLong(int from, int to, long min, long max) {
+    int i = from;
+    boolean negative = false;
+    byte first = buffer.get(i);
+    if (first == '-' || first == '+') {
+      negative = first == '-';
+      i++;
+    }
+    if (i == to) {
+      throw new NumberFormatException("No digits");
+    }
+
+    // accumulate negatively so that the minimum value does not overflow
+    long limit = negative ? min : -max;
+    long multiplyLimit = limit / 10;
+    long value = 0;
+    for (; i < to; i++) {
+      int digit = buffer.get(i) - '0';
+      if (digit < 0 || digit > 9) {
+        throw new NumberFormatException("Not a digit");
+      }
+      if (value < multiplyLimit) {
+        throw new NumberFormatException("Out of range");
+      }
+      value *= 10;
+      if (value < limit + digit) {
+        throw new NumberFormatException("Out of range");
+      }
+      value -= digit;
+    }
+    return negative ? value : -value;
+  }
+
+  private double parseDouble(int from, int to) {
+    int i = from;
+    boolean negative = false;
+    byte first = buffer.get(i);
+    if (first == '-' || first == '+') {
+      negative = first == '-';
+      i++;
+    }
+
+    long mantissa = 0;
+    int scale = 0;
+    int digits = 0;
+    boolean point = false;
+    for (; i < to; i++) {
+      byte b = buffer.get(i);
+      int digit = b - '0';
+      if (digit >= 0 && digit <= 9) {
+        mantissa = mantissa * 10 + digit;
+        digits++;
+        if (point) {
+          scale++;
+        }
+        if (mantissa >= DOUBLE_EXACT_MANTISSA) {
+          return Double.parseDouble(asString(from, to));
+        }
+      } else if (b == '.' && !point) {
+        point = true;
+      } else {
+        // exponents, infinity and nan
+        return Double.parseDouble(asString(from, to));
+      }
+    }
+    if (digits == 0 || scale >= DOUBLE_POWERS.length) {
+      return Double.parseDouble(asString(from, to));
+    }
+    double value = mantissa / DOUBLE_POWERS[scale];
+    return negative ? -value : value;
+  }
+
+  private float parseFloat(int from, int to) {
+    int i = from;
+    boolean negative = false;
+    byte first = buffer.get(i);
+    if (first == '-' || first == '+') {
+      negative = first == '-';
+      i++;
+    }
+
+    long mantissa = 0;
+    int scale = 0;
+    int digits = 0;
+    boolean point = false;
+    for (; i < to; i++) {
+      byte b = buffer.get(i);
+      int digit = b - '0';
+      if (digit >= 0 && digit <= 9) {
+        mantissa = mantissa * 10 + digit;
+        digits++;
+        if (point) {
+          scale++;
+        }
+        if (mantissa >= FLOAT_EXACT_MANTISSA) {
+          return Float.parseFloat(asString(from, to));
+        }
+      } else if (b == '.' && !point) {
+        point = true;
+      } else {
+        return Float.parseFloat(asString(from, to));
+      }
+    }
+    if (digits == 0 || scale >= FLOAT_POWERS.length) {
+      return Float.parseFloat(asString(from, to));
+    }
+    float value = mantissa / FLOAT_POWERS[scale];
+    return negative ? -value : value;
+  }
+
+  private String asString(int from, int to) {
+    byte[] bytes = new byte[to - from];
+    for (int i = 0; i < bytes.length; i++) {
+      bytes[i] = buffer.get(from + i);
+    }
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static int kindOf(FieldVector vector) {
+    if (vector instanceof IntVector) {
+      return INT;
+    } else if (vector instanceof BigIntVector) {
+      return LONG;
+    } else if (vector instanceof SmallIntVector) {
+      return SHORT;
+    } else if (vector instanceof Float4Vector) {
+      return FLOAT;
+    } else if (vector instanceof Float8Vector) {
+      return DOUBLE;
+    } else if (vector instanceof VarCharVector) {
+      return STRING;
+    } else if (vector instanceof VarBinaryVector) {
+      return BINARY;
+    }
+    Field field = vector.getField();
+    throw new IllegalArgumentException("Type " + field.getType() + " of " + field.getName()
+        + " is not supported by the csv reader");
+  }
+}
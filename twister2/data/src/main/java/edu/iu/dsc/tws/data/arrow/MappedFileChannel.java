@@ -0,0 +1,127 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.data.arrow;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A read only channel over a memory mapped file. The file is mapped in chunks of 1GB so files
+ * larger than the limit of a single mapping can be read. Reads copy from the page cache without
+ * a system call, and seeking only changes the position.
+ */
+public final class MappedFileChannel implements SeekableByteChannel {
+  private static final long CHUNK_SIZE = 1L << 30;
+
+  private MappedByteBuffer[] chunks;
+
+  private final long size;
+
+  private long position;
+
+  private MappedFileChannel(MappedByteBuffer[] chunks, long size) {
+    this.chunks = chunks;
+    this.size = size;
+  }
+
+  /**
+   * Map the file to memory
+   *
+   * @param file the file
+   * @return the channel
+   * @throws IOException if the file can not be mapped
+   */
+  public static MappedFileChannel open(File file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      long size = channel.size();
+      MappedByteBuffer[] chunks = new MappedByteBuffer[(int) ((size + CHUNK_SIZE - 1)
+          / CHUNK_SIZE)];
+      for (int i = 0; i < chunks.length; i++) {
+        long start = i * CHUNK_SIZE;
+        chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, start,
+            Math.min(CHUNK_SIZE, size - start));
+      }
+      // the mappings stay valid after the channel is closed
+      return new MappedFileChannel(chunks, size);
+    }
+  }
+
+  @Override
+  public int read(ByteBuffer dst) throws IOException {
+    if (chunks == null) {
+      throw new ClosedChannelException();
+    }
+    if (position >= size) {
+      return -1;
+    }
+
+    int read = 0;
+    while (dst.hasRemaining() && position < size) {
+      int offset = (int) (position % CHUNK_SIZE);
+      ByteBuffer src = chunks[(int) (position / CHUNK_SIZE)].duplicate();
+      int length = Math.min(src.limit() - offset, dst.remaining());
+      src.position(offset);
+      src.limit(offset + length);
+      dst.put(src);
+      position += length;
+      read += length;
+    }
+    return read;
+  }
+
+  @Override
+  public int write(ByteBuffer src) {
+    throw new NonWritableChannelException();
+  }
+
+  @Override
+  public long position() {
+    return position;
+  }
+
+  @Override
+  public SeekableByteChannel position(long newPosition) {
+    if (newPosition < 0) {
+      throw new IllegalArgumentException("Negative position " + newPosition);
+    }
+    this.position = newPosition;
+    return this;
+  }
+
+  @Override
+  public long size() {
+    return size;
+  }
+
+  @Override
+  public SeekableByteChannel truncate(long newSize) {
+    throw new NonWritableChannelException();
+  }
+
+  @Override
+  public boolean isOpen() {
+    return chunks != null;
+  }
+
+  @Override
+  public void close() {
+    // the mappings are released when they are garbage collected
+    chunks = null;
+  }
+}
@@ -0,0 +1,65 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.data.utils;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Searches a byte in a buffer eight bytes at a time. Each long word is compared with the byte
+ * repeated eight times and the bytes that became zero are found with a few arithmetic
+ * operations, so there is a single branch for every eight bytes instead of one per byte.
+ */
+public final class DelimiterSearch {
+  private static final long LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+
+  private static final long ONES = 0x0101010101010101L;
+
+  private DelimiterSearch() {
+  }
+
+  /**
+   * Find the first occurrence of a byte
+   *
+   * @param buffer the buffer, its position and limit are not used or changed
+   * @param from index to start the search
+   * @param to index after the last byte to search
+   * @param value the byte to find
+   * @return index of the byte, or -1 if it is not in the range
+   */
+  public static int indexOf(ByteBuffer buffer, int from, int to, byte value) {
+    boolean littleEndian = buffer.order() == ByteOrder.LITTLE_ENDIAN;
+    long pattern = (value & 0xFFL) * ONES;
+    int i = from;
+    for (; i + Long.BYTES <= to; i += Long.BYTES) {
+      long found = zeroBytes(buffer.getLong(i) ^ pattern);
+      if (found != 0) {
+        int zeros = littleEndian ? Long.numberOfTrailingZeros(found)
+            : Long.numberOfLeadingZeros(found);
+        return i + (zeros >>> 3);
+      }
+    }
+    for (; i < to; i++) {
+      if (buffer.get(i) == value) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * The high bit of a byte in the result is set only if that byte of the word is zero
+   */
+  private static long zeroBytes(long word) {
+    return ~(((word & LOW_BITS) + LOW_BITS) | word | LOW_BITS);
+  }
+}
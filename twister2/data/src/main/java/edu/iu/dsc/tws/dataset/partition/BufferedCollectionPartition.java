@@ -13,8 +13,9 @@ package edu.iu.dsc.tws.dataset.partition;
 
 import java.io.Closeable;
 import java.io.DataInputStream;
-import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -35,6 +36,11 @@ import edu.iu.dsc.tws.api.data.FileSystem;
 import edu.iu.dsc.tws.api.data.Path;
 import edu.iu.dsc.tws.api.dataset.DataPartitionConsumer;
 import edu.iu.dsc.tws.api.exceptions.Twister2RuntimeException;
+import edu.iu.dsc.tws.api.util.BlockCodec;
+import edu.iu.dsc.tws.api.util.BlockCodecs;
+import edu.iu.dsc.tws.api.util.BlockInputStream;
+import edu.iu.dsc.tws.api.util.SpillIOService;
+import edu.iu.dsc.tws.api.util.SpillWriter;
 
 public abstract class BufferedCollectionPartition<T> extends CollectionPartition<T>
     implements Closeable {
@@ -61,6 +67,16 @@ public abstract class BufferedCollectionPartition<T> extends CollectionPartition
 
   private String reference;
 
+  /**
+   * Files that are being written in the background
+   */
+  private List<SpillWriter> pendingSpills = new ArrayList<>();
+
+  /**
+   * The codec to compress the files
+   */
+  private BlockCodec codec;
+
   /**
    * Creates an instance of {@link BufferedCollectionPartition}
    *
@@ -75,6 +91,7 @@ public abstract class BufferedCollectionPartition<T> extends CollectionPartition
     this.maxFramesInMemory = maxFramesInMemory;
     this.maxBufferedBytes = bufferedBytes;
     this.dataType = dataType;
+    this.codec = BlockCodecs.fromConfig(config, BlockCodecs.PERSIST);
     try {
       this.fileSystem = getFileSystem(config);
       this.rootPath = getRootPath(config);
@@ -154,8 +171,8 @@ public abstract class BufferedCollectionPartition<T> extends CollectionPartition
       FileStatus[] fileStatuses = this.fileSystem.listFiles(this.rootPath);
       this.filesList = Arrays.stream(fileStatuses).map(FileStatus::getPath)
           .filter(p -> p.getName().contains(EXTENSION))
-          .sorted(Comparator.comparingLong(path ->
-              Long.parseLong(path.getName().replace(EXTENSION, ""))))
+          .sorted(Comparator.comparingLong(path -> Long.parseLong(
+              path.getName().substring(0, path.getName().indexOf(EXTENSION)))))
           .collect(Collectors.toList());
       this.fileCounter = fileStatuses.length;
     } catch (IOException e) {
@@ -189,6 +206,7 @@ public abstract class BufferedCollectionPartition<T> extends CollectionPartition
 
   @Override
   public DataPartitionConsumer<T> getConsumer() {
+    this.waitForSpills();
 
     final Iterator<T> inMemoryIterator = this.dataList.iterator();
     final Iterator<Path> fileIterator = this.filesList.iterator();
@@ -213,7 +231,7 @@ public abstract class BufferedCollectionPartition<T> extends CollectionPartition
         } else if (fileIterator.hasNext()) {
           Path nextFile = fileIterator.next();
           try {
-            DataInputStream reader = new DataInputStream(fileSystem.open(nextFile));
+            DataInputStream reader = new DataInputStream(openFile(nextFile));
             long noOfFrames = reader.readLong();
             for (long i = 0; i < noOfFrames; i++) {
               int size = reader.readInt();
@@ -252,6 +270,7 @@ public abstract class BufferedCollectionPartition<T> extends CollectionPartition
 
   @Override
   public void clear() {
+    this.waitForSpills();
     // cleanup files
     for (Path path : this.filesList) {
       try {
@@ -269,27 +288,70 @@ public abstract class BufferedCollectionPartition<T> extends CollectionPartition
     this.fileCounter = 0;
   }
 
+  /**
+   * Open a file of frames with the codec it was written with, the name of a compressed file
+   * ends with the name of the codec
+   */
+  private InputStream openFile(Path file) throws IOException {
+    String name = file.getName();
+    int codecStart = name.indexOf(EXTENSION) + EXTENSION.length() + 1;
+    BlockCodec fileCodec = codecStart < name.length()
+        ? BlockCodecs.get(name.substring(codecStart)) : BlockCodecs.NONE;
+    return BlockInputStream.open(fileSystem.open(file), fileCodec);
+  }
+
+  /**
+   * Write the buffered frames to a new file. The frames are copied to the spill buffers and the
+   * file is completed in the background, the readers wait for the pending files.
+   */
   public void flush() {
     if (this.buffers.isEmpty()) {
       return;
     }
-    Path filePath = new Path(this.rootPath, (this.fileCounter++) + EXTENSION);
-    try (DataOutputStream outputStream = new DataOutputStream(this.fileSystem.create(filePath))) {
-      outputStream.writeLong(this.buffers.size());
-      Iterator<byte[]> bufferIt = this.buffers.iterator();
-      while (bufferIt.hasNext()) {
-        byte[] next = bufferIt.next();
-        outputStream.writeInt(next.length);
-        outputStream.write(next);
-      }
+    // the codec is kept in the file name, a later job may load the files with another codec
+    String fileName = (this.fileCounter++) + EXTENSION;
+    if (codec != BlockCodecs.NONE) {
+      fileName += "." + codec.getName();
+    }
+    Path filePath = new Path(this.rootPath, fileName);
+    SpillWriter writer;
+    try {
+      writer = SpillIOService.open(Channels.newChannel(this.fileSystem.create(filePath)),
+          filePath.toString(), codec);
     } catch (IOException e) {
       throw new Twister2RuntimeException("Couldn't flush partitions to the disk", e);
     }
+    writer.putLong(this.buffers.size());
+    writer.markRecord();
+    Iterator<byte[]> bufferIt = this.buffers.iterator();
+    while (bufferIt.hasNext()) {
+      byte[] next = bufferIt.next();
+      writer.putInt(next.length);
+      writer.put(next);
+      writer.markRecord();
+    }
+    writer.closeAsync();
+    this.pendingSpills.add(writer);
     this.filesList.add(filePath);
     this.buffers.clear();
     this.bufferedBytes = 0;
   }
 
+  /**
+   * Wait until the files written in the background are complete
+   */
+  private void waitForSpills() {
+    try {
+      for (SpillWriter writer : this.pendingSpills) {
+        writer.await();
+      }
+    } catch (RuntimeException e) {
+      throw new Twister2RuntimeException("Couldn't flush partitions to the disk", e);
+    } finally {
+      this.pendingSpills.clear();
+    }
+  }
+
   public boolean hasIndexInMemory(int index) {
     return index < this.dataList.size();
   }
@@ -298,6 +360,7 @@ public abstract class BufferedCollectionPartition<T> extends CollectionPartition
   private int cachedFileIndex = -1;
 
   public T get(int index) {
+    this.waitForSpills();
     //read from memory
     if (index < this.dataList.size()) {
       return this.dataList.get(index);
@@ -307,7 +370,7 @@ public abstract class BufferedCollectionPartition<T> extends CollectionPartition
       for (int fileIndex = 0; fileIndex < this.filesList.size(); fileIndex++) {
         Path nextFile = this.filesList.get(fileIndex);
         try {
-          DataInputStream reader = new DataInputStream(fileSystem.open(nextFile));
+          DataInputStream reader = new DataInputStream(openFile(nextFile));
           long noOfFrames = reader.readLong();
           if (index < currentSize + noOfFrames) {
             if (cachedFileIndex != fileIndex) {
@@ -339,6 +402,7 @@ public abstract class BufferedCollectionPartition<T> extends CollectionPartition
   @Override
   public void close() {
     this.flush();
+    this.waitForSpills();
   }
 
   @Override
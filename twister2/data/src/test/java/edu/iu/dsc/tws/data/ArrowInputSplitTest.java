@@ -0,0 +1,314 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.data;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.complex.ListVector;
+import org.apache.arrow.vector.complex.impl.UnionListWriter;
+import org.apache.arrow.vector.ipc.ArrowFileWriter;
+import org.apache.arrow.vector.types.FloatingPointPrecision;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import edu.iu.dsc.tws.api.data.Path;
+import edu.iu.dsc.tws.data.api.formatters.ArrowInputPartitioner;
+import edu.iu.dsc.tws.data.api.splits.ArrowInputSplit;
+
+public class ArrowInputSplitTest {
+  private static final int NAME_LENGTH = 200;
+
+  private static final Schema SCHEMA = new Schema(Arrays.asList(
+      Field.nullable("id", new ArrowType.Int(32, true)),
+      Field.nullable("name", ArrowType.Utf8.INSTANCE),
+      new Field("tags", FieldType.nullable(ArrowType.List.INSTANCE),
+          Collections.singletonList(Field.nullable("$data$", new ArrowType.Int(32, true)))),
+      Field.nullable("score", new ArrowType.FloatingPoint(FloatingPointPrecision.DOUBLE))));
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private BufferAllocator allocator;
+
+  @Before
+  public void setUp() {
+    allocator = new RootAllocator(Long.MAX_VALUE);
+  }
+
+  @After
+  public void tearDown() {
+    allocator.close();
+  }
+
+  private static String name(int row) {
+    char[] chars = new char[NAME_LENGTH];
+    Arrays.fill(chars, (char) ('a' + row % 26));
+    return row + new String(chars, 0, NAME_LENGTH - String.valueOf(row).length());
+  }
+
+  /**
+   * Write a file with a batch of each size, the ids of the rows continue from the first id
+   */
+  private File writeFile(File file, int firstId, int... batchSizes) throws IOException {
+    try (BufferAllocator writeAllocator = new RootAllocator(Long.MAX_VALUE);
+         VectorSchemaRoot root = VectorSchemaRoot.create(SCHEMA, writeAllocator);
+         FileOutputStream out = new FileOutputStream(file);
+         ArrowFileWriter writer = new ArrowFileWriter(root, null, out.getChannel())) {
+      writer.start();
+      int id = firstId;
+      for (int rows : batchSizes) {
+        IntVector ids = (IntVector) root.getVector("id");
+        VarCharVector names = (VarCharVector) root.getVector("name");
+        ListVector tags = (ListVector) root.getVector("tags");
+        Float8Vector scores = (Float8Vector) root.getVector("score");
+        ids.allocateNew(rows);
+        names.allocateNew();
+        scores.allocateNew(rows);
+        UnionListWriter tagWriter = tags.getWriter();
+        tagWriter.allocate();
+        for (int i = 0; i < rows; i++, id++) {
+          ids.setSafe(i, id);
+          names.setSafe(i, name(id).getBytes(StandardCharsets.UTF_8));
+          if (id % 5 == 0) {
+            scores.setNull(i);
+          } else {
+            scores.setSafe(i, id * 0.5);
+          }
+          tagWriter.setPosition(i);
+          tagWriter.startList();
+          for (int t = 0; t < id % 3; t++) {
+            tagWriter.writeInt(id + t);
+          }
+          tagWriter.endList();
+        }
+        ids.setValueCount(rows);
+        names.setValueCount(rows);
+        scores.setValueCount(rows);
+        tagWriter.setValueCount(rows);
+        root.setRowCount(rows);
+        writer.writeBatch();
+      }
+      writer.end();
+    }
+    return file;
+  }
+
+  private ArrowInputSplit wholeFile(File file, String... columns) {
+    return new ArrowInputSplit(0, new Path(file.getPath()), 0, -1, 0, file.length(),
+        columns.length == 0 ? null : columns, new String[]{"localhost"});
+  }
+
+  private List<Integer> readIds(ArrowInputSplit split) throws IOException {
+    List<Integer> ids = new ArrayList<>();
+    split.open(allocator);
+    while (!split.reachedEnd()) {
+      IntVector vector = (IntVector) split.nextRecord(null).getVector("id");
+      for (int i = 0; i < vector.getValueCount(); i++) {
+        ids.add(vector.get(i));
+      }
+    }
+    Assert.assertNull(split.nextRecord(null));
+    split.close();
+    return ids;
+  }
+
+  private static List<Integer> range(int from, int to) {
+    List<Integer> values = new ArrayList<>();
+    for (int i = from; i < to; i++) {
+      values.add(i);
+    }
+    return values;
+  }
+
+  @Test
+  public void testAllColumns() throws IOException {
+    File file = writeFile(folder.newFile("all.arrow"), 0, 10, 7);
+    ArrowInputSplit split = wholeFile(file);
+    split.open(allocator);
+    VectorSchemaRoot root = split.nextRecord(null);
+    Assert.assertEquals(SCHEMA, root.getSchema());
+    Assert.assertEquals(10, root.getRowCount());
+    root = split.nextRecord(null);
+    Assert.assertEquals(7, root.getRowCount());
+    Assert.assertEquals(name(16), root.getVector("name").getObject(6).toString());
+    Assert.assertTrue(split.reachedEnd());
+    split.close();
+  }
+
+  @Test
+  public void testProjection() throws IOException {
+    File file = writeFile(folder.newFile("projected.arrow"), 0, 10, 20, 5);
+    ArrowInputSplit split = wholeFile(file, "score", "id");
+    split.open(allocator);
+    int id = 0;
+    while (!split.reachedEnd()) {
+      VectorSchemaRoot root = split.nextRecord(null);
+      Assert.assertEquals(Arrays.asList(SCHEMA.findField("score"), SCHEMA.findField("id")),
+          root.getSchema().getFields());
+      IntVector ids = (IntVector) root.getVector("id");
+      Float8Vector scores = (Float8Vector) root.getVector("score");
+      for (int i = 0; i < root.getRowCount(); i++, id++) {
+        Assert.assertEquals(id, ids.get(i));
+        if (id % 5 == 0) {
+          Assert.assertTrue(scores.isNull(i));
+        } else {
+          Assert.assertEquals(id * 0.5, scores.get(i), 0.0);
+        }
+      }
+    }
+    Assert.assertEquals(35, id);
+    split.close();
+  }
+
+  @Test
+  public void testNestedProjection() throws IOException {
+    File file = writeFile(folder.newFile("nested.arrow"), 0, 12, 9);
+    // the projected columns are after a nested column and skip columns in between
+    ArrowInputSplit split = wholeFile(file, "score", "tags");
+    split.open(allocator);
+    int id = 0;
+    while (!split.reachedEnd()) {
+      VectorSchemaRoot root = split.nextRecord(null);
+      ListVector tags = (ListVector) root.getVector("tags");
+      Float8Vector scores = (Float8Vector) root.getVector("score");
+      for (int i = 0; i < root.getRowCount(); i++, id++) {
+        List<Integer> expected = new ArrayList<>();
+        for (int t = 0; t < id % 3; t++) {
+          expected.add(id + t);
+        }
+        Assert.assertEquals(expected, tags.getObject(i));
+        Assert.assertEquals(id % 5 == 0, scores.isNull(i));
+      }
+    }
+    Assert.assertEquals(21, id);
+    split.close();
+
+    split = wholeFile(file, "name");
+    split.open(allocator);
+    split.nextRecord(null);
+    VectorSchemaRoot root = split.nextRecord(null);
+    Assert.assertEquals(name(20), root.getVector("name").getObject(8).toString());
+    split.close();
+  }
+
+  @Test
+  public void testUnprojectedColumnsAreNotRead() throws IOException {
+    int rows = 1000;
+    File file = writeFile(folder.newFile("large.arrow"), 0, rows);
+    // the names take more than NAME_LENGTH bytes a row, the batch can not be loaded with
+    // this limit if they are read
+    BufferAllocator limited = allocator.newChildAllocator("split", 0, rows * NAME_LENGTH / 10);
+    ArrowInputSplit split = wholeFile(file, "id");
+    split.open(limited);
+    VectorSchemaRoot root = split.nextRecord(null);
+    Assert.assertEquals(rows, root.getRowCount());
+    Assert.assertEquals(rows - 1, ((IntVector) root.getVector("id")).get(rows - 1));
+    split.close();
+    Assert.assertEquals(0, limited.getAllocatedMemory());
+    limited.close();
+  }
+
+  @Test(expected = IOException.class)
+  public void testMissingColumn() throws IOException {
+    File file = writeFile(folder.newFile("missing.arrow"), 0, 3);
+    ArrowInputSplit split = wholeFile(file, "id", "age");
+    try {
+      split.open(allocator);
+    } finally {
+      split.close();
+    }
+  }
+
+  @Test
+  public void testSplitBoundaries() throws IOException {
+    File file = writeFile(folder.newFile("batches.arrow"), 0, 10, 30, 5, 5, 40, 10, 20, 10);
+    ArrowInputPartitioner partitioner = new ArrowInputPartitioner(
+        new Path(file.getPath()), 3, null, "id");
+    ArrowInputSplit[] splits = partitioner.createInputSplits(3);
+    Assert.assertEquals(3, splits.length);
+
+    List<Integer> ids = new ArrayList<>();
+    for (int i = 0; i < splits.length; i++) {
+      if (i > 0) {
+        Assert.assertEquals(splits[i - 1].getStart() + splits[i - 1].getLength(),
+            splits[i].getStart());
+      }
+      List<Integer> splitIds = readIds(splits[i]);
+      Assert.assertFalse(splitIds.isEmpty());
+      ids.addAll(splitIds);
+    }
+    Assert.assertEquals(range(0, 130), ids);
+  }
+
+  @Test
+  public void testMoreSplitsThanBatches() throws IOException {
+    File file = writeFile(folder.newFile("few.arrow"), 0, 4, 4, 4);
+    ArrowInputSplit[] splits = new ArrowInputPartitioner(new Path(file.getPath()), 8, null)
+        .createInputSplits(8);
+    Assert.assertEquals(3, splits.length);
+    List<Integer> ids = new ArrayList<>();
+    for (ArrowInputSplit split : splits) {
+      ids.addAll(readIds(split));
+    }
+    Assert.assertEquals(range(0, 12), ids);
+  }
+
+  @Test
+  public void testSplitsDoNotCrossFiles() throws IOException {
+    File dir = folder.newFolder("dir");
+    writeFile(new File(dir, "a.arrow"), 0, 10, 10, 10);
+    writeFile(new File(dir, "b.arrow"), 30, 5);
+    writeFile(new File(dir, "_ignored.arrow"), 100, 10);
+    ArrowInputSplit[] splits = new ArrowInputPartitioner(new Path(dir.getPath()), 2, null, "id")
+        .createInputSplits(2);
+
+    List<Integer> ids = new ArrayList<>();
+    for (ArrowInputSplit split : splits) {
+      List<Integer> splitIds = readIds(split);
+      boolean inA = split.getPath().getName().equals("a.arrow");
+      for (int id : splitIds) {
+        Assert.assertEquals(inA, id < 30);
+      }
+      ids.addAll(splitIds);
+    }
+    Assert.assertEquals(range(0, 35), ids);
+  }
+
+  @Test
+  public void testEmptySplit() throws IOException {
+    File file = writeFile(folder.newFile("empty.arrow"), 0, 4, 4);
+    ArrowInputSplit split = new ArrowInputSplit(0, new Path(file.getPath()), 5, 2, 0, 0,
+        new String[]{"id"}, new String[]{"localhost"});
+    Assert.assertTrue(readIds(split).isEmpty());
+  }
+}
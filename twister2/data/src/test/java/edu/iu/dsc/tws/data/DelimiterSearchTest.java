@@ -0,0 +1,112 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.data;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import edu.iu.dsc.tws.data.utils.DelimiterSearch;
+
+public class DelimiterSearchTest {
+
+  private static int naiveIndexOf(ByteBuffer buffer, int from, int to, byte value) {
+    for (int i = from; i < to; i++) {
+      if (buffer.get(i) == value) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Bytes that differ from the value in a single bit or by one, and the bytes with all or no
+   * bits set, which would break a search that has false positives
+   */
+  private static byte[] neighbours(byte value) {
+    return new byte[]{(byte) (value ^ 0x80), (byte) (value ^ 0x01), (byte) (value + 1),
+        (byte) (value - 1), 0, (byte) 0xFF};
+  }
+
+  private static void checkAllRanges(ByteBuffer buffer, int size, byte value) {
+    for (int from = 0; from <= size; from++) {
+      for (int to = from; to <= size; to++) {
+        Assert.assertEquals("Range [" + from + "," + to + ") of " + size,
+            naiveIndexOf(buffer, from, to, value),
+            DelimiterSearch.indexOf(buffer, from, to, value));
+      }
+    }
+  }
+
+  @Test
+  public void testEveryPositionAndRange() {
+    for (ByteOrder order : new ByteOrder[]{ByteOrder.LITTLE_ENDIAN, ByteOrder.BIG_ENDIAN}) {
+      for (byte value : new byte[]{',', '\n', 0, (byte) 0x80, (byte) 0xFF}) {
+        checkSizes(order, value);
+      }
+    }
+  }
+
+  private static void checkSizes(ByteOrder order, byte value) {
+    byte[] fill = neighbours(value);
+    for (int size = 0; size <= 20; size++) {
+      ByteBuffer buffer = ByteBuffer.allocateDirect(size).order(order);
+      for (int i = 0; i < size; i++) {
+        buffer.put(i, fill[i % fill.length]);
+      }
+      checkAllRanges(buffer, size, value);
+
+      // a single occurrence at each word and tail position
+      for (int at = 0; at < size; at++) {
+        buffer.put(at, value);
+        checkAllRanges(buffer, size, value);
+        buffer.put(at, fill[at % fill.length]);
+      }
+    }
+  }
+
+  @Test
+  public void testRandomContent() {
+    Random random = new Random(11);
+    for (int round = 0; round < 200; round++) {
+      int size = random.nextInt(100);
+      byte value = (byte) random.nextInt(256);
+      byte[] alphabet = neighbours(value);
+      byte[] bytes = new byte[size];
+      for (int i = 0; i < size; i++) {
+        bytes[i] = random.nextInt(10) == 0 ? value : alphabet[random.nextInt(alphabet.length)];
+      }
+      ByteBuffer heap = ByteBuffer.wrap(bytes);
+      ByteBuffer direct = ByteBuffer.allocateDirect(size).order(ByteOrder.LITTLE_ENDIAN);
+      direct.put(bytes).flip();
+      for (int r = 0; r < 20; r++) {
+        int from = size == 0 ? 0 : random.nextInt(size);
+        int to = from + random.nextInt(size - from + 1);
+        int expected = naiveIndexOf(heap, from, to, value);
+        Assert.assertEquals(expected, DelimiterSearch.indexOf(heap, from, to, value));
+        Assert.assertEquals(expected, DelimiterSearch.indexOf(direct, from, to, value));
+      }
+    }
+  }
+
+  @Test
+  public void testPositionNotUsed() {
+    ByteBuffer buffer = ByteBuffer.wrap("abc,def,ghi,jkl".getBytes());
+    buffer.position(6);
+    Assert.assertEquals(3, DelimiterSearch.indexOf(buffer, 0, 15, (byte) ','));
+    Assert.assertEquals(11, DelimiterSearch.indexOf(buffer, 8, 15, (byte) ','));
+    Assert.assertEquals(6, buffer.position());
+  }
+}
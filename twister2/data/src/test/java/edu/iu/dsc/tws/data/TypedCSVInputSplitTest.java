@@ -0,0 +1,339 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.types.FloatingPointPrecision;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.api.data.Path;
+import edu.iu.dsc.tws.data.api.formatters.TypedCSVInputPartitioner;
+import edu.iu.dsc.tws.data.api.splits.TypedCSVInputSplit;
+
+public class TypedCSVInputSplitTest {
+  private static final Schema ROW_SCHEMA = new Schema(Arrays.asList(
+      Field.nullable("id", new ArrowType.Int(32, true)),
+      Field.nullable("name", ArrowType.Utf8.INSTANCE),
+      Field.nullable("score", new ArrowType.FloatingPoint(FloatingPointPrecision.DOUBLE))));
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private BufferAllocator allocator;
+
+  @Before
+  public void setUp() {
+    allocator = new RootAllocator(Long.MAX_VALUE);
+  }
+
+  @After
+  public void tearDown() {
+    allocator.close();
+  }
+
+  private File writeFile(String content) throws IOException {
+    File file = folder.newFile();
+    Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    return file;
+  }
+
+  private static Schema schema(ArrowType type) {
+    return new Schema(Arrays.asList(Field.nullable("value", type)));
+  }
+
+  /**
+   * Read the rows of a split, each row is a list of the values of its fields
+   */
+  private List<List<Object>> read(TypedCSVInputSplit split) throws IOException {
+    List<List<Object>> rows = new ArrayList<>();
+    split.open(allocator);
+    try {
+      while (!split.reachedEnd()) {
+        VectorSchemaRoot root = split.nextRecord(null);
+        for (int i = 0; i < root.getRowCount(); i++) {
+          List<Object> row = new ArrayList<>();
+          for (FieldVector vector : root.getFieldVectors()) {
+            Object value = vector.getObject(i);
+            row.add(value == null || value instanceof Number ? value : value.toString());
+          }
+          rows.add(row);
+        }
+      }
+      Assert.assertNull(split.nextRecord(null));
+    } finally {
+      split.close();
+    }
+    return rows;
+  }
+
+  private List<List<Object>> read(File file, Schema schema, long start, long length,
+                                  int bufferSize) throws IOException {
+    TypedCSVInputSplit split = new TypedCSVInputSplit(0, new Path(file.getPath()), start,
+        length, schema, new String[]{"localhost"});
+    split.setBatchRows(3);
+    split.setBufferSize(bufferSize);
+    return read(split);
+  }
+
+  private List<List<Object>> readAll(File file, Schema schema) throws IOException {
+    return read(file, schema, 0, file.length(), 1024);
+  }
+
+  private static List<Object> row(Object... values) {
+    return Arrays.asList(values);
+  }
+
+  private static String rowsText(int count, String lineDelimiter) {
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < count; i++) {
+      // lines of different lengths so that the cuts fall at every offset of a line
+      text.append(i).append(',').append(name(i)).append(',').append(i * 0.5)
+          .append(lineDelimiter);
+    }
+    return text.toString();
+  }
+
+  private static String name(int i) {
+    char[] chars = new char[i % 7];
+    Arrays.fill(chars, (char) ('a' + i));
+    return "n" + new String(chars);
+  }
+
+  private static List<List<Object>> expectedRows(int count) {
+    List<List<Object>> rows = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      rows.add(row(i, name(i), i * 0.5));
+    }
+    return rows;
+  }
+
+  private void checkEveryCut(String text, int bufferSize) throws IOException {
+    File file = writeFile(text);
+    List<List<Object>> expected = expectedRows(10);
+    for (long cut = 0; cut <= file.length(); cut++) {
+      List<List<Object>> rows = new ArrayList<>();
+      rows.addAll(read(file, ROW_SCHEMA, 0, cut, bufferSize));
+      rows.addAll(read(file, ROW_SCHEMA, cut, file.length() - cut, bufferSize));
+      Assert.assertEquals("Cut at " + cut, expected, rows);
+    }
+  }
+
+  @Test
+  public void testEverySplitBoundary() throws IOException {
+    checkEveryCut(rowsText(10, "\n"), 1024);
+  }
+
+  @Test
+  public void testEverySplitBoundaryWithCarriageReturns() throws IOException {
+    checkEveryCut(rowsText(10, "\r\n"), 1024);
+  }
+
+  @Test
+  public void testLinesLongerThanTheBuffer() throws IOException {
+    checkEveryCut(rowsText(10, "\r\n"), 8);
+  }
+
+  @Test
+  public void testLastLineWithoutDelimiter() throws IOException {
+    String text = rowsText(10, "\n");
+    checkEveryCut(text.substring(0, text.length() - 1), 16);
+  }
+
+  @Test
+  public void testPartitionerSplits() throws IOException {
+    File dir = folder.newFolder();
+    Files.write(new File(dir, "a.csv").toPath(),
+        rowsText(50, "\n").getBytes(StandardCharsets.UTF_8));
+    Files.write(new File(dir, "b.csv").toPath(),
+        rowsText(50, "\r\n").getBytes(StandardCharsets.UTF_8));
+    Files.write(new File(dir, "_ignored.csv").toPath(),
+        "not,a,row\n".getBytes(StandardCharsets.UTF_8));
+
+    List<List<Object>> expected = new ArrayList<>(expectedRows(50));
+    expected.addAll(expectedRows(50));
+    for (int splits = 1; splits <= 9; splits++) {
+      TypedCSVInputSplit[] inputSplits = new TypedCSVInputPartitioner(
+          new Path(dir.getPath()), splits, ROW_SCHEMA, Config.newBuilder().build())
+          .batchRows(7).createInputSplits(splits);
+      Assert.assertTrue(inputSplits.length >= splits);
+      List<List<Object>> rows = new ArrayList<>();
+      for (TypedCSVInputSplit split : inputSplits) {
+        rows.addAll(read(split));
+      }
+      Assert.assertEquals("Splits " + splits, expected, rows);
+    }
+  }
+
+  @Test
+  public void testHeaderIsSkippedOnce() throws IOException {
+    File file = writeFile("id;name;score\n" + rowsText(20, "\n").replace(',', ';'));
+    for (int splits = 1; splits <= 5; splits++) {
+      TypedCSVInputSplit[] inputSplits = new TypedCSVInputPartitioner(
+          new Path(file.getPath()), splits, ROW_SCHEMA, Config.newBuilder().build())
+          .fieldDelimiter(';').ignoreFirstLine().createInputSplits(splits);
+      List<List<Object>> rows = new ArrayList<>();
+      for (TypedCSVInputSplit split : inputSplits) {
+        rows.addAll(read(split));
+      }
+      Assert.assertEquals("Splits " + splits, expectedRows(20), rows);
+    }
+  }
+
+  @Test
+  public void testQuotedFields() throws IOException {
+    File file = writeFile("1,\"a, \"\"b\"\"\",2.5\n"
+        + "\"42\",\"\",\" 3.25 \"\n"
+        + "\"\",plain,\"\"\n"
+        + "7,\"x\"  ,1\n");
+    Assert.assertEquals(Arrays.asList(
+        row(1, "a, \"b\"", 2.5),
+        row(42, "", 3.25),
+        row(null, "plain", null),
+        row(7, "x", 1.0)), readAll(file, ROW_SCHEMA));
+  }
+
+  @Test(expected = IOException.class)
+  public void testUnterminatedQuote() throws IOException {
+    readAll(writeFile("1,\"abc,2.0\n"), ROW_SCHEMA);
+  }
+
+  @Test
+  public void testShortLinesAndEmptyFields() throws IOException {
+    File file = writeFile("1\n2,\n3,x\n\n4,,\n,,5\n");
+    Assert.assertEquals(Arrays.asList(
+        row(1, null, null),
+        row(2, null, null),
+        row(3, "x", null),
+        row(4, null, null),
+        row(null, null, 5.0)), readAll(file, ROW_SCHEMA));
+  }
+
+  @Test
+  public void testLongs() throws IOException {
+    File file = writeFile("9223372036854775807\n-9223372036854775808\n+5\n  -12  \n0\n");
+    List<List<Object>> rows = readAll(file, schema(new ArrowType.Int(64, true)));
+    Assert.assertEquals(Arrays.asList(row(Long.MAX_VALUE), row(Long.MIN_VALUE), row(5L),
+        row(-12L), row(0L)), rows);
+  }
+
+  @Test
+  public void testIntegerLimits() throws IOException {
+    Assert.assertEquals(Arrays.asList(row(Integer.MAX_VALUE), row(Integer.MIN_VALUE)),
+        readAll(writeFile("2147483647\n-2147483648\n"), schema(new ArrowType.Int(32, true))));
+    Assert.assertEquals(Arrays.asList(row(Short.MAX_VALUE), row(Short.MIN_VALUE)),
+        readAll(writeFile("32767\n-32768\n"), schema(new ArrowType.Int(16, true))));
+  }
+
+  private void checkInvalid(String value, ArrowType type) throws IOException {
+    File file = writeFile(value + "\n");
+    try {
+      readAll(file, schema(type));
+      Assert.fail("Expected an error for " + value);
+    } catch (IOException e) {
+      Assert.assertTrue(e.getMessage(), e.getMessage().contains(value));
+    }
+  }
+
+  @Test
+  public void testOutOfRangeAndInvalidIntegers() throws IOException {
+    checkInvalid("9223372036854775808", new ArrowType.Int(64, true));
+    checkInvalid("-9223372036854775809", new ArrowType.Int(64, true));
+    checkInvalid("99999999999999999999", new ArrowType.Int(64, true));
+    checkInvalid("2147483648", new ArrowType.Int(32, true));
+    checkInvalid("-32769", new ArrowType.Int(16, true));
+    checkInvalid("12a", new ArrowType.Int(32, true));
+    checkInvalid("-", new ArrowType.Int(32, true));
+    checkInvalid("1.5x", new ArrowType.FloatingPoint(FloatingPointPrecision.DOUBLE));
+  }
+
+  /**
+   * Values of the exact branch, and values that fall back to the jdk parser for the exponent,
+   * a mantissa that is not exact, a scale larger than the exact powers of ten, or no digits
+   */
+  private static final String[] DECIMALS = {"0", "-0", "1", "-1", "+2.5", "123.456",
+      "0.1", "0.3", ".5", "5.", "-0.000001", "3.14159265358979", "9007199254740991",
+      "9007199254740993", "12345678901234567890", "0.12345678901234567",
+      "0.0000000000000000000001", "0.00000000000000000000001234", "1e10", "1.5E-3", "-2e+5",
+      "16777216", "16777217", "0.00000000001", "123456.7", "Infinity", "-Infinity", "NaN",
+      "1.7976931348623157E308", "4.9E-324"};
+
+  @Test
+  public void testDoubles() throws IOException {
+    List<List<Object>> rows = readAll(writeFile(String.join("\n", DECIMALS)),
+        schema(new ArrowType.FloatingPoint(FloatingPointPrecision.DOUBLE)));
+    Assert.assertEquals(DECIMALS.length, rows.size());
+    for (int i = 0; i < DECIMALS.length; i++) {
+      Assert.assertEquals(DECIMALS[i], Double.parseDouble(DECIMALS[i]),
+          (Double) rows.get(i).get(0), 0);
+    }
+  }
+
+  @Test
+  public void testFloats() throws IOException {
+    List<List<Object>> rows = readAll(writeFile(String.join("\n", DECIMALS)),
+        schema(new ArrowType.FloatingPoint(FloatingPointPrecision.SINGLE)));
+    Assert.assertEquals(DECIMALS.length, rows.size());
+    for (int i = 0; i < DECIMALS.length; i++) {
+      Assert.assertEquals(DECIMALS[i], Float.parseFloat(DECIMALS[i]),
+          (Float) rows.get(i).get(0), 0);
+    }
+  }
+
+  @Test
+  public void testRandomDecimalsAreCorrectlyRounded() throws IOException {
+    Random random = new Random(5);
+    String[] values = new String[2000];
+    for (int i = 0; i < values.length; i++) {
+      long mantissa = random.nextLong() % (1L << (1 + random.nextInt(54)));
+      StringBuilder text = new StringBuilder(Long.toString(Math.abs(mantissa)));
+      int scale = random.nextInt(Math.min(text.length() + 3, 25));
+      while (text.length() <= scale) {
+        text.insert(0, '0');
+      }
+      text.insert(text.length() - scale, '.');
+      values[i] = (mantissa < 0 ? "-" : "") + text;
+    }
+
+    File file = writeFile(String.join("\n", values));
+    List<List<Object>> doubles = readAll(file,
+        schema(new ArrowType.FloatingPoint(FloatingPointPrecision.DOUBLE)));
+    List<List<Object>> floats = readAll(file,
+        schema(new ArrowType.FloatingPoint(FloatingPointPrecision.SINGLE)));
+    for (int i = 0; i < values.length; i++) {
+      Assert.assertEquals(values[i], Double.parseDouble(values[i]),
+          (Double) doubles.get(i).get(0), 0);
+      Assert.assertEquals(values[i], Float.parseFloat(values[i]),
+          (Float) floats.get(i).get(0), 0);
+    }
+  }
+}
@@ -56,6 +56,7 @@ import edu.iu.dsc.tws.api.dataset.DataObject;
 import edu.iu.dsc.tws.api.dataset.DataPartition;
 import edu.iu.dsc.tws.api.resource.Twister2Worker;
 import edu.iu.dsc.tws.api.resource.WorkerEnvironment;
+import edu.iu.dsc.tws.comms.utils.ByteArrayComparator;
 import edu.iu.dsc.tws.dataset.partition.EntityPartition;
 import edu.iu.dsc.tws.examples.utils.bench.BenchmarkConstants;
 import edu.iu.dsc.tws.examples.utils.bench.BenchmarkResultsRecorder;
@@ -218,33 +219,6 @@ public class TeraSort implements Twister2Worker {
     LOG.info("Finished Sorting...");
   }
 
-  /**
-   * Extracted from hbase source code
-   */
-  public static final class ByteArrayComparator implements Comparator<byte[]> {
-
-    private static final ByteArrayComparator INSTANCE = new ByteArrayComparator();
-
-    private ByteArrayComparator() {
-    }
-
-    public static ByteArrayComparator getInstance() {
-      return INSTANCE;
-    }
-
-    @Override
-    public int compare(byte[] left, byte[] right) {
-      for (int i = 0, j = 0; i < left.length && j < right.length; i++, j++) {
-        int a = left[i] & 0xff;
-        int b = right[j] & 0xff;
-        if (a != b) {
-          return a - b;
-        }
-      }
-      return left.length - right.length;
-    }
-  }
-
   public static class SamplerReduce extends AllReduceCompute<byte[]> implements Collector {
 
     private DataPartition<byte[]> minMax;
@@ -367,7 +341,7 @@ public class TeraSort implements Twister2Worker {
         Tuple<byte[], byte[]> nextTuple = content.next();
         if (verify
             && previousKey != null
-            && ByteArrayComparator.INSTANCE.compare(previousKey, nextTuple.getKey()) > 0) {
+            && ByteArrayComparator.getInstance().compare(previousKey, nextTuple.getKey()) > 0) {
           LOG.info("Unordered tuple found");
           allOrdered = false;
         }
@@ -26,6 +26,7 @@ import edu.iu.dsc.tws.api.Twister2Job;
 import edu.iu.dsc.tws.api.config.Config;
 import edu.iu.dsc.tws.examples.Utils;
 import edu.iu.dsc.tws.examples.comms.batch.BAllGatherExample;
+import edu.iu.dsc.tws.examples.comms.batch.BAllReduceCompareExample;
 import edu.iu.dsc.tws.examples.comms.batch.BAllReduceExample;
 import edu.iu.dsc.tws.examples.comms.batch.BBroadcastExample;
 import edu.iu.dsc.tws.examples.comms.batch.BDJoinExample;
@@ -181,6 +182,10 @@ public class ExampleMain {
         case "allreduce":
           submitJob(config, workers, jobConfig, BAllReduceExample.class.getName(), memory);
           break;
+        case "allreducecompare":
+          submitJob(config, workers, jobConfig, BAllReduceCompareExample.class.getName(),
+              memory);
+          break;
         case "keyedreduce":
           submitJob(config, workers, jobConfig, BKeyedReduceExample.class.getName(), memory);
           break;
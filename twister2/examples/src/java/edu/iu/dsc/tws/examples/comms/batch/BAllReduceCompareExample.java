@@ -0,0 +1,133 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.examples.comms.batch;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import edu.iu.dsc.tws.api.comms.CommunicationContext;
+import edu.iu.dsc.tws.api.comms.Communicator;
+import edu.iu.dsc.tws.api.comms.Op;
+import edu.iu.dsc.tws.api.comms.SingularReceiver;
+import edu.iu.dsc.tws.api.comms.messaging.types.MessageTypes;
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.api.exceptions.TimeoutException;
+import edu.iu.dsc.tws.api.resource.Twister2Worker;
+import edu.iu.dsc.tws.api.resource.WorkerEnvironment;
+import edu.iu.dsc.tws.comms.batch.BAllReduce;
+import edu.iu.dsc.tws.comms.functions.reduction.ReduceOperationFunction;
+import edu.iu.dsc.tws.comms.utils.LogicalPlanBuilder;
+import edu.iu.dsc.tws.examples.comms.DataGenerator;
+import edu.iu.dsc.tws.examples.comms.JobParameters;
+
+/**
+ * Compares the tree allreduce with the reduce-scatter and allgather based ring allreduce
+ * for double arrays. Each iteration reduces one array from every source and waits until
+ * every target on this worker receives the result. Run it with the operation
+ * "allreducecompare", for example with 8 to 64 workers, one source and target per worker and
+ * an array size of a few million elements.
+ */
+public class BAllReduceCompareExample implements Twister2Worker {
+  private static final Logger LOG = Logger.getLogger(BAllReduceCompareExample.class.getName());
+
+  private static final String[] ALGORITHMS = {CommunicationContext.ALLREDUCE_ALGO_TREE,
+      CommunicationContext.ALLREDUCE_ALGO_RING};
+
+  private WorkerEnvironment workerEnv;
+
+  private JobParameters jobParameters;
+
+  @Override
+  public void execute(WorkerEnvironment workerEnvironment) {
+    this.workerEnv = workerEnvironment;
+    this.jobParameters = JobParameters.build(workerEnv.getConfig());
+    double[] data = DataGenerator.generateDoubleData(jobParameters.getSize());
+
+    for (String algorithm : ALGORITHMS) {
+      Communicator comm = workerEnv.getCommunicator().newWithConfig(
+          Collections.singletonMap(CommunicationContext.ALLREDUCE_ALGO_KEY, algorithm));
+      long time = run(comm, data);
+      if (workerEnv.getWorkerId() == 0) {
+        LOG.info(String.format("%s allreduce of %d doubles, %d workers, %d iterations: "
+                + "%.3f ms per iteration", algorithm, data.length,
+            workerEnv.getNumberOfWorkers(), jobParameters.getIterations(),
+            time / 1000000.0 / jobParameters.getIterations()));
+      }
+
+      try {
+        workerEnv.getWorkerController().waitOnBarrier();
+      } catch (TimeoutException timeoutException) {
+        LOG.log(Level.SEVERE, timeoutException, () -> timeoutException.getMessage());
+      }
+    }
+    workerEnv.close();
+  }
+
+  /**
+   * Run the allreduce and return the time taken for the measured iterations in nano seconds
+   */
+  private long run(Communicator comm, double[] data) {
+    LogicalPlanBuilder logicalPlanBuilder = LogicalPlanBuilder.plan(
+        jobParameters.getSources(),
+        jobParameters.getTargets(),
+        workerEnv
+    ).withFairDistribution();
+
+    BAllReduce reduce = new BAllReduce(comm, logicalPlanBuilder,
+        new ReduceOperationFunction(Op.SUM, MessageTypes.DOUBLE_ARRAY),
+        new FinalSingularReceiver(), MessageTypes.DOUBLE_ARRAY);
+    Set<Integer> sourcesOfWorker = logicalPlanBuilder.getSourcesOnThisWorker();
+
+    long start = 0;
+    for (int i = 0; i < jobParameters.getTotalIterations(); i++) {
+      if (i == jobParameters.getWarmupIterations()) {
+        start = System.nanoTime();
+      }
+
+      for (int source : sourcesOfWorker) {
+        while (!reduce.reduce(source, data, 0)) {
+          progress(reduce);
+        }
+      }
+
+      for (int source : sourcesOfWorker) {
+        reduce.finish(source);
+      }
+
+      while (!reduce.isComplete()) {
+        progress(reduce);
+      }
+      reduce.reset();
+    }
+    long time = System.nanoTime() - start;
+    reduce.close();
+    return time;
+  }
+
+  private void progress(BAllReduce reduce) {
+    workerEnv.getChannel().progress();
+    reduce.progress();
+  }
+
+  private static class FinalSingularReceiver implements SingularReceiver {
+    @Override
+    public void init(Config cfg, Set<Integer> targets) {
+    }
+
+    @Override
+    public boolean receive(int target, Object object) {
+      return true;
+    }
+  }
+}
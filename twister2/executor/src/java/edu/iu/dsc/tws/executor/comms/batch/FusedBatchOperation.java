@@ -0,0 +1,202 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.executor.comms.batch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+
+import edu.iu.dsc.tws.api.comms.BaseOperation;
+import edu.iu.dsc.tws.api.compute.IMessage;
+import edu.iu.dsc.tws.api.compute.OperationNames;
+import edu.iu.dsc.tws.api.compute.TaskMessage;
+import edu.iu.dsc.tws.api.compute.executor.IParallelOperation;
+import edu.iu.dsc.tws.api.compute.executor.ISync;
+import edu.iu.dsc.tws.api.compute.graph.Edge;
+import edu.iu.dsc.tws.comms.dfw.io.AggregatedObjects;
+
+/**
+ * A pipe or direct operation between fused instances that run in the same worker. The source
+ * and target with the same task index are connected, the objects are handed over to the queue
+ * of the target without serializing them. A direct operation collects the objects of a target
+ * and gives them as a single message when the source finishes, like {@link DirectBatchOperation}.
+ * A barrier is given to the target as a sync carrying the barrier, after the objects collected
+ * before it, the same way the communication operations deliver a barrier.
+ */
+public class FusedBatchOperation implements IParallelOperation {
+  /**
+   * The edge name
+   */
+  private String inEdge;
+
+  /**
+   * Weather this is a direct operation
+   */
+  private boolean direct;
+
+  /**
+   * Target of each source
+   */
+  private Map<Integer, Integer> sourceToTarget = new HashMap<>();
+
+  /**
+   * The queues of the targets
+   */
+  private Map<Integer, BlockingQueue<IMessage>> outMessages = new HashMap<>();
+
+  /**
+   * The sync of the targets
+   */
+  private Map<Integer, ISync> syncs = new HashMap<>();
+
+  /**
+   * The objects collected for each target of a direct operation
+   */
+  private Map<Integer, List<Object>> collected = new HashMap<>();
+
+  /**
+   * Syncs of the targets whose sources are finished or sent a barrier, but are not yet notified
+   */
+  private List<PendingSync> pendingSyncs = new ArrayList<>();
+
+  /**
+   * A sync to deliver to a target, after the objects collected before it
+   */
+  private static final class PendingSync {
+    private int target;
+
+    /**
+     * The collected objects of a direct operation, null if there are none or they are delivered
+     */
+    private List<Object> values;
+
+    /**
+     * The barrier, null if the source finished
+     */
+    private byte[] barrier;
+
+    private PendingSync(int target, List<Object> values, byte[] barrier) {
+      this.target = target;
+      this.values = values;
+      this.barrier = barrier;
+    }
+  }
+
+  public FusedBatchOperation(Set<Integer> srcs, Set<Integer> dests, Edge edge) {
+    this.inEdge = edge.getName();
+    this.direct = OperationNames.DIRECT.equals(edge.getOperation());
+
+    // we assume a uniform task id association, same as the pipe and direct operations
+    List<Integer> sources = new ArrayList<>(srcs);
+    Collections.sort(sources);
+    List<Integer> targets = new ArrayList<>(dests);
+    Collections.sort(targets);
+    if (sources.size() != targets.size()) {
+      throw new RuntimeException("Fused operation needs the same number of sources and targets: "
+          + sources + ", " + targets);
+    }
+    for (int i = 0; i < sources.size(); i++) {
+      sourceToTarget.put(sources.get(i), targets.get(i));
+    }
+  }
+
+  @Override
+  public boolean send(int source, IMessage message, int flags) {
+    int target = sourceToTarget.get(source);
+    if (direct) {
+      collected.computeIfAbsent(target, t -> new AggregatedObjects<>()).add(message.getContent());
+      return true;
+    }
+    return outMessages.get(target).offer(new TaskMessage<>(message.getContent(), inEdge, target));
+  }
+
+  @Override
+  public void register(int targetTask, BlockingQueue<IMessage> queue) {
+    if (outMessages.containsKey(targetTask)) {
+      throw new RuntimeException("Existing queue for target task");
+    }
+    outMessages.put(targetTask, queue);
+  }
+
+  @Override
+  public void registerSync(int targetTask, ISync sync) {
+    syncs.put(targetTask, sync);
+  }
+
+  @Override
+  public void finish(int source) {
+    addSync(sourceToTarget.get(source), null);
+    progress();
+  }
+
+  @Override
+  public boolean progress() {
+    Iterator<PendingSync> it = pendingSyncs.iterator();
+    while (it.hasNext()) {
+      PendingSync pendingSync = it.next();
+      int target = pendingSync.target;
+      if (pendingSync.values != null) {
+        if (!outMessages.get(target).offer(new TaskMessage<>(pendingSync.values.iterator(),
+            inEdge, target))) {
+          return true;
+        }
+        pendingSync.values = null;
+      }
+
+      if (!syncs.get(target).sync(inEdge, pendingSync.barrier)) {
+        return true;
+      }
+      it.remove();
+    }
+    return false;
+  }
+
+  @Override
+  public boolean isComplete() {
+    return !progress();
+  }
+
+  @Override
+  public boolean sendBarrier(int src, byte[] barrierId) {
+    addSync(sourceToTarget.get(src), barrierId);
+    progress();
+    return true;
+  }
+
+  /**
+   * Add a sync for the target, the objects collected so far are delivered before it
+   */
+  private void addSync(int target, byte[] barrier) {
+    pendingSyncs.add(new PendingSync(target, collected.remove(target), barrier));
+  }
+
+  @Override
+  public void close() {
+    reset();
+  }
+
+  @Override
+  public void reset() {
+    collected.clear();
+    pendingSyncs.clear();
+  }
+
+  @Override
+  public BaseOperation getOp() {
+    return null;
+  }
+}
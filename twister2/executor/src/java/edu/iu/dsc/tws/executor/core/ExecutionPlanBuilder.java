@@ -48,6 +48,8 @@ import edu.iu.dsc.tws.api.exceptions.net.BlockingSendException;
 import edu.iu.dsc.tws.checkpointing.task.CheckpointableTask;
 import edu.iu.dsc.tws.checkpointing.task.CheckpointingSGatherSink;
 import edu.iu.dsc.tws.checkpointing.util.CheckpointingContext;
+import edu.iu.dsc.tws.executor.comms.batch.FusedBatchOperation;
+import edu.iu.dsc.tws.executor.core.batch.ChainedBatchInstance;
 import edu.iu.dsc.tws.executor.core.batch.SourceBatchInstance;
 import edu.iu.dsc.tws.executor.core.batch.TaskBatchInstance;
 import edu.iu.dsc.tws.executor.core.streaming.SourceStreamingInstance;
@@ -125,6 +127,12 @@ public class ExecutionPlanBuilder implements IExecutionPlanBuilder {
 
     Set<TaskInstancePlan> instancePlan = conPlan.getTaskInstances();
 
+    // the pipe and direct edges we are going to fuse
+    Table<String, String, Edge> fusedEdges =
+        OperatorFusion.fusableEdges(cfg, taskGraph, taskSchedule);
+    // global task id of the instances by task name and task index
+    Table<String, Integer, Integer> instanceIds = HashBasedTable.create();
+
     long tasksVersion = 0L;
 
     if (CheckpointingContext.isCheckpointingEnabled(cfg)) {
@@ -228,8 +236,9 @@ public class ExecutionPlanBuilder implements IExecutionPlanBuilder {
       INodeInstance iNodeInstance = createInstances(cfg, taskGraph.getGraphName(),
           ip, v, taskGraph.getOperationMode(), inEdges, outEdges, taskSchedule, tasksVersion);
       // add to execution
-      execution.addNodes(v.getName(), taskIdGenerator.generateGlobalTaskId(
-          ip.getTaskId(), ip.getTaskIndex()), iNodeInstance);
+      int globalTaskId = taskIdGenerator.generateGlobalTaskId(ip.getTaskId(), ip.getTaskIndex());
+      execution.addNodes(v.getName(), globalTaskId, iNodeInstance);
+      instanceIds.put(v.getName(), ip.getTaskIndex(), globalTaskId);
     }
 
     // now lets create the queues and start the execution
@@ -241,7 +250,9 @@ public class ExecutionPlanBuilder implements IExecutionPlanBuilder {
 
       assert c != null;
       c.build();
-      if (c.getEdge().size() == 1) {
+      if (c.getEdge().size() == 1 && fusedEdges.contains(cell.getRowKey(), cell.getColumnKey())) {
+        op = new FusedBatchOperation(c.getSourceTasks(), c.getTargetTasks(), c.getEdge(0));
+      } else if (c.getEdge().size() == 1) {
         op = opFactory.build(c.getEdge(0), c.getSourceTasks(), c.getTargetTasks(),
             operationMode, c.srcGlobalToIndex, c.tarGlobalToIndex);
       } else if (c.getEdge().size() > 1) { // just join op for now. Could change in the future
@@ -362,9 +373,36 @@ public class ExecutionPlanBuilder implements IExecutionPlanBuilder {
         execution.addOps(op);
       }
     }
+
+    fuseInstances(execution, taskGraph, fusedEdges, instanceIds);
     return execution;
   }
 
+  /**
+   * Replace the instances connected by fused edges with a single instance for each task index
+   */
+  private void fuseInstances(ExecutionPlan execution, ComputeGraph taskGraph,
+                             Table<String, String, Edge> fusedEdges,
+                             Table<String, Integer, Integer> instanceIds) {
+    if (fusedEdges.isEmpty()) {
+      return;
+    }
+
+    for (List<String> chain : OperatorFusion.chains(taskGraph, fusedEdges)) {
+      for (Map.Entry<Integer, Integer> e : instanceIds.row(chain.get(0)).entrySet()) {
+        List<Integer> members = new ArrayList<>();
+        List<INodeInstance> instances = new ArrayList<>();
+        for (String task : chain) {
+          int globalTaskId = instanceIds.get(task, e.getKey());
+          members.add(globalTaskId);
+          instances.add(execution.getAllNodes().get(globalTaskId));
+        }
+        execution.fuseNodes(e.getValue(), new ChainedBatchInstance(instances), members);
+      }
+      LOG.fine(() -> "Fused tasks " + chain + " of worker " + workerId);
+    }
+  }
+
   private void createCommunication(Vertex node, Edge e, Vertex parent,
                                    Set<Integer> srcTasks, Set<Integer> tarTasks,
                                    Map<Integer, Integer> srcGlobalToIndex,
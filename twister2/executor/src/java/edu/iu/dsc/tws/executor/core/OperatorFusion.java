@@ -0,0 +1,150 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.executor.core;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.Table;
+
+import edu.iu.dsc.tws.api.comms.CommunicationContext;
+import edu.iu.dsc.tws.api.compute.OperationNames;
+import edu.iu.dsc.tws.api.compute.executor.ExecutorContext;
+import edu.iu.dsc.tws.api.compute.graph.ComputeGraph;
+import edu.iu.dsc.tws.api.compute.graph.Edge;
+import edu.iu.dsc.tws.api.compute.graph.OperationMode;
+import edu.iu.dsc.tws.api.compute.graph.Vertex;
+import edu.iu.dsc.tws.api.compute.schedule.elements.TaskInstancePlan;
+import edu.iu.dsc.tws.api.compute.schedule.elements.TaskSchedulePlan;
+import edu.iu.dsc.tws.api.compute.schedule.elements.WorkerSchedulePlan;
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.checkpointing.util.CheckpointingContext;
+
+/**
+ * Finds the pipe and direct edges of a batch graph that can be fused. An edge is fused if the
+ * two tasks have the same parallelism, the target has no other input and every instance of the
+ * source task runs in the same worker as the target instance with the same index. The decision
+ * only depends on the graph and the schedule, so all the workers fuse the same edges.
+ */
+final class OperatorFusion {
+  private OperatorFusion() {
+  }
+
+  /**
+   * Find the edges to fuse
+   *
+   * @param cfg configuration
+   * @param graph the graph
+   * @param schedule the schedule of the graph
+   * @return the edges to fuse, by the source task name and edge name
+   */
+  static Table<String, String, Edge> fusableEdges(Config cfg, ComputeGraph graph,
+                                                  TaskSchedulePlan schedule) {
+    Table<String, String, Edge> fused = HashBasedTable.create();
+    if (!ExecutorContext.fuseOperators(cfg)
+        || graph.getOperationMode() != OperationMode.BATCH
+        || CheckpointingContext.isCheckpointingEnabled(cfg)) {
+      return fused;
+    }
+
+    for (Vertex v : graph.getTaskVertexSet()) {
+      for (Edge e : graph.outEdges(v)) {
+        if (isFusable(graph, schedule, v, e)) {
+          fused.put(v.getName(), e.getName(), e);
+        }
+      }
+    }
+    return fused;
+  }
+
+  private static boolean isFusable(ComputeGraph graph, TaskSchedulePlan schedule,
+                                   Vertex parent, Edge e) {
+    if (!OperationNames.PIPE.equals(e.getOperation())
+        && !OperationNames.DIRECT.equals(e.getOperation())) {
+      return false;
+    }
+
+    Object useDisk = e.getProperty(CommunicationContext.USE_DISK);
+    if (e.getTargetEdge() != null || (useDisk != null && (Boolean) useDisk)) {
+      return false;
+    }
+
+    Vertex child = graph.childOfTask(parent, e.getName());
+    if (child == null || child.getParallelism() != parent.getParallelism()
+        || graph.inEdges(child).size() != 1) {
+      return false;
+    }
+
+    for (WorkerSchedulePlan worker : schedule.getContainers()) {
+      if (!taskIndexes(worker, parent.getName()).equals(taskIndexes(worker, child.getName()))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static Set<Integer> taskIndexes(WorkerSchedulePlan worker, String taskName) {
+    Set<Integer> indexes = new HashSet<>();
+    for (TaskInstancePlan ip : worker.getTaskInstances()) {
+      if (taskName.equals(ip.getTaskName())) {
+        indexes.add(ip.getTaskIndex());
+      }
+    }
+    return indexes;
+  }
+
+  /**
+   * Group the tasks connected by fused edges in to chains. A task comes after the task it
+   * receives from in a chain.
+   *
+   * @param graph the graph
+   * @param fused the fused edges
+   * @return the task names of each chain
+   */
+  static List<List<String>> chains(ComputeGraph graph, Table<String, String, Edge> fused) {
+    Set<String> fusedTargets = new HashSet<>();
+    for (Table.Cell<String, String, Edge> cell : fused.cellSet()) {
+      fusedTargets.add(graph.childOfTask(graph.vertex(cell.getRowKey()),
+          cell.getColumnKey()).getName());
+    }
+
+    List<List<String>> chains = new ArrayList<>();
+    for (String root : fused.rowKeySet()) {
+      // a chain starts from a task that is not a target of a fused edge
+      if (fusedTargets.contains(root)) {
+        continue;
+      }
+
+      List<String> chain = new ArrayList<>();
+      Deque<String> next = new ArrayDeque<>();
+      next.add(root);
+      while (!next.isEmpty()) {
+        String task = next.poll();
+        chain.add(task);
+        // sort the children so that every worker has the same order
+        Map<String, Edge> edges = new TreeMap<>(fused.row(task));
+        for (String edge : edges.keySet()) {
+          next.add(graph.childOfTask(graph.vertex(task), edge).getName());
+        }
+      }
+      chains.add(chain);
+    }
+    return chains;
+  }
+}
@@ -20,6 +20,7 @@ import edu.iu.dsc.tws.api.checkpointing.StateStore;
 import edu.iu.dsc.tws.checkpointing.api.SnapshotImpl;
 import edu.iu.dsc.tws.checkpointing.task.CheckpointableTask;
 import edu.iu.dsc.tws.checkpointing.util.CheckpointUtils;
+import edu.iu.dsc.tws.checkpointing.util.SnapshotWriter;
 
 public final class TaskCheckpointUtils {
 
@@ -46,10 +47,15 @@ public final class TaskCheckpointUtils {
     }
   }
 
+  /**
+   * Take the snapshot of the task and give it to the writer. The snapshot may be written
+   * to the store after this returns, {@link #pollPersisted(CheckpointableTask, SnapshotImpl,
+   * SnapshotWriter, int)} returns the version once it is written.
+   */
   public static void checkpoint(long checkpointID,
                                 CheckpointableTask checkpointableTask,
                                 SnapshotImpl snapshot,
-                                StateStore stateStore,
+                                SnapshotWriter snapshotWriter,
                                 String family,
                                 int globalTaskId,
                                 CheckpointingClient checkpointingClient) {
@@ -60,9 +66,27 @@ public final class TaskCheckpointUtils {
       //update the new version
       snapshot.setVersion(checkpointID);
 
-      CheckpointUtils.saveState(stateStore, snapshot);
+      snapshotWriter.write(snapshot);
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to write checkpoint of " + globalTaskId, e);
+    }
+  }
 
-      checkpointableTask.onSnapshotPersisted(snapshot);
+  /**
+   * Check weather a snapshot given to the writer is written to the store
+   *
+   * @return the written version or -1 if no new version is written
+   */
+  public static long pollPersisted(CheckpointableTask checkpointableTask,
+                                   SnapshotImpl snapshot,
+                                   SnapshotWriter snapshotWriter,
+                                   int globalTaskId) {
+    try {
+      long version = snapshotWriter.pollPersisted();
+      if (version != -1) {
+        checkpointableTask.onSnapshotPersisted(snapshot);
+      }
+      return version;
     } catch (IOException e) {
       throw new RuntimeException("Failed to write checkpoint of " + globalTaskId, e);
     }
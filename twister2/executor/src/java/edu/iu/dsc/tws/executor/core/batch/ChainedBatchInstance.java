@@ -0,0 +1,119 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.executor.core.batch;
+
+import java.util.List;
+
+import edu.iu.dsc.tws.api.compute.executor.INodeInstance;
+import edu.iu.dsc.tws.api.compute.nodes.INode;
+import edu.iu.dsc.tws.api.config.Config;
+
+/**
+ * A set of instances connected with fused operations, executed as a single instance. The
+ * instances are executed in the order of the chain in every turn, so the objects an instance
+ * outputs are processed by the next instance in the same turn.
+ */
+public class ChainedBatchInstance implements INodeInstance {
+  /**
+   * The instances, an instance comes after the instance it receives from
+   */
+  private INodeInstance[] chain;
+
+  /**
+   * Weather an instance is finished
+   */
+  private boolean[] finished;
+
+  public ChainedBatchInstance(List<INodeInstance> instances) {
+    this.chain = instances.toArray(new INodeInstance[0]);
+    this.finished = new boolean[chain.length];
+  }
+
+  @Override
+  public int getId() {
+    return chain[0].getId();
+  }
+
+  @Override
+  public int getIndex() {
+    return chain[0].getIndex();
+  }
+
+  @Override
+  public boolean execute() {
+    boolean needsFurther = false;
+    for (int i = 0; i < chain.length; i++) {
+      if (!finished[i]) {
+        finished[i] = !chain[i].execute();
+        needsFurther |= !finished[i];
+      }
+    }
+    return needsFurther;
+  }
+
+  @Override
+  public boolean isIdle() {
+    for (int i = 0; i < chain.length; i++) {
+      if (!finished[i] && !chain[i].isIdle()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void prepare(Config cfg) {
+    for (INodeInstance instance : chain) {
+      instance.prepare(cfg);
+    }
+  }
+
+  @Override
+  public void reset() {
+    for (int i = 0; i < chain.length; i++) {
+      chain[i].reset();
+      finished[i] = false;
+    }
+  }
+
+  @Override
+  public boolean isComplete() {
+    boolean complete = true;
+    for (INodeInstance instance : chain) {
+      if (!instance.isComplete()) {
+        complete = false;
+      }
+    }
+    return complete;
+  }
+
+  @Override
+  public INode getNode() {
+    return chain[0].getNode();
+  }
+
+  @Override
+  public void close() {
+    for (INodeInstance instance : chain) {
+      instance.close();
+    }
+  }
+
+  /**
+   * The instances of this chain
+   *
+   * @return the instances
+   */
+  public INodeInstance[] getChain() {
+    return chain;
+  }
+}
@@ -14,6 +14,7 @@ package edu.iu.dsc.tws.executor.core.batch;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Logger;
 
 import edu.iu.dsc.tws.api.checkpointing.CheckpointingClient;
@@ -27,6 +28,7 @@ import edu.iu.dsc.tws.api.compute.graph.OperationMode;
 import edu.iu.dsc.tws.api.compute.modifiers.Closable;
 import edu.iu.dsc.tws.api.compute.nodes.INode;
 import edu.iu.dsc.tws.api.compute.nodes.ISource;
+import edu.iu.dsc.tws.api.compute.schedule.ExecutionStatistics;
 import edu.iu.dsc.tws.api.compute.schedule.elements.TaskSchedulePlan;
 import edu.iu.dsc.tws.api.config.Config;
 import edu.iu.dsc.tws.executor.core.DefaultOutputCollection;
@@ -135,6 +137,28 @@ public class SourceBatchInstance implements INodeInstance, ISync {
    */
   private String[] outEdgeArray;
 
+  /**
+   * Weather the last execution did any work
+   */
+  private boolean progressed = true;
+
+  /**
+   * Name of the graph this instance belongs to
+   */
+  private String taskGraphName;
+
+  /**
+   * Number of messages sent through each out edge, used by the task schedulers, null if the
+   * executions of the graph are not measured
+   */
+  private Map<String, LongAdder> sentMessages;
+
+  /**
+   * Nano seconds spent executing the task, used by the task schedulers, null if the executions
+   * of the graph are not measured
+   */
+  private LongAdder busyTime;
+
   public SourceBatchInstance(ISource task, BlockingQueue<IMessage> outQueue,
                              Config config, String tName, int taskId,
                              int globalTaskId, int tIndex, int parallel,
@@ -156,6 +180,7 @@ public class SourceBatchInstance implements INodeInstance, ISync {
     this.lowWaterMark = ExecutorContext.instanceQueueLowWaterMark(config);
     this.highWaterMark = ExecutorContext.instanceQueueHighWaterMark(config);
     this.taskSchedule = taskSchedule;
+    this.taskGraphName = taskGraphName;
   }
 
   public void prepare(Config cfg) {
@@ -172,6 +197,14 @@ public class SourceBatchInstance implements INodeInstance, ISync {
     for (Map.Entry<String, IParallelOperation> e : outBatchParOps.entrySet()) {
       this.outOpArray[index++] = e.getValue();
     }
+    if (ExecutionStatistics.isRecorded(taskGraphName)) {
+      this.sentMessages = new HashMap<>();
+      for (String edge : outBatchParOps.keySet()) {
+        sentMessages.put(edge, ExecutionStatistics.sentMessagesCounter(taskGraphName, edge));
+      }
+      this.busyTime = ExecutionStatistics.busyTimeCounter(taskGraphName, batchTaskName,
+          batchTaskIndex);
+    }
 
     this.outEdgeArray = new String[outputEdges.size()];
     index = 0;
@@ -184,6 +217,7 @@ public class SourceBatchInstance implements INodeInstance, ISync {
    * Execution Method calls the SourceTasks run method to get context
    **/
   public boolean execute() {
+    progressed = false;
     // we started the execution
     if (state.isEqual(InstanceState.INIT)) {
       state.addState(InstanceState.EXECUTING);
@@ -191,9 +225,11 @@ public class SourceBatchInstance implements INodeInstance, ISync {
 
     if (state.isSet(InstanceState.EXECUTING) && state.isNotSet(InstanceState.EXECUTION_DONE)) {
       // we loop until low watermark is reached or all edges are done
+      long start = busyTime != null ? System.nanoTime() : 0;
       while (outBatchQueue.size() < lowWaterMark) {
         // if we are in executing state we can run
         batchTask.execute();
+        progressed = true;
 
         // if all the edges are done
         if (taskContext.isCompleted()) {
@@ -201,6 +237,9 @@ public class SourceBatchInstance implements INodeInstance, ISync {
           break;
         }
       }
+      if (busyTime != null) {
+        busyTime.add(System.nanoTime() - start);
+      }
     }
 
     // now check the output queue
@@ -211,6 +250,10 @@ public class SourceBatchInstance implements INodeInstance, ISync {
         IParallelOperation op = outBatchParOps.get(edge);
         if (op.send(globalTaskId, message, 0)) {
           outBatchQueue.poll();
+          if (sentMessages != null) {
+            sentMessages.get(edge).increment();
+          }
+          progressed = true;
         } else {
           // no point in progressing further
           break;
@@ -225,6 +268,7 @@ public class SourceBatchInstance implements INodeInstance, ISync {
         op.finish(globalTaskId);
       }
       state.addState(InstanceState.OUT_COMPLETE);
+      progressed = true;
     }
 
     // lets progress the communication
@@ -232,12 +276,18 @@ public class SourceBatchInstance implements INodeInstance, ISync {
     // after we have put everything to communication and no progress is required, lets finish
     if (state.isSet(InstanceState.OUT_COMPLETE) && complete) {
       state.addState(InstanceState.SENDING_DONE);
+      progressed = true;
     }
 
     boolean equal = state.isEqual(InstanceState.FINISH);
     return !equal;
   }
 
+  @Override
+  public boolean isIdle() {
+    return !progressed;
+  }
+
   public boolean sync(String edge, byte[] value) {
     state.addState(InstanceState.SYNCED);
     return true;
@@ -265,6 +315,7 @@ public class SourceBatchInstance implements INodeInstance, ISync {
     }
     taskContext.reset();
     state = new InstanceState(InstanceState.INIT);
+    progressed = true;
   }
 
   @Override
@@ -12,11 +12,13 @@
 package edu.iu.dsc.tws.executor.core.batch;
 
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
 
 import edu.iu.dsc.tws.api.checkpointing.CheckpointingClient;
 import edu.iu.dsc.tws.api.compute.IMessage;
@@ -30,6 +32,7 @@ import edu.iu.dsc.tws.api.compute.graph.OperationMode;
 import edu.iu.dsc.tws.api.compute.modifiers.Closable;
 import edu.iu.dsc.tws.api.compute.nodes.ICompute;
 import edu.iu.dsc.tws.api.compute.nodes.INode;
+import edu.iu.dsc.tws.api.compute.schedule.ExecutionStatistics;
 import edu.iu.dsc.tws.api.compute.schedule.elements.TaskSchedulePlan;
 import edu.iu.dsc.tws.api.config.Config;
 import edu.iu.dsc.tws.executor.core.DefaultOutputCollection;
@@ -170,6 +173,43 @@ public class TaskBatchInstance implements INodeInstance, ISync {
    */
   private String[] outEdgeArray;
 
+  /**
+   * Weather the last execution did any work
+   */
+  private boolean progressed = true;
+
+  /**
+   * Weather a sync was received after the last execution started
+   */
+  private boolean syncSignalled;
+
+  /**
+   * Weather each of the in operations was complete after the last progress
+   */
+  private boolean[] inOpsComplete;
+
+  /**
+   * Weather each of the out operations was complete after the last progress
+   */
+  private boolean[] outOpsComplete;
+
+  /**
+   * Name of the graph this instance belongs to
+   */
+  private String taskGraphName;
+
+  /**
+   * Number of messages sent through each out edge, used by the task schedulers, null if the
+   * executions of the graph are not measured
+   */
+  private Map<String, LongAdder> sentMessages;
+
+  /**
+   * Nano seconds spent executing the task, used by the task schedulers, null if the executions
+   * of the graph are not measured
+   */
+  private LongAdder busyTime;
+
   public TaskBatchInstance(ICompute task, BlockingQueue<IMessage> inQueue,
                            BlockingQueue<IMessage> outQueue, Config config, String tName,
                            int taskId, int globalTaskId, int tIndex, int parallel,
@@ -193,6 +233,7 @@ public class TaskBatchInstance implements INodeInstance, ISync {
     this.lowWaterMark = ExecutorContext.instanceQueueLowWaterMark(config);
     this.highWaterMark = ExecutorContext.instanceQueueHighWaterMark(config);
     this.taskSchedule = taskSchedule;
+    this.taskGraphName = taskGraphName;
   }
 
   public void prepare(Config cfg) {
@@ -208,6 +249,13 @@ public class TaskBatchInstance implements INodeInstance, ISync {
     for (Map.Entry<String, IParallelOperation> e : outParOps.entrySet()) {
       this.outOpArray[index++] = e.getValue();
     }
+    if (ExecutionStatistics.isRecorded(taskGraphName)) {
+      this.sentMessages = new HashMap<>();
+      for (String edge : outParOps.keySet()) {
+        sentMessages.put(edge, ExecutionStatistics.sentMessagesCounter(taskGraphName, edge));
+      }
+      this.busyTime = ExecutionStatistics.busyTimeCounter(taskGraphName, taskName, taskIndex);
+    }
 
     this.outEdgeArray = new String[outputEdges.size()];
     index = 0;
@@ -221,6 +269,8 @@ public class TaskBatchInstance implements INodeInstance, ISync {
     for (Map.Entry<String, IParallelOperation> e : inParOps.entrySet()) {
       this.intOpArray[index++] = e.getValue();
     }
+    this.inOpsComplete = new boolean[intOpArray.length];
+    this.outOpsComplete = new boolean[outOpArray.length];
 
     this.inEdgeArray = new String[inputEdges.size()];
     index = 0;
@@ -239,22 +289,30 @@ public class TaskBatchInstance implements INodeInstance, ISync {
 
   @Override
   public boolean execute() {
+    progressed = syncSignalled;
+    syncSignalled = false;
     // we started the executio
     if (state.isSet(InstanceState.INIT) && state.isNotSet(InstanceState.EXECUTION_DONE)) {
+      long start = busyTime != null ? System.nanoTime() : 0;
       while (!inQueue.isEmpty() && outQueue.size() < lowWaterMark) {
         IMessage m = inQueue.poll();
         task.execute(m);
         state.addState(InstanceState.EXECUTING);
+        progressed = true;
+      }
+      if (progressed && busyTime != null) {
+        busyTime.add(System.nanoTime() - start);
       }
 
       // for compute we don't have to have the context done as when the inputs finish and execution
       // is done, we are done executing
       // progress in communication
-      boolean complete = isComplete(intOpArray);
+      boolean complete = isComplete(intOpArray, inOpsComplete);
       // if we no longer needs to progress comm and input is empty
       if (inQueue.isEmpty() && state.isSet(InstanceState.SYNCED) && complete) {
         task.endExecute();
         state.addState(InstanceState.EXECUTION_DONE);
+        progressed = true;
       }
     }
 
@@ -269,6 +327,10 @@ public class TaskBatchInstance implements INodeInstance, ISync {
         int flags = 0;
         if (op.send(globalTaskId, message, flags)) {
           outQueue.poll();
+          if (sentMessages != null) {
+            sentMessages.get(edge).increment();
+          }
+          progressed = true;
         } else {
           // no point progressing further
           break;
@@ -283,18 +345,26 @@ public class TaskBatchInstance implements INodeInstance, ISync {
         op.finish(globalTaskId);
       }
       state.addState(InstanceState.OUT_COMPLETE);
+      progressed = true;
     }
 
     // lets progress the communication
-    boolean complete = isComplete(outOpArray);
+    boolean complete = isComplete(outOpArray, outOpsComplete);
     // after we have put everything to communication and no progress is required, lets finish
     if (state.isSet(InstanceState.OUT_COMPLETE) && complete) {
       state.addState(InstanceState.SENDING_DONE);
+      progressed = true;
     }
     return !state.isSet(InstanceState.SENDING_DONE);
   }
 
+  @Override
+  public boolean isIdle() {
+    return !progressed;
+  }
+
   public boolean sync(String edge, byte[] value) {
+    syncSignalled = true;
     syncReceived.add(edge);
     if (syncReceived.equals(inParOps.keySet())) {
       state.addState(InstanceState.SYNCED);
@@ -304,18 +374,32 @@ public class TaskBatchInstance implements INodeInstance, ISync {
   }
 
   /**
-   * Progress the communication and return weather we need to further progress
+   * Progress the communication and return weather all the operations are complete. The return
+   * value of progress only tells that an operation is not done, it is true while waiting for
+   * the other workers, so it is not counted as work. Messages delivered to the input queue and
+   * operations becoming complete are counted as work.
    *
-   * @return true if further progress is needed
+   * @param ops the operations
+   * @param completed weather each operation was complete after the last progress, updated
+   * @return true if all the operations are complete
    */
-  private boolean isComplete(IParallelOperation[] ops) {
+  private boolean isComplete(IParallelOperation[] ops, boolean[] completed) {
+    int queued = inQueue.size();
     boolean allDone = true;
     for (int i = 0; i < ops.length; i++) {
       ops[i].progress();
-      if (!ops[i].isComplete()) {
+      boolean done = ops[i].isComplete();
+      if (done != completed[i]) {
+        completed[i] = done;
+        progressed = true;
+      }
+      if (!done) {
         allDone = false;
       }
     }
+    if (inQueue.size() != queued) {
+      progressed = true;
+    }
     return allDone;
   }
 
@@ -366,6 +450,9 @@ public class TaskBatchInstance implements INodeInstance, ISync {
       ((Closable) task).reset();
     }
     state = new InstanceState(InstanceState.INIT);
+    progressed = true;
+    Arrays.fill(inOpsComplete, false);
+    Arrays.fill(outOpsComplete, false);
   }
 
   public BlockingQueue<IMessage> getInQueue() {
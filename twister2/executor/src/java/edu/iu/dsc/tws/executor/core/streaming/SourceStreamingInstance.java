@@ -39,6 +39,7 @@ import edu.iu.dsc.tws.checkpointing.task.CheckpointableTask;
 import edu.iu.dsc.tws.checkpointing.task.CheckpointingSGatherSink;
 import edu.iu.dsc.tws.checkpointing.util.CheckpointUtils;
 import edu.iu.dsc.tws.checkpointing.util.CheckpointingContext;
+import edu.iu.dsc.tws.checkpointing.util.SnapshotWriter;
 import edu.iu.dsc.tws.executor.core.DefaultOutputCollection;
 import edu.iu.dsc.tws.executor.core.TaskCheckpointUtils;
 import edu.iu.dsc.tws.executor.core.TaskContextImpl;
@@ -118,6 +119,11 @@ public class SourceStreamingInstance implements INodeInstance {
    */
   private int highWaterMark;
 
+  /**
+   * Weather the last execution did any work
+   */
+  private boolean progressed = true;
+
   /**
    * The output edges
    */
@@ -211,6 +217,7 @@ public class SourceStreamingInstance implements INodeInstance {
     if (this.checkpointable) {
       this.stateStore = CheckpointUtils.getStateStore(config);
       this.stateStore.init(config, this.taskGraphName, String.valueOf(globalTaskId));
+      this.checkpointingClient.registerStateStore(this.taskGraphName, this.stateStore);
 
       TaskCheckpointUtils.restore(
           (CheckpointableTask) this.streamingTask,
@@ -224,7 +231,7 @@ public class SourceStreamingInstance implements INodeInstance {
 
       this.pendingCheckpoint = new PendingCheckpoint(taskGraphName,
           (CheckpointableTask) this.streamingTask, globalTaskId, outOpArray, outEdges.size(),
-          checkpointingClient, stateStore, snapshot);
+          checkpointingClient, new SnapshotWriter(config, stateStore), snapshot);
     }
   }
 
@@ -237,10 +244,12 @@ public class SourceStreamingInstance implements INodeInstance {
    * Execution Method calls the SourceTasks run method to get context
    **/
   public boolean execute() {
+    progressed = false;
     if (outStreamingQueue.size() < lowWaterMark
         && !(this.checkpointable && this.pendingCheckpoint.isPending())) {
       // lets execute the task
       streamingTask.execute();
+      progressed = true;
 
       if (this.checkpointable && (executions++ % this.checkPointingFrequency) == 0) {
         this.scheduleCheckpoint(checkpointVersion++);
@@ -260,6 +269,7 @@ public class SourceStreamingInstance implements INodeInstance {
         if (barrierMessage ? op.sendBarrier(globalTaskId, (byte[]) message.getContent())
             : op.send(globalTaskId, message, message.getFlag())) {
           outStreamingQueue.poll();
+          progressed = true;
         } else {
           nothingToProcess = false;
           // we need to break
@@ -280,16 +290,34 @@ public class SourceStreamingInstance implements INodeInstance {
     if (this.checkpointable && outStreamingQueue.isEmpty() && this.pendingCheckpoint.isPending()) {
       long barrier = this.pendingCheckpoint.execute();
       if (barrier != -1) {
+        this.scheduleBarriers(barrier);
+        nothingToProcess = false;
+      }
+    }
+
+    // report the checkpoint only after the snapshot is written to the store
+    if (this.checkpointable) {
+      long persistedBarrier = this.pendingCheckpoint.pollPersisted();
+      if (persistedBarrier != -1) {
         ((CheckpointableTask) this.streamingTask)
             .onCheckpointPropagated(this.snapshot);
-        this.scheduleBarriers(barrier);
-        taskContext.write(CheckpointingSGatherSink.FT_GATHER_EDGE, barrier);
+        taskContext.write(CheckpointingSGatherSink.FT_GATHER_EDGE, persistedBarrier);
+        nothingToProcess = false;
+      } else if (this.pendingCheckpoint.isWriting()) {
         nothingToProcess = false;
       }
     }
+    if (!nothingToProcess) {
+      progressed = true;
+    }
     return !nothingToProcess;
   }
 
+  @Override
+  public boolean isIdle() {
+    return !progressed;
+  }
+
   @Override
   public INode getNode() {
     return streamingTask;
@@ -39,6 +39,7 @@ import edu.iu.dsc.tws.checkpointing.task.CheckpointableTask;
 import edu.iu.dsc.tws.checkpointing.task.CheckpointingSGatherSink;
 import edu.iu.dsc.tws.checkpointing.util.CheckpointUtils;
 import edu.iu.dsc.tws.checkpointing.util.CheckpointingContext;
+import edu.iu.dsc.tws.checkpointing.util.SnapshotWriter;
 import edu.iu.dsc.tws.executor.core.DefaultOutputCollection;
 import edu.iu.dsc.tws.executor.core.TaskCheckpointUtils;
 import edu.iu.dsc.tws.executor.core.TaskContextImpl;
@@ -130,6 +131,11 @@ public class TaskStreamingInstance implements INodeInstance, ISync {
    */
   protected int highWaterMark;
 
+  /**
+   * Weather the last execution did any work
+   */
+  private boolean progressed = true;
+
   /**
    * Output edges
    */
@@ -251,6 +257,7 @@ public class TaskStreamingInstance implements INodeInstance, ISync {
     if (this.checkpointable) {
       this.stateStore = CheckpointUtils.getStateStore(config);
       this.stateStore.init(config, this.taskGraphName, String.valueOf(globalTaskId));
+      this.checkpointingClient.registerStateStore(this.taskGraphName, this.stateStore);
 
       this.pendingCheckpoint = new PendingCheckpoint(
           this.taskGraphName,
@@ -259,7 +266,7 @@ public class TaskStreamingInstance implements INodeInstance, ISync {
           this.intOpArray,
           this.inEdgeArray.length,
           this.checkpointingClient,
-          this.stateStore,
+          new SnapshotWriter(config, this.stateStore),
           this.snapshot
       );
 
@@ -291,11 +298,13 @@ public class TaskStreamingInstance implements INodeInstance, ISync {
    * Executing compute task
    */
   public boolean execute() {
+    progressed = false;
     // execute if there are incoming messages
     while (!inQueue.isEmpty() && outQueue.size() < lowWaterMark) {
       IMessage m = inQueue.poll();
       if (m != null) {
         task.execute(m);
+        progressed = true;
       }
     }
     // set the initial nothing to execute
@@ -316,6 +325,7 @@ public class TaskStreamingInstance implements INodeInstance, ISync {
         if (barrierMessage ? op.sendBarrier(globalTaskId, (byte[]) message.getContent())
             : op.send(globalTaskId, message, message.getFlag())) {
           outQueue.poll();
+          progressed = true;
         } else {
           nothingToProcess = false;
           break;
@@ -340,16 +350,34 @@ public class TaskStreamingInstance implements INodeInstance, ISync {
     if (this.checkpointable && this.inQueue.isEmpty() && this.outQueue.isEmpty()) {
       long checkpointedBarrierId = this.pendingCheckpoint.execute();
       if (checkpointedBarrierId != -1) {
-        ((CheckpointableTask) this.task).onCheckpointPropagated(this.snapshot);
-        taskContext.write(CheckpointingSGatherSink.FT_GATHER_EDGE, checkpointedBarrierId);
         this.scheduleBarriers(checkpointedBarrierId);
         nothingToProcess = false;
       }
     }
 
+    // report the checkpoint only after the snapshot is written to the store
+    if (this.checkpointable) {
+      long persistedBarrierId = this.pendingCheckpoint.pollPersisted();
+      if (persistedBarrierId != -1) {
+        ((CheckpointableTask) this.task).onCheckpointPropagated(this.snapshot);
+        taskContext.write(CheckpointingSGatherSink.FT_GATHER_EDGE, persistedBarrierId);
+        nothingToProcess = false;
+      } else if (this.pendingCheckpoint.isWriting()) {
+        nothingToProcess = false;
+      }
+    }
+
+    if (!nothingToProcess) {
+      progressed = true;
+    }
     return !nothingToProcess;
   }
 
+  @Override
+  public boolean isIdle() {
+    return !progressed;
+  }
+
   public void scheduleBarriers(Long bid) {
     ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
     buffer.putLong(bid);
@@ -88,6 +88,16 @@ public class BatchSharingExecutor2 implements IExecutor {
    */
   protected IExecutionHook executionHook;
 
+  /**
+   * Cpu times of the executions
+   */
+  private ExecutionStats stats = new ExecutionStats("BatchSharingExecutor2");
+
+  /**
+   * Cpu time of the main thread at the start of the execution
+   */
+  private long mainCpuStart;
+
   public BatchSharingExecutor2(Config cfg, int workerId, TWSChannel channel, ExecutionPlan plan,
                                IExecutionHook hook) {
     this.workerId = workerId;
@@ -203,6 +213,7 @@ public class BatchSharingExecutor2 implements IExecutor {
       taskStatus[i] = new AtomicBoolean(false);
     }
     doneSignal = new CountDownLatch(numThreads - 1);
+    startStats();
     batchWorkers[0] = new BatchWorker(tasks, taskStatus);
     for (int i = 1; i < numThreads; i++) {
       BatchWorker task = new BatchWorker(tasks, taskStatus);
@@ -219,6 +230,7 @@ public class BatchSharingExecutor2 implements IExecutor {
     } catch (InterruptedException e) {
       throw new RuntimeException("Interrupted", e);
     }
+    reportStats("execute");
 
     // we set the execution state here
     executionPlan.setExecutionState(ExecutionState.EXECUTED);
@@ -277,6 +289,7 @@ public class BatchSharingExecutor2 implements IExecutor {
     workers[0] = new CommunicationWorker(tasks);
 
     doneSignal = new CountDownLatch(numThreads - 1);
+    startStats();
     for (int i = 1; i < numThreads; i++) {
       workers[i] = new CommunicationWorker(tasks);
       threads.submit(workers[i]);
@@ -291,6 +304,7 @@ public class BatchSharingExecutor2 implements IExecutor {
     } catch (InterruptedException e) {
       throw new RuntimeException("Interrupted", e);
     }
+    reportStats("close");
 
     List<IParallelOperation> ops = executionPlan.getParallelOperations();
     resetNodes(nodes, ops);
@@ -310,6 +324,18 @@ public class BatchSharingExecutor2 implements IExecutor {
     cleanUpCalled = true;
   }
 
+  private void startStats() {
+    stats.start();
+    mainCpuStart = ExecutionStats.currentThreadCpuTime();
+  }
+
+  private void reportStats(String phase) {
+    if (LOG.isLoggable(Level.FINE)) {
+      stats.addThread(ExecutionStats.currentThreadCpuTime() - mainCpuStart, 0);
+      stats.report(LOG, phase, 0);
+    }
+  }
+
   private void resetNodes(Map<Integer, INodeInstance> nodes, List<IParallelOperation> ops) {
     // clean up the instances
     for (INodeInstance node : nodes.values()) {
@@ -331,11 +357,13 @@ public class BatchSharingExecutor2 implements IExecutor {
 
     @Override
     public void run() {
+      long cpuStart = ExecutionStats.currentThreadCpuTime();
       while (isNotStopped()) {
         if (!runChannelComplete()) {
           break;
         }
       }
+      stats.addThread(ExecutionStats.currentThreadCpuTime() - cpuStart, 0);
       doneSignal.countDown();
     }
 
@@ -387,9 +415,11 @@ public class BatchSharingExecutor2 implements IExecutor {
 
     @Override
     public void run() {
+      long cpuStart = ExecutionStats.currentThreadCpuTime();
       while (isNotStopped() && finishedInstances.get() != tasks.size()) {
         runExecution();
       }
+      stats.addThread(ExecutionStats.currentThreadCpuTime() - cpuStart, 0);
       doneSignal.countDown();
     }
 
@@ -0,0 +1,551 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.executor.threading;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import edu.iu.dsc.tws.api.comms.channel.TWSChannel;
+import edu.iu.dsc.tws.api.compute.executor.ExecutionPlan;
+import edu.iu.dsc.tws.api.compute.executor.ExecutionState;
+import edu.iu.dsc.tws.api.compute.executor.ExecutorContext;
+import edu.iu.dsc.tws.api.compute.executor.IExecution;
+import edu.iu.dsc.tws.api.compute.executor.IExecutionHook;
+import edu.iu.dsc.tws.api.compute.executor.IExecutor;
+import edu.iu.dsc.tws.api.compute.executor.INodeInstance;
+import edu.iu.dsc.tws.api.compute.executor.IParallelOperation;
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.executor.core.ExecutionRuntime;
+
+/**
+ * Batch executor that parks the threads when the instances are waiting for messages instead of
+ * spinning on them. Each thread has its own queue of instances and steals from the others when
+ * its queue is empty. A thread parks after it went through its instances without any of them
+ * doing work, and wakes up when the channel completes a send or receive, when another thread
+ * makes progress or after a timeout that grows up to {@link ExecutorContext#IDLE_PARK_MAX_NANOS}.
+ * <p>
+ * The main thread progresses the channel, the network is polled so it only parks for a short
+ * time. Setting the maximum park time to 0 makes the threads spin like the sharing executor.
+ */
+public class BatchWorkStealingExecutor implements IExecutor {
+  private static final Logger LOG = Logger.getLogger(BatchWorkStealingExecutor.class.getName());
+
+  /**
+   * The time an idle thread parks first, the main thread never parks longer than this
+   */
+  private static final long MIN_PARK_NANOS = 10000L;
+
+  /**
+   * Number of threads to use
+   */
+  private int numThreads;
+
+  /**
+   * Number of threads
+   */
+  private ExecutorService threads;
+
+  /**
+   * Channel
+   */
+  private TWSChannel channel;
+
+  /**
+   * The configuration
+   */
+  private Config config;
+
+  // keep track of finished executions
+  private AtomicInteger finishedInstances = new AtomicInteger(0);
+
+  // worker id
+  private int workerId;
+
+  // not stopped
+  protected volatile boolean notStopped = true;
+
+  // clean up is called
+  private boolean cleanUpCalled = false;
+
+  /**
+   * Wait for threads to finish
+   */
+  private CountDownLatch doneSignal;
+
+  /**
+   * The current plan we are executing
+   */
+  protected ExecutionPlan plan;
+
+  /**
+   * The execution hook
+   */
+  protected IExecutionHook executionHook;
+
+  /**
+   * The instance queues of the threads
+   */
+  private WorkStealingQueues<INodeInstance> queues;
+
+  /**
+   * Wakes up the parked threads
+   */
+  private IdleSignal idleSignal = new IdleSignal();
+
+  /**
+   * Maximum time to park an idle thread
+   */
+  private long maxParkNanos;
+
+  /**
+   * Cpu and park times of the executions
+   */
+  private ExecutionStats stats = new ExecutionStats("BatchWorkStealingExecutor");
+
+  public BatchWorkStealingExecutor(Config cfg, int workerId, TWSChannel channel,
+                                   ExecutionPlan plan, IExecutionHook hook) {
+    this.workerId = workerId;
+    this.config = cfg;
+    this.channel = channel;
+    this.numThreads = ExecutorContext.threadsPerContainer(config);
+    if (numThreads > 1) {
+      this.threads = Executors.newFixedThreadPool(numThreads - 1,
+          new ThreadFactoryBuilder().setNameFormat("executor-%d").setDaemon(true).build());
+    }
+    this.plan = plan;
+    this.executionHook = hook;
+    this.maxParkNanos = ExecutorContext.idleParkMaxNanos(config);
+    this.queues = new WorkStealingQueues<>(numThreads);
+    this.channel.addCompletionListener(idleSignal);
+  }
+
+  public boolean execute() {
+    executionHook.beforeExecution();
+    // lets create the runtime object
+    ExecutionRuntime runtime = new ExecutionRuntime(ExecutorContext.jobName(config), plan, channel);
+    // updated config
+    this.config = Config.newBuilder().putAll(config).
+        put(ExecutorContext.TWISTER2_RUNTIME_OBJECT, runtime).build();
+
+    // if this is a previously executed plan we have to reset the nodes
+    if (plan.getExecutionState() == ExecutionState.EXECUTED) {
+      resetNodes(plan.getNodes(), plan.getParallelOperations());
+    }
+
+    // go through the instances
+    return runExecution(plan);
+  }
+
+  public IExecution iExecute() {
+    executionHook.beforeExecution();
+    // lets create the runtime object
+    ExecutionRuntime runtime = new ExecutionRuntime(ExecutorContext.jobName(config), plan, channel);
+    // updated config
+    this.config = Config.newBuilder().putAll(config).
+        put(ExecutorContext.TWISTER2_RUNTIME_OBJECT, runtime).build();
+
+    // if this is a previously executed plan we have to reset the nodes
+    if (plan.getExecutionState() == ExecutionState.EXECUTED) {
+      resetNodes(plan.getNodes(), plan.getParallelOperations());
+    }
+
+    // go through the instances
+    return runIExecution();
+  }
+
+  @Override
+  public boolean execute(boolean close) {
+    boolean e = execute();
+    if (close) {
+      closeExecution();
+    }
+    return e;
+  }
+
+  @Override
+  public void close() {
+    channel.removeCompletionListener(idleSignal);
+    if (threads != null) {
+      threads.shutdown();
+    }
+    executionHook.onClose(this);
+  }
+
+  public boolean isNotStopped() {
+    return notStopped;
+  }
+
+  @Override
+  public ExecutionPlan getExecutionPlan() {
+    return plan;
+  }
+
+  /**
+   * Execution Method for Batch Tasks
+   */
+  public boolean runExecution(ExecutionPlan executionPlan) {
+    Map<Integer, INodeInstance> nodes = executionPlan.getNodes();
+
+    if (nodes.size() == 0) {
+      LOG.warning(String.format("Worker %d has zero assigned tasks, you may "
+          + "have more workers than tasks", workerId));
+      return true;
+    }
+
+    Worker worker = schedule(nodes, false);
+    // we progress until all the channel finish
+    while (isNotStopped() && finishedInstances.get() != nodes.size()) {
+      channel.progress();
+      // the main thread call the run method of the 0th worker
+      worker.runOnce();
+    }
+
+    cleanUp(executionPlan, worker);
+    return true;
+  }
+
+  /**
+   * Distribute the instances among the threads and start the threads
+   *
+   * @param nodes the instances
+   * @param waitFor weather we are waiting for the operations to complete
+   * @return the worker to be run by the main thread
+   */
+  private Worker schedule(Map<Integer, INodeInstance> nodes, boolean waitFor) {
+    if (!waitFor) {
+      // prepare the tasks
+      for (INodeInstance node : nodes.values()) {
+        node.prepare(config);
+      }
+    }
+
+    queues.clear();
+    queues.assign(nodes.values());
+    stats.start();
+
+    int total = nodes.size();
+    doneSignal = new CountDownLatch(numThreads - 1);
+    Worker mainWorker = new Worker(0, total, waitFor);
+    for (int i = 1; i < numThreads; i++) {
+      threads.submit(new Worker(i, total, waitFor));
+    }
+    return mainWorker;
+  }
+
+  private void cleanUp(ExecutionPlan executionPlan, Worker mainWorker) {
+    // lets wait for thread to finish
+    awaitWorkers(mainWorker, "execute");
+
+    // we set the execution state here
+    executionPlan.setExecutionState(ExecutionState.EXECUTED);
+
+    // clear the finished instances
+    finishedInstances.set(0);
+    cleanUpCalled = true;
+    // after execution
+    executionHook.afterExecution();
+  }
+
+  private void awaitWorkers(Worker mainWorker, String phase) {
+    try {
+      doneSignal.await();
+    } catch (InterruptedException e) {
+      throw new RuntimeException("Interrupted", e);
+    }
+
+    mainWorker.finish();
+    if (LOG.isLoggable(Level.FINE)) {
+      stats.report(LOG, phase, queues.getSteals());
+    }
+  }
+
+  public IExecution runIExecution() {
+    Map<Integer, INodeInstance> nodes = plan.getNodes();
+
+    if (nodes.size() == 0) {
+      LOG.warning(String.format("Worker %d has zero assigned tasks, you may "
+          + "have more workers than tasks", workerId));
+      return new NullExecutor();
+    }
+
+    Worker worker = schedule(nodes, false);
+    return new BatchExecution(plan, nodes, worker);
+  }
+
+  @Override
+  public boolean closeExecution() {
+    Map<Integer, INodeInstance> nodes = plan.getNodes();
+
+    if (nodes.size() == 0) {
+      LOG.warning(String.format("Worker %d has zero assigned tasks, you may "
+          + "have more workers than tasks", workerId));
+      return true;
+    }
+
+    Worker worker = schedule(nodes, true);
+    // we progress until all the channel finish
+    while (isNotStopped() && finishedInstances.get() != nodes.size()) {
+      channel.progress();
+      worker.runOnce();
+    }
+
+    // at this point we are going to reset and close the operations
+    close(plan, nodes, worker);
+
+    return true;
+  }
+
+  private void close(ExecutionPlan executionPlan, Map<Integer, INodeInstance> nodes,
+                     Worker mainWorker) {
+    // lets wait for thread to finish
+    awaitWorkers(mainWorker, "close");
+
+    List<IParallelOperation> ops = executionPlan.getParallelOperations();
+    resetNodes(nodes, ops);
+
+    // clean up the instances
+    for (INodeInstance node : nodes.values()) {
+      node.close();
+    }
+
+    // lets close the operations
+    for (IParallelOperation op : ops) {
+      op.close();
+    }
+
+    // clear the finished instances
+    finishedInstances.set(0);
+    cleanUpCalled = true;
+  }
+
+  private void resetNodes(Map<Integer, INodeInstance> nodes, List<IParallelOperation> ops) {
+    // clean up the instances
+    for (INodeInstance node : nodes.values()) {
+      node.reset();
+    }
+
+    // lets close the operations
+    for (IParallelOperation op : ops) {
+      op.reset();
+    }
+  }
+
+  protected class Worker implements Runnable {
+    /**
+     * Index of the thread, the main thread is 0
+     */
+    private int index;
+
+    /**
+     * Total number of instances
+     */
+    private int total;
+
+    /**
+     * Weather we are waiting for the operations to complete instead of executing the instances
+     */
+    private boolean waitFor;
+
+    /**
+     * Number of idle instances executed after the last progress
+     */
+    private int idleCount;
+
+    /**
+     * The time to park next
+     */
+    private long parkNanos = MIN_PARK_NANOS;
+
+    /**
+     * Maximum time this thread parks
+     */
+    private long maxPark;
+
+    /**
+     * Cpu time of the thread at the start
+     */
+    private long cpuStart;
+
+    /**
+     * Total time parked
+     */
+    private long parkedTime;
+
+    public Worker(int index, int total, boolean waitFor) {
+      this.index = index;
+      this.total = total;
+      this.waitFor = waitFor;
+      this.maxPark = index == 0 ? Math.min(MIN_PARK_NANOS, maxParkNanos) : maxParkNanos;
+      this.cpuStart = ExecutionStats.currentThreadCpuTime();
+    }
+
+    @Override
+    public void run() {
+      cpuStart = ExecutionStats.currentThreadCpuTime();
+      try {
+        while (isNotStopped() && finishedInstances.get() != total) {
+          runOnce();
+        }
+      } catch (Throwable t) {
+        LOG.log(Level.SEVERE, String.format("%d Error in executor", workerId), t);
+        throw new RuntimeException("Error occurred in execution of task", t);
+      } finally {
+        finish();
+        doneSignal.countDown();
+      }
+    }
+
+    /**
+     * Record the times of this thread, must be called by the thread running this worker
+     */
+    private void finish() {
+      stats.addThread(ExecutionStats.currentThreadCpuTime() - cpuStart, parkedTime);
+    }
+
+    private void runOnce() {
+      // read the epoch before looking for work, so that we don't miss a signal
+      long seen = idleSignal.epoch();
+      INodeInstance instance = queues.poll(index);
+      if (instance == null) {
+        // all the remaining instances are with other threads
+        park(seen);
+        return;
+      }
+
+      boolean needsFurther = waitFor ? !instance.isComplete() : instance.execute();
+      if (!needsFurther) {
+        finishedInstances.incrementAndGet();
+        progressed();
+        return;
+      }
+
+      // we cannot tell weather the operations progressed while waiting for them
+      boolean idle = waitFor || instance.isIdle();
+      queues.offer(index, instance);
+      if (!idle) {
+        progressed();
+      } else if (++idleCount > queues.size(index)) {
+        // we went through all our instances without any work
+        park(seen);
+      }
+    }
+
+    private void progressed() {
+      idleCount = 0;
+      parkNanos = MIN_PARK_NANOS;
+      // the instances of the other threads may have messages now
+      idleSignal.signal();
+    }
+
+    private void park(long seen) {
+      idleCount = 0;
+      if (maxPark <= 0) {
+        return;
+      }
+      parkedTime += idleSignal.park(seen, parkNanos);
+      parkNanos = Math.min(parkNanos * 2, maxPark);
+    }
+  }
+
+  private class BatchExecution implements IExecution {
+    /**
+     * Keep the node map
+     */
+    private Map<Integer, INodeInstance> nodeMap;
+
+    private ExecutionPlan executionPlan;
+
+    private boolean taskExecution = true;
+
+    private Worker mainWorker;
+
+    BatchExecution(ExecutionPlan executionPlan, Map<Integer, INodeInstance> nodeMap,
+                   Worker mainWorker) {
+      this.nodeMap = nodeMap;
+      this.executionPlan = executionPlan;
+      this.mainWorker = mainWorker;
+    }
+
+    @Override
+    public boolean waitForCompletion() {
+      // we progress until all the channel finish
+      while (isNotStopped() && finishedInstances.get() != nodeMap.size()) {
+        channel.progress();
+        mainWorker.runOnce();
+      }
+      // we are going to set to executed
+      executionPlan.setExecutionState(ExecutionState.EXECUTED);
+
+      cleanUp(executionPlan, mainWorker);
+
+      // now wait for it
+      closeExecution();
+      return true;
+    }
+
+    @Override
+    public boolean progress() {
+      if (taskExecution) {
+        // we progress until all the channel finish
+        if (finishedInstances.get() != nodeMap.size()) {
+          channel.progress();
+          mainWorker.runOnce();
+          return true;
+        }
+        // lets set the execution state here
+        executionPlan.setExecutionState(ExecutionState.EXECUTED);
+        // clean up
+        cleanUp(executionPlan, mainWorker);
+        cleanUpCalled = false;
+        // if we finish, lets schedule
+        mainWorker = schedule(nodeMap, true);
+        taskExecution = false;
+      }
+
+      // we progress until all the channel finish
+      if (isNotStopped() && finishedInstances.get() != nodeMap.size()) {
+        channel.progress();
+        mainWorker.runOnce();
+        return true;
+      }
+
+      return false;
+    }
+
+    public void close() {
+      if (isNotStopped()) {
+        throw new RuntimeException("We need to stop the execution before close");
+      }
+
+      if (!cleanUpCalled) {
+        BatchWorkStealingExecutor.this.close(executionPlan, nodeMap, mainWorker);
+        executionHook.onClose(BatchWorkStealingExecutor.this);
+        cleanUpCalled = true;
+      } else {
+        throw new RuntimeException("Close is called on a already closed execution");
+      }
+    }
+
+    @Override
+    public void stop() {
+      notStopped = false;
+    }
+  }
+}
@@ -0,0 +1,98 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.executor.threading;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Collects the wall time, the cpu time used by the executor threads and the time they spent
+ * parked for an execution, so that the executors can be compared. The values are logged at
+ * the fine level.
+ */
+public class ExecutionStats {
+  private static final ThreadMXBean THREAD_BEAN = ManagementFactory.getThreadMXBean();
+
+  /**
+   * Name of the executor
+   */
+  private final String name;
+
+  /**
+   * Start time of the execution
+   */
+  private long startTime;
+
+  /**
+   * Cpu time of all the threads
+   */
+  private final AtomicLong cpuTime = new AtomicLong();
+
+  /**
+   * Time the threads spent parked
+   */
+  private final AtomicLong parkedTime = new AtomicLong();
+
+  public ExecutionStats(String name) {
+    this.name = name;
+  }
+
+  /**
+   * Cpu time of the current thread
+   *
+   * @return cpu time in nano seconds, 0 if not supported
+   */
+  public static long currentThreadCpuTime() {
+    if (THREAD_BEAN.isCurrentThreadCpuTimeSupported()) {
+      return THREAD_BEAN.getCurrentThreadCpuTime();
+    }
+    return 0;
+  }
+
+  /**
+   * Start a new execution
+   */
+  public void start() {
+    startTime = System.nanoTime();
+    cpuTime.set(0);
+    parkedTime.set(0);
+  }
+
+  /**
+   * Add the times of an executor thread
+   *
+   * @param cpuNanos cpu time used by the thread
+   * @param parkedNanos time the thread was parked
+   */
+  public void addThread(long cpuNanos, long parkedNanos) {
+    cpuTime.addAndGet(cpuNanos);
+    parkedTime.addAndGet(parkedNanos);
+  }
+
+  /**
+   * Log the stats of the execution
+   *
+   * @param log logger
+   * @param phase the phase of the execution
+   * @param steals number of instances stolen by the threads
+   */
+  public void report(Logger log, String phase, long steals) {
+    long wall = System.nanoTime() - startTime;
+    log.fine(String.format("%s %s: wall %d ms, cpu %d ms, parked %d ms, steals %d",
+        name, phase, TimeUnit.NANOSECONDS.toMillis(wall),
+        TimeUnit.NANOSECONDS.toMillis(cpuTime.get()),
+        TimeUnit.NANOSECONDS.toMillis(parkedTime.get()), steals));
+  }
+}
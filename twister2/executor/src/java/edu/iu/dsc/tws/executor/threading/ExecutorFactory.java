@@ -25,6 +25,8 @@ import edu.iu.dsc.tws.executor.threading.ft.AllSharingBatchExecutor;
 import edu.iu.dsc.tws.executor.threading.ft.AllSharingStremingExecutor;
 import edu.iu.dsc.tws.executor.threading.ft.DedicatedComStreamingExecutor;
 import edu.iu.dsc.tws.executor.threading.ft.DedidatedBatchExecutor;
+import edu.iu.dsc.tws.executor.threading.ft.WorkStealingBatchExecutor;
+import edu.iu.dsc.tws.executor.threading.ft.WorkStealingStreamingExecutor;
 
 public class ExecutorFactory {
   /**
@@ -66,6 +68,8 @@ public class ExecutorFactory {
           executor = new StreamingAllSharingExecutor(planConfig, workerId, channel, plan, hook);
         } else if (ExecutorContext.STREAM_EXECUTOR_DEDICATED_COMM.equals(streamExecutor)) {
           executor = new StreamingSharingExecutor(planConfig, workerId, channel, plan, hook);
+        } else if (ExecutorContext.STREAM_EXECUTOR_WORK_STEALING.equals(streamExecutor)) {
+          executor = new StreamingWorkStealingExecutor(planConfig, workerId, channel, plan, hook);
         } else {
           throw new Twister2RuntimeException("Un-known stream executor specified - "
               + streamExecutor);
@@ -76,6 +80,8 @@ public class ExecutorFactory {
           executor = new BatchSharingExecutor(planConfig, workerId, channel, plan, hook);
         } else if (ExecutorContext.BATCH_EXECUTOR_SHARING.equals(batchExecutor)) {
           executor = new BatchSharingExecutor2(planConfig, workerId, channel, plan, hook);
+        } else if (ExecutorContext.BATCH_EXECUTOR_WORK_STEALING.equals(batchExecutor)) {
+          executor = new BatchWorkStealingExecutor(planConfig, workerId, channel, plan, hook);
         } else {
           throw new Twister2RuntimeException("Un-known batch executor specified - "
               + batchExecutor);
@@ -89,6 +95,8 @@ public class ExecutorFactory {
           executor = new AllSharingStremingExecutor(planConfig, workerId, channel, plan, hook);
         } else if (ExecutorContext.STREAM_EXECUTOR_DEDICATED_COMM.equals(streamExecutor)) {
           executor = new DedicatedComStreamingExecutor(planConfig, workerId, channel, plan, hook);
+        } else if (ExecutorContext.STREAM_EXECUTOR_WORK_STEALING.equals(streamExecutor)) {
+          executor = new WorkStealingStreamingExecutor(planConfig, workerId, channel, plan, hook);
         } else {
           throw new Twister2RuntimeException("Un-known stream executor specified - "
               + streamExecutor);
@@ -99,6 +107,8 @@ public class ExecutorFactory {
           executor = new DedidatedBatchExecutor(planConfig, workerId, channel, plan, hook);
         } else if (ExecutorContext.BATCH_EXECUTOR_SHARING.equals(batchExecutor)) {
           executor = new AllSharingBatchExecutor(planConfig, workerId, channel, plan, hook);
+        } else if (ExecutorContext.BATCH_EXECUTOR_WORK_STEALING.equals(batchExecutor)) {
+          executor = new WorkStealingBatchExecutor(planConfig, workerId, channel, plan, hook);
         } else {
           throw new Twister2RuntimeException("Un-known batch executor specified - "
               + batchExecutor);
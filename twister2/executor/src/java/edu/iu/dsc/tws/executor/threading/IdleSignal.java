@@ -0,0 +1,92 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.executor.threading;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import edu.iu.dsc.tws.api.comms.channel.ChannelCompletionListener;
+
+/**
+ * Lets the idle executor threads park until there is new work. The channel and the threads that
+ * make progress signal this, which wakes up the parked threads. A thread reads the epoch before
+ * looking for work and parks only if no signal arrived after that, so a signal is never lost.
+ */
+public class IdleSignal implements ChannelCompletionListener {
+  /**
+   * Incremented by every signal
+   */
+  private final AtomicLong epoch = new AtomicLong();
+
+  /**
+   * Number of threads parked at the moment, used to make the signal cheap when no one is parked
+   */
+  private final AtomicInteger parkedCount = new AtomicInteger();
+
+  /**
+   * The parked threads
+   */
+  private final Set<Thread> parked = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Current epoch, read this before looking for work
+   *
+   * @return the epoch
+   */
+  public long epoch() {
+    return epoch.get();
+  }
+
+  /**
+   * Signal that there is new work and wake up the parked threads
+   */
+  public void signal() {
+    epoch.incrementAndGet();
+    if (parkedCount.get() > 0) {
+      for (Thread t : parked) {
+        LockSupport.unpark(t);
+      }
+    }
+  }
+
+  @Override
+  public void onCompletion() {
+    signal();
+  }
+
+  /**
+   * Park the current thread until a signal arrives or the time elapses
+   *
+   * @param seenEpoch the epoch read before looking for work
+   * @param nanos maximum time to park
+   * @return the time parked in nano seconds
+   */
+  public long park(long seenEpoch, long nanos) {
+    Thread current = Thread.currentThread();
+    parked.add(current);
+    parkedCount.incrementAndGet();
+    long start = System.nanoTime();
+    try {
+      // a signal between reading the epoch and registering would be missed otherwise
+      if (epoch.get() == seenEpoch) {
+        LockSupport.parkNanos(this, nanos);
+      }
+    } finally {
+      parkedCount.decrementAndGet();
+      parked.remove(current);
+    }
+    return System.nanoTime() - start;
+  }
+}
@@ -0,0 +1,592 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.executor.threading;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import edu.iu.dsc.tws.api.comms.channel.TWSChannel;
+import edu.iu.dsc.tws.api.compute.executor.ExecutionPlan;
+import edu.iu.dsc.tws.api.compute.executor.ExecutorContext;
+import edu.iu.dsc.tws.api.compute.executor.IExecution;
+import edu.iu.dsc.tws.api.compute.executor.IExecutionHook;
+import edu.iu.dsc.tws.api.compute.executor.IExecutor;
+import edu.iu.dsc.tws.api.compute.executor.INodeInstance;
+import edu.iu.dsc.tws.api.compute.executor.IParallelOperation;
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.executor.core.ExecutionRuntime;
+
+/**
+ * Streaming executor with a queue of instances for each thread and work stealing between the
+ * threads. The instances with the same task index are placed on the same thread, so a source
+ * and the compute tasks it directly feeds run on the same thread. An instance stolen by another
+ * thread goes back to its own thread after the turn.
+ * <p>
+ * In a turn an instance is executed until it has nothing to process or it is executed the
+ * batch size number of times. The batch size of an instance doubles when it still has work at
+ * the end of a turn and halves when it runs out of work early, up to
+ * {@link ExecutorContext#STREAM_MAX_BATCH}. Threads whose instances are idle park like in
+ * {@link BatchWorkStealingExecutor}.
+ */
+public class StreamingWorkStealingExecutor implements IExecutor {
+  private static final Logger LOG =
+      Logger.getLogger(StreamingWorkStealingExecutor.class.getName());
+
+  /**
+   * The time an idle thread parks first, the main thread never parks longer than this
+   */
+  private static final long MIN_PARK_NANOS = 10000L;
+
+  /**
+   * Number of threads to use
+   */
+  private int numThreads;
+
+  /**
+   * Number of threads
+   */
+  private ExecutorService threads;
+
+  /**
+   * Channel
+   */
+  private TWSChannel channel;
+
+  /**
+   * The configuration
+   */
+  private Config config;
+
+  /**
+   * worker id
+   */
+  private int workerId;
+
+  /**
+   * not stopped
+   */
+  protected volatile boolean notStopped = true;
+
+  /*
+   * clean up is called, so we cannot cleanup again
+   */
+  private boolean cleanUpCalled = false;
+
+  /**
+   * Wait for threads to finish
+   */
+  private CountDownLatch doneSignal;
+
+  /**
+   * Execution plan
+   */
+  private ExecutionPlan plan;
+
+  /**
+   * The execution hook
+   */
+  protected IExecutionHook executionHook;
+
+  /**
+   * The instance queues of the threads
+   */
+  private WorkStealingQueues<ScheduledInstance> queues;
+
+  /**
+   * Wakes up the parked threads
+   */
+  private IdleSignal idleSignal = new IdleSignal();
+
+  /**
+   * Maximum time to park an idle thread
+   */
+  private long maxParkNanos;
+
+  /**
+   * Maximum number of executions of an instance in a turn
+   */
+  private int maxBatch;
+
+  /**
+   * Number of instances that completed while waiting for the operations to finish
+   */
+  private AtomicInteger completedInstances = new AtomicInteger(0);
+
+  /**
+   * Cpu and park times of the executions
+   */
+  private ExecutionStats stats = new ExecutionStats("StreamingWorkStealingExecutor");
+
+  public StreamingWorkStealingExecutor(Config cfg, int workerId, TWSChannel channel,
+                                       ExecutionPlan executionPlan, IExecutionHook hook) {
+    this.workerId = workerId;
+    this.config = cfg;
+    this.channel = channel;
+    this.numThreads = ExecutorContext.threadsPerContainer(config);
+    if (numThreads > 1) {
+      this.threads = Executors.newFixedThreadPool(numThreads - 1,
+          new ThreadFactoryBuilder().setNameFormat("executor-%d").setDaemon(true).build());
+    }
+    this.plan = executionPlan;
+    this.executionHook = hook;
+    this.maxParkNanos = ExecutorContext.idleParkMaxNanos(config);
+    this.maxBatch = Math.max(1, ExecutorContext.streamMaxBatch(config));
+    this.queues = new WorkStealingQueues<>(numThreads);
+    this.channel.addCompletionListener(idleSignal);
+  }
+
+  public boolean execute() {
+    executionHook.beforeExecution();
+    // lets create the runtime object
+    ExecutionRuntime runtime = new ExecutionRuntime(ExecutorContext.jobName(config), plan, channel);
+    // updated config
+    this.config = Config.newBuilder().putAll(config).
+        put(ExecutorContext.TWISTER2_RUNTIME_OBJECT, runtime).build();
+
+    // go through the instances
+    return runExecution();
+  }
+
+  public IExecution iExecute() {
+    executionHook.beforeExecution();
+    // lets create the runtime object
+    ExecutionRuntime runtime = new ExecutionRuntime(ExecutorContext.jobName(config), plan, channel);
+    // updated config
+    this.config = Config.newBuilder().putAll(config).
+        put(ExecutorContext.TWISTER2_RUNTIME_OBJECT, runtime).build();
+
+    // go through the instances
+    return runIExecution();
+  }
+
+  @Override
+  public void close() {
+    channel.removeCompletionListener(idleSignal);
+    if (threads != null) {
+      threads.shutdown();
+    }
+  }
+
+  @Override
+  public ExecutionPlan getExecutionPlan() {
+    return plan;
+  }
+
+  public boolean isNotStopped() {
+    return notStopped;
+  }
+
+  /**
+   * Execution Method for Streaming Tasks
+   */
+  public boolean runExecution() {
+    Map<Integer, INodeInstance> nodes = plan.getNodes();
+
+    if (nodes.size() == 0) {
+      LOG.warning(String.format("Worker %d has zero assigned tasks, you may "
+          + "have more workers than tasks", workerId));
+      return true;
+    }
+
+    Worker worker = schedule(nodes, false);
+    // we progress until the execution is stopped
+    while (isNotStopped()) {
+      channel.progress();
+      // the main thread call the run method of the 0th worker
+      worker.runOnce();
+    }
+
+    cleanUp(worker);
+    return true;
+  }
+
+  /**
+   * Place the instances on their threads and start the threads
+   *
+   * @param nodes the instances
+   * @param waitFor weather we are waiting for the operations to complete
+   * @return the worker to be run by the main thread
+   */
+  private Worker schedule(Map<Integer, INodeInstance> nodes, boolean waitFor) {
+    List<INodeInstance> tasks = new ArrayList<>(nodes.values());
+    if (!waitFor) {
+      // prepare the tasks
+      for (INodeInstance node : tasks) {
+        node.prepare(config);
+      }
+    }
+
+    queues.clear();
+    for (INodeInstance node : tasks) {
+      ScheduledInstance instance = new ScheduledInstance(node, node.getIndex() % numThreads);
+      queues.offer(instance.home, instance);
+    }
+    completedInstances.set(0);
+    stats.start();
+
+    doneSignal = new CountDownLatch(numThreads - 1);
+    Worker mainWorker = new Worker(0, tasks.size(), waitFor);
+    for (int i = 1; i < numThreads; i++) {
+      threads.submit(new Worker(i, tasks.size(), waitFor));
+    }
+    return mainWorker;
+  }
+
+  @Override
+  public boolean execute(boolean close) {
+    return execute();
+  }
+
+  private void cleanUp(Worker mainWorker) {
+    // lets wait for thread to finish
+    awaitWorkers(mainWorker, "execute");
+
+    // clear the finished instances
+    cleanUpCalled = true;
+    // after execution
+    executionHook.afterExecution();
+  }
+
+  private void awaitWorkers(Worker mainWorker, String phase) {
+    // wake up the parked threads so that they see the stop
+    idleSignal.signal();
+    try {
+      doneSignal.await();
+    } catch (InterruptedException e) {
+      throw new RuntimeException("Interrupted", e);
+    }
+
+    mainWorker.finish();
+    if (LOG.isLoggable(Level.FINE)) {
+      stats.report(LOG, phase, queues.getSteals());
+    }
+  }
+
+  public IExecution runIExecution() {
+    Map<Integer, INodeInstance> nodes = plan.getNodes();
+
+    if (nodes.size() == 0) {
+      LOG.warning(String.format("Worker %d has zero assigned tasks, you may "
+          + "have more workers than tasks", workerId));
+      return new NullExecutor();
+    }
+
+    Worker worker = schedule(nodes, false);
+    return new StreamExecution(plan, nodes, worker);
+  }
+
+  @Override
+  public boolean closeExecution() {
+    Map<Integer, INodeInstance> nodes = plan.getNodes();
+
+    if (nodes.size() == 0) {
+      LOG.warning(String.format("Worker %d has zero assigned tasks, you may "
+          + "have more workers than tasks", workerId));
+      return true;
+    }
+
+    Worker worker = schedule(nodes, true);
+    // we progress until all the channel finish
+    while (isNotStopped() && completedInstances.get() != nodes.size()) {
+      channel.progress();
+      worker.runOnce();
+    }
+
+    // at this point we are going to reset and close the operations
+    close(plan, nodes, worker);
+
+    return true;
+  }
+
+  private void close(ExecutionPlan executionPlan, Map<Integer, INodeInstance> nodes,
+                     Worker mainWorker) {
+    // lets wait for thread to finish
+    awaitWorkers(mainWorker, "close");
+
+    List<IParallelOperation> ops = executionPlan.getParallelOperations();
+    resetNodes(nodes, ops);
+
+    // clean up the instances
+    for (INodeInstance node : nodes.values()) {
+      node.close();
+    }
+
+    // lets close the operations
+    for (IParallelOperation op : ops) {
+      op.close();
+    }
+
+    executionHook.onClose(this);
+    // clear the finished instances
+    cleanUpCalled = true;
+  }
+
+  private void resetNodes(Map<Integer, INodeInstance> nodes, List<IParallelOperation> ops) {
+    // clean up the instances
+    for (INodeInstance node : nodes.values()) {
+      node.reset();
+    }
+
+    // lets close the operations
+    for (IParallelOperation op : ops) {
+      op.reset();
+    }
+  }
+
+  /**
+   * An instance with the thread it belongs to and its current batch size
+   */
+  private static final class ScheduledInstance {
+    private final INodeInstance node;
+
+    /**
+     * The thread this instance goes back to after a turn
+     */
+    private final int home;
+
+    /**
+     * Number of times to execute the instance in the next turn
+     */
+    private int batch = 1;
+
+    ScheduledInstance(INodeInstance node, int home) {
+      this.node = node;
+      this.home = home;
+    }
+  }
+
+  protected class Worker implements Runnable {
+    /**
+     * Index of the thread, the main thread is 0
+     */
+    private int index;
+
+    /**
+     * Total number of instances
+     */
+    private int total;
+
+    /**
+     * Weather we are waiting for the operations to complete instead of executing the instances
+     */
+    private boolean waitFor;
+
+    /**
+     * Number of idle turns after the last progress
+     */
+    private int idleCount;
+
+    /**
+     * The time to park next
+     */
+    private long parkNanos = MIN_PARK_NANOS;
+
+    /**
+     * Maximum time this thread parks
+     */
+    private long maxPark;
+
+    /**
+     * Cpu time of the thread at the start
+     */
+    private long cpuStart;
+
+    /**
+     * Total time parked
+     */
+    private long parkedTime;
+
+    public Worker(int index, int total, boolean waitFor) {
+      this.index = index;
+      this.total = total;
+      this.waitFor = waitFor;
+      this.maxPark = index == 0 ? Math.min(MIN_PARK_NANOS, maxParkNanos) : maxParkNanos;
+      this.cpuStart = ExecutionStats.currentThreadCpuTime();
+    }
+
+    @Override
+    public void run() {
+      cpuStart = ExecutionStats.currentThreadCpuTime();
+      try {
+        while (isNotStopped() && (!waitFor || completedInstances.get() != total)) {
+          runOnce();
+        }
+      } catch (Throwable t) {
+        LOG.log(Level.SEVERE, String.format("%d Error in executor", workerId), t);
+        throw new RuntimeException("Error occurred in execution of task", t);
+      } finally {
+        finish();
+        doneSignal.countDown();
+      }
+    }
+
+    /**
+     * Record the times of this thread, must be called by the thread running this worker
+     */
+    private void finish() {
+      stats.addThread(ExecutionStats.currentThreadCpuTime() - cpuStart, parkedTime);
+    }
+
+    private void runOnce() {
+      // read the epoch before looking for work, so that we don't miss a signal
+      long seen = idleSignal.epoch();
+      ScheduledInstance instance = queues.poll(index);
+      if (instance == null) {
+        park(seen);
+        return;
+      }
+
+      if (waitFor) {
+        if (instance.node.isComplete()) {
+          completedInstances.incrementAndGet();
+          progressed();
+        } else {
+          queues.offer(instance.home, instance);
+          idle(seen);
+        }
+        return;
+      }
+
+      int executions = 0;
+      boolean needsFurther = true;
+      boolean worked = false;
+      while (needsFurther && executions < instance.batch) {
+        needsFurther = instance.node.execute();
+        worked |= !instance.node.isIdle();
+        executions++;
+      }
+      // adapt the batch size to the amount of work the instance has
+      if (needsFurther) {
+        instance.batch = Math.min(instance.batch * 2, maxBatch);
+      } else if (executions < instance.batch) {
+        instance.batch = Math.max(instance.batch / 2, 1);
+      }
+      queues.offer(instance.home, instance);
+
+      if (worked) {
+        progressed();
+      } else {
+        idle(seen);
+      }
+    }
+
+    private void idle(long seen) {
+      if (++idleCount > queues.size(index)) {
+        // we went through all our instances without any work
+        park(seen);
+      }
+    }
+
+    private void progressed() {
+      idleCount = 0;
+      parkNanos = MIN_PARK_NANOS;
+      // the instances of the other threads may have messages now
+      idleSignal.signal();
+    }
+
+    private void park(long seen) {
+      idleCount = 0;
+      if (maxPark <= 0) {
+        return;
+      }
+      parkedTime += idleSignal.park(seen, parkNanos);
+      parkNanos = Math.min(parkNanos * 2, maxPark);
+    }
+  }
+
+  private class StreamExecution implements IExecution {
+    /**
+     * Keep the node map
+     */
+    private Map<Integer, INodeInstance> nodeMap;
+
+    private ExecutionPlan executionPlan;
+
+    private boolean taskExecution = true;
+
+    private Worker mainWorker;
+
+    StreamExecution(ExecutionPlan executionPlan, Map<Integer, INodeInstance> nodeMap,
+                    Worker mainWorker) {
+      this.nodeMap = nodeMap;
+      this.executionPlan = executionPlan;
+      this.mainWorker = mainWorker;
+    }
+
+    @Override
+    public boolean waitForCompletion() {
+      // we progress until the execution is stopped
+      while (isNotStopped()) {
+        channel.progress();
+        mainWorker.runOnce();
+      }
+
+      cleanUp(mainWorker);
+
+      // now wait for it
+      closeExecution();
+      return true;
+    }
+
+    @Override
+    public boolean progress() {
+      if (taskExecution) {
+        // we progress until the execution is stopped
+        if (isNotStopped()) {
+          channel.progress();
+          mainWorker.runOnce();
+          return true;
+        }
+        // clean up
+        cleanUp(mainWorker);
+        cleanUpCalled = false;
+        // if we finish, lets schedule
+        mainWorker = schedule(nodeMap, true);
+        taskExecution = false;
+      }
+
+      // we progress until all the channel finish
+      channel.progress();
+      mainWorker.runOnce();
+      return false;
+    }
+
+    public void close() {
+      if (isNotStopped()) {
+        throw new RuntimeException("We need to stop the execution before close");
+      }
+
+      if (!cleanUpCalled) {
+        StreamingWorkStealingExecutor.this.close(executionPlan, nodeMap, mainWorker);
+        executionHook.onClose(StreamingWorkStealingExecutor.this);
+        cleanUpCalled = true;
+      } else {
+        throw new RuntimeException("Close is called on a already closed execution");
+      }
+    }
+
+    @Override
+    public void stop() {
+      notStopped = false;
+      idleSignal.signal();
+    }
+  }
+}
@@ -0,0 +1,110 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.executor.threading;
+
+import java.util.Collection;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A queue of node instances for each executor thread. A thread takes instances from the head of
+ * its own queue and puts them back to the tail after executing, when its own queue is empty it
+ * steals from the tail of the other queues. An instance is always in at most one queue, so only
+ * one thread executes it at a time.
+ *
+ * @param <T> the type of the instances
+ */
+public class WorkStealingQueues<T> {
+  /**
+   * Queue of each thread
+   */
+  private final Deque<T>[] queues;
+
+  /**
+   * Number of instances stolen from other threads
+   */
+  private final AtomicLong steals = new AtomicLong();
+
+  @SuppressWarnings("unchecked")
+  public WorkStealingQueues(int numThreads) {
+    queues = new Deque[numThreads];
+    for (int i = 0; i < numThreads; i++) {
+      queues[i] = new ConcurrentLinkedDeque<>();
+    }
+  }
+
+  /**
+   * Distribute the instances among the threads in round robin order
+   *
+   * @param instances the instances
+   */
+  public void assign(Collection<T> instances) {
+    int i = 0;
+    for (T instance : instances) {
+      queues[i++ % queues.length].addLast(instance);
+    }
+  }
+
+  /**
+   * Get the next instance for the thread, stealing from other threads if its own queue is empty
+   *
+   * @param thread the thread index
+   * @return the instance or null if there are no instances available
+   */
+  public T poll(int thread) {
+    T instance = queues[thread].pollFirst();
+    if (instance != null) {
+      return instance;
+    }
+
+    for (int i = 1; i < queues.length; i++) {
+      instance = queues[(thread + i) % queues.length].pollLast();
+      if (instance != null) {
+        steals.incrementAndGet();
+        return instance;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Give back an instance that needs further execution
+   *
+   * @param thread the thread index
+   * @param instance the instance
+   */
+  public void offer(int thread, T instance) {
+    queues[thread].addLast(instance);
+  }
+
+  /**
+   * Number of instances in the queue of the thread
+   *
+   * @param thread the thread index
+   * @return number of instances
+   */
+  public int size(int thread) {
+    return queues[thread].size();
+  }
+
+  public long getSteals() {
+    return steals.get();
+  }
+
+  public void clear() {
+    for (Deque<T> q : queues) {
+      q.clear();
+    }
+    steals.set(0);
+  }
+}
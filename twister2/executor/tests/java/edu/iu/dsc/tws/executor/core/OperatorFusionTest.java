@@ -0,0 +1,301 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.executor.core;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.common.collect.Table;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import edu.iu.dsc.tws.api.comms.Communicator;
+import edu.iu.dsc.tws.api.comms.channel.TWSChannel;
+import edu.iu.dsc.tws.api.comms.messaging.types.MessageTypes;
+import edu.iu.dsc.tws.api.compute.IMessage;
+import edu.iu.dsc.tws.api.compute.OperationNames;
+import edu.iu.dsc.tws.api.compute.TaskMessage;
+import edu.iu.dsc.tws.api.compute.executor.ExecutionPlan;
+import edu.iu.dsc.tws.api.compute.executor.ExecutorContext;
+import edu.iu.dsc.tws.api.compute.executor.INodeInstance;
+import edu.iu.dsc.tws.api.compute.graph.ComputeGraph;
+import edu.iu.dsc.tws.api.compute.graph.Edge;
+import edu.iu.dsc.tws.api.compute.graph.OperationMode;
+import edu.iu.dsc.tws.api.compute.graph.Vertex;
+import edu.iu.dsc.tws.api.compute.nodes.BaseCompute;
+import edu.iu.dsc.tws.api.compute.nodes.BaseSource;
+import edu.iu.dsc.tws.api.compute.schedule.elements.Resource;
+import edu.iu.dsc.tws.api.compute.schedule.elements.TaskInstancePlan;
+import edu.iu.dsc.tws.api.compute.schedule.elements.TaskSchedulePlan;
+import edu.iu.dsc.tws.api.compute.schedule.elements.WorkerSchedulePlan;
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.checkpointing.util.CheckpointingContext;
+import edu.iu.dsc.tws.executor.comms.batch.FusedBatchOperation;
+import edu.iu.dsc.tws.executor.core.batch.ChainedBatchInstance;
+import edu.iu.dsc.tws.proto.jobmaster.JobMasterAPI;
+
+/**
+ * Builds the execution plan of a single worker for a source, a compute and a sink connected with
+ * a pipe and a direct edge, with and without fusing the edges.
+ */
+public class OperatorFusionTest {
+  private static final int PARALLELISM = 2;
+
+  private static final int VALUES = 100;
+
+  private static final int MAX_ITERATIONS = 100000;
+
+  /**
+   * The values received by the sink instances of each run, by the run and the task index
+   */
+  private static final Map<String, Map<Integer, List<Integer>>> RESULTS =
+      new ConcurrentHashMap<>();
+
+  private static class Source extends BaseSource {
+    private static final long serialVersionUID = 1L;
+
+    private int count;
+
+    @Override
+    public void execute() {
+      int value = context.taskIndex() * VALUES + count++;
+      if (count < VALUES) {
+        context.write("pipe", value);
+      } else {
+        context.writeEnd("pipe", value);
+      }
+    }
+  }
+
+  private static class Doubler extends BaseCompute<Integer> {
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public boolean execute(IMessage<Integer> content) {
+      return context.write("direct", content.getContent() * 2);
+    }
+  }
+
+  private static class Sink extends BaseCompute<Iterator<Integer>> {
+    private static final long serialVersionUID = 1L;
+
+    private String run;
+
+    Sink(String run) {
+      this.run = run;
+    }
+
+    @Override
+    public boolean execute(IMessage<Iterator<Integer>> content) {
+      List<Integer> values = RESULTS.computeIfAbsent(run, r -> new ConcurrentHashMap<>())
+          .computeIfAbsent(context.taskIndex(), i -> Collections.synchronizedList(
+              new ArrayList<>()));
+      content.getContent().forEachRemaining(values::add);
+      return true;
+    }
+  }
+
+  private static Config config(boolean fuse) {
+    return Config.newBuilder()
+        .put(ExecutorContext.FUSE_OPERATORS, fuse)
+        .build();
+  }
+
+  private static ComputeGraph graph(String run) {
+    ComputeGraph graph = new ComputeGraph();
+    graph.setOperationMode(OperationMode.BATCH);
+    graph.setGraphName(run);
+    Vertex source = new Vertex("source", new Source(), PARALLELISM);
+    Vertex compute = new Vertex("compute", new Doubler(), PARALLELISM);
+    Vertex sink = new Vertex("sink", new Sink(run), PARALLELISM);
+    graph.addTaskVertex("source", source);
+    graph.addTaskVertex("compute", compute);
+    graph.addTaskVertex("sink", sink);
+    graph.addTaskEdge(source, compute,
+        new Edge("pipe", OperationNames.PIPE, MessageTypes.INTEGER));
+    graph.addTaskEdge(compute, sink,
+        new Edge("direct", OperationNames.DIRECT, MessageTypes.INTEGER));
+    return graph;
+  }
+
+  private static TaskSchedulePlan schedule() {
+    Resource resource = new Resource(1.0, 1.0, 1.0);
+    Set<TaskInstancePlan> instances = new HashSet<>();
+    List<String> tasks = Arrays.asList("source", "compute", "sink");
+    for (int task = 0; task < tasks.size(); task++) {
+      for (int index = 0; index < PARALLELISM; index++) {
+        instances.add(new TaskInstancePlan(tasks.get(task), task, index, resource));
+      }
+    }
+    Set<WorkerSchedulePlan> workers = new HashSet<>();
+    workers.add(new WorkerSchedulePlan(0, instances, resource));
+    return new TaskSchedulePlan(0, workers);
+  }
+
+  /**
+   * A channel of a single worker, the messages between the tasks never leave the worker
+   */
+  private static TWSChannel channel() {
+    TWSChannel channel = Mockito.mock(TWSChannel.class);
+    Mockito.when(channel.createBuffer(Mockito.anyInt())).thenAnswer(
+        invocation -> ByteBuffer.allocate((Integer) invocation.getArguments()[0]));
+    Mockito.when(channel.receiveMessage(Mockito.anyInt(), Mockito.anyInt(), Mockito.anyInt(),
+        Mockito.any(), Mockito.any())).thenReturn(true);
+    Mockito.when(channel.isComplete()).thenReturn(true);
+    return channel;
+  }
+
+  private static ExecutionPlan build(String run, Config config) {
+    List<JobMasterAPI.WorkerInfo> workers = new ArrayList<>();
+    workers.add(JobMasterAPI.WorkerInfo.newBuilder()
+        .setWorkerID(0)
+        .setNodeInfo(JobMasterAPI.NodeInfo.newBuilder().setNodeIP("localhost"))
+        .build());
+    Communicator communicator = new Communicator(config, channel(),
+        System.getProperty("java.io.tmpdir"));
+    return new ExecutionPlanBuilder(0, workers, communicator, null)
+        .build(config, graph(run), schedule());
+  }
+
+  /**
+   * Execute the instances of the plan until all of them are done
+   */
+  private static Map<Integer, List<Integer>> execute(String run, ExecutionPlan plan,
+                                                     Config config) {
+    for (INodeInstance node : plan.getNodes().values()) {
+      node.prepare(config);
+    }
+    Set<INodeInstance> running = new HashSet<>(plan.getNodes().values());
+    for (int i = 0; i < MAX_ITERATIONS && !running.isEmpty(); i++) {
+      running.removeIf(node -> !node.execute());
+    }
+    Assert.assertTrue("The instances should finish", running.isEmpty());
+
+    Map<Integer, List<Integer>> results = new TreeMap<>();
+    RESULTS.remove(run).forEach((index, values) -> {
+      List<Integer> sorted = new ArrayList<>(values);
+      Collections.sort(sorted);
+      results.put(index, sorted);
+    });
+    return results;
+  }
+
+  @Test
+  public void testFusedResultsEqualUnfused() {
+    Config unfusedConfig = config(false);
+    ExecutionPlan unfused = build("unfused", unfusedConfig);
+    Assert.assertEquals(3 * PARALLELISM, unfused.getNodes().size());
+    Map<Integer, List<Integer>> expected = execute("unfused", unfused, unfusedConfig);
+
+    Config fusedConfig = config(true);
+    ExecutionPlan fused = build("fused", fusedConfig);
+    Assert.assertEquals(PARALLELISM, fused.getNodes().size());
+    Map<Integer, List<Integer>> actual = execute("fused", fused, fusedConfig);
+
+    Assert.assertEquals(PARALLELISM, expected.size());
+    for (int index = 0; index < PARALLELISM; index++) {
+      List<Integer> values = new ArrayList<>();
+      for (int i = 0; i < VALUES; i++) {
+        values.add((index * VALUES + i) * 2);
+      }
+      Assert.assertEquals(values, expected.get(index));
+    }
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void testFusedPlanKeepsAllNodes() {
+    Config config = config(true);
+    ExecutionPlan plan = build("nodes", config);
+
+    // the data of the tasks is collected and distributed through all the task instances
+    Assert.assertEquals(3 * PARALLELISM, plan.getAllNodes().size());
+    for (String task : Arrays.asList("source", "compute", "sink")) {
+      Map<Integer, INodeInstance> instances = plan.getNodes(task);
+      Assert.assertEquals(task, PARALLELISM, instances.size());
+      for (Map.Entry<Integer, INodeInstance> e : instances.entrySet()) {
+        Assert.assertSame(e.getValue(), plan.getAllNodes().get(e.getKey()));
+      }
+    }
+
+    Set<INodeInstance> chained = new HashSet<>();
+    for (INodeInstance node : plan.getNodes().values()) {
+      Assert.assertTrue(node instanceof ChainedBatchInstance);
+      INodeInstance[] chain = ((ChainedBatchInstance) node).getChain();
+      Assert.assertEquals(3, chain.length);
+      // an instance comes after the instance it receives from
+      Assert.assertSame(plan.getNodes("source").get(chain[0].getId()), chain[0]);
+      Assert.assertSame(plan.getNodes("compute").get(chain[1].getId()), chain[1]);
+      Assert.assertSame(plan.getNodes("sink").get(chain[2].getId()), chain[2]);
+      chained.addAll(Arrays.asList(chain));
+    }
+    Assert.assertEquals(new HashSet<>(plan.getAllNodes().values()), chained);
+    for (Object op : plan.getParallelOperations()) {
+      Assert.assertTrue(op instanceof FusedBatchOperation);
+    }
+  }
+
+  @Test
+  public void testNotFusedWithCheckpointing() {
+    Config config = Config.newBuilder()
+        .put(ExecutorContext.FUSE_OPERATORS, true)
+        .put(CheckpointingContext.CHECKPOINTING_ENABLED, true)
+        .build();
+    Table<String, String, Edge> fused = OperatorFusion.fusableEdges(config, graph("checkpoint"),
+        schedule());
+    Assert.assertTrue(fused.isEmpty());
+    Assert.assertEquals(2, OperatorFusion.fusableEdges(config(true), graph("fused"),
+        schedule()).size());
+  }
+
+  @Test
+  public void testBarrierForwardedAfterCollectedValues() {
+    Edge edge = new Edge("direct", OperationNames.DIRECT, MessageTypes.INTEGER);
+    FusedBatchOperation op = new FusedBatchOperation(new HashSet<>(Arrays.asList(0, 1)),
+        new HashSet<>(Arrays.asList(2, 3)), edge);
+    BlockingQueue<IMessage> queue = new ArrayBlockingQueue<>(4);
+    List<byte[]> barriers = new ArrayList<>();
+    op.register(2, queue);
+    op.registerSync(2, (e, value) -> barriers.add(value));
+
+    op.send(0, new TaskMessage<>(1), 0);
+    byte[] barrier = {1, 2};
+    Assert.assertTrue(op.sendBarrier(0, barrier));
+    // values sent after the barrier are delivered with the next sync
+    op.send(0, new TaskMessage<>(2), 0);
+    Assert.assertEquals(1, queue.size());
+    Assert.assertEquals(Collections.singletonList(barrier), barriers);
+
+    op.finish(0);
+    Assert.assertEquals(2, queue.size());
+    Assert.assertEquals(Arrays.asList(barrier, null), barriers);
+    List<Object> delivered = new ArrayList<>();
+    for (IMessage message : queue) {
+      ((Iterator<?>) message.getContent()).forEachRemaining(delivered::add);
+    }
+    Assert.assertEquals(Arrays.asList(1, 2), delivered);
+    Assert.assertTrue(op.isComplete());
+  }
+}
@@ -0,0 +1,213 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.executor.core.batch;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.iu.dsc.tws.api.comms.BaseOperation;
+import edu.iu.dsc.tws.api.compute.IMessage;
+import edu.iu.dsc.tws.api.compute.TaskContext;
+import edu.iu.dsc.tws.api.compute.TaskMessage;
+import edu.iu.dsc.tws.api.compute.executor.IParallelOperation;
+import edu.iu.dsc.tws.api.compute.executor.ISync;
+import edu.iu.dsc.tws.api.compute.nodes.ICompute;
+import edu.iu.dsc.tws.api.compute.schedule.ExecutionStatistics;
+import edu.iu.dsc.tws.api.config.Config;
+
+public class TaskBatchInstanceTest {
+  private static final String EDGE = "edge";
+
+  private BlockingQueue<IMessage> inQueue;
+
+  private RemoteOperation operation;
+
+  private TaskBatchInstance instance;
+
+  /**
+   * An operation waiting for the other workers, its progress always asks for more progress
+   */
+  private static class RemoteOperation implements IParallelOperation {
+    private BlockingQueue<IMessage> target;
+
+    private boolean complete;
+
+    private IMessage deliver;
+
+    @Override
+    public boolean send(int source, IMessage message, int flags) {
+      return true;
+    }
+
+    @Override
+    public void register(int targetTask, BlockingQueue<IMessage> queue) {
+      this.target = queue;
+    }
+
+    @Override
+    public void registerSync(int targetTask, ISync sync) {
+    }
+
+    @Override
+    public boolean progress() {
+      if (deliver != null) {
+        target.offer(deliver);
+        deliver = null;
+      }
+      return !complete;
+    }
+
+    @Override
+    public boolean isComplete() {
+      return complete;
+    }
+
+    @Override
+    public BaseOperation getOp() {
+      return null;
+    }
+  }
+
+  private static class Compute implements ICompute<Object> {
+    private int executed;
+
+    @Override
+    public boolean execute(IMessage<Object> content) {
+      executed++;
+      return true;
+    }
+
+    @Override
+    public void prepare(Config cfg, TaskContext context) {
+    }
+  }
+
+  @Before
+  public void setUp() {
+    Config config = Config.newBuilder().build();
+    inQueue = new ArrayBlockingQueue<>(16);
+    Map<String, Set<String>> inEdges = new HashMap<>();
+    inEdges.put(EDGE, new HashSet<>(Collections.singleton("source")));
+    instance = new TaskBatchInstance(new Compute(), inQueue, new ArrayBlockingQueue<>(16),
+        config, "compute", 0, 0, 0, 1, 0, new HashMap<>(), inEdges, new HashMap<>(), null,
+        null, "graph", 0);
+    operation = new RemoteOperation();
+    operation.register(0, inQueue);
+    instance.registerInParallelOperation(EDGE, operation);
+    instance.prepare(config);
+  }
+
+  @Test
+  public void testIdleWhileWaitingForRemoteSync() {
+    for (int i = 0; i < 3; i++) {
+      Assert.assertTrue(instance.execute());
+      Assert.assertTrue("Waiting on the network is not work", instance.isIdle());
+    }
+  }
+
+  @Test
+  public void testNotIdleWhenMessagesArrive() {
+    instance.execute();
+    Assert.assertTrue(instance.isIdle());
+
+    // the message is delivered while progressing, so it is processed in the next execution
+    operation.deliver = new TaskMessage<>(1, EDGE, 0);
+    instance.execute();
+    Assert.assertFalse(instance.isIdle());
+    instance.execute();
+    Assert.assertFalse(instance.isIdle());
+    instance.execute();
+    Assert.assertTrue(instance.isIdle());
+  }
+
+  @Test
+  public void testNotIdleOnSyncAndCompletion() {
+    instance.execute();
+    Assert.assertTrue(instance.isIdle());
+
+    instance.sync(EDGE, new byte[0]);
+    instance.execute();
+    Assert.assertFalse(instance.isIdle());
+    instance.execute();
+    Assert.assertTrue(instance.isIdle());
+
+    // the remote sync finished, the instance finishes its execution
+    operation.complete = true;
+    instance.execute();
+    Assert.assertFalse(instance.isIdle());
+    Assert.assertFalse(instance.execute());
+  }
+
+  /**
+   * Execute an instance of the graph that processes a message and sends a message
+   */
+  private static void executeOnce(String graph) {
+    Config config = Config.newBuilder().build();
+    BlockingQueue<IMessage> in = new ArrayBlockingQueue<>(16);
+    BlockingQueue<IMessage> out = new ArrayBlockingQueue<>(16);
+    Map<String, Set<String>> inEdges = new HashMap<>();
+    inEdges.put(EDGE, new HashSet<>(Collections.singleton("source")));
+    Map<String, String> outEdges = new HashMap<>();
+    outEdges.put("out", "sink");
+    TaskBatchInstance measured = new TaskBatchInstance(new Compute() {
+      @Override
+      public boolean execute(IMessage<Object> content) {
+        try {
+          Thread.sleep(1);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return true;
+      }
+    }, in, out, config, "compute", 0, 0, 0, 1, 0, new HashMap<>(), inEdges, outEdges, null,
+        null, graph, 0);
+    RemoteOperation input = new RemoteOperation();
+    input.register(0, in);
+    measured.registerInParallelOperation(EDGE, input);
+    measured.registerOutParallelOperation("out", new RemoteOperation());
+    measured.prepare(config);
+
+    in.offer(new TaskMessage<>(1, EDGE, 0));
+    out.offer(new TaskMessage<>(2, "out", 0));
+    measured.execute();
+    Assert.assertTrue(in.isEmpty());
+    Assert.assertTrue(out.isEmpty());
+  }
+
+  @Test
+  public void testNotMeasuredByDefault() {
+    executeOnce("not-measured");
+    Assert.assertTrue(ExecutionStatistics.takeLocal("not-measured").isEmpty());
+  }
+
+  @Test
+  public void testMeasuredWhenRecorded() {
+    ExecutionStatistics.record("measured");
+    try {
+      executeOnce("measured");
+      ExecutionStatistics.setGlobal("measured", ExecutionStatistics.takeLocal("measured"));
+      Assert.assertEquals(1, ExecutionStatistics.getSentMessages("measured", "out"));
+      Assert.assertTrue(ExecutionStatistics.getBusyTime("measured", "compute", 0) > 0);
+    } finally {
+      ExecutionStatistics.clear("measured");
+    }
+  }
+}
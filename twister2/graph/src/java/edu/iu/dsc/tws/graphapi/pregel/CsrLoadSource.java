@@ -0,0 +1,116 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.graphapi.pregel;
+
+import java.io.IOException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import edu.iu.dsc.tws.api.compute.TaskContext;
+import edu.iu.dsc.tws.api.compute.executor.ExecutorContext;
+import edu.iu.dsc.tws.api.compute.nodes.BaseSource;
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.api.data.Path;
+import edu.iu.dsc.tws.data.api.formatters.LocalFixedInputPartitioner;
+import edu.iu.dsc.tws.data.fs.io.InputSplit;
+import edu.iu.dsc.tws.dataset.DataSource;
+import edu.iu.dsc.tws.executor.core.ExecutionRuntime;
+
+/**
+ * Reads the adjacency lists of the graph and writes every line keyed by its source vertex, so
+ * that a keyed partition with {@link VertexPartitioner} sends it to the task owning the vertex.
+ * Each line starts with the integer vertex id followed by the targets, and the weights after
+ * each target for weighted graphs.
+ */
+public class CsrLoadSource extends BaseSource {
+  private static final Logger LOG = Logger.getLogger(CsrLoadSource.class.getName());
+
+  private static final long serialVersionUID = 5261437743130098527L;
+
+  /**
+   * DataSource to partition the lines
+   */
+  private DataSource<?, ?> source;
+
+  /**
+   * Edge name to write the lines
+   */
+  private String edgeName;
+
+  private String dataDirectory;
+
+  private int dsize;
+
+  public CsrLoadSource(String edgeName, String dataDirectory, int dsize) {
+    this.edgeName = edgeName;
+    this.dataDirectory = dataDirectory;
+    this.dsize = dsize;
+  }
+
+  @Override
+  public void execute() {
+    InputSplit<?> inputSplit = source.getNextSplit(context.taskIndex());
+    while (inputSplit != null) {
+      try {
+        while (!inputSplit.reachedEnd()) {
+          Object value = inputSplit.nextRecord(null);
+          if (value != null) {
+            String line = value.toString();
+            int vertex = firstVertex(line);
+            if (vertex >= 0) {
+              context.write(edgeName, vertex, line);
+            }
+          }
+        }
+        inputSplit = source.getNextSplit(context.taskIndex());
+      } catch (IOException e) {
+        LOG.log(Level.SEVERE, "Failed to read the input", e);
+      }
+    }
+    context.end(edgeName);
+  }
+
+  /**
+   * Parse the vertex id at the start of the line
+   *
+   * @return the id or -1 if the line is empty
+   */
+  private static int firstVertex(String line) {
+    int i = 0;
+    int length = line.length();
+    while (i < length && Character.isWhitespace(line.charAt(i))) {
+      i++;
+    }
+    if (i == length) {
+      return -1;
+    }
+
+    int vertex = 0;
+    for (; i < length && !Character.isWhitespace(line.charAt(i)); i++) {
+      int digit = Character.digit(line.charAt(i), 10);
+      if (digit < 0) {
+        throw new IllegalArgumentException("Vertex ids should be non negative integers: "
+            + line);
+      }
+      vertex = vertex * 10 + digit;
+    }
+    return vertex;
+  }
+
+  @Override
+  public void prepare(Config cfg, TaskContext ctx) {
+    super.prepare(cfg, ctx);
+    ExecutionRuntime runtime = (ExecutionRuntime) cfg.get(ExecutorContext.TWISTER2_RUNTIME_OBJECT);
+    this.source = runtime.createInput(cfg, ctx, new LocalFixedInputPartitioner(
+        new Path(dataDirectory), ctx.getParallelism(), cfg, dsize));
+  }
+}
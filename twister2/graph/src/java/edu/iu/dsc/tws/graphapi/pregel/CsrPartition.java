@@ -0,0 +1,255 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.graphapi.pregel;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * A partition of a graph in compressed sparse row format. The out edges of the local vertex
+ * <code>i</code> are the entries from <code>offsets[i]</code> to <code>offsets[i + 1]</code> of
+ * the target and weight arrays. Vertex values are kept in a primitive array indexed by the local
+ * index and the vertices that have not voted to halt are tracked in a bit set.
+ * <p>
+ * Local indexes are mapped to global vertex ids with {@link VertexPartitioner}.
+ */
+public final class CsrPartition implements Serializable {
+  private static final long serialVersionUID = -6349310127436718421L;
+
+  /**
+   * Index of this partition
+   */
+  private final int partition;
+
+  /**
+   * Number of partitions
+   */
+  private final int parallelism;
+
+  /**
+   * Number of vertices in the whole graph
+   */
+  private final int numVertices;
+
+  /**
+   * Start of the edges of each local vertex, with one extra entry for the end
+   */
+  private final int[] offsets;
+
+  /**
+   * Global ids of the edge targets
+   */
+  private final int[] targets;
+
+  /**
+   * Edge weights, null if the graph is not weighted
+   */
+  private final double[] weights;
+
+  /**
+   * Value of each local vertex
+   */
+  private final double[] values;
+
+  /**
+   * Vertices that have not voted to halt
+   */
+  private final BitSet active;
+
+  private CsrPartition(int partition, int parallelism, int numVertices, int[] offsets,
+                       int[] targets, double[] weights) {
+    this.partition = partition;
+    this.parallelism = parallelism;
+    this.numVertices = numVertices;
+    this.offsets = offsets;
+    this.targets = targets;
+    this.weights = weights;
+    this.values = new double[offsets.length - 1];
+    this.active = new BitSet(values.length);
+  }
+
+  public int getPartition() {
+    return partition;
+  }
+
+  public int getParallelism() {
+    return parallelism;
+  }
+
+  public int getNumVertices() {
+    return numVertices;
+  }
+
+  /**
+   * Number of vertices in this partition
+   */
+  public int getLocalVertices() {
+    return values.length;
+  }
+
+  /**
+   * Number of edges in this partition
+   */
+  public int getLocalEdges() {
+    return targets.length;
+  }
+
+  public int getVertexId(int local) {
+    return VertexPartitioner.vertexId(local, partition, parallelism);
+  }
+
+  public int getOutDegree(int local) {
+    return offsets[local + 1] - offsets[local];
+  }
+
+  /**
+   * Position of the first out edge of the vertex in the edge arrays
+   */
+  public int getEdgeStart(int local) {
+    return offsets[local];
+  }
+
+  public int getTarget(int edge) {
+    return targets[edge];
+  }
+
+  /**
+   * Weight of an edge, 1 if the graph is not weighted
+   */
+  public double getWeight(int edge) {
+    return weights != null ? weights[edge] : 1.0;
+  }
+
+  public double getValue(int local) {
+    return values[local];
+  }
+
+  public void setValue(int local, double value) {
+    values[local] = value;
+  }
+
+  public boolean isActive(int local) {
+    return active.get(local);
+  }
+
+  public void setActive(int local, boolean value) {
+    active.set(local, value);
+  }
+
+  /**
+   * The next active vertex starting from the given local index
+   *
+   * @return local index or -1 if there are no more active vertices
+   */
+  public int nextActive(int from) {
+    return active.nextSetBit(from);
+  }
+
+  /**
+   * Number of vertices that have not voted to halt
+   */
+  public int getActiveCount() {
+    return active.cardinality();
+  }
+
+  /**
+   * Builds a partition from edges given in any order. The edges are first collected in
+   * primitive arrays and then placed in their rows with a counting sort.
+   */
+  public static class Builder {
+    private final int partition;
+
+    private final int parallelism;
+
+    private final int numVertices;
+
+    private final boolean weighted;
+
+    private final int[] degrees;
+
+    private int[] sources = new int[1024];
+
+    private int[] targets = new int[1024];
+
+    private double[] weights;
+
+    private int edges;
+
+    public Builder(int partition, int parallelism, int numVertices, boolean weighted) {
+      this.partition = partition;
+      this.parallelism = parallelism;
+      this.numVertices = numVertices;
+      this.weighted = weighted;
+      this.degrees = new int[VertexPartitioner.localVertices(numVertices, partition,
+          parallelism)];
+      if (weighted) {
+        this.weights = new double[1024];
+      }
+    }
+
+    /**
+     * Add an edge
+     *
+     * @param source global id of the source, it should belong to this partition
+     * @param target global id of the target
+     * @param weight weight, ignored if the graph is not weighted
+     */
+    public void addEdge(int source, int target, double weight) {
+      if (source < 0 || source >= numVertices
+          || VertexPartitioner.owner(source, parallelism) != partition) {
+        throw new IllegalArgumentException("Vertex " + source
+            + " does not belong to partition " + partition);
+      }
+      if (target < 0 || target >= numVertices) {
+        throw new IllegalArgumentException("Vertex " + target + " is not in the range [0, "
+            + numVertices + ")");
+      }
+      if (edges == sources.length) {
+        int size = edges + (edges >> 1);
+        sources = Arrays.copyOf(sources, size);
+        targets = Arrays.copyOf(targets, size);
+        if (weighted) {
+          weights = Arrays.copyOf(weights, size);
+        }
+      }
+      int local = VertexPartitioner.localIndex(source, parallelism);
+      sources[edges] = local;
+      targets[edges] = target;
+      if (weighted) {
+        weights[edges] = weight;
+      }
+      degrees[local]++;
+      edges++;
+    }
+
+    public CsrPartition build() {
+      int[] offsets = new int[degrees.length + 1];
+      for (int i = 0; i < degrees.length; i++) {
+        offsets[i + 1] = offsets[i] + degrees[i];
+      }
+
+      int[] position = Arrays.copyOf(offsets, degrees.length);
+      int[] csrTargets = new int[edges];
+      double[] csrWeights = weighted ? new double[edges] : null;
+      for (int e = 0; e < edges; e++) {
+        int p = position[sources[e]]++;
+        csrTargets[p] = targets[e];
+        if (weighted) {
+          csrWeights[p] = weights[e];
+        }
+      }
+      return new CsrPartition(partition, parallelism, numVertices, offsets, csrTargets,
+          csrWeights);
+    }
+  }
+}
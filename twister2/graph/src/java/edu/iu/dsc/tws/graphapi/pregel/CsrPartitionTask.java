@@ -0,0 +1,136 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.graphapi.pregel;
+
+import java.util.Iterator;
+
+import edu.iu.dsc.tws.api.comms.structs.Tuple;
+import edu.iu.dsc.tws.api.compute.IMessage;
+import edu.iu.dsc.tws.api.compute.TaskContext;
+import edu.iu.dsc.tws.api.compute.modifiers.Collector;
+import edu.iu.dsc.tws.api.compute.modifiers.IONames;
+import edu.iu.dsc.tws.api.compute.nodes.BaseCompute;
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.api.dataset.DataPartition;
+import edu.iu.dsc.tws.dataset.partition.EntityPartition;
+
+/**
+ * Builds the {@link CsrPartition} of this task from the adjacency lines of the vertices it owns,
+ * sets the initial values of the program and creates an empty inbox for the first superstep.
+ */
+public class CsrPartitionTask extends BaseCompute implements Collector {
+  private static final long serialVersionUID = -3197248851720339405L;
+
+  private final VertexProgram program;
+
+  private final int numVertices;
+
+  private final boolean weighted;
+
+  private transient CsrPartition.Builder builder;
+
+  private transient CsrPartition partition;
+
+  public CsrPartitionTask(VertexProgram program, int numVertices, boolean weighted) {
+    this.program = program;
+    this.numVertices = numVertices;
+    this.weighted = weighted;
+  }
+
+  @Override
+  public void prepare(Config cfg, TaskContext ctx) {
+    super.prepare(cfg, ctx);
+    this.builder = new CsrPartition.Builder(ctx.taskIndex(), ctx.getParallelism(), numVertices,
+        weighted);
+  }
+
+  @Override
+  public boolean execute(IMessage message) {
+    if (message.getContent() instanceof Iterator) {
+      Iterator<?> it = (Iterator<?>) message.getContent();
+      while (it.hasNext()) {
+        Tuple<?, ?> tuple = (Tuple<?, ?>) it.next();
+        addLine(((Number) tuple.getKey()).intValue(), tuple.getValue().toString());
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Add the edges of a line, the first token is the source vertex
+   */
+  private void addLine(int vertex, String line) {
+    int length = line.length();
+    int i = skipToken(line, skipSpaces(line, 0));
+    while (true) {
+      int start = skipSpaces(line, i);
+      if (start == length) {
+        break;
+      }
+      i = skipToken(line, start);
+      int target = Integer.parseInt(line.substring(start, i));
+
+      double weight = 1.0;
+      if (weighted) {
+        start = skipSpaces(line, i);
+        if (start == length) {
+          throw new IllegalArgumentException("Missing the weight of the edge " + vertex
+              + " -> " + target);
+        }
+        i = skipToken(line, start);
+        weight = Double.parseDouble(line.substring(start, i));
+      }
+      builder.addEdge(vertex, target, weight);
+    }
+  }
+
+  private static int skipSpaces(String line, int from) {
+    int i = from;
+    while (i < line.length() && Character.isWhitespace(line.charAt(i))) {
+      i++;
+    }
+    return i;
+  }
+
+  private static int skipToken(String line, int from) {
+    int i = from;
+    while (i < line.length() && !Character.isWhitespace(line.charAt(i))) {
+      i++;
+    }
+    return i;
+  }
+
+  @Override
+  public DataPartition<?> get(String name) {
+    if (partition == null) {
+      partition = builder.build();
+      builder = null;
+      for (int local = 0; local < partition.getLocalVertices(); local++) {
+        int vertex = partition.getVertexId(local);
+        partition.setValue(local, program.initialValue(vertex, numVertices));
+        partition.setActive(local, program.isInitiallyActive(vertex));
+      }
+    }
+
+    if (PregelComputation.PARTITION.equals(name)) {
+      return new EntityPartition<>(partition);
+    } else if (PregelComputation.INBOX.equals(name)) {
+      return new EntityPartition<>(new MessageInbox(partition.getLocalVertices()));
+    }
+    return null;
+  }
+
+  @Override
+  public IONames getCollectibleNames() {
+    return IONames.declare(PregelComputation.PARTITION, PregelComputation.INBOX);
+  }
+}
@@ -0,0 +1,88 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.graphapi.pregel;
+
+import java.util.Iterator;
+
+import edu.iu.dsc.tws.api.comms.structs.Tuple;
+import edu.iu.dsc.tws.api.compute.IMessage;
+import edu.iu.dsc.tws.api.compute.TaskContext;
+import edu.iu.dsc.tws.api.compute.modifiers.Collector;
+import edu.iu.dsc.tws.api.compute.modifiers.IONames;
+import edu.iu.dsc.tws.api.compute.nodes.BaseCompute;
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.api.dataset.DataPartition;
+import edu.iu.dsc.tws.dataset.partition.EntityPartition;
+
+/**
+ * Receives the combined messages of the vertices owned by this task and keeps them in a
+ * {@link MessageInbox} for the next superstep. Two inboxes are used in turns, one is filled while
+ * the source reads the other one, so no memory is allocated per superstep.
+ */
+public class InboxTask extends BaseCompute implements Collector {
+  private static final long serialVersionUID = 1692485306312087735L;
+
+  private final int numVertices;
+
+  /**
+   * The inbox filled in this superstep
+   */
+  private transient MessageInbox filling;
+
+  /**
+   * The inbox given to the source in the previous superstep
+   */
+  private transient MessageInbox reading;
+
+  public InboxTask(int numVertices) {
+    this.numVertices = numVertices;
+  }
+
+  @Override
+  public void prepare(Config cfg, TaskContext ctx) {
+    super.prepare(cfg, ctx);
+    int localVertices = VertexPartitioner.localVertices(numVertices, ctx.taskIndex(),
+        ctx.getParallelism());
+    this.filling = new MessageInbox(localVertices);
+    this.reading = new MessageInbox(localVertices);
+  }
+
+  @Override
+  public boolean execute(IMessage message) {
+    if (message.getContent() instanceof Iterator) {
+      int parallelism = context.getParallelism();
+      Iterator<?> it = (Iterator<?>) message.getContent();
+      while (it.hasNext()) {
+        Tuple<?, ?> tuple = (Tuple<?, ?>) it.next();
+        int vertex = ((Number) tuple.getKey()).intValue();
+        filling.put(VertexPartitioner.localIndex(vertex, parallelism),
+            ((Number) tuple.getValue()).doubleValue());
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public DataPartition<?> get(String name) {
+    // the source has finished with the inbox of the previous superstep, reuse it
+    MessageInbox received = filling;
+    filling = reading;
+    filling.clear();
+    reading = received;
+    return new EntityPartition<>(received);
+  }
+
+  @Override
+  public IONames getCollectibleNames() {
+    return IONames.declare(PregelComputation.INBOX);
+  }
+}
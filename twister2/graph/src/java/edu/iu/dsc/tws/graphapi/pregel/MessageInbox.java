@@ -0,0 +1,69 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.graphapi.pregel;
+
+import java.io.Serializable;
+import java.util.BitSet;
+
+/**
+ * The combined messages received by the vertices of a partition in a superstep, indexed by
+ * the local index of the vertex. There is at most one message per vertex since the messages are
+ * combined while they are exchanged.
+ */
+public class MessageInbox implements Serializable {
+  private static final long serialVersionUID = 4417902918840113552L;
+
+  /**
+   * The message of each vertex
+   */
+  private final double[] messages;
+
+  /**
+   * Vertices that received a message
+   */
+  private final BitSet received;
+
+  public MessageInbox(int localVertices) {
+    this.messages = new double[localVertices];
+    this.received = new BitSet(localVertices);
+  }
+
+  public void put(int local, double message) {
+    messages[local] = message;
+    received.set(local);
+  }
+
+  public boolean hasMessage(int local) {
+    return received.get(local);
+  }
+
+  public double getMessage(int local) {
+    return messages[local];
+  }
+
+  /**
+   * The next vertex with a message starting from the given local index
+   *
+   * @return local index or -1 if there are no more messages
+   */
+  public int nextReceived(int from) {
+    return received.nextSetBit(from);
+  }
+
+  public int getCount() {
+    return received.cardinality();
+  }
+
+  public void clear() {
+    received.clear();
+  }
+}
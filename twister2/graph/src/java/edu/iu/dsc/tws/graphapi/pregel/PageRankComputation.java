@@ -0,0 +1,102 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.graphapi.pregel;
+
+import java.util.List;
+import java.util.logging.Logger;
+
+import edu.iu.dsc.tws.api.comms.Op;
+import edu.iu.dsc.tws.graphapi.api.WorkerParameter;
+
+/**
+ * PageRank on the vertex centric engine. The input has a vertex and its targets in each line.
+ * <p>
+ * The vertices send the change of their rank instead of the rank, so a vertex whose change is
+ * below the tolerance stops sending and halts, and it only runs again if a neighbour changes.
+ * The rank of the vertices without out edges is not distributed to the other vertices.
+ */
+public class PageRankComputation extends PregelComputation {
+  private static final Logger LOG = Logger.getLogger(PageRankComputation.class.getName());
+
+  private static final double DAMPING_FACTOR = 0.85;
+
+  private static final double TOLERANCE = 1e-6;
+
+  @Override
+  protected VertexProgram createProgram(WorkerParameter parameters) {
+    return new PageRankProgram(DAMPING_FACTOR, TOLERANCE / parameters.getDsize());
+  }
+
+  @Override
+  protected boolean isWeighted() {
+    return false;
+  }
+
+  @Override
+  protected void completed(int supersteps, List<CsrPartition> partitions) {
+    double total = 0;
+    for (CsrPartition partition : partitions) {
+      for (int local = 0; local < partition.getLocalVertices(); local++) {
+        total += partition.getValue(local);
+      }
+    }
+    LOG.info("Worker " + workerId + " sum of the pagerank values: " + total);
+  }
+
+  public static class PageRankProgram implements VertexProgram {
+    private static final long serialVersionUID = -2118349057232096541L;
+
+    private final double dampingFactor;
+
+    /**
+     * Changes smaller than this are not sent
+     */
+    private final double tolerance;
+
+    public PageRankProgram(double dampingFactor, double tolerance) {
+      this.dampingFactor = dampingFactor;
+      this.tolerance = tolerance;
+    }
+
+    @Override
+    public Op getCombiner() {
+      return Op.SUM;
+    }
+
+    @Override
+    public double initialValue(int vertex, int numVertices) {
+      return (1 - dampingFactor) / numVertices;
+    }
+
+    @Override
+    public boolean isInitiallyActive(int vertex) {
+      return true;
+    }
+
+    @Override
+    public void compute(VertexContext vertex, double message, boolean hasMessage) {
+      double delta;
+      if (vertex.getSuperstep() == 0) {
+        delta = vertex.getValue();
+      } else {
+        delta = hasMessage ? dampingFactor * message : 0;
+        vertex.setValue(vertex.getValue() + delta);
+      }
+
+      int degree = vertex.getOutDegree();
+      if (degree > 0 && delta > tolerance) {
+        vertex.sendToNeighbors(delta / degree);
+      }
+      vertex.voteToHalt();
+    }
+  }
+}
@@ -0,0 +1,187 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.graphapi.pregel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import edu.iu.dsc.tws.api.comms.Op;
+import edu.iu.dsc.tws.api.comms.messaging.types.MessageTypes;
+import edu.iu.dsc.tws.api.compute.executor.ExecutionPlan;
+import edu.iu.dsc.tws.api.compute.executor.IExecutor;
+import edu.iu.dsc.tws.api.compute.graph.ComputeGraph;
+import edu.iu.dsc.tws.api.compute.graph.OperationMode;
+import edu.iu.dsc.tws.api.dataset.DataObject;
+import edu.iu.dsc.tws.api.dataset.DataPartition;
+import edu.iu.dsc.tws.graphapi.api.WorkerParameter;
+import edu.iu.dsc.tws.task.impl.ComputeConnection;
+import edu.iu.dsc.tws.task.impl.ComputeGraphBuilder;
+import edu.iu.dsc.tws.task.impl.TaskWorker;
+
+/**
+ * Runs a {@link VertexProgram} over a graph stored as {@link CsrPartition}s.
+ * <p>
+ * The first task graph reads the adjacency lists and sends every line to the task owning its
+ * vertex, where the partition is built. The second task graph runs a superstep, it is executed
+ * until no vertex is active and no message is sent, or until the given number of iterations.
+ * The messages are exchanged with a keyed reduce on integer vertex ids and double values using
+ * the combiner of the program, so a vertex receives a single value per superstep.
+ * <p>
+ * Vertex ids should be integers from 0 to the graph size given by the job parameters.
+ */
+public abstract class PregelComputation extends TaskWorker {
+  private static final Logger LOG = Logger.getLogger(PregelComputation.class.getName());
+
+  /**
+   * Name of the graph partition data
+   */
+  public static final String PARTITION = "CsrPartition";
+
+  /**
+   * Name of the received messages data
+   */
+  public static final String INBOX = "PregelInbox";
+
+  /**
+   * Name of the superstep status data
+   */
+  public static final String STATUS = "PregelStatus";
+
+  public static final String LOAD_EDGE = "csr-load";
+
+  public static final String MESSAGE_EDGE = "pregel-messages";
+
+  public static final String STATUS_EDGE = "pregel-status";
+
+  /**
+   * Create the program to run
+   *
+   * @param parameters the job parameters
+   * @return the program
+   */
+  protected abstract VertexProgram createProgram(WorkerParameter parameters);
+
+  /**
+   * Weather the input has a weight after each target
+   */
+  protected abstract boolean isWeighted();
+
+  @Override
+  public void execute() {
+    LOG.log(Level.INFO, "Task worker starting: " + workerId);
+
+    WorkerParameter workerParameter = WorkerParameter.build(config);
+    int parallelism = workerParameter.getParallelismValue();
+    int numVertices = workerParameter.getDsize();
+    int maxSupersteps = workerParameter.getIterations();
+    VertexProgram program = createProgram(workerParameter);
+
+    ComputeGraph loadGraph = buildLoadTG(workerParameter.getDatapointDirectory(), numVertices,
+        parallelism, program);
+    ExecutionPlan loadPlan = taskExecutor.plan(loadGraph);
+    taskExecutor.execute(loadGraph, loadPlan);
+
+    ComputeGraph superstepGraph = buildSuperstepTG(numVertices, parallelism, program);
+    IExecutor ex = taskExecutor.createExecution(superstepGraph);
+
+    long startTime = System.currentTimeMillis();
+    int superstep = 0;
+    boolean converged = false;
+    while (!converged && (maxSupersteps == 0 || superstep < maxSupersteps)) {
+      ex.execute(false);
+      superstep++;
+      converged = pendingWork() == 0;
+    }
+    ex.closeExecution();
+    long endTime = System.currentTimeMillis();
+
+    if (workerId == 0) {
+      LOG.info("Completed " + superstep + " supersteps, converged: " + converged
+          + ", computation time: " + (endTime - startTime));
+    }
+    completed(superstep, localPartitions());
+    taskExecutor.close();
+  }
+
+  /**
+   * Called after the last superstep with the partitions of this worker
+   *
+   * @param supersteps number of supersteps run
+   * @param partitions the partitions holding the final vertex values
+   */
+  protected void completed(int supersteps, List<CsrPartition> partitions) {
+  }
+
+  /**
+   * Number of active vertices and sent messages in the last superstep over all the partitions
+   */
+  private long pendingWork() {
+    DataObject<Object> status = taskExecutor.getOutput(STATUS);
+    return ((Number) status.getAnyPartition().first()).longValue();
+  }
+
+  private List<CsrPartition> localPartitions() {
+    DataObject<Object> partitions = taskExecutor.getOutput(PARTITION);
+    List<CsrPartition> list = new ArrayList<>();
+    for (DataPartition<Object> partition : partitions.getPartitions()) {
+      list.add((CsrPartition) partition.first());
+    }
+    return list;
+  }
+
+  protected ComputeGraph buildLoadTG(String path, int numVertices, int parallelism,
+                                     VertexProgram program) {
+    CsrLoadSource loadSource = new CsrLoadSource(LOAD_EDGE, path, numVertices);
+    CsrPartitionTask partitionTask = new CsrPartitionTask(program, numVertices, isWeighted());
+
+    ComputeGraphBuilder builder = ComputeGraphBuilder.newBuilder(config);
+    builder.addSource("csrloadsource", loadSource, parallelism);
+    ComputeConnection partitionConnection = builder.addCompute("csrpartition", partitionTask,
+        parallelism);
+
+    partitionConnection.keyedPartition("csrloadsource")
+        .viaEdge(LOAD_EDGE)
+        .withTaskPartitioner(new VertexPartitioner())
+        .withKeyType(MessageTypes.INTEGER)
+        .withDataType(MessageTypes.OBJECT);
+
+    builder.setMode(OperationMode.BATCH);
+    builder.setTaskGraphName("csrLoadTG");
+    return builder.build();
+  }
+
+  protected ComputeGraph buildSuperstepTG(int numVertices, int parallelism,
+                                          VertexProgram program) {
+    ComputeGraphBuilder builder = ComputeGraphBuilder.newBuilder(config);
+    builder.addSource("superstepsource", new SuperstepSource(program), parallelism);
+    ComputeConnection inboxConnection = builder.addCompute("inbox",
+        new InboxTask(numVertices), parallelism);
+    ComputeConnection statusConnection = builder.addCompute("status", new StatusSink(),
+        parallelism);
+
+    inboxConnection.keyedReduce("superstepsource")
+        .viaEdge(MESSAGE_EDGE)
+        .withOperation(program.getCombiner(), MessageTypes.DOUBLE)
+        .withTaskPartitioner(new VertexPartitioner())
+        .withKeyType(MessageTypes.INTEGER);
+
+    statusConnection.allreduce("superstepsource")
+        .viaEdge(STATUS_EDGE)
+        .withOperation(Op.SUM, MessageTypes.LONG);
+
+    builder.setMode(OperationMode.BATCH);
+    builder.setTaskGraphName("superstepTG");
+    return builder.build();
+  }
+}
@@ -0,0 +1,92 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.graphapi.pregel;
+
+import java.util.List;
+import java.util.logging.Logger;
+
+import edu.iu.dsc.tws.api.comms.Op;
+import edu.iu.dsc.tws.graphapi.api.WorkerParameter;
+
+/**
+ * Single source shortest path on the vertex centric engine. The input has a vertex followed by
+ * pairs of target and weight in each line. Only the source is active in the first superstep and
+ * after that a vertex runs only when it receives a shorter distance.
+ */
+public class SsspComputation extends PregelComputation {
+  private static final Logger LOG = Logger.getLogger(SsspComputation.class.getName());
+
+  @Override
+  protected VertexProgram createProgram(WorkerParameter parameters) {
+    return new SsspProgram(Integer.parseInt(parameters.getSourcevertex()));
+  }
+
+  @Override
+  protected boolean isWeighted() {
+    return true;
+  }
+
+  @Override
+  protected void completed(int supersteps, List<CsrPartition> partitions) {
+    int reached = 0;
+    for (CsrPartition partition : partitions) {
+      for (int local = 0; local < partition.getLocalVertices(); local++) {
+        if (partition.getValue(local) != Double.POSITIVE_INFINITY) {
+          reached++;
+        }
+      }
+    }
+    LOG.info("Worker " + workerId + " number of vertices reached: " + reached);
+  }
+
+  public static class SsspProgram implements VertexProgram {
+    private static final long serialVersionUID = 6480157320591043318L;
+
+    private final int sourceVertex;
+
+    public SsspProgram(int sourceVertex) {
+      this.sourceVertex = sourceVertex;
+    }
+
+    @Override
+    public Op getCombiner() {
+      return Op.MIN;
+    }
+
+    @Override
+    public double initialValue(int vertex, int numVertices) {
+      return vertex == sourceVertex ? 0 : Double.POSITIVE_INFINITY;
+    }
+
+    @Override
+    public boolean isInitiallyActive(int vertex) {
+      return vertex == sourceVertex;
+    }
+
+    @Override
+    public void compute(VertexContext vertex, double message, boolean hasMessage) {
+      boolean changed = vertex.getSuperstep() == 0 && vertex.getId() == sourceVertex;
+      if (hasMessage && message < vertex.getValue()) {
+        vertex.setValue(message);
+        changed = true;
+      }
+
+      if (changed) {
+        double distance = vertex.getValue();
+        for (int i = 0; i < vertex.getOutDegree(); i++) {
+          vertex.sendMessage(vertex.getTarget(i), distance + vertex.getWeight(i));
+        }
+      }
+      vertex.voteToHalt();
+    }
+  }
+}
@@ -0,0 +1,44 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.graphapi.pregel;
+
+import edu.iu.dsc.tws.api.compute.IMessage;
+import edu.iu.dsc.tws.api.compute.modifiers.Collector;
+import edu.iu.dsc.tws.api.compute.modifiers.IONames;
+import edu.iu.dsc.tws.api.compute.nodes.BaseCompute;
+import edu.iu.dsc.tws.api.dataset.DataPartition;
+import edu.iu.dsc.tws.dataset.partition.EntityPartition;
+
+/**
+ * Collects the total number of active vertices and sent messages of a superstep.
+ */
+public class StatusSink extends BaseCompute implements Collector {
+  private static final long serialVersionUID = -4719285506011236472L;
+
+  private long pending;
+
+  @Override
+  public boolean execute(IMessage message) {
+    pending = ((Number) message.getContent()).longValue();
+    return true;
+  }
+
+  @Override
+  public DataPartition<?> get(String name) {
+    return new EntityPartition<>(pending);
+  }
+
+  @Override
+  public IONames getCollectibleNames() {
+    return IONames.declare(PregelComputation.STATUS);
+  }
+}
@@ -0,0 +1,117 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.graphapi.pregel;
+
+import edu.iu.dsc.tws.api.compute.modifiers.IONames;
+import edu.iu.dsc.tws.api.compute.modifiers.Receptor;
+import edu.iu.dsc.tws.api.compute.nodes.BaseSource;
+import edu.iu.dsc.tws.api.dataset.DataPartition;
+
+/**
+ * Runs one superstep of the program over the vertices of a partition. Only the vertices that
+ * are active or received a message are visited, the others are skipped using the bit sets of the
+ * partition and the inbox. The vertices are processed in chunks so that the outgoing messages are
+ * handed to the communication between the calls.
+ * <p>
+ * At the end of the superstep the number of active vertices and sent messages is written to the
+ * status edge, the computation has converged when the sum over all the partitions is zero.
+ */
+public class SuperstepSource extends BaseSource implements Receptor {
+  private static final long serialVersionUID = 8031722568923710140L;
+
+  /**
+   * Number of vertices to process in a single call
+   */
+  private static final int CHUNK_SIZE = 1024;
+
+  private final VertexProgram program;
+
+  private transient CsrPartition partition;
+
+  private transient MessageInbox inbox;
+
+  private transient VertexContext vertexContext;
+
+  /**
+   * The superstep we are running
+   */
+  private int superstep;
+
+  /**
+   * The next local index to look at in this superstep
+   */
+  private int cursor;
+
+  public SuperstepSource(VertexProgram program) {
+    this.program = program;
+  }
+
+  @Override
+  public void execute() {
+    if (vertexContext == null) {
+      vertexContext = new VertexContext(partition, context, PregelComputation.MESSAGE_EDGE);
+    }
+    if (cursor == 0) {
+      vertexContext.startSuperstep(superstep);
+    }
+
+    for (int n = 0; n < CHUNK_SIZE; n++) {
+      int local = nextVertex(cursor);
+      if (local < 0) {
+        cursor = partition.getLocalVertices();
+        break;
+      }
+
+      boolean hasMessage = inbox.hasMessage(local);
+      partition.setActive(local, true);
+      vertexContext.setVertex(local);
+      program.compute(vertexContext, hasMessage ? inbox.getMessage(local) : 0, hasMessage);
+      cursor = local + 1;
+    }
+
+    if (cursor >= partition.getLocalVertices()) {
+      long pending = partition.getActiveCount() + vertexContext.getSentMessages();
+      context.writeEnd(PregelComputation.STATUS_EDGE, pending);
+      context.end(PregelComputation.MESSAGE_EDGE);
+      cursor = 0;
+      superstep++;
+    }
+  }
+
+  /**
+   * The next vertex that is active or received a message
+   */
+  private int nextVertex(int from) {
+    int active = partition.nextActive(from);
+    int received = inbox.nextReceived(from);
+    if (active < 0) {
+      return received;
+    } else if (received < 0) {
+      return active;
+    }
+    return Math.min(active, received);
+  }
+
+  @Override
+  public void add(String name, DataPartition<?> data) {
+    if (PregelComputation.PARTITION.equals(name)) {
+      partition = (CsrPartition) data.first();
+    } else if (PregelComputation.INBOX.equals(name)) {
+      inbox = (MessageInbox) data.first();
+    }
+  }
+
+  @Override
+  public IONames getReceivableNames() {
+    return IONames.declare(PregelComputation.PARTITION, PregelComputation.INBOX);
+  }
+}
@@ -0,0 +1,138 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.graphapi.pregel;
+
+import edu.iu.dsc.tws.api.compute.TaskContext;
+
+/**
+ * The view of a vertex given to a {@link VertexProgram}. A single instance is reused for all
+ * the vertices of a partition, so no object is created per vertex.
+ */
+public final class VertexContext {
+  /**
+   * The partition of the vertex
+   */
+  private final CsrPartition partition;
+
+  /**
+   * Task context to send the messages
+   */
+  private final TaskContext taskContext;
+
+  /**
+   * Edge for the messages
+   */
+  private final String messageEdge;
+
+  /**
+   * Local index of the current vertex
+   */
+  private int local;
+
+  /**
+   * Current superstep
+   */
+  private int superstep;
+
+  /**
+   * Number of messages sent in this superstep
+   */
+  private long sentMessages;
+
+  VertexContext(CsrPartition partition, TaskContext taskContext, String messageEdge) {
+    this.partition = partition;
+    this.taskContext = taskContext;
+    this.messageEdge = messageEdge;
+  }
+
+  void startSuperstep(int step) {
+    this.superstep = step;
+    this.sentMessages = 0;
+  }
+
+  void setVertex(int localIndex) {
+    this.local = localIndex;
+  }
+
+  long getSentMessages() {
+    return sentMessages;
+  }
+
+  public int getId() {
+    return partition.getVertexId(local);
+  }
+
+  public int getSuperstep() {
+    return superstep;
+  }
+
+  public int getNumVertices() {
+    return partition.getNumVertices();
+  }
+
+  public double getValue() {
+    return partition.getValue(local);
+  }
+
+  public void setValue(double value) {
+    partition.setValue(local, value);
+  }
+
+  public int getOutDegree() {
+    return partition.getOutDegree(local);
+  }
+
+  /**
+   * Target of the i th out edge
+   */
+  public int getTarget(int i) {
+    return partition.getTarget(partition.getEdgeStart(local) + i);
+  }
+
+  /**
+   * Weight of the i th out edge
+   */
+  public double getWeight(int i) {
+    return partition.getWeight(partition.getEdgeStart(local) + i);
+  }
+
+  /**
+   * Send a message to a vertex, it is received in the next superstep
+   *
+   * @param target the target vertex id
+   * @param message the message
+   */
+  public void sendMessage(int target, double message) {
+    taskContext.write(messageEdge, target, message);
+    sentMessages++;
+  }
+
+  /**
+   * Send the same message to all the out neighbours
+   *
+   * @param message the message
+   */
+  public void sendToNeighbors(double message) {
+    int start = partition.getEdgeStart(local);
+    int end = start + partition.getOutDegree(local);
+    for (int e = start; e < end; e++) {
+      sendMessage(partition.getTarget(e), message);
+    }
+  }
+
+  /**
+   * The vertex is not run in the next supersteps unless it receives a message
+   */
+  public void voteToHalt() {
+    partition.setActive(local, false);
+  }
+}
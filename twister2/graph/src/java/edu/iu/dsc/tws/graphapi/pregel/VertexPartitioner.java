@@ -0,0 +1,95 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.graphapi.pregel;
+
+import java.util.Set;
+
+import edu.iu.dsc.tws.api.compute.TaskPartitioner;
+
+/**
+ * Partitions the vertices among the tasks using the integer vertex id as the key. Vertex
+ * <code>v</code> belongs to task index <code>v % parallelism</code> and it is stored at the
+ * local index <code>v / parallelism</code> of that partition, so the local ids of a partition are
+ * dense and no map from global to local ids is needed.
+ */
+public class VertexPartitioner implements TaskPartitioner<Object> {
+  private static final long serialVersionUID = 2739102445561298871L;
+
+  /**
+   * The destination task indexes in sorted order
+   */
+  private int[] destinations;
+
+  @Override
+  public void prepare(Set<Integer> sources, Set<Integer> dests) {
+    this.destinations = dests.stream().mapToInt(Integer::intValue).sorted().toArray();
+  }
+
+  @Override
+  public int partition(int source, Object data) {
+    int vertex = ((Number) data).intValue();
+    return destinations[owner(vertex, destinations.length)];
+  }
+
+  @Override
+  public void commit(int source, int partition) {
+  }
+
+  /**
+   * The task index owning the vertex
+   *
+   * @param vertex the vertex id
+   * @param parallelism number of partitions
+   * @return the partition
+   */
+  public static int owner(int vertex, int parallelism) {
+    return vertex % parallelism;
+  }
+
+  /**
+   * The index of the vertex inside its partition
+   *
+   * @param vertex the vertex id
+   * @param parallelism number of partitions
+   * @return the local index
+   */
+  public static int localIndex(int vertex, int parallelism) {
+    return vertex / parallelism;
+  }
+
+  /**
+   * The vertex id of a local index
+   *
+   * @param localIndex the local index
+   * @param partition the partition
+   * @param parallelism number of partitions
+   * @return the vertex id
+   */
+  public static int vertexId(int localIndex, int partition, int parallelism) {
+    return localIndex * parallelism + partition;
+  }
+
+  /**
+   * Number of vertices owned by a partition
+   *
+   * @param numVertices total number of vertices
+   * @param partition the partition
+   * @param parallelism number of partitions
+   * @return number of local vertices
+   */
+  public static int localVertices(int numVertices, int partition, int parallelism) {
+    if (numVertices <= partition) {
+      return 0;
+    }
+    return (numVertices - partition + parallelism - 1) / parallelism;
+  }
+}
@@ -0,0 +1,57 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.graphapi.pregel;
+
+import java.io.Serializable;
+
+import edu.iu.dsc.tws.api.comms.Op;
+
+/**
+ * A vertex centric program. In every superstep the program is run for the vertices that have not
+ * voted to halt and the vertices that received a message, other vertices are skipped. A halted
+ * vertex becomes active again when it receives a message. The computation stops when all the
+ * vertices have halted and there are no messages in transit.
+ */
+public interface VertexProgram extends Serializable {
+
+  /**
+   * The operation used to combine the messages sent to the same vertex. Messages are combined
+   * at the sender and at the receiver, so the vertex gets a single value.
+   */
+  Op getCombiner();
+
+  /**
+   * The value of the vertex before the first superstep
+   *
+   * @param vertex vertex id
+   * @param numVertices number of vertices in the graph
+   * @return the value
+   */
+  double initialValue(int vertex, int numVertices);
+
+  /**
+   * Weather the vertex runs in the first superstep
+   *
+   * @param vertex vertex id
+   * @return true if the vertex is active
+   */
+  boolean isInitiallyActive(int vertex);
+
+  /**
+   * Run the program for a vertex
+   *
+   * @param vertex the vertex, valid only during this call
+   * @param message the combined message, only valid if hasMessage is true
+   * @param hasMessage weather the vertex received a message
+   */
+  void compute(VertexContext vertex, double message, boolean hasMessage);
+}
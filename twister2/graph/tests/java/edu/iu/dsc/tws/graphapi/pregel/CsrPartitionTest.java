@@ -0,0 +1,154 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.graphapi.pregel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CsrPartitionTest {
+
+  private static int[] targets(CsrPartition partition, int local) {
+    int[] targets = new int[partition.getOutDegree(local)];
+    for (int i = 0; i < targets.length; i++) {
+      targets[i] = partition.getTarget(partition.getEdgeStart(local) + i);
+    }
+    return targets;
+  }
+
+  private static double[] weights(CsrPartition partition, int local) {
+    double[] weights = new double[partition.getOutDegree(local)];
+    for (int i = 0; i < weights.length; i++) {
+      weights[i] = partition.getWeight(partition.getEdgeStart(local) + i);
+    }
+    return weights;
+  }
+
+  @Test
+  public void testRowsFromUnorderedEdges() {
+    // partition 1 of 3 owns the vertices 1, 4 and 7 of 10
+    CsrPartition.Builder builder = new CsrPartition.Builder(1, 3, 10, true);
+    builder.addEdge(7, 0, 0.5);
+    builder.addEdge(1, 2, 1.0);
+    builder.addEdge(4, 9, 2.0);
+    builder.addEdge(1, 3, 3.0);
+    builder.addEdge(7, 8, 4.0);
+    builder.addEdge(1, 5, 5.0);
+    CsrPartition partition = builder.build();
+
+    Assert.assertEquals(3, partition.getLocalVertices());
+    Assert.assertEquals(6, partition.getLocalEdges());
+    Assert.assertEquals(10, partition.getNumVertices());
+    Assert.assertEquals(1, partition.getVertexId(0));
+    Assert.assertEquals(4, partition.getVertexId(1));
+    Assert.assertEquals(7, partition.getVertexId(2));
+
+    // the rows keep the order in which the edges of a vertex were added
+    Assert.assertArrayEquals(new int[]{2, 3, 5}, targets(partition, 0));
+    Assert.assertArrayEquals(new int[]{9}, targets(partition, 1));
+    Assert.assertArrayEquals(new int[]{0, 8}, targets(partition, 2));
+    Assert.assertArrayEquals(new double[]{1.0, 3.0, 5.0}, weights(partition, 0), 0);
+    Assert.assertArrayEquals(new double[]{2.0}, weights(partition, 1), 0);
+    Assert.assertArrayEquals(new double[]{0.5, 4.0}, weights(partition, 2), 0);
+  }
+
+  @Test
+  public void testUnweightedAndEmptyRows() {
+    CsrPartition.Builder builder = new CsrPartition.Builder(0, 2, 7, false);
+    builder.addEdge(4, 1, 7.0);
+    CsrPartition partition = builder.build();
+
+    Assert.assertEquals(4, partition.getLocalVertices());
+    for (int local : new int[]{0, 1, 3}) {
+      Assert.assertEquals(0, partition.getOutDegree(local));
+    }
+    Assert.assertArrayEquals(new int[]{1}, targets(partition, 2));
+    Assert.assertEquals(1.0, partition.getWeight(partition.getEdgeStart(2)), 0);
+  }
+
+  @Test
+  public void testPartitionWithoutVertices() {
+    CsrPartition partition = new CsrPartition.Builder(2, 3, 2, false).build();
+    Assert.assertEquals(0, partition.getLocalVertices());
+    Assert.assertEquals(0, partition.getLocalEdges());
+    Assert.assertEquals(-1, partition.nextActive(0));
+  }
+
+  @Test
+  public void testManyEdges() {
+    int numVertices = 1000;
+    int parallelism = 4;
+    int partitionIndex = 3;
+    int localVertices = VertexPartitioner.localVertices(numVertices, partitionIndex,
+        parallelism);
+
+    // more edges than the initial capacity of the builder, in random order
+    Random random = new Random(7);
+    List<List<Integer>> expected = new ArrayList<>();
+    for (int i = 0; i < localVertices; i++) {
+      expected.add(new ArrayList<>());
+    }
+    CsrPartition.Builder builder = new CsrPartition.Builder(partitionIndex, parallelism,
+        numVertices, true);
+    for (int e = 0; e < 5000; e++) {
+      int local = random.nextInt(localVertices);
+      int target = random.nextInt(numVertices);
+      builder.addEdge(VertexPartitioner.vertexId(local, partitionIndex, parallelism), target,
+          target + 0.5);
+      expected.get(local).add(target);
+    }
+    CsrPartition partition = builder.build();
+
+    Assert.assertEquals(5000, partition.getLocalEdges());
+    int edges = 0;
+    for (int local = 0; local < localVertices; local++) {
+      Assert.assertEquals(edges, partition.getEdgeStart(local));
+      int[] row = targets(partition, local);
+      Assert.assertArrayEquals(expected.get(local).stream().mapToInt(Integer::intValue)
+          .toArray(), row);
+      double[] weights = weights(partition, local);
+      for (int i = 0; i < row.length; i++) {
+        Assert.assertEquals(row[i] + 0.5, weights[i], 0);
+      }
+      edges += row.length;
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSourceOfAnotherPartition() {
+    new CsrPartition.Builder(0, 2, 10, false).addEdge(3, 0, 1.0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testTargetOutOfRange() {
+    new CsrPartition.Builder(0, 2, 10, false).addEdge(2, 10, 1.0);
+  }
+
+  @Test
+  public void testActiveVertices() {
+    CsrPartition partition = new CsrPartition.Builder(0, 1, 5, false).build();
+    Assert.assertEquals(0, partition.getActiveCount());
+    partition.setActive(1, true);
+    partition.setActive(3, true);
+    Assert.assertEquals(2, partition.getActiveCount());
+    Assert.assertEquals(1, partition.nextActive(0));
+    Assert.assertEquals(3, partition.nextActive(2));
+    Assert.assertEquals(-1, partition.nextActive(4));
+
+    partition.setActive(1, false);
+    Assert.assertFalse(partition.isActive(1));
+    Assert.assertEquals(3, partition.nextActive(0));
+  }
+}
@@ -0,0 +1,83 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.graphapi.pregel;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import edu.iu.dsc.tws.api.comms.structs.Tuple;
+import edu.iu.dsc.tws.api.compute.IMessage;
+import edu.iu.dsc.tws.api.compute.TaskContext;
+import edu.iu.dsc.tws.api.config.Config;
+
+public class InboxTaskTest {
+
+  private static void receive(InboxTask task, Tuple... messages) {
+    IMessage message = Mockito.mock(IMessage.class);
+    Mockito.when(message.getContent()).thenReturn(Arrays.asList(messages).iterator());
+    task.execute(message);
+  }
+
+  private static MessageInbox next(InboxTask task) {
+    return (MessageInbox) task.get(PregelComputation.INBOX).first();
+  }
+
+  @Test
+  public void testInboxesAreSwappedAndCleared() {
+    // task 1 of 2 owns the vertices 1, 3 and 5 of 7
+    TaskContext context = Mockito.mock(TaskContext.class);
+    Mockito.when(context.taskIndex()).thenReturn(1);
+    Mockito.when(context.getParallelism()).thenReturn(2);
+    InboxTask task = new InboxTask(7);
+    task.prepare(Config.newBuilder().build(), context);
+
+    receive(task, new Tuple<>(1, 0.5), new Tuple<>(5, 2.0));
+    MessageInbox first = next(task);
+    Assert.assertEquals(2, first.getCount());
+    Assert.assertEquals(0.5, first.getMessage(0), 0);
+    Assert.assertEquals(2.0, first.getMessage(2), 0);
+    Assert.assertFalse(first.hasMessage(1));
+
+    receive(task, new Tuple<>(3, 1.5));
+    MessageInbox second = next(task);
+    Assert.assertNotSame(first, second);
+    Assert.assertEquals(1, second.getCount());
+    Assert.assertEquals(1.5, second.getMessage(1), 0);
+    // the first inbox is reused for the next superstep, so it must be empty
+    Assert.assertEquals(0, first.getCount());
+
+    receive(task, new Tuple<>(1, 9.0));
+    MessageInbox third = next(task);
+    Assert.assertSame(first, third);
+    Assert.assertEquals(1, third.getCount());
+    Assert.assertEquals(9.0, third.getMessage(0), 0);
+    Assert.assertEquals(-1, third.nextReceived(1));
+    Assert.assertEquals(0, second.getCount());
+  }
+
+  @Test
+  public void testSuperstepWithoutMessages() {
+    TaskContext context = Mockito.mock(TaskContext.class);
+    Mockito.when(context.taskIndex()).thenReturn(0);
+    Mockito.when(context.getParallelism()).thenReturn(1);
+    InboxTask task = new InboxTask(3);
+    task.prepare(Config.newBuilder().build(), context);
+
+    receive(task, new Tuple<>(2, 1.0));
+    Assert.assertEquals(1, next(task).getCount());
+    Assert.assertEquals(0, next(task).getCount());
+    Assert.assertEquals(0, next(task).getCount());
+  }
+}
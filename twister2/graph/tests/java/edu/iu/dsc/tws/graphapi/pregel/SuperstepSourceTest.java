@@ -0,0 +1,211 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.graphapi.pregel;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import edu.iu.dsc.tws.api.comms.Op;
+import edu.iu.dsc.tws.api.comms.structs.Tuple;
+import edu.iu.dsc.tws.api.compute.IMessage;
+import edu.iu.dsc.tws.api.compute.TaskContext;
+import edu.iu.dsc.tws.api.config.Config;
+
+/**
+ * Runs the pregel tasks of all the partitions in a loop that takes the place of the task graph
+ * and checks the results of small computations.
+ */
+public class SuperstepSourceTest {
+  private static final int MAX_SUPERSTEPS = 1000;
+
+  /**
+   * The tasks of a partition and what its source wrote in the current superstep
+   */
+  private static final class Worker {
+    private final SuperstepSource source;
+
+    private final InboxTask inboxTask;
+
+    private final CsrPartition partition;
+
+    private final Map<Integer, List<Double>> messages = new TreeMap<>();
+
+    private long pending = -1;
+
+    private Worker(VertexProgram program, int numVertices, boolean weighted, int index,
+                   int parallelism, List<String> lines) {
+      Config config = Config.newBuilder().build();
+      TaskContext context = Mockito.mock(TaskContext.class);
+      Mockito.when(context.taskIndex()).thenReturn(index);
+      Mockito.when(context.getParallelism()).thenReturn(parallelism);
+      Mockito.when(context.write(Mockito.eq(PregelComputation.MESSAGE_EDGE),
+          Mockito.anyObject(), Mockito.anyObject())).thenAnswer(invocation -> {
+            Object[] args = invocation.getArguments();
+            messages.computeIfAbsent((Integer) args[1], k -> new ArrayList<>())
+                .add((Double) args[2]);
+            return true;
+          });
+      Mockito.when(context.writeEnd(Mockito.eq(PregelComputation.STATUS_EDGE),
+          Mockito.anyObject())).thenAnswer(invocation -> {
+            pending = (Long) invocation.getArguments()[1];
+            return true;
+          });
+
+      CsrPartitionTask loader = new CsrPartitionTask(program, numVertices, weighted);
+      loader.prepare(config, context);
+      List<Tuple<Integer, String>> owned = new ArrayList<>();
+      for (String line : lines) {
+        int vertex = Integer.parseInt(line.split(" ")[0]);
+        if (VertexPartitioner.owner(vertex, parallelism) == index) {
+          owned.add(new Tuple<>(vertex, line));
+        }
+      }
+      loader.execute(message(owned.iterator()));
+
+      this.source = new SuperstepSource(program);
+      source.prepare(config, context);
+      source.add(PregelComputation.PARTITION, loader.get(PregelComputation.PARTITION));
+      source.add(PregelComputation.INBOX, loader.get(PregelComputation.INBOX));
+      this.partition = (CsrPartition) loader.get(PregelComputation.PARTITION).first();
+
+      this.inboxTask = new InboxTask(numVertices);
+      inboxTask.prepare(config, context);
+    }
+
+    private long superstep() {
+      pending = -1;
+      messages.clear();
+      while (pending < 0) {
+        source.execute();
+      }
+      return pending;
+    }
+  }
+
+  private static IMessage message(Iterator<?> content) {
+    IMessage message = Mockito.mock(IMessage.class);
+    Mockito.when(message.getContent()).thenReturn(content);
+    return message;
+  }
+
+  /**
+   * Run the program until no vertex is active and no message is sent
+   *
+   * @return the values of the vertices
+   */
+  private static double[] run(VertexProgram program, int numVertices, boolean weighted,
+                              int parallelism, List<String> lines) {
+    List<Worker> workers = new ArrayList<>();
+    for (int i = 0; i < parallelism; i++) {
+      workers.add(new Worker(program, numVertices, weighted, i, parallelism, lines));
+    }
+
+    for (int step = 0; step < MAX_SUPERSTEPS; step++) {
+      long pending = 0;
+      for (Worker worker : workers) {
+        pending += worker.superstep();
+      }
+      if (pending == 0) {
+        double[] values = new double[numVertices];
+        for (Worker worker : workers) {
+          for (int local = 0; local < worker.partition.getLocalVertices(); local++) {
+            values[worker.partition.getVertexId(local)] = worker.partition.getValue(local);
+          }
+        }
+        return values;
+      }
+
+      // the keyed reduce combines the messages of a target from all the sources
+      Map<Integer, Double> combined = new TreeMap<>();
+      for (Worker worker : workers) {
+        for (Map.Entry<Integer, List<Double>> e : worker.messages.entrySet()) {
+          e.getValue().forEach(m -> combined.merge(e.getKey(), m,
+              program.getCombiner() == Op.SUM ? Double::sum : Math::min));
+        }
+      }
+      List<List<Tuple<Integer, Double>>> received = new ArrayList<>();
+      for (int i = 0; i < parallelism; i++) {
+        received.add(new ArrayList<>());
+      }
+      for (Map.Entry<Integer, Double> e : combined.entrySet()) {
+        received.get(VertexPartitioner.owner(e.getKey(), parallelism))
+            .add(new Tuple<>(e.getKey(), e.getValue()));
+      }
+      for (int i = 0; i < parallelism; i++) {
+        Worker worker = workers.get(i);
+        worker.inboxTask.execute(message(received.get(i).iterator()));
+        worker.source.add(PregelComputation.INBOX,
+            worker.inboxTask.get(PregelComputation.INBOX));
+      }
+    }
+    throw new AssertionError("Did not converge in " + MAX_SUPERSTEPS + " supersteps");
+  }
+
+  @Test
+  public void testSssp() {
+    List<String> lines = new ArrayList<>();
+    lines.add("0 1 4 2 1");
+    lines.add("2 1 2 3 5");
+    lines.add("1 3 1");
+    lines.add("3 4 3");
+    lines.add("4");
+    lines.add("5 0 1");
+
+    double[] expected = {0, 3, 1, 4, 7, Double.POSITIVE_INFINITY};
+    for (int parallelism = 1; parallelism <= 4; parallelism++) {
+      double[] distances = run(new SsspComputation.SsspProgram(0), 6, true, parallelism,
+          lines);
+      Assert.assertArrayEquals("Parallelism " + parallelism, expected, distances, 0);
+    }
+  }
+
+  @Test
+  public void testPageRank() {
+    int[][] edges = {{1, 2}, {2}, {0}, {0, 2}, {}};
+    List<String> lines = new ArrayList<>();
+    for (int v = 0; v < edges.length; v++) {
+      StringBuilder line = new StringBuilder(Integer.toString(v));
+      for (int target : edges[v]) {
+        line.append(' ').append(target);
+      }
+      lines.add(line.toString());
+    }
+
+    // power iteration, the rank of the dangling vertex is not distributed
+    double damping = 0.85;
+    int n = edges.length;
+    double[] expected = new double[n];
+    for (int iteration = 0; iteration < 500; iteration++) {
+      double[] next = new double[n];
+      for (int v = 0; v < n; v++) {
+        next[v] += (1 - damping) / n;
+        for (int target : edges[v]) {
+          next[target] += damping * expected[v] / edges[v].length;
+        }
+      }
+      expected = next;
+    }
+
+    for (int parallelism = 1; parallelism <= 3; parallelism++) {
+      double[] ranks = run(new PageRankComputation.PageRankProgram(damping, 1e-12), n, false,
+          parallelism, lines);
+      Assert.assertArrayEquals("Parallelism " + parallelism, expected, ranks, 1e-9);
+    }
+  }
+}
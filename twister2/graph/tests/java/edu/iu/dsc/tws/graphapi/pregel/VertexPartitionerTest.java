@@ -0,0 +1,81 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.graphapi.pregel;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class VertexPartitionerTest {
+  private static final int[] SIZES = {0, 1, 2, 7, 10, 101};
+
+  private static final int[] PARALLELISMS = {1, 2, 3, 8};
+
+  @Test
+  public void testVertexRoundTrip() {
+    for (int numVertices : SIZES) {
+      for (int parallelism : PARALLELISMS) {
+        for (int vertex = 0; vertex < numVertices; vertex++) {
+          int owner = VertexPartitioner.owner(vertex, parallelism);
+          int local = VertexPartitioner.localIndex(vertex, parallelism);
+          Assert.assertTrue(owner < parallelism);
+          Assert.assertTrue(local < VertexPartitioner.localVertices(numVertices, owner,
+              parallelism));
+          Assert.assertEquals(vertex, VertexPartitioner.vertexId(local, owner, parallelism));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testLocalRoundTrip() {
+    for (int numVertices : SIZES) {
+      for (int parallelism : PARALLELISMS) {
+        int total = 0;
+        for (int partition = 0; partition < parallelism; partition++) {
+          total += checkLocalVertices(numVertices, partition, parallelism);
+        }
+        // every vertex belongs to exactly one partition
+        Assert.assertEquals("Vertices " + numVertices + " parallelism " + parallelism,
+            numVertices, total);
+      }
+    }
+  }
+
+  /**
+   * Check the vertex ids of the local vertices of a partition
+   *
+   * @return the number of local vertices
+   */
+  private static int checkLocalVertices(int numVertices, int partition, int parallelism) {
+    int localVertices = VertexPartitioner.localVertices(numVertices, partition, parallelism);
+    for (int local = 0; local < localVertices; local++) {
+      int vertex = VertexPartitioner.vertexId(local, partition, parallelism);
+      Assert.assertTrue(vertex < numVertices);
+      Assert.assertEquals(partition, VertexPartitioner.owner(vertex, parallelism));
+      Assert.assertEquals(local, VertexPartitioner.localIndex(vertex, parallelism));
+    }
+    return localVertices;
+  }
+
+  @Test
+  public void testPartitionToSortedDestinations() {
+    VertexPartitioner partitioner = new VertexPartitioner();
+    partitioner.prepare(new HashSet<>(Arrays.asList(0, 1)),
+        new HashSet<>(Arrays.asList(12, 10, 11)));
+    Assert.assertEquals(10, partitioner.partition(0, 3));
+    Assert.assertEquals(11, partitioner.partition(0, 4));
+    Assert.assertEquals(12, partitioner.partition(1, 5L));
+  }
+}
@@ -0,0 +1,114 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.task.impl;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import edu.iu.dsc.tws.api.comms.BulkReceiver;
+import edu.iu.dsc.tws.api.comms.Communicator;
+import edu.iu.dsc.tws.api.comms.LogicalPlan;
+import edu.iu.dsc.tws.api.comms.messaging.types.MessageTypes;
+import edu.iu.dsc.tws.api.comms.structs.Tuple;
+import edu.iu.dsc.tws.api.compute.schedule.ExecutionStatistics;
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.comms.batch.BAllGather;
+import edu.iu.dsc.tws.proto.jobmaster.JobMasterAPI;
+
+/**
+ * Combines the local execution statistics of the workers, so that the task scheduler computes
+ * the same plan on every worker. Each worker gathers its local measurements of a graph to all
+ * the workers and the sum is set as the global measurements.
+ */
+final class ExecutionStatisticsExchange {
+  private ExecutionStatisticsExchange() {
+  }
+
+  /**
+   * Exchange the local measurements of the graph with all the workers. Every worker has to call
+   * this with the same graph.
+   *
+   * @param communicator communicator
+   * @param workerID this worker
+   * @param workerInfoList all the workers
+   * @param graph graph name
+   */
+  static void exchange(Communicator communicator, int workerID,
+                       List<JobMasterAPI.WorkerInfo> workerInfoList, String graph) {
+    // a logical id per worker, same as the worker id
+    Set<Integer> workers = new HashSet<>();
+    Map<Integer, Set<Integer>> workerToLogicalId = new HashMap<>();
+    Map<Integer, Set<Integer>> workerGroups = new HashMap<>();
+    Map<String, Set<Integer>> nodeToLogicalId = new HashMap<>();
+    for (JobMasterAPI.WorkerInfo workerInfo : workerInfoList) {
+      int id = workerInfo.getWorkerID();
+      workers.add(id);
+      workerToLogicalId.put(id, new HashSet<>(Collections.singleton(id)));
+      workerGroups.put(id, new HashSet<>(Collections.singleton(id)));
+      nodeToLogicalId.computeIfAbsent(workerInfo.getNodeInfo().getNodeIP(),
+          k -> new HashSet<>()).add(id);
+    }
+    LogicalPlan plan = new LogicalPlan(workerToLogicalId, workerGroups, nodeToLogicalId,
+        workerID);
+
+    SumReceiver receiver = new SumReceiver();
+    BAllGather allGather = new BAllGather(communicator, plan, workers, workers, receiver,
+        MessageTypes.OBJECT);
+
+    HashMap<String, Long> local = new HashMap<>(ExecutionStatistics.takeLocal(graph));
+    while (!allGather.gather(workerID, local, 0)) {
+      allGather.progressChannel();
+    }
+    allGather.finish(workerID);
+    while (!receiver.received || !allGather.isComplete()) {
+      allGather.progressChannel();
+    }
+    allGather.close();
+
+    ExecutionStatistics.setGlobal(graph, receiver.sum);
+  }
+
+  /**
+   * Adds up the gathered measurements
+   */
+  private static class SumReceiver implements BulkReceiver {
+    private Map<String, Long> sum = new HashMap<>();
+
+    private boolean received;
+
+    @Override
+    public void init(Config cfg, Set<Integer> targets) {
+    }
+
+    @Override
+    public boolean receive(int target, Iterator<Object> it) {
+      while (it.hasNext()) {
+        Object value = it.next();
+        if (value instanceof Tuple) {
+          value = ((Tuple) value).getValue();
+        }
+        if (value instanceof Map) {
+          for (Map.Entry<?, ?> e : ((Map<?, ?>) value).entrySet()) {
+            sum.merge((String) e.getKey(), ((Number) e.getValue()).longValue(), Long::sum);
+          }
+        }
+      }
+      received = true;
+      return true;
+    }
+  }
+}
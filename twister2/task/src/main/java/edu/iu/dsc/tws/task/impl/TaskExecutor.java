@@ -25,14 +25,17 @@ import edu.iu.dsc.tws.api.compute.executor.ExecutionPlan;
 import edu.iu.dsc.tws.api.compute.executor.IExecutor;
 import edu.iu.dsc.tws.api.compute.executor.INodeInstance;
 import edu.iu.dsc.tws.api.compute.graph.ComputeGraph;
+import edu.iu.dsc.tws.api.compute.graph.OperationMode;
 import edu.iu.dsc.tws.api.compute.modifiers.Collector;
 import edu.iu.dsc.tws.api.compute.modifiers.Receptor;
 import edu.iu.dsc.tws.api.compute.nodes.INode;
 import edu.iu.dsc.tws.api.compute.nodes.ISource;
+import edu.iu.dsc.tws.api.compute.schedule.ExecutionStatistics;
 import edu.iu.dsc.tws.api.compute.schedule.elements.TaskSchedulePlan;
 import edu.iu.dsc.tws.api.compute.schedule.elements.Worker;
 import edu.iu.dsc.tws.api.compute.schedule.elements.WorkerPlan;
 import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.api.config.Context;
 import edu.iu.dsc.tws.api.dataset.DataObject;
 import edu.iu.dsc.tws.api.dataset.DataPartition;
 import edu.iu.dsc.tws.api.dataset.EmptyDataObject;
@@ -44,6 +47,8 @@ import edu.iu.dsc.tws.dataset.DataObjectImpl;
 import edu.iu.dsc.tws.executor.core.ExecutionPlanBuilder;
 import edu.iu.dsc.tws.executor.threading.ExecutorFactory;
 import edu.iu.dsc.tws.proto.jobmaster.JobMasterAPI;
+import edu.iu.dsc.tws.tsched.batch.costaware.CostAwareBatchTaskScheduler;
+import edu.iu.dsc.tws.tsched.spi.common.TaskSchedulerContext;
 import edu.iu.dsc.tws.tsched.taskscheduler.TaskScheduler;
 
 /**
@@ -131,6 +136,7 @@ public class TaskExecutor implements FaultAcceptable {
     TaskScheduler taskScheduler = new TaskScheduler();
     taskScheduler.initialize(config);
 
+    exchangeStatistics(graph);
     WorkerPlan workerPlan = createWorkerPlan();
     TaskSchedulePlan taskSchedulePlan = taskScheduler.schedule(graph, workerPlan);
 
@@ -148,6 +154,9 @@ public class TaskExecutor implements FaultAcceptable {
   public Map<String, ExecutionPlan> plan(ComputeGraph... graph) {
 
     WorkerPlan workerPlan = createWorkerPlan();
+    for (ComputeGraph aGraph : graph) {
+      exchangeStatistics(aGraph);
+    }
 
     TaskScheduler taskScheduler = new TaskScheduler();
     taskScheduler.initialize(config);
@@ -307,7 +316,7 @@ public class TaskExecutor implements FaultAcceptable {
   @Deprecated
   public void addSourceInput(ComputeGraph graph, ExecutionPlan plan,
                              String inputKey, DataObject<Object> input) {
-    Map<Integer, INodeInstance> nodes = plan.getNodes();
+    Map<Integer, INodeInstance> nodes = plan.getAllNodes();
     if (nodes == null) {
       throw new RuntimeException(String.format("%d Failed to set input for non-existing "
           + "existing sources: %s", workerID, plan.getNodeNames()));
@@ -389,7 +398,7 @@ public class TaskExecutor implements FaultAcceptable {
    */
   public static void collectData(Config cfg, ExecutionPlan executionPlan,
                                  Map<String, DataObject> dataMap) {
-    Map<Integer, INodeInstance> nodes = executionPlan.getNodes();
+    Map<Integer, INodeInstance> nodes = executionPlan.getAllNodes();
     Map<String, DataObject> dataObjectMapForPlan = new HashMap<>();
     if (nodes != null) {
       nodes.forEach((taskId, node) -> {
@@ -424,7 +433,7 @@ public class TaskExecutor implements FaultAcceptable {
    * intended {@link Receptor}s
    */
   public static void distributeData(ExecutionPlan executionPlan, Map<String, DataObject> dataMap) {
-    Map<Integer, INodeInstance> nodes = executionPlan.getNodes();
+    Map<Integer, INodeInstance> nodes = executionPlan.getAllNodes();
     if (nodes != null) {
       nodes.forEach((id, node) -> {
         INode task = node.getNode();
@@ -463,10 +472,30 @@ public class TaskExecutor implements FaultAcceptable {
     }
   }
 
+  /**
+   * The cost aware scheduler places the instances using the measurements of the previous
+   * executions of the graph, measure the executions only for this scheduler and combine the
+   * measurements of all the workers before scheduling
+   */
+  private void exchangeStatistics(ComputeGraph graph) {
+    if (graph.getOperationMode() == OperationMode.BATCH
+        && CostAwareBatchTaskScheduler.class.getName().equals(
+        TaskSchedulerContext.batchTaskSchedulingClass(config))) {
+      ExecutionStatistics.record(graph.getGraphName());
+      ExecutionStatisticsExchange.exchange(communicator, workerID, workerInfoList,
+          graph.getGraphName());
+    }
+  }
+
   private WorkerPlan createWorkerPlan() {
     List<Worker> workers = new ArrayList<>();
     for (JobMasterAPI.WorkerInfo workerInfo : workerInfoList) {
       Worker w = new Worker(workerInfo.getWorkerID());
+      String host = workerInfo.getNodeInfo().getNodeIP();
+      if (host == null || host.isEmpty()) {
+        host = workerInfo.getWorkerIP();
+      }
+      w.addProperty(Context.TWISTER2_WORKER_HOST, host);
       workers.add(w);
     }
 
@@ -20,4 +20,12 @@ public interface WindowLifeCycleListener<T> extends Serializable {
   void onActivation(IWindowMessage<T> events, IWindowMessage<T> newEvents,
                     IWindowMessage<T> expired);
 
+  /**
+   * Called instead of {@link #onActivation} when the window is aggregated incrementally
+   *
+   * @param aggregate the aggregate of the events in the window
+   */
+  default void onAggregate(T aggregate) {
+  }
+
 }
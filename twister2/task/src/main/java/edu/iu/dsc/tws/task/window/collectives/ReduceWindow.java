@@ -11,6 +11,7 @@
 //  limitations under the License.
 package edu.iu.dsc.tws.task.window.collectives;
 
+import edu.iu.dsc.tws.api.compute.IFunction;
 import edu.iu.dsc.tws.api.compute.IMessage;
 import edu.iu.dsc.tws.task.window.api.IWindowMessage;
 import edu.iu.dsc.tws.task.window.core.BaseWindowedSink;
@@ -45,6 +46,19 @@ public abstract class ReduceWindow<T> extends BaseWindowedSink<T> {
     return true;
   }
 
+  /**
+   * Reduce functions are associative, so the windows are reduced as the events arrive
+   */
+  @Override
+  protected IFunction<T> getIncrementalFunction() {
+    return reduceWindowedFunction;
+  }
+
+  @Override
+  protected boolean executeAggregate(T aggregate) {
+    return reduce(aggregate);
+  }
+
   @Override
   public boolean getLateMessages(IMessage<T> lateMessages) {
     T lateMsg = lateMessages.getContent();
@@ -18,6 +18,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import edu.iu.dsc.tws.api.compute.IFunction;
 import edu.iu.dsc.tws.api.compute.IMessage;
 import edu.iu.dsc.tws.api.compute.TaskContext;
 import edu.iu.dsc.tws.api.compute.modifiers.Closable;
@@ -32,6 +33,7 @@ import edu.iu.dsc.tws.task.window.api.WindowLifeCycleListener;
 import edu.iu.dsc.tws.task.window.config.WindowConfig;
 import edu.iu.dsc.tws.task.window.event.WatermarkEventGenerator;
 import edu.iu.dsc.tws.task.window.exceptions.InvalidWindow;
+import edu.iu.dsc.tws.task.window.manage.IncrementalWindowManager;
 import edu.iu.dsc.tws.task.window.manage.WindowManager;
 import edu.iu.dsc.tws.task.window.policy.eviction.count.CountEvictionPolicy;
 import edu.iu.dsc.tws.task.window.policy.eviction.count.WatermarkCountEvictionPolicy;
@@ -69,6 +71,11 @@ public abstract class BaseWindowedSink<T> extends AbstractSingleWindowDataSink<T
 
   protected WindowManager<T> windowManager;
 
+  /**
+   * Manager used instead of the window manager when the windows are aggregated incrementally
+   */
+  protected IncrementalWindowManager<T> incrementalManager;
+
   protected IWindowingPolicy<T> windowingPolicy;
 
   protected WindowParameter windowParameter;
@@ -128,7 +135,11 @@ public abstract class BaseWindowedSink<T> extends AbstractSingleWindowDataSink<T
         watermarkEventGenerator = new WatermarkEventGenerator(this.windowManager,
             maxLagMs, watermarkInt, getComponentStreams(context));
       }
-      setPolicies(this.iWindow.getWindowStrategy());
+      if (!isTimestamped() && getIncrementalFunction() != null) {
+        setIncrementalPolicies(this.iWindow);
+      } else {
+        setPolicies(this.iWindow.getWindowStrategy());
+      }
       start();
     } catch (InvalidWindow invalidWindow) {
       invalidWindow.printStackTrace();
@@ -149,12 +160,37 @@ public abstract class BaseWindowedSink<T> extends AbstractSingleWindowDataSink<T
         //  with the next windowing message
         getLateMessages(message);
       }
+    } else if (incrementalManager != null) {
+      this.incrementalManager.add(message);
     } else {
       this.windowManager.add(message);
     }
     return true;
   }
 
+  /**
+   * The function to aggregate the events of a window as they arrive. If this returns a function
+   * the events are not kept and {@link #executeAggregate(Object)} is called with the aggregate
+   * of each window instead of {@link #execute(IWindowMessage)}. The function must be
+   * associative, the events are combined in arrival order but grouped into panes. Windows with
+   * a timestamp extractor always keep the events.
+   *
+   * @return the function or null if the events of the window are needed
+   */
+  protected IFunction<T> getIncrementalFunction() {
+    return null;
+  }
+
+  /**
+   * Process the aggregate of a window when the windows are aggregated incrementally
+   *
+   * @param aggregate the aggregate of the events in the window
+   * @return true if the aggregate is processed
+   */
+  protected boolean executeAggregate(T aggregate) {
+    return true;
+  }
+
   public BaseWindowedSink<T> withTumblingCountWindow(long tumblingCount) {
     this.windowParameter = new WindowParameter();
     this.windowParameter.withTumblingCountWindow(tumblingCount);
@@ -221,6 +257,12 @@ public abstract class BaseWindowedSink<T> extends AbstractSingleWindowDataSink<T
         collectiveEvents = events;
         execute(collectiveEvents);
       }
+
+      @Override
+      public void onAggregate(T aggregate) {
+        collectiveOutput = aggregate;
+        executeAggregate(aggregate);
+      }
     };
   }
 
@@ -286,6 +328,19 @@ public abstract class BaseWindowedSink<T> extends AbstractSingleWindowDataSink<T
   }
 
 
+  private void setIncrementalPolicies(IWindow window) {
+    IWindowStrategy<T> windowStrategy = window.getWindowStrategy();
+    this.evictionPolicy = windowStrategy.getEvictionPolicy();
+    boolean countWindow = this.evictionPolicy instanceof CountEvictionPolicy;
+    this.incrementalManager = new IncrementalWindowManager<>(getIncrementalFunction(),
+        this.windowLifeCycleListener, window.getWindowLength(), window.getSlidingLength(),
+        countWindow);
+    // count windows are triggered by the manager, the policy only drives the duration windows
+    this.windowingPolicy = windowStrategy.getWindowingPolicy(this.incrementalManager,
+        this.evictionPolicy);
+    this.incrementalManager.setWindowingPolicy(this.windowingPolicy);
+  }
+
   public void start() {
     if (watermarkEventGenerator != null) {
       LOG.info("Starting WatermarkGenerator");
@@ -301,7 +356,11 @@ public abstract class BaseWindowedSink<T> extends AbstractSingleWindowDataSink<T
     if (watermarkEventGenerator != null) {
       watermarkEventGenerator.shutdown();
     }
-    this.windowManager.shutdown();
+    if (incrementalManager != null) {
+      this.incrementalManager.shutdown();
+    } else {
+      this.windowManager.shutdown();
+    }
   }
 
   @Override
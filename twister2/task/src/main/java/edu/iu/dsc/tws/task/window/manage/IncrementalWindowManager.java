@@ -0,0 +1,197 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.task.window.manage;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import edu.iu.dsc.tws.api.compute.IFunction;
+import edu.iu.dsc.tws.api.compute.IMessage;
+import edu.iu.dsc.tws.task.window.api.WindowLifeCycleListener;
+import edu.iu.dsc.tws.task.window.policy.trigger.IWindowingPolicy;
+
+/**
+ * A window manager that aggregates the events as they arrive instead of keeping them, for the
+ * windows that only need the aggregate of their events.
+ * <p>
+ * The stream is divided into panes whose length is the greatest common divisor of the window
+ * and the sliding lengths, so every window is made of whole panes. Events are combined into the
+ * aggregate of the open pane. When a pane is complete, its aggregate is added to a
+ * {@link SlidingWindowAggregator} holding the panes of the current window. A window is then
+ * produced from the pane aggregates without visiting its events, so each event costs O(1)
+ * amortized and only window length / pane length aggregates are kept in memory.
+ * <p>
+ * Count windows are triggered by the manager after every sliding length number of events.
+ * Duration windows are triggered by the timer of the windowing policy, the panes are counted
+ * from the time the manager is created.
+ */
+public class IncrementalWindowManager<T> implements IManager<T> {
+  private static final Logger LOG = Logger.getLogger(IncrementalWindowManager.class.getName());
+
+  private static final long serialVersionUID = -3870519385013475207L;
+
+  private final IFunction<T> function;
+
+  private final WindowLifeCycleListener<T> windowLifeCycleListener;
+
+  /**
+   * Weather the lengths are number of events instead of milliseconds
+   */
+  private final boolean countWindow;
+
+  /**
+   * Length of a pane
+   */
+  private final long paneLength;
+
+  private final long panesPerWindow;
+
+  private final long panesPerSlide;
+
+  private final ReentrantLock lock = new ReentrantLock();
+
+  private final long startTime;
+
+  private transient SlidingWindowAggregator<T> panes;
+
+  private IWindowingPolicy<T> windowingPolicy;
+
+  /**
+   * Index of the open pane
+   */
+  private long currentPane;
+
+  /**
+   * Aggregate of the events in the open pane
+   */
+  private T paneAggregate;
+
+  private boolean paneEmpty = true;
+
+  /**
+   * Number of events added
+   */
+  private long events;
+
+  /**
+   * Number of windows triggered
+   */
+  private long windows;
+
+  public IncrementalWindowManager(IFunction<T> function, WindowLifeCycleListener<T> listener,
+                                  long windowLength, long slidingLength, boolean countWindow) {
+    if (windowLength <= 0 || slidingLength <= 0) {
+      throw new IllegalArgumentException("Window length and sliding length must be positive");
+    }
+    this.function = function;
+    this.windowLifeCycleListener = listener;
+    this.countWindow = countWindow;
+    this.paneLength = gcd(windowLength, slidingLength);
+    this.panesPerWindow = windowLength / paneLength;
+    this.panesPerSlide = slidingLength / paneLength;
+    this.panes = new SlidingWindowAggregator<>(function);
+    this.startTime = System.currentTimeMillis();
+  }
+
+  public void setWindowingPolicy(IWindowingPolicy<T> windowingPolicy) {
+    this.windowingPolicy = windowingPolicy;
+  }
+
+  @Override
+  public void add(IMessage<T> message) {
+    boolean trigger;
+    lock.lock();
+    try {
+      long pane = countWindow ? events / paneLength
+          : (System.currentTimeMillis() - startTime) / paneLength;
+      if (pane != currentPane) {
+        closePane();
+        currentPane = pane;
+      }
+      T value = message.getContent();
+      paneAggregate = paneEmpty ? value : function.onMessage(paneAggregate, value);
+      paneEmpty = false;
+      events++;
+      trigger = countWindow && events % (panesPerSlide * paneLength) == 0;
+    } finally {
+      lock.unlock();
+    }
+
+    if (trigger) {
+      onEvent();
+    }
+  }
+
+  @Override
+  public boolean onEvent() {
+    T aggregate;
+    lock.lock();
+    try {
+      windows++;
+      long endPane = countWindow ? events / paneLength : windows * panesPerSlide;
+      if (currentPane < endPane) {
+        closePane();
+      }
+      panes.evictBefore(endPane - panesPerWindow);
+      aggregate = panes.aggregate();
+    } finally {
+      lock.unlock();
+    }
+
+    if (windowingPolicy != null) {
+      windowingPolicy.reset();
+    }
+    if (aggregate == null) {
+      LOG.log(Level.FINE, "No events processed for the window, onAggregate is not called");
+      return false;
+    }
+    windowLifeCycleListener.onAggregate(aggregate);
+    return true;
+  }
+
+  public void shutdown() {
+    if (windowingPolicy != null) {
+      windowingPolicy.shutdown();
+    }
+    lock.lock();
+    try {
+      panes.clear();
+      paneAggregate = null;
+      paneEmpty = true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Move the aggregate of the open pane to the window
+   */
+  private void closePane() {
+    if (!paneEmpty) {
+      panes.add(currentPane, paneAggregate);
+      paneAggregate = null;
+      paneEmpty = true;
+    }
+  }
+
+  private static long gcd(long a, long b) {
+    long x = a;
+    long y = b;
+    while (y != 0) {
+      long t = x % y;
+      x = y;
+      y = t;
+    }
+    return x;
+  }
+}
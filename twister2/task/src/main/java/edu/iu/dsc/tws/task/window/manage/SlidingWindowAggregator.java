@@ -0,0 +1,145 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.task.window.manage;
+
+import java.util.Arrays;
+
+import edu.iu.dsc.tws.api.compute.IFunction;
+
+/**
+ * A first in first out queue of values that keeps the aggregate of its contents, implemented
+ * with two stacks. New values are pushed to the back stack with a running aggregate. When the
+ * oldest value is removed and the front stack is empty, the back stack is moved to the front
+ * while computing the aggregate of each value with the values that came after it.
+ * <p>
+ * Each value is combined a constant number of times, so adding, removing and querying are
+ * O(1) amortized. The function only needs to be associative, values are always combined in
+ * arrival order. Each value carries a long tag, a pane index or a sequence number, used to
+ * decide when it leaves the window.
+ */
+final class SlidingWindowAggregator<T> {
+  private final IFunction<T> function;
+
+  /**
+   * Front stack, the oldest value is at the top
+   */
+  private Object[] frontAggregates = new Object[16];
+
+  private long[] frontTags = new long[16];
+
+  private int frontSize;
+
+  /**
+   * Back stack, the newest value is at the top
+   */
+  private Object[] backValues = new Object[16];
+
+  private long[] backTags = new long[16];
+
+  private int backSize;
+
+  /**
+   * Aggregate of the back stack
+   */
+  private T backAggregate;
+
+  SlidingWindowAggregator(IFunction<T> function) {
+    this.function = function;
+  }
+
+  void add(long tag, T value) {
+    if (backSize == backValues.length) {
+      backValues = Arrays.copyOf(backValues, backSize * 2);
+      backTags = Arrays.copyOf(backTags, backSize * 2);
+    }
+    backValues[backSize] = value;
+    backTags[backSize] = tag;
+    backSize++;
+    backAggregate = backSize == 1 ? value : function.onMessage(backAggregate, value);
+  }
+
+  /**
+   * Remove the values with a tag less than the given one from the front of the queue
+   */
+  void evictBefore(long tag) {
+    while (size() > 0 && oldestTag() < tag) {
+      removeOldest();
+    }
+  }
+
+  int size() {
+    return frontSize + backSize;
+  }
+
+  /**
+   * The aggregate of all the values in arrival order, null if the queue is empty
+   */
+  T aggregate() {
+    if (frontSize == 0) {
+      return backSize == 0 ? null : backAggregate;
+    }
+    T front = frontAggregate(frontSize - 1);
+    return backSize == 0 ? front : function.onMessage(front, backAggregate);
+  }
+
+  void clear() {
+    Arrays.fill(frontAggregates, 0, frontSize, null);
+    Arrays.fill(backValues, 0, backSize, null);
+    frontSize = 0;
+    backSize = 0;
+    backAggregate = null;
+  }
+
+  private long oldestTag() {
+    if (frontSize == 0) {
+      flip();
+    }
+    return frontTags[frontSize - 1];
+  }
+
+  private void removeOldest() {
+    if (frontSize == 0) {
+      flip();
+    }
+    frontSize--;
+    frontAggregates[frontSize] = null;
+  }
+
+  /**
+   * Move the back stack to the front, the newest value goes to the bottom
+   */
+  private void flip() {
+    if (frontAggregates.length < backSize) {
+      frontAggregates = new Object[backValues.length];
+      frontTags = new long[backValues.length];
+    }
+    T aggregate = null;
+    for (int i = backSize - 1; i >= 0; i--) {
+      T value = backValue(i);
+      aggregate = i == backSize - 1 ? value : function.onMessage(value, aggregate);
+      frontAggregates[frontSize] = aggregate;
+      frontTags[frontSize] = backTags[i];
+      frontSize++;
+      backValues[i] = null;
+    }
+    backSize = 0;
+    backAggregate = null;
+  }
+
+  private T frontAggregate(int i) {
+    return (T) frontAggregates[i];
+  }
+
+  private T backValue(int i) {
+    return (T) backValues[i];
+  }
+}
@@ -0,0 +1,106 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.task.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import edu.iu.dsc.tws.api.compute.IFunction;
+import edu.iu.dsc.tws.api.compute.TaskMessage;
+import edu.iu.dsc.tws.task.window.api.IWindowMessage;
+import edu.iu.dsc.tws.task.window.api.WindowLifeCycleListener;
+import edu.iu.dsc.tws.task.window.manage.IncrementalWindowManager;
+
+public class IncrementalWindowManagerTest {
+
+  private IncrementalWindowManager<?> windowManager;
+
+  private static class Listener<T> implements WindowLifeCycleListener<T> {
+    private List<T> aggregates = new ArrayList<>();
+
+    @Override
+    public void onExpiry(IWindowMessage<T> events) {
+      Assert.fail("Expired events are not kept by the incremental manager");
+    }
+
+    @Override
+    public void onActivation(IWindowMessage<T> events, IWindowMessage<T> newEvents,
+                             IWindowMessage<T> expired) {
+      Assert.fail("Events are not kept by the incremental manager");
+    }
+
+    @Override
+    public void onAggregate(T aggregate) {
+      aggregates.add(aggregate);
+    }
+  }
+
+  private static class Sum implements IFunction<Integer> {
+    @Override
+    public Integer onMessage(Integer object1, Integer object2) {
+      return object1 + object2;
+    }
+  }
+
+  private static class Concat implements IFunction<String> {
+    @Override
+    public String onMessage(String object1, String object2) {
+      return object1 + object2;
+    }
+  }
+
+  @After
+  public void tearDown() {
+    windowManager.shutdown();
+  }
+
+  @Test
+  public void testCountSlidingWindow() {
+    Listener<Integer> listener = new Listener<>();
+    IncrementalWindowManager<Integer> manager = new IncrementalWindowManager<>(new Sum(),
+        listener, 5, 2, true);
+    windowManager = manager;
+    for (int i = 1; i <= 10; i++) {
+      manager.add(new TaskMessage<>(i));
+    }
+    Assert.assertEquals(Arrays.asList(3, 10, 20, 30, 40), listener.aggregates);
+  }
+
+  @Test
+  public void testCountTumblingWindow() {
+    Listener<Integer> listener = new Listener<>();
+    IncrementalWindowManager<Integer> manager = new IncrementalWindowManager<>(new Sum(),
+        listener, 4, 4, true);
+    windowManager = manager;
+    for (int i = 1; i <= 9; i++) {
+      manager.add(new TaskMessage<>(i));
+    }
+    Assert.assertEquals(Arrays.asList(10, 26), listener.aggregates);
+  }
+
+  @Test
+  public void testArrivalOrder() {
+    Listener<String> listener = new Listener<>();
+    IncrementalWindowManager<String> manager = new IncrementalWindowManager<>(new Concat(),
+        listener, 6, 4, true);
+    windowManager = manager;
+    for (char c = 'a'; c <= 'l'; c++) {
+      manager.add(new TaskMessage<>(String.valueOf(c)));
+    }
+    Assert.assertEquals(Arrays.asList("abcd", "cdefgh", "ghijkl"), listener.aggregates);
+  }
+}
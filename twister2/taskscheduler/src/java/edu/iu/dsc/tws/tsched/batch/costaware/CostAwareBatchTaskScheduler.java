@@ -0,0 +1,621 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.tsched.batch.costaware;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import edu.iu.dsc.tws.api.compute.OperationNames;
+import edu.iu.dsc.tws.api.compute.exceptions.TaskSchedulerException;
+import edu.iu.dsc.tws.api.compute.graph.ComputeGraph;
+import edu.iu.dsc.tws.api.compute.graph.DirectedEdge;
+import edu.iu.dsc.tws.api.compute.graph.Edge;
+import edu.iu.dsc.tws.api.compute.graph.Vertex;
+import edu.iu.dsc.tws.api.compute.modifiers.Collector;
+import edu.iu.dsc.tws.api.compute.modifiers.Receptor;
+import edu.iu.dsc.tws.api.compute.schedule.ExecutionStatistics;
+import edu.iu.dsc.tws.api.compute.schedule.ITaskScheduler;
+import edu.iu.dsc.tws.api.compute.schedule.elements.Resource;
+import edu.iu.dsc.tws.api.compute.schedule.elements.TaskInstanceId;
+import edu.iu.dsc.tws.api.compute.schedule.elements.TaskInstancePlan;
+import edu.iu.dsc.tws.api.compute.schedule.elements.TaskSchedulePlan;
+import edu.iu.dsc.tws.api.compute.schedule.elements.Worker;
+import edu.iu.dsc.tws.api.compute.schedule.elements.WorkerPlan;
+import edu.iu.dsc.tws.api.compute.schedule.elements.WorkerSchedulePlan;
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.api.config.Context;
+import edu.iu.dsc.tws.api.data.BlockLocation;
+import edu.iu.dsc.tws.api.data.FileStatus;
+import edu.iu.dsc.tws.api.data.FileSystem;
+import edu.iu.dsc.tws.api.data.Path;
+import edu.iu.dsc.tws.data.utils.DataObjectConstants;
+import edu.iu.dsc.tws.data.utils.FileSystemUtils;
+import edu.iu.dsc.tws.tsched.spi.common.TaskSchedulerContext;
+import edu.iu.dsc.tws.tsched.spi.taskschedule.TaskInstanceMapCalculation;
+import edu.iu.dsc.tws.tsched.utils.TaskAttributes;
+import edu.iu.dsc.tws.tsched.utils.TaskVertexParser;
+
+/**
+ * This scheduler places the task instances using the measurements of the previous executions of
+ * the graph, the locations of the input data and the load of the workers.
+ * <p>
+ * The instances are placed one at a time, the heaviest first, on the worker with the lowest cost.
+ * The cost of a worker is its load after adding the instance relative to the average load, minus
+ * the fraction of the communication of the instance that stays inside the worker, minus a
+ * locality gain if the input of a source instance is on the host of the worker. The three terms
+ * are weighted with the values from {@link TaskSchedulerContext}.
+ * <p>
+ * The load of an instance is the time it spent executing relative to the average instance and
+ * the communication of an edge is the number of messages sent through it, both taken from
+ * {@link ExecutionStatistics}. When a graph is scheduled the first time the instances have the
+ * same load and the edges the same volume, so the instances connected through direct and pipe
+ * edges are placed together. A worker gets at most the maximum instances per worker given in
+ * the graph constraints, a skewed instance may get a worker for itself.
+ * <p>
+ * The source tasks read the input splits local to their host first, so the sources are spread
+ * over the hosts in proportion to the bytes of the input directory stored on each host.
+ */
+public class CostAwareBatchTaskScheduler implements ITaskScheduler {
+
+  private static final Logger LOG = Logger.getLogger(CostAwareBatchTaskScheduler.class.getName());
+
+  //Represents global task Id
+  private int gTaskId = 0;
+
+  //Represents the task instance ram
+  private Double instanceRAM;
+
+  //Represents the task instance disk
+  private Double instanceDisk;
+
+  //Represents the task instance cpu value
+  private Double instanceCPU;
+
+  //Config object
+  private Config config;
+
+  //WorkerId
+  private int workerId;
+
+  //Task Attributes Object
+  private TaskAttributes taskAttributes;
+
+  //Weight of the worker load in the cost
+  private double loadWeight;
+
+  //Weight of the communication kept inside a worker in the cost
+  private double communicationWeight;
+
+  //Weight of the input data locality in the cost
+  private double localityWeight;
+
+  //Weather multiple graphs exchanging data through receptors and collectors are scheduled
+  private boolean dependentGraphs = false;
+
+  /**
+   * This method initialize the task instance values with the values specified in the task config
+   * object.
+   */
+  @Override
+  public void initialize(Config cfg) {
+    this.config = cfg;
+    this.instanceRAM = TaskSchedulerContext.taskInstanceRam(config);
+    this.instanceDisk = TaskSchedulerContext.taskInstanceDisk(config);
+    this.instanceCPU = TaskSchedulerContext.taskInstanceCpu(config);
+    this.loadWeight = TaskSchedulerContext.costAwareLoadWeight(config);
+    this.communicationWeight = TaskSchedulerContext.costAwareCommunicationWeight(config);
+    this.localityWeight = TaskSchedulerContext.costAwareLocalityWeight(config);
+    this.taskAttributes = new TaskAttributes();
+  }
+
+  @Override
+  public void initialize(Config cfg, int workerid) {
+    this.initialize(cfg);
+    this.workerId = workerid;
+  }
+
+  /**
+   * Schedule multiple graphs. The instances of the receptor and collector tasks are placed on
+   * the worker given by their index, so that the instances exchanging data in memory across the
+   * graphs are on the same worker.
+   */
+  public Map<String, TaskSchedulePlan> schedule(WorkerPlan workerPlan,
+                                                ComputeGraph... computeGraphs) {
+    Map<String, TaskSchedulePlan> taskSchedulePlanMap = new LinkedHashMap<>();
+    dependentGraphs = computeGraphs.length > 1;
+    for (ComputeGraph computeGraph : computeGraphs) {
+      taskSchedulePlanMap.put(computeGraph.getGraphName(), schedule(computeGraph, workerPlan));
+    }
+    return taskSchedulePlanMap;
+  }
+
+  @Override
+  public TaskSchedulePlan schedule(ComputeGraph graph, WorkerPlan workerPlan) {
+    int numberOfWorkers = workerPlan.getNumberOfWorkers();
+    String[] workerHosts = new String[numberOfWorkers];
+    for (int i = 0; i < numberOfWorkers; i++) {
+      Worker worker = workerPlan.getWorker(i);
+      if (worker != null && worker.getProperty(Context.TWISTER2_WORKER_HOST) != null) {
+        workerHosts[i] = String.valueOf(worker.getProperty(Context.TWISTER2_WORKER_HOST));
+      }
+    }
+
+    List<Vertex> vertices = orderedVertices(graph);
+    Map<String, Instance[]> taskInstances = createInstances(graph, vertices);
+    addLoads(graph, taskInstances);
+    addLinks(graph, taskInstances);
+    Map<String, TaskLocality> localities = createLocalities(graph, vertices, taskInstances);
+
+    int totalInstances = 0;
+    for (Instance[] instances : taskInstances.values()) {
+      totalInstances += instances.length;
+    }
+    // without a constraint the load term balances the workers
+    int capacity = taskAttributes.getInstancesPerWorker(graph.getGraphConstraints());
+    if (capacity <= 0) {
+      capacity = totalInstances;
+    } else if ((long) capacity * numberOfWorkers < totalInstances) {
+      throw new TaskSchedulerException("Task Scheduling couldn't be possible for the present"
+          + "configuration, please check the number of workers, "
+          + "maximum instances per worker");
+    }
+
+    Placement placement = new Placement(numberOfWorkers, capacity, workerHosts, taskInstances,
+        localities);
+    List<Instance> toPlace = new ArrayList<>();
+    for (Vertex vertex : vertices) {
+      boolean pinned = dependentGraphs
+          && (vertex.getTask() instanceof Receptor || vertex.getTask() instanceof Collector);
+      for (Instance instance : taskInstances.get(vertex.getName())) {
+        if (pinned) {
+          placement.place(instance, instance.index % numberOfWorkers);
+        } else {
+          toPlace.add(instance);
+        }
+      }
+    }
+    // the heaviest instances first, the list is already in the task order
+    toPlace.sort((o1, o2) -> Double.compare(o2.load, o1.load));
+    for (Instance instance : toPlace) {
+      placement.place(instance, placement.bestWorker(instance));
+    }
+
+    Map<Integer, List<TaskInstanceId>> containerInstanceMap = new LinkedHashMap<>();
+    for (int i = 0; i < numberOfWorkers; i++) {
+      containerInstanceMap.put(i, new ArrayList<>());
+    }
+    for (Vertex vertex : vertices) {
+      for (Instance instance : taskInstances.get(vertex.getName())) {
+        containerInstanceMap.get(instance.worker).add(
+            new TaskInstanceId(instance.task, instance.taskId, instance.index));
+      }
+    }
+    LOG.fine(() -> "Cost aware allocation of " + graph.getGraphName() + ": "
+        + containerInstanceMap);
+    return createSchedulePlan(graph, workerPlan, containerInstanceMap);
+  }
+
+  /**
+   * The vertices in the order the other batch schedulers assign the task ids
+   */
+  private List<Vertex> orderedVertices(ComputeGraph graph) {
+    List<Vertex> vertices = new ArrayList<>();
+    Set<Vertex> added = new HashSet<>();
+    for (Set<Vertex> vertexSet : new TaskVertexParser().parseVertexSet(graph)) {
+      TreeSet<Vertex> orderedTaskSet = new TreeSet<>(Comparator.comparing(Vertex::getName));
+      orderedTaskSet.addAll(vertexSet);
+      for (Vertex vertex : orderedTaskSet) {
+        if (added.add(vertex)) {
+          vertices.add(vertex);
+        }
+      }
+    }
+    return vertices;
+  }
+
+  private Map<String, Instance[]> createInstances(ComputeGraph graph, List<Vertex> vertices) {
+    Map<String, Instance[]> taskInstances = new HashMap<>();
+    for (Vertex vertex : vertices) {
+      Map<String, Integer> parallelTaskMap;
+      if (!graph.getNodeConstraints().isEmpty()) {
+        parallelTaskMap = taskAttributes.getParallelTaskMap(vertex, graph.getNodeConstraints());
+      } else {
+        parallelTaskMap = taskAttributes.getParallelTaskMap(vertex);
+      }
+      Instance[] instances = new Instance[parallelTaskMap.get(vertex.getName())];
+      for (int i = 0; i < instances.length; i++) {
+        instances[i] = new Instance(vertex.getName(), gTaskId, i);
+      }
+      taskInstances.put(vertex.getName(), instances);
+      gTaskId++;
+    }
+    return taskInstances;
+  }
+
+  /**
+   * The load of an instance is its busy time relative to the average of the measured instances,
+   * instances that were not measured get the average load
+   */
+  private void addLoads(ComputeGraph graph, Map<String, Instance[]> taskInstances) {
+    if (!ExecutionStatistics.hasGlobal(graph.getGraphName())) {
+      return;
+    }
+    double total = 0;
+    int measured = 0;
+    for (Instance[] instances : taskInstances.values()) {
+      for (Instance instance : instances) {
+        long busyTime = ExecutionStatistics.getBusyTime(graph.getGraphName(), instance.task,
+            instance.index);
+        if (busyTime > 0) {
+          total += busyTime;
+          measured++;
+        }
+      }
+    }
+    if (measured == 0) {
+      return;
+    }
+    double mean = total / measured;
+    for (Instance[] instances : taskInstances.values()) {
+      for (Instance instance : instances) {
+        long busyTime = ExecutionStatistics.getBusyTime(graph.getGraphName(), instance.task,
+            instance.index);
+        if (busyTime > 0) {
+          instance.load = busyTime / mean;
+        }
+      }
+    }
+  }
+
+  /**
+   * Link the instances of the tasks connected by each edge. The edges are sorted, so that the
+   * costs are added in the same order on every worker.
+   */
+  private void addLinks(ComputeGraph graph, Map<String, Instance[]> taskInstances) {
+    boolean measured = ExecutionStatistics.hasGlobal(graph.getGraphName());
+    List<DirectedEdge<Vertex, Edge>> edges = new ArrayList<>(graph.getDirectedEdgesSet());
+    edges.sort(Comparator.comparing((DirectedEdge<Vertex, Edge> e) -> e.getSourceVertex().getName())
+        .thenComparing(e -> e.getTargetVertex().getName())
+        .thenComparing(e -> e.getTaskEdge().getName()));
+    for (DirectedEdge<Vertex, Edge> edge : edges) {
+      Instance[] sources = taskInstances.get(edge.getSourceVertex().getName());
+      Instance[] targets = taskInstances.get(edge.getTargetVertex().getName());
+      if (sources == null || targets == null || sources == targets) {
+        continue;
+      }
+      double volume = measured ? ExecutionStatistics.getSentMessages(graph.getGraphName(),
+          edge.getTaskEdge().getName()) : 1.0;
+      if (volume <= 0) {
+        continue;
+      }
+      String operation = edge.getTaskEdge().getOperation();
+      boolean oneToOne = sources.length == targets.length
+          && (OperationNames.DIRECT.equals(operation) || OperationNames.PIPE.equals(operation)
+          || OperationNames.TABLE_DIRECT.equals(operation)
+          || OperationNames.TABLE_PIPE.equals(operation));
+      for (Instance source : sources) {
+        source.addLink(new Link(targets, oneToOne, volume / sources.length));
+      }
+      for (Instance target : targets) {
+        target.addLink(new Link(sources, oneToOne, volume / targets.length));
+      }
+    }
+  }
+
+  /**
+   * The number of instances of each source task to place on each host, proportional to the
+   * bytes of the input stored on the host
+   */
+  private Map<String, TaskLocality> createLocalities(ComputeGraph graph, List<Vertex> vertices,
+                                                     Map<String, Instance[]> taskInstances) {
+    Map<String, TaskLocality> localities = new HashMap<>();
+    if (localityWeight == 0) {
+      return localities;
+    }
+    Map<String, Double> hostBytes = inputBytesPerHost();
+    double totalBytes = 0;
+    for (double bytes : hostBytes.values()) {
+      totalBytes += bytes;
+    }
+    if (totalBytes <= 0) {
+      return localities;
+    }
+    for (Vertex vertex : vertices) {
+      if (graph.inDegreeOfTask(vertex) == 0) {
+        int parallel = taskInstances.get(vertex.getName()).length;
+        TaskLocality locality = new TaskLocality();
+        for (Map.Entry<String, Double> e : hostBytes.entrySet()) {
+          locality.expected.put(e.getKey(), parallel * e.getValue() / totalBytes);
+        }
+        localities.put(vertex.getName(), locality);
+      }
+    }
+    return localities;
+  }
+
+  /**
+   * The bytes of the input directory stored on each host, a replicated block is divided among
+   * its hosts
+   */
+  private Map<String, Double> inputBytesPerHost() {
+    Map<String, Double> hostBytes = new TreeMap<>();
+    if (config.get(DataObjectConstants.DINPUT_DIRECTORY) == null) {
+      return hostBytes;
+    }
+    Path path = new Path(String.valueOf(config.get(DataObjectConstants.DINPUT_DIRECTORY)));
+    try {
+      FileSystem fileSystem = FileSystemUtils.get(path, config);
+      FileStatus[] files;
+      if (fileSystem.isDirectory(path)) {
+        files = fileSystem.listFiles(path);
+      } else {
+        files = new FileStatus[]{fileSystem.getFileStatus(path)};
+      }
+      for (FileStatus file : files) {
+        if (file.isDir()) {
+          continue;
+        }
+        for (BlockLocation block : fileSystem.getFileBlockLocations(file, 0, file.getLen())) {
+          String[] hosts = block.getHosts();
+          for (String host : hosts) {
+            hostBytes.merge(host, (double) block.getLength() / hosts.length, Double::sum);
+          }
+        }
+      }
+    } catch (IOException e) {
+      LOG.log(Level.WARNING, "Failed to get the input block locations, scheduling without "
+          + "the data locality", e);
+      hostBytes.clear();
+    }
+    return hostBytes;
+  }
+
+  private TaskSchedulePlan createSchedulePlan(
+      ComputeGraph graph, WorkerPlan workerPlan,
+      Map<Integer, List<TaskInstanceId>> containerInstanceMap) {
+    Set<Vertex> taskVertexSet = graph.getTaskVertexSet();
+    TaskInstanceMapCalculation instanceMapCalculation =
+        new TaskInstanceMapCalculation(this.instanceRAM, this.instanceCPU, this.instanceDisk);
+    Map<Integer, Map<TaskInstanceId, Double>> instancesRamMap =
+        instanceMapCalculation.getInstancesRamMapInContainer(containerInstanceMap,
+            taskVertexSet);
+    Map<Integer, Map<TaskInstanceId, Double>> instancesDiskMap =
+        instanceMapCalculation.getInstancesDiskMapInContainer(containerInstanceMap,
+            taskVertexSet);
+    Map<Integer, Map<TaskInstanceId, Double>> instancesCPUMap =
+        instanceMapCalculation.getInstancesCPUMapInContainer(containerInstanceMap,
+            taskVertexSet);
+
+    Set<WorkerSchedulePlan> workerSchedulePlans = new HashSet<>();
+    for (Map.Entry<Integer, List<TaskInstanceId>> entry : containerInstanceMap.entrySet()) {
+      int containerId = entry.getKey();
+      double containerRAMValue = TaskSchedulerContext.containerRamPadding(config);
+      double containerDiskValue = TaskSchedulerContext.containerDiskPadding(config);
+      double containerCpuValue = TaskSchedulerContext.containerCpuPadding(config);
+
+      Set<TaskInstancePlan> taskInstancePlans = new HashSet<>();
+      for (TaskInstanceId id : entry.getValue()) {
+        double instanceRAMValue = instancesRamMap.get(containerId).get(id);
+        double instanceDiskValue = instancesDiskMap.get(containerId).get(id);
+        double instanceCPUValue = instancesCPUMap.get(containerId).get(id);
+
+        Resource instanceResource = new Resource(instanceRAMValue, instanceDiskValue,
+            instanceCPUValue);
+        taskInstancePlans.add(new TaskInstancePlan(
+            id.getTaskName(), id.getTaskId(), id.getTaskIndex(), instanceResource));
+
+        containerRAMValue += instanceRAMValue;
+        containerDiskValue += instanceDiskValue;
+        containerCpuValue += instanceCPUValue;
+      }
+
+      Worker worker = workerPlan.getWorker(containerId);
+      Resource containerResource;
+      if (worker != null && worker.getCpu() > 0
+          && worker.getDisk() > 0 && worker.getRam() > 0) {
+        containerResource = new Resource((double) worker.getRam(),
+            (double) worker.getDisk(), (double) worker.getCpu());
+      } else {
+        containerResource = new Resource(containerRAMValue, containerDiskValue,
+            containerCpuValue);
+      }
+      workerSchedulePlans.add(new WorkerSchedulePlan(containerId, taskInstancePlans,
+          containerResource));
+    }
+    return new TaskSchedulePlan(0, workerSchedulePlans);
+  }
+
+  /**
+   * The state of the workers while the instances are placed
+   */
+  private final class Placement {
+    private final int capacity;
+
+    private final String[] workerHosts;
+
+    private final double[] workerLoad;
+
+    private final int[] workerInstances;
+
+    private final Map<String, TaskLocality> localities;
+
+    /**
+     * Task name to the number of its instances on each worker
+     */
+    private final Map<String, int[]> taskCounts = new HashMap<>();
+
+    private final double averageLoad;
+
+    private Placement(int numberOfWorkers, int capacity, String[] workerHosts,
+                      Map<String, Instance[]> taskInstances,
+                      Map<String, TaskLocality> localities) {
+      this.capacity = capacity;
+      this.workerHosts = workerHosts;
+      this.workerLoad = new double[numberOfWorkers];
+      this.workerInstances = new int[numberOfWorkers];
+      this.localities = localities;
+      double totalLoad = 0;
+      for (Map.Entry<String, Instance[]> e : taskInstances.entrySet()) {
+        taskCounts.put(e.getKey(), new int[numberOfWorkers]);
+        for (Instance instance : e.getValue()) {
+          totalLoad += instance.load;
+        }
+      }
+      this.averageLoad = Math.max(totalLoad / numberOfWorkers, Double.MIN_VALUE);
+    }
+
+    private int bestWorker(Instance instance) {
+      int best = -1;
+      double bestCost = Double.MAX_VALUE;
+      for (int w = 0; w < workerLoad.length; w++) {
+        if (workerInstances[w] >= capacity) {
+          continue;
+        }
+        double cost = loadWeight * (workerLoad[w] + instance.load) / averageLoad
+            - communicationWeight * communicationGain(instance, w)
+            - localityWeight * localityGain(instance, w);
+        if (cost < bestCost) {
+          bestCost = cost;
+          best = w;
+        }
+      }
+      if (best < 0) {
+        throw new TaskSchedulerException("No worker has space for the instance "
+            + instance.task + ":" + instance.index);
+      }
+      return best;
+    }
+
+    /**
+     * The fraction of the messages of the instance exchanged with the instances already on the
+     * worker
+     */
+    private double communicationGain(Instance instance, int worker) {
+      if (instance.traffic <= 0) {
+        return 0;
+      }
+      double local = 0;
+      for (Link link : instance.links) {
+        if (link.oneToOne) {
+          if (link.peers[instance.index].worker == worker) {
+            local += link.messages;
+          }
+        } else {
+          local += link.messages * taskCounts.get(link.peers[0].task)[worker]
+              / link.peers.length;
+        }
+      }
+      return local / instance.traffic;
+    }
+
+    /**
+     * One if the host of the worker has less instances of the source task than its share of the
+     * input
+     */
+    private double localityGain(Instance instance, int worker) {
+      TaskLocality locality = localities.get(instance.task);
+      String host = workerHosts[worker];
+      if (locality == null || host == null) {
+        return 0;
+      }
+      double expected = locality.expected.getOrDefault(host, 0.0);
+      return locality.placed.getOrDefault(host, 0) < expected ? 1 : 0;
+    }
+
+    private void place(Instance instance, int worker) {
+      instance.worker = worker;
+      workerLoad[worker] += instance.load;
+      workerInstances[worker]++;
+      taskCounts.get(instance.task)[worker]++;
+      TaskLocality locality = localities.get(instance.task);
+      if (locality != null && workerHosts[worker] != null) {
+        locality.placed.merge(workerHosts[worker], 1, Integer::sum);
+      }
+    }
+  }
+
+  private static final class Instance {
+    private final String task;
+
+    private final int taskId;
+
+    private final int index;
+
+    private double load = 1.0;
+
+    private int worker = -1;
+
+    private final List<Link> links = new ArrayList<>();
+
+    /**
+     * Total messages exchanged by this instance
+     */
+    private double traffic;
+
+    private Instance(String task, int taskId, int index) {
+      this.task = task;
+      this.taskId = taskId;
+      this.index = index;
+    }
+
+    private void addLink(Link link) {
+      links.add(link);
+      traffic += link.messages;
+    }
+  }
+
+  /**
+   * The instances of a task connected to an instance through an edge
+   */
+  private static final class Link {
+    private final Instance[] peers;
+
+    /**
+     * Instance i only exchanges messages with the peer i
+     */
+    private final boolean oneToOne;
+
+    /**
+     * Messages exchanged by the instance through the edge, divided evenly among the peers
+     */
+    private final double messages;
+
+    private Link(Instance[] peers, boolean oneToOne, double messages) {
+      this.peers = peers;
+      this.oneToOne = oneToOne;
+      this.messages = messages;
+    }
+  }
+
+  private static final class TaskLocality {
+    /**
+     * Host to the number of instances expected on it
+     */
+    private final Map<String, Double> expected = new HashMap<>();
+
+    /**
+     * Host to the number of instances placed on it
+     */
+    private final Map<String, Integer> placed = new HashMap<>();
+  }
+}
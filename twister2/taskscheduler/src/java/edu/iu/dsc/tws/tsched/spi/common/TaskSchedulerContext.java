@@ -116,6 +116,18 @@ public class TaskSchedulerContext extends Context {
       + "taskscheduler.datanode.instance.latency";
   private static final double TWISTER2_TASK_SCHEDULER_DATANODE_INSTANCE_LATENCY_DEFAULT = 0.01;
 
+  private static final String TWISTER2_TASK_SCHEDULER_COST_AWARE_LOAD_WEIGHT = "twister2."
+      + "taskscheduler.costaware.load.weight";
+  private static final double TWISTER2_TASK_SCHEDULER_COST_AWARE_LOAD_WEIGHT_DEFAULT = 1.0;
+
+  private static final String TWISTER2_TASK_SCHEDULER_COST_AWARE_COMM_WEIGHT = "twister2."
+      + "taskscheduler.costaware.communication.weight";
+  private static final double TWISTER2_TASK_SCHEDULER_COST_AWARE_COMM_WEIGHT_DEFAULT = 1.0;
+
+  private static final String TWISTER2_TASK_SCHEDULER_COST_AWARE_LOCALITY_WEIGHT = "twister2."
+      + "taskscheduler.costaware.locality.weight";
+  private static final double TWISTER2_TASK_SCHEDULER_COST_AWARE_LOCALITY_WEIGHT_DEFAULT = 1.0;
+
   public static String streamingTaskSchedulingMode(Config cfg) {
     return cfg.getStringValue(TWISTER2_TASK_SCHEDULER_MODE_STREAMING,
         TWISTER2_TASK_SCHEDULER_MODE_STREAMING_DEFAULT);
@@ -231,5 +243,19 @@ public class TaskSchedulerContext extends Context {
         TWISTER2_TASK_SCHEDULER_DATANODE_INSTANCE_LATENCY_DEFAULT);
   }
 
-}
+  public static double costAwareLoadWeight(Config cfg) {
+    return cfg.getDoubleValue(TWISTER2_TASK_SCHEDULER_COST_AWARE_LOAD_WEIGHT,
+        TWISTER2_TASK_SCHEDULER_COST_AWARE_LOAD_WEIGHT_DEFAULT);
+  }
 
+  public static double costAwareCommunicationWeight(Config cfg) {
+    return cfg.getDoubleValue(TWISTER2_TASK_SCHEDULER_COST_AWARE_COMM_WEIGHT,
+        TWISTER2_TASK_SCHEDULER_COST_AWARE_COMM_WEIGHT_DEFAULT);
+  }
+
+  public static double costAwareLocalityWeight(Config cfg) {
+    return cfg.getDoubleValue(TWISTER2_TASK_SCHEDULER_COST_AWARE_LOCALITY_WEIGHT,
+        TWISTER2_TASK_SCHEDULER_COST_AWARE_LOCALITY_WEIGHT_DEFAULT);
+  }
+
+}
@@ -0,0 +1,142 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.tsched.batch.costaware;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import edu.iu.dsc.tws.api.comms.messaging.types.MessageTypes;
+import edu.iu.dsc.tws.api.compute.graph.ComputeGraph;
+import edu.iu.dsc.tws.api.compute.graph.OperationMode;
+import edu.iu.dsc.tws.api.compute.schedule.ExecutionStatistics;
+import edu.iu.dsc.tws.api.compute.schedule.elements.TaskInstancePlan;
+import edu.iu.dsc.tws.api.compute.schedule.elements.TaskSchedulePlan;
+import edu.iu.dsc.tws.api.compute.schedule.elements.Worker;
+import edu.iu.dsc.tws.api.compute.schedule.elements.WorkerPlan;
+import edu.iu.dsc.tws.api.compute.schedule.elements.WorkerSchedulePlan;
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.api.config.Context;
+import edu.iu.dsc.tws.task.impl.ComputeConnection;
+import edu.iu.dsc.tws.task.impl.ComputeGraphBuilder;
+import edu.iu.dsc.tws.tsched.utils.TaskSchedulerClassTest;
+
+public class CostAwareBatchTaskSchedulerTest {
+
+  private static final String GRAPH_NAME = "cost-aware-test";
+
+  @After
+  public void clear() {
+    ExecutionStatistics.clear(GRAPH_NAME);
+  }
+
+  @Test
+  public void testDirectInstancesTogether() {
+    int parallel = 8;
+    int workers = 4;
+    ComputeGraph graph = createGraph(parallel, false);
+    TaskSchedulePlan plan = schedule(graph, workers);
+
+    Map<String, Integer> taskWorkers = taskWorkers(plan);
+    for (int i = 0; i < parallel; i++) {
+      Assert.assertEquals(taskWorkers.get("source:" + i), taskWorkers.get("sink:" + i));
+    }
+    for (WorkerSchedulePlan workerPlan : plan.getContainers()) {
+      Assert.assertEquals(2 * parallel / workers, workerPlan.getTaskInstances().size());
+    }
+  }
+
+  @Test
+  public void testSkewedInstanceSpread() {
+    int parallel = 4;
+    int workers = 4;
+    ComputeGraph graph = createGraph(parallel, true);
+
+    for (int i = 0; i < parallel; i++) {
+      ExecutionStatistics.busyTimeCounter(GRAPH_NAME, "source", i).add(i == 0 ? 1000 : 10);
+      ExecutionStatistics.busyTimeCounter(GRAPH_NAME, "sink", i).add(10);
+    }
+    ExecutionStatistics.sentMessagesCounter(GRAPH_NAME, "partition-edge").add(1000);
+    ExecutionStatistics.setGlobal(GRAPH_NAME, ExecutionStatistics.takeLocal(GRAPH_NAME));
+
+    TaskSchedulePlan plan = schedule(graph, workers);
+    Map<String, Integer> taskWorkers = taskWorkers(plan);
+    int heavyWorker = taskWorkers.get("source:0");
+    for (Map.Entry<String, Integer> e : taskWorkers.entrySet()) {
+      if (!"source:0".equals(e.getKey())) {
+        Assert.assertNotEquals(heavyWorker, (int) e.getValue());
+      }
+    }
+  }
+
+  @Test
+  public void testSameScheduleOnEveryCall() {
+    int parallel = 16;
+    int workers = 3;
+    ComputeGraph graph = createGraph(parallel, true);
+    Map<String, Integer> first = taskWorkers(schedule(graph, workers));
+    for (int i = 0; i < 10; i++) {
+      Assert.assertEquals(first, taskWorkers(schedule(graph, workers)));
+    }
+  }
+
+  private TaskSchedulePlan schedule(ComputeGraph graph, int workers) {
+    CostAwareBatchTaskScheduler scheduler = new CostAwareBatchTaskScheduler();
+    scheduler.initialize(Config.newBuilder().build());
+    WorkerPlan workerPlan = new WorkerPlan();
+    for (int i = 0; i < workers; i++) {
+      Worker worker = new Worker(i);
+      worker.addProperty(Context.TWISTER2_WORKER_HOST, "host" + i);
+      workerPlan.addWorker(worker);
+    }
+    return scheduler.schedule(graph, workerPlan);
+  }
+
+  private Map<String, Integer> taskWorkers(TaskSchedulePlan plan) {
+    Map<String, Integer> taskWorkers = new HashMap<>();
+    for (WorkerSchedulePlan workerPlan : plan.getContainers()) {
+      Set<TaskInstancePlan> instances = workerPlan.getTaskInstances();
+      for (TaskInstancePlan instance : instances) {
+        taskWorkers.put(instance.getTaskName() + ":" + instance.getTaskIndex(),
+            workerPlan.getContainerId());
+      }
+    }
+    return taskWorkers;
+  }
+
+  private ComputeGraph createGraph(int parallel, boolean partition) {
+    TaskSchedulerClassTest.TestSource testSource = new TaskSchedulerClassTest.TestSource();
+    TaskSchedulerClassTest.TestSink testSink = new TaskSchedulerClassTest.TestSink();
+
+    ComputeGraphBuilder builder = ComputeGraphBuilder.newBuilder(Config.newBuilder().build());
+    builder.addSource("source", testSource, parallel);
+    ComputeConnection sinkConnection = builder.addCompute("sink", testSink, parallel);
+
+    if (partition) {
+      sinkConnection.partition("source")
+          .viaEdge("partition-edge")
+          .withDataType(MessageTypes.OBJECT);
+    } else {
+      sinkConnection.direct("source")
+          .viaEdge(Context.TWISTER2_DIRECT_EDGE)
+          .withDataType(MessageTypes.OBJECT);
+    }
+
+    builder.setMode(OperationMode.BATCH);
+    builder.setTaskGraphName(GRAPH_NAME);
+    return builder.build();
+  }
+}
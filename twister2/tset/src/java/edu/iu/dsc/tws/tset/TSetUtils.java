@@ -24,6 +24,7 @@ import edu.iu.dsc.tws.api.tset.TBase;
 import edu.iu.dsc.tws.api.tset.TSetContext;
 import edu.iu.dsc.tws.api.tset.fn.ComputeCollectorFunc;
 import edu.iu.dsc.tws.api.tset.fn.ComputeFunc;
+import edu.iu.dsc.tws.api.tset.fn.MultiOutputComputeFunc;
 import edu.iu.dsc.tws.api.tset.fn.TFunction;
 import edu.iu.dsc.tws.dataset.partition.BufferedCollectionPartition;
 import edu.iu.dsc.tws.dataset.partition.DiskBackedCollectionPartition;
@@ -97,6 +98,8 @@ public final class TSetUtils {
     } else if (function instanceof ComputeCollectorFunc) {
       // compc or compc2tup or scompc or scompc2tup
       return (streaming ? "s" : "") + "compc" + (keyed ? "2tup" : "");
+    } else if (function instanceof MultiOutputComputeFunc) {
+      return (streaming ? "s" : "") + "compm";
     } else {
       throw new RuntimeException("Unsupported function passed a compute TSet");
     }
@@ -25,15 +25,19 @@ import edu.iu.dsc.tws.api.dataset.EmptyDataObject;
 import edu.iu.dsc.tws.api.resource.WorkerEnvironment;
 import edu.iu.dsc.tws.api.tset.fn.MapFunc;
 import edu.iu.dsc.tws.api.tset.fn.SourceFunc;
+import edu.iu.dsc.tws.api.tset.schema.RowSchema;
 import edu.iu.dsc.tws.api.tset.sets.StorableTBase;
 import edu.iu.dsc.tws.common.table.Row;
 import edu.iu.dsc.tws.tset.TSetUtils;
 import edu.iu.dsc.tws.tset.fn.impl.ArrowBasedSourceFunction;
+import edu.iu.dsc.tws.tset.fn.impl.ArrowTableSourceFunction;
 import edu.iu.dsc.tws.tset.fn.impl.CSVBasedSourceFunction;
+import edu.iu.dsc.tws.tset.fn.impl.CSVTableSourceFunction;
 import edu.iu.dsc.tws.tset.fn.impl.TextBasedSourceFunction;
 import edu.iu.dsc.tws.tset.sets.BaseTSet;
 import edu.iu.dsc.tws.tset.sets.batch.KeyedSourceTSet;
 import edu.iu.dsc.tws.tset.sets.batch.SourceTSet;
+import edu.iu.dsc.tws.tset.sets.batch.row.ArrowRowSourceTSet;
 import edu.iu.dsc.tws.tset.sets.batch.row.RowSourceTSet;
 import edu.iu.dsc.tws.tset.sources.HadoopSource;
 import edu.iu.dsc.tws.tset.sources.HadoopSourceWithMap;
@@ -137,6 +141,48 @@ public class BatchEnvironment extends TSetEnvironment {
     return sourceT;
   }
 
+  /**
+   * Read local arrow files as the tables of a row tset, one table for each record batch. The
+   * record batches are split among the parallel sources and only the given columns are read.
+   *
+   * @param filePath an arrow file or a directory of arrow files
+   * @param parallelism parallelism of the source
+   * @param columns the columns to read, all the columns if none are given
+   * @return the source tset, its schema should be set with withSchema
+   */
+  public ArrowRowSourceTSet createArrowRowSource(String filePath, int parallelism,
+                                                 String... columns) {
+    ArrowRowSourceTSet sourceT = new ArrowRowSourceTSet(this, "arrowsource",
+        new ArrowTableSourceFunction(filePath, columns), parallelism, null);
+    getGraph().addSourceTSet(sourceT);
+
+    return sourceT;
+  }
+
+  /**
+   * Read local delimited text files as the tables of a row tset with the given schema. The
+   * files are split by bytes among the parallel sources and the fields are parsed directly into
+   * the columns of the tables, instead of creating a string for each field as
+   * {@link #createCSVSource(String, int, int, String)} does.
+   *
+   * @param filePath a file or a directory of files
+   * @param parallelism parallelism of the source
+   * @param schema the types of the fields in a line
+   * @param fieldDelimiter the field delimiter, a single byte character
+   * @param skipHeader weather the first line of each file is a header
+   * @return the source tset
+   */
+  public ArrowRowSourceTSet createCSVRowSource(String filePath, int parallelism,
+                                               RowSchema schema, char fieldDelimiter,
+                                               boolean skipHeader) {
+    ArrowRowSourceTSet sourceT = new ArrowRowSourceTSet(this, "csvsource",
+        new CSVTableSourceFunction(filePath, schema, fieldDelimiter, skipHeader), parallelism,
+        schema);
+    getGraph().addSourceTSet(sourceT);
+
+    return sourceT;
+  }
+
   public <K, V, F extends InputFormat<K, V>> SourceTSet<Tuple<K, V>> createHadoopSource(
       Configuration configuration, Class<F> inputFormat, int parallel) {
     SourceTSet<Tuple<K, V>> sourceT = new SourceTSet<>(this,
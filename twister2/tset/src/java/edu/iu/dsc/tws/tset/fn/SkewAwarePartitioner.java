@@ -0,0 +1,146 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.tset.fn;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import edu.iu.dsc.tws.api.tset.fn.PartitionFunc;
+import edu.iu.dsc.tws.common.util.CountMinSketch;
+
+/**
+ * A key partitioner that detects skewed keys while partitioning. Each source counts the keys it
+ * sends in a {@link CountMinSketch}. Once a source has seen enough keys, a key whose share of the
+ * keys is more than the share of a target is heavy, and its records are sent to the target that
+ * got the least records from the source, so the heavy keys fill up the targets left light by the
+ * hashing. A source that has seen only a few records sends the light keys to fewer targets, at
+ * least a given number of records per target, instead of spreading a small amount of data over
+ * all of them.
+ * <p>
+ * The same key can go to more than one target, so this partitioner can only be used when the
+ * results of the targets are combined again, such as the first stage of
+ * {@link edu.iu.dsc.tws.api.tset.sets.batch.BatchTupleTSet#skewAwareKeyedReduce}.
+ *
+ * @param <T> key type
+ */
+public class SkewAwarePartitioner<T> implements PartitionFunc<T> {
+  private static final int SKETCH_DEPTH = 4;
+
+  private static final int SKETCH_WIDTH = 2048;
+
+  public static final long DEFAULT_MIN_SAMPLES = 1000;
+
+  public static final double DEFAULT_SKEW_FACTOR = 1.0;
+
+  public static final long DEFAULT_MIN_RECORDS_PER_TARGET = 256;
+
+  /**
+   * Number of keys a source counts before splitting the heavy keys
+   */
+  private long minSamples;
+
+  /**
+   * A key is heavy when its share is more than this many times the share of a target
+   */
+  private double skewFactor;
+
+  /**
+   * Minimum number of records seen by a source for each target it sends the light keys to,
+   * 0 to always use all the targets
+   */
+  private long minRecordsPerTarget;
+
+  private List<Integer> destinations = new ArrayList<>();
+
+  private Map<Integer, SourceState> sourceStates = new HashMap<>();
+
+  public SkewAwarePartitioner() {
+    this(DEFAULT_MIN_SAMPLES, DEFAULT_SKEW_FACTOR, DEFAULT_MIN_RECORDS_PER_TARGET);
+  }
+
+  /**
+   * Create the partitioner
+   *
+   * @param minSamples number of keys a source counts before splitting the heavy keys
+   * @param skewFactor a key is heavy when its share is more than this many times the share of
+   * a target
+   * @param minRecordsPerTarget minimum records seen by a source for each target used for the
+   * light keys, 0 to always use all the targets
+   */
+  public SkewAwarePartitioner(long minSamples, double skewFactor, long minRecordsPerTarget) {
+    if (skewFactor <= 0) {
+      throw new IllegalArgumentException("Skew factor should be positive: " + skewFactor);
+    }
+    this.minSamples = minSamples;
+    this.skewFactor = skewFactor;
+    this.minRecordsPerTarget = minRecordsPerTarget;
+  }
+
+  @Override
+  public void prepare(Set<Integer> sources, Set<Integer> dests) {
+    destinations = new ArrayList<>(dests);
+    destinations.sort(Comparator.comparingInt(o -> o));
+    sourceStates = new HashMap<>();
+    for (int s : sources) {
+      sourceStates.put(s, new SourceState(destinations.size()));
+    }
+  }
+
+  @Override
+  public int partition(int sourceIndex, T val) {
+    SourceState state = sourceStates.get(sourceIndex);
+    int targets = destinations.size();
+    int hash = val.hashCode();
+    long count = state.sketch.add(hash, 1);
+    long total = state.sketch.getTotal();
+    int target;
+    if (total >= minSamples && count * (double) targets > total * skewFactor) {
+      target = state.leastLoaded();
+    } else if (minRecordsPerTarget > 0 && total / minRecordsPerTarget < targets) {
+      target = (int) (Math.abs((long) hash) % Math.max(1, total / minRecordsPerTarget));
+    } else {
+      target = (int) (Math.abs((long) hash) % targets);
+    }
+    state.sent[target]++;
+    return destinations.get(target);
+  }
+
+  /**
+   * Key counts of a source
+   */
+  private static final class SourceState {
+    private final CountMinSketch sketch = new CountMinSketch(SKETCH_DEPTH, SKETCH_WIDTH);
+
+    /**
+     * Number of records sent to each target
+     */
+    private final long[] sent;
+
+    private SourceState(int targets) {
+      this.sent = new long[targets];
+    }
+
+    private int leastLoaded() {
+      int min = 0;
+      for (int i = 1; i < sent.length; i++) {
+        if (sent[i] < sent[min]) {
+          min = i;
+        }
+      }
+      return min;
+    }
+  }
+}
@@ -0,0 +1,146 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.tset.fn.impl;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.apache.arrow.vector.util.TransferPair;
+
+import edu.iu.dsc.tws.api.data.Path;
+import edu.iu.dsc.tws.api.exceptions.Twister2RuntimeException;
+import edu.iu.dsc.tws.api.resource.WorkerEnvironment;
+import edu.iu.dsc.tws.api.tset.TSetContext;
+import edu.iu.dsc.tws.api.tset.fn.BaseSourceFunc;
+import edu.iu.dsc.tws.api.tset.schema.RowSchema;
+import edu.iu.dsc.tws.common.table.Table;
+import edu.iu.dsc.tws.common.table.arrow.ArrowTable;
+import edu.iu.dsc.tws.common.table.arrow.TableRuntime;
+import edu.iu.dsc.tws.data.api.formatters.TypedCSVInputPartitioner;
+import edu.iu.dsc.tws.data.api.splits.TypedCSVInputSplit;
+import edu.iu.dsc.tws.data.fs.io.InputSplitAssigner;
+
+/**
+ * Reads delimited text files as tables of the given schema, one table for each batch of rows.
+ * The files are split by bytes among the parallel instances and the fields are parsed directly
+ * into the columns of the tables.
+ */
+public class CSVTableSourceFunction extends BaseSourceFunc<Table> {
+  private final String filePath;
+
+  /**
+   * The schema as arrow json, arrow schemas are not serializable
+   */
+  private final String schemaJson;
+
+  private final char fieldDelimiter;
+
+  private final boolean skipHeader;
+
+  private transient BufferAllocator allocator;
+
+  private transient InputSplitAssigner<VectorSchemaRoot> assigner;
+
+  private transient TypedCSVInputSplit split;
+
+  public CSVTableSourceFunction(String filePath, RowSchema schema, char fieldDelimiter,
+                                boolean skipHeader) {
+    this.filePath = filePath;
+    this.schemaJson = schema.toArrowSchema().toJson();
+    this.fieldDelimiter = fieldDelimiter;
+    this.skipHeader = skipHeader;
+  }
+
+  @Override
+  public void prepare(TSetContext context) {
+    super.prepare(context);
+    TableRuntime runtime = WorkerEnvironment.getSharedValue(TableRuntime.TABLE_RUNTIME_CONF,
+        TableRuntime.class);
+    if (runtime == null) {
+      throw new Twister2RuntimeException("Table runtime must be set");
+    }
+    this.allocator = runtime.getRootAllocator();
+
+    try {
+      TypedCSVInputPartitioner partitioner = new TypedCSVInputPartitioner(new Path(filePath),
+          context.getParallelism(), Schema.fromJSON(schemaJson), context.getConfig())
+          .fieldDelimiter(fieldDelimiter);
+      if (skipHeader) {
+        partitioner.ignoreFirstLine();
+      }
+      this.assigner = partitioner.getInputSplitAssigner(
+          partitioner.createInputSplits(context.getParallelism()));
+    } catch (IOException e) {
+      throw new Twister2RuntimeException("Failed to split the csv input " + filePath, e);
+    }
+    this.split = nextSplit();
+  }
+
+  @Override
+  public boolean hasNext() {
+    try {
+      while (split != null && split.reachedEnd()) {
+        split.close();
+        split = nextSplit();
+      }
+      return split != null;
+    } catch (IOException e) {
+      throw new Twister2RuntimeException("Failed to read the csv input " + filePath, e);
+    }
+  }
+
+  @Override
+  public Table next() {
+    try {
+      VectorSchemaRoot root = split.nextRecord(null);
+      List<FieldVector> vectors = new ArrayList<>(root.getFieldVectors().size());
+      for (FieldVector vector : root.getFieldVectors()) {
+        TransferPair transfer = vector.getTransferPair(allocator);
+        transfer.transfer();
+        vectors.add((FieldVector) transfer.getTo());
+      }
+      return new ArrowTable(root.getSchema(), vectors);
+    } catch (IOException e) {
+      throw new Twister2RuntimeException("Failed to read the csv input " + filePath, e);
+    }
+  }
+
+  @Override
+  public void close() {
+    try {
+      if (split != null) {
+        split.close();
+        split = null;
+      }
+    } catch (IOException e) {
+      throw new Twister2RuntimeException("Failed to close the csv input " + filePath, e);
+    }
+  }
+
+  private TypedCSVInputSplit nextSplit() {
+    TypedCSVInputSplit next = (TypedCSVInputSplit) assigner.getNextInputSplit("localhost",
+        getTSetContext().getIndex());
+    if (next != null) {
+      try {
+        next.open(allocator);
+      } catch (IOException e) {
+        throw new Twister2RuntimeException("Failed to open the csv input " + next, e);
+      }
+    }
+    return next;
+  }
+}
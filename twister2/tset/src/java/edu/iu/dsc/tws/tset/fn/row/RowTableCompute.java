@@ -0,0 +1,96 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.tset.fn.row;
+
+import org.apache.arrow.memory.BufferAllocator;
+
+import edu.iu.dsc.tws.api.dataset.DataPartition;
+import edu.iu.dsc.tws.api.dataset.DataPartitionConsumer;
+import edu.iu.dsc.tws.api.exceptions.Twister2RuntimeException;
+import edu.iu.dsc.tws.api.resource.WorkerEnvironment;
+import edu.iu.dsc.tws.api.tset.TSetContext;
+import edu.iu.dsc.tws.api.tset.fn.TFunction;
+import edu.iu.dsc.tws.api.tset.schema.RowSchema;
+import edu.iu.dsc.tws.common.table.ArrowTableBuilder;
+import edu.iu.dsc.tws.common.table.Row;
+import edu.iu.dsc.tws.common.table.Table;
+import edu.iu.dsc.tws.common.table.TableBuilder;
+import edu.iu.dsc.tws.common.table.arrow.TableRuntime;
+import edu.iu.dsc.tws.common.table.ops.TableHashJoin;
+import edu.iu.dsc.tws.common.table.ops.TableOperator;
+
+/**
+ * Applies a columnar {@link TableOperator} to the tables of a row TSet. For a hash join the
+ * rows of the build side are read from the input added with {@link #BUILD_INPUT} when the
+ * function is prepared.
+ */
+public class RowTableCompute implements TFunction<Table, Table> {
+  /**
+   * The input key of the build side of a hash join
+   */
+  public static final String BUILD_INPUT = "__table_join_build";
+
+  private TableOperator operator;
+
+  public RowTableCompute(TableOperator operator) {
+    this.operator = operator;
+  }
+
+  public TableOperator getOperator() {
+    return operator;
+  }
+
+  @Override
+  public void prepare(TSetContext context) {
+    TableRuntime runtime = WorkerEnvironment.getSharedValue(TableRuntime.TABLE_RUNTIME_CONF,
+        TableRuntime.class);
+    if (runtime == null) {
+      throw new Twister2RuntimeException("Table runtime must be set");
+    }
+    BufferAllocator allocator = runtime.getRootAllocator();
+    RowSchema inputSchema = (RowSchema) context.getInputSchema();
+    operator.prepare(inputSchema.toArrowSchema(), allocator);
+
+    if (operator instanceof TableHashJoin) {
+      TableHashJoin join = (TableHashJoin) operator;
+      DataPartition<?> build = context.getInput(BUILD_INPUT);
+      if (build == null) {
+        throw new Twister2RuntimeException("The build side of the join is not available");
+      }
+      TableBuilder builder = new ArrowTableBuilder(join.getBuildSchema(), allocator);
+      DataPartitionConsumer<?> consumer = build.getConsumer();
+      while (consumer.hasNext()) {
+        builder.add((Row) consumer.next());
+      }
+      join.build(builder.build());
+    }
+  }
+
+  /**
+   * Apply the operator to a table
+   *
+   * @param table input table
+   * @return the output table or null if there is no output for this table
+   */
+  public Table apply(Table table) {
+    return operator.apply(table);
+  }
+
+  /**
+   * Called after all the tables are applied
+   *
+   * @return the output table or null
+   */
+  public Table finish() {
+    return operator.finish();
+  }
+}
@@ -25,6 +25,7 @@
 
 package edu.iu.dsc.tws.tset.links.batch;
 
+import edu.iu.dsc.tws.api.comms.CommunicationContext;
 import edu.iu.dsc.tws.api.compute.OperationNames;
 import edu.iu.dsc.tws.api.compute.graph.Edge;
 import edu.iu.dsc.tws.api.tset.fn.ReduceFunc;
@@ -42,6 +43,8 @@ import edu.iu.dsc.tws.tset.sets.batch.PersistedTSet;
 public class AllReduceTLink<T> extends BatchSingleLink<T> {
   private ReduceFunc<T> reduceFn;
 
+  private String algorithm;
+
   public AllReduceTLink(BatchEnvironment tSetEnv, ReduceFunc<T> rFn, int sourceParallelism,
                         Schema schema) {
     super(tSetEnv, "allreduce", sourceParallelism, schema);
@@ -52,9 +55,23 @@ public class AllReduceTLink<T> extends BatchSingleLink<T> {
   public Edge getEdge() {
     Edge e = new Edge(getId(), OperationNames.ALLREDUCE, this.getSchema().getDataType(), reduceFn);
     TLinkUtils.generateCommsSchema(getSchema(), e);
+    if (this.algorithm != null) {
+      e.addProperty(CommunicationContext.ALLREDUCE_ALGO_KEY, this.algorithm);
+    }
     return e;
   }
 
+  /**
+   * Use the reduce-scatter and allgather based ring algorithm. This only applies to primitive
+   * arrays and the reduce function should be element wise.
+   *
+   * @return this link
+   */
+  public AllReduceTLink<T> useRingAlgorithm() {
+    this.algorithm = CommunicationContext.ALLREDUCE_ALGO_RING;
+    return this;
+  }
+
   @Override
   public AllReduceTLink<T> setName(String n) {
     rename(n);
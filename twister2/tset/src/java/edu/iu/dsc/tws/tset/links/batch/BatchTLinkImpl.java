@@ -15,6 +15,7 @@ package edu.iu.dsc.tws.tset.links.batch;
 import edu.iu.dsc.tws.api.comms.structs.Tuple;
 import edu.iu.dsc.tws.api.tset.fn.ComputeCollectorFunc;
 import edu.iu.dsc.tws.api.tset.fn.ComputeFunc;
+import edu.iu.dsc.tws.api.tset.fn.MultiOutputComputeFunc;
 import edu.iu.dsc.tws.api.tset.fn.SinkFunc;
 import edu.iu.dsc.tws.api.tset.fn.TFunction;
 import edu.iu.dsc.tws.api.tset.link.batch.BatchTLink;
@@ -53,6 +54,23 @@ public abstract class BatchTLinkImpl<T1, T0> extends BaseTLinkWithSchema<T1, T0>
     return set;
   }
 
+  /**
+   * Compute with several outputs in a single pass, the outputs are connected with
+   * {@link ComputeTSet#output(int)}
+   *
+   * @param name name of the tset
+   * @param computeFunction the function
+   * @return the compute tset
+   */
+  public ComputeTSet<Object> computeMultiOutput(String name,
+                                                MultiOutputComputeFunc<T1> computeFunction) {
+    return compute(name, computeFunction);
+  }
+
+  public ComputeTSet<Object> computeMultiOutput(MultiOutputComputeFunc<T1> computeFunction) {
+    return computeMultiOutput(null, computeFunction);
+  }
+
   public <K, O> KeyedTSet<K, O> computeToTuple(String n, TFunction<T1, Tuple<K, O>> genTupleFn) {
     KeyedTSet<K, O> set = new KeyedTSet<>(getTSetEnv(), n, genTupleFn, getTargetParallelism(),
         getSchema());
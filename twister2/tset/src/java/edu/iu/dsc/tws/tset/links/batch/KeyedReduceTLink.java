@@ -27,6 +27,7 @@ package edu.iu.dsc.tws.tset.links.batch;
 
 import edu.iu.dsc.tws.api.compute.OperationNames;
 import edu.iu.dsc.tws.api.compute.graph.Edge;
+import edu.iu.dsc.tws.api.tset.fn.PartitionFunc;
 import edu.iu.dsc.tws.api.tset.fn.ReduceFunc;
 import edu.iu.dsc.tws.api.tset.schema.TupleSchema;
 import edu.iu.dsc.tws.tset.env.BatchEnvironment;
@@ -35,10 +36,18 @@ import edu.iu.dsc.tws.tset.links.TLinkUtils;
 public class KeyedReduceTLink<K, V> extends KeyedBatchIteratorLinkWrapper<K, V> {
   private ReduceFunc<V> reduceFn;
 
+  private PartitionFunc<K> partitionFunction;
+
   public KeyedReduceTLink(BatchEnvironment tSetEnv, ReduceFunc<V> rFn, int sourceParallelism,
                           TupleSchema schema) {
+    this(tSetEnv, rFn, null, sourceParallelism, schema);
+  }
+
+  public KeyedReduceTLink(BatchEnvironment tSetEnv, ReduceFunc<V> rFn, PartitionFunc<K> parFn,
+                          int sourceParallelism, TupleSchema schema) {
     super(tSetEnv, "kreduce", sourceParallelism, schema);
     this.reduceFn = rFn;
+    this.partitionFunction = parFn;
   }
 
   @Override
@@ -47,6 +56,9 @@ public class KeyedReduceTLink<K, V> extends KeyedBatchIteratorLinkWrapper<K, V>
         reduceFn);
     e.setKeyed(true);
     e.setKeyType(this.getSchema().getKeyType());
+    if (partitionFunction != null) {
+      e.setPartitioner(partitionFunction);
+    }
     TLinkUtils.generateKeyedCommsSchema(getSchema(), e);
     return e;
   }
@@ -23,11 +23,18 @@ import edu.iu.dsc.tws.api.tset.schema.RowSchema;
 import edu.iu.dsc.tws.api.tset.sets.StorableTBase;
 import edu.iu.dsc.tws.api.tset.sets.batch.BatchRowTSet;
 import edu.iu.dsc.tws.common.table.Row;
+import edu.iu.dsc.tws.common.table.ops.Aggregation;
+import edu.iu.dsc.tws.common.table.ops.TableAggregate;
+import edu.iu.dsc.tws.common.table.ops.TableFilter;
+import edu.iu.dsc.tws.common.table.ops.TableHashJoin;
+import edu.iu.dsc.tws.common.table.ops.TableOperator;
+import edu.iu.dsc.tws.common.table.ops.TableProject;
 import edu.iu.dsc.tws.tset.env.BatchChkPntEnvironment;
 import edu.iu.dsc.tws.tset.env.BatchEnvironment;
 import edu.iu.dsc.tws.tset.fn.row.RowFlatMapCompute;
 import edu.iu.dsc.tws.tset.fn.row.RowForEachCompute;
 import edu.iu.dsc.tws.tset.fn.row.RowMapCompute;
+import edu.iu.dsc.tws.tset.fn.row.RowTableCompute;
 import edu.iu.dsc.tws.tset.links.BaseTLinkWithSchema;
 import edu.iu.dsc.tws.tset.sets.BaseTSet;
 import edu.iu.dsc.tws.tset.sets.batch.CheckpointedTSet;
@@ -35,6 +42,8 @@ import edu.iu.dsc.tws.tset.sets.batch.row.RowCachedTSet;
 import edu.iu.dsc.tws.tset.sets.batch.row.RowComputeTSet;
 import edu.iu.dsc.tws.tset.sets.batch.row.RowPersistedTSet;
 import edu.iu.dsc.tws.tset.sets.batch.row.RowSinkTSet;
+import edu.iu.dsc.tws.tset.sets.batch.row.RowStoredTSet;
+import edu.iu.dsc.tws.tset.sets.batch.row.RowTableComputeTSet;
 import edu.iu.dsc.tws.tset.sinks.CacheSingleSink;
 import edu.iu.dsc.tws.tset.sinks.DiskPersistSingleSink;
 import edu.iu.dsc.tws.tset.sources.DiskPartitionBackedSource;
@@ -99,6 +108,41 @@ public abstract class RowBatchTLinkImpl extends BaseTLinkWithSchema<Row, Row>
     return compute("foreach", new RowForEachCompute(applyFunction));
   }
 
+  protected RowTableComputeTSet computeTable(String n, TableOperator operator) {
+    RowTableComputeTSet set = new RowTableComputeTSet(getTSetEnv(), n,
+        new RowTableCompute(operator), getTargetParallelism(), (RowSchema) getSchema());
+    addChildToGraph(set);
+    return set;
+  }
+
+  @Override
+  public RowTableComputeTSet filter(TableFilter filter) {
+    return computeTable("tfilter", filter);
+  }
+
+  @Override
+  public RowTableComputeTSet project(int... columns) {
+    return computeTable("tproject", new TableProject(columns));
+  }
+
+  @Override
+  public RowTableComputeTSet aggregate(int keyColumn, Aggregation... aggregations) {
+    return computeTable("taggregate", new TableAggregate(keyColumn, aggregations));
+  }
+
+  @Override
+  public RowTableComputeTSet hashJoin(StorableTBase<Row> build, int probeKey, int buildKey) {
+    if (!(build instanceof RowStoredTSet)) {
+      throw new RuntimeException("The build side of a hash join should be a cached or "
+          + "persisted row TSet: " + build);
+    }
+    RowSchema buildSchema = ((RowStoredTSet) build).getInputSchema();
+    RowTableComputeTSet set = computeTable("thashjoin",
+        new TableHashJoin(probeKey, buildSchema.toArrowSchema(), buildKey));
+    set.addInput(RowTableCompute.BUILD_INPUT, build);
+    return set;
+  }
+
   public StorableTBase<Row> lazyCache() {
     RowCachedTSet cacheTSet = new RowCachedTSet(getTSetEnv(), new CacheSingleSink<Row>(),
         getTargetParallelism(), (RowSchema) getSchema());
@@ -18,8 +18,11 @@ import edu.iu.dsc.tws.api.compute.OperationNames;
 import edu.iu.dsc.tws.api.compute.graph.Edge;
 import edu.iu.dsc.tws.api.tset.fn.PartitionFunc;
 import edu.iu.dsc.tws.api.tset.schema.KeyedSchema;
+import edu.iu.dsc.tws.task.window.api.ITimestampExtractor;
+import edu.iu.dsc.tws.task.window.util.WindowParameter;
 import edu.iu.dsc.tws.tset.env.StreamingEnvironment;
 import edu.iu.dsc.tws.tset.links.TLinkUtils;
+import edu.iu.dsc.tws.tset.sets.streaming.KeyedWindowTSet;
 
 public class SKeyedPartitionTLink<K, V> extends StreamingSingleLink<Tuple<K, V>> {
   private PartitionFunc<K> partitionFunction;
@@ -40,6 +43,21 @@ public class SKeyedPartitionTLink<K, V> extends StreamingSingleLink<Tuple<K, V>>
     return e;
   }
 
+  /**
+   * Reduce the values of each key in event time windows
+   *
+   * @param windowParameter the duration of the windows
+   * @param timestampExtractor extracts the event time of a value in milliseconds
+   * @return the windowed tset, {@link KeyedWindowTSet#aggregate} should be called on it
+   */
+  public KeyedWindowTSet<K, V> keyedWindow(WindowParameter windowParameter,
+                                           ITimestampExtractor<V> timestampExtractor) {
+    KeyedWindowTSet<K, V> set = new KeyedWindowTSet<>(getTSetEnv(), windowParameter,
+        timestampExtractor, getSourceParallelism(), getTargetParallelism(), getSchema());
+    addChildToGraph(set);
+    return set;
+  }
+
   @Override
   public SKeyedPartitionTLink<K, V> setName(String n) {
     rename(n);
@@ -0,0 +1,188 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.tset.ops;
+
+import java.util.Arrays;
+
+/**
+ * Event time watermark of a task with several upstream tasks.
+ * <p>
+ * The event time of an input is the largest timestamp received from it and the watermark is
+ * the minimum of the input times less the allowed lateness. An upstream task may never send
+ * to this task, for example when none of its keys belong here, or it may stop sending for a
+ * while. An input that has not sent anything for the idle timeout, measured in processing
+ * time, is marked idle and does not hold back the watermark until it sends again. Inputs that
+ * were never seen are idle after the timeout from the first value. The idle inputs are checked
+ * when values arrive, the watermark never moves back.
+ */
+final class InputWatermarks {
+  private final long allowedLateness;
+
+  /**
+   * Processing time after which a silent input is idle, 0 if inputs are never idle
+   */
+  private final long idleTimeout;
+
+  private int inputs;
+
+  /**
+   * Task ids of the inputs in the order they were first seen
+   */
+  private int[] inputTasks;
+
+  /**
+   * Largest timestamp received from each input
+   */
+  private long[] inputTimes;
+
+  /**
+   * Processing time of the last value of each input
+   */
+  private long[] lastActive;
+
+  private boolean[] idle;
+
+  private int inputsSeen;
+
+  private long minInputTime = Long.MIN_VALUE;
+
+  private long watermark = Long.MIN_VALUE;
+
+  private boolean started;
+
+  /**
+   * Earliest processing time an active input can become idle
+   */
+  private long nextIdleCheck = Long.MAX_VALUE;
+
+  InputWatermarks(int inputs, long allowedLateness, long idleTimeout) {
+    this.inputs = inputs;
+    this.allowedLateness = allowedLateness;
+    this.idleTimeout = idleTimeout;
+    this.inputTasks = new int[inputs];
+    this.inputTimes = new long[inputs];
+    this.lastActive = new long[inputs];
+    this.idle = new boolean[inputs];
+    Arrays.fill(inputTimes, Long.MIN_VALUE);
+  }
+
+  long getWatermark() {
+    return watermark;
+  }
+
+  /**
+   * Update the time of an input and the watermark
+   *
+   * @param task the upstream task
+   * @param time event time of the value
+   * @param now current processing time
+   * @return true if the watermark advanced
+   */
+  boolean update(int task, long time, long now) {
+    if (!started) {
+      started = true;
+      Arrays.fill(lastActive, now);
+      scheduleIdleCheck(now);
+    }
+
+    int input = inputIndex(task, now);
+    lastActive[input] = now;
+    boolean changed = false;
+    if (idle[input]) {
+      idle[input] = false;
+      scheduleIdleCheck(now);
+      changed = true;
+    }
+
+    long previous = inputTimes[input];
+    if (time > previous) {
+      inputTimes[input] = time;
+      changed |= previous <= minInputTime;
+    }
+    if (now >= nextIdleCheck) {
+      changed |= markIdle(now);
+    }
+    return changed && advance();
+  }
+
+  private boolean advance() {
+    long min = Long.MAX_VALUE;
+    for (int i = 0; i < inputs; i++) {
+      if (!idle[i]) {
+        min = Math.min(min, inputTimes[i]);
+      }
+    }
+    if (min == Long.MAX_VALUE || min == Long.MIN_VALUE) {
+      // no active inputs, or an active input has not sent a value yet
+      minInputTime = Long.MIN_VALUE;
+      return false;
+    }
+
+    minInputTime = min;
+    long next = min - allowedLateness;
+    if (next > watermark) {
+      watermark = next;
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Mark the inputs that did not send for the idle timeout
+   *
+   * @return true if an input became idle
+   */
+  private boolean markIdle(long now) {
+    boolean marked = false;
+    long next = Long.MAX_VALUE;
+    for (int i = 0; i < inputs; i++) {
+      if (idle[i]) {
+        continue;
+      }
+      if (now - lastActive[i] >= idleTimeout) {
+        idle[i] = true;
+        marked = true;
+      } else {
+        next = Math.min(next, lastActive[i] + idleTimeout);
+      }
+    }
+    nextIdleCheck = next;
+    return marked;
+  }
+
+  private void scheduleIdleCheck(long now) {
+    if (idleTimeout > 0) {
+      nextIdleCheck = Math.min(nextIdleCheck, now + idleTimeout);
+    }
+  }
+
+  private int inputIndex(int task, long now) {
+    for (int i = 0; i < inputsSeen; i++) {
+      if (inputTasks[i] == task) {
+        return i;
+      }
+    }
+    if (inputsSeen == inputs) {
+      // more upstream tasks than expected, track them as well
+      inputs++;
+      inputTasks = Arrays.copyOf(inputTasks, inputs);
+      inputTimes = Arrays.copyOf(inputTimes, inputs);
+      lastActive = Arrays.copyOf(lastActive, inputs);
+      idle = Arrays.copyOf(idle, inputs);
+      inputTimes[inputsSeen] = Long.MIN_VALUE;
+      lastActive[inputsSeen] = now;
+    }
+    inputTasks[inputsSeen] = task;
+    inputsSeen++;
+    return inputsSeen - 1;
+  }
+}
@@ -0,0 +1,180 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.tset.ops;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import edu.iu.dsc.tws.api.comms.structs.Tuple;
+import edu.iu.dsc.tws.api.compute.IMessage;
+import edu.iu.dsc.tws.api.compute.TaskContext;
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.api.config.FileSystemContext;
+import edu.iu.dsc.tws.api.tset.fn.ReduceFunc;
+import edu.iu.dsc.tws.api.tset.fn.TFunction;
+import edu.iu.dsc.tws.task.window.api.ITimestampExtractor;
+import edu.iu.dsc.tws.tset.sets.BaseTSet;
+
+/**
+ * Reduces the values of each key in event time windows.
+ * <p>
+ * Each upstream task of the keyed partition is an input with its own event time, the largest
+ * timestamp received from it. The watermark is the minimum of the input times less the allowed
+ * lateness, so an input that falls behind holds back the windows of all the keys. An input
+ * that sends nothing for the idle timeout, including an upstream task that never sends to this
+ * task, is left out of the minimum until it sends again. When the watermark advances, only the
+ * keys that have a window ending at or before the watermark emit their reduced value. A value
+ * with a timestamp below the watermark is late, it is written to the edges of the late data
+ * link instead of being dropped. The remaining windows are emitted when the stream ends.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class KeyedWindowOp<K, V> extends BaseComputeOp<Tuple<K, V>> {
+  /**
+   * Maximum number of keys whose window state is kept in memory, the rest is spilled to disk
+   */
+  public static final String MAX_KEYS_IN_MEMORY = "twister2.tset.window.keys.memory.max";
+
+  public static final int MAX_KEYS_IN_MEMORY_DEFAULT = 1000000;
+
+  /**
+   * Milliseconds of processing time after which an input that does not send is idle, 0 to
+   * always wait for every input
+   */
+  public static final String IDLE_TIMEOUT = "twister2.tset.window.idle.timeout";
+
+  public static final long IDLE_TIMEOUT_DEFAULT = 10000;
+
+  private ReduceFunc<V> reduceFunction;
+
+  private ITimestampExtractor<V> timestampExtractor;
+
+  private long windowLength;
+
+  private long slidingLength;
+
+  private long allowedLateness;
+
+  /**
+   * Idle timeout of the inputs in milliseconds, negative to use the configured value
+   */
+  private long idleTimeout;
+
+  /**
+   * Number of upstream tasks
+   */
+  private int inputs;
+
+  /**
+   * Ids of the links receiving the late data
+   */
+  private Set<String> lateLinks;
+
+  private transient TaskContext context;
+
+  private transient KeyedWindowState<K, V> state;
+
+  private transient String[] outputEdges;
+
+  private transient String[] lateEdges;
+
+  private transient InputWatermarks watermarks;
+
+  public KeyedWindowOp() {
+  }
+
+  public KeyedWindowOp(ReduceFunc<V> reduceFn, ITimestampExtractor<V> timestampExtractor,
+                       long windowLength, long slidingLength, long allowedLateness,
+                       long idleTimeout, int inputs, Set<String> lateLinks, BaseTSet origin,
+                       Map<String, String> receivables) {
+    super(origin, receivables);
+    this.reduceFunction = reduceFn;
+    this.timestampExtractor = timestampExtractor;
+    this.windowLength = windowLength;
+    this.slidingLength = slidingLength;
+    this.allowedLateness = allowedLateness;
+    this.idleTimeout = idleTimeout;
+    this.inputs = inputs;
+    this.lateLinks = lateLinks;
+  }
+
+  @Override
+  public void prepare(Config cfg, TaskContext ctx) {
+    super.prepare(cfg, ctx);
+    this.context = ctx;
+
+    List<String> outputs = new ArrayList<>();
+    List<String> late = new ArrayList<>();
+    for (String edge : ctx.getOutEdges().keySet()) {
+      if (lateLinks.contains(edge)) {
+        late.add(edge);
+      } else {
+        outputs.add(edge);
+      }
+    }
+    this.outputEdges = outputs.toArray(new String[0]);
+    this.lateEdges = late.toArray(new String[0]);
+
+    this.state = new KeyedWindowState<>(reduceFunction, windowLength, slidingLength,
+        cfg.getIntegerValue(MAX_KEYS_IN_MEMORY, MAX_KEYS_IN_MEMORY_DEFAULT),
+        FileSystemContext.volatileStorageRoot(cfg) + "/window-" + ctx.globalTaskId());
+    long timeout = idleTimeout >= 0 ? idleTimeout
+        : cfg.getLongValue(IDLE_TIMEOUT, IDLE_TIMEOUT_DEFAULT);
+    this.watermarks = new InputWatermarks(inputs, allowedLateness, timeout);
+  }
+
+  @Override
+  public boolean execute(IMessage<Tuple<K, V>> content) {
+    Tuple<K, V> tuple = content.getContent();
+    long time = timestampExtractor.extractTimestamp(tuple.getValue());
+    if (time < watermarks.getWatermark()) {
+      for (int i = 0; i < lateEdges.length; i++) {
+        context.write(lateEdges[i], tuple);
+      }
+    } else {
+      state.add(tuple.getKey(), time, tuple.getValue());
+    }
+
+    if (watermarks.update(content.sourceTask(), time, System.currentTimeMillis())) {
+      state.advance(watermarks.getWatermark(), this::emit);
+    }
+    return true;
+  }
+
+  private void emit(K key, V value) {
+    for (int i = 0; i < outputEdges.length; i++) {
+      context.write(outputEdges[i], key, value);
+    }
+  }
+
+  @Override
+  public TFunction getFunction() {
+    return reduceFunction;
+  }
+
+  @Override
+  public void close() {
+    reduceFunction.close();
+    state.close();
+  }
+
+  @Override
+  public void endExecute() {
+    // no more values, emit the windows that are still open
+    state.advance(Long.MAX_VALUE, this::emit);
+    reduceFunction.end();
+    writeEndToEdges();
+  }
+}
@@ -0,0 +1,467 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.tset.ops;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import java.util.logging.Logger;
+
+import edu.iu.dsc.tws.api.exceptions.Twister2RuntimeException;
+import edu.iu.dsc.tws.api.tset.fn.ReduceFunc;
+import edu.iu.dsc.tws.api.util.KryoSerializer;
+
+/**
+ * Event time window state of the keys of a keyed window.
+ * <p>
+ * The time is divided into panes whose length is the greatest common divisor of the window and
+ * the sliding lengths. For each key only the reduced value of each pane is kept, with the pane
+ * ids in a sorted long array, so a sliding window does not copy its values into every window
+ * it belongs to. Every key with values is registered under the end of the first window it has
+ * to emit, and when the watermark passes a window end only the keys registered under it are
+ * visited.
+ * <p>
+ * At most the given number of keys are kept in memory. When there are more keys, the state of
+ * the least recently used keys is appended to a spill file and read back the next time the key
+ * receives a value or one of its windows closes. The spill file is compacted when most of it
+ * belongs to keys that were read back.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+final class KeyedWindowState<K, V> {
+  private static final Logger LOG = Logger.getLogger(KeyedWindowState.class.getName());
+
+  /**
+   * The spill file is not compacted before it reaches this size
+   */
+  private static final long MIN_COMPACT_BYTES = 64L * 1024 * 1024;
+
+  private static final long NO_TIMER = Long.MIN_VALUE;
+
+  private final ReduceFunc<V> reduceFunction;
+
+  private final long windowLength;
+
+  private final long slidingLength;
+
+  private final long paneLength;
+
+  private final int maxKeysInMemory;
+
+  private final String spillDirectory;
+
+  /**
+   * Keys in memory in the order they were last used
+   */
+  private final LinkedHashMap<K, Panes> keys = new LinkedHashMap<>(16, 0.75f, true);
+
+  /**
+   * Window end to the keys that emit a window at that end. A key may be in an earlier list it
+   * has moved from, those entries are skipped.
+   */
+  private final TreeMap<Long, List<K>> timers = new TreeMap<>();
+
+  /**
+   * Offset of the state of each spilled key in the spill file
+   */
+  private final Map<K, Long> spilled = new HashMap<>();
+
+  private KryoSerializer serializer;
+
+  private Path spillFile;
+
+  private FileChannel spillChannel;
+
+  private long spillBytes;
+
+  /**
+   * Bytes in the spill file belonging to keys that are still spilled
+   */
+  private long liveSpillBytes;
+
+  KeyedWindowState(ReduceFunc<V> reduceFunction, long windowLength, long slidingLength,
+                   int maxKeysInMemory, String spillDirectory) {
+    if (windowLength <= 0 || slidingLength <= 0 || slidingLength > windowLength) {
+      throw new IllegalArgumentException("Invalid window length " + windowLength
+          + " and sliding length " + slidingLength);
+    }
+    this.reduceFunction = reduceFunction;
+    this.windowLength = windowLength;
+    this.slidingLength = slidingLength;
+    this.paneLength = gcd(windowLength, slidingLength);
+    this.maxKeysInMemory = Math.max(1, maxKeysInMemory);
+    this.spillDirectory = spillDirectory;
+  }
+
+  /**
+   * Add a value to the state of a key. The windows containing the time must not be emitted yet.
+   */
+  void add(K key, long time, V value) {
+    long pane = Math.floorDiv(time, paneLength);
+    Panes panes = load(key);
+    if (panes == null) {
+      panes = new Panes();
+      keys.put(key, panes);
+    }
+    panes.add(pane, value);
+
+    long end = firstWindowEnd(pane);
+    if (panes.timer == NO_TIMER || end < panes.timer) {
+      register(key, panes, end);
+    }
+    spillIfNeeded();
+  }
+
+  /**
+   * Emit the windows ending at or before the watermark, in the order of their ends
+   *
+   * @param watermark the watermark
+   * @param output receives the key and the reduced value of each window
+   */
+  void advance(long watermark, BiConsumer<K, V> output) {
+    while (!timers.isEmpty() && timers.firstKey() <= watermark) {
+      Map.Entry<Long, List<K>> entry = timers.pollFirstEntry();
+      long end = entry.getKey();
+      List<K> endKeys = entry.getValue();
+      for (int i = 0; i < endKeys.size(); i++) {
+        K key = endKeys.get(i);
+        Panes panes = load(key);
+        if (panes == null || panes.timer != end) {
+          continue;
+        }
+
+        V value = panes.reduce(Math.floorDiv(end - windowLength, paneLength),
+            Math.floorDiv(end, paneLength));
+        if (value != null) {
+          output.accept(key, value);
+        }
+
+        // the panes before the start of the next window are not needed anymore
+        panes.removeBefore(Math.floorDiv(end - windowLength + slidingLength, paneLength));
+        if (panes.size == 0) {
+          keys.remove(key);
+        } else {
+          register(key, panes, Math.max(firstWindowEnd(panes.ids[0]), end + slidingLength));
+        }
+      }
+      spillIfNeeded();
+    }
+  }
+
+  /**
+   * Number of keys with values
+   */
+  int size() {
+    return keys.size() + spilled.size();
+  }
+
+  void close() {
+    keys.clear();
+    timers.clear();
+    spilled.clear();
+    closeSpillFile();
+  }
+
+  /**
+   * The end of the first window containing the pane
+   */
+  private long firstWindowEnd(long pane) {
+    long start = (Math.floorDiv(pane * paneLength - windowLength, slidingLength) + 1)
+        * slidingLength;
+    return start + windowLength;
+  }
+
+  private void register(K key, Panes panes, long end) {
+    panes.timer = end;
+    List<K> endKeys = timers.get(end);
+    if (endKeys == null) {
+      endKeys = new ArrayList<>();
+      timers.put(end, endKeys);
+    }
+    endKeys.add(key);
+  }
+
+  private Panes load(K key) {
+    Panes panes = keys.get(key);
+    if (panes != null || spilled.isEmpty()) {
+      return panes;
+    }
+    Long offset = spilled.remove(key);
+    if (offset == null) {
+      return null;
+    }
+    byte[] record = readRecord(spillChannel, offset);
+    liveSpillBytes -= Integer.BYTES + record.length;
+    panes = fromBytes(record);
+    keys.put(key, panes);
+    if (spilled.isEmpty()) {
+      truncateSpillFile();
+    }
+    return panes;
+  }
+
+  private void spillIfNeeded() {
+    if (keys.size() <= maxKeysInMemory) {
+      return;
+    }
+    Iterator<Map.Entry<K, Panes>> it = keys.entrySet().iterator();
+    while (keys.size() > maxKeysInMemory) {
+      Map.Entry<K, Panes> eldest = it.next();
+      spilled.put(eldest.getKey(), writeRecord(eldest.getValue().toBytes(getSerializer())));
+      it.remove();
+    }
+
+    if (spillBytes > MIN_COMPACT_BYTES && liveSpillBytes < spillBytes / 2) {
+      compact();
+    }
+  }
+
+  private KryoSerializer getSerializer() {
+    if (serializer == null) {
+      serializer = new KryoSerializer();
+    }
+    return serializer;
+  }
+
+  private long writeRecord(byte[] record) {
+    try {
+      if (spillChannel == null) {
+        Path directory = Paths.get(spillDirectory);
+        Files.createDirectories(directory);
+        spillFile = Files.createTempFile(directory, "keyed-window-", ".state");
+        spillChannel = FileChannel.open(spillFile, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+        LOG.fine("Spilling keyed window state to " + spillFile);
+      }
+      long offset = spillBytes;
+      ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + record.length);
+      buffer.putInt(record.length).put(record).flip();
+      while (buffer.hasRemaining()) {
+        spillChannel.write(buffer, spillBytes + buffer.position());
+      }
+      spillBytes += buffer.limit();
+      liveSpillBytes += buffer.limit();
+      return offset;
+    } catch (IOException e) {
+      throw new Twister2RuntimeException("Failed to spill the keyed window state", e);
+    }
+  }
+
+  private byte[] readRecord(FileChannel channel, long offset) {
+    try {
+      ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+      readFully(channel, length, offset);
+      ByteBuffer record = ByteBuffer.allocate(length.getInt(0));
+      readFully(channel, record, offset + Integer.BYTES);
+      return record.array();
+    } catch (IOException e) {
+      throw new Twister2RuntimeException("Failed to read the spilled keyed window state", e);
+    }
+  }
+
+  private static void readFully(FileChannel channel, ByteBuffer buffer,
+                                long offset) throws IOException {
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, offset + buffer.position()) < 0) {
+        throw new IOException("Unexpected end of the spill file at " + offset);
+      }
+    }
+  }
+
+  /**
+   * Move the records of the keys that are still spilled to the start of a new file
+   */
+  private void compact() {
+    Path oldFile = spillFile;
+    FileChannel oldChannel = spillChannel;
+    List<Map.Entry<K, Long>> entries = new ArrayList<>(spilled.entrySet());
+    // read in file order
+    entries.sort(Map.Entry.comparingByValue());
+
+    spillFile = null;
+    spillChannel = null;
+    spillBytes = 0;
+    liveSpillBytes = 0;
+    for (Map.Entry<K, Long> entry : entries) {
+      spilled.put(entry.getKey(), writeRecord(readRecord(oldChannel, entry.getValue())));
+    }
+
+    try {
+      oldChannel.close();
+      Files.deleteIfExists(oldFile);
+    } catch (IOException e) {
+      LOG.warning("Failed to delete the spill file " + oldFile);
+    }
+  }
+
+  private void truncateSpillFile() {
+    try {
+      spillChannel.truncate(0);
+      spillBytes = 0;
+      liveSpillBytes = 0;
+    } catch (IOException e) {
+      throw new Twister2RuntimeException("Failed to truncate the spill file " + spillFile, e);
+    }
+  }
+
+  private void closeSpillFile() {
+    if (spillChannel == null) {
+      return;
+    }
+    try {
+      spillChannel.close();
+      Files.deleteIfExists(spillFile);
+    } catch (IOException e) {
+      LOG.warning("Failed to delete the spill file " + spillFile);
+    }
+    spillChannel = null;
+    spillFile = null;
+    spillBytes = 0;
+    liveSpillBytes = 0;
+  }
+
+  private Panes fromBytes(byte[] record) {
+    ByteBuffer buffer = ByteBuffer.wrap(record);
+    Panes panes = new Panes();
+    panes.timer = buffer.getLong();
+    int count = buffer.getInt();
+    panes.ids = new long[Math.max(4, count)];
+    for (int i = 0; i < count; i++) {
+      panes.ids[i] = buffer.getLong();
+    }
+    Object[] stored = (Object[]) getSerializer().deserialize(buffer, buffer.position(),
+        buffer.remaining());
+    panes.values = Arrays.copyOf(stored, panes.ids.length);
+    panes.size = count;
+    return panes;
+  }
+
+  private static long gcd(long a, long b) {
+    long x = a;
+    long y = b;
+    while (y != 0) {
+      long t = x % y;
+      x = y;
+      y = t;
+    }
+    return x;
+  }
+
+  /**
+   * The reduced values of the panes of a key sorted by the pane id
+   */
+  private final class Panes {
+    private long[] ids = new long[4];
+
+    private Object[] values = new Object[4];
+
+    private int size;
+
+    /**
+     * End of the next window to emit
+     */
+    private long timer = NO_TIMER;
+
+    void add(long pane, V value) {
+      // values mostly arrive in time order, so check the last pane first
+      int index;
+      if (size > 0 && ids[size - 1] == pane) {
+        index = size - 1;
+      } else if (size == 0 || ids[size - 1] < pane) {
+        index = -(size + 1);
+      } else {
+        index = Arrays.binarySearch(ids, 0, size, pane);
+      }
+
+      if (index >= 0) {
+        values[index] = reduceFunction.reduce(value(index), value);
+        return;
+      }
+
+      int insert = -(index + 1);
+      if (size == ids.length) {
+        ids = Arrays.copyOf(ids, size * 2);
+        values = Arrays.copyOf(values, size * 2);
+      }
+      System.arraycopy(ids, insert, ids, insert + 1, size - insert);
+      System.arraycopy(values, insert, values, insert + 1, size - insert);
+      ids[insert] = pane;
+      values[insert] = value;
+      size++;
+    }
+
+    /**
+     * Reduce the values of the panes from the start pane up to the end pane, excluding it
+     */
+    V reduce(long startPane, long endPane) {
+      V result = null;
+      for (int i = 0; i < size && ids[i] < endPane; i++) {
+        if (ids[i] >= startPane) {
+          result = result == null ? value(i) : reduceFunction.reduce(result, value(i));
+        }
+      }
+      return result;
+    }
+
+    void removeBefore(long pane) {
+      int removed = 0;
+      while (removed < size && ids[removed] < pane) {
+        removed++;
+      }
+      if (removed == 0) {
+        return;
+      }
+      System.arraycopy(ids, removed, ids, 0, size - removed);
+      System.arraycopy(values, removed, values, 0, size - removed);
+      Arrays.fill(values, size - removed, size, null);
+      size -= removed;
+    }
+
+    byte[] toBytes(KryoSerializer kryo) {
+      try {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(
+            Long.BYTES * (size + 1) + Integer.BYTES);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(timer);
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+          out.writeLong(ids[i]);
+        }
+        out.write(kryo.serialize(Arrays.copyOf(values, size)));
+        out.flush();
+        return bytes.toByteArray();
+      } catch (IOException e) {
+        throw new Twister2RuntimeException("Failed to serialize the keyed window state", e);
+      }
+    }
+
+    private V value(int index) {
+      return (V) values[index];
+    }
+  }
+}
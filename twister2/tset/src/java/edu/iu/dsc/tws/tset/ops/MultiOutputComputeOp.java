@@ -0,0 +1,133 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.tset.ops;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import edu.iu.dsc.tws.api.compute.IMessage;
+import edu.iu.dsc.tws.api.compute.TaskContext;
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.api.tset.fn.MultiOutputCollector;
+import edu.iu.dsc.tws.api.tset.fn.MultiOutputComputeFunc;
+import edu.iu.dsc.tws.api.tset.fn.TFunction;
+import edu.iu.dsc.tws.tset.sets.BaseTSet;
+
+/**
+ * Performs the compute function on the value received for the imessage and writes each output
+ * record only to the edges created for its output, instead of writing every record to all the
+ * edges.
+ *
+ * @param <I> Input message content type
+ */
+public class MultiOutputComputeOp<I> extends BaseComputeOp<I> {
+
+  private MultiOutputComputeFunc<I> computeFunction;
+
+  /**
+   * Output index of each outgoing edge
+   */
+  private Map<String, Integer> edgeOutputs;
+
+  private MultiOutputCollector output;
+
+  public MultiOutputComputeOp() {
+  }
+
+  public MultiOutputComputeOp(MultiOutputComputeFunc<I> computeFunction, BaseTSet origin,
+                              Map<String, String> receivables, Map<String, Integer> edgeOutputs) {
+    super(origin, receivables);
+    this.computeFunction = computeFunction;
+    this.edgeOutputs = edgeOutputs;
+  }
+
+  @Override
+  public void prepare(Config cfg, TaskContext ctx) {
+    super.prepare(cfg, ctx);
+
+    int outputs = 0;
+    for (int index : edgeOutputs.values()) {
+      outputs = Math.max(outputs, index + 1);
+    }
+    List<List<String>> outputEdges = new ArrayList<>(outputs);
+    for (int i = 0; i < outputs; i++) {
+      outputEdges.add(new ArrayList<>());
+    }
+    for (String edge : ctx.getOutEdges().keySet()) {
+      Integer index = edgeOutputs.get(edge);
+      if (index == null) {
+        throw new RuntimeException("Edge " + edge + " of a multi output compute is not "
+            + "connected to an output");
+      }
+      outputEdges.get(index).add(edge);
+    }
+
+    String[][] edges = new String[outputs][];
+    for (int i = 0; i < outputs; i++) {
+      edges[i] = outputEdges.get(i).toArray(new String[0]);
+    }
+    this.output = new MultiOutputCollectorImpl(ctx, edges);
+  }
+
+  @Override
+  public boolean execute(IMessage<I> content) {
+    computeFunction.compute(content.getContent(), output);
+    return true;
+  }
+
+  private static final class MultiOutputCollectorImpl implements MultiOutputCollector {
+    private final TaskContext context;
+
+    /**
+     * Edges of each output
+     */
+    private final String[][] edges;
+
+    private MultiOutputCollectorImpl(TaskContext context, String[][] edges) {
+      this.context = context;
+      this.edges = edges;
+    }
+
+    @Override
+    public void collect(int output, Object record) {
+      // outputs without a link are dropped
+      if (output >= edges.length) {
+        return;
+      }
+      String[] outputEdges = edges[output];
+      for (int i = 0; i < outputEdges.length; i++) {
+        context.write(outputEdges[i], record);
+      }
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+
+  @Override
+  public void close() {
+    computeFunction.close();
+  }
+
+  @Override
+  public void endExecute() {
+    computeFunction.end();
+    writeEndToEdges();
+  }
+
+  @Override
+  public TFunction getFunction() {
+    return computeFunction;
+  }
+}
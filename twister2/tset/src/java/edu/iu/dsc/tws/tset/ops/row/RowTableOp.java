@@ -0,0 +1,66 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.tset.ops.row;
+
+import java.util.Map;
+
+import edu.iu.dsc.tws.api.compute.IMessage;
+import edu.iu.dsc.tws.api.tset.fn.TFunction;
+import edu.iu.dsc.tws.common.table.Table;
+import edu.iu.dsc.tws.tset.fn.row.RowTableCompute;
+import edu.iu.dsc.tws.tset.ops.BaseComputeOp;
+import edu.iu.dsc.tws.tset.sets.BaseTSet;
+
+/**
+ * Applies a columnar table operator to each table it receives, without converting the tables
+ * to rows.
+ */
+public class RowTableOp extends BaseComputeOp<Table> {
+  private RowTableCompute computeFunction;
+
+  public RowTableOp() {
+  }
+
+  public RowTableOp(RowTableCompute computeFunction, BaseTSet origin,
+                    Map<String, String> receivables) {
+    super(origin, receivables);
+    this.computeFunction = computeFunction;
+  }
+
+  @Override
+  public boolean execute(IMessage<Table> content) {
+    Table output = computeFunction.apply(content.getContent());
+    if (output != null) {
+      writeToEdges(output);
+    }
+    return true;
+  }
+
+  @Override
+  public void endExecute() {
+    Table output = computeFunction.finish();
+    if (output != null) {
+      writeToEdges(output);
+    }
+    writeEndToEdges();
+  }
+
+  @Override
+  public void close() {
+    computeFunction.close();
+  }
+
+  @Override
+  public TFunction getFunction() {
+    return computeFunction;
+  }
+}
@@ -26,6 +26,7 @@ import edu.iu.dsc.tws.api.tset.schema.TupleSchema;
 import edu.iu.dsc.tws.api.tset.sets.StorableTBase;
 import edu.iu.dsc.tws.api.tset.sets.batch.BatchTupleTSet;
 import edu.iu.dsc.tws.tset.env.BatchEnvironment;
+import edu.iu.dsc.tws.tset.fn.SkewAwarePartitioner;
 import edu.iu.dsc.tws.tset.links.batch.JoinTLink;
 import edu.iu.dsc.tws.tset.links.batch.KeyedDirectTLink;
 import edu.iu.dsc.tws.tset.links.batch.KeyedGatherTLink;
@@ -34,6 +35,7 @@ import edu.iu.dsc.tws.tset.links.batch.KeyedPartitionTLink;
 import edu.iu.dsc.tws.tset.links.batch.KeyedPipeTLink;
 import edu.iu.dsc.tws.tset.links.batch.KeyedReduceTLink;
 import edu.iu.dsc.tws.tset.sets.BaseTSetWithSchema;
+import edu.iu.dsc.tws.tset.sets.batch.functions.IdentityFunction;
 
 /**
  * Attaches a key to the oncoming data.
@@ -93,6 +95,23 @@ public abstract class BatchTupleTSetImpl<K, V> extends BaseTSetWithSchema<V> imp
     return reduce;
   }
 
+  @Override
+  public KeyedReduceTLink<K, V> keyedReduce(ReduceFunc<V> reduceFn,
+                                            PartitionFunc<K> partitionFn) {
+    KeyedReduceTLink<K, V> reduce = new KeyedReduceTLink<>(getTSetEnv(), reduceFn, partitionFn,
+        getParallelism(), getOutputSchema());
+    addChildToGraph(reduce);
+    return reduce;
+  }
+
+  @Override
+  public KeyedReduceTLink<K, V> skewAwareKeyedReduce(ReduceFunc<V> reduceFn) {
+    // the partial results of a split key are on different targets, reduce them again
+    KeyedTSet<K, V> partials = keyedReduce(reduceFn, new SkewAwarePartitioner<>())
+        .mapToTuple(new IdentityFunction<>());
+    return partials.withSchema(getOutputSchema()).keyedReduce(reduceFn);
+  }
+
   @Override
   public KeyedPartitionTLink<K, V> keyedPartition(PartitionFunc<K> partitionFn) {
     KeyedPartitionTLink<K, V> partition = new KeyedPartitionTLink<>(getTSetEnv(), partitionFn,
@@ -12,20 +12,31 @@
 
 package edu.iu.dsc.tws.tset.sets.batch;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import edu.iu.dsc.tws.api.compute.nodes.ICompute;
 import edu.iu.dsc.tws.api.tset.fn.ComputeCollectorFunc;
 import edu.iu.dsc.tws.api.tset.fn.ComputeFunc;
+import edu.iu.dsc.tws.api.tset.fn.MultiOutputComputeFunc;
 import edu.iu.dsc.tws.api.tset.fn.TFunction;
 import edu.iu.dsc.tws.api.tset.schema.Schema;
 import edu.iu.dsc.tws.api.tset.sets.StorableTBase;
 import edu.iu.dsc.tws.tset.TSetUtils;
 import edu.iu.dsc.tws.tset.env.BatchEnvironment;
+import edu.iu.dsc.tws.tset.links.batch.DirectTLink;
 import edu.iu.dsc.tws.tset.ops.ComputeCollectorOp;
 import edu.iu.dsc.tws.tset.ops.ComputeOp;
+import edu.iu.dsc.tws.tset.ops.MultiOutputComputeOp;
 
 public class ComputeTSet<O> extends BatchTSetImpl<O> {
   private TFunction<?, O> computeFunc;
 
+  /**
+   * Output index of the links created with {@link #output(int)}
+   */
+  private Map<String, Integer> outputLinks = new HashMap<>();
+
   public ComputeTSet() {
     //non arg constructor needed for kryo
     super();
@@ -48,6 +59,25 @@ public class ComputeTSet<O> extends BatchTSetImpl<O> {
     this.computeFunc = computeFn;
   }
 
+  /**
+   * Create a direct link for one output of a {@link MultiOutputComputeFunc}. The link only
+   * receives the records collected for this output.
+   *
+   * @param index index of the output
+   * @param <P> type of the records of the output
+   * @return the link
+   */
+  public <P> DirectTLink<P> output(int index) {
+    if (!(computeFunc instanceof MultiOutputComputeFunc)) {
+      throw new RuntimeException("Outputs can only be created for a multi output compute");
+    }
+    DirectTLink<P> direct = new DirectTLink<>(getTSetEnv(), getParallelism(),
+        getOutputSchema());
+    outputLinks.put(direct.getId(), index);
+    addChildToGraph(direct);
+    return direct;
+  }
+
   @Override
   public ComputeTSet<O> setName(String name) {
     rename(name);
@@ -72,6 +102,9 @@ public class ComputeTSet<O> extends BatchTSetImpl<O> {
     } else if (computeFunc instanceof ComputeCollectorFunc) {
       return new ComputeCollectorOp<>((ComputeCollectorFunc<?, O>) computeFunc, this,
           getInputs());
+    } else if (computeFunc instanceof MultiOutputComputeFunc) {
+      return new MultiOutputComputeOp<>((MultiOutputComputeFunc<?>) computeFunc, this,
+          getInputs(), outputLinks);
     }
 
     throw new RuntimeException("Unknown function type for compute: " + computeFunc);
@@ -76,6 +76,17 @@ public abstract class KeyedStoredTSet<K, V> extends BatchTupleTSetImpl<K, V>
     return getStoredSourceTSet().keyedReduce(reduceFn);
   }
 
+  @Override
+  public KeyedReduceTLink<K, V> keyedReduce(ReduceFunc<V> reduceFn,
+                                            PartitionFunc<K> partitionFn) {
+    return getStoredSourceTSet().keyedReduce(reduceFn, partitionFn);
+  }
+
+  @Override
+  public KeyedReduceTLink<K, V> skewAwareKeyedReduce(ReduceFunc<V> reduceFn) {
+    return getStoredSourceTSet().skewAwareKeyedReduce(reduceFn);
+  }
+
   @Override
   public KeyedGatherTLink<K, V> keyedGather() {
     return getStoredSourceTSet().keyedGather();
@@ -0,0 +1,45 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.tset.sets.batch.row;
+
+import edu.iu.dsc.tws.api.compute.nodes.INode;
+import edu.iu.dsc.tws.api.tset.fn.SourceFunc;
+import edu.iu.dsc.tws.api.tset.schema.RowSchema;
+import edu.iu.dsc.tws.api.tset.schema.Schema;
+import edu.iu.dsc.tws.common.table.Table;
+import edu.iu.dsc.tws.tset.env.BatchEnvironment;
+import edu.iu.dsc.tws.tset.ops.SourceOp;
+
+/**
+ * Row source whose function produces whole tables, so the tables are written to the edges as
+ * they are instead of being built row by row.
+ */
+public class ArrowRowSourceTSet extends BatchRowTSetImpl {
+  private SourceFunc<Table> source;
+
+  public ArrowRowSourceTSet(BatchEnvironment tSetEnv, String name, SourceFunc<Table> src,
+                            int parallelism, Schema schema) {
+    super(tSetEnv, name, parallelism, schema);
+    this.source = src;
+  }
+
+  @Override
+  public INode getINode() {
+    return new SourceOp<>(source, this, getInputs());
+  }
+
+  @Override
+  public ArrowRowSourceTSet withSchema(RowSchema schema) {
+    this.setOutputSchema(schema);
+    return this;
+  }
+}
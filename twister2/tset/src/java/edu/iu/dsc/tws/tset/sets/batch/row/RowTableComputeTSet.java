@@ -0,0 +1,49 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.tset.sets.batch.row;
+
+import edu.iu.dsc.tws.api.compute.nodes.INode;
+import edu.iu.dsc.tws.api.tset.schema.RowSchema;
+import edu.iu.dsc.tws.tset.env.BatchEnvironment;
+import edu.iu.dsc.tws.tset.fn.row.RowTableCompute;
+import edu.iu.dsc.tws.tset.ops.row.RowTableOp;
+
+/**
+ * A row TSet computed by a columnar table operator. The output schema is derived from the
+ * input schema by the operator.
+ */
+public class RowTableComputeTSet extends BatchRowTSetImpl {
+  private RowTableCompute computeFunc;
+
+  public RowTableComputeTSet(BatchEnvironment tSetEnv, String name,
+                             RowTableCompute computeFn, int parallelism,
+                             RowSchema inputSchema) {
+    super(tSetEnv, name, parallelism, inputSchema);
+    this.computeFunc = computeFn;
+    this.setOutputSchema(RowSchema.fromArrow(
+        computeFn.getOperator().getOutputSchema(inputSchema.toArrowSchema())));
+  }
+
+  @Override
+  public INode getINode() {
+    return new RowTableOp(computeFunc, this, getInputs());
+  }
+
+  /**
+   * Get the compute function associated with this TSet
+   *
+   * @return the compute function
+   */
+  public RowTableCompute getComputeFunc() {
+    return computeFunc;
+  }
+}
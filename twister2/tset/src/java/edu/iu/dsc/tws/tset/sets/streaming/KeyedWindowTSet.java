@@ -0,0 +1,151 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.tset.sets.streaming;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import edu.iu.dsc.tws.api.comms.structs.Tuple;
+import edu.iu.dsc.tws.api.compute.nodes.ICompute;
+import edu.iu.dsc.tws.api.tset.fn.ReduceFunc;
+import edu.iu.dsc.tws.api.tset.schema.Schema;
+import edu.iu.dsc.tws.api.tset.schema.TupleSchema;
+import edu.iu.dsc.tws.task.window.api.ITimestampExtractor;
+import edu.iu.dsc.tws.task.window.util.WindowParameter;
+import edu.iu.dsc.tws.tset.env.StreamingEnvironment;
+import edu.iu.dsc.tws.tset.links.streaming.SDirectTLink;
+import edu.iu.dsc.tws.tset.ops.KeyedWindowOp;
+
+/**
+ * Reduces the values of each key in event time windows. The windows are duration windows of
+ * the {@link WindowParameter}, their time is taken from the values with the timestamp
+ * extractor. The output has the key and the reduced value of each window, and the values that
+ * arrive after the watermark passed them can be read from {@link #lateData()}.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class KeyedWindowTSet<K, V> extends StreamingTupleTSetImpl<K, V> {
+  private WindowParameter windowParameter;
+
+  private ITimestampExtractor<V> timestampExtractor;
+
+  private ReduceFunc<V> reduceFunc;
+
+  private long allowedLateness;
+
+  /**
+   * Idle timeout of the inputs in milliseconds, negative to use the configured value
+   */
+  private long idleTimeout = -1;
+
+  /**
+   * Number of tasks sending data to this tset
+   */
+  private int inputs;
+
+  /**
+   * Ids of the links created with {@link #lateData()}
+   */
+  private Set<String> lateLinks = new HashSet<>();
+
+  public KeyedWindowTSet(StreamingEnvironment tSetEnv, WindowParameter winParam,
+                         ITimestampExtractor<V> timestampExtractor, int inputs,
+                         int parallelism, Schema inputSchema) {
+    super(tSetEnv, "skwindow", parallelism, inputSchema);
+    if (winParam.getWindowDurationSize() == null || winParam.getSldingDurationSize() == null) {
+      throw new IllegalArgumentException("Keyed windows only support duration windows");
+    }
+    this.windowParameter = winParam;
+    this.timestampExtractor = timestampExtractor;
+    this.inputs = inputs;
+  }
+
+  /**
+   * Reduce the values of each key in a window
+   *
+   * @param reduceFn reduce function
+   * @return this tset
+   */
+  public KeyedWindowTSet<K, V> aggregate(ReduceFunc<V> reduceFn) {
+    if (this.reduceFunc != null) {
+      throw new RuntimeException("aggregate can only be called once on a KeyedWindowTSet "
+          + getName());
+    }
+    this.reduceFunc = reduceFn;
+    return this;
+  }
+
+  /**
+   * Set how far the watermark stays behind the event time of the slowest input, values that
+   * arrive this much out of order are still added to their windows
+   *
+   * @param lateness the lateness
+   * @param timeUnit unit of the lateness
+   * @return this tset
+   */
+  public KeyedWindowTSet<K, V> withAllowedLateness(long lateness, TimeUnit timeUnit) {
+    this.allowedLateness = timeUnit.toMillis(lateness);
+    return this;
+  }
+
+  /**
+   * Set how long an input can stay silent before the watermark advances without it. An
+   * upstream task that never sends to a window task would hold back its windows forever
+   * otherwise. Overrides {@link KeyedWindowOp#IDLE_TIMEOUT}.
+   *
+   * @param timeout the processing time timeout, 0 to always wait for every input
+   * @param timeUnit unit of the timeout
+   * @return this tset
+   */
+  public KeyedWindowTSet<K, V> withIdleTimeout(long timeout, TimeUnit timeUnit) {
+    this.idleTimeout = timeUnit.toMillis(timeout);
+    return this;
+  }
+
+  /**
+   * Create a direct link receiving the values that arrived after their windows were emitted
+   *
+   * @return the link
+   */
+  public SDirectTLink<Tuple<K, V>> lateData() {
+    SDirectTLink<Tuple<K, V>> direct = new SDirectTLink<>(getTSetEnv(), getParallelism(),
+        getOutputSchema());
+    lateLinks.add(direct.getId());
+    addChildToGraph(direct);
+    return direct;
+  }
+
+  @Override
+  public KeyedWindowTSet<K, V> setName(String name) {
+    rename(name);
+    return this;
+  }
+
+  @Override
+  public KeyedWindowTSet<K, V> withSchema(TupleSchema schema) {
+    return (KeyedWindowTSet<K, V>) super.withSchema(schema);
+  }
+
+  @Override
+  public ICompute getINode() {
+    if (reduceFunc == null) {
+      throw new RuntimeException("aggregate should be called on the KeyedWindowTSet "
+          + getName());
+    }
+    return new KeyedWindowOp<>(reduceFunc, timestampExtractor,
+        windowParameter.getWindowDurationSize().value,
+        windowParameter.getSldingDurationSize().value, allowedLateness, idleTimeout, inputs,
+        lateLinks, this, getInputs());
+  }
+}
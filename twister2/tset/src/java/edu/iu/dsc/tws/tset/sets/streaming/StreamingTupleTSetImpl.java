@@ -18,6 +18,8 @@ import edu.iu.dsc.tws.api.tset.schema.PrimitiveSchemas;
 import edu.iu.dsc.tws.api.tset.schema.Schema;
 import edu.iu.dsc.tws.api.tset.schema.TupleSchema;
 import edu.iu.dsc.tws.api.tset.sets.streaming.StreamingTupleTSet;
+import edu.iu.dsc.tws.task.window.api.ITimestampExtractor;
+import edu.iu.dsc.tws.task.window.util.WindowParameter;
 import edu.iu.dsc.tws.tset.env.StreamingEnvironment;
 import edu.iu.dsc.tws.tset.links.streaming.SKeyedDirectTLink;
 import edu.iu.dsc.tws.tset.links.streaming.SKeyedPartitionTLink;
@@ -58,6 +60,20 @@ public abstract class StreamingTupleTSetImpl<K, V> extends BaseTSetWithSchema<V>
     return direct;
   }
 
+  /**
+   * Partition the values by the key and reduce the values of each key in event time windows
+   *
+   * @param partitionFn partition function of the keys
+   * @param windowParameter the duration of the windows
+   * @param timestampExtractor extracts the event time of a value in milliseconds
+   * @return the windowed tset, {@link KeyedWindowTSet#aggregate} should be called on it
+   */
+  public KeyedWindowTSet<K, V> keyedWindow(PartitionFunc<K> partitionFn,
+                                           WindowParameter windowParameter,
+                                           ITimestampExtractor<V> timestampExtractor) {
+    return keyedPartition(partitionFn).keyedWindow(windowParameter, timestampExtractor);
+  }
+
   @Override
   public StreamingTupleTSetImpl<K, V> withSchema(TupleSchema schema) {
     this.setOutputSchema(schema);
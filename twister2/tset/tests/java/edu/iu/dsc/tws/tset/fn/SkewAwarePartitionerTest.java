@@ -0,0 +1,198 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.tset.fn;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import edu.iu.dsc.tws.api.tset.fn.PartitionFunc;
+
+public class SkewAwarePartitionerTest {
+  private static final Set<Integer> SOURCES = new HashSet<>(Arrays.asList(0, 1, 2, 3));
+
+  private static final Set<Integer> TARGETS = new HashSet<>(Arrays.asList(10, 11, 12, 13));
+
+  private static final int HOT_KEY = 7;
+
+  /**
+   * The key of the i th record of a source, two thirds of the records have the hot key
+   */
+  private static int key(int source, int i) {
+    return i % 3 == 0 ? 100 + (source * 31 + i) % 97 : HOT_KEY;
+  }
+
+  @Test
+  public void testHeavyKeySpreadAfterMinSamples() {
+    SkewAwarePartitioner<Integer> partitioner = new SkewAwarePartitioner<>(100, 1.0, 0);
+    partitioner.prepare(SOURCES, TARGETS);
+
+    Set<Integer> beforeSamples = new HashSet<>();
+    Set<Integer> afterSamples = new HashSet<>();
+    Map<Integer, Integer> load = new HashMap<>();
+    for (int i = 0; i < 3000; i++) {
+      int key = key(0, i);
+      int target = partitioner.partition(0, key);
+      Assert.assertTrue(TARGETS.contains(target));
+      load.merge(target, 1, Integer::sum);
+      if (key == HOT_KEY) {
+        // the sketch has seen i + 1 keys
+        (i + 1 < 100 ? beforeSamples : afterSamples).add(target);
+      }
+    }
+    // hashed to a single target until enough keys are seen, then spread over all of them
+    Assert.assertEquals(1, beforeSamples.size());
+    Assert.assertEquals(TARGETS, afterSamples);
+
+    // the heavy key fills up the targets left light by the other keys
+    int min = load.values().stream().mapToInt(Integer::intValue).min().getAsInt();
+    int max = load.values().stream().mapToInt(Integer::intValue).max().getAsInt();
+    Assert.assertTrue(load.toString(), max - min <= 100);
+  }
+
+  @Test
+  public void testSourcesCountSeparately() {
+    SkewAwarePartitioner<Integer> partitioner = new SkewAwarePartitioner<>(100, 1.0, 0);
+    partitioner.prepare(SOURCES, TARGETS);
+    for (int i = 0; i < 1000; i++) {
+      partitioner.partition(0, HOT_KEY);
+    }
+    // another source has not seen enough keys, so the key is still hashed
+    Set<Integer> targets = new HashSet<>();
+    for (int i = 0; i < 50; i++) {
+      targets.add(partitioner.partition(1, HOT_KEY));
+    }
+    Assert.assertEquals(1, targets.size());
+  }
+
+  @Test
+  public void testLightKeysCoalesced() {
+    SkewAwarePartitioner<Integer> partitioner = new SkewAwarePartitioner<>(100000, 1.0, 100);
+    partitioner.prepare(SOURCES, TARGETS);
+
+    // distinct keys, so no key is heavy
+    Set<Integer> firstTargets = new HashSet<>();
+    for (int i = 0; i < 199; i++) {
+      firstTargets.add(partitioner.partition(2, i));
+    }
+    Assert.assertEquals(new HashSet<>(Arrays.asList(10)), firstTargets);
+
+    Set<Integer> coalesced = new HashSet<>();
+    for (int i = 199; i < 299; i++) {
+      coalesced.add(partitioner.partition(2, i));
+    }
+    Assert.assertEquals(new HashSet<>(Arrays.asList(10, 11)), coalesced);
+
+    // after enough records all the targets are used
+    Set<Integer> all = new HashSet<>();
+    for (int i = 299; i < 399; i++) {
+      Assert.assertTrue(partitioner.partition(2, i) < 13);
+    }
+    for (int i = 399; i < 1000; i++) {
+      all.add(partitioner.partition(2, i));
+    }
+    Assert.assertEquals(TARGETS, all);
+  }
+
+  @Test
+  public void testNoCoalescingWithZeroMinRecords() {
+    SkewAwarePartitioner<Integer> partitioner = new SkewAwarePartitioner<>(100000, 1.0, 0);
+    partitioner.prepare(SOURCES, TARGETS);
+    Set<Integer> targets = new HashSet<>();
+    for (int i = 0; i < 20; i++) {
+      targets.add(partitioner.partition(3, i));
+    }
+    Assert.assertEquals(TARGETS, targets);
+  }
+
+  /**
+   * Sum the values of each key in the targets given by the partitioner
+   *
+   * @param records the values of each source by the record index
+   * @param keysOfSources the keys of each source by the record index
+   * @param partitioner the partitioner
+   * @return the sum of each key in each target
+   */
+  private static Map<Integer, Map<Integer, Long>> keyedReduce(
+      Map<Integer, Map<Integer, Long>> records, Map<Integer, int[]> keysOfSources,
+      PartitionFunc<Integer> partitioner) {
+    partitioner.prepare(records.keySet(), TARGETS);
+    Map<Integer, Map<Integer, Long>> reduced = new TreeMap<>();
+    for (Map.Entry<Integer, int[]> e : keysOfSources.entrySet()) {
+      int source = e.getKey();
+      int[] keys = e.getValue();
+      for (int i = 0; i < keys.length; i++) {
+        long value = records.get(source).get(i);
+        int target = partitioner.partition(source, keys[i]);
+        reduced.computeIfAbsent(target, t -> new TreeMap<>()).merge(keys[i], value, Long::sum);
+      }
+    }
+    return reduced;
+  }
+
+  @Test
+  public void testTwoStageReduceEqualsKeyedReduce() {
+    // the records of each source, by the record index
+    Map<Integer, Map<Integer, Long>> values = new TreeMap<>();
+    Map<Integer, int[]> keys = new TreeMap<>();
+    for (int source : SOURCES) {
+      int[] sourceKeys = new int[3000];
+      Map<Integer, Long> sourceValues = new TreeMap<>();
+      for (int i = 0; i < sourceKeys.length; i++) {
+        sourceKeys[i] = key(source, i);
+        sourceValues.put(i, (long) source * 10000 + i);
+      }
+      keys.put(source, sourceKeys);
+      values.put(source, sourceValues);
+    }
+
+    Map<Integer, Map<Integer, Long>> expected = keyedReduce(values, keys,
+        new HashingPartitioner<>());
+
+    // the first stage splits the heavy key over the targets
+    Map<Integer, Map<Integer, Long>> partials = keyedReduce(values, keys,
+        new SkewAwarePartitioner<>(100, 1.0, 0));
+    int hotTargets = 0;
+    for (Map<Integer, Long> partial : partials.values()) {
+      if (partial.containsKey(HOT_KEY)) {
+        hotTargets++;
+      }
+    }
+    Assert.assertEquals(TARGETS.size(), hotTargets);
+
+    // the second stage reduces the partial results of each key again, the targets of the first
+    // stage are the sources of the second stage
+    Map<Integer, Map<Integer, Long>> partialValues = new TreeMap<>();
+    Map<Integer, int[]> partialKeys = new TreeMap<>();
+    for (Map.Entry<Integer, Map<Integer, Long>> e : partials.entrySet()) {
+      int[] targetKeys = new int[e.getValue().size()];
+      Map<Integer, Long> targetValues = new TreeMap<>();
+      int i = 0;
+      for (Map.Entry<Integer, Long> partial : e.getValue().entrySet()) {
+        targetKeys[i] = partial.getKey();
+        targetValues.put(i++, partial.getValue());
+      }
+      partialKeys.put(e.getKey(), targetKeys);
+      partialValues.put(e.getKey(), targetValues);
+    }
+    Map<Integer, Map<Integer, Long>> actual = keyedReduce(partialValues, partialKeys,
+        new HashingPartitioner<>());
+
+    Assert.assertEquals(expected, actual);
+  }
+}
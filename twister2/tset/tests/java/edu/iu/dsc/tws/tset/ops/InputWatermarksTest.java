@@ -0,0 +1,101 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.tset.ops;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class InputWatermarksTest {
+
+  @Test
+  public void testMinimumOfInputs() {
+    InputWatermarks watermarks = new InputWatermarks(2, 0, 0);
+    Assert.assertFalse(watermarks.update(0, 100, 0));
+    Assert.assertEquals(Long.MIN_VALUE, watermarks.getWatermark());
+
+    Assert.assertTrue(watermarks.update(1, 50, 0));
+    Assert.assertEquals(50, watermarks.getWatermark());
+
+    // the faster input does not move the watermark
+    Assert.assertFalse(watermarks.update(0, 200, 0));
+    Assert.assertTrue(watermarks.update(1, 150, 0));
+    Assert.assertEquals(150, watermarks.getWatermark());
+
+    // out of order values do not move the watermark back
+    Assert.assertFalse(watermarks.update(1, 10, 0));
+    Assert.assertEquals(150, watermarks.getWatermark());
+  }
+
+  @Test
+  public void testAllowedLateness() {
+    InputWatermarks watermarks = new InputWatermarks(1, 30, 0);
+    Assert.assertTrue(watermarks.update(0, 100, 0));
+    Assert.assertEquals(70, watermarks.getWatermark());
+    Assert.assertFalse(watermarks.update(0, 90, 0));
+    Assert.assertTrue(watermarks.update(0, 131, 0));
+    Assert.assertEquals(101, watermarks.getWatermark());
+  }
+
+  @Test
+  public void testWaitsForSilentInputWithoutTimeout() {
+    InputWatermarks watermarks = new InputWatermarks(2, 0, 0);
+    for (int i = 0; i < 100; i++) {
+      Assert.assertFalse(watermarks.update(0, i, i * 1000L));
+    }
+    Assert.assertEquals(Long.MIN_VALUE, watermarks.getWatermark());
+  }
+
+  @Test
+  public void testInputThatNeverSends() {
+    InputWatermarks watermarks = new InputWatermarks(3, 0, 100);
+    Assert.assertFalse(watermarks.update(0, 10, 0));
+    Assert.assertFalse(watermarks.update(1, 20, 50));
+    Assert.assertFalse(watermarks.update(0, 30, 99));
+
+    // the third input did not send within the timeout of the first value
+    Assert.assertTrue(watermarks.update(0, 40, 100));
+    Assert.assertEquals(20, watermarks.getWatermark());
+    Assert.assertTrue(watermarks.update(1, 50, 120));
+    Assert.assertEquals(40, watermarks.getWatermark());
+  }
+
+  @Test
+  public void testIdleInputRejoins() {
+    InputWatermarks watermarks = new InputWatermarks(2, 0, 100);
+    watermarks.update(0, 10, 0);
+    Assert.assertTrue(watermarks.update(1, 10, 0));
+    Assert.assertEquals(10, watermarks.getWatermark());
+
+    // input 1 stops sending
+    Assert.assertTrue(watermarks.update(0, 500, 100));
+    Assert.assertEquals(500, watermarks.getWatermark());
+
+    // input 1 sends again behind the watermark, it holds the watermark from now on
+    Assert.assertFalse(watermarks.update(1, 400, 150));
+    Assert.assertEquals(500, watermarks.getWatermark());
+    Assert.assertFalse(watermarks.update(0, 700, 160));
+    Assert.assertEquals(500, watermarks.getWatermark());
+    Assert.assertTrue(watermarks.update(1, 600, 170));
+    Assert.assertEquals(600, watermarks.getWatermark());
+  }
+
+  @Test
+  public void testMoreInputsThanExpected() {
+    InputWatermarks watermarks = new InputWatermarks(1, 0, 0);
+    Assert.assertTrue(watermarks.update(0, 100, 0));
+    Assert.assertFalse(watermarks.update(1, 50, 0));
+    Assert.assertEquals(100, watermarks.getWatermark());
+    Assert.assertFalse(watermarks.update(0, 300, 0));
+    Assert.assertTrue(watermarks.update(1, 200, 0));
+    Assert.assertEquals(200, watermarks.getWatermark());
+  }
+}
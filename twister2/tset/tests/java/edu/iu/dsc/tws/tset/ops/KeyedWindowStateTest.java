@@ -0,0 +1,155 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.tset.ops;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class KeyedWindowStateTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private List<String> emitted = new ArrayList<>();
+
+  private KeyedWindowState<String, Integer> newState(long window, long slide, int maxKeys) {
+    return new KeyedWindowState<>((a, b) -> a + b, window, slide, maxKeys,
+        folder.getRoot().getPath());
+  }
+
+  private void emit(String key, Integer value) {
+    emitted.add(key + "=" + value);
+  }
+
+  @Test
+  public void testTumblingWindows() {
+    KeyedWindowState<String, Integer> state = newState(10, 10, 100);
+    state.add("a", 1, 1);
+    state.add("a", 9, 2);
+    state.add("b", 5, 10);
+    state.add("a", 10, 4);
+
+    state.advance(9, this::emit);
+    Assert.assertTrue(emitted.isEmpty());
+
+    state.advance(10, this::emit);
+    Assert.assertEquals(2, emitted.size());
+    Assert.assertTrue(emitted.contains("a=3"));
+    Assert.assertTrue(emitted.contains("b=10"));
+    Assert.assertEquals(1, state.size());
+
+    emitted.clear();
+    state.advance(20, this::emit);
+    Assert.assertEquals(1, emitted.size());
+    Assert.assertEquals("a=4", emitted.get(0));
+    Assert.assertEquals(0, state.size());
+    state.close();
+  }
+
+  @Test
+  public void testSlidingWindows() {
+    // windows of 10 sliding by 5 end at 5, 10, 15 and so on
+    KeyedWindowState<String, Integer> state = newState(10, 5, 100);
+    state.add("a", 2, 1);
+    state.add("a", 7, 2);
+    state.add("a", 12, 4);
+
+    state.advance(Long.MAX_VALUE, this::emit);
+    // [-5, 5) [0, 10) [5, 15) [10, 20)
+    Assert.assertEquals(Arrays.asList("a=1", "a=3", "a=6", "a=4"), emitted);
+    Assert.assertEquals(0, state.size());
+    state.close();
+  }
+
+  @Test
+  public void testWindowsFireInOrderOfTheirEnds() {
+    KeyedWindowState<String, Integer> state = newState(10, 10, 100);
+    state.add("b", 25, 3);
+    state.add("a", 5, 1);
+    state.add("c", 15, 2);
+
+    state.advance(30, this::emit);
+    Assert.assertEquals("a=1", emitted.get(0));
+    Assert.assertEquals("c=2", emitted.get(1));
+    Assert.assertEquals("b=3", emitted.get(2));
+    state.close();
+  }
+
+  @Test
+  public void testLateValuesWithWatermarks() {
+    KeyedWindowState<String, Integer> state = newState(10, 10, 100);
+    InputWatermarks watermarks = new InputWatermarks(1, 5, 0);
+    List<Integer> late = new ArrayList<>();
+
+    long[] times = {1, 4, 12, 9, 16, 3, 14};
+    for (long time : times) {
+      if (time < watermarks.getWatermark()) {
+        late.add((int) time);
+      } else {
+        state.add("a", time, (int) time);
+      }
+      if (watermarks.update(0, time, 0)) {
+        state.advance(watermarks.getWatermark(), this::emit);
+      }
+    }
+    // 9 is within the lateness of 12, 3 arrives after the first window was emitted at 16
+    Assert.assertEquals(Arrays.asList(3), late);
+    Assert.assertEquals(Arrays.asList("a=14"), emitted);
+
+    state.advance(Long.MAX_VALUE, this::emit);
+    Assert.assertEquals("a=42", emitted.get(1));
+    state.close();
+  }
+
+  @Test
+  public void testSpilledKeys() {
+    KeyedWindowState<String, Integer> state = newState(10, 5, 2);
+    int keys = 50;
+    for (int t = 0; t < 20; t++) {
+      for (int k = 0; k < keys; k++) {
+        state.add("k" + k, t, k);
+      }
+    }
+    Assert.assertEquals(keys, state.size());
+    File[] files = folder.getRoot().listFiles();
+    Assert.assertNotNull(files);
+    Assert.assertEquals(1, files.length);
+
+    state.advance(10, this::emit);
+    // windows ending at 5 and 10 for every key
+    Assert.assertEquals(2 * keys, emitted.size());
+    int[] sums = new int[keys];
+    for (String e : emitted) {
+      String[] keyValue = e.split("=");
+      sums[Integer.parseInt(keyValue[0].substring(1))] += Integer.parseInt(keyValue[1]);
+    }
+    for (int k = 0; k < keys; k++) {
+      // 5 values in [-5, 5) and 10 values in [0, 10)
+      Assert.assertEquals(15 * k, sums[k]);
+    }
+
+    emitted.clear();
+    state.advance(Long.MAX_VALUE, this::emit);
+    // windows ending at 15, 20 and 25
+    Assert.assertEquals(3 * keys, emitted.size());
+    Assert.assertEquals(0, state.size());
+
+    state.close();
+    Assert.assertEquals(0, folder.getRoot().listFiles().length);
+  }
+}
@@ -0,0 +1,130 @@
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//  http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+package edu.iu.dsc.tws.tset.ops;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import edu.iu.dsc.tws.api.compute.TaskContext;
+import edu.iu.dsc.tws.api.compute.TaskMessage;
+import edu.iu.dsc.tws.api.compute.graph.OperationMode;
+import edu.iu.dsc.tws.api.config.Config;
+import edu.iu.dsc.tws.api.tset.fn.MultiOutputCollector;
+import edu.iu.dsc.tws.api.tset.fn.MultiOutputComputeFunc;
+
+public class MultiOutputComputeOpTest {
+
+  /**
+   * Sends each value to the output given by the value modulo 3
+   */
+  private static class ModuloFunction implements MultiOutputComputeFunc<List<Integer>> {
+    @Override
+    public void compute(List<Integer> input, MultiOutputCollector output) {
+      for (int value : input) {
+        output.collect(value % 3, value);
+      }
+    }
+  }
+
+  /**
+   * Creates a task context with the given out edges that records the writes to each edge
+   */
+  private static TaskContext context(Map<String, List<Object>> written, String... edges) {
+    Map<String, String> outEdges = new LinkedHashMap<>();
+    for (String edge : edges) {
+      outEdges.put(edge, "direct");
+      written.put(edge, new ArrayList<>());
+    }
+    TaskContext context = Mockito.mock(TaskContext.class);
+    Mockito.when(context.getOutEdges()).thenReturn(outEdges);
+    Mockito.when(context.getInEdges()).thenReturn(Collections.singletonMap("direct",
+        Collections.singleton("in")));
+    Mockito.when(context.getOperationMode()).thenReturn(OperationMode.BATCH);
+    Mockito.when(context.write(Mockito.anyString(), Mockito.any())).then(invocation -> {
+      written.get((String) invocation.getArguments()[0]).add(invocation.getArguments()[1]);
+      return true;
+    });
+    return context;
+  }
+
+  private static MultiOutputComputeOp<List<Integer>> op(Map<String, Integer> edgeOutputs,
+                                                        TaskContext context) {
+    MultiOutputComputeOp<List<Integer>> op = new MultiOutputComputeOp<>(new ModuloFunction(),
+        null, Collections.emptyMap(), edgeOutputs);
+    op.prepare(Config.newBuilder().build(), context);
+    op.execute(new TaskMessage<>(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8)));
+    return op;
+  }
+
+  @Test
+  public void testEachOutputGetsItsRecords() {
+    Map<String, Integer> edgeOutputs = new HashMap<>();
+    edgeOutputs.put("e0", 0);
+    edgeOutputs.put("e1", 1);
+    edgeOutputs.put("e2", 2);
+    Map<String, List<Object>> written = new HashMap<>();
+    op(edgeOutputs, context(written, "e0", "e1", "e2"));
+
+    Assert.assertEquals(Arrays.asList(0, 3, 6), written.get("e0"));
+    Assert.assertEquals(Arrays.asList(1, 4, 7), written.get("e1"));
+    Assert.assertEquals(Arrays.asList(2, 5, 8), written.get("e2"));
+  }
+
+  @Test
+  public void testOutputWithSeveralEdges() {
+    // the output 1 is used by two links, the output 2 is not used
+    Map<String, Integer> edgeOutputs = new HashMap<>();
+    edgeOutputs.put("e0", 0);
+    edgeOutputs.put("e1", 1);
+    edgeOutputs.put("e1b", 1);
+    Map<String, List<Object>> written = new HashMap<>();
+    op(edgeOutputs, context(written, "e0", "e1", "e1b"));
+
+    Assert.assertEquals(Arrays.asList(0, 3, 6), written.get("e0"));
+    Assert.assertEquals(Arrays.asList(1, 4, 7), written.get("e1"));
+    Assert.assertEquals(Arrays.asList(1, 4, 7), written.get("e1b"));
+  }
+
+  @Test
+  public void testEndWrittenToAllEdges() {
+    Map<String, Integer> edgeOutputs = new HashMap<>();
+    edgeOutputs.put("e0", 0);
+    edgeOutputs.put("e1", 1);
+    Map<String, List<Object>> written = new HashMap<>();
+    TaskContext context = context(written, "e0", "e1");
+    op(edgeOutputs, context).endExecute();
+
+    Mockito.verify(context).end("e0");
+    Mockito.verify(context).end("e1");
+  }
+
+  @Test
+  public void testEdgeWithoutOutput() {
+    Map<String, Integer> edgeOutputs = new HashMap<>();
+    edgeOutputs.put("e0", 0);
+    try {
+      op(edgeOutputs, context(new HashMap<>(), "e0", "e1"));
+      Assert.fail("An edge without an output should fail");
+    } catch (RuntimeException e) {
+      Assert.assertTrue(e.getMessage(), e.getMessage().contains("e1"));
+    }
+  }
+}